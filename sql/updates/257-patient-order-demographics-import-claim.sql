@@ -0,0 +1,12 @@
+BEGIN;
+SELECT _v.register_patch('257-patient-order-demographics-import-claim', NULL, NULL);
+
+-- The patient order background task claims pending demographics imports in a short transaction,
+-- calls Epic outside of any transaction, then writes results back in a batch.
+-- A claim that is never resolved (e.g. the node died mid-flight) expires and the order becomes claimable again.
+ALTER TABLE patient_order ADD COLUMN patient_demographics_import_claimed_at TIMESTAMPTZ;
+
+CREATE INDEX patient_order_demographics_import_pending_idx ON patient_order (institution_id, patient_demographics_import_claimed_at)
+WHERE patient_order_demographics_import_status_id='PENDING' AND test_patient_order=FALSE AND patient_order_disposition_id='OPEN';
+
+COMMIT;
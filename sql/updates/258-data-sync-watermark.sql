@@ -0,0 +1,37 @@
+BEGIN;
+SELECT _v.register_patch('258-data-sync-watermark', NULL, NULL);
+
+-- Tables that are pulled over from the remote database incrementally
+CREATE TABLE data_sync_table (
+	data_sync_table_id TEXT PRIMARY KEY,
+	description TEXT NOT NULL,
+	display_order INTEGER NOT NULL
+);
+
+INSERT INTO data_sync_table VALUES ('INSTITUTION', 'Institution', 1);
+INSERT INTO data_sync_table VALUES ('TAG', 'Tag', 2);
+INSERT INTO data_sync_table VALUES ('CONTENT', 'Content', 3);
+INSERT INTO data_sync_table VALUES ('CONTENT_AUDIENCE', 'Content Audience', 4);
+INSERT INTO data_sync_table VALUES ('TAG_CONTENT', 'Tag Content', 5);
+INSERT INTO data_sync_table VALUES ('INSTITUTION_CONTENT', 'Institution Content', 6);
+
+-- High-water mark of remote (last_updated, id) that has been synced for each table.
+-- Remote rows are walked in (last_updated, id) order so a batch boundary never skips rows that share a timestamp.
+-- A NULL watermark means the table has never been synced incrementally and will be walked from the beginning.
+CREATE TABLE data_sync_watermark (
+	data_sync_table_id TEXT PRIMARY KEY REFERENCES data_sync_table,
+	last_updated_watermark TIMESTAMPTZ,
+	id_watermark TEXT,
+	last_rows_synced INTEGER NOT NULL DEFAULT 0,
+	total_rows_synced BIGINT NOT NULL DEFAULT 0,
+	last_synced_at TIMESTAMPTZ,
+	caught_up_at TIMESTAMPTZ,
+	created TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+	last_updated TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE TRIGGER set_last_updated BEFORE INSERT OR UPDATE ON data_sync_watermark FOR EACH ROW EXECUTE PROCEDURE set_last_updated();
+
+INSERT INTO data_sync_watermark (data_sync_table_id) SELECT data_sync_table_id FROM data_sync_table;
+
+COMMIT;
@@ -0,0 +1,60 @@
+BEGIN;
+SELECT _v.register_patch('259-study-export', NULL, NULL);
+
+CREATE TABLE study_export_status (
+	study_export_status_id TEXT PRIMARY KEY,
+	description TEXT NOT NULL
+);
+
+INSERT INTO study_export_status VALUES ('QUEUED', 'Queued');
+INSERT INTO study_export_status VALUES ('IN_PROGRESS', 'In Progress');
+INSERT INTO study_export_status VALUES ('COMPLETE', 'Complete');
+INSERT INTO study_export_status VALUES ('FAILED', 'Failed');
+
+-- A study-wide export of Beiwe uploads, written to storage as one gzipped object per source file plus a manifest.
+-- heartbeat_at is bumped as files complete; an IN_PROGRESS export whose heartbeat goes stale is assumed abandoned
+-- (e.g. its node was redeployed) and is picked back up, skipping files already checkpointed in study_export_file.
+CREATE TABLE study_export (
+	study_export_id UUID PRIMARY KEY,
+	study_id UUID NOT NULL REFERENCES study,
+	requested_by_account_id UUID NOT NULL REFERENCES account,
+	study_export_status_id TEXT NOT NULL REFERENCES study_export_status DEFAULT 'QUEUED',
+	total_file_count INTEGER NOT NULL DEFAULT 0,
+	exported_file_count INTEGER NOT NULL DEFAULT 0,
+	failed_file_count INTEGER NOT NULL DEFAULT 0,
+	source_byte_count BIGINT NOT NULL DEFAULT 0,
+	exported_byte_count BIGINT NOT NULL DEFAULT 0,
+	manifest_storage_key TEXT,
+	error_message TEXT,
+	started_at TIMESTAMPTZ,
+	heartbeat_at TIMESTAMPTZ,
+	completed_at TIMESTAMPTZ,
+	created TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+	last_updated TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX study_export_study_id_idx ON study_export (study_id);
+CREATE INDEX study_export_pending_idx ON study_export (created) WHERE study_export_status_id IN ('QUEUED', 'IN_PROGRESS');
+
+CREATE TRIGGER set_last_updated BEFORE INSERT OR UPDATE ON study_export FOR EACH ROW EXECUTE PROCEDURE set_last_updated();
+
+-- Per-file checkpoint for an export.  A file with an exported row is never re-processed when an export resumes;
+-- failed files are retried on resume.
+CREATE TABLE study_export_file (
+	study_export_id UUID NOT NULL REFERENCES study_export,
+	file_upload_id UUID NOT NULL REFERENCES file_upload,
+	exported BOOLEAN NOT NULL,
+	username TEXT NOT NULL,
+	passive_data BOOLEAN NOT NULL, -- Passive sensor data (encrypted) vs. active check-in uploads
+	storage_key TEXT,
+	source_byte_count BIGINT,
+	exported_byte_count BIGINT,
+	error_message TEXT,
+	created TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+	last_updated TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+	PRIMARY KEY (study_export_id, file_upload_id)
+);
+
+CREATE TRIGGER set_last_updated BEFORE INSERT OR UPDATE ON study_export_file FOR EACH ROW EXECUTE PROCEDURE set_last_updated();
+
+COMMIT;
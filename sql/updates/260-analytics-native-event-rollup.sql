@@ -0,0 +1,59 @@
+BEGIN;
+SELECT _v.register_patch('260-analytics-native-event-rollup', NULL, NULL);
+
+-- Supports walking events in (created, id) order for the rollup and for reading the "not yet rolled up" tail
+CREATE INDEX analytics_native_event_created_id_idx ON analytics_native_event (created, analytics_native_event_id);
+
+-- One row per institution/day/account/event type.
+-- "day" is the event timestamp's calendar date in the institution's time zone at the time of rollup.
+-- Session IDs are kept as an exact set so distinct session counts can be computed across any range of days.
+-- Events without an account are not rolled up.
+CREATE TABLE analytics_native_event_account_day (
+	institution_id TEXT NOT NULL REFERENCES institution,
+	day DATE NOT NULL,
+	account_id UUID NOT NULL,
+	analytics_native_event_type_id TEXT NOT NULL REFERENCES analytics_native_event_type,
+	event_count BIGINT NOT NULL,
+	session_ids UUID[] NOT NULL,
+	created TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+	last_updated TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+	PRIMARY KEY (institution_id, day, account_id, analytics_native_event_type_id)
+);
+
+CREATE TRIGGER set_last_updated BEFORE INSERT OR UPDATE ON analytics_native_event_account_day FOR EACH ROW EXECUTE PROCEDURE set_last_updated();
+
+-- SESSION_STARTED events per institution/day/account/referring URL
+CREATE TABLE analytics_native_event_referrer_day (
+	institution_id TEXT NOT NULL REFERENCES institution,
+	day DATE NOT NULL,
+	account_id UUID NOT NULL,
+	referring_url TEXT NOT NULL,
+	event_count BIGINT NOT NULL,
+	created TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+	last_updated TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+	PRIMARY KEY (institution_id, day, account_id, referring_url)
+);
+
+CREATE TRIGGER set_last_updated BEFORE INSERT OR UPDATE ON analytics_native_event_referrer_day FOR EACH ROW EXECUTE PROCEDURE set_last_updated();
+
+-- High-water mark of (created, id) that has been folded into the rollup tables.
+-- Always exactly one row.  A NULL watermark means nothing has been rolled up yet.
+-- Readers combine rollup rows with raw events past the watermark, so the watermark and the rollup rows
+-- are always updated in the same transaction.
+CREATE TABLE analytics_native_event_rollup_watermark (
+	analytics_native_event_rollup_watermark_id BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (analytics_native_event_rollup_watermark_id),
+	created_watermark TIMESTAMPTZ,
+	id_watermark UUID,
+	last_rows_rolled_up INTEGER NOT NULL DEFAULT 0,
+	total_rows_rolled_up BIGINT NOT NULL DEFAULT 0,
+	last_rolled_up_at TIMESTAMPTZ,
+	caught_up_at TIMESTAMPTZ,
+	created TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+	last_updated TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE TRIGGER set_last_updated BEFORE INSERT OR UPDATE ON analytics_native_event_rollup_watermark FOR EACH ROW EXECUTE PROCEDURE set_last_updated();
+
+INSERT INTO analytics_native_event_rollup_watermark DEFAULT VALUES;
+
+COMMIT;
@@ -0,0 +1,29 @@
+BEGIN;
+SELECT _v.register_patch('261-analytics-materialized-view-refresh', NULL, NULL);
+
+-- Materialized views that are refreshed by the application on a schedule.
+-- A view is always refreshed after the view it depends on; views without a dependency are refreshed concurrently.
+-- "source_watermark" is MAX(analytics_native_event.created) as of the start of the last successful refresh -
+-- if no newer events have arrived since, the refresh is skipped.
+CREATE TABLE analytics_materialized_view (
+	analytics_materialized_view_id TEXT PRIMARY KEY,
+	depends_on_analytics_materialized_view_id TEXT REFERENCES analytics_materialized_view,
+	display_order INTEGER NOT NULL,
+	source_watermark TIMESTAMPTZ,
+	last_refresh_started_at TIMESTAMPTZ,
+	last_refreshed_at TIMESTAMPTZ,
+	last_refresh_duration_in_milliseconds BIGINT,
+	last_refresh_skipped_at TIMESTAMPTZ,
+	last_refresh_error TEXT,
+	created TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+	last_updated TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE TRIGGER set_last_updated BEFORE INSERT OR UPDATE ON analytics_materialized_view FOR EACH ROW EXECUTE PROCEDURE set_last_updated();
+
+INSERT INTO analytics_materialized_view (analytics_materialized_view_id, depends_on_analytics_materialized_view_id, display_order) VALUES ('mv_analytics_dwell_time', NULL, 1);
+INSERT INTO analytics_materialized_view (analytics_materialized_view_id, depends_on_analytics_materialized_view_id, display_order) VALUES ('mv_analytics_course_unit_video_event', NULL, 2);
+INSERT INTO analytics_materialized_view (analytics_materialized_view_id, depends_on_analytics_materialized_view_id, display_order) VALUES ('mv_analytics_course_unit_video_segment', 'mv_analytics_course_unit_video_event', 3);
+INSERT INTO analytics_materialized_view (analytics_materialized_view_id, depends_on_analytics_materialized_view_id, display_order) VALUES ('mv_analytics_course_unit_video_rollup', 'mv_analytics_course_unit_video_segment', 4);
+
+COMMIT;
@@ -0,0 +1,13 @@
+-- Not wrapped in a transaction: CREATE INDEX CONCURRENTLY can't run inside one.
+--
+-- Builds the (id, created) unique indexes that 262-event-table-partitioning-2 needs for the partitioned tables'
+-- primary keys, without blocking writes.  Footprint triggers insert into footprint_event, so building this index
+-- under a lock would stall every footprinted write for the duration.
+--
+-- The patch is only registered once both indexes exist.  If a build fails, drop the INVALID index it leaves behind
+-- and re-run this file.
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS analytics_native_event_id_created_idx ON analytics_native_event (analytics_native_event_id, created);
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS footprint_event_id_created_idx ON footprint_event (footprint_event_id, created);
+
+SELECT _v.register_patch('262-event-table-partitioning-1', NULL, NULL);
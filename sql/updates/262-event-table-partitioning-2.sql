@@ -0,0 +1,184 @@
+BEGIN;
+SELECT _v.register_patch('262-event-table-partitioning-2', ARRAY['262-event-table-partitioning-1'], NULL);
+
+-- Converts analytics_native_event and footprint_event to tables that are range-partitioned by month on "created".
+--
+-- Existing rows are not copied.  Each existing table is renamed to <table>_legacy and attached as a single partition
+-- covering everything before the first monthly partition.  The new primary key must include the partition key;
+-- the legacy partition's part of it is the (id, created) unique index built concurrently by
+-- 262-event-table-partitioning-1, attached here with USING INDEX rather than rebuilt under lock.  The only remaining
+-- full pass over each table is the sequential scan that validates the partition bound.
+--
+-- Materialized views built on these tables are recreated WITH NO DATA so they're not computed while this transaction
+-- holds its locks.  262-event-table-partitioning-3 populates them afterwards.
+--
+-- From then on, TablePartitionService creates monthly partitions ahead of time and detaches partitions that have
+-- aged out of retention, moving them to the "archive" schema.  Nothing is ever dropped automatically.
+--
+-- Requires Postgres 13+ (row-level BEFORE triggers on partitioned tables).
+
+CREATE SCHEMA IF NOT EXISTS archive;
+
+-- Tables whose partitions are managed by TablePartitionService
+CREATE TABLE partitioned_table (
+	partitioned_table_id TEXT PRIMARY KEY,
+	retention_in_months INTEGER NOT NULL,
+	premade_partition_months INTEGER NOT NULL,
+	created TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+	last_updated TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE TRIGGER set_last_updated BEFORE INSERT OR UPDATE ON partitioned_table FOR EACH ROW EXECUTE PROCEDURE set_last_updated();
+
+INSERT INTO partitioned_table (partitioned_table_id, retention_in_months, premade_partition_months) VALUES ('analytics_native_event', 24, 3);
+INSERT INTO partitioned_table (partitioned_table_id, retention_in_months, premade_partition_months) VALUES ('footprint_event', 24, 3);
+
+-- Every range partition that has been created for a partitioned table.
+-- A NULL range_start means the partition is unbounded below (the legacy partition).
+-- Default partitions are a safety net only and are not tracked here.
+CREATE TABLE table_partition (
+	table_partition_id TEXT PRIMARY KEY,
+	partitioned_table_id TEXT NOT NULL REFERENCES partitioned_table,
+	range_start TIMESTAMPTZ,
+	range_end TIMESTAMPTZ NOT NULL,
+	detached_at TIMESTAMPTZ,
+	created TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+	last_updated TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE TRIGGER set_last_updated BEFORE INSERT OR UPDATE ON table_partition FOR EACH ROW EXECUTE PROCEDURE set_last_updated();
+
+CREATE UNIQUE INDEX table_partition_range_end_idx ON table_partition (partitioned_table_id, range_end);
+
+-- Materialized views reference tables by identity rather than by name, so the ones built on analytics_native_event
+-- would keep reading the legacy table after the swap.  Capture their definitions and indexes, drop them,
+-- and rebuild them against the new table once it exists.
+CREATE TEMPORARY TABLE tmp_materialized_view ON COMMIT DROP AS
+SELECT
+	amv.analytics_materialized_view_id,
+	amv.display_order,
+	pg_get_viewdef(CAST(amv.analytics_materialized_view_id AS regclass)) AS definition,
+	ARRAY(
+		SELECT pi.indexdef
+		FROM pg_indexes pi
+		WHERE pi.schemaname=current_schema()
+		AND pi.tablename=amv.analytics_materialized_view_id
+	) AS index_definitions
+FROM analytics_materialized_view amv;
+
+DROP MATERIALIZED VIEW mv_analytics_course_unit_video_rollup;
+DROP MATERIALIZED VIEW mv_analytics_course_unit_video_segment;
+DROP MATERIALIZED VIEW mv_analytics_course_unit_video_event;
+DROP MATERIALIZED VIEW mv_analytics_dwell_time;
+
+CREATE FUNCTION pg_temp.convert_to_partitioned_table(p_table_name TEXT, p_id_column_name TEXT, p_premade_partition_months INTEGER) RETURNS VOID AS $$
+DECLARE
+	legacy_table_name TEXT := p_table_name || '_legacy';
+	-- Built by 262-event-table-partitioning-1
+	id_created_index_name TEXT := p_table_name || '_id_created_idx';
+	-- Monthly partitions are aligned to UTC
+	first_partition_start TIMESTAMPTZ := (date_trunc('month', NOW() AT TIME ZONE 'UTC') + INTERVAL '1 month') AT TIME ZONE 'UTC';
+	partition_start TIMESTAMPTZ;
+	partition_end TIMESTAMPTZ;
+	partition_name TEXT;
+	index_definitions TEXT[];
+	index_definition TEXT;
+	index_name TEXT;
+	foreign_key_definition TEXT;
+BEGIN
+	SELECT COALESCE(ARRAY_AGG(indexdef), '{}')
+	INTO index_definitions
+	FROM pg_indexes
+	WHERE schemaname=current_schema()
+	AND tablename=p_table_name
+	AND indexname <> p_table_name || '_pkey'
+	AND indexname <> id_created_index_name;
+
+	-- Move the existing table and its index names out of the way
+	EXECUTE format('ALTER TABLE %I RENAME TO %I', p_table_name, legacy_table_name);
+	EXECUTE format('ALTER TABLE %I RENAME CONSTRAINT %I TO %I', legacy_table_name, p_table_name || '_pkey', legacy_table_name || '_pkey');
+
+	FOR index_name IN
+		SELECT indexname
+		FROM pg_indexes
+		WHERE schemaname=current_schema()
+		AND tablename=legacy_table_name
+		AND indexname <> legacy_table_name || '_pkey'
+		AND indexname <> id_created_index_name
+	LOOP
+		EXECUTE format('ALTER INDEX %I RENAME TO %I', index_name, index_name || '_legacy');
+	END LOOP;
+
+	-- The parent's trigger is cloned onto every partition, including this one
+	EXECUTE format('DROP TRIGGER set_last_updated ON %I', legacy_table_name);
+
+	EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING COMMENTS) PARTITION BY RANGE (created)',
+		p_table_name, legacy_table_name);
+	EXECUTE format('ALTER TABLE %I ADD PRIMARY KEY (%I, created)', p_table_name, p_id_column_name);
+
+	-- The legacy table's existing foreign keys are reused when it's attached, so they are not revalidated
+	FOR foreign_key_definition IN
+		SELECT pg_get_constraintdef(c.oid)
+		FROM pg_constraint c
+		WHERE c.conrelid=CAST(legacy_table_name AS regclass)
+		AND c.contype='f'
+	LOOP
+		EXECUTE format('ALTER TABLE %I ADD %s', p_table_name, foreign_key_definition);
+	END LOOP;
+
+	-- ATTACH only adopts an existing index for the parent's primary key if it already backs a constraint
+	EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I UNIQUE USING INDEX %I', legacy_table_name, legacy_table_name || '_id_created_key', id_created_index_name);
+
+	-- A validated constraint that implies the partition bound lets ATTACH skip its own scan
+	EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I CHECK (created < %L)', legacy_table_name, legacy_table_name || '_created_check', first_partition_start);
+	EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (MINVALUE) TO (%L)', p_table_name, legacy_table_name, first_partition_start);
+
+	INSERT INTO table_partition (table_partition_id, partitioned_table_id, range_start, range_end)
+	VALUES (legacy_table_name, p_table_name, NULL, first_partition_start);
+
+	-- Catches rows if partitions ever aren't created in time, so inserts - including footprint triggers - never fail
+	EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', p_table_name || '_default', p_table_name);
+
+	partition_start := first_partition_start;
+
+	FOR i IN 1..p_premade_partition_months LOOP
+		partition_end := ((partition_start AT TIME ZONE 'UTC') + INTERVAL '1 month') AT TIME ZONE 'UTC';
+		partition_name := p_table_name || '_p' || to_char(partition_start AT TIME ZONE 'UTC', 'YYYY_MM');
+
+		EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)', partition_name, p_table_name, partition_start, partition_end);
+
+		INSERT INTO table_partition (table_partition_id, partitioned_table_id, range_start, range_end)
+		VALUES (partition_name, p_table_name, partition_start, partition_end);
+
+		partition_start := partition_end;
+	END LOOP;
+
+	-- Creating indexes on the parent cascades to every partition and adopts the matching legacy indexes as-is
+	FOREACH index_definition IN ARRAY index_definitions LOOP
+		EXECUTE index_definition;
+	END LOOP;
+
+	EXECUTE format('CREATE TRIGGER set_last_updated BEFORE INSERT OR UPDATE ON %I FOR EACH ROW EXECUTE PROCEDURE set_last_updated()', p_table_name);
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT pg_temp.convert_to_partitioned_table('analytics_native_event', 'analytics_native_event_id', 3);
+SELECT pg_temp.convert_to_partitioned_table('footprint_event', 'footprint_event_id', 3);
+
+-- Recreate the materialized views in dependency order against the new tables - 262-event-table-partitioning-3 fills them
+DO $$
+DECLARE
+	materialized_view RECORD;
+	index_definition TEXT;
+BEGIN
+	FOR materialized_view IN SELECT * FROM tmp_materialized_view ORDER BY display_order LOOP
+		EXECUTE format('CREATE MATERIALIZED VIEW %I AS %s WITH NO DATA', materialized_view.analytics_materialized_view_id,
+			rtrim(materialized_view.definition, E'; \n'));
+
+		FOREACH index_definition IN ARRAY materialized_view.index_definitions LOOP
+			EXECUTE index_definition;
+		END LOOP;
+	END LOOP;
+END $$;
+
+COMMIT;
@@ -0,0 +1,22 @@
+BEGIN;
+SELECT _v.register_patch('262-event-table-partitioning-3', ARRAY['262-event-table-partitioning-2'], NULL);
+
+-- Populates the materialized views that 262-event-table-partitioning-2 recreated WITH NO DATA, in dependency order.
+-- This only locks the views themselves - the event tables are just read, so inserts into them carry on as normal.
+-- Views are unavailable to analytics until this finishes.
+DO $$
+DECLARE
+	analytics_materialized_view_id TEXT;
+BEGIN
+	FOR analytics_materialized_view_id IN
+		SELECT amv.analytics_materialized_view_id
+		FROM analytics_materialized_view amv
+		JOIN pg_matviews pm ON pm.matviewname=amv.analytics_materialized_view_id AND pm.schemaname=current_schema()
+		WHERE pm.ispopulated=FALSE
+		ORDER BY amv.display_order
+	LOOP
+		EXECUTE format('REFRESH MATERIALIZED VIEW %I', analytics_materialized_view_id);
+	END LOOP;
+END $$;
+
+COMMIT;
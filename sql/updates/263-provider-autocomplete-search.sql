@@ -0,0 +1,31 @@
+BEGIN;
+SELECT _v.register_patch('263-provider-autocomplete-search', NULL, NULL);
+
+-- Trigram indices so provider autocomplete can use ILIKE '%...%' and word similarity (<%) lookups
+-- instead of scanning every provider, e.g.
+--
+--   SELECT *
+--   FROM provider
+--   WHERE name ILIKE '%smi%' OR 'smtih' <% name;
+
+CREATE INDEX provider_name_trgm_idx
+ON provider
+USING GIN (name gin_trgm_ops);
+
+CREATE INDEX provider_title_trgm_idx
+ON provider
+USING GIN (title gin_trgm_ops);
+
+CREATE INDEX provider_specialty_trgm_idx
+ON provider
+USING GIN (specialty gin_trgm_ops);
+
+CREATE INDEX provider_license_trgm_idx
+ON provider
+USING GIN (license gin_trgm_ops);
+
+CREATE INDEX specialty_description_trgm_idx
+ON specialty
+USING GIN (description gin_trgm_ops);
+
+COMMIT;
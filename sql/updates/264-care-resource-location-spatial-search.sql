@@ -0,0 +1,61 @@
+BEGIN;
+SELECT _v.register_patch('264-care-resource-location-spatial-search', NULL, NULL);
+
+-- Store each address' point as a geography so proximity searches can use a GiST index (ST_DWithin for the radius,
+-- <-> for nearest-first ordering) instead of building two points and calling ST_DistanceSphere() for every row
+ALTER TABLE address ADD COLUMN location GEOGRAPHY(POINT, 4326) GENERATED ALWAYS AS (
+  CASE
+    WHEN latitude IS NOT NULL AND longitude IS NOT NULL
+    THEN ST_SetSRID(ST_MakePoint(longitude::DOUBLE PRECISION, latitude::DOUBLE PRECISION), 4326)::GEOGRAPHY
+  END
+) STORED;
+
+CREATE INDEX address_location_idx ON address USING GIST (location) WHERE location IS NOT NULL;
+
+-- Trigram indices for resource and resource location name searches, e.g. name ILIKE '%counsel%'
+CREATE INDEX care_resource_location_name_trgm_idx
+ON care_resource_location
+USING GIN (name gin_trgm_ops);
+
+CREATE INDEX care_resource_name_trgm_idx
+ON care_resource
+USING GIN (name gin_trgm_ops);
+
+-- Tag filters are EXISTS probes per candidate location/resource, so index them by owner and tag
+CREATE INDEX care_resource_location_care_resource_tag_location_tag_idx
+ON care_resource_location_care_resource_tag (care_resource_location_id, care_resource_tag_id);
+
+CREATE INDEX care_resource_care_resource_tag_resource_tag_idx
+ON care_resource_care_resource_tag (care_resource_id, care_resource_tag_id);
+
+CREATE INDEX care_resource_location_care_resource_id_idx ON care_resource_location (care_resource_id);
+CREATE INDEX care_resource_institution_institution_id_idx ON care_resource_institution (institution_id, care_resource_id);
+
+-- Same as before, plus the address location (appended, so existing columns keep their positions)
+CREATE OR REPLACE VIEW v_care_resource_location_institution
+AS
+SELECT
+    crl.*,
+    cr.name AS resource_name,
+    cr.notes AS resource_notes,
+    cr.insurance_notes AS resource_insurance_notes,
+    cri.institution_id,
+    addr.latitude,
+    addr.longitude,
+    addr.google_place_id,
+    addr.location
+FROM
+    care_resource_location crl
+JOIN
+    care_resource cr
+    ON cr.care_resource_id = crl.care_resource_id
+JOIN
+    care_resource_institution cri
+    ON cr.care_resource_id = cri.care_resource_id
+LEFT OUTER JOIN
+    address addr
+    ON crl.address_id = addr.address_id
+WHERE
+    cr.deleted = false;
+
+COMMIT;
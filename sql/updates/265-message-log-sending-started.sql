@@ -0,0 +1,10 @@
+BEGIN;
+SELECT _v.register_patch('265-message-log-sending-started', NULL, NULL);
+
+-- Batched email sends commit SENDING before handing messages to the vendor.  Record when that happened so messages
+-- stranded in SENDING (e.g. the node died mid-batch) can be found and re-enqueued
+ALTER TABLE message_log ADD COLUMN sending_started TIMESTAMPTZ;
+
+CREATE INDEX message_log_sending_started_idx ON message_log (sending_started) WHERE message_status_id = 'SENDING';
+
+COMMIT;
@@ -0,0 +1,9 @@
+BEGIN;
+SELECT _v.register_patch('266-data-sync-full-resync', NULL, NULL);
+
+-- Incremental sync can't see association deletes for unchanged content, or rows that become visible without their
+-- own last_updated changing, so the background task also runs a periodic full resync.  Recorded here so that
+-- happens once per interval across the cluster rather than once per node
+ALTER TABLE data_sync_watermark ADD COLUMN last_full_resync_at TIMESTAMPTZ;
+
+COMMIT;
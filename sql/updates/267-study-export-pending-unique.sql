@@ -0,0 +1,8 @@
+BEGIN;
+SELECT _v.register_patch('267-study-export-pending-unique', NULL, NULL);
+
+-- At most one pending export per study.  Concurrent requests that both pass the application-level check
+-- would otherwise each insert a QUEUED row and duplicate the work
+CREATE UNIQUE INDEX study_export_pending_study_id_idx ON study_export (study_id) WHERE study_export_status_id IN ('QUEUED', 'IN_PROGRESS');
+
+COMMIT;
@@ -0,0 +1,35 @@
+BEGIN;
+SELECT _v.register_patch('268-patient-order-import-progress', NULL, NULL);
+
+CREATE TABLE patient_order_import_progress_status (
+	patient_order_import_progress_status_id TEXT PRIMARY KEY,
+	description TEXT NOT NULL
+);
+
+INSERT INTO patient_order_import_progress_status VALUES ('VALIDATING', 'Validating');
+INSERT INTO patient_order_import_progress_status VALUES ('PULLING_EPIC_DEMOGRAPHICS', 'Pulling Epic Demographics');
+INSERT INTO patient_order_import_progress_status VALUES ('IMPORTING', 'Importing');
+INSERT INTO patient_order_import_progress_status VALUES ('COMPLETE', 'Complete');
+INSERT INTO patient_order_import_progress_status VALUES ('FAILED', 'Failed');
+
+-- Pollable progress for a CSV patient order import.  Everything up to IMPORTING is written outside of the import's
+-- transaction so callers can see it while the import is underway.  There is deliberately no foreign key to
+-- patient_order_import: that row only exists once the import transaction commits, and never does if the import fails
+CREATE TABLE patient_order_import_progress (
+	patient_order_import_id UUID PRIMARY KEY,
+	institution_id TEXT NOT NULL REFERENCES institution,
+	account_id UUID NOT NULL REFERENCES account,
+	patient_order_import_progress_status_id TEXT NOT NULL REFERENCES patient_order_import_progress_status DEFAULT 'VALIDATING',
+	row_count INTEGER NOT NULL DEFAULT 0,
+	invalid_row_count INTEGER NOT NULL DEFAULT 0,
+	epic_patient_count INTEGER NOT NULL DEFAULT 0,
+	epic_patient_pulled_count INTEGER NOT NULL DEFAULT 0,
+	imported_row_count INTEGER NOT NULL DEFAULT 0,
+	completed_at TIMESTAMPTZ,
+	created TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+	last_updated TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE TRIGGER set_last_updated BEFORE INSERT OR UPDATE ON patient_order_import_progress FOR EACH ROW EXECUTE PROCEDURE set_last_updated();
+
+COMMIT;
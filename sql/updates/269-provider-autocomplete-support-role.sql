@@ -0,0 +1,10 @@
+BEGIN;
+SELECT _v.register_patch('269-provider-autocomplete-support-role', NULL, NULL);
+
+-- Provider autocomplete also matches support role descriptions with ILIKE '%...%' and word similarity (<%),
+-- so they need a trigram index like the other searched columns in 263-provider-autocomplete-search.sql
+CREATE INDEX support_role_description_trgm_idx
+ON support_role
+USING GIN (description gin_trgm_ops);
+
+COMMIT;
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cobaltplatform.api.benchmark;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Deterministic (seeded) synthetic data for benchmarks, so runs are reproducible and never need a database.
+ *
+ * @author Transmogrify, LLC.
+ */
+@ThreadSafe
+public final class SyntheticData {
+	@Nonnull
+	public static final Long DEFAULT_SEED;
+	@Nonnull
+	private static final List<String> USER_AGENT_TEMPLATES;
+	@Nonnull
+	private static final List<String> FIRST_NAMES;
+	@Nonnull
+	private static final List<String> LAST_NAMES;
+
+	static {
+		DEFAULT_SEED = 8675309L;
+
+		USER_AGENT_TEMPLATES = List.of(
+				"Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/%d.0.%d.%d Safari/537.36",
+				"Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/%d.%d Safari/605.1.%d",
+				"Mozilla/5.0 (iPhone; CPU iPhone OS %d_%d like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.0 Mobile/15E148 Safari/604.%d",
+				"Mozilla/5.0 (Linux; Android %d; SM-S9%02d) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.%d.0 Mobile Safari/537.36",
+				"Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:%d.0) Gecko/20100101 Firefox/%d.%d",
+				"Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/%d.0.0.0 Safari/537.36 Edg/%d.0.%d.0",
+				"Mozilla/5.0 (compatible; Googlebot/2.%d; +http://www.google.com/bot.html) %d %d"
+		);
+
+		FIRST_NAMES = List.of("Alex", "Jordan", "Taylor", "Morgan", "Casey", "Riley", "Jamie", "Avery", "Quinn", "Harper");
+		LAST_NAMES = List.of("Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Lopez", "Wilson");
+	}
+
+	private SyntheticData() {
+		// Non-instantiable
+	}
+
+	@Nonnull
+	public static Random random() {
+		return new Random(DEFAULT_SEED);
+	}
+
+	/**
+	 * A mix of desktop/mobile browsers and bots, with varied versions so results don't all collapse to one string.
+	 */
+	@Nonnull
+	public static List<String> userAgents(@Nonnull Integer count) {
+		requireNonNull(count);
+
+		Random random = random();
+		List<String> userAgents = new ArrayList<>(count);
+
+		for (int i = 0; i < count; ++i) {
+			String template = USER_AGENT_TEMPLATES.get(random.nextInt(USER_AGENT_TEMPLATES.size()));
+			userAgents.add(format(template, 10 + random.nextInt(120), random.nextInt(99), random.nextInt(9999)));
+		}
+
+		return userAgents;
+	}
+
+	/**
+	 * A sequence of per-request user agents drawn from {@code distinctCount} distinct strings with a Zipf-like
+	 * (1/rank) distribution, which is how real traffic looks: the top few browsers cover most requests, with a long tail.
+	 */
+	@Nonnull
+	public static List<String> userAgentTraffic(@Nonnull Integer distinctCount,
+																							@Nonnull Integer requestCount) {
+		requireNonNull(distinctCount);
+		requireNonNull(requestCount);
+
+		List<String> userAgents = userAgents(distinctCount);
+		double[] cumulativeWeights = new double[distinctCount];
+		double totalWeight = 0;
+
+		for (int i = 0; i < distinctCount; ++i) {
+			totalWeight += 1D / (i + 1);
+			cumulativeWeights[i] = totalWeight;
+		}
+
+		Random random = random();
+		List<String> traffic = new ArrayList<>(requestCount);
+
+		for (int i = 0; i < requestCount; ++i) {
+			int index = Arrays.binarySearch(cumulativeWeights, random.nextDouble() * totalWeight);
+			traffic.add(userAgents.get(index >= 0 ? index : Math.min(-index - 1, distinctCount - 1)));
+		}
+
+		return traffic;
+	}
+
+	/**
+	 * Roughly the shape of a patient order list API response: a page of nested maps with a mix of strings, numbers,
+	 * dates and child collections.
+	 */
+	@Nonnull
+	public static Map<String, Object> largeApiResponse(@Nonnull Integer rowCount) {
+		requireNonNull(rowCount);
+
+		Random random = random();
+		List<Map<String, Object>> rows = new ArrayList<>(rowCount);
+
+		for (int i = 0; i < rowCount; ++i) {
+			Map<String, Object> row = new LinkedHashMap<>();
+			row.put("patientOrderId", new UUID(random.nextLong(), random.nextLong()));
+			row.put("referenceNumber", 100000 + i);
+			row.put("patientFirstName", FIRST_NAMES.get(random.nextInt(FIRST_NAMES.size())));
+			row.put("patientLastName", LAST_NAMES.get(random.nextInt(LAST_NAMES.size())));
+			row.put("patientMrn", format("MRN%08d", random.nextInt(100_000_000)));
+			row.put("orderDate", LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)));
+			row.put("orderDateDescription", LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)).format(DateTimeFormatter.ISO_LOCAL_DATE));
+			row.put("outreachCount", random.nextInt(10));
+			row.put("testPatientOrder", random.nextBoolean());
+			row.put("reasonForReferral", "Anxiety; depression; follow-up requested by primary care provider");
+
+			List<Map<String, Object>> diagnoses = new ArrayList<>();
+
+			for (int j = 0; j < 1 + random.nextInt(4); ++j)
+				diagnoses.add(Map.of(
+						"diagnosisId", format("F%02d.%d", random.nextInt(99), random.nextInt(9)),
+						"diagnosisName", "Generalized anxiety disorder",
+						"displayOrder", j
+				));
+
+			row.put("patientOrderDiagnoses", diagnoses);
+			rows.add(row);
+		}
+
+		Map<String, Object> response = new HashMap<>();
+		response.put("patientOrders", rows);
+		response.put("totalCount", rowCount);
+		response.put("totalCountDescription", String.valueOf(rowCount));
+
+		return response;
+	}
+
+	/**
+	 * A well-formed HL7 v2.5.1 ORM^O01 general order message with one order, diagnosis and insurance section.
+	 */
+	@Nonnull
+	public static String generalOrderHl7(@Nonnull Random random) {
+		requireNonNull(random);
+
+		String firstName = FIRST_NAMES.get(random.nextInt(FIRST_NAMES.size())).toUpperCase();
+		String lastName = LAST_NAMES.get(random.nextInt(LAST_NAMES.size())).toUpperCase();
+		int mrn = random.nextInt(100_000_000);
+		int orderId = random.nextInt(1_000_000_000);
+
+		return String.join("\r\n",
+				format("MSH|^~\\&|EPIC|UPHS|COBALT|COBALT|20240206160000||ORM^O01|%d|P|2.5.1", orderId),
+				format("PID|1||%08d^^^MRN^MRN||%s^%s^Q||19%02d0%d1%d|F||2106-3|123 MAIN ST^^PHILADELPHIA^PA^19104^US^P||(215)555-%04d^P^PH|||S||%d|||2186-5",
+						mrn, lastName, firstName, 50 + random.nextInt(50), 1 + random.nextInt(9), random.nextInt(9), random.nextInt(10000), random.nextInt(100000)),
+				"PV1|1|O|PCP^^^UPHS^^^^^PRIMARY CARE||||1234567890^WELBY^MARCUS^^^^^^NPI|||||||||||12345678",
+				"IN1|1|100^COMMERCIAL|200|ACME HEALTH PLAN|PO BOX 1^^PHILADELPHIA^PA^19101",
+				format("GT1|1|%d|%s^%s||123 MAIN ST^^PHILADELPHIA^PA^19104", random.nextInt(100000), lastName, firstName),
+				format("ORC|NW|%d^EPC||||||^^^20240206160000^^R||20240206160000|||1234567890^WELBY^MARCUS^^^^^^NPI", orderId),
+				format("OBR|1|%d^EPC||BHS123^REFERRAL TO BEHAVIORAL HEALTH^EAP|R||20240206160000|||||||||1234567890^WELBY^MARCUS^^^^^^NPI", orderId),
+				"DG1|1|ICD-10-CM|F41.1^Generalized anxiety disorder^ICD-10-CM|Generalized anxiety disorder||Primary",
+				"NTE|1||Patient prefers afternoon outreach"
+		);
+	}
+
+	/**
+	 * A corpus of ORM^O01 messages shaped like a day's order drop: varying numbers of insurance, diagnosis and note
+	 * segments, some with the guarantor segment ahead of insurance (which we rewrite before parsing), and some with
+	 * bare carriage-return segment separators as they arrive from storage.
+	 */
+	@Nonnull
+	public static List<String> generalOrderHl7Corpus(@Nonnull Random random,
+																									 @Nonnull Integer count) {
+		requireNonNull(random);
+		requireNonNull(count);
+
+		List<String> diagnoses = List.of(
+				"F41.1^Generalized anxiety disorder",
+				"F32.1^Major depressive disorder, single episode, moderate",
+				"F43.10^Post-traumatic stress disorder, unspecified",
+				"F10.20^Alcohol dependence, uncomplicated",
+				"G47.00^Insomnia, unspecified");
+
+		List<String> messages = new ArrayList<>(count);
+
+		for (int i = 0; i < count; ++i) {
+			String firstName = FIRST_NAMES.get(random.nextInt(FIRST_NAMES.size())).toUpperCase();
+			String lastName = LAST_NAMES.get(random.nextInt(LAST_NAMES.size())).toUpperCase();
+			int mrn = random.nextInt(100_000_000);
+			int orderId = random.nextInt(1_000_000_000);
+
+			List<String> insuranceLines = new ArrayList<>();
+			int insuranceCount = 1 + random.nextInt(2);
+
+			for (int j = 1; j <= insuranceCount; ++j) {
+				insuranceLines.add(format("IN1|%d|%d^COMMERCIAL|%d|ACME HEALTH PLAN %d|PO BOX %d^^PHILADELPHIA^PA^19101", j, 100 + j, 200 + j, j, j));
+
+				if (random.nextBoolean())
+					insuranceLines.add(format("IN2|%d||%08d", j, random.nextInt(100_000_000)));
+			}
+
+			String guarantorLine = format("GT1|1|%d|%s^%s||123 MAIN ST^^PHILADELPHIA^PA^19104", random.nextInt(100000), lastName, firstName);
+
+			List<String> lines = new ArrayList<>();
+			lines.add(format("MSH|^~\\&|EPIC|UPHS|COBALT|COBALT|20240206160000||ORM^O01|%d|P|2.5.1", orderId));
+			lines.add(format("PID|1||%08d^^^MRN^MRN||%s^%s^Q||19%02d0%d1%d|F||2106-3|123 MAIN ST^^PHILADELPHIA^PA^19104^US^P||(215)555-%04d^P^PH|||S||%d|||2186-5",
+					mrn, lastName, firstName, 50 + random.nextInt(50), 1 + random.nextInt(9), random.nextInt(9), random.nextInt(10000), random.nextInt(100000)));
+			lines.add("PV1|1|O|PCP^^^UPHS^^^^^PRIMARY CARE||||1234567890^WELBY^MARCUS^^^^^^NPI|||||||||||12345678");
+
+			// Roughly a third of real-world messages put the guarantor first
+			if (random.nextInt(3) == 0) {
+				lines.add(guarantorLine);
+				lines.addAll(insuranceLines);
+			} else {
+				lines.addAll(insuranceLines);
+				lines.add(guarantorLine);
+			}
+
+			lines.add(format("ORC|NW|%d^EPC||||||^^^20240206160000^^R||20240206160000|||1234567890^WELBY^MARCUS^^^^^^NPI", orderId));
+			lines.add(format("OBR|1|%d^EPC||BHS123^REFERRAL TO BEHAVIORAL HEALTH^EAP|R||20240206160000|||||||||1234567890^WELBY^MARCUS^^^^^^NPI", orderId));
+
+			int diagnosisCount = 1 + random.nextInt(3);
+
+			for (int j = 1; j <= diagnosisCount; ++j) {
+				String[] diagnosis = diagnoses.get(random.nextInt(diagnoses.size())).split("\\^");
+				lines.add(format("DG1|%d|ICD-10-CM|%s^%s^ICD-10-CM|%s||%s", j, diagnosis[0], diagnosis[1], diagnosis[1], j == 1 ? "Primary" : "Secondary"));
+			}
+
+			int noteCount = random.nextInt(4);
+
+			for (int j = 1; j <= noteCount; ++j)
+				lines.add(format("NTE|%d||Outreach note %d for order %d", j, j, orderId));
+
+			messages.add(String.join(random.nextInt(5) < 2 ? "\r" : "\r\n", lines));
+		}
+
+		return messages;
+	}
+
+	/**
+	 * Answers for a PHQ-9 shaped screening: 9 questions, 4 options each scored 0-3.
+	 */
+	@Nonnull
+	public static Map<String, Object> screeningScoringContext(@Nonnull Random random) {
+		requireNonNull(random);
+
+		List<Map<String, Object>> screeningQuestionsWithAnswerOptions = new ArrayList<>();
+		List<Map<String, Object>> screeningAnswers = new ArrayList<>();
+		Map<String, Object> screeningAnswerOptionsByScreeningAnswerId = new HashMap<>();
+
+		for (int i = 0; i < 9; ++i) {
+			String screeningQuestionId = new UUID(random.nextLong(), random.nextLong()).toString();
+			List<Map<String, Object>> screeningAnswerOptions = new ArrayList<>();
+
+			for (int score = 0; score < 4; ++score)
+				screeningAnswerOptions.add(Map.of(
+						"screeningAnswerOptionId", new UUID(random.nextLong(), random.nextLong()).toString(),
+						"score", score,
+						"displayOrder", score + 1
+				));
+
+			screeningQuestionsWithAnswerOptions.add(Map.of(
+					"screeningQuestion", Map.of("screeningQuestionId", screeningQuestionId, "questionText", format("Question %d", i + 1)),
+					"screeningAnswerOptions", screeningAnswerOptions
+			));
+
+			String screeningAnswerId = new UUID(random.nextLong(), random.nextLong()).toString();
+			Map<String, Object> screeningAnswerOption = screeningAnswerOptions.get(random.nextInt(screeningAnswerOptions.size()));
+
+			screeningAnswers.add(Map.of(
+					"screeningAnswerId", screeningAnswerId,
+					"screeningAnswerOptionId", screeningAnswerOption.get("screeningAnswerOptionId")
+			));
+
+			screeningAnswerOptionsByScreeningAnswerId.put(screeningAnswerId, screeningAnswerOption);
+		}
+
+		Map<String, Object> context = new HashMap<>();
+		context.put("screeningQuestionsWithAnswerOptions", screeningQuestionsWithAnswerOptions);
+		context.put("screeningAnswers", screeningAnswers);
+		context.put("screeningAnswerOptionsByScreeningAnswerId", screeningAnswerOptionsByScreeningAnswerId);
+		context.put("answeredScreeningQuestionCount", screeningAnswers.size());
+
+		return context;
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cobaltplatform.api.integration.hl7;
+
+import ca.uhn.hl7v2.parser.Parser;
+import com.cobaltplatform.api.benchmark.SyntheticData;
+import com.cobaltplatform.api.integration.hl7.Hl7Client.GeneralOrderParseResult;
+import com.cobaltplatform.api.integration.hl7.model.event.Hl7GeneralOrderTriggerEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of HL7 ORM^O01 general orders, as done for every order in an HL7 import.
+ * <p>
+ * {@code parseGeneralOrderWithoutPooling} builds a fresh HAPI context per message, which is how parsing worked
+ * before parsers were pooled, so the two single-message benchmarks can be compared directly.
+ *
+ * @author Transmogrify, LLC.
+ */
+@NotThreadSafe
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Hl7ClientBenchmark {
+	private Hl7Client hl7Client;
+	private Hl7Client unpooledHl7Client;
+	private List<String> generalOrderHl7Messages;
+	private int index;
+
+	@Setup
+	public void setup() {
+		Random random = SyntheticData.random();
+
+		this.hl7Client = new Hl7Client();
+		this.unpooledHl7Client = new Hl7Client() {
+			@Nonnull
+			@Override
+			protected Parser borrowParser() {
+				return createParser();
+			}
+
+			@Override
+			protected void returnParser(@Nonnull Parser parser) {
+				try {
+					parser.getHapiContext().close();
+				} catch (IOException ignored) {
+					// Nothing to do
+				}
+			}
+		};
+		this.generalOrderHl7Messages = SyntheticData.generalOrderHl7Corpus(random, 500);
+	}
+
+	@Benchmark
+	public Hl7GeneralOrderTriggerEvent parseGeneralOrder() throws Hl7ParsingException {
+		this.index = (this.index + 1) % this.generalOrderHl7Messages.size();
+		return this.hl7Client.parseGeneralOrder(this.generalOrderHl7Messages.get(this.index));
+	}
+
+	@Benchmark
+	public Hl7GeneralOrderTriggerEvent parseGeneralOrderWithoutPooling() throws Hl7ParsingException {
+		this.index = (this.index + 1) % this.generalOrderHl7Messages.size();
+		return this.unpooledHl7Client.parseGeneralOrder(this.generalOrderHl7Messages.get(this.index));
+	}
+
+	// Whole corpus, one message after another
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void parseGeneralOrderCorpusSequentially(@Nonnull Blackhole blackhole) throws Hl7ParsingException {
+		for (String generalOrderHl7Message : this.generalOrderHl7Messages)
+			blackhole.consume(this.hl7Client.parseGeneralOrder(generalOrderHl7Message));
+	}
+
+	// Whole corpus through the batch API
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public List<GeneralOrderParseResult> parseGeneralOrderCorpusInBatch() {
+		return this.hl7Client.parseGeneralOrders(this.generalOrderHl7Messages);
+	}
+}
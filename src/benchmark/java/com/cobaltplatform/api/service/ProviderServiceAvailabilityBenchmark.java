@@ -0,0 +1,173 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cobaltplatform.api.service;
+
+import com.cobaltplatform.api.benchmark.SyntheticData;
+import com.cobaltplatform.api.model.db.Appointment;
+import com.cobaltplatform.api.model.db.LogicalAvailability;
+import com.cobaltplatform.api.model.db.LogicalAvailabilityType.LogicalAvailabilityTypeId;
+import com.cobaltplatform.api.model.db.Provider;
+import com.cobaltplatform.api.model.db.RecurrenceType.RecurrenceTypeId;
+import com.cobaltplatform.api.model.service.AppointmentTypeWithLogicalAvailabilityId;
+import com.cobaltplatform.api.model.service.AppointmentTypeWithProviderId;
+import com.cobaltplatform.api.model.service.ProviderFind.AvailabilityDate;
+import com.cobaltplatform.api.service.ProviderService.AvailabilityDatesCommand;
+import com.cobaltplatform.api.service.ProviderService.NativeSchedulingAvailabilityData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Native scheduling slot math: expanding recurring logical availabilities over a date range and subtracting
+ * blocks and booked appointments.
+ * <p>
+ * Models a busy provider: weekday availability with two appointment types, a daily lunch block and a number of
+ * booked appointments scattered over the range.
+ *
+ * @author Transmogrify, LLC.
+ */
+@NotThreadSafe
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProviderServiceAvailabilityBenchmark {
+	@Param({"14", "60"})
+	private int dayCount;
+
+	@Param({"10", "100"})
+	private int appointmentCount;
+
+	private AvailabilityDatesCommand command;
+	private LocalDateTime startDateTime;
+	private LocalDateTime endDateTime;
+	private NativeSchedulingAvailabilityData nativeSchedulingAvailabilityData;
+	private Logger logger;
+
+	@Setup
+	public void setup() {
+		Random random = SyntheticData.random();
+		UUID providerId = new UUID(random.nextLong(), random.nextLong());
+		LocalDate startDate = LocalDate.of(2024, 2, 5);
+
+		this.startDateTime = startDate.atStartOfDay();
+		this.endDateTime = startDate.plusDays(this.dayCount).atStartOfDay();
+		this.logger = LoggerFactory.getLogger(getClass());
+
+		Provider provider = new Provider();
+		provider.setProviderId(providerId);
+
+		this.command = new AvailabilityDatesCommand();
+		this.command.setProvider(provider);
+		this.command.setDaysOfWeek(Set.of());
+
+		List<AppointmentTypeWithProviderId> appointmentTypes = new ArrayList<>();
+
+		for (long durationInMinutes : new long[]{30L, 60L}) {
+			AppointmentTypeWithProviderId appointmentType = new AppointmentTypeWithProviderId();
+			appointmentType.setAppointmentTypeId(new UUID(random.nextLong(), random.nextLong()));
+			appointmentType.setDurationInMinutes(durationInMinutes);
+			appointmentTypes.add(appointmentType);
+		}
+
+		List<LogicalAvailability> logicalAvailabilities = List.of(
+				logicalAvailability(random, providerId, LogicalAvailabilityTypeId.OPEN, startDate, LocalTime.of(9, 0), LocalTime.of(17, 0)),
+				logicalAvailability(random, providerId, LogicalAvailabilityTypeId.OPEN, startDate, LocalTime.of(8, 0), LocalTime.of(10, 0)),
+				logicalAvailability(random, providerId, LogicalAvailabilityTypeId.BLOCK, startDate, LocalTime.of(12, 0), LocalTime.of(13, 0))
+		);
+
+		List<Appointment> appointments = new ArrayList<>(this.appointmentCount);
+
+		for (int i = 0; i < this.appointmentCount; ++i) {
+			AppointmentTypeWithProviderId appointmentType = appointmentTypes.get(random.nextInt(appointmentTypes.size()));
+			LocalDateTime appointmentStartTime = startDate.plusDays(random.nextInt(this.dayCount)).atTime(9 + random.nextInt(7), random.nextBoolean() ? 0 : 30);
+
+			Appointment appointment = new Appointment();
+			appointment.setAppointmentId(new UUID(random.nextLong(), random.nextLong()));
+			appointment.setProviderId(providerId);
+			appointment.setAppointmentTypeId(appointmentType.getAppointmentTypeId());
+			appointment.setStartTime(appointmentStartTime);
+			appointment.setEndTime(appointmentStartTime.plusMinutes(appointmentType.getDurationInMinutes()));
+			appointments.add(appointment);
+		}
+
+		// No per-logical-availability appointment types, so all of the provider's active types apply
+		Map<UUID, List<AppointmentTypeWithLogicalAvailabilityId>> appointmentTypesByLogicalAvailabilityId = Map.of();
+
+		this.nativeSchedulingAvailabilityData = new NativeSchedulingAvailabilityData(
+				Map.of(providerId, logicalAvailabilities),
+				appointmentTypesByLogicalAvailabilityId,
+				Map.of(providerId, appointmentTypes),
+				Map.of(providerId, appointments));
+	}
+
+	@Benchmark
+	public List<AvailabilityDate> calculateAvailabilityDates() {
+		return ProviderService.calculateAvailabilityDatesForNativeScheduling(this.command, this.startDateTime, this.endDateTime,
+				this.nativeSchedulingAvailabilityData, this.logger);
+	}
+
+	private LogicalAvailability logicalAvailability(Random random,
+																									UUID providerId,
+																									LogicalAvailabilityTypeId logicalAvailabilityTypeId,
+																									LocalDate startDate,
+																									LocalTime startTime,
+																									LocalTime endTime) {
+		LogicalAvailability logicalAvailability = new LogicalAvailability();
+		logicalAvailability.setLogicalAvailabilityId(new UUID(random.nextLong(), random.nextLong()));
+		logicalAvailability.setProviderId(providerId);
+		logicalAvailability.setLogicalAvailabilityTypeId(logicalAvailabilityTypeId);
+		logicalAvailability.setRecurrenceTypeId(RecurrenceTypeId.DAILY);
+		logicalAvailability.setStartDateTime(startDate.atTime(startTime));
+		logicalAvailability.setEndDateTime(startDate.plusYears(1).atTime(endTime));
+		logicalAvailability.setRecurMonday(true);
+		logicalAvailability.setRecurTuesday(true);
+		logicalAvailability.setRecurWednesday(true);
+		logicalAvailability.setRecurThursday(true);
+		logicalAvailability.setRecurFriday(true);
+		logicalAvailability.setRecurSaturday(false);
+		logicalAvailability.setRecurSunday(false);
+
+		return logicalAvailability;
+	}
+}
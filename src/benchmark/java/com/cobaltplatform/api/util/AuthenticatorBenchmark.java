@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cobaltplatform.api.util;
+
+import com.cobaltplatform.api.Configuration;
+import com.cobaltplatform.api.model.db.Role.RoleId;
+import com.cobaltplatform.api.model.security.AccessTokenClaims;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.temporal.ChronoUnit.HOURS;
+
+/**
+ * Access token validation, which runs on every authenticated request.
+ * <p>
+ * {@code verifyWithFreshParser} is what each request used to do; compare it against {@code validateAccessToken}
+ * (a pool of clients polling with the same tokens, so nearly every call is a cache hit) for the CPU saved per request.
+ * <p>
+ * Must be run from the project root so {@code config/local} signing credentials can be loaded.
+ *
+ * @author Transmogrify, LLC.
+ */
+@NotThreadSafe
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticatorBenchmark {
+	private Authenticator authenticator;
+	private PublicKey publicKey;
+	private JwtParser jwtParser;
+	private List<String> accessTokens;
+	private int index;
+
+	@Setup
+	public void setup() {
+		Configuration configuration = new Configuration("local");
+
+		// Validation never touches the account service
+		this.authenticator = new Authenticator(configuration, () -> null);
+		this.publicKey = configuration.getSigningCredentials().getX509Certificate().getPublicKey();
+		this.jwtParser = Jwts.parserBuilder().setSigningKey(this.publicKey).build();
+		this.accessTokens = new ArrayList<>();
+
+		Instant now = Instant.now();
+
+		for (int i = 0; i < 100; ++i)
+			this.accessTokens.add(Jwts.builder().setSubject(UUID.randomUUID().toString())
+					.setIssuedAt(Date.from(now))
+					.setExpiration(Date.from(now.plus(12, HOURS)))
+					.addClaims(Map.of("roleId", RoleId.PATIENT))
+					.signWith(configuration.getSigningCredentials().getPrivateKey(), SignatureAlgorithm.RS512)
+					.compact());
+	}
+
+	@Benchmark
+	public Jws<Claims> verifyWithFreshParser() {
+		return Jwts.parserBuilder().setSigningKey(this.publicKey).build().parseClaimsJws(nextAccessToken());
+	}
+
+	@Benchmark
+	public Jws<Claims> verifyWithReusedParser() {
+		return this.jwtParser.parseClaimsJws(nextAccessToken());
+	}
+
+	@Benchmark
+	public Optional<AccessTokenClaims> validateAccessToken() {
+		return this.authenticator.validateAccessToken(nextAccessToken());
+	}
+
+	private String nextAccessToken() {
+		this.index = (this.index + 1) % this.accessTokens.size();
+		return this.accessTokens.get(this.index);
+	}
+}
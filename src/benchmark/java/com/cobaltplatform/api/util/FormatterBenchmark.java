@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cobaltplatform.api.util;
+
+import com.cobaltplatform.api.cache.Cache;
+import com.cobaltplatform.api.cache.CaffeineCache;
+import com.cobaltplatform.api.context.CurrentContext;
+import com.cobaltplatform.api.model.db.Institution.InstitutionId;
+import com.lokalized.DefaultStrings;
+import com.lokalized.LocalizedStringLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.FormatStyle;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Date/number formatting as used when building API responses.
+ * <p>
+ * Must be run from the project root so {@code messages/strings} can be loaded.
+ *
+ * @author Transmogrify, LLC.
+ */
+@NotThreadSafe
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatterBenchmark {
+	private Formatter formatter;
+	private LocalDate date;
+	private LocalDateTime dateTime;
+	private Instant timestamp;
+	private Double number;
+
+	@Setup
+	public void setup() {
+		CurrentContext currentContext = new CurrentContext.Builder(InstitutionId.COBALT, Locale.US, ZoneId.of("America/New_York")).build();
+		Cache currentContextCache = new CaffeineCache(1_000);
+
+		this.formatter = new Formatter(new CaffeineCache(1_000), () -> currentContext, () -> currentContextCache,
+				new DefaultStrings.Builder("en", () -> LocalizedStringLoader.loadFromFilesystem(Paths.get("messages/strings")))
+						.localeSupplier(() -> Locale.US)
+						.build());
+
+		this.date = LocalDate.of(2024, 2, 6);
+		this.dateTime = LocalDateTime.of(2024, 2, 6, 16, 30);
+		this.timestamp = Instant.parse("2024-02-06T21:30:00Z");
+		this.number = 12345.678;
+	}
+
+	@Benchmark
+	public String formatDate() {
+		return this.formatter.formatDate(this.date, FormatStyle.MEDIUM);
+	}
+
+	@Benchmark
+	public String formatDateTime() {
+		return this.formatter.formatDateTime(this.dateTime, FormatStyle.MEDIUM, FormatStyle.SHORT);
+	}
+
+	@Benchmark
+	public String formatTimestamp() {
+		return this.formatter.formatTimestamp(this.timestamp, FormatStyle.MEDIUM, FormatStyle.SHORT);
+	}
+
+	@Benchmark
+	public String formatNumber() {
+		return this.formatter.formatNumber(this.number);
+	}
+
+	@Benchmark
+	public String formatInteger() {
+		return this.formatter.formatInteger(this.number.longValue());
+	}
+}
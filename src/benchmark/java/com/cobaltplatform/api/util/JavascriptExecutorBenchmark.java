@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cobaltplatform.api.util;
+
+import com.cobaltplatform.api.benchmark.SyntheticData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Screening scoring as done by {@code ScreeningService}: a PHQ-9 style scoring function run against a realistic context.
+ *
+ * @author Transmogrify, LLC.
+ */
+@NotThreadSafe
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JavascriptExecutorBenchmark {
+	private static final String SCORING_FUNCTION_JAVASCRIPT = """
+			const scores = input.screeningAnswers.map(screeningAnswer =>
+			  input.screeningAnswerOptionsByScreeningAnswerId[screeningAnswer.screeningAnswerId].score);
+
+			const overallScore = scores.reduce((total, score) => total + score, 0);
+
+			output.completed = input.answeredScreeningQuestionCount === input.screeningQuestionsWithAnswerOptions.length;
+			output.score = { overallScore: overallScore };
+			output.belowScoringThreshold = overallScore < 10;
+			""";
+
+	private JavascriptExecutor javascriptExecutor;
+	private Map<String, Object> context;
+
+	@Setup
+	public void setup() {
+		this.javascriptExecutor = new JavascriptExecutor();
+		this.context = SyntheticData.screeningScoringContext(SyntheticData.random());
+	}
+
+	@Benchmark
+	public ScoringOutput executeScoringFunction() throws JavascriptExecutionException {
+		return this.javascriptExecutor.execute(SCORING_FUNCTION_JAVASCRIPT, this.context, ScoringOutput.class);
+	}
+
+	@NotThreadSafe
+	public static class ScoringOutput {
+		@Nullable
+		private Boolean completed;
+		@Nullable
+		private Map<String, Object> score;
+		@Nullable
+		private Boolean belowScoringThreshold;
+
+		@Nullable
+		public Boolean getCompleted() {
+			return this.completed;
+		}
+
+		public void setCompleted(@Nullable Boolean completed) {
+			this.completed = completed;
+		}
+
+		@Nullable
+		public Map<String, Object> getScore() {
+			return this.score;
+		}
+
+		public void setScore(@Nullable Map<String, Object> score) {
+			this.score = score;
+		}
+
+		@Nullable
+		public Boolean getBelowScoringThreshold() {
+			return this.belowScoringThreshold;
+		}
+
+		public void setBelowScoringThreshold(@Nullable Boolean belowScoringThreshold) {
+			this.belowScoringThreshold = belowScoringThreshold;
+		}
+	}
+}
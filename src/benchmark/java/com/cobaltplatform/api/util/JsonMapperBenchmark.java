@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cobaltplatform.api.util;
+
+import com.cobaltplatform.api.benchmark.SyntheticData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of large API responses, in both compact and pretty-printed formats.
+ *
+ * @author Transmogrify, LLC.
+ */
+@NotThreadSafe
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonMapperBenchmark {
+	@Param({"100", "1000"})
+	private int rowCount;
+
+	private JsonMapper compactJsonMapper;
+	private JsonMapper prettyPrintedJsonMapper;
+	private Map<String, Object> apiResponse;
+	private String apiResponseJson;
+
+	@Setup
+	public void setup() {
+		this.compactJsonMapper = new JsonMapper.Builder().mappingFormat(JsonMapper.MappingFormat.COMPACT).build();
+		this.prettyPrintedJsonMapper = new JsonMapper.Builder().mappingFormat(JsonMapper.MappingFormat.PRETTY_PRINTED).build();
+		this.apiResponse = SyntheticData.largeApiResponse(this.rowCount);
+		this.apiResponseJson = this.compactJsonMapper.toJson(this.apiResponse);
+	}
+
+	@Benchmark
+	public String toJsonCompact() {
+		return this.compactJsonMapper.toJson(this.apiResponse);
+	}
+
+	@Benchmark
+	public String toJsonPrettyPrinted() {
+		return this.prettyPrintedJsonMapper.toJson(this.apiResponse);
+	}
+
+	@Benchmark
+	public Map<String, Object> fromJson() {
+		return this.compactJsonMapper.toMapFromRawJson(this.apiResponseJson);
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cobaltplatform.api.util;
+
+import com.cobaltplatform.api.benchmark.SyntheticData;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * User-Agent parsing, which happens on every request.
+ * <p>
+ * {@code parseTraffic} replays a realistic request stream (a few thousand distinct strings, Zipf-distributed) through
+ * the memoizing parser, and {@code parseTrafficUncached} replays the same stream without the cache.
+ * {@code parseDistinct} cycles through a large set of strings, the worst case for the cache.
+ * The cache hit ratio for each trial is printed at teardown.
+ *
+ * @author Transmogrify, LLC.
+ */
+@NotThreadSafe
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserAgentParserBenchmark {
+	private UserAgentParser userAgentParser;
+	private List<String> userAgentTraffic;
+	private List<String> distinctUserAgents;
+	private int trafficIndex;
+	private int distinctIndex;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		this.userAgentParser = new UserAgentParser();
+		this.userAgentTraffic = SyntheticData.userAgentTraffic(2_000, 100_000);
+		this.distinctUserAgents = SyntheticData.userAgents(50_000);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		CacheStats cacheStats = this.userAgentParser.getCacheStats();
+		System.out.printf("%nUser agent cache: %d hit[s], %d miss[es], hit ratio %.3f, %d eviction[s]%n",
+				cacheStats.hitCount(), cacheStats.missCount(), cacheStats.hitRate(), cacheStats.evictionCount());
+	}
+
+	@Benchmark
+	public UserAgent parseTraffic() {
+		this.trafficIndex = (this.trafficIndex + 1) % this.userAgentTraffic.size();
+		return this.userAgentParser.parse(this.userAgentTraffic.get(this.trafficIndex));
+	}
+
+	@Benchmark
+	public UserAgent parseTrafficUncached() {
+		this.trafficIndex = (this.trafficIndex + 1) % this.userAgentTraffic.size();
+		return this.userAgentParser.parseUncached(this.userAgentTraffic.get(this.trafficIndex));
+	}
+
+	@Benchmark
+	public UserAgent parseDistinct() {
+		this.distinctIndex = (this.distinctIndex + 1) % this.distinctUserAgents.size();
+		return this.userAgentParser.parse(this.distinctUserAgents.get(this.distinctIndex));
+	}
+}
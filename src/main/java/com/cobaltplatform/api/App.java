@@ -19,10 +19,16 @@
 
 package com.cobaltplatform.api;
 
+import com.cobaltplatform.api.cache.CacheInvalidationBus;
+import com.cobaltplatform.api.integration.acuity.AcuitySchedulingCache;
 import com.cobaltplatform.api.integration.acuity.AcuitySyncManager;
 import com.cobaltplatform.api.integration.epic.EpicFhirSyncManager;
 import com.cobaltplatform.api.integration.epic.EpicSyncManager;
+import com.cobaltplatform.api.service.AnalyticsMaterializedViewService;
+import com.cobaltplatform.api.service.AnalyticsNativeEventIngestionService;
+import com.cobaltplatform.api.service.AnalyticsRollupService;
 import com.cobaltplatform.api.service.AnalyticsService;
+import com.cobaltplatform.api.service.AnalyticsXrayService;
 import com.cobaltplatform.api.service.AvailabilityService;
 import com.cobaltplatform.api.service.ContentService;
 import com.cobaltplatform.api.service.CronService;
@@ -32,6 +38,7 @@ import com.cobaltplatform.api.service.MessageService;
 import com.cobaltplatform.api.service.PatientOrderService;
 import com.cobaltplatform.api.service.PatientOrderSyncService;
 import com.cobaltplatform.api.service.StudyService;
+import com.cobaltplatform.api.service.TablePartitionService;
 import com.cobaltplatform.api.service.Way2HealthService;
 import com.cobaltplatform.api.util.db.ReadReplica;
 import com.cobaltplatform.api.util.db.WritableMaster;
@@ -139,6 +146,13 @@ public class App implements AutoCloseable {
 	}
 
 	public void performStartupTasks() {
+		try {
+			CacheInvalidationBus cacheInvalidationBus = getInjector().getInstance(CacheInvalidationBus.class);
+			cacheInvalidationBus.startListener();
+		} catch (Exception e) {
+			getLogger().warn("Failed to start cache invalidation listener", e);
+		}
+
 		try {
 			MessageService messageService = getInjector().getInstance(MessageService.class);
 			messageService.start();
@@ -208,6 +222,34 @@ public class App implements AutoCloseable {
 			getLogger().warn("Failed to start Analytics Service background sync task", e);
 		}
 
+		try {
+			AnalyticsNativeEventIngestionService analyticsNativeEventIngestionService = getInjector().getInstance(AnalyticsNativeEventIngestionService.class);
+			analyticsNativeEventIngestionService.startBackgroundTask();
+		} catch (Exception e) {
+			getLogger().warn("Failed to start Analytics Native Event Ingestion Service background task", e);
+		}
+
+		try {
+			AnalyticsRollupService analyticsRollupService = getInjector().getInstance(AnalyticsRollupService.class);
+			analyticsRollupService.startBackgroundTask();
+		} catch (Exception e) {
+			getLogger().warn("Failed to start Analytics Rollup Service background task", e);
+		}
+
+		try {
+			AnalyticsMaterializedViewService analyticsMaterializedViewService = getInjector().getInstance(AnalyticsMaterializedViewService.class);
+			analyticsMaterializedViewService.startBackgroundTask();
+		} catch (Exception e) {
+			getLogger().warn("Failed to start Analytics Materialized View Service background task", e);
+		}
+
+		try {
+			AnalyticsXrayService analyticsXrayService = getInjector().getInstance(AnalyticsXrayService.class);
+			analyticsXrayService.startWidgetExecutorService();
+		} catch (Exception e) {
+			getLogger().warn("Failed to start Analytics Xray Service widget executor service", e);
+		}
+
 		try {
 			ContentService contentService = getInjector().getInstance(ContentService.class);
 			contentService.startBackgroundTask();
@@ -238,6 +280,13 @@ public class App implements AutoCloseable {
 			}
 		}
 
+		try {
+			TablePartitionService tablePartitionService = getInjector().getInstance(TablePartitionService.class);
+			tablePartitionService.startBackgroundTask();
+		} catch (Exception e) {
+			getLogger().warn("Failed to start Table Partition Service background task", e);
+		}
+
 		try {
 			CronService cronService = getInjector().getInstance(CronService.class);
 			cronService.startBackgroundTask();
@@ -254,6 +303,13 @@ public class App implements AutoCloseable {
 			getLogger().warn("Failed to stop Cron Service background task", e);
 		}
 
+		try {
+			TablePartitionService tablePartitionService = getInjector().getInstance(TablePartitionService.class);
+			tablePartitionService.stopBackgroundTask();
+		} catch (Exception e) {
+			getLogger().warn("Failed to stop Table Partition Service background task", e);
+		}
+
 		try {
 			PatientOrderSyncService patientOrderSyncService = getInjector().getInstance(PatientOrderSyncService.class);
 			patientOrderSyncService.stopBackgroundTask();
@@ -284,6 +340,34 @@ public class App implements AutoCloseable {
 			}
 		}
 
+		try {
+			AnalyticsNativeEventIngestionService analyticsNativeEventIngestionService = getInjector().getInstance(AnalyticsNativeEventIngestionService.class);
+			analyticsNativeEventIngestionService.stopBackgroundTask();
+		} catch (Exception e) {
+			getLogger().warn("Failed to stop Analytics Native Event Ingestion Service background task", e);
+		}
+
+		try {
+			AnalyticsXrayService analyticsXrayService = getInjector().getInstance(AnalyticsXrayService.class);
+			analyticsXrayService.stopWidgetExecutorService();
+		} catch (Exception e) {
+			getLogger().warn("Failed to stop Analytics Xray Service widget executor service", e);
+		}
+
+		try {
+			AnalyticsMaterializedViewService analyticsMaterializedViewService = getInjector().getInstance(AnalyticsMaterializedViewService.class);
+			analyticsMaterializedViewService.stopBackgroundTask();
+		} catch (Exception e) {
+			getLogger().warn("Failed to stop Analytics Materialized View Service background task", e);
+		}
+
+		try {
+			AnalyticsRollupService analyticsRollupService = getInjector().getInstance(AnalyticsRollupService.class);
+			analyticsRollupService.stopBackgroundTask();
+		} catch (Exception e) {
+			getLogger().warn("Failed to stop Analytics Rollup Service background task", e);
+		}
+
 		try {
 			AnalyticsService analyticsService = getInjector().getInstance(AnalyticsService.class);
 			analyticsService.stopAnalyticsSync();
@@ -346,6 +430,14 @@ public class App implements AutoCloseable {
 			}
 		}
 
+		// Started on demand by the first concurrent prefetch, so there's nothing to start at boot
+		try {
+			AcuitySchedulingCache acuitySchedulingCache = getInjector().getInstance(AcuitySchedulingCache.class);
+			acuitySchedulingCache.stopPrefetchExecutorService();
+		} catch (Exception e) {
+			getLogger().warn("Unable to stop Acuity scheduling cache prefetch executor service", e);
+		}
+
 		try {
 			MessageService messageService = getInjector().getInstance(MessageService.class);
 			messageService.stop();
@@ -353,6 +445,13 @@ public class App implements AutoCloseable {
 			getLogger().warn("Failed to stop message service", e);
 		}
 
+		try {
+			CacheInvalidationBus cacheInvalidationBus = getInjector().getInstance(CacheInvalidationBus.class);
+			cacheInvalidationBus.stopListener();
+		} catch (Exception e) {
+			getLogger().warn("Failed to stop cache invalidation listener", e);
+		}
+
 		try {
 			DataSource readReplicaDataSource = getInjector().getInstance(Key.get(DataSource.class, ReadReplica.class));
 
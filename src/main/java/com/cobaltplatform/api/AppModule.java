@@ -148,6 +148,7 @@ import com.cobaltplatform.api.model.api.response.PageUrlValidationResultApiRespo
 import com.cobaltplatform.api.model.api.response.PatientOrderApiResponse.PatientOrderApiResponseFactory;
 import com.cobaltplatform.api.model.api.response.PatientOrderAutocompleteResultApiResponse.PatientOrderAutocompleteResultApiResponseFactory;
 import com.cobaltplatform.api.model.api.response.PatientOrderDiagnosisApiResponse.PatientOrderDiagnosisApiResponseFactory;
+import com.cobaltplatform.api.model.api.response.PatientOrderImportProgressApiResponse.PatientOrderImportProgressApiResponseFactory;
 import com.cobaltplatform.api.model.api.response.PatientOrderMedicationApiResponse.PatientOrderMedicationApiResponseFactory;
 import com.cobaltplatform.api.model.api.response.PatientOrderNoteApiResponse.PatientOrderNoteApiResponseFactory;
 import com.cobaltplatform.api.model.api.response.PatientOrderOutreachApiResponse.PatientOrderOutreachApiResponseFactory;
@@ -177,6 +178,7 @@ import com.cobaltplatform.api.model.api.response.ScreeningVersionApiResponse.Scr
 import com.cobaltplatform.api.model.api.response.SpecialtyApiResponse.SpecialtyApiResponseFactory;
 import com.cobaltplatform.api.model.api.response.StudyAccountApiResponse.StudyAccountApiResponseFactory;
 import com.cobaltplatform.api.model.api.response.StudyApiResponse.StudyApiResponseFactory;
+import com.cobaltplatform.api.model.api.response.StudyExportApiResponse.StudyExportApiResponseFactory;
 import com.cobaltplatform.api.model.api.response.SupportRoleApiResponse.SupportRoleApiResponseFactory;
 import com.cobaltplatform.api.model.api.response.TagApiResponse.TagApiResponseFactory;
 import com.cobaltplatform.api.model.api.response.TagGroupApiResponse.TagGroupApiResponseFactory;
@@ -194,6 +196,7 @@ import com.cobaltplatform.api.util.HandlebarsTemplater;
 import com.cobaltplatform.api.util.JsonMapper;
 import com.cobaltplatform.api.util.JsonMapper.MappingNullability;
 import com.cobaltplatform.api.util.LoggingUtility;
+import com.cobaltplatform.api.util.MetricsRecorder;
 import com.cobaltplatform.api.util.db.ReadReplica;
 import com.cobaltplatform.api.util.db.WritableMaster;
 import com.cobaltplatform.api.web.filter.AuthorizationFilter;
@@ -339,6 +342,7 @@ public class AppModule extends AbstractModule {
 		install((new FactoryModuleBuilder().build(PatientOrderApiResponseFactory.class)));
 		install((new FactoryModuleBuilder().build(PatientOrderNoteApiResponseFactory.class)));
 		install((new FactoryModuleBuilder().build(PatientOrderDiagnosisApiResponseFactory.class)));
+		install((new FactoryModuleBuilder().build(PatientOrderImportProgressApiResponseFactory.class)));
 		install((new FactoryModuleBuilder().build(PatientOrderMedicationApiResponseFactory.class)));
 		install((new FactoryModuleBuilder().build(PatientOrderOutreachApiResponseFactory.class)));
 		install((new FactoryModuleBuilder().build(InstitutionLocationApiResponseFactory.class)));
@@ -370,6 +374,7 @@ public class AppModule extends AbstractModule {
 		install((new FactoryModuleBuilder().build(ContentStatusApiResponseFactory.class)));
 		install((new FactoryModuleBuilder().build(FileUploadResultApiResponseFactory.class)));
 		install((new FactoryModuleBuilder().build(StudyApiResponseFactory.class)));
+		install((new FactoryModuleBuilder().build(StudyExportApiResponseFactory.class)));
 		install((new FactoryModuleBuilder().build(ScreeningVersionApiResponseFactory.class)));
 		install((new FactoryModuleBuilder().build(ClientDeviceApiResponseFactory.class)));
 		install((new FactoryModuleBuilder().build(ClientDevicePushTokenApiResponseFactory.class)));
@@ -427,16 +432,20 @@ public class AppModule extends AbstractModule {
 	@ReadReplica
 	public Database provideReadReplicaDatabase(@Nonnull Injector injector,
 																						 @ReadReplica @Nonnull DataSource dataSource,
-																						 @Nonnull Provider<Optional<DatabaseContext>> databaseContextProvider) {
+																						 @Nonnull Provider<Optional<DatabaseContext>> databaseContextProvider,
+																						 @Nonnull MetricsRecorder metricsRecorder) {
 		requireNonNull(injector);
 		requireNonNull(dataSource);
 		requireNonNull(databaseContextProvider);
+		requireNonNull(metricsRecorder);
 
 		return Database.forDataSource(dataSource)
 				.instanceProvider(injector::getInstance)
 				.statementLogger(new StatementLogger() {
 					@Override
 					public void log(StatementLog statementLog) {
+						metricsRecorder.recordStatement("read-replica", statementLog);
+
 						DatabaseContext databaseContext = databaseContextProvider.get().orElse(null);
 
 						if (databaseContext != null)
@@ -452,16 +461,20 @@ public class AppModule extends AbstractModule {
 	@WritableMaster
 	public Database provideWritableMasterDatabase(@Nonnull Injector injector,
 																								@WritableMaster @Nonnull DataSource dataSource,
-																								@Nonnull Provider<Optional<DatabaseContext>> databaseContextProvider) {
+																								@Nonnull Provider<Optional<DatabaseContext>> databaseContextProvider,
+																								@Nonnull MetricsRecorder metricsRecorder) {
 		requireNonNull(injector);
 		requireNonNull(dataSource);
 		requireNonNull(databaseContextProvider);
+		requireNonNull(metricsRecorder);
 
 		return Database.forDataSource(dataSource)
 				.instanceProvider(injector::getInstance)
 				.statementLogger(new StatementLogger() {
 					@Override
 					public void log(StatementLog statementLog) {
+						metricsRecorder.recordStatement("writable-master", statementLog);
+
 						DatabaseContext databaseContext = databaseContextProvider.get().orElse(null);
 
 						if (databaseContext != null)
@@ -475,8 +488,10 @@ public class AppModule extends AbstractModule {
 	@Provides
 	@Singleton
 	@ReadReplica
-	public DataSource provideReadReplicaDataSource(@Nonnull Configuration configuration) {
+	public DataSource provideReadReplicaDataSource(@Nonnull Configuration configuration,
+																								 @Nonnull MetricsRecorder metricsRecorder) {
 		requireNonNull(configuration);
+		requireNonNull(metricsRecorder);
 
 		return new HikariDataSource(new HikariConfig() {
 			{
@@ -485,6 +500,8 @@ public class AppModule extends AbstractModule {
 				setPassword(getConfiguration().getJdbcReadReplicaPassword());
 				setMaximumPoolSize(getConfiguration().getJdbcReadReplicaMaximumPoolSize());
 				setMaxLifetime(45_000); // 45 seconds to ensure DNS switching between read replica instances
+				setPoolName("read-replica");
+				setMetricsTrackerFactory(metricsRecorder::createConnectionPoolMetricsTracker);
 			}
 		});
 	}
@@ -493,8 +510,10 @@ public class AppModule extends AbstractModule {
 	@Provides
 	@Singleton
 	@WritableMaster
-	public DataSource provideWritableMasterDataSource(@Nonnull Configuration configuration) {
+	public DataSource provideWritableMasterDataSource(@Nonnull Configuration configuration,
+																										@Nonnull MetricsRecorder metricsRecorder) {
 		requireNonNull(configuration);
+		requireNonNull(metricsRecorder);
 
 		return new HikariDataSource(new HikariConfig() {
 			{
@@ -503,6 +522,8 @@ public class AppModule extends AbstractModule {
 				setPassword(getConfiguration().getJdbcPassword());
 				setMaximumPoolSize(getConfiguration().getJdbcMaximumPoolSize());
 				setAutoCommit(true);
+				setPoolName("writable-master");
+				setMetricsTrackerFactory(metricsRecorder::createConnectionPoolMetricsTracker);
 			}
 		});
 	}
@@ -543,11 +564,13 @@ public class AppModule extends AbstractModule {
 	public SokletFilter provideSokletFilter(@Nonnull RouteMatcher routeMatcher,
 																					@Nonnull ResponseHandler responseHandler,
 																					@Nonnull ErrorReporter errorReporter,
-																					@Nonnull CurrentContextRequestHandler currentContextRequestHandler) {
+																					@Nonnull CurrentContextRequestHandler currentContextRequestHandler,
+																					@Nonnull MetricsRecorder metricsRecorder) {
 		requireNonNull(routeMatcher);
 		requireNonNull(responseHandler);
 		requireNonNull(errorReporter);
 		requireNonNull(currentContextRequestHandler);
+		requireNonNull(metricsRecorder);
 
 		return new SokletFilter(routeMatcher, responseHandler) {
 			@Override
@@ -556,9 +579,15 @@ public class AppModule extends AbstractModule {
 				if (requestContext.httpServletRequest().getMethod().equals("OPTIONS")) {
 					super.handleRequest(requestContext, filterChain);
 				} else {
-					currentContextRequestHandler.handle(requestContext.httpServletRequest(), () -> {
-						super.handleRequest(requestContext, filterChain);
-					});
+					long startTime = System.nanoTime();
+
+					try {
+						currentContextRequestHandler.handle(requestContext.httpServletRequest(), () -> {
+							super.handleRequest(requestContext, filterChain);
+						});
+					} finally {
+						metricsRecorder.recordRequest(requestContext.route().orElse(null), System.nanoTime() - startTime);
+					}
 				}
 			}
 
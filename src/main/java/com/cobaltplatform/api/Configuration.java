@@ -70,6 +70,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.util.ArrayList;
@@ -207,6 +208,16 @@ public class Configuration {
 	private final String jdbcReadReplicaPassword;
 	@Nonnull
 	private final Integer jdbcReadReplicaMaximumPoolSize;
+	@Nonnull
+	private final Duration requestDeadline;
+	@Nonnull
+	private final Integer queryBudgetRepeatedStatementThreshold;
+	@Nonnull
+	private final Double queryBudgetReportingSampleRate;
+	@Nonnull
+	private final Boolean shouldEnforceQueryBudgets;
+	@Nonnull
+	private final Integer acuityAvailabilityPrefetchConcurrency;
 	@Nullable
 	private final String amazonAwsSecretsManagerContext;
 	@Nonnull
@@ -412,6 +423,26 @@ public class Configuration {
 		this.jdbcReadReplicaPassword = valueFor("com.cobaltplatform.api.jdbc.readReplicaPassword", String.class);
 		this.jdbcReadReplicaMaximumPoolSize = valueFor("com.cobaltplatform.api.jdbc.readReplicaMaximumPoolSize", Integer.class);
 
+		// Requests have no deadline unless this is configured or the resource method opts in with @RequestDeadline.
+		// Not every writable route has been audited for how long it legitimately runs, so a blanket default could cut
+		// slow-but-correct work short; 0 means no deadline
+		Long requestDeadlineInSeconds = valueFor("com.cobaltplatform.api.requestDeadlineInSeconds", Long.class, false);
+		this.requestDeadline = Duration.ofSeconds(requestDeadlineInSeconds == null ? 0L : requestDeadlineInSeconds);
+
+		// Query budgets are optional so existing environments don't need new configuration.
+		// The reporting sample rate governs both WARN logging and error reporting of violations
+		Integer queryBudgetRepeatedStatementThreshold = valueFor("com.cobaltplatform.api.queryBudget.repeatedStatementThreshold", Integer.class, false);
+		Double queryBudgetReportingSampleRate = valueFor("com.cobaltplatform.api.queryBudget.reportingSampleRate", Double.class, false);
+		Boolean shouldEnforceQueryBudgets = valueFor("com.cobaltplatform.api.queryBudget.shouldEnforce", Boolean.class, false);
+
+		this.queryBudgetRepeatedStatementThreshold = queryBudgetRepeatedStatementThreshold == null ? 10 : queryBudgetRepeatedStatementThreshold;
+		this.queryBudgetReportingSampleRate = queryBudgetReportingSampleRate == null ? 0.05D : queryBudgetReportingSampleRate;
+		this.shouldEnforceQueryBudgets = shouldEnforceQueryBudgets == null ? false : shouldEnforceQueryBudgets;
+
+		// Acuity has undocumented rate limits, so availability is prefetched one call at a time unless configured otherwise
+		Integer acuityAvailabilityPrefetchConcurrency = valueFor("com.cobaltplatform.api.acuity.availabilityPrefetchConcurrency", Integer.class, false);
+		this.acuityAvailabilityPrefetchConcurrency = acuityAvailabilityPrefetchConcurrency == null ? 1 : Math.max(1, acuityAvailabilityPrefetchConcurrency);
+
 		this.amazonEc2RoleName = valueFor("com.cobaltplatform.api.amazon.ec2RoleName", String.class);
 
 		this.amazonSesRegion = Region.of(valueFor("com.cobaltplatform.api.amazon.ses.region", String.class));
@@ -1259,6 +1290,31 @@ public class Configuration {
 		return this.jdbcReadReplicaMaximumPoolSize;
 	}
 
+	@Nonnull
+	public Duration getRequestDeadline() {
+		return this.requestDeadline;
+	}
+
+	@Nonnull
+	public Integer getQueryBudgetRepeatedStatementThreshold() {
+		return this.queryBudgetRepeatedStatementThreshold;
+	}
+
+	@Nonnull
+	public Double getQueryBudgetReportingSampleRate() {
+		return this.queryBudgetReportingSampleRate;
+	}
+
+	@Nonnull
+	public Boolean getShouldEnforceQueryBudgets() {
+		return this.shouldEnforceQueryBudgets;
+	}
+
+	@Nonnull
+	public Integer getAcuityAvailabilityPrefetchConcurrency() {
+		return this.acuityAvailabilityPrefetchConcurrency;
+	}
+
 	@Nonnull
 	public Boolean getDownForMaintenance() {
 		return downForMaintenance;
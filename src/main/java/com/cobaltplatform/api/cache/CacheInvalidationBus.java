@@ -0,0 +1,472 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.cache;
+
+import com.cobaltplatform.api.Configuration;
+import com.cobaltplatform.api.util.JsonMapper;
+import com.cobaltplatform.api.util.MetricsRecorder;
+import com.cobaltplatform.api.util.db.DatabaseProvider;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.pyranid.Database;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Evicts entries from in-process Caffeine caches on every node when the underlying data changes on any one of them.
+ * <p>
+ * Invalidations are applied locally right away and then broadcast with Postgres {@code NOTIFY}.  Each node keeps a
+ * dedicated connection open that {@code LISTEN}s for them.  Because {@code NOTIFY} is transactional, a broadcast made
+ * inside a transaction is only delivered once that transaction commits, and is dropped if it rolls back.  The publishing
+ * node also receives its own notification and invalidates a second time, which covers a concurrent reload that read
+ * pre-commit data in between.
+ * <p>
+ * If the broadcast or the listener connection fails, each node still behaves like a plain local cache and the cache's
+ * own expiry is the backstop.  Notifications sent while a node is disconnected are lost, so every registered cache is
+ * cleared whenever the listener (re)connects.
+ * <p>
+ * Only caches whose data has an in-app write path that calls {@link #invalidate(String, String)} belong here - today
+ * that's {@code TagService}'s tag caches and {@code AcuitySchedulingCache}.  Caches of data that only changes via
+ * migrations or deploys (e.g. institution URLs) rely on their own expiry instead.
+ *
+ * @author Transmogrify, LLC.
+ */
+@Singleton
+@ThreadSafe
+public class CacheInvalidationBus implements AutoCloseable {
+	@Nonnull
+	private static final String CHANNEL_NAME;
+	@Nonnull
+	private static final Integer MAXIMUM_PAYLOAD_SIZE_IN_BYTES;
+	@Nonnull
+	private static final Integer NOTIFICATION_POLL_TIMEOUT_IN_MILLISECONDS;
+	@Nonnull
+	private static final Duration RECONNECT_DELAY;
+	@Nonnull
+	private static final String PUBLISH_SAVEPOINT_NAME;
+
+	@Nonnull
+	private final Configuration configuration;
+	@Nonnull
+	private final DatabaseProvider databaseProvider;
+	@Nonnull
+	private final JsonMapper jsonMapper;
+	@Nonnull
+	private final MetricsRecorder metricsRecorder;
+	@Nonnull
+	private final String nodeId;
+	@Nonnull
+	private final ConcurrentHashMap<String, List<CacheInvalidationHandler>> cacheInvalidationHandlersByCacheName;
+	@Nonnull
+	private final Logger logger;
+	@Nonnull
+	private final Object listenerLock;
+	@Nonnull
+	private volatile Boolean listenerStarted;
+	@Nullable
+	private ExecutorService listenerExecutorService;
+
+	static {
+		CHANNEL_NAME = "cobalt_cache_invalidation";
+		// Postgres rejects NOTIFY payloads of 8000 bytes or more
+		MAXIMUM_PAYLOAD_SIZE_IN_BYTES = 7_900;
+		// Also bounds how long it takes the listener to notice it's been stopped
+		NOTIFICATION_POLL_TIMEOUT_IN_MILLISECONDS = 1_000;
+		RECONNECT_DELAY = Duration.ofSeconds(5L);
+		PUBLISH_SAVEPOINT_NAME = "cache_invalidation_publish";
+	}
+
+	@Inject
+	public CacheInvalidationBus(@Nonnull Configuration configuration,
+															@Nonnull DatabaseProvider databaseProvider,
+															@Nonnull JsonMapper jsonMapper,
+															@Nonnull MetricsRecorder metricsRecorder) {
+		requireNonNull(configuration);
+		requireNonNull(databaseProvider);
+		requireNonNull(jsonMapper);
+		requireNonNull(metricsRecorder);
+
+		this.configuration = configuration;
+		this.databaseProvider = databaseProvider;
+		this.jsonMapper = jsonMapper;
+		this.metricsRecorder = metricsRecorder;
+		this.nodeId = UUID.randomUUID().toString();
+		this.cacheInvalidationHandlersByCacheName = new ConcurrentHashMap<>();
+		this.logger = LoggerFactory.getLogger(getClass());
+		this.listenerLock = new Object();
+		this.listenerStarted = false;
+	}
+
+	@Override
+	public void close() throws Exception {
+		stopListener();
+	}
+
+	/**
+	 * Registers a cache to be invalidated by broadcasts under {@code cacheName} and exposes its statistics as metrics.
+	 * <p>
+	 * Keys travel as strings, so {@code keyInvalidator} is responsible for turning one back into whatever should be
+	 * evicted.  It's fine for a key to map to several entries (e.g. everything for an institution).
+	 * The cache should be built with {@code recordStats()} for hit/miss/eviction counts to be meaningful.
+	 */
+	public void registerCache(@Nonnull String cacheName,
+														@Nonnull Cache<?, ?> cache,
+														@Nonnull Consumer<String> keyInvalidator) {
+		requireNonNull(cacheName);
+		requireNonNull(cache);
+		requireNonNull(keyInvalidator);
+
+		getMetricsRecorder().registerCache(cacheName, cache);
+		getCacheInvalidationHandlersByCacheName().computeIfAbsent(cacheName, (ignored) -> new CopyOnWriteArrayList<>())
+				.add(new CacheInvalidationHandler(keyInvalidator, () -> cache.invalidateAll()));
+	}
+
+	/**
+	 * Evicts {@code key} from the named cache on this node immediately and on all other nodes once the current
+	 * transaction (if any) commits.
+	 */
+	public void invalidate(@Nonnull String cacheName,
+												 @Nonnull String key) {
+		requireNonNull(cacheName);
+		requireNonNull(key);
+
+		invalidateLocally(cacheName, key, false);
+		publish(new CacheInvalidationMessage(getNodeId(), cacheName, key));
+	}
+
+	/**
+	 * Clears the named cache on this node immediately and on all other nodes once the current transaction (if any) commits.
+	 */
+	public void invalidateAll(@Nonnull String cacheName) {
+		requireNonNull(cacheName);
+
+		invalidateLocally(cacheName, null, false);
+		publish(new CacheInvalidationMessage(getNodeId(), cacheName, null));
+	}
+
+	@Nonnull
+	public Boolean startListener() {
+		synchronized (getListenerLock()) {
+			if (isListenerStarted())
+				return false;
+
+			getLogger().trace("Starting cache invalidation listener...");
+
+			this.listenerExecutorService = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("cache-invalidation-listener").build());
+			this.listenerStarted = true;
+
+			getListenerExecutorService().get().submit(() -> listen());
+
+			getLogger().trace("Cache invalidation listener started.");
+
+			return true;
+		}
+	}
+
+	@Nonnull
+	public Boolean stopListener() {
+		synchronized (getListenerLock()) {
+			if (!isListenerStarted())
+				return false;
+
+			getLogger().trace("Stopping cache invalidation listener...");
+
+			this.listenerStarted = false;
+			getListenerExecutorService().get().shutdownNow();
+			this.listenerExecutorService = null;
+
+			getLogger().trace("Cache invalidation listener stopped.");
+
+			return true;
+		}
+	}
+
+	@Nonnull
+	public Boolean isListenerStarted() {
+		return this.listenerStarted;
+	}
+
+	protected void listen() {
+		while (isListenerStarted()) {
+			// Deliberately not a pooled connection - LISTEN is session state, and this one is held for the life of the node
+			try (Connection connection = DriverManager.getConnection(getConfiguration().getJdbcUrl(),
+					getConfiguration().getJdbcUsername(), getConfiguration().getJdbcPassword())) {
+				try (Statement statement = connection.createStatement()) {
+					statement.execute(format("LISTEN %s", CHANNEL_NAME));
+				}
+
+				// Anything broadcast before we were listening is gone for good, so drop whatever we might have missed
+				invalidateAllRegisteredCachesLocally();
+
+				getLogger().info("Listening for cache invalidations on channel '{}'.", CHANNEL_NAME);
+
+				PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+				while (isListenerStarted()) {
+					PGNotification[] notifications = pgConnection.getNotifications(NOTIFICATION_POLL_TIMEOUT_IN_MILLISECONDS);
+
+					if (notifications == null)
+						continue;
+
+					for (PGNotification notification : notifications)
+						handleNotification(notification.getParameter());
+				}
+			} catch (Exception e) {
+				if (!isListenerStarted())
+					return;
+
+				getLogger().warn(format("Cache invalidation listener connection failed, will reconnect in %s seconds. "
+						+ "Caches are local-only until then.", RECONNECT_DELAY.toSeconds()), e);
+
+				try {
+					Thread.sleep(RECONNECT_DELAY.toMillis());
+				} catch (InterruptedException interruptedException) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	protected void handleNotification(@Nullable String payload) {
+		if (payload == null)
+			return;
+
+		try {
+			CacheInvalidationMessage cacheInvalidationMessage = getJsonMapper().fromJson(payload, CacheInvalidationMessage.class);
+
+			if (cacheInvalidationMessage == null || cacheInvalidationMessage.getCacheName() == null)
+				return;
+
+			// Our own broadcasts come back to us too - still invalidate (see class docs), but don't count them as remote
+			Boolean remote = !getNodeId().equals(cacheInvalidationMessage.getNodeId());
+			invalidateLocally(cacheInvalidationMessage.getCacheName(), cacheInvalidationMessage.getKey(), remote);
+		} catch (Exception e) {
+			getLogger().warn(format("Unable to process cache invalidation notification %s", payload), e);
+		}
+	}
+
+	protected void invalidateLocally(@Nonnull String cacheName,
+																	 @Nullable String key,
+																	 @Nonnull Boolean remote) {
+		requireNonNull(cacheName);
+		requireNonNull(remote);
+
+		List<CacheInvalidationHandler> cacheInvalidationHandlers = getCacheInvalidationHandlersByCacheName().get(cacheName);
+
+		// Not every node has every cache, e.g. enterprise plugins are only created on first use
+		if (cacheInvalidationHandlers == null)
+			return;
+
+		for (CacheInvalidationHandler cacheInvalidationHandler : cacheInvalidationHandlers) {
+			if (key == null)
+				cacheInvalidationHandler.getAllInvalidator().run();
+			else
+				cacheInvalidationHandler.getKeyInvalidator().accept(key);
+		}
+
+		getMetricsRecorder().recordCacheInvalidation(cacheName, remote);
+	}
+
+	protected void invalidateAllRegisteredCachesLocally() {
+		for (Map.Entry<String, List<CacheInvalidationHandler>> entry : getCacheInvalidationHandlersByCacheName().entrySet())
+			for (CacheInvalidationHandler cacheInvalidationHandler : entry.getValue())
+				cacheInvalidationHandler.getAllInvalidator().run();
+	}
+
+	protected void publish(@Nonnull CacheInvalidationMessage cacheInvalidationMessage) {
+		requireNonNull(cacheInvalidationMessage);
+
+		String payload = getJsonMapper().toJson(cacheInvalidationMessage);
+
+		// Oversized key?  Clearing the whole cache elsewhere is always safe
+		if (payload.getBytes(UTF_8).length > MAXIMUM_PAYLOAD_SIZE_IN_BYTES)
+			payload = getJsonMapper().toJson(new CacheInvalidationMessage(cacheInvalidationMessage.getNodeId(), cacheInvalidationMessage.getCacheName(), null));
+
+		// A failed statement would abort the caller's transaction, so confine any failure to a savepoint.
+		// Named and released explicitly so that publishing many invalidations in one transaction doesn't pile up savepoints
+		boolean inTransaction = getDatabase().currentTransaction().isPresent();
+
+		if (inTransaction)
+			getDatabase().execute(format("SAVEPOINT %s", PUBLISH_SAVEPOINT_NAME));
+
+		try {
+			getDatabase().queryForObject("SELECT 1 FROM pg_notify(?, ?)", Integer.class, CHANNEL_NAME, payload);
+
+			if (inTransaction)
+				getDatabase().execute(format("RELEASE SAVEPOINT %s", PUBLISH_SAVEPOINT_NAME));
+		} catch (Exception e) {
+			if (inTransaction) {
+				getDatabase().execute(format("ROLLBACK TO SAVEPOINT %s", PUBLISH_SAVEPOINT_NAME));
+				getDatabase().execute(format("RELEASE SAVEPOINT %s", PUBLISH_SAVEPOINT_NAME));
+			}
+
+			getLogger().warn(format("Unable to broadcast invalidation for cache '%s', other nodes will pick up the change when their entries expire",
+					cacheInvalidationMessage.getCacheName()), e);
+		}
+	}
+
+	@ThreadSafe
+	protected static class CacheInvalidationHandler {
+		@Nonnull
+		private final Consumer<String> keyInvalidator;
+		@Nonnull
+		private final Runnable allInvalidator;
+
+		public CacheInvalidationHandler(@Nonnull Consumer<String> keyInvalidator,
+																		@Nonnull Runnable allInvalidator) {
+			requireNonNull(keyInvalidator);
+			requireNonNull(allInvalidator);
+
+			this.keyInvalidator = keyInvalidator;
+			this.allInvalidator = allInvalidator;
+		}
+
+		@Nonnull
+		public Consumer<String> getKeyInvalidator() {
+			return this.keyInvalidator;
+		}
+
+		@Nonnull
+		public Runnable getAllInvalidator() {
+			return this.allInvalidator;
+		}
+	}
+
+	@NotThreadSafe
+	protected static class CacheInvalidationMessage {
+		@Nullable
+		private String nodeId;
+		@Nullable
+		private String cacheName;
+		@Nullable
+		private String key;
+
+		public CacheInvalidationMessage() {
+			// For JSON deserialization
+		}
+
+		public CacheInvalidationMessage(@Nullable String nodeId,
+																		@Nullable String cacheName,
+																		@Nullable String key) {
+			this.nodeId = nodeId;
+			this.cacheName = cacheName;
+			this.key = key;
+		}
+
+		@Nullable
+		public String getNodeId() {
+			return this.nodeId;
+		}
+
+		public void setNodeId(@Nullable String nodeId) {
+			this.nodeId = nodeId;
+		}
+
+		@Nullable
+		public String getCacheName() {
+			return this.cacheName;
+		}
+
+		public void setCacheName(@Nullable String cacheName) {
+			this.cacheName = cacheName;
+		}
+
+		@Nullable
+		public String getKey() {
+			return this.key;
+		}
+
+		public void setKey(@Nullable String key) {
+			this.key = key;
+		}
+	}
+
+	@Nonnull
+	protected Configuration getConfiguration() {
+		return this.configuration;
+	}
+
+	@Nonnull
+	protected Database getDatabase() {
+		return this.databaseProvider.get();
+	}
+
+	@Nonnull
+	protected JsonMapper getJsonMapper() {
+		return this.jsonMapper;
+	}
+
+	@Nonnull
+	protected MetricsRecorder getMetricsRecorder() {
+		return this.metricsRecorder;
+	}
+
+	@Nonnull
+	protected String getNodeId() {
+		return this.nodeId;
+	}
+
+	@Nonnull
+	protected ConcurrentHashMap<String, List<CacheInvalidationHandler>> getCacheInvalidationHandlersByCacheName() {
+		return this.cacheInvalidationHandlersByCacheName;
+	}
+
+	@Nonnull
+	protected Logger getLogger() {
+		return this.logger;
+	}
+
+	@Nonnull
+	protected Object getListenerLock() {
+		return this.listenerLock;
+	}
+
+	@Nonnull
+	protected Optional<ExecutorService> getListenerExecutorService() {
+		return Optional.ofNullable(this.listenerExecutorService);
+	}
+}
@@ -75,6 +75,8 @@ public class CurrentContext {
 	private final String fingerprintId;
 	@Nullable
 	private final MyChartAccessToken myChartAccessToken;
+	@Nullable
+	private final Deadline deadline;
 
 	public CurrentContext(@Nonnull Builder builder) {
 		requireNonNull(builder);
@@ -97,6 +99,7 @@ public class CurrentContext {
 		this.accountSource = builder.accountSource;
 		this.fingerprintId = builder.fingerprintId;
 		this.myChartAccessToken = builder.myChartAccessToken;
+		this.deadline = builder.deadline;
 
 		String webappCurrentUrl = trimToNull(builder.webappCurrentUrl);
 		URL webappCurrentUrlAsUrl = null;
@@ -182,6 +185,11 @@ public class CurrentContext {
 		return Optional.ofNullable(this.myChartAccessToken);
 	}
 
+	@Nonnull
+	public Optional<Deadline> getDeadline() {
+		return Optional.ofNullable(this.deadline);
+	}
+
 	@NotThreadSafe
 	public static class Builder {
 		@Nonnull
@@ -212,6 +220,8 @@ public class CurrentContext {
 		private String fingerprintId;
 		@Nullable
 		private MyChartAccessToken myChartAccessToken;
+		@Nullable
+		private Deadline deadline;
 
 		public Builder(@Nonnull Account account,
 									 @Nonnull Locale locale,
@@ -299,6 +309,12 @@ public class CurrentContext {
 			return this;
 		}
 
+		@Nonnull
+		public Builder deadline(@Nullable Deadline deadline) {
+			this.deadline = deadline;
+			return this;
+		}
+
 		@Nonnull
 		public CurrentContext build() {
 			return new CurrentContext(this);
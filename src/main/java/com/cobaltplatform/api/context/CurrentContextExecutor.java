@@ -120,6 +120,14 @@ public class CurrentContextExecutor {
 		return Optional.ofNullable(CURRENT_CONTEXT_HOLDER.get());
 	}
 
+	/**
+	 * For code that isn't managed by Guice (e.g. HTTP clients constructed directly) but still needs to see the current context.
+	 */
+	@Nonnull
+	public static Optional<CurrentContext> getCurrentContextForCurrentThread() {
+		return Optional.ofNullable(CURRENT_CONTEXT_HOLDER.get());
+	}
+
 	@Nonnull
 	public Optional<Cache> getCurrentContextCache() {
 		return Optional.ofNullable(CURRENT_CONTEXT_CACHE_HOLDER.get());
@@ -22,10 +22,16 @@ package com.cobaltplatform.api.context;
 import com.pyranid.StatementLog;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
 
@@ -35,15 +41,60 @@ import static java.util.Objects.requireNonNull;
 @NotThreadSafe
 public class DatabaseContext {
 	@Nonnull
-	private List<StatementLog> statementLogs;
+	private static final Integer MAXIMUM_STATEMENT_ORIGIN_FRAME_COUNT;
+	@Nonnull
+	private static final Set<String> STATEMENT_ORIGIN_IGNORED_CLASS_NAME_PREFIXES;
+
+	@Nonnull
+	private final List<StatementLog> statementLogs;
+	@Nonnull
+	private final Map<String, Integer> statementCountsBySql;
+	@Nonnull
+	private final Map<String, String> statementOriginsBySql;
+	@Nullable
+	private final Integer repeatedStatementThreshold;
+
+	static {
+		MAXIMUM_STATEMENT_ORIGIN_FRAME_COUNT = 5;
+		// Database plumbing that sits between application code and Pyranid, never interesting as an origin
+		STATEMENT_ORIGIN_IGNORED_CLASS_NAME_PREFIXES = Set.of(
+				"com.cobaltplatform.api.AppModule",
+				"com.cobaltplatform.api.context.",
+				"com.cobaltplatform.api.util.db.",
+				"com.cobaltplatform.api.web.filter."
+		);
+	}
 
 	public DatabaseContext() {
+		this(null);
+	}
+
+	/**
+	 * @param repeatedStatementThreshold when the same SQL has been executed this many times, the application code
+	 *                                   that issued it is captured so N+1 patterns can be traced back to their source
+	 */
+	public DatabaseContext(@Nullable Integer repeatedStatementThreshold) {
 		this.statementLogs = new ArrayList<>();
+		this.statementCountsBySql = new HashMap<>();
+		this.statementOriginsBySql = new HashMap<>();
+		this.repeatedStatementThreshold = repeatedStatementThreshold;
 	}
 
 	public void addStatementLog(@Nonnull StatementLog statementLog) {
 		requireNonNull(statementLog);
 		getStatementLogsInternal().add(statementLog);
+
+		String sql = statementLog.sql();
+
+		if (sql == null)
+			return;
+
+		Integer statementCount = getStatementCountsBySqlInternal().merge(sql, 1, Integer::sum);
+		Integer repeatedStatementThreshold = getRepeatedStatementThreshold().orElse(null);
+
+		// Walking the stack is relatively expensive, so only do it once per statement, and only once it's over the threshold
+		if (repeatedStatementThreshold != null && statementCount.equals(repeatedStatementThreshold + 1))
+			getStatementOriginsBySqlInternal().put(sql, determineStatementOrigin());
 	}
 
 	@Nonnull
@@ -51,12 +102,52 @@ public class DatabaseContext {
 		return Collections.unmodifiableList(getStatementLogsInternal());
 	}
 
+	@Nonnull
+	public Map<String, Integer> getStatementCountsBySql() {
+		return Collections.unmodifiableMap(getStatementCountsBySqlInternal());
+	}
+
+	@Nonnull
+	public Optional<String> getStatementOrigin(@Nonnull String sql) {
+		requireNonNull(sql);
+		return Optional.ofNullable(getStatementOriginsBySqlInternal().get(sql));
+	}
+
 	public void clearStatementLogs() {
 		getStatementLogsInternal().clear();
+		getStatementCountsBySqlInternal().clear();
+		getStatementOriginsBySqlInternal().clear();
+	}
+
+	@Nonnull
+	public Optional<Integer> getRepeatedStatementThreshold() {
+		return Optional.ofNullable(this.repeatedStatementThreshold);
+	}
+
+	@Nonnull
+	protected String determineStatementOrigin() {
+		List<String> frames = StackWalker.getInstance().walk(stackFrames -> stackFrames
+				.filter(stackFrame -> stackFrame.getClassName().startsWith("com.cobaltplatform.api."))
+				.filter(stackFrame -> STATEMENT_ORIGIN_IGNORED_CLASS_NAME_PREFIXES.stream().noneMatch(prefix -> stackFrame.getClassName().startsWith(prefix)))
+				.limit(MAXIMUM_STATEMENT_ORIGIN_FRAME_COUNT)
+				.map(stackFrame -> stackFrame.toStackTraceElement().toString())
+				.collect(Collectors.toList()));
+
+		return frames.size() == 0 ? "(unknown)" : frames.stream().collect(Collectors.joining(" <- "));
 	}
 
 	@Nonnull
 	private List<StatementLog> getStatementLogsInternal() {
-		return statementLogs;
+		return this.statementLogs;
+	}
+
+	@Nonnull
+	private Map<String, Integer> getStatementCountsBySqlInternal() {
+		return this.statementCountsBySql;
+	}
+
+	@Nonnull
+	private Map<String, String> getStatementOriginsBySqlInternal() {
+		return this.statementOriginsBySql;
 	}
-}
\ No newline at end of file
+}
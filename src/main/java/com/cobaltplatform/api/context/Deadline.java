@@ -0,0 +1,123 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.context;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A point in time by which a unit of work (normally an HTTP request) should be finished.
+ * <p>
+ * Carried on {@link CurrentContext} so downstream work - SQL statements, outbound HTTP calls - can size its own
+ * timeouts to whatever time is left rather than each using a fixed, independent timeout.
+ *
+ * @author Transmogrify, LLC.
+ */
+@Immutable
+public class Deadline {
+	@Nonnull
+	private static final Map<ExpirationType, LongAdder> EXPIRATION_COUNTS_BY_EXPIRATION_TYPE;
+
+	@Nonnull
+	private final Duration timeout;
+	// System.nanoTime() is monotonic, unlike the wall clock
+	private final long expiresAtNanoTime;
+
+	static {
+		Map<ExpirationType, LongAdder> expirationCountsByExpirationType = new EnumMap<>(ExpirationType.class);
+
+		for (ExpirationType expirationType : ExpirationType.values())
+			expirationCountsByExpirationType.put(expirationType, new LongAdder());
+
+		EXPIRATION_COUNTS_BY_EXPIRATION_TYPE = Collections.unmodifiableMap(expirationCountsByExpirationType);
+	}
+
+	@Nonnull
+	public static Deadline after(@Nonnull Duration timeout) {
+		requireNonNull(timeout);
+		return new Deadline(timeout);
+	}
+
+	protected Deadline(@Nonnull Duration timeout) {
+		requireNonNull(timeout);
+
+		if (timeout.isNegative() || timeout.isZero())
+			throw new IllegalArgumentException("Deadline timeout must be positive");
+
+		this.timeout = timeout;
+		this.expiresAtNanoTime = System.nanoTime() + timeout.toNanos();
+	}
+
+	/**
+	 * Time left before this deadline expires, or {@link Duration#ZERO} if it already has.
+	 */
+	@Nonnull
+	public Duration getRemaining() {
+		long remainingNanos = this.expiresAtNanoTime - System.nanoTime();
+		return remainingNanos <= 0 ? Duration.ZERO : Duration.ofNanos(remainingNanos);
+	}
+
+	@Nonnull
+	public Boolean isExpired() {
+		return this.expiresAtNanoTime - System.nanoTime() <= 0;
+	}
+
+	@Nonnull
+	public Duration getTimeout() {
+		return this.timeout;
+	}
+
+	public static void recordExpiration(@Nonnull ExpirationType expirationType) {
+		requireNonNull(expirationType);
+		EXPIRATION_COUNTS_BY_EXPIRATION_TYPE.get(expirationType).increment();
+	}
+
+	@Nonnull
+	public static Long getExpirationCount(@Nonnull ExpirationType expirationType) {
+		requireNonNull(expirationType);
+		return EXPIRATION_COUNTS_BY_EXPIRATION_TYPE.get(expirationType).sum();
+	}
+
+	@Override
+	@Nonnull
+	public String toString() {
+		return format("%s{timeout=%s, remaining=%s}", getClass().getSimpleName(), getTimeout(), getRemaining());
+	}
+
+	/**
+	 * Where a deadline ran out.
+	 */
+	public enum ExpirationType {
+		// The request as a whole finished after its deadline
+		REQUEST,
+		// Postgres cancelled a statement via statement_timeout
+		DATABASE,
+		// An outbound HTTP call was cut short (or never started)
+		HTTP
+	}
+}
@@ -17,26 +17,19 @@
  * limitations under the License.
  */
 
-package com.cobaltplatform.api.model.service;
+package com.cobaltplatform.api.context;
 
-import com.cobaltplatform.api.model.db.CareResource;
-import com.cobaltplatform.api.model.db.CareResourceLocation;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
 
-import javax.annotation.Nullable;
+import static java.util.Objects.requireNonNull;
 
 /**
  * @author Transmogrify, LLC.
  */
-public class CareResourceLocationWithTotalCount extends CareResourceLocation {
-	@Nullable
-	private Integer totalCount;
-
-	@Nullable
-	public Integer getTotalCount() {
-		return totalCount;
-	}
-
-	public void setTotalCount(@Nullable Integer totalCount) {
-		this.totalCount = totalCount;
+@NotThreadSafe
+public class DeadlineExceededException extends RuntimeException {
+	public DeadlineExceededException(@Nonnull String message) {
+		super(requireNonNull(message));
 	}
 }
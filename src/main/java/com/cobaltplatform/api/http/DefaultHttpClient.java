@@ -19,7 +19,11 @@
 
 package com.cobaltplatform.api.http;
 
+import com.cobaltplatform.api.context.CurrentContextExecutor;
+import com.cobaltplatform.api.context.Deadline;
+import com.cobaltplatform.api.context.Deadline.ExpirationType;
 import com.cobaltplatform.api.util.WebUtility;
+import okhttp3.Call;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -36,8 +40,10 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSession;
 import javax.net.ssl.X509TrustManager;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -262,15 +268,42 @@ public class DefaultHttpClient implements HttpClient {
 			getHttpRequestBodyLogger().debug("[{}]: Request body:\n{}", requestIdentifier, requestBodyString);
 		}
 
+		Call call = getOkHttpClient().newCall(request);
+		Deadline deadline = CurrentContextExecutor.getCurrentContextForCurrentThread()
+				.flatMap(currentContext -> currentContext.getDeadline())
+				.orElse(null);
+
+		// If we are running on behalf of a request with a deadline, don't let this call run past it
+		if (deadline != null) {
+			Duration remaining = deadline.getRemaining();
+
+			if (remaining.isZero()) {
+				Deadline.recordExpiration(ExpirationType.HTTP);
+				throw new InterruptedIOException(format("Deadline of %s was exceeded before calling %s %s", deadline.getTimeout(), httpMethod.name(), url));
+			}
+
+			call.timeout().timeout(remaining.toNanos(), TimeUnit.NANOSECONDS);
+		}
+
 		long time = System.nanoTime();
+		int responseCode;
+		byte[] responseBodyBytes;
 
-		Response response = getOkHttpClient().newCall(request).execute();
+		// The call timeout covers reading the body too, so both can be cut short by the deadline
+		try {
+			Response response = call.execute();
 
-		time = System.nanoTime() - time;
-		getHttpTimingLogger().debug(format("[%s]: Request completed in %.1fms.", requestIdentifier, time / (double) 1000000));
+			time = System.nanoTime() - time;
+			getHttpTimingLogger().debug(format("[%s]: Request completed in %.1fms.", requestIdentifier, time / (double) 1000000));
 
-		int responseCode = response.code();
-		byte[] responseBodyBytes = response.body().bytes();
+			responseCode = response.code();
+			responseBodyBytes = response.body().bytes();
+		} catch (InterruptedIOException e) {
+			if (deadline != null && deadline.isExpired())
+				Deadline.recordExpiration(ExpirationType.HTTP);
+
+			throw e;
+		}
 
 		getHttpLogger().debug("[{}]: Response status was {}.", requestIdentifier, responseCode);
 
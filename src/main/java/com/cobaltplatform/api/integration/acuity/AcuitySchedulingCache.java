@@ -20,24 +20,43 @@
 package com.cobaltplatform.api.integration.acuity;
 
 import com.cobaltplatform.api.Configuration;
+import com.cobaltplatform.api.cache.CacheInvalidationBus;
 import com.cobaltplatform.api.integration.acuity.model.AcuityClass;
+import com.cobaltplatform.api.integration.acuity.model.AcuityDate;
 import com.cobaltplatform.api.integration.acuity.model.AcuityTime;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -47,30 +66,111 @@ import static java.util.Objects.requireNonNull;
  */
 @ThreadSafe
 @Singleton
-public class AcuitySchedulingCache {
+public class AcuitySchedulingCache implements AutoCloseable {
 	@Nonnull
-	private final LoadingCache<String, List<AcuityTime>> availabilityTimesCache;
+	private static final Long PREFETCH_TIMEOUT_IN_SECONDS;
 	@Nonnull
-	private final LoadingCache<String, List<AcuityClass>> availabilityClassesCache;
+	private static final String AVAILABILITY_TIMES_CACHE_NAME;
+	@Nonnull
+	private static final String AVAILABILITY_CLASSES_CACHE_NAME;
+
+	@Nonnull
+	private final LoadingCache<AvailabilityTimesKey, List<AcuityTime>> availabilityTimesCache;
+	@Nonnull
+	private final LoadingCache<AvailabilityClassesKey, List<AcuityClass>> availabilityClassesCache;
+	// Secondary indices so webhook-driven invalidation only touches the keys for affected dates
+	@Nonnull
+	private final ConcurrentMap<LocalDate, Set<AvailabilityTimesKey>> availabilityTimesKeysByDate;
+	@Nonnull
+	private final ConcurrentMap<YearMonth, Set<AvailabilityClassesKey>> availabilityClassesKeysByYearMonth;
 
 	@Nonnull
 	private final AcuitySchedulingClient acuitySchedulingClient;
 	@Nonnull
 	private final Configuration configuration;
 	@Nonnull
+	private final CacheInvalidationBus cacheInvalidationBus;
+	@Nonnull
 	private final Logger logger;
 
+	@Nonnull
+	private final Object prefetchExecutorServiceLock;
+	@Nonnull
+	private Boolean prefetchExecutorServiceStarted;
+	@Nullable
+	private ExecutorService prefetchExecutorService;
+
+	static {
+		PREFETCH_TIMEOUT_IN_SECONDS = 30L;
+		AVAILABILITY_TIMES_CACHE_NAME = "acuity-availability-times";
+		AVAILABILITY_CLASSES_CACHE_NAME = "acuity-availability-classes";
+	}
+
 	@Inject
 	public AcuitySchedulingCache(@Nonnull AcuitySchedulingClient acuitySchedulingClient,
-															 @Nonnull Configuration configuration) {
+															 @Nonnull Configuration configuration,
+															 @Nonnull CacheInvalidationBus cacheInvalidationBus) {
 		requireNonNull(acuitySchedulingClient);
 		requireNonNull(configuration);
+		requireNonNull(cacheInvalidationBus);
 
+		this.availabilityTimesKeysByDate = new ConcurrentHashMap<>();
+		this.availabilityClassesKeysByYearMonth = new ConcurrentHashMap<>();
 		this.availabilityTimesCache = createAvailabilityTimesCache();
 		this.availabilityClassesCache = createAvailabilityClassesCache();
 		this.acuitySchedulingClient = acuitySchedulingClient;
 		this.configuration = configuration;
+		this.cacheInvalidationBus = cacheInvalidationBus;
 		this.logger = LoggerFactory.getLogger(getClass());
+		this.prefetchExecutorServiceLock = new Object();
+		this.prefetchExecutorServiceStarted = false;
+
+		// Bus keys are "date|zone" pairs and evict from both caches, see invalidateAvailability()
+		getCacheInvalidationBus().registerCache(AVAILABILITY_TIMES_CACHE_NAME, getAvailabilityTimesCache(),
+				(key) -> invalidateAvailabilityLocally(key));
+		getCacheInvalidationBus().registerCache(AVAILABILITY_CLASSES_CACHE_NAME, getAvailabilityClassesCache(),
+				(key) -> invalidateAvailabilityLocally(key));
+	}
+
+	@Override
+	public void close() throws Exception {
+		stopPrefetchExecutorService();
+	}
+
+	@Nonnull
+	public Boolean startPrefetchExecutorService() {
+		synchronized (getPrefetchExecutorServiceLock()) {
+			if (isPrefetchExecutorServiceStarted())
+				return false;
+
+			getLogger().trace("Starting Acuity availability prefetch executor service...");
+
+			this.prefetchExecutorService = Executors.newFixedThreadPool(getPrefetchConcurrency(),
+					new ThreadFactoryBuilder().setNameFormat("acuity-availability-prefetch-%d").build());
+			this.prefetchExecutorServiceStarted = true;
+
+			getLogger().trace("Acuity availability prefetch executor service started.");
+
+			return true;
+		}
+	}
+
+	@Nonnull
+	public Boolean stopPrefetchExecutorService() {
+		synchronized (getPrefetchExecutorServiceLock()) {
+			if (!isPrefetchExecutorServiceStarted())
+				return false;
+
+			getLogger().trace("Stopping Acuity availability prefetch executor service...");
+
+			getPrefetchExecutorService().get().shutdownNow();
+			this.prefetchExecutorService = null;
+			this.prefetchExecutorServiceStarted = false;
+
+			getLogger().trace("Acuity availability prefetch executor service stopped.");
+
+			return true;
+		}
 	}
 
 	@Nonnull
@@ -83,29 +183,29 @@ public class AcuitySchedulingCache {
 		requireNonNull(localDate);
 		requireNonNull(timeZone);
 
-		// Key format:
-		// {calendarId}:{appointmentTypeId}:{localDate}:{timeZone}
-		// e.g.
-		// 3829372:3119372:2020-04-20:America/New_York
-		String key = format("%s:%s:%s:%s", calendarId, appointmentTypeId, localDate, timeZone.getId());
-
-		return getAvailabilityTimesCache().get(key);
+		return getAvailabilityTimes(new AvailabilityTimesKey(calendarId, appointmentTypeId, localDate, timeZone));
 	}
 
 	@Nonnull
-	protected List<AcuityTime> findAvailabilityTimesInternal(@Nonnull String key) {
+	protected List<AcuityTime> getAvailabilityTimes(@Nonnull AvailabilityTimesKey key) {
 		requireNonNull(key);
 
-		getLogger().debug("Cache miss for availability times {}...", key);
+		List<AcuityTime> acuityTimes = getAvailabilityTimesCache().get(key);
+
+		// Only index once the value is installed - while a load is in flight the key looks absent, see syncAvailabilityTimesKeyIndex()
+		syncAvailabilityTimesKeyIndex(key);
+
+		return acuityTimes;
+	}
 
-		String[] keyComponents = key.split(":");
+	@Nonnull
+	protected List<AcuityTime> findAvailabilityTimesInternal(@Nonnull AvailabilityTimesKey key) {
+		requireNonNull(key);
 
-		Long calendarId = Long.valueOf(keyComponents[0]);
-		Long appointmentTypeId = Long.valueOf(keyComponents[1]);
-		LocalDate localDate = LocalDate.parse(keyComponents[2]);
-		ZoneId timeZone = ZoneId.of(keyComponents[3]);
+		getLogger().debug("Cache miss for availability times {}...", key);
 
-		return getAcuitySchedulingClient().findAvailabilityTimes(calendarId, appointmentTypeId, localDate, timeZone);
+		return getAcuitySchedulingClient().findAvailabilityTimes(key.getCalendarId(),
+				key.getAppointmentTypeId(), key.getLocalDate(), key.getTimeZone());
 	}
 
 	@Nonnull
@@ -114,52 +214,191 @@ public class AcuitySchedulingCache {
 		requireNonNull(yearMonth);
 		requireNonNull(timeZone);
 
-		// Key format:
-		// {yearMonth}:{timeZone}
-		// e.g.
-		// 2020-04:America/New_York
-		String key = format("%s:%s", yearMonth, timeZone.getId());
+		AvailabilityClassesKey key = new AvailabilityClassesKey(yearMonth, timeZone);
+		List<AcuityClass> acuityClasses = getAvailabilityClassesCache().get(key);
+
+		syncAvailabilityClassesKeyIndex(key);
 
-		return getAvailabilityClassesCache().get(key);
+		return acuityClasses;
 	}
 
 	@Nonnull
-	protected List<AcuityClass> findAvailabilityClassesInternal(@Nonnull String key) {
+	protected List<AcuityClass> findAvailabilityClassesInternal(@Nonnull AvailabilityClassesKey key) {
 		requireNonNull(key);
 
 		getLogger().debug("Cache miss for availability classes {}...", key);
 
-		String[] keyComponents = key.split(":");
+		return getAcuitySchedulingClient().findAvailabilityClasses(key.getYearMonth(), key.getTimeZone());
+	}
+
+	/**
+	 * Warms the availability times cache for every date in {@code [startDate, endDate]}.
+	 * <p>
+	 * Acuity's month-level dates endpoint tells us which days have any availability at all, so days without
+	 * availability are cached as empty without a per-day call.  The remaining days are loaded one at a time on the
+	 * calling thread by default, or on a shared pool when {@link Configuration#getAcuityAvailabilityPrefetchConcurrency()}
+	 * allows more than one call in flight.
+	 */
+	public void prefetchAvailabilityTimes(@Nonnull Long calendarId,
+																				@Nonnull Long appointmentTypeId,
+																				@Nonnull LocalDate startDate,
+																				@Nonnull LocalDate endDate,
+																				@Nonnull ZoneId timeZone) {
+		requireNonNull(calendarId);
+		requireNonNull(appointmentTypeId);
+		requireNonNull(startDate);
+		requireNonNull(endDate);
+		requireNonNull(timeZone);
+
+		if (endDate.isBefore(startDate))
+			throw new IllegalArgumentException(format("End date %s is before start date %s", endDate, startDate));
+
+		List<AvailabilityTimesKey> keysToLoad = new ArrayList<>();
+		YearMonth currentYearMonth = null;
+		Set<LocalDate> availableDates = Collections.emptySet();
+
+		for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+			AvailabilityTimesKey key = new AvailabilityTimesKey(calendarId, appointmentTypeId, date, timeZone);
+
+			if (getAvailabilityTimesCache().getIfPresent(key) != null)
+				continue;
 
-		YearMonth yearMonth = YearMonth.parse(keyComponents[0]);
-		ZoneId timeZone = ZoneId.of(keyComponents[1]);
+			YearMonth yearMonth = YearMonth.from(date);
 
-		return getAcuitySchedulingClient().findAvailabilityClasses(yearMonth, timeZone);
+			if (!yearMonth.equals(currentYearMonth)) {
+				currentYearMonth = yearMonth;
+				availableDates = findAvailableDates(calendarId, appointmentTypeId, yearMonth, timeZone);
+			}
+
+			if (availableDates.contains(date)) {
+				keysToLoad.add(key);
+			} else {
+				getAvailabilityTimesCache().put(key, Collections.emptyList());
+				syncAvailabilityTimesKeyIndex(key);
+			}
+		}
+
+		if (keysToLoad.size() == 0)
+			return;
+
+		getLogger().debug("Prefetching {} availability time keys for calendar ID {} and appointment type ID {}...",
+				keysToLoad.size(), calendarId, appointmentTypeId);
+
+		if (getPrefetchConcurrency() == 1 || keysToLoad.size() == 1) {
+			try {
+				for (AvailabilityTimesKey key : keysToLoad)
+					getAvailabilityTimes(key);
+			} catch (Exception e) {
+				getLogger().warn(format("Unable to prefetch availability times for calendar ID %s and appointment type ID %s",
+						calendarId, appointmentTypeId), e);
+			}
+
+			return;
+		}
+
+		// Normally started at app startup, but a prefetch may arrive first (e.g. in tests)
+		startPrefetchExecutorService();
+
+		ExecutorService executorService = getPrefetchExecutorService().orElseThrow(() ->
+				new IllegalStateException("Acuity availability prefetch executor service has been stopped"));
+
+		List<CompletableFuture<List<AcuityTime>>> futures = new ArrayList<>(keysToLoad.size());
+
+		try {
+			for (AvailabilityTimesKey key : keysToLoad)
+				futures.add(CompletableFuture.supplyAsync(() -> getAvailabilityTimes(key), executorService));
+
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(getPrefetchTimeoutInSeconds(), TimeUnit.SECONDS);
+		} catch (TimeoutException e) {
+			getLogger().warn("Timed out prefetching availability times for calendar ID {} and appointment type ID {}", calendarId, appointmentTypeId);
+		} catch (ExecutionException e) {
+			getLogger().warn(format("Unable to prefetch availability times for calendar ID %s and appointment type ID %s",
+					calendarId, appointmentTypeId), e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			// The pool is shared, so only cancel this prefetch's loads
+			for (CompletableFuture<List<AcuityTime>> future : futures)
+				future.cancel(true);
+		}
 	}
 
+	@Nonnull
+	protected Set<LocalDate> findAvailableDates(@Nonnull Long calendarId,
+																							@Nonnull Long appointmentTypeId,
+																							@Nonnull YearMonth yearMonth,
+																							@Nonnull ZoneId timeZone) {
+		requireNonNull(calendarId);
+		requireNonNull(appointmentTypeId);
+		requireNonNull(yearMonth);
+		requireNonNull(timeZone);
+
+		List<AcuityDate> acuityDates = getAcuitySchedulingClient().findAvailabilityDates(calendarId, appointmentTypeId, yearMonth, timeZone);
+
+		return acuityDates.stream()
+				.map(acuityDate -> acuityDate.getDate())
+				.filter(date -> date != null)
+				.map(date -> LocalDate.parse(date))
+				.collect(Collectors.toSet());
+	}
+
+	/**
+	 * Invalidates cached availability for any key whose local day (in the key's own time zone) overlaps
+	 * {@code date} as observed in {@code timeZone}, on this node and all others.
+	 */
 	public void invalidateAvailability(@Nonnull LocalDate date,
 																		 @Nonnull ZoneId timeZone) {
 		requireNonNull(date);
 		requireNonNull(timeZone);
 
-		// TODO: for MVP, we are actually ignoring timezone...
+		getCacheInvalidationBus().invalidate(AVAILABILITY_TIMES_CACHE_NAME, format("%s|%s", date, timeZone.getId()));
+	}
+
+	protected void invalidateAvailabilityLocally(@Nonnull String key) {
+		requireNonNull(key);
+
+		String[] components = key.split("\\|", 2);
+
+		if (components.length != 2)
+			throw new IllegalArgumentException(format("Unexpected availability invalidation key '%s'", key));
+
+		invalidateAvailabilityLocally(LocalDate.parse(components[0]), ZoneId.of(components[1]));
+	}
+
+	protected void invalidateAvailabilityLocally(@Nonnull LocalDate date,
+																							 @Nonnull ZoneId timeZone) {
+		requireNonNull(date);
+		requireNonNull(timeZone);
+
 		getLogger().debug("Invalidating Acuity availability cache for {} at {}...", date, timeZone);
 
-		Set<String> availabilityTimeKeys = getAvailabilityTimesCache().asMap().keySet();
-		Set<String> availabilityTimeKeysToInvalidate = new HashSet<>();
-		Set<String> availabilityClassKeys = getAvailabilityClassesCache().asMap().keySet();
-		Set<String> availabilityClassKeysToInvalidate = new HashSet<>();
+		Instant start = date.atStartOfDay(timeZone).toInstant();
+		Instant end = date.plusDays(1).atStartOfDay(timeZone).toInstant();
+
+		// UTC offsets span less than a day in either direction, so only adjacent dates can overlap
+		Set<AvailabilityTimesKey> availabilityTimeKeysToInvalidate = new HashSet<>();
+		Set<AvailabilityClassesKey> availabilityClassKeysToInvalidate = new HashSet<>();
 
-		String dateString = date.toString();
+		for (LocalDate candidateDate = date.minusDays(1); !candidateDate.isAfter(date.plusDays(1)); candidateDate = candidateDate.plusDays(1)) {
+			for (AvailabilityTimesKey key : getAvailabilityTimesKeysByDate().getOrDefault(candidateDate, Collections.emptySet())) {
+				Instant keyStart = key.getLocalDate().atStartOfDay(key.getTimeZone()).toInstant();
+				Instant keyEnd = key.getLocalDate().plusDays(1).atStartOfDay(key.getTimeZone()).toInstant();
 
-		for (String availabilityTimeKey : availabilityTimeKeys) {
-			if (availabilityTimeKey.contains(dateString))
-				availabilityTimeKeysToInvalidate.add(availabilityTimeKey);
+				if (keyStart.isBefore(end) && start.isBefore(keyEnd))
+					availabilityTimeKeysToInvalidate.add(key);
+			}
 		}
 
-		for (String availabilityClassKey : availabilityClassKeys) {
-			if (availabilityClassKey.startsWith(dateString))
-				availabilityClassKeysToInvalidate.add(availabilityClassKey);
+		Set<YearMonth> candidateYearMonths = Set.of(YearMonth.from(date.minusDays(1)), YearMonth.from(date), YearMonth.from(date.plusDays(1)));
+
+		for (YearMonth candidateYearMonth : candidateYearMonths) {
+			for (AvailabilityClassesKey key : getAvailabilityClassesKeysByYearMonth().getOrDefault(candidateYearMonth, Collections.emptySet())) {
+				Instant keyStart = key.getYearMonth().atDay(1).atStartOfDay(key.getTimeZone()).toInstant();
+				Instant keyEnd = key.getYearMonth().plusMonths(1).atDay(1).atStartOfDay(key.getTimeZone()).toInstant();
+
+				if (keyStart.isBefore(end) && start.isBefore(keyEnd))
+					availabilityClassKeysToInvalidate.add(key);
+			}
 		}
 
 		getLogger().debug("Invalidating {} availability time keys...", availabilityTimeKeysToInvalidate.size());
@@ -171,48 +410,270 @@ public class AcuitySchedulingCache {
 
 	@Nonnull
 	public Set<String> getAvailabilityTimesCacheKeys() {
-		return getAvailabilityTimesCache().asMap().keySet();
+		return getAvailabilityTimesCache().asMap().keySet().stream()
+				.map(key -> key.toString())
+				.collect(Collectors.toSet());
 	}
 
 	public void invalidateAvailabilityTimesCache() {
-		getAvailabilityTimesCache().invalidateAll();
+		getCacheInvalidationBus().invalidateAll(AVAILABILITY_TIMES_CACHE_NAME);
 	}
 
 	@Nonnull
 	public Set<String> getAvailabilityClassesCacheKeys() {
-		return getAvailabilityClassesCache().asMap().keySet();
+		return getAvailabilityClassesCache().asMap().keySet().stream()
+				.map(key -> key.toString())
+				.collect(Collectors.toSet());
 	}
 
 	public void invalidateAvailabilityClassesCache() {
-		getAvailabilityClassesCache().invalidateAll();
+		getCacheInvalidationBus().invalidateAll(AVAILABILITY_CLASSES_CACHE_NAME);
+	}
+
+	/**
+	 * Makes the date index agree with whether {@code key} is in the cache right now.
+	 * <p>
+	 * Runs after every install (load or put) and every removal, serialized per date by {@code compute()}, so whichever
+	 * call comes last sees the final state.  A load in flight is invisible to {@code containsKey()}, which is why
+	 * indexing happens after the value is installed rather than from inside the loader.
+	 */
+	protected void syncAvailabilityTimesKeyIndex(@Nonnull AvailabilityTimesKey key) {
+		requireNonNull(key);
+
+		getAvailabilityTimesKeysByDate().compute(key.getLocalDate(), (date, keys) -> {
+			if (keys == null)
+				keys = ConcurrentHashMap.newKeySet();
+
+			if (getAvailabilityTimesCache().asMap().containsKey(key))
+				keys.add(key);
+			else
+				keys.remove(key);
+
+			return keys.size() == 0 ? null : keys;
+		});
+	}
+
+	protected void syncAvailabilityClassesKeyIndex(@Nonnull AvailabilityClassesKey key) {
+		requireNonNull(key);
+
+		getAvailabilityClassesKeysByYearMonth().compute(key.getYearMonth(), (yearMonth, keys) -> {
+			if (keys == null)
+				keys = ConcurrentHashMap.newKeySet();
+
+			if (getAvailabilityClassesCache().asMap().containsKey(key))
+				keys.add(key);
+			else
+				keys.remove(key);
+
+			return keys.size() == 0 ? null : keys;
+		});
 	}
 
 	@Nonnull
-	protected LoadingCache<String, List<AcuityTime>> createAvailabilityTimesCache() {
+	protected LoadingCache<AvailabilityTimesKey, List<AcuityTime>> createAvailabilityTimesCache() {
 		return Caffeine.newBuilder()
 				.expireAfterWrite(180, TimeUnit.SECONDS)
 				.refreshAfterWrite(60, TimeUnit.SECONDS)
+				.recordStats()
+				.removalListener((AvailabilityTimesKey key, List<AcuityTime> value, RemovalCause cause) -> {
+					if (key != null && cause != RemovalCause.REPLACED)
+						syncAvailabilityTimesKeyIndex(key);
+				})
 				.build(key -> findAvailabilityTimesInternal(key));
 	}
 
 	@Nonnull
-	protected LoadingCache<String, List<AcuityClass>> createAvailabilityClassesCache() {
+	protected LoadingCache<AvailabilityClassesKey, List<AcuityClass>> createAvailabilityClassesCache() {
 		return Caffeine.newBuilder()
 				.expireAfterWrite(5, TimeUnit.MINUTES)
 				.refreshAfterWrite(1, TimeUnit.MINUTES)
+				.recordStats()
+				.removalListener((AvailabilityClassesKey key, List<AcuityClass> value, RemovalCause cause) -> {
+					if (key != null && cause != RemovalCause.REPLACED)
+						syncAvailabilityClassesKeyIndex(key);
+				})
 				.build(key -> findAvailabilityClassesInternal(key));
 	}
 
+	@Immutable
+	protected static class AvailabilityTimesKey {
+		@Nonnull
+		private final Long calendarId;
+		@Nonnull
+		private final Long appointmentTypeId;
+		@Nonnull
+		private final LocalDate localDate;
+		@Nonnull
+		private final ZoneId timeZone;
+
+		public AvailabilityTimesKey(@Nonnull Long calendarId,
+																@Nonnull Long appointmentTypeId,
+																@Nonnull LocalDate localDate,
+																@Nonnull ZoneId timeZone) {
+			requireNonNull(calendarId);
+			requireNonNull(appointmentTypeId);
+			requireNonNull(localDate);
+			requireNonNull(timeZone);
+
+			this.calendarId = calendarId;
+			this.appointmentTypeId = appointmentTypeId;
+			this.localDate = localDate;
+			this.timeZone = timeZone;
+		}
+
+		// Format:
+		// {calendarId}:{appointmentTypeId}:{localDate}:{timeZone}
+		// e.g.
+		// 3829372:3119372:2020-04-20:America/New_York
+		@Override
+		public String toString() {
+			return format("%s:%s:%s:%s", getCalendarId(), getAppointmentTypeId(), getLocalDate(), getTimeZone().getId());
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other)
+				return true;
+
+			if (other == null || !getClass().equals(other.getClass()))
+				return false;
+
+			AvailabilityTimesKey otherKey = (AvailabilityTimesKey) other;
+			return Objects.equals(this.getCalendarId(), otherKey.getCalendarId())
+					&& Objects.equals(this.getAppointmentTypeId(), otherKey.getAppointmentTypeId())
+					&& Objects.equals(this.getLocalDate(), otherKey.getLocalDate())
+					&& Objects.equals(this.getTimeZone(), otherKey.getTimeZone());
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(getCalendarId(), getAppointmentTypeId(), getLocalDate(), getTimeZone());
+		}
+
+		@Nonnull
+		public Long getCalendarId() {
+			return this.calendarId;
+		}
+
+		@Nonnull
+		public Long getAppointmentTypeId() {
+			return this.appointmentTypeId;
+		}
+
+		@Nonnull
+		public LocalDate getLocalDate() {
+			return this.localDate;
+		}
+
+		@Nonnull
+		public ZoneId getTimeZone() {
+			return this.timeZone;
+		}
+	}
+
+	@Immutable
+	protected static class AvailabilityClassesKey {
+		@Nonnull
+		private final YearMonth yearMonth;
+		@Nonnull
+		private final ZoneId timeZone;
+
+		public AvailabilityClassesKey(@Nonnull YearMonth yearMonth,
+																	@Nonnull ZoneId timeZone) {
+			requireNonNull(yearMonth);
+			requireNonNull(timeZone);
+
+			this.yearMonth = yearMonth;
+			this.timeZone = timeZone;
+		}
+
+		// Format:
+		// {yearMonth}:{timeZone}
+		// e.g.
+		// 2020-04:America/New_York
+		@Override
+		public String toString() {
+			return format("%s:%s", getYearMonth(), getTimeZone().getId());
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other)
+				return true;
+
+			if (other == null || !getClass().equals(other.getClass()))
+				return false;
+
+			AvailabilityClassesKey otherKey = (AvailabilityClassesKey) other;
+			return Objects.equals(this.getYearMonth(), otherKey.getYearMonth())
+					&& Objects.equals(this.getTimeZone(), otherKey.getTimeZone());
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(getYearMonth(), getTimeZone());
+		}
+
+		@Nonnull
+		public YearMonth getYearMonth() {
+			return this.yearMonth;
+		}
+
+		@Nonnull
+		public ZoneId getTimeZone() {
+			return this.timeZone;
+		}
+	}
+
+	@Nonnull
+	protected Integer getPrefetchConcurrency() {
+		return getConfiguration().getAcuityAvailabilityPrefetchConcurrency();
+	}
+
 	@Nonnull
-	protected LoadingCache<String, List<AcuityTime>> getAvailabilityTimesCache() {
+	public Boolean isPrefetchExecutorServiceStarted() {
+		synchronized (getPrefetchExecutorServiceLock()) {
+			return this.prefetchExecutorServiceStarted;
+		}
+	}
+
+	@Nonnull
+	protected Object getPrefetchExecutorServiceLock() {
+		return this.prefetchExecutorServiceLock;
+	}
+
+	@Nonnull
+	protected Optional<ExecutorService> getPrefetchExecutorService() {
+		synchronized (getPrefetchExecutorServiceLock()) {
+			return Optional.ofNullable(this.prefetchExecutorService);
+		}
+	}
+
+	@Nonnull
+	protected Long getPrefetchTimeoutInSeconds() {
+		return PREFETCH_TIMEOUT_IN_SECONDS;
+	}
+
+	@Nonnull
+	protected LoadingCache<AvailabilityTimesKey, List<AcuityTime>> getAvailabilityTimesCache() {
 		return availabilityTimesCache;
 	}
 
 	@Nonnull
-	protected LoadingCache<String, List<AcuityClass>> getAvailabilityClassesCache() {
+	protected LoadingCache<AvailabilityClassesKey, List<AcuityClass>> getAvailabilityClassesCache() {
 		return availabilityClassesCache;
 	}
 
+	@Nonnull
+	protected ConcurrentMap<LocalDate, Set<AvailabilityTimesKey>> getAvailabilityTimesKeysByDate() {
+		return availabilityTimesKeysByDate;
+	}
+
+	@Nonnull
+	protected ConcurrentMap<YearMonth, Set<AvailabilityClassesKey>> getAvailabilityClassesKeysByYearMonth() {
+		return availabilityClassesKeysByYearMonth;
+	}
+
 	@Nonnull
 	protected AcuitySchedulingClient getAcuitySchedulingClient() {
 		return acuitySchedulingClient;
@@ -223,6 +684,11 @@ public class AcuitySchedulingCache {
 		return configuration;
 	}
 
+	@Nonnull
+	protected CacheInvalidationBus getCacheInvalidationBus() {
+		return this.cacheInvalidationBus;
+	}
+
 	@Nonnull
 	protected Logger getLogger() {
 		return logger;
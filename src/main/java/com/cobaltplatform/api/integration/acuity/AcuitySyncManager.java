@@ -97,6 +97,8 @@ public class AcuitySyncManager implements ProviderAvailabilitySyncManager, AutoC
 	@Nonnull
 	private final AcuitySchedulingClient acuitySchedulingClient;
 	@Nonnull
+	private final AcuitySchedulingCache acuitySchedulingCache;
+	@Nonnull
 	private final DatabaseProvider databaseProvider;
 	@Nonnull
 	private final Configuration configuration;
@@ -128,6 +130,7 @@ public class AcuitySyncManager implements ProviderAvailabilitySyncManager, AutoC
 													 @Nonnull javax.inject.Provider<ProviderService> providerServiceProvider,
 													 @Nonnull javax.inject.Provider<AppointmentService> appointmentServiceProvider,
 													 @Nonnull AcuitySchedulingClient acuitySchedulingClient,
+													 @Nonnull AcuitySchedulingCache acuitySchedulingCache,
 													 @Nonnull DatabaseProvider databaseProvider,
 													 @Nonnull Configuration configuration,
 													 @Nonnull Strings strings) {
@@ -136,6 +139,7 @@ public class AcuitySyncManager implements ProviderAvailabilitySyncManager, AutoC
 		requireNonNull(providerServiceProvider);
 		requireNonNull(appointmentServiceProvider);
 		requireNonNull(acuitySchedulingClient);
+		requireNonNull(acuitySchedulingCache);
 		requireNonNull(databaseProvider);
 		requireNonNull(configuration);
 		requireNonNull(strings);
@@ -145,6 +149,7 @@ public class AcuitySyncManager implements ProviderAvailabilitySyncManager, AutoC
 		this.providerServiceProvider = providerServiceProvider;
 		this.appointmentServiceProvider = appointmentServiceProvider;
 		this.acuitySchedulingClient = acuitySchedulingClient;
+		this.acuitySchedulingCache = acuitySchedulingCache;
 		this.databaseProvider = databaseProvider;
 		this.configuration = configuration;
 		this.strings = strings;
@@ -253,7 +258,8 @@ public class AcuitySyncManager implements ProviderAvailabilitySyncManager, AutoC
 
 		getLogger().info("Syncing availabilty for provider {} on {}...", provider.getName(), date);
 
-		ProviderAvailabilityDateInsert insert = generateProviderAvailabilityDateInsert(provider, date);
+		// This is a forced re-sync, so go straight to Acuity rather than risk reading slightly stale cached times
+		ProviderAvailabilityDateInsert insert = generateProviderAvailabilityDateInsert(provider, date, false);
 
 		if (performInOwnTransaction)
 			getDatabase().transaction(() -> {
@@ -265,20 +271,41 @@ public class AcuitySyncManager implements ProviderAvailabilitySyncManager, AutoC
 		return true;
 	}
 
+	/**
+	 * Warms the Acuity availability cache for {@code [startDate, endDate]} so the per-day
+	 * {@link #generateProviderAvailabilityDateInsert(Provider, LocalDate, Boolean)} calls that follow are cache hits.
+	 * <p>
+	 * Days Acuity reports as fully booked cost nothing beyond the month-level lookup.  The rest are fetched one call at a
+	 * time unless {@code com.cobaltplatform.api.acuity.availabilityPrefetchConcurrency} is raised, since the sync already
+	 * runs into Acuity's undocumented rate limits.
+	 */
+	protected void prefetchProviderAvailability(@Nonnull Provider provider,
+																							@Nonnull LocalDate startDate,
+																							@Nonnull LocalDate endDate) {
+		requireNonNull(provider);
+		requireNonNull(startDate);
+		requireNonNull(endDate);
+
+		for (AppointmentType appointmentType : findAcuityAppointmentTypes(provider))
+			getAcuitySchedulingCache().prefetchAvailabilityTimes(provider.getAcuityCalendarId(),
+					appointmentType.getAcuityAppointmentTypeId(), startDate, endDate, provider.getTimeZone());
+	}
+
 	@Nonnull
 	protected ProviderAvailabilityDateInsert generateProviderAvailabilityDateInsert(@Nonnull Provider provider,
-																																									@Nonnull LocalDate date) {
+																																									@Nonnull LocalDate date,
+																																									@Nonnull Boolean useCache) {
 		requireNonNull(provider);
 		requireNonNull(date);
+		requireNonNull(useCache);
 
-		List<AppointmentType> appointmentTypes = getAppointmentService().findAppointmentTypesByProviderId(provider.getProviderId()).stream()
-				.filter(appointmentType -> appointmentType.getSchedulingSystemId().equals(SchedulingSystemId.ACUITY))
-				.collect(Collectors.toList());
-
+		List<AppointmentType> appointmentTypes = findAcuityAppointmentTypes(provider);
 		List<ProviderAvailabilityDateInsertRow> rows = new ArrayList<>();
 
 		for (AppointmentType appointmentType : appointmentTypes) {
-			List<AcuityTime> acuityTimes = getAcuitySchedulingClient().findAvailabilityTimes(provider.getAcuityCalendarId(), appointmentType.getAcuityAppointmentTypeId(), date, provider.getTimeZone());
+			List<AcuityTime> acuityTimes = useCache
+					? getAcuitySchedulingCache().findAvailabilityTimes(provider.getAcuityCalendarId(), appointmentType.getAcuityAppointmentTypeId(), date, provider.getTimeZone())
+					: getAcuitySchedulingClient().findAvailabilityTimes(provider.getAcuityCalendarId(), appointmentType.getAcuityAppointmentTypeId(), date, provider.getTimeZone());
 
 			for (AcuityTime acuityTime : acuityTimes) {
 				Instant dateTimeInstant = getAcuitySchedulingClient().parseAcuityTime(acuityTime.getTime());
@@ -294,6 +321,15 @@ public class AcuitySyncManager implements ProviderAvailabilitySyncManager, AutoC
 		return new ProviderAvailabilityDateInsert(provider.getProviderId(), date, provider.getTimeZone(), rows);
 	}
 
+	@Nonnull
+	protected List<AppointmentType> findAcuityAppointmentTypes(@Nonnull Provider provider) {
+		requireNonNull(provider);
+
+		return getAppointmentService().findAppointmentTypesByProviderId(provider.getProviderId()).stream()
+				.filter(appointmentType -> appointmentType.getSchedulingSystemId().equals(SchedulingSystemId.ACUITY))
+				.collect(Collectors.toList());
+	}
+
 	protected void performProviderAvailabilityDateInsert(@Nonnull ProviderAvailabilityDateInsert insert) {
 		requireNonNull(insert);
 
@@ -441,8 +477,12 @@ public class AcuitySyncManager implements ProviderAvailabilitySyncManager, AutoC
 
 						List<ProviderAvailabilityDateInsert> inserts = new ArrayList<>(getAcuitySyncManager().getAvailabilitySyncNumberOfDaysAhead());
 
+						// Pull the whole window up front instead of making one Acuity call per appointment type per day
+						getAcuitySyncManager().prefetchProviderAvailability(provider, today,
+								today.plusDays(getAcuitySyncManager().getAvailabilitySyncNumberOfDaysAhead() - 1));
+
 						for (int i = 0; i < getAcuitySyncManager().getAvailabilitySyncNumberOfDaysAhead(); ++i) {
-							ProviderAvailabilityDateInsert insert = getAcuitySyncManager().generateProviderAvailabilityDateInsert(provider, syncDate);
+							ProviderAvailabilityDateInsert insert = getAcuitySyncManager().generateProviderAvailabilityDateInsert(provider, syncDate, true);
 							inserts.add(insert);
 							syncDate = syncDate.plusDays(1);
 						}
@@ -784,6 +824,11 @@ public class AcuitySyncManager implements ProviderAvailabilitySyncManager, AutoC
 		return acuitySchedulingClient;
 	}
 
+	@Nonnull
+	protected AcuitySchedulingCache getAcuitySchedulingCache() {
+		return acuitySchedulingCache;
+	}
+
 	@Nonnull
 	protected Database getDatabase() {
 		return this.databaseProvider.get();
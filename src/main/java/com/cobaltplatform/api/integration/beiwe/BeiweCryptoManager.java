@@ -29,6 +29,10 @@ import java.io.BufferedWriter;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -76,10 +80,15 @@ public class BeiweCryptoManager {
 		boolean processingFirstLine = true;
 		Cipher rsaDecryptCipher = createRsaDecryptCipher(rsaPrivateKey);
 		SecretKeySpec aesDecryptSecretKeySpec = null;
+		// Every body line has its own IV, but the cipher itself can be re-initialized rather than re-acquired per line
+		Cipher aesDecryptCipher = null;
 
 		try {
-			while (encryptedInputReader.ready()) {
-				String line = trimToNull(encryptedInputReader.readLine());
+			// Read until end-of-stream rather than checking ready(), which can report false mid-file for network-backed readers
+			String rawLine;
+
+			while ((rawLine = encryptedInputReader.readLine()) != null) {
+				String line = trimToNull(rawLine);
 
 				if (line == null)
 					continue;
@@ -131,7 +140,11 @@ public class BeiweCryptoManager {
 
 					// 2. Base64URL Decode the second component, then use the AES key + IV salt to decrypt it
 					String aesEncryptedLineContentInBase64 = lineComponents[1];
-					Cipher aesDecryptCipher = createAesDecryptCipher(aesDecryptSecretKeySpec, ivParameterSpec);
+					if (aesDecryptCipher == null)
+						aesDecryptCipher = createAesDecryptCipher(aesDecryptSecretKeySpec, ivParameterSpec);
+					else
+						initAesDecryptCipher(aesDecryptCipher, aesDecryptSecretKeySpec, ivParameterSpec);
+
 					byte[] decryptedBytes;
 
 					try {
@@ -153,6 +166,29 @@ public class BeiweCryptoManager {
 		}
 	}
 
+	/**
+	 * Convenience variant for streaming, e.g. from storage directly to an HTTP response.
+	 * Only one line is held in memory at a time.  Neither stream is closed, but the output is flushed.
+	 */
+	public void decryptBeiweTextFile(@Nonnull InputStream encryptedInputStream,
+																	 @Nonnull OutputStream decryptedOutputStream,
+																	 @Nonnull PrivateKey rsaPrivateKey) {
+		requireNonNull(encryptedInputStream);
+		requireNonNull(decryptedOutputStream);
+		requireNonNull(rsaPrivateKey);
+
+		BufferedReader encryptedInputReader = new BufferedReader(new InputStreamReader(encryptedInputStream, StandardCharsets.UTF_8));
+		BufferedWriter decryptedOutputWriter = new BufferedWriter(new OutputStreamWriter(decryptedOutputStream, StandardCharsets.UTF_8));
+
+		decryptBeiweTextFile(encryptedInputReader, decryptedOutputWriter, rsaPrivateKey);
+
+		try {
+			decryptedOutputWriter.flush();
+		} catch (IOException e) {
+			throw new BeiweCryptoException(e);
+		}
+	}
+
 	/**
 	 * Convenience variant that works directly with files on the filesystem.
 	 */
@@ -215,15 +251,25 @@ public class BeiweCryptoManager {
 			throw new BeiweCryptoException(format("Unable to acquire %s for %s", Cipher.class.getSimpleName(), AES_CIPHER_NAME), e);
 		}
 
+		initAesDecryptCipher(aesDecryptCipher, secretKeySpec, ivParameterSpec);
+
+		return aesDecryptCipher;
+	}
+
+	protected void initAesDecryptCipher(@Nonnull Cipher aesDecryptCipher,
+																			@Nonnull SecretKeySpec secretKeySpec,
+																			@Nonnull IvParameterSpec ivParameterSpec) {
+		requireNonNull(aesDecryptCipher);
+		requireNonNull(secretKeySpec);
+		requireNonNull(ivParameterSpec);
+
 		try {
 			aesDecryptCipher.init(Cipher.DECRYPT_MODE, secretKeySpec, ivParameterSpec);
 		} catch (InvalidKeyException e) {
-			throw new BeiweCryptoException(format("Invalid key was specified for %s decryption", AES_CIPHER_NAME), e);
+			throw new BeiweCryptoException(format("Invalid key was specified for %s decryption", aesDecryptCipher.getAlgorithm()), e);
 		} catch (InvalidAlgorithmParameterException e) {
-			throw new BeiweCryptoException(format("Invalid IV parameter spec was specified for %s decryption", AES_CIPHER_NAME), e);
+			throw new BeiweCryptoException(format("Invalid IV parameter spec was specified for %s decryption", aesDecryptCipher.getAlgorithm()), e);
 		}
-
-		return aesDecryptCipher;
 	}
 
 	@Nonnull
@@ -315,12 +315,9 @@ public class EpicFhirSyncManager implements ProviderAvailabilitySyncManager, Aut
 					// Ask Epic for potential slots by making 1 call per date in parallel.
 					// Store off results in the database for quick access elsewhere
 
-					// ExecutorService is only Autocloseable in Java 19+
-					ExecutorService epicFhirExecutorService = null;
+					ExecutorService epicFhirExecutorService = Executors.newFixedThreadPool(8);
 
 					try {
-						epicFhirExecutorService = Executors.newFixedThreadPool(8);
-
 						// First, make a list of dates to call.
 						LocalDate startDate = LocalDate.now(institution.getTimeZone());
 						LocalDate currentDate = startDate;
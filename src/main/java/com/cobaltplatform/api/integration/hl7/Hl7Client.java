@@ -25,16 +25,25 @@ import ca.uhn.hl7v2.model.Message;
 import ca.uhn.hl7v2.model.v251.message.ORM_O01;
 import ca.uhn.hl7v2.parser.Parser;
 import com.cobaltplatform.api.integration.hl7.model.event.Hl7GeneralOrderTriggerEvent;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Singleton;
 import java.io.IOException;
-import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static com.soklet.util.StringUtils.trimToNull;
@@ -49,6 +58,43 @@ import static java.util.Objects.requireNonNull;
 @Singleton
 @ThreadSafe
 public class Hl7Client {
+	@Nonnull
+	private static final String SUPPORTED_HL7_VERSION;
+	@Nonnull
+	private static final Integer DEFAULT_MAXIMUM_IDLE_PARSER_COUNT;
+	@Nonnull
+	private static final Integer DEFAULT_BATCH_PARALLELISM;
+
+	@Nonnull
+	private final BlockingQueue<Parser> idleParsers;
+	@Nonnull
+	private final Integer batchParallelism;
+
+	static {
+		SUPPORTED_HL7_VERSION = "2.5.1";
+		DEFAULT_MAXIMUM_IDLE_PARSER_COUNT = Runtime.getRuntime().availableProcessors();
+		DEFAULT_BATCH_PARALLELISM = Runtime.getRuntime().availableProcessors();
+	}
+
+	public Hl7Client() {
+		this(DEFAULT_MAXIMUM_IDLE_PARSER_COUNT, DEFAULT_BATCH_PARALLELISM);
+	}
+
+	public Hl7Client(@Nonnull Integer maximumIdleParserCount,
+									 @Nonnull Integer batchParallelism) {
+		requireNonNull(maximumIdleParserCount);
+		requireNonNull(batchParallelism);
+
+		if (maximumIdleParserCount < 1)
+			throw new IllegalArgumentException("Maximum idle parser count must be at least 1");
+
+		if (batchParallelism < 1)
+			throw new IllegalArgumentException("Batch parallelism must be at least 1");
+
+		this.idleParsers = new ArrayBlockingQueue<>(maximumIdleParserCount);
+		this.batchParallelism = batchParallelism;
+	}
+
 	@Nonnull
 	public String messageFromBytes(@Nonnull byte[] bytes) {
 		requireNonNull(bytes);
@@ -66,45 +112,103 @@ public class Hl7Client {
 	public Hl7GeneralOrderTriggerEvent parseGeneralOrder(@Nonnull String generalOrderHl7AsString) throws Hl7ParsingException {
 		requireNonNull(generalOrderHl7AsString);
 
-		// TODO: determine if HapiContext/Parser instances are threadsafe, would be nice to share them across threads
-		try (HapiContext hapiContext = new DefaultHapiContext()) {
-			Parser parser = hapiContext.getGenericParser();
-			Message message;
+		// Patient order messages must have CRLF endings, otherwise parsing will fail.  Ensure that here.
+		// Rewrite illegally-formatted messages where GT1 (guarantor) appears before IN1, IN2, IN3 (insurance)
+		// by swapping them.  Both are done over a single split of the message into lines
+		List<String> lines = ensureInsuranceAppearsBeforeGuarantorForGeneralOrderHl7(generalOrderHl7AsString.trim().lines().collect(Collectors.toList()));
+		generalOrderHl7AsString = String.join("\r\n", lines);
 
-			// Patient order messages must have CRLF endings, otherwise parsing will fail.  Ensure that here.
-			generalOrderHl7AsString = generalOrderHl7AsString.trim().lines().collect(Collectors.joining("\r\n"));
+		Message message;
+		Parser parser = borrowParser();
 
-			// Rewrite illegally-formatted messages where GT1 (guarantor) appears before IN1, IN2, IN3 (insurance)
-			// by swapping them
-			generalOrderHl7AsString = ensureInsuranceAppearsBeforeGuarantorForGeneralOrderHl7(generalOrderHl7AsString);
+		try {
+			message = parser.parse(generalOrderHl7AsString);
+		} catch (Exception e) {
+			throw new Hl7ParsingException(format("Unable to parse HL7 message:\n%s", generalOrderHl7AsString), e);
+		} finally {
+			returnParser(parser);
+		}
 
-			try {
-				message = parser.parse(generalOrderHl7AsString);
-			} catch (Exception e) {
-				throw new Hl7ParsingException(format("Unable to parse HL7 message:\n%s", generalOrderHl7AsString), e);
+		try {
+			String messageVersion = trimToNull(message.getVersion());
+
+			// See https://hl7-definition.caristix.com/v2/hl7v2.5.1/TriggerEvents/ORM_O01
+			if (!SUPPORTED_HL7_VERSION.equals(messageVersion)) {
+				throw new Hl7ParsingException(format("Supported HL7 version is %s but received message with version %s",
+						SUPPORTED_HL7_VERSION, messageVersion == null ? "[unknown]" : messageVersion));
 			}
 
-			try {
-				final String SUPPORTED_HL7_VERSION = "2.5.1";
-				String messageVersion = trimToNull(message.getVersion());
+			ORM_O01 ormMessage = (ORM_O01) message;
 
-				// See https://hl7-definition.caristix.com/v2/hl7v2.5.1/TriggerEvents/ORM_O01
-				if (!SUPPORTED_HL7_VERSION.equals(messageVersion)) {
-					throw new Hl7ParsingException(format("Supported HL7 version is %s but received message with version %s",
-							SUPPORTED_HL7_VERSION, messageVersion == null ? "[unknown]" : messageVersion));
-				}
+			if (!Hl7GeneralOrderTriggerEvent.isPresent(ormMessage))
+				throw new Hl7ParsingException(format("No %s message data was found", ORM_O01.class.getSimpleName()));
+
+			return new Hl7GeneralOrderTriggerEvent(ormMessage);
+		} catch (Exception e) {
+			throw new Hl7ParsingException(format("Encountered an unexpected problem while processing HL7 message:\n%s", generalOrderHl7AsString), e);
+		}
+	}
+
+	/**
+	 * Parses many general orders in parallel, e.g. for a bulk import or backfill.
+	 * <p>
+	 * Results are returned in the same order as the input.  A message that fails to parse does not affect the others;
+	 * its result holds the parsing exception instead.
+	 */
+	@Nonnull
+	public List<GeneralOrderParseResult> parseGeneralOrders(@Nonnull List<String> generalOrderHl7AsStrings) {
+		requireNonNull(generalOrderHl7AsStrings);
+
+		if (generalOrderHl7AsStrings.size() == 0)
+			return List.of();
 
-				ORM_O01 ormMessage = (ORM_O01) message;
+		int threadCount = Math.min(getBatchParallelism(), generalOrderHl7AsStrings.size());
 
-				if (!Hl7GeneralOrderTriggerEvent.isPresent(ormMessage))
-					throw new Hl7ParsingException(format("No %s message data was found", ORM_O01.class.getSimpleName()));
+		// Not worth spinning up threads
+		if (threadCount == 1)
+			return generalOrderHl7AsStrings.stream()
+					.map(generalOrderHl7AsString -> parseGeneralOrderToResult(generalOrderHl7AsString))
+					.collect(Collectors.toList());
 
-				return new Hl7GeneralOrderTriggerEvent(ormMessage);
-			} catch (Exception e) {
-				throw new Hl7ParsingException(format("Encountered an unexpected problem while processing HL7 message:\n%s", generalOrderHl7AsString), e);
+		ExecutorService executorService = Executors.newFixedThreadPool(threadCount,
+				new ThreadFactoryBuilder().setNameFormat("hl7-client-batch-%d").build());
+
+		try {
+			List<Future<GeneralOrderParseResult>> futures = new ArrayList<>(generalOrderHl7AsStrings.size());
+
+			for (String generalOrderHl7AsString : generalOrderHl7AsStrings)
+				futures.add(executorService.submit(() -> parseGeneralOrderToResult(generalOrderHl7AsString)));
+
+			List<GeneralOrderParseResult> generalOrderParseResults = new ArrayList<>(futures.size());
+
+			for (Future<GeneralOrderParseResult> future : futures) {
+				try {
+					generalOrderParseResults.add(future.get());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while parsing HL7 general orders", e);
+				} catch (ExecutionException e) {
+					// Parsing failures are captured in results, so this would be a bug
+					throw new IllegalStateException(e.getCause());
+				}
 			}
-		} catch (IOException e) {
-			throw new UncheckedIOException(e);
+
+			return generalOrderParseResults;
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	@Nonnull
+	protected GeneralOrderParseResult parseGeneralOrderToResult(@Nonnull String generalOrderHl7AsString) {
+		requireNonNull(generalOrderHl7AsString);
+
+		try {
+			return new GeneralOrderParseResult(parseGeneralOrder(generalOrderHl7AsString), null);
+		} catch (Hl7ParsingException e) {
+			return new GeneralOrderParseResult(null, e);
+		} catch (Exception e) {
+			return new GeneralOrderParseResult(null, new Hl7ParsingException(e));
 		}
 	}
 
@@ -112,7 +216,14 @@ public class Hl7Client {
 	public String ensureInsuranceAppearsBeforeGuarantorForGeneralOrderHl7(@Nonnull String generalOrderHl7AsString) {
 		requireNonNull(generalOrderHl7AsString);
 
-		List<String> originalLines = new ArrayList<>(Arrays.asList(generalOrderHl7AsString.split("\\r\\n")));
+		List<String> originalLines = Arrays.asList(generalOrderHl7AsString.split("\\r\\n"));
+		return ensureInsuranceAppearsBeforeGuarantorForGeneralOrderHl7(originalLines).stream().collect(Collectors.joining("\r\n"));
+	}
+
+	@Nonnull
+	protected List<String> ensureInsuranceAppearsBeforeGuarantorForGeneralOrderHl7(@Nonnull List<String> originalLines) {
+		requireNonNull(originalLines);
+
 		List<String> rewrittenLines = new ArrayList<>(originalLines.size());
 		String guarantorLineToReposition = null;
 		boolean alreadyEncounteredInsuranceLine = false;
@@ -147,6 +258,74 @@ public class Hl7Client {
 			}
 		}
 
-		return rewrittenLines.stream().collect(Collectors.joining("\r\n"));
+		return rewrittenLines;
+	}
+
+	// HAPI does not document its contexts or parsers as safe for concurrent use, so rather than share one instance
+	// we keep a small pool.  A parser is only ever used by one thread at a time, and its context (model class cache,
+	// validation rules) is reused across messages instead of being rebuilt for each one
+	@Nonnull
+	protected Parser borrowParser() {
+		Parser parser = getIdleParsers().poll();
+		return parser == null ? createParser() : parser;
+	}
+
+	protected void returnParser(@Nonnull Parser parser) {
+		requireNonNull(parser);
+
+		// Pool is full (a burst of concurrent parsing)?  Let this one go
+		if (!getIdleParsers().offer(parser)) {
+			try {
+				parser.getHapiContext().close();
+			} catch (IOException ignored) {
+				// Nothing to do
+			}
+		}
+	}
+
+	@Nonnull
+	protected Parser createParser() {
+		HapiContext hapiContext = new DefaultHapiContext();
+		return hapiContext.getGenericParser();
+	}
+
+	@Nonnull
+	protected BlockingQueue<Parser> getIdleParsers() {
+		return this.idleParsers;
+	}
+
+	@Nonnull
+	protected Integer getBatchParallelism() {
+		return this.batchParallelism;
+	}
+
+	/**
+	 * Outcome of parsing a single message in a batch: either a general order or the exception that prevented parsing.
+	 */
+	@Immutable
+	public static class GeneralOrderParseResult {
+		@Nullable
+		private final Hl7GeneralOrderTriggerEvent generalOrder;
+		@Nullable
+		private final Hl7ParsingException parsingException;
+
+		public GeneralOrderParseResult(@Nullable Hl7GeneralOrderTriggerEvent generalOrder,
+																	 @Nullable Hl7ParsingException parsingException) {
+			if ((generalOrder == null) == (parsingException == null))
+				throw new IllegalArgumentException("Exactly one of general order or parsing exception must be provided");
+
+			this.generalOrder = generalOrder;
+			this.parsingException = parsingException;
+		}
+
+		@Nonnull
+		public Optional<Hl7GeneralOrderTriggerEvent> getGeneralOrder() {
+			return Optional.ofNullable(this.generalOrder);
+		}
+
+		@Nonnull
+		public Optional<Hl7ParsingException> getParsingException() {
+			return Optional.ofNullable(this.parsingException);
+		}
 	}
 }
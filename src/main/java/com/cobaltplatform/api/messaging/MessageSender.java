@@ -23,6 +23,12 @@ import com.cobaltplatform.api.model.db.MessageType.MessageTypeId;
 import com.cobaltplatform.api.model.db.MessageVendor.MessageVendorId;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
 
 /**
  * @author Transmogrify, LLC.
@@ -35,9 +41,75 @@ public interface MessageSender<T extends Message> {
 	@Nonnull
 	String sendMessage(@Nonnull T message);
 
+	/**
+	 * Sends a batch of messages.
+	 * <p>
+	 * The default implementation sends sequentially via {@link #sendMessage(Message)}; senders that can amortize work
+	 * across a batch (shared template compilation, connection reuse, concurrent sends) should override.
+	 * <p>
+	 * {@code messageSendResultHandler} is called exactly once per message, as soon as that message's send completes, so
+	 * callers can record each vendor-assigned ID without waiting for the rest of the batch.  It may be called concurrently
+	 * from sender threads.  This method returns once every message has been handled.
+	 * <p>
+	 * A failure to send one message does not prevent others in the batch from being sent.
+	 *
+	 * @param messages                 the messages to send (not null)
+	 * @param messageSendResultHandler receives the outcome of each send (not null)
+	 */
+	default void sendMessages(@Nonnull List<T> messages,
+														@Nonnull MessageSendResultHandler<T> messageSendResultHandler) {
+		requireNonNull(messages);
+		requireNonNull(messageSendResultHandler);
+
+		for (T message : messages) {
+			MessageSendResult messageSendResult;
+
+			try {
+				messageSendResult = new MessageSendResult(sendMessage(message), null);
+			} catch (Exception e) {
+				messageSendResult = new MessageSendResult(null, e);
+			}
+
+			messageSendResultHandler.handleMessageSendResult(message, messageSendResult);
+		}
+	}
+
 	@Nonnull
 	MessageVendorId getMessageVendorId();
 
 	@Nonnull
 	MessageTypeId getMessageTypeId();
+
+	@FunctionalInterface
+	interface MessageSendResultHandler<T extends Message> {
+		void handleMessageSendResult(@Nonnull T message,
+																 @Nonnull MessageSendResult messageSendResult);
+	}
+
+	@Immutable
+	class MessageSendResult {
+		@Nullable
+		private final String vendorAssignedId;
+		@Nullable
+		private final Exception exception;
+
+		public MessageSendResult(@Nullable String vendorAssignedId,
+														 @Nullable Exception exception) {
+			if ((vendorAssignedId == null) == (exception == null))
+				throw new IllegalArgumentException("Exactly one of vendor-assigned ID or exception must be provided");
+
+			this.vendorAssignedId = vendorAssignedId;
+			this.exception = exception;
+		}
+
+		@Nonnull
+		public Optional<String> getVendorAssignedId() {
+			return Optional.ofNullable(this.vendorAssignedId);
+		}
+
+		@Nonnull
+		public Optional<Exception> getException() {
+			return Optional.ofNullable(this.exception);
+		}
+	}
 }
@@ -0,0 +1,408 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.messaging.email;
+
+import com.cobaltplatform.api.Configuration;
+import com.cobaltplatform.api.messaging.MessageSender;
+import com.cobaltplatform.api.model.db.Institution;
+import com.cobaltplatform.api.model.db.Institution.InstitutionId;
+import com.cobaltplatform.api.model.db.MessageType.MessageTypeId;
+import com.cobaltplatform.api.service.InstitutionService;
+import com.cobaltplatform.api.util.HandlebarsTemplater;
+import com.github.jknack.handlebars.Template;
+import jakarta.activation.DataHandler;
+import jakarta.activation.DataSource;
+import jakarta.mail.Address;
+import jakarta.mail.BodyPart;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeBodyPart;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import jakarta.mail.util.ByteArrayDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Provider;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Shared rendering and MIME construction for email senders.
+ * <p>
+ * Subclasses are only responsible for delivering an already-rendered message.  Batch sends via
+ * {@link #sendMessages(List, MessageSendResultHandler)} compile each (template, locale) pair once and look up each institution once, then merge
+ * per-recipient context into the compiled templates.
+ *
+ * @author Transmogrify, LLC.
+ */
+@ThreadSafe
+public abstract class AbstractEmailMessageSender implements MessageSender<EmailMessage> {
+	@Nonnull
+	private static final Session MIME_MESSAGE_SESSION;
+	@Nonnull
+	private static final Integer MAXIMUM_MESSAGE_SIZE_IN_BYTES;
+
+	@Nonnull
+	private final Provider<InstitutionService> institutionServiceProvider;
+	@Nonnull
+	private final HandlebarsTemplater handlebarsTemplater;
+	@Nonnull
+	private final Configuration configuration;
+	@Nonnull
+	private final String defaultFromAddress;
+	@Nonnull
+	private final Logger logger;
+
+	static {
+		// Only used to construct MIME messages - transport configuration, if any, is up to subclasses
+		MIME_MESSAGE_SESSION = Session.getInstance(new Properties());
+		MAXIMUM_MESSAGE_SIZE_IN_BYTES = 10_000_000;
+	}
+
+	public AbstractEmailMessageSender(@Nonnull Provider<InstitutionService> institutionServiceProvider,
+																		@Nonnull HandlebarsTemplater handlebarsTemplater,
+																		@Nonnull Configuration configuration) {
+		requireNonNull(institutionServiceProvider);
+		requireNonNull(handlebarsTemplater);
+		requireNonNull(configuration);
+
+		this.institutionServiceProvider = institutionServiceProvider;
+		this.handlebarsTemplater = handlebarsTemplater;
+		this.configuration = configuration;
+		this.defaultFromAddress = configuration.getEmailDefaultFromAddress();
+		this.logger = LoggerFactory.getLogger(getClass());
+	}
+
+	/**
+	 * Delivers a single rendered message.
+	 *
+	 * @param renderedEmailMessage the message to deliver (not null)
+	 * @return the vendor-assigned message identifier (not null)
+	 */
+	@Nonnull
+	protected abstract String sendRenderedEmailMessage(@Nonnull RenderedEmailMessage renderedEmailMessage);
+
+	@Override
+	public String sendMessage(@Nonnull EmailMessage emailMessage) {
+		requireNonNull(emailMessage);
+		return sendRenderedEmailMessage(renderEmailMessage(emailMessage, new EmailRenderingCache()));
+	}
+
+	@Override
+	public void sendMessages(@Nonnull List<EmailMessage> emailMessages,
+													 @Nonnull MessageSendResultHandler<EmailMessage> messageSendResultHandler) {
+		requireNonNull(emailMessages);
+		requireNonNull(messageSendResultHandler);
+
+		if (emailMessages.size() == 0)
+			return;
+
+		EmailRenderingCache emailRenderingCache = new EmailRenderingCache();
+		List<RenderedEmailMessage> renderedEmailMessages = new ArrayList<>(emailMessages.size());
+
+		// Render everything up front so a bad template or address fails only its own message
+		for (EmailMessage emailMessage : emailMessages) {
+			try {
+				renderedEmailMessages.add(renderEmailMessage(emailMessage, emailRenderingCache));
+			} catch (Exception e) {
+				messageSendResultHandler.handleMessageSendResult(emailMessage, new MessageSendResult(null, e));
+			}
+		}
+
+		sendRenderedEmailMessages(renderedEmailMessages, messageSendResultHandler);
+	}
+
+	/**
+	 * Delivers a batch of rendered messages, handing each result to {@code messageSendResultHandler} as soon as it's known.
+	 * <p>
+	 * The default implementation delivers sequentially; subclasses can override to reuse connections or send concurrently.
+	 *
+	 * @param renderedEmailMessages    the messages to deliver (not null)
+	 * @param messageSendResultHandler receives the outcome of each send (not null)
+	 */
+	protected void sendRenderedEmailMessages(@Nonnull List<RenderedEmailMessage> renderedEmailMessages,
+																					 @Nonnull MessageSendResultHandler<EmailMessage> messageSendResultHandler) {
+		requireNonNull(renderedEmailMessages);
+		requireNonNull(messageSendResultHandler);
+
+		for (RenderedEmailMessage renderedEmailMessage : renderedEmailMessages)
+			messageSendResultHandler.handleMessageSendResult(renderedEmailMessage.getEmailMessage(), sendRenderedEmailMessageToResult(renderedEmailMessage));
+	}
+
+	@Nonnull
+	protected MessageSendResult sendRenderedEmailMessageToResult(@Nonnull RenderedEmailMessage renderedEmailMessage) {
+		requireNonNull(renderedEmailMessage);
+
+		try {
+			return new MessageSendResult(sendRenderedEmailMessage(renderedEmailMessage), null);
+		} catch (Exception e) {
+			return new MessageSendResult(null, e);
+		}
+	}
+
+	@Nonnull
+	protected RenderedEmailMessage renderEmailMessage(@Nonnull EmailMessage emailMessage,
+																										@Nonnull EmailRenderingCache emailRenderingCache) {
+		requireNonNull(emailMessage);
+		requireNonNull(emailRenderingCache);
+
+		Map<String, Object> messageContext = emailMessage.getMessageContext();
+		String fromAddress = emailMessage.getFromAddress().isPresent() ? emailMessage.getFromAddress().get() : getDefaultFromAddress();
+		String replyToAddress = emailMessage.getReplyToAddress().orElse(null);
+		String subject = getHandlebarsTemplater().applyTemplate(emailRenderingCache.findTemplate(emailMessage, "subject").get(), messageContext);
+		String body = getHandlebarsTemplater().applyTemplate(emailRenderingCache.findTemplate(emailMessage, "body").get(), messageContext);
+
+		try {
+			MimeMessage mimeMessage = new MimeMessage(MIME_MESSAGE_SESSION);
+			mimeMessage.addFrom(new Address[]{emailRenderingCache.findFromAddress(fromAddress, emailMessage.getInstitutionId())});
+
+			if (replyToAddress != null)
+				mimeMessage.setReplyTo(new Address[]{new InternetAddress(replyToAddress)});
+
+			mimeMessage.addRecipients(Message.RecipientType.TO, toAddresses(emailMessage.getToAddresses()));
+			mimeMessage.addRecipients(Message.RecipientType.CC, toAddresses(emailMessage.getCcAddresses()));
+			mimeMessage.addRecipients(Message.RecipientType.BCC, toAddresses(emailMessage.getBccAddresses()));
+			mimeMessage.setSubject(subject, "UTF-8");
+
+			MimeMultipart mimeMultipart = new MimeMultipart();
+			BodyPart bodyPart = new MimeBodyPart();
+			bodyPart.setContent(body, "text/html; charset=UTF-8");
+			mimeMultipart.addBodyPart(bodyPart);
+
+			for (EmailAttachment emailAttachment : emailMessage.getEmailAttachments()) {
+				MimeBodyPart attachmentPart = new MimeBodyPart();
+				attachmentPart.setFileName(emailAttachment.getFilename());
+				DataSource dataSource = new ByteArrayDataSource(emailAttachment.getData(), emailAttachment.getContentType());
+				attachmentPart.setDataHandler(new DataHandler(dataSource));
+				mimeMultipart.addBodyPart(attachmentPart);
+			}
+
+			mimeMessage.setContent(mimeMultipart);
+
+			if (mimeMessage.getSize() > MAXIMUM_MESSAGE_SIZE_IN_BYTES)
+				throw new RuntimeException("Email is too large, must be smaller than 10MB");
+
+			return new RenderedEmailMessage(emailMessage, fromAddress, subject, mimeMessage);
+		} catch (IOException | MessagingException e) {
+			throw new RuntimeException(format("Unable to send %s", emailMessage), e);
+		}
+	}
+
+	protected void logSendingEmailMessage(@Nonnull RenderedEmailMessage renderedEmailMessage,
+																				@Nonnull String destinationDescription) {
+		requireNonNull(renderedEmailMessage);
+		requireNonNull(destinationDescription);
+
+		EmailMessage emailMessage = renderedEmailMessage.getEmailMessage();
+		String replyToAddress = emailMessage.getReplyToAddress().orElse(null);
+
+		List<String> logMessages = new ArrayList<>(7);
+		logMessages.add(format("Sending '%s' email %s...", emailMessage.getMessageTemplate(), destinationDescription));
+		logMessages.add(format("From: %s", renderedEmailMessage.getFromAddress()));
+
+		if (replyToAddress != null)
+			logMessages.add(format("Reply-To: %s", replyToAddress));
+
+		if (emailMessage.getToAddresses().size() > 0)
+			logMessages.add(format("To: %s", emailMessage.getToAddresses().stream().collect(Collectors.joining(", "))));
+
+		if (emailMessage.getCcAddresses().size() > 0)
+			logMessages.add(format("CC: %s", emailMessage.getCcAddresses().stream().collect(Collectors.joining(", "))));
+
+		if (emailMessage.getBccAddresses().size() > 0)
+			logMessages.add(format("BCC: %s", emailMessage.getBccAddresses().stream().collect(Collectors.joining(", "))));
+
+		logMessages.add(format("Subject: %s", renderedEmailMessage.getSubject()));
+		logMessages.add(format("Message Context:\n%s", emailMessage.getMessageContext()));
+
+		getLogger().info(logMessages.stream().collect(Collectors.joining("\n")));
+	}
+
+	@Nonnull
+	protected Address[] toAddresses(@Nonnull List<String> emailAddresses) {
+		requireNonNull(emailAddresses);
+
+		Address[] addresses = new Address[emailAddresses.size()];
+
+		for (int i = 0; i < emailAddresses.size(); ++i) {
+			String emailAddress = emailAddresses.get(i);
+			try {
+				if (emailAddress != null)
+					addresses[i] = new InternetAddress(emailAddress);
+			} catch (AddressException e) {
+				throw new RuntimeException(format("Unable to parse email address '%s'", emailAddress), e);
+			}
+		}
+
+		return addresses;
+	}
+
+	@Nonnull
+	@Override
+	public MessageTypeId getMessageTypeId() {
+		return MessageTypeId.EMAIL;
+	}
+
+	@Nonnull
+	protected InstitutionService getInstitutionService() {
+		return this.institutionServiceProvider.get();
+	}
+
+	@Nonnull
+	protected HandlebarsTemplater getHandlebarsTemplater() {
+		return this.handlebarsTemplater;
+	}
+
+	@Nonnull
+	protected Configuration getConfiguration() {
+		return this.configuration;
+	}
+
+	@Nonnull
+	protected String getDefaultFromAddress() {
+		return this.defaultFromAddress;
+	}
+
+	@Nonnull
+	protected Logger getLogger() {
+		return this.logger;
+	}
+
+	/**
+	 * Compiled templates and "from" addresses, scoped to a single send or batch of sends.
+	 * <p>
+	 * Scoping to a batch (rather than caching for the life of the sender) means template edits and institution changes
+	 * are picked up on the next batch.
+	 */
+	@NotThreadSafe
+	protected class EmailRenderingCache {
+		@Nonnull
+		private final Map<String, Optional<Template>> templatesByKey;
+		@Nonnull
+		private final Map<InstitutionId, Institution> institutionsByInstitutionId;
+		@Nonnull
+		private final Map<String, Address> fromAddressesByKey;
+
+		public EmailRenderingCache() {
+			this.templatesByKey = new HashMap<>();
+			this.institutionsByInstitutionId = new HashMap<>();
+			this.fromAddressesByKey = new HashMap<>();
+		}
+
+		@Nonnull
+		public Optional<Template> findTemplate(@Nonnull EmailMessage emailMessage,
+																					 @Nonnull String templateChildName) {
+			requireNonNull(emailMessage);
+			requireNonNull(templateChildName);
+
+			String templateParentName = emailMessage.getMessageTemplate().name();
+			Locale locale = emailMessage.getLocale();
+			String key = format("%s/%s/%s", templateParentName, locale.toLanguageTag(), templateChildName);
+
+			return this.templatesByKey.computeIfAbsent(key, (ignored) ->
+					getHandlebarsTemplater().compileTemplate(templateParentName, templateChildName, locale));
+		}
+
+		@Nonnull
+		public Address findFromAddress(@Nonnull String fromAddress,
+																	 @Nonnull InstitutionId institutionId) {
+			requireNonNull(fromAddress);
+			requireNonNull(institutionId);
+
+			Institution institution = this.institutionsByInstitutionId.computeIfAbsent(institutionId, (ignored) ->
+					getInstitutionService().findInstitutionById(institutionId).get());
+
+			String key = format("%s/%s", fromAddress, institution.getPlatformName());
+
+			return this.fromAddressesByKey.computeIfAbsent(key, (ignored) -> {
+				try {
+					return new InternetAddress(fromAddress, institution.getPlatformName());
+				} catch (UnsupportedEncodingException e) {
+					throw new RuntimeException(format("Unable to create 'from' address for %s", fromAddress), e);
+				}
+			});
+		}
+	}
+
+	@NotThreadSafe
+	protected static class RenderedEmailMessage {
+		@Nonnull
+		private final EmailMessage emailMessage;
+		@Nonnull
+		private final String fromAddress;
+		@Nonnull
+		private final String subject;
+		@Nonnull
+		private final MimeMessage mimeMessage;
+
+		public RenderedEmailMessage(@Nonnull EmailMessage emailMessage,
+																@Nonnull String fromAddress,
+																@Nonnull String subject,
+																@Nonnull MimeMessage mimeMessage) {
+			requireNonNull(emailMessage);
+			requireNonNull(fromAddress);
+			requireNonNull(subject);
+			requireNonNull(mimeMessage);
+
+			this.emailMessage = emailMessage;
+			this.fromAddress = fromAddress;
+			this.subject = subject;
+			this.mimeMessage = mimeMessage;
+		}
+
+		@Nonnull
+		public EmailMessage getEmailMessage() {
+			return this.emailMessage;
+		}
+
+		@Nonnull
+		public String getFromAddress() {
+			return this.fromAddress;
+		}
+
+		@Nonnull
+		public String getSubject() {
+			return this.subject;
+		}
+
+		@Nonnull
+		public MimeMessage getMimeMessage() {
+			return this.mimeMessage;
+		}
+	}
+}
@@ -20,27 +20,14 @@
 package com.cobaltplatform.api.messaging.email;
 
 import com.cobaltplatform.api.Configuration;
-import com.cobaltplatform.api.messaging.MessageSender;
-import com.cobaltplatform.api.model.db.Institution;
-import com.cobaltplatform.api.model.db.MessageType.MessageTypeId;
 import com.cobaltplatform.api.model.db.MessageVendor.MessageVendorId;
 import com.cobaltplatform.api.service.InstitutionService;
 import com.cobaltplatform.api.util.HandlebarsTemplater;
-import jakarta.activation.DataHandler;
-import jakarta.activation.DataSource;
-import jakarta.mail.Address;
-import jakarta.mail.BodyPart;
-import jakarta.mail.Message;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import jakarta.mail.MessagingException;
-import jakarta.mail.Session;
-import jakarta.mail.internet.AddressException;
-import jakarta.mail.internet.InternetAddress;
-import jakarta.mail.internet.MimeBodyPart;
-import jakarta.mail.internet.MimeMessage;
-import jakarta.mail.internet.MimeMultipart;
-import jakarta.mail.util.ByteArrayDataSource;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.core.SdkBytes;
 import software.amazon.awssdk.services.ses.SesClient;
 import software.amazon.awssdk.services.ses.SesClientBuilder;
@@ -58,10 +45,11 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Properties;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -70,45 +58,83 @@ import static java.util.Objects.requireNonNull;
  * @author Transmogrify, LLC.
  */
 @ThreadSafe
-public class AmazonSesEmailMessageSender implements MessageSender<EmailMessage> {
+public class AmazonSesEmailMessageSender extends AbstractEmailMessageSender {
 	@Nonnull
-	private final Provider<InstitutionService> institutionServiceProvider;
+	private static final Integer MAXIMUM_SEND_PARALLELISM;
 	@Nonnull
-	private final HandlebarsTemplater handlebarsTemplater;
+	private static final Double DEFAULT_MAXIMUM_SEND_RATE;
 	@Nonnull
-	private final Configuration configuration;
+	private static final Double SEND_RATE_QUOTA_FRACTION;
+
 	@Nonnull
 	private final SesClient amazonSimpleEmailService;
 	@Nonnull
-	private final String defaultFromAddress;
-	@Nonnull
-	private final Logger logger;
+	private final Supplier<RateLimiter> rateLimiterSupplier;
+
+	static {
+		MAXIMUM_SEND_PARALLELISM = 8;
+		// SES sandbox accounts are limited to 1/sec; production accounts start at 14/sec
+		DEFAULT_MAXIMUM_SEND_RATE = 1.0;
+		// The SES send quota is account-wide and shared by every node (and possibly other environments), so only claim part of it
+		SEND_RATE_QUOTA_FRACTION = 0.5;
+	}
 
 	public AmazonSesEmailMessageSender(@Nonnull Provider<InstitutionService> institutionServiceProvider,
 																		 @Nonnull HandlebarsTemplater handlebarsTemplater,
 																		 @Nonnull Configuration configuration) {
-		requireNonNull(institutionServiceProvider);
-		requireNonNull(handlebarsTemplater);
-		requireNonNull(configuration);
-
-		this.institutionServiceProvider = institutionServiceProvider;
-		this.handlebarsTemplater = handlebarsTemplater;
-		this.configuration = configuration;
-		this.defaultFromAddress = configuration.getEmailDefaultFromAddress();
+		super(institutionServiceProvider, handlebarsTemplater, configuration);
 		this.amazonSimpleEmailService = createAmazonSimpleEmailService();
-		this.logger = LoggerFactory.getLogger(getClass());
+		// Looking up the send quota is a network call, so defer it until we actually send rather than doing it at startup
+		this.rateLimiterSupplier = Suppliers.memoize(this::createRateLimiter);
 	}
 
 	@Override
-	public String sendMessage(@Nonnull EmailMessage emailMessage) {
-		requireNonNull(emailMessage);
+	protected void sendRenderedEmailMessages(@Nonnull List<RenderedEmailMessage> renderedEmailMessages,
+																					 @Nonnull MessageSendResultHandler<EmailMessage> messageSendResultHandler) {
+		requireNonNull(renderedEmailMessages);
+		requireNonNull(messageSendResultHandler);
+
+		int threadCount = Math.min(MAXIMUM_SEND_PARALLELISM, renderedEmailMessages.size());
+
+		// Not worth spinning up threads
+		if (threadCount <= 1) {
+			super.sendRenderedEmailMessages(renderedEmailMessages, messageSendResultHandler);
+			return;
+		}
 
-		Map<String, Object> messageContext = emailMessage.getMessageContext();
-		String fromAddress = emailMessage.getFromAddress().isPresent() ? emailMessage.getFromAddress().get() : getDefaultFromAddress();
-		String replyToAddress = emailMessage.getReplyToAddress().orElse(null);
-		String subject = getHandlebarsTemplater().mergeTemplate(emailMessage.getMessageTemplate().name(), "subject", emailMessage.getLocale(), messageContext).get();
-		String body = getHandlebarsTemplater().mergeTemplate(emailMessage.getMessageTemplate().name(), "body", emailMessage.getLocale(), messageContext).get();
+		ExecutorService executorService = Executors.newFixedThreadPool(threadCount,
+				new ThreadFactoryBuilder().setNameFormat("ses-email-sender-%d").build());
 
+		try {
+			List<Future<?>> futures = new ArrayList<>(renderedEmailMessages.size());
+
+			// Each result is handed off from the sending thread as soon as SES responds, not when the batch finishes
+			for (RenderedEmailMessage renderedEmailMessage : renderedEmailMessages)
+				futures.add(executorService.submit(() -> messageSendResultHandler.handleMessageSendResult(
+						renderedEmailMessage.getEmailMessage(), sendRenderedEmailMessageToResult(renderedEmailMessage))));
+
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while sending emails", e);
+				} catch (ExecutionException e) {
+					// Send failures are captured in results, so this is the handler failing - don't abandon the rest of the batch
+					getLogger().error("Unable to handle email send result", e.getCause());
+				}
+			}
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	@Nonnull
+	@Override
+	protected String sendRenderedEmailMessage(@Nonnull RenderedEmailMessage renderedEmailMessage) {
+		requireNonNull(renderedEmailMessage);
+
+		EmailMessage emailMessage = renderedEmailMessage.getEmailMessage();
 		boolean containsTestEmailAddress = false;
 
 		for (String toEmailAddress : emailMessage.getToAddresses()) {
@@ -126,71 +152,22 @@ public class AmazonSesEmailMessageSender implements MessageSender<EmailMessage>
 			return format("fake-%s", UUID.randomUUID());
 		}
 
-		List<String> logMessages = new ArrayList<>(7);
-		logMessages.add(format("Sending '%s' email using Amazon SES...", emailMessage.getMessageTemplate()));
-		logMessages.add(format("From: %s", fromAddress));
-
-		if (replyToAddress != null)
-			logMessages.add(format("Reply-To: %s", replyToAddress));
-
-		if (emailMessage.getToAddresses().size() > 0)
-			logMessages.add(format("To: %s", emailMessage.getToAddresses().stream().collect(Collectors.joining(", "))));
+		logSendingEmailMessage(renderedEmailMessage, "using Amazon SES");
 
-		if (emailMessage.getCcAddresses().size() > 0)
-			logMessages.add(format("CC: %s", emailMessage.getCcAddresses().stream().collect(Collectors.joining(", "))));
-
-		if (emailMessage.getBccAddresses().size() > 0)
-			logMessages.add(format("BCC: %s", emailMessage.getBccAddresses().stream().collect(Collectors.joining(", "))));
-
-		logMessages.add(format("Subject: %s", subject));
-		logMessages.add(format("Message Context:\n%s", messageContext));
-
-		getLogger().info(logMessages.stream().collect(Collectors.joining("\n")));
+		// Shared across all sends (single or batch) from this node so concurrent batches can't exceed our share of the quota
+		getRateLimiter().acquire();
 
 		long time = System.currentTimeMillis();
 
 		try {
-			Institution institution = getInstitutionService().findInstitutionById(emailMessage.getInstitutionId()).get();
-			Address normalizedFromAddress = new InternetAddress(fromAddress, institution.getPlatformName());
-
-			Session session = Session.getDefaultInstance(new Properties());
-			MimeMessage mimeMessage = new MimeMessage(session);
-			mimeMessage.addFrom(new Address[]{normalizedFromAddress});
-
-			if (replyToAddress != null)
-				mimeMessage.setReplyTo(new Address[]{new InternetAddress(replyToAddress)});
-
-			mimeMessage.addRecipients(Message.RecipientType.TO, toAddresses(emailMessage.getToAddresses()));
-			mimeMessage.addRecipients(Message.RecipientType.CC, toAddresses(emailMessage.getCcAddresses()));
-			mimeMessage.addRecipients(Message.RecipientType.BCC, toAddresses(emailMessage.getBccAddresses()));
-			mimeMessage.setSubject(subject, "UTF-8");
-
-			MimeMultipart mimeMultipart = new MimeMultipart();
-			BodyPart bodyPart = new MimeBodyPart();
-			bodyPart.setContent(body, "text/html; charset=UTF-8");
-			mimeMultipart.addBodyPart(bodyPart);
-
-			for (EmailAttachment emailAttachment : emailMessage.getEmailAttachments()) {
-				MimeBodyPart attachmentPart = new MimeBodyPart();
-				attachmentPart.setFileName(emailAttachment.getFilename());
-				DataSource dataSource = new ByteArrayDataSource(emailAttachment.getData(), emailAttachment.getContentType());
-				attachmentPart.setDataHandler(new DataHandler(dataSource));
-				mimeMultipart.addBodyPart(attachmentPart);
-			}
-
-			mimeMessage.setContent(mimeMultipart);
-
-			if (mimeMessage.getSize() > 10_000_000)
-				throw new RuntimeException("Email is too large, must be smaller than 10MB");
-
 			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-			mimeMessage.writeTo(outputStream);
+			renderedEmailMessage.getMimeMessage().writeTo(outputStream);
 			RawMessage rawMessage = RawMessage.builder()
 					.data(SdkBytes.fromByteBuffer(ByteBuffer.wrap(outputStream.toByteArray())))
 					.build();
 
 			SendRawEmailRequest request = SendRawEmailRequest.builder()
-					.source(fromAddress)
+					.source(renderedEmailMessage.getFromAddress())
 					.rawMessage(rawMessage)
 					// We specify a configuration set, which has SNS topic[s] attached to it, which allows
 					// AWS to send us webhook notifications on successful deliveries, bounces, etc.
@@ -216,31 +193,6 @@ public class AmazonSesEmailMessageSender implements MessageSender<EmailMessage>
 		return MessageVendorId.AMAZON_SES;
 	}
 
-	@Nonnull
-	@Override
-	public MessageTypeId getMessageTypeId() {
-		return MessageTypeId.EMAIL;
-	}
-
-	@Nonnull
-	protected Address[] toAddresses(@Nonnull List<String> emailAddresses) {
-		requireNonNull(emailAddresses);
-
-		Address[] addresses = new Address[emailAddresses.size()];
-
-		for (int i = 0; i < emailAddresses.size(); ++i) {
-			String emailAddress = emailAddresses.get(i);
-			try {
-				if (emailAddress != null)
-					addresses[i] = new InternetAddress(emailAddress);
-			} catch (AddressException e) {
-				throw new RuntimeException(format("Unable to parse email address '%s'", emailAddress), e);
-			}
-		}
-
-		return addresses;
-	}
-
 	@Nonnull
 	protected SesClient createAmazonSimpleEmailService() {
 		SesClientBuilder builder = SesClient.builder()
@@ -254,32 +206,30 @@ public class AmazonSesEmailMessageSender implements MessageSender<EmailMessage>
 	}
 
 	@Nonnull
-	protected InstitutionService getInstitutionService() {
-		return this.institutionServiceProvider.get();
-	}
+	protected RateLimiter createRateLimiter() {
+		Double maximumSendRate = DEFAULT_MAXIMUM_SEND_RATE;
 
-	@Nonnull
-	protected SesClient getAmazonSimpleEmailService() {
-		return amazonSimpleEmailService;
-	}
+		try {
+			Double quotaMaximumSendRate = getAmazonSimpleEmailService().getSendQuota().maxSendRate();
 
-	@Nonnull
-	protected HandlebarsTemplater getHandlebarsTemplater() {
-		return handlebarsTemplater;
-	}
+			if (quotaMaximumSendRate != null && quotaMaximumSendRate > 0)
+				maximumSendRate = Math.max(DEFAULT_MAXIMUM_SEND_RATE, quotaMaximumSendRate * SEND_RATE_QUOTA_FRACTION);
+		} catch (Exception e) {
+			getLogger().warn(format("Unable to determine SES send quota, falling back to %s emails/sec", maximumSendRate), e);
+		}
 
-	@Nonnull
-	protected Configuration getConfiguration() {
-		return configuration;
+		getLogger().info("Limiting SES sends to {} emails/sec", maximumSendRate);
+
+		return RateLimiter.create(maximumSendRate);
 	}
 
 	@Nonnull
-	protected String getDefaultFromAddress() {
-		return defaultFromAddress;
+	protected SesClient getAmazonSimpleEmailService() {
+		return this.amazonSimpleEmailService;
 	}
 
 	@Nonnull
-	protected Logger getLogger() {
-		return logger;
+	protected RateLimiter getRateLimiter() {
+		return this.rateLimiterSupplier.get();
 	}
-}
\ No newline at end of file
+}
@@ -20,39 +20,20 @@
 package com.cobaltplatform.api.messaging.email;
 
 import com.cobaltplatform.api.Configuration;
-import com.cobaltplatform.api.messaging.MessageSender;
-import com.cobaltplatform.api.model.db.Institution;
-import com.cobaltplatform.api.model.db.MessageType.MessageTypeId;
 import com.cobaltplatform.api.model.db.MessageVendor.MessageVendorId;
 import com.cobaltplatform.api.service.InstitutionService;
 import com.cobaltplatform.api.util.HandlebarsTemplater;
-import jakarta.activation.DataHandler;
-import jakarta.activation.DataSource;
-import jakarta.mail.Address;
-import jakarta.mail.BodyPart;
-import jakarta.mail.Message;
 import jakarta.mail.MessagingException;
 import jakarta.mail.Session;
 import jakarta.mail.Transport;
-import jakarta.mail.internet.AddressException;
-import jakarta.mail.internet.InternetAddress;
-import jakarta.mail.internet.MimeBodyPart;
 import jakarta.mail.internet.MimeMessage;
-import jakarta.mail.internet.MimeMultipart;
-import jakarta.mail.util.ByteArrayDataSource;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Provider;
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -61,36 +42,18 @@ import static java.util.Objects.requireNonNull;
  * @author Transmogrify, LLC.
  */
 @ThreadSafe
-public class MailpitEmailMessageSender implements MessageSender<EmailMessage> {
-	@Nonnull
-	private final Provider<InstitutionService> institutionServiceProvider;
-	@Nonnull
-	private final HandlebarsTemplater handlebarsTemplater;
-	@Nonnull
-	private final Configuration configuration;
-	@Nonnull
-	private final String defaultFromAddress;
+public class MailpitEmailMessageSender extends AbstractEmailMessageSender {
 	@Nonnull
 	private final String mailpitHost;
 	@Nonnull
 	private final Integer mailpitPort;
 	@Nonnull
 	private final Integer mailpitWebInterfacePort;
-	@Nonnull
-	private final Logger logger;
 
 	public MailpitEmailMessageSender(@Nonnull Provider<InstitutionService> institutionServiceProvider,
 																	 @Nonnull HandlebarsTemplater handlebarsTemplater,
 																	 @Nonnull Configuration configuration) {
-		requireNonNull(institutionServiceProvider);
-		requireNonNull(handlebarsTemplater);
-		requireNonNull(configuration);
-
-		this.institutionServiceProvider = institutionServiceProvider;
-		this.handlebarsTemplater = handlebarsTemplater;
-		this.configuration = configuration;
-		this.defaultFromAddress = configuration.getEmailDefaultFromAddress();
-		this.logger = LoggerFactory.getLogger(getClass());
+		super(institutionServiceProvider, handlebarsTemplater, configuration);
 
 		// Hardcoded for now; can data-drive later if needed
 		this.mailpitHost = "localhost";
@@ -99,139 +62,115 @@ public class MailpitEmailMessageSender implements MessageSender<EmailMessage> {
 	}
 
 	@Override
-	public String sendMessage(@Nonnull EmailMessage emailMessage) {
-		requireNonNull(emailMessage);
+	protected void sendRenderedEmailMessages(@Nonnull List<RenderedEmailMessage> renderedEmailMessages,
+																					 @Nonnull MessageSendResultHandler<EmailMessage> messageSendResultHandler) {
+		requireNonNull(renderedEmailMessages);
+		requireNonNull(messageSendResultHandler);
+
+		if (renderedEmailMessages.size() <= 1) {
+			super.sendRenderedEmailMessages(renderedEmailMessages, messageSendResultHandler);
+			return;
+		}
 
-		Map<String, Object> messageContext = emailMessage.getMessageContext();
-		String fromAddress = emailMessage.getFromAddress().isPresent() ? emailMessage.getFromAddress().get() : getDefaultFromAddress();
-		String replyToAddress = emailMessage.getReplyToAddress().orElse(null);
-		String subject = getHandlebarsTemplater().mergeTemplate(emailMessage.getMessageTemplate().name(), "subject", emailMessage.getLocale(), messageContext).get();
-		String body = getHandlebarsTemplater().mergeTemplate(emailMessage.getMessageTemplate().name(), "body", emailMessage.getLocale(), messageContext).get();
+		Transport transport;
 
-		List<String> logMessages = new ArrayList<>(7);
-		logMessages.add(format("Sending '%s' email to Mailpit...", emailMessage.getMessageTemplate()));
-		logMessages.add(format("From: %s", fromAddress));
+		// Reuse a single SMTP connection for the whole batch
+		try {
+			transport = connectTransport();
+		} catch (MessagingException e) {
+			RuntimeException exception = new RuntimeException("Unable to connect to Mailpit", e);
 
-		if (replyToAddress != null)
-			logMessages.add(format("Reply-To: %s", replyToAddress));
+			for (RenderedEmailMessage renderedEmailMessage : renderedEmailMessages)
+				messageSendResultHandler.handleMessageSendResult(renderedEmailMessage.getEmailMessage(), new MessageSendResult(null, exception));
 
-		if (emailMessage.getToAddresses().size() > 0)
-			logMessages.add(format("To: %s", emailMessage.getToAddresses().stream().collect(Collectors.joining(", "))));
+			return;
+		}
 
-		if (emailMessage.getCcAddresses().size() > 0)
-			logMessages.add(format("CC: %s", emailMessage.getCcAddresses().stream().collect(Collectors.joining(", "))));
+		try {
+			for (RenderedEmailMessage renderedEmailMessage : renderedEmailMessages) {
+				MessageSendResult messageSendResult;
 
-		if (emailMessage.getBccAddresses().size() > 0)
-			logMessages.add(format("BCC: %s", emailMessage.getBccAddresses().stream().collect(Collectors.joining(", "))));
+				try {
+					messageSendResult = new MessageSendResult(sendRenderedEmailMessage(renderedEmailMessage, transport), null);
+				} catch (Exception e) {
+					messageSendResult = new MessageSendResult(null, e);
+				}
 
-		logMessages.add(format("Subject: %s", subject));
-		logMessages.add(format("Message Context:\n%s", messageContext));
+				messageSendResultHandler.handleMessageSendResult(renderedEmailMessage.getEmailMessage(), messageSendResult);
+			}
+		} finally {
+			closeTransport(transport);
+		}
+	}
 
-		getLogger().info(logMessages.stream().collect(Collectors.joining("\n")));
+	@Nonnull
+	@Override
+	protected String sendRenderedEmailMessage(@Nonnull RenderedEmailMessage renderedEmailMessage) {
+		requireNonNull(renderedEmailMessage);
 
-		long time = System.currentTimeMillis();
+		Transport transport;
 
 		try {
-			Institution institution = getInstitutionService().findInstitutionById(emailMessage.getInstitutionId()).get();
-			Address normalizedFromAddress = new InternetAddress(fromAddress, institution.getPlatformName());
-
-			Session session = Session.getDefaultInstance(new Properties());
-			MimeMessage mimeMessage = new MimeMessage(session);
-			mimeMessage.addFrom(new Address[]{normalizedFromAddress});
-
-			if (replyToAddress != null)
-				mimeMessage.setReplyTo(new Address[]{new InternetAddress(replyToAddress)});
-
-			mimeMessage.addRecipients(Message.RecipientType.TO, toAddresses(emailMessage.getToAddresses()));
-			mimeMessage.addRecipients(Message.RecipientType.CC, toAddresses(emailMessage.getCcAddresses()));
-			mimeMessage.addRecipients(Message.RecipientType.BCC, toAddresses(emailMessage.getBccAddresses()));
-			mimeMessage.setSubject(subject, "UTF-8");
-
-			MimeMultipart mimeMultipart = new MimeMultipart();
-			BodyPart bodyPart = new MimeBodyPart();
-			bodyPart.setContent(body, "text/html; charset=UTF-8");
-			mimeMultipart.addBodyPart(bodyPart);
-
-			for (EmailAttachment emailAttachment : emailMessage.getEmailAttachments()) {
-				MimeBodyPart attachmentPart = new MimeBodyPart();
-				attachmentPart.setFileName(emailAttachment.getFilename());
-				DataSource dataSource = new ByteArrayDataSource(emailAttachment.getData(), emailAttachment.getContentType());
-				attachmentPart.setDataHandler(new DataHandler(dataSource));
-				mimeMultipart.addBodyPart(attachmentPart);
-			}
+			transport = connectTransport();
+		} catch (MessagingException e) {
+			throw new RuntimeException(format("Unable to send %s", renderedEmailMessage.getEmailMessage()), e);
+		}
 
-			mimeMessage.setContent(mimeMultipart);
+		try {
+			return sendRenderedEmailMessage(renderedEmailMessage, transport);
+		} finally {
+			closeTransport(transport);
+		}
+	}
 
-			if (mimeMessage.getSize() > 10_000_000)
-				throw new RuntimeException("Email is too large, must be smaller than 10MB");
+	@Nonnull
+	protected String sendRenderedEmailMessage(@Nonnull RenderedEmailMessage renderedEmailMessage,
+																						@Nonnull Transport transport) {
+		requireNonNull(renderedEmailMessage);
+		requireNonNull(transport);
+
+		logSendingEmailMessage(renderedEmailMessage, "to Mailpit");
 
-			Properties props = new Properties();
-			props.put("mail.smtp.host", getMailpitHost());
-			props.put("mail.smtp.port", String.valueOf(getMailpitPort()));
+		long time = System.currentTimeMillis();
 
-			Session smtpSession = Session.getInstance(props);
-			Transport transport = smtpSession.getTransport("smtp");
-			transport.connect(getMailpitHost(), getMailpitPort(), null, null); // Mailpit uses no auth
+		try {
+			MimeMessage mimeMessage = renderedEmailMessage.getMimeMessage();
 			transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
-			transport.close();
 
 			getLogger().info("Successfully sent email to Mailpit in {} ms. Review at http://{}:{}", System.currentTimeMillis() - time, getMailpitHost(), getMailpitWebInterfacePort());
 
 			return UUID.randomUUID().toString();
-		} catch (IOException | MessagingException e) {
-			throw new RuntimeException(format("Unable to send %s", emailMessage), e);
+		} catch (MessagingException e) {
+			throw new RuntimeException(format("Unable to send %s", renderedEmailMessage.getEmailMessage()), e);
 		}
 	}
 
 	@Nonnull
-	@Override
-	public MessageVendorId getMessageVendorId() {
-		return MessageVendorId.UNSPECIFIED;
-	}
-
-	@Nonnull
-	@Override
-	public MessageTypeId getMessageTypeId() {
-		return MessageTypeId.EMAIL;
-	}
-
-	@Nonnull
-	protected Address[] toAddresses(@Nonnull List<String> emailAddresses) {
-		requireNonNull(emailAddresses);
-
-		Address[] addresses = new Address[emailAddresses.size()];
-
-		for (int i = 0; i < emailAddresses.size(); ++i) {
-			String emailAddress = emailAddresses.get(i);
-			try {
-				if (emailAddress != null)
-					addresses[i] = new InternetAddress(emailAddress);
-			} catch (AddressException e) {
-				throw new RuntimeException(format("Unable to parse email address '%s'", emailAddress), e);
-			}
-		}
-
-		return addresses;
-	}
+	protected Transport connectTransport() throws MessagingException {
+		Properties props = new Properties();
+		props.put("mail.smtp.host", getMailpitHost());
+		props.put("mail.smtp.port", String.valueOf(getMailpitPort()));
 
-	@Nonnull
-	protected InstitutionService getInstitutionService() {
-		return this.institutionServiceProvider.get();
+		Session smtpSession = Session.getInstance(props);
+		Transport transport = smtpSession.getTransport("smtp");
+		transport.connect(getMailpitHost(), getMailpitPort(), null, null); // Mailpit uses no auth
+		return transport;
 	}
 
-	@Nonnull
-	protected HandlebarsTemplater getHandlebarsTemplater() {
-		return handlebarsTemplater;
-	}
+	protected void closeTransport(@Nonnull Transport transport) {
+		requireNonNull(transport);
 
-	@Nonnull
-	protected Configuration getConfiguration() {
-		return configuration;
+		try {
+			transport.close();
+		} catch (MessagingException e) {
+			getLogger().warn("Unable to close Mailpit transport", e);
+		}
 	}
 
 	@Nonnull
-	protected String getDefaultFromAddress() {
-		return defaultFromAddress;
+	@Override
+	public MessageVendorId getMessageVendorId() {
+		return MessageVendorId.UNSPECIFIED;
 	}
 
 	@Nonnull
@@ -248,9 +187,4 @@ public class MailpitEmailMessageSender implements MessageSender<EmailMessage> {
 	protected Integer getMailpitWebInterfacePort() {
 		return this.mailpitWebInterfacePort;
 	}
-
-	@Nonnull
-	protected Logger getLogger() {
-		return logger;
-	}
-}
\ No newline at end of file
+}
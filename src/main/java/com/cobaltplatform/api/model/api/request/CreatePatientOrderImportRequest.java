@@ -31,6 +31,8 @@ import java.util.UUID;
  */
 @NotThreadSafe
 public class CreatePatientOrderImportRequest {
+	@Nullable
+	private UUID patientOrderImportId;
 	@Nullable
 	private InstitutionId institutionId;
 	@Nullable
@@ -44,6 +46,15 @@ public class CreatePatientOrderImportRequest {
 	@Nullable
 	private String filename;
 
+	@Nullable
+	public UUID getPatientOrderImportId() {
+		return this.patientOrderImportId;
+	}
+
+	public void setPatientOrderImportId(@Nullable UUID patientOrderImportId) {
+		this.patientOrderImportId = patientOrderImportId;
+	}
+
 	@Nullable
 	public InstitutionId getInstitutionId() {
 		return this.institutionId;
@@ -76,6 +76,7 @@ import com.cobaltplatform.api.model.db.Role.RoleId;
 import com.cobaltplatform.api.model.db.ScreeningSession;
 import com.cobaltplatform.api.model.service.PatientOrderContactTypeId;
 import com.cobaltplatform.api.model.service.PatientOrderEncounterDocumentationStatusId;
+import com.cobaltplatform.api.model.service.PatientOrderRelations;
 import com.cobaltplatform.api.model.service.ScreeningSessionResult;
 import com.cobaltplatform.api.service.AccountService;
 import com.cobaltplatform.api.service.AddressService;
@@ -629,6 +630,8 @@ public class PatientOrderApiResponse {
 		private final boolean scheduledMessageGroupsPreloaded;
 		@Nonnull
 		private final ResourcePacketApiResponseBatchContext resourcePacketApiResponseBatchContext;
+		@Nullable
+		private final PatientOrderRelations patientOrderRelations;
 
 		@Nonnull
 		public static PatientOrderApiResponseBatchContext empty() {
@@ -651,6 +654,20 @@ public class PatientOrderApiResponse {
 																							 @Nonnull Map<UUID, List<PatientOrderScheduledMessageGroupApiResponse>> scheduledMessageGroupsByPatientOrderId,
 																							 boolean scheduledMessageGroupsPreloaded,
 																							 @Nonnull ResourcePacketApiResponseBatchContext resourcePacketApiResponseBatchContext) {
+			this(currentResourcePacketsByPatientOrderId,
+					currentResourcePacketsPreloaded,
+					scheduledMessageGroupsByPatientOrderId,
+					scheduledMessageGroupsPreloaded,
+					resourcePacketApiResponseBatchContext,
+					null);
+		}
+
+		public PatientOrderApiResponseBatchContext(@Nonnull Map<UUID, ResourcePacket> currentResourcePacketsByPatientOrderId,
+																							 boolean currentResourcePacketsPreloaded,
+																							 @Nonnull Map<UUID, List<PatientOrderScheduledMessageGroupApiResponse>> scheduledMessageGroupsByPatientOrderId,
+																							 boolean scheduledMessageGroupsPreloaded,
+																							 @Nonnull ResourcePacketApiResponseBatchContext resourcePacketApiResponseBatchContext,
+																							 @Nullable PatientOrderRelations patientOrderRelations) {
 			requireNonNull(currentResourcePacketsByPatientOrderId);
 			requireNonNull(scheduledMessageGroupsByPatientOrderId);
 			requireNonNull(resourcePacketApiResponseBatchContext);
@@ -667,6 +684,7 @@ public class PatientOrderApiResponse {
 
 			this.scheduledMessageGroupsPreloaded = scheduledMessageGroupsPreloaded;
 			this.resourcePacketApiResponseBatchContext = resourcePacketApiResponseBatchContext;
+			this.patientOrderRelations = patientOrderRelations;
 		}
 
 		@Nullable
@@ -693,6 +711,16 @@ public class PatientOrderApiResponse {
 		public ResourcePacketApiResponseBatchContext getResourcePacketApiResponseBatchContext() {
 			return resourcePacketApiResponseBatchContext;
 		}
+
+		public boolean isPatientOrderRelationsPreloaded() {
+			return patientOrderRelations != null;
+		}
+
+		// Only meaningful if isPatientOrderRelationsPreloaded() is true
+		@Nullable
+		public PatientOrderRelations getPatientOrderRelations() {
+			return patientOrderRelations;
+		}
 	}
 
 	// Note: requires FactoryModuleBuilder entry in AppModule
@@ -876,55 +904,92 @@ public class PatientOrderApiResponse {
 		List<PatientOrderScheduledOutreachApiResponse> patientOrderScheduledOutreaches = null;
 
 		if (supplements.contains(PatientOrderApiResponseSupplement.EVERYTHING)) {
-			Address address = addressService.findAddressById(patientOrder.getPatientAddressId()).orElse(null);
+			// Prefer relations loaded up-front for a whole list of orders; otherwise query for this order alone
+			PatientOrderRelations patientOrderRelations = batchContext.isPatientOrderRelationsPreloaded() ? batchContext.getPatientOrderRelations() : null;
+
+			Address address = patientOrderRelations != null
+					? patientOrderRelations.getAddressByAddressId(patientOrder.getPatientAddressId())
+					: addressService.findAddressById(patientOrder.getPatientAddressId()).orElse(null);
 			patientAddress = address == null ? null : addressApiResponseFactory.create(address);
 
-			Account account = accountService.findAccountById(patientOrder.getPatientAccountId()).orElse(null);
+			Account account = patientOrderRelations != null
+					? patientOrderRelations.getAccountByAccountId(patientOrder.getPatientAccountId())
+					: accountService.findAccountById(patientOrder.getPatientAccountId()).orElse(null);
 			patientAccount = patientOrder.getPatientAccountId() == null ? null : accountApiResponseFactory.create(account);
 
-			patientOrderDiagnoses = patientOrderService.findPatientOrderDiagnosesByPatientOrderId(patientOrder.getPatientOrderId()).stream()
+			patientOrderDiagnoses = (patientOrderRelations != null
+					? patientOrderRelations.getPatientOrderDiagnosesByPatientOrderId(patientOrder.getPatientOrderId())
+					: patientOrderService.findPatientOrderDiagnosesByPatientOrderId(patientOrder.getPatientOrderId())).stream()
 					.map(patientOrderDiagnosis -> patientOrderDiagnosisApiResponseFactory.create(patientOrderDiagnosis))
 					.collect(Collectors.toList());
 
-			patientOrderMedications = patientOrderService.findPatientOrderMedicationsByPatientOrderId(patientOrder.getPatientOrderId()).stream()
+			patientOrderMedications = (patientOrderRelations != null
+					? patientOrderRelations.getPatientOrderMedicationsByPatientOrderId(patientOrder.getPatientOrderId())
+					: patientOrderService.findPatientOrderMedicationsByPatientOrderId(patientOrder.getPatientOrderId())).stream()
 					.map(patientOrderMedication -> patientOrderMedicationApiResponseFactory.create(patientOrderMedication))
 					.collect(Collectors.toList());
 
-			patientOrderNotes = patientOrderService.findPatientOrderNotesByPatientOrderId(patientOrder.getPatientOrderId()).stream()
+			patientOrderNotes = (patientOrderRelations != null
+					? patientOrderRelations.getPatientOrderNotesByPatientOrderId(patientOrder.getPatientOrderId())
+					: patientOrderService.findPatientOrderNotesByPatientOrderId(patientOrder.getPatientOrderId())).stream()
 					.map(patientOrderNote -> patientOrderNoteApiResponseFactory.create(patientOrderNote))
 					.collect(Collectors.toList());
 
-			patientOrderOutreaches = patientOrderService.findPatientOrderOutreachesByPatientOrderId(patientOrder.getPatientOrderId()).stream()
+			patientOrderOutreaches = (patientOrderRelations != null
+					? patientOrderRelations.getPatientOrderOutreachesByPatientOrderId(patientOrder.getPatientOrderId())
+					: patientOrderService.findPatientOrderOutreachesByPatientOrderId(patientOrder.getPatientOrderId())).stream()
 					.map(patientOrderOutreach -> patientOrderOutreachApiResponseFactory.create(patientOrderOutreach))
 					.collect(Collectors.toList());
 
-			patientOrderVoicemailTasks = patientOrderService.findPatientOrderVoicemailTasksByPatientOrderId(patientOrder.getPatientOrderId()).stream()
+			patientOrderVoicemailTasks = (patientOrderRelations != null
+					? patientOrderRelations.getPatientOrderVoicemailTasksByPatientOrderId(patientOrder.getPatientOrderId())
+					: patientOrderService.findPatientOrderVoicemailTasksByPatientOrderId(patientOrder.getPatientOrderId())).stream()
 					.map(patientOrderVoicemailTask -> patientOrderVoicemailTaskApiResponseFactory.create(patientOrderVoicemailTask))
 					.collect(Collectors.toList());
 
 			// Only show scheduled outreaches
-			patientOrderScheduledOutreaches = patientOrderService.findPatientOrderScheduledOutreachesByPatientOrderId(patientOrder.getPatientOrderId(), PatientOrderScheduledOutreachStatusId.SCHEDULED).stream()
+			patientOrderScheduledOutreaches = (patientOrderRelations != null
+					? patientOrderRelations.getPatientOrderScheduledOutreachesByPatientOrderId(patientOrder.getPatientOrderId())
+					: patientOrderService.findPatientOrderScheduledOutreachesByPatientOrderId(patientOrder.getPatientOrderId(), PatientOrderScheduledOutreachStatusId.SCHEDULED)).stream()
 					.map(patientOrderScheduledOutreach -> patientOrderScheduledOutreachApiResponseFactory.create(patientOrderScheduledOutreach))
 					.collect(Collectors.toList());
 
-			ScreeningSession mostRecentIntakeScreeningSession = screeningService.findScreeningSessionById(patientOrder.getMostRecentIntakeScreeningSessionId()).orElse(null);
+			ScreeningSession mostRecentIntakeScreeningSession = patientOrderRelations != null
+					? patientOrderRelations.getScreeningSessionByScreeningSessionId(patientOrder.getMostRecentIntakeScreeningSessionId())
+					: screeningService.findScreeningSessionById(patientOrder.getMostRecentIntakeScreeningSessionId()).orElse(null);
 
 			this.intakeScreeningSession = mostRecentIntakeScreeningSession == null ? null : screeningSessionApiResponseFactory.create(mostRecentIntakeScreeningSession);
-			this.intakeScreeningSessionResult = screeningService.findScreeningSessionResult(mostRecentIntakeScreeningSession).orElse(null);
+			this.intakeScreeningSessionResult = patientOrderRelations != null
+					? patientOrderRelations.getScreeningSessionResultByScreeningSessionId(patientOrder.getMostRecentIntakeScreeningSessionId())
+					: screeningService.findScreeningSessionResult(mostRecentIntakeScreeningSession).orElse(null);
 
-			ScreeningSession mostRecentScreeningSession = screeningService.findScreeningSessionById(patientOrder.getMostRecentScreeningSessionId()).orElse(null);
+			ScreeningSession mostRecentScreeningSession = patientOrderRelations != null
+					? patientOrderRelations.getScreeningSessionByScreeningSessionId(patientOrder.getMostRecentScreeningSessionId())
+					: screeningService.findScreeningSessionById(patientOrder.getMostRecentScreeningSessionId()).orElse(null);
 
 			this.screeningSession = mostRecentScreeningSession == null ? null : screeningSessionApiResponseFactory.create(mostRecentScreeningSession);
-			this.screeningSessionResult = screeningService.findScreeningSessionResult(mostRecentScreeningSession).orElse(null);
+			this.screeningSessionResult = patientOrderRelations != null
+					? patientOrderRelations.getScreeningSessionResultByScreeningSessionId(patientOrder.getMostRecentScreeningSessionId())
+					: screeningService.findScreeningSessionResult(mostRecentScreeningSession).orElse(null);
 
-			PatientOrderTriageGroup patientOrderTriageGroup = patientOrderService.findActivePatientOrderTriageGroupByPatientOrderId(patientOrder.getPatientOrderId()).orElse(null);
-			List<PatientOrderTriage> patientOrderTriages = patientOrderTriageGroup == null ? List.of() : patientOrderService.findPatientOrderTriagesByPatientOrderTriageGroupId(patientOrderTriageGroup.getPatientOrderTriageGroupId());
+			List<PatientOrderTriage> patientOrderTriages;
+
+			if (patientOrderRelations != null) {
+				patientOrderTriages = patientOrderRelations.getActivePatientOrderTriagesByPatientOrderId(patientOrder.getPatientOrderId());
+			} else {
+				PatientOrderTriageGroup patientOrderTriageGroup = patientOrderService.findActivePatientOrderTriageGroupByPatientOrderId(patientOrder.getPatientOrderId()).orElse(null);
+				patientOrderTriages = patientOrderTriageGroup == null ? List.of() : patientOrderService.findPatientOrderTriagesByPatientOrderTriageGroupId(patientOrderTriageGroup.getPatientOrderTriageGroupId());
+			}
 
 			if (patientOrderTriages.size() > 0) {
-				List<PatientOrderFocusType> patientOrderFocusTypes = patientOrderService.findPatientOrderFocusTypes();
+				List<PatientOrderFocusType> patientOrderFocusTypes = patientOrderRelations != null
+						? patientOrderRelations.getPatientOrderFocusTypes()
+						: patientOrderService.findPatientOrderFocusTypes();
 				Map<PatientOrderFocusTypeId, PatientOrderFocusType> patientOrderFocusTypesById = patientOrderFocusTypes.stream()
 						.collect(Collectors.toMap(PatientOrderFocusType::getPatientOrderFocusTypeId, patientOrderFocusType -> patientOrderFocusType));
-				List<PatientOrderCareType> patientOrderCareTypes = patientOrderService.findPatientOrderCareTypes();
+				List<PatientOrderCareType> patientOrderCareTypes = patientOrderRelations != null
+						? patientOrderRelations.getPatientOrderCareTypes()
+						: patientOrderService.findPatientOrderCareTypes();
 				Map<PatientOrderCareTypeId, PatientOrderCareType> patientOrderCareTypesById = patientOrderCareTypes.stream()
 						.collect(Collectors.toMap(PatientOrderCareType::getPatientOrderCareTypeId, patientOrderCareType -> patientOrderCareType));
 
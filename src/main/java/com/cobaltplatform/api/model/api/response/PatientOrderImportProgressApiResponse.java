@@ -0,0 +1,172 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.model.api.response;
+
+import com.cobaltplatform.api.model.db.PatientOrderImportProgress;
+import com.cobaltplatform.api.model.db.PatientOrderImportProgressStatus.PatientOrderImportProgressStatusId;
+import com.cobaltplatform.api.util.Formatter;
+import com.google.inject.assistedinject.Assisted;
+import com.google.inject.assistedinject.AssistedInject;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Instant;
+import java.util.UUID;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@Immutable
+public class PatientOrderImportProgressApiResponse {
+	@Nullable
+	private final UUID patientOrderImportId;
+	@Nullable
+	private final PatientOrderImportProgressStatusId patientOrderImportProgressStatusId;
+	@Nullable
+	private final Integer rowCount;
+	@Nullable
+	private final Integer invalidRowCount;
+	@Nullable
+	private final Integer epicPatientCount;
+	@Nullable
+	private final Integer epicPatientPulledCount;
+	@Nullable
+	private final Integer importedRowCount;
+	@Nullable
+	private final Double percentComplete;
+	@Nullable
+	private final String percentCompleteDescription;
+	@Nullable
+	private final Instant completedAt;
+	@Nullable
+	private final String completedAtDescription;
+	@Nullable
+	private final Instant created;
+	@Nullable
+	private final String createdDescription;
+
+	// Note: requires FactoryModuleBuilder entry in AppModule
+	@ThreadSafe
+	public interface PatientOrderImportProgressApiResponseFactory {
+		@Nonnull
+		PatientOrderImportProgressApiResponse create(@Nonnull PatientOrderImportProgress patientOrderImportProgress);
+	}
+
+	@AssistedInject
+	public PatientOrderImportProgressApiResponse(@Nonnull Formatter formatter,
+																							 @Assisted @Nonnull PatientOrderImportProgress patientOrderImportProgress) {
+		requireNonNull(formatter);
+		requireNonNull(patientOrderImportProgress);
+
+		this.patientOrderImportId = patientOrderImportProgress.getPatientOrderImportId();
+		this.patientOrderImportProgressStatusId = patientOrderImportProgress.getPatientOrderImportProgressStatusId();
+		this.rowCount = patientOrderImportProgress.getRowCount();
+		this.invalidRowCount = patientOrderImportProgress.getInvalidRowCount();
+		this.epicPatientCount = patientOrderImportProgress.getEpicPatientCount();
+		this.epicPatientPulledCount = patientOrderImportProgress.getEpicPatientPulledCount();
+		this.importedRowCount = patientOrderImportProgress.getImportedRowCount();
+		this.completedAt = patientOrderImportProgress.getCompletedAt();
+		this.completedAtDescription = patientOrderImportProgress.getCompletedAt() == null ? null : formatter.formatTimestamp(patientOrderImportProgress.getCompletedAt());
+		this.created = patientOrderImportProgress.getCreated();
+		this.createdDescription = patientOrderImportProgress.getCreated() == null ? null : formatter.formatTimestamp(patientOrderImportProgress.getCreated());
+
+		// Pulling Epic demographics is where a large import spends its time, so that's the only phase with a meaningful percentage.
+		// Rows are streamed, so there's no total to measure against while they are being validated
+		if (this.patientOrderImportProgressStatusId == PatientOrderImportProgressStatusId.COMPLETE) {
+			this.percentComplete = 1D;
+		} else if (this.patientOrderImportProgressStatusId == PatientOrderImportProgressStatusId.PULLING_EPIC_DEMOGRAPHICS
+				&& this.epicPatientCount != null && this.epicPatientPulledCount != null && this.epicPatientCount > 0) {
+			this.percentComplete = Math.min(1D, this.epicPatientPulledCount / (double) this.epicPatientCount);
+		} else {
+			this.percentComplete = null;
+		}
+
+		this.percentCompleteDescription = this.percentComplete == null ? null : formatter.formatPercent(this.percentComplete);
+	}
+
+	@Nullable
+	public UUID getPatientOrderImportId() {
+		return this.patientOrderImportId;
+	}
+
+	@Nullable
+	public PatientOrderImportProgressStatusId getPatientOrderImportProgressStatusId() {
+		return this.patientOrderImportProgressStatusId;
+	}
+
+	@Nullable
+	public Integer getRowCount() {
+		return this.rowCount;
+	}
+
+	@Nullable
+	public Integer getInvalidRowCount() {
+		return this.invalidRowCount;
+	}
+
+	@Nullable
+	public Integer getEpicPatientCount() {
+		return this.epicPatientCount;
+	}
+
+	@Nullable
+	public Integer getEpicPatientPulledCount() {
+		return this.epicPatientPulledCount;
+	}
+
+	@Nullable
+	public Integer getImportedRowCount() {
+		return this.importedRowCount;
+	}
+
+	@Nullable
+	public Double getPercentComplete() {
+		return this.percentComplete;
+	}
+
+	@Nullable
+	public String getPercentCompleteDescription() {
+		return this.percentCompleteDescription;
+	}
+
+	@Nullable
+	public Instant getCompletedAt() {
+		return this.completedAt;
+	}
+
+	@Nullable
+	public String getCompletedAtDescription() {
+		return this.completedAtDescription;
+	}
+
+	@Nullable
+	public Instant getCreated() {
+		return this.created;
+	}
+
+	@Nullable
+	public String getCreatedDescription() {
+		return this.createdDescription;
+	}
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cobaltplatform.api.model.api.response;
+
+import com.cobaltplatform.api.model.db.StudyExport;
+import com.cobaltplatform.api.model.db.StudyExportStatus.StudyExportStatusId;
+import com.cobaltplatform.api.service.StudyService;
+import com.cobaltplatform.api.util.Formatter;
+import com.google.inject.assistedinject.Assisted;
+import com.google.inject.assistedinject.AssistedInject;
+import com.lokalized.Strings;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@Immutable
+public class StudyExportApiResponse {
+	@Nullable
+	private final UUID studyExportId;
+	@Nullable
+	private final UUID studyId;
+	@Nullable
+	private final UUID requestedByAccountId;
+	@Nullable
+	private final StudyExportStatusId studyExportStatusId;
+	@Nullable
+	private final Integer totalFileCount;
+	@Nullable
+	private final Integer exportedFileCount;
+	@Nullable
+	private final Integer failedFileCount;
+	@Nullable
+	private final Double percentComplete;
+	@Nullable
+	private final String percentCompleteDescription;
+	@Nullable
+	private final Long sourceByteCount;
+	@Nullable
+	private final String sourceByteCountDescription;
+	@Nullable
+	private final Long exportedByteCount;
+	@Nullable
+	private final String exportedByteCountDescription;
+	@Nullable
+	private final Long elapsedSeconds;
+	@Nullable
+	private final String elapsedSecondsDescription;
+	@Nullable
+	private final Long sourceBytesPerSecond;
+	@Nullable
+	private final String sourceBytesPerSecondDescription;
+	@Nullable
+	private final Double filesPerSecond;
+	@Nullable
+	private final String manifestUrl;
+	@Nullable
+	private final String errorMessage;
+	@Nullable
+	private final Instant startedAt;
+	@Nullable
+	private final String startedAtDescription;
+	@Nullable
+	private final Instant completedAt;
+	@Nullable
+	private final String completedAtDescription;
+	@Nullable
+	private final Instant created;
+	@Nullable
+	private final String createdDescription;
+
+	// Note: requires FactoryModuleBuilder entry in AppModule
+	@ThreadSafe
+	public interface StudyExportApiResponseFactory {
+		@Nonnull
+		StudyExportApiResponse create(@Nonnull StudyExport studyExport);
+	}
+
+	@AssistedInject
+	public StudyExportApiResponse(@Nonnull StudyService studyService,
+																@Nonnull Formatter formatter,
+																@Nonnull Strings strings,
+																@Assisted @Nonnull StudyExport studyExport) {
+		requireNonNull(studyService);
+		requireNonNull(formatter);
+		requireNonNull(strings);
+		requireNonNull(studyExport);
+
+		this.studyExportId = studyExport.getStudyExportId();
+		this.studyId = studyExport.getStudyId();
+		this.requestedByAccountId = studyExport.getRequestedByAccountId();
+		this.studyExportStatusId = studyExport.getStudyExportStatusId();
+		this.totalFileCount = studyExport.getTotalFileCount();
+		this.exportedFileCount = studyExport.getExportedFileCount();
+		this.failedFileCount = studyExport.getFailedFileCount();
+		this.sourceByteCount = studyExport.getSourceByteCount();
+		this.sourceByteCountDescription = studyExport.getSourceByteCount() == null ? null : formatter.formatFilesize(studyExport.getSourceByteCount());
+		this.exportedByteCount = studyExport.getExportedByteCount();
+		this.exportedByteCountDescription = studyExport.getExportedByteCount() == null ? null : formatter.formatFilesize(studyExport.getExportedByteCount());
+		this.manifestUrl = studyService.createStudyExportManifestUrl(studyExport).orElse(null);
+		this.errorMessage = studyExport.getErrorMessage();
+		this.startedAt = studyExport.getStartedAt();
+		this.startedAtDescription = studyExport.getStartedAt() == null ? null : formatter.formatTimestamp(studyExport.getStartedAt());
+		this.completedAt = studyExport.getCompletedAt();
+		this.completedAtDescription = studyExport.getCompletedAt() == null ? null : formatter.formatTimestamp(studyExport.getCompletedAt());
+		this.created = studyExport.getCreated();
+		this.createdDescription = studyExport.getCreated() == null ? null : formatter.formatTimestamp(studyExport.getCreated());
+
+		Integer totalFileCount = studyExport.getTotalFileCount();
+		Integer processedFileCount = studyExport.getExportedFileCount() == null || studyExport.getFailedFileCount() == null
+				? null : studyExport.getExportedFileCount() + studyExport.getFailedFileCount();
+
+		if (totalFileCount != null && processedFileCount != null && totalFileCount > 0) {
+			this.percentComplete = Math.min(1D, processedFileCount / (double) totalFileCount);
+			this.percentCompleteDescription = formatter.formatPercent(this.percentComplete);
+		} else {
+			this.percentComplete = null;
+			this.percentCompleteDescription = null;
+		}
+
+		// Throughput is measured against wall-clock time since the export started, so a resumed export includes its downtime
+		if (studyExport.getStartedAt() != null) {
+			Instant endedAt = studyExport.getCompletedAt() == null ? Instant.now() : studyExport.getCompletedAt();
+			long elapsedSeconds = Math.max(1L, Duration.between(studyExport.getStartedAt(), endedAt).getSeconds());
+
+			this.elapsedSeconds = elapsedSeconds;
+			this.elapsedSecondsDescription = formatter.formatDuration(elapsedSeconds);
+			this.sourceBytesPerSecond = studyExport.getSourceByteCount() == null ? null : studyExport.getSourceByteCount() / elapsedSeconds;
+			this.sourceBytesPerSecondDescription = this.sourceBytesPerSecond == null ? null
+					: strings.get("{{filesize}}/sec", Map.of("filesize", formatter.formatFilesize(this.sourceBytesPerSecond)));
+			this.filesPerSecond = studyExport.getExportedFileCount() == null ? null : studyExport.getExportedFileCount() / (double) elapsedSeconds;
+		} else {
+			this.elapsedSeconds = null;
+			this.elapsedSecondsDescription = null;
+			this.sourceBytesPerSecond = null;
+			this.sourceBytesPerSecondDescription = null;
+			this.filesPerSecond = null;
+		}
+	}
+
+	@Nullable
+	public UUID getStudyExportId() {
+		return this.studyExportId;
+	}
+
+	@Nullable
+	public UUID getStudyId() {
+		return this.studyId;
+	}
+
+	@Nullable
+	public UUID getRequestedByAccountId() {
+		return this.requestedByAccountId;
+	}
+
+	@Nullable
+	public StudyExportStatusId getStudyExportStatusId() {
+		return this.studyExportStatusId;
+	}
+
+	@Nullable
+	public Integer getTotalFileCount() {
+		return this.totalFileCount;
+	}
+
+	@Nullable
+	public Integer getExportedFileCount() {
+		return this.exportedFileCount;
+	}
+
+	@Nullable
+	public Integer getFailedFileCount() {
+		return this.failedFileCount;
+	}
+
+	@Nullable
+	public Double getPercentComplete() {
+		return this.percentComplete;
+	}
+
+	@Nullable
+	public String getPercentCompleteDescription() {
+		return this.percentCompleteDescription;
+	}
+
+	@Nullable
+	public Long getSourceByteCount() {
+		return this.sourceByteCount;
+	}
+
+	@Nullable
+	public String getSourceByteCountDescription() {
+		return this.sourceByteCountDescription;
+	}
+
+	@Nullable
+	public Long getExportedByteCount() {
+		return this.exportedByteCount;
+	}
+
+	@Nullable
+	public String getExportedByteCountDescription() {
+		return this.exportedByteCountDescription;
+	}
+
+	@Nullable
+	public Long getElapsedSeconds() {
+		return this.elapsedSeconds;
+	}
+
+	@Nullable
+	public String getElapsedSecondsDescription() {
+		return this.elapsedSecondsDescription;
+	}
+
+	@Nullable
+	public Long getSourceBytesPerSecond() {
+		return this.sourceBytesPerSecond;
+	}
+
+	@Nullable
+	public String getSourceBytesPerSecondDescription() {
+		return this.sourceBytesPerSecondDescription;
+	}
+
+	@Nullable
+	public Double getFilesPerSecond() {
+		return this.filesPerSecond;
+	}
+
+	@Nullable
+	public String getManifestUrl() {
+		return this.manifestUrl;
+	}
+
+	@Nullable
+	public String getErrorMessage() {
+		return this.errorMessage;
+	}
+
+	@Nullable
+	public Instant getStartedAt() {
+		return this.startedAt;
+	}
+
+	@Nullable
+	public String getStartedAtDescription() {
+		return this.startedAtDescription;
+	}
+
+	@Nullable
+	public Instant getCompletedAt() {
+		return this.completedAt;
+	}
+
+	@Nullable
+	public String getCompletedAtDescription() {
+		return this.completedAtDescription;
+	}
+
+	@Nullable
+	public Instant getCreated() {
+		return this.created;
+	}
+
+	@Nullable
+	public String getCreatedDescription() {
+		return this.createdDescription;
+	}
+}
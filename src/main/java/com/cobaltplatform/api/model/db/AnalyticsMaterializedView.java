@@ -0,0 +1,152 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.model.db;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.time.Instant;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@NotThreadSafe
+public class AnalyticsMaterializedView {
+	@Nullable
+	private String analyticsMaterializedViewId;
+	@Nullable
+	private String dependsOnAnalyticsMaterializedViewId;
+	@Nullable
+	private Integer displayOrder;
+	@Nullable
+	private Instant sourceWatermark;
+	@Nullable
+	private Instant lastRefreshStartedAt;
+	@Nullable
+	private Instant lastRefreshedAt;
+	@Nullable
+	private Long lastRefreshDurationInMilliseconds;
+	@Nullable
+	private Instant lastRefreshSkippedAt;
+	@Nullable
+	private String lastRefreshError;
+	@Nullable
+	private Instant created;
+	@Nullable
+	private Instant lastUpdated;
+
+	@Nullable
+	public String getAnalyticsMaterializedViewId() {
+		return this.analyticsMaterializedViewId;
+	}
+
+	public void setAnalyticsMaterializedViewId(@Nullable String analyticsMaterializedViewId) {
+		this.analyticsMaterializedViewId = analyticsMaterializedViewId;
+	}
+
+	@Nullable
+	public String getDependsOnAnalyticsMaterializedViewId() {
+		return this.dependsOnAnalyticsMaterializedViewId;
+	}
+
+	public void setDependsOnAnalyticsMaterializedViewId(@Nullable String dependsOnAnalyticsMaterializedViewId) {
+		this.dependsOnAnalyticsMaterializedViewId = dependsOnAnalyticsMaterializedViewId;
+	}
+
+	@Nullable
+	public Integer getDisplayOrder() {
+		return this.displayOrder;
+	}
+
+	public void setDisplayOrder(@Nullable Integer displayOrder) {
+		this.displayOrder = displayOrder;
+	}
+
+	@Nullable
+	public Instant getSourceWatermark() {
+		return this.sourceWatermark;
+	}
+
+	public void setSourceWatermark(@Nullable Instant sourceWatermark) {
+		this.sourceWatermark = sourceWatermark;
+	}
+
+	@Nullable
+	public Instant getLastRefreshStartedAt() {
+		return this.lastRefreshStartedAt;
+	}
+
+	public void setLastRefreshStartedAt(@Nullable Instant lastRefreshStartedAt) {
+		this.lastRefreshStartedAt = lastRefreshStartedAt;
+	}
+
+	@Nullable
+	public Instant getLastRefreshedAt() {
+		return this.lastRefreshedAt;
+	}
+
+	public void setLastRefreshedAt(@Nullable Instant lastRefreshedAt) {
+		this.lastRefreshedAt = lastRefreshedAt;
+	}
+
+	@Nullable
+	public Long getLastRefreshDurationInMilliseconds() {
+		return this.lastRefreshDurationInMilliseconds;
+	}
+
+	public void setLastRefreshDurationInMilliseconds(@Nullable Long lastRefreshDurationInMilliseconds) {
+		this.lastRefreshDurationInMilliseconds = lastRefreshDurationInMilliseconds;
+	}
+
+	@Nullable
+	public Instant getLastRefreshSkippedAt() {
+		return this.lastRefreshSkippedAt;
+	}
+
+	public void setLastRefreshSkippedAt(@Nullable Instant lastRefreshSkippedAt) {
+		this.lastRefreshSkippedAt = lastRefreshSkippedAt;
+	}
+
+	@Nullable
+	public String getLastRefreshError() {
+		return this.lastRefreshError;
+	}
+
+	public void setLastRefreshError(@Nullable String lastRefreshError) {
+		this.lastRefreshError = lastRefreshError;
+	}
+
+	@Nullable
+	public Instant getCreated() {
+		return this.created;
+	}
+
+	public void setCreated(@Nullable Instant created) {
+		this.created = created;
+	}
+
+	@Nullable
+	public Instant getLastUpdated() {
+		return this.lastUpdated;
+	}
+
+	public void setLastUpdated(@Nullable Instant lastUpdated) {
+		this.lastUpdated = lastUpdated;
+	}
+}
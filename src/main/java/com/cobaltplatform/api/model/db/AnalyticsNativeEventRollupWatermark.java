@@ -0,0 +1,120 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.model.db;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@NotThreadSafe
+public class AnalyticsNativeEventRollupWatermark {
+	@Nullable
+	private Instant createdWatermark;
+	@Nullable
+	private UUID idWatermark;
+	@Nullable
+	private Integer lastRowsRolledUp;
+	@Nullable
+	private Long totalRowsRolledUp;
+	@Nullable
+	private Instant lastRolledUpAt;
+	@Nullable
+	private Instant caughtUpAt;
+	@Nullable
+	private Instant created;
+	@Nullable
+	private Instant lastUpdated;
+
+	@Nullable
+	public Instant getCreatedWatermark() {
+		return this.createdWatermark;
+	}
+
+	public void setCreatedWatermark(@Nullable Instant createdWatermark) {
+		this.createdWatermark = createdWatermark;
+	}
+
+	@Nullable
+	public UUID getIdWatermark() {
+		return this.idWatermark;
+	}
+
+	public void setIdWatermark(@Nullable UUID idWatermark) {
+		this.idWatermark = idWatermark;
+	}
+
+	@Nullable
+	public Integer getLastRowsRolledUp() {
+		return this.lastRowsRolledUp;
+	}
+
+	public void setLastRowsRolledUp(@Nullable Integer lastRowsRolledUp) {
+		this.lastRowsRolledUp = lastRowsRolledUp;
+	}
+
+	@Nullable
+	public Long getTotalRowsRolledUp() {
+		return this.totalRowsRolledUp;
+	}
+
+	public void setTotalRowsRolledUp(@Nullable Long totalRowsRolledUp) {
+		this.totalRowsRolledUp = totalRowsRolledUp;
+	}
+
+	@Nullable
+	public Instant getLastRolledUpAt() {
+		return this.lastRolledUpAt;
+	}
+
+	public void setLastRolledUpAt(@Nullable Instant lastRolledUpAt) {
+		this.lastRolledUpAt = lastRolledUpAt;
+	}
+
+	@Nullable
+	public Instant getCaughtUpAt() {
+		return this.caughtUpAt;
+	}
+
+	public void setCaughtUpAt(@Nullable Instant caughtUpAt) {
+		this.caughtUpAt = caughtUpAt;
+	}
+
+	@Nullable
+	public Instant getCreated() {
+		return this.created;
+	}
+
+	public void setCreated(@Nullable Instant created) {
+		this.created = created;
+	}
+
+	@Nullable
+	public Instant getLastUpdated() {
+		return this.lastUpdated;
+	}
+
+	public void setLastUpdated(@Nullable Instant lastUpdated) {
+		this.lastUpdated = lastUpdated;
+	}
+}
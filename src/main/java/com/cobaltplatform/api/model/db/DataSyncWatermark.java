@@ -0,0 +1,142 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cobaltplatform.api.model.db;
+
+import com.cobaltplatform.api.model.db.DataSyncTable.DataSyncTableId;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.time.Instant;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@NotThreadSafe
+public class DataSyncWatermark {
+	@Nullable
+	private DataSyncTableId dataSyncTableId;
+	@Nullable
+	private Instant lastUpdatedWatermark;
+	@Nullable
+	private String idWatermark;
+	@Nullable
+	private Integer lastRowsSynced;
+	@Nullable
+	private Long totalRowsSynced;
+	@Nullable
+	private Instant lastSyncedAt;
+	@Nullable
+	private Instant caughtUpAt;
+	@Nullable
+	private Instant lastFullResyncAt;
+	@Nullable
+	private Instant created;
+	@Nullable
+	private Instant lastUpdated;
+
+	@Nullable
+	public DataSyncTableId getDataSyncTableId() {
+		return this.dataSyncTableId;
+	}
+
+	public void setDataSyncTableId(@Nullable DataSyncTableId dataSyncTableId) {
+		this.dataSyncTableId = dataSyncTableId;
+	}
+
+	@Nullable
+	public Instant getLastUpdatedWatermark() {
+		return this.lastUpdatedWatermark;
+	}
+
+	public void setLastUpdatedWatermark(@Nullable Instant lastUpdatedWatermark) {
+		this.lastUpdatedWatermark = lastUpdatedWatermark;
+	}
+
+	@Nullable
+	public String getIdWatermark() {
+		return this.idWatermark;
+	}
+
+	public void setIdWatermark(@Nullable String idWatermark) {
+		this.idWatermark = idWatermark;
+	}
+
+	@Nullable
+	public Integer getLastRowsSynced() {
+		return this.lastRowsSynced;
+	}
+
+	public void setLastRowsSynced(@Nullable Integer lastRowsSynced) {
+		this.lastRowsSynced = lastRowsSynced;
+	}
+
+	@Nullable
+	public Long getTotalRowsSynced() {
+		return this.totalRowsSynced;
+	}
+
+	public void setTotalRowsSynced(@Nullable Long totalRowsSynced) {
+		this.totalRowsSynced = totalRowsSynced;
+	}
+
+	@Nullable
+	public Instant getLastSyncedAt() {
+		return this.lastSyncedAt;
+	}
+
+	public void setLastSyncedAt(@Nullable Instant lastSyncedAt) {
+		this.lastSyncedAt = lastSyncedAt;
+	}
+
+	@Nullable
+	public Instant getCaughtUpAt() {
+		return this.caughtUpAt;
+	}
+
+	public void setCaughtUpAt(@Nullable Instant caughtUpAt) {
+		this.caughtUpAt = caughtUpAt;
+	}
+
+	@Nullable
+	public Instant getLastFullResyncAt() {
+		return this.lastFullResyncAt;
+	}
+
+	public void setLastFullResyncAt(@Nullable Instant lastFullResyncAt) {
+		this.lastFullResyncAt = lastFullResyncAt;
+	}
+
+	@Nullable
+	public Instant getCreated() {
+		return this.created;
+	}
+
+	public void setCreated(@Nullable Instant created) {
+		this.created = created;
+	}
+
+	@Nullable
+	public Instant getLastUpdated() {
+		return this.lastUpdated;
+	}
+
+	public void setLastUpdated(@Nullable Instant lastUpdated) {
+		this.lastUpdated = lastUpdated;
+	}
+}
@@ -55,6 +55,8 @@ public class MessageLog {
 	@Nullable
 	private Instant enqueued;
 	@Nullable
+	private Instant sendingStarted;
+	@Nullable
 	private Instant processed;
 	@Nullable
 	private Instant delivered;
@@ -155,6 +157,15 @@ public class MessageLog {
 		this.enqueued = enqueued;
 	}
 
+	@Nullable
+	public Instant getSendingStarted() {
+		return this.sendingStarted;
+	}
+
+	public void setSendingStarted(@Nullable Instant sendingStarted) {
+		this.sendingStarted = sendingStarted;
+	}
+
 	@Nullable
 	public Instant getProcessed() {
 		return this.processed;
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.model.db;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.time.Instant;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@NotThreadSafe
+public class PartitionedTable {
+	@Nullable
+	private String partitionedTableId;
+	@Nullable
+	private Integer retentionInMonths;
+	@Nullable
+	private Integer premadePartitionMonths;
+	@Nullable
+	private Instant created;
+	@Nullable
+	private Instant lastUpdated;
+
+	@Nullable
+	public String getPartitionedTableId() {
+		return this.partitionedTableId;
+	}
+
+	public void setPartitionedTableId(@Nullable String partitionedTableId) {
+		this.partitionedTableId = partitionedTableId;
+	}
+
+	@Nullable
+	public Integer getRetentionInMonths() {
+		return this.retentionInMonths;
+	}
+
+	public void setRetentionInMonths(@Nullable Integer retentionInMonths) {
+		this.retentionInMonths = retentionInMonths;
+	}
+
+	@Nullable
+	public Integer getPremadePartitionMonths() {
+		return this.premadePartitionMonths;
+	}
+
+	public void setPremadePartitionMonths(@Nullable Integer premadePartitionMonths) {
+		this.premadePartitionMonths = premadePartitionMonths;
+	}
+
+	@Nullable
+	public Instant getCreated() {
+		return this.created;
+	}
+
+	public void setCreated(@Nullable Instant created) {
+		this.created = created;
+	}
+
+	@Nullable
+	public Instant getLastUpdated() {
+		return this.lastUpdated;
+	}
+
+	public void setLastUpdated(@Nullable Instant lastUpdated) {
+		this.lastUpdated = lastUpdated;
+	}
+}
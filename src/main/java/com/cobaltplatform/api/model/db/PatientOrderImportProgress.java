@@ -0,0 +1,167 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.model.db;
+
+import com.cobaltplatform.api.model.db.Institution.InstitutionId;
+import com.cobaltplatform.api.model.db.PatientOrderImportProgressStatus.PatientOrderImportProgressStatusId;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@NotThreadSafe
+public class PatientOrderImportProgress {
+	@Nullable
+	private UUID patientOrderImportId;
+	@Nullable
+	private InstitutionId institutionId;
+	@Nullable
+	private UUID accountId;
+	@Nullable
+	private PatientOrderImportProgressStatusId patientOrderImportProgressStatusId;
+	@Nullable
+	private Integer rowCount;
+	@Nullable
+	private Integer invalidRowCount;
+	@Nullable
+	private Integer epicPatientCount;
+	@Nullable
+	private Integer epicPatientPulledCount;
+	@Nullable
+	private Integer importedRowCount;
+	@Nullable
+	private Instant completedAt;
+	@Nullable
+	private Instant created;
+	@Nullable
+	private Instant lastUpdated;
+
+	@Nullable
+	public UUID getPatientOrderImportId() {
+		return this.patientOrderImportId;
+	}
+
+	public void setPatientOrderImportId(@Nullable UUID patientOrderImportId) {
+		this.patientOrderImportId = patientOrderImportId;
+	}
+
+	@Nullable
+	public InstitutionId getInstitutionId() {
+		return this.institutionId;
+	}
+
+	public void setInstitutionId(@Nullable InstitutionId institutionId) {
+		this.institutionId = institutionId;
+	}
+
+	@Nullable
+	public UUID getAccountId() {
+		return this.accountId;
+	}
+
+	public void setAccountId(@Nullable UUID accountId) {
+		this.accountId = accountId;
+	}
+
+	@Nullable
+	public PatientOrderImportProgressStatusId getPatientOrderImportProgressStatusId() {
+		return this.patientOrderImportProgressStatusId;
+	}
+
+	public void setPatientOrderImportProgressStatusId(@Nullable PatientOrderImportProgressStatusId patientOrderImportProgressStatusId) {
+		this.patientOrderImportProgressStatusId = patientOrderImportProgressStatusId;
+	}
+
+	@Nullable
+	public Integer getRowCount() {
+		return this.rowCount;
+	}
+
+	public void setRowCount(@Nullable Integer rowCount) {
+		this.rowCount = rowCount;
+	}
+
+	@Nullable
+	public Integer getInvalidRowCount() {
+		return this.invalidRowCount;
+	}
+
+	public void setInvalidRowCount(@Nullable Integer invalidRowCount) {
+		this.invalidRowCount = invalidRowCount;
+	}
+
+	@Nullable
+	public Integer getEpicPatientCount() {
+		return this.epicPatientCount;
+	}
+
+	public void setEpicPatientCount(@Nullable Integer epicPatientCount) {
+		this.epicPatientCount = epicPatientCount;
+	}
+
+	@Nullable
+	public Integer getEpicPatientPulledCount() {
+		return this.epicPatientPulledCount;
+	}
+
+	public void setEpicPatientPulledCount(@Nullable Integer epicPatientPulledCount) {
+		this.epicPatientPulledCount = epicPatientPulledCount;
+	}
+
+	@Nullable
+	public Integer getImportedRowCount() {
+		return this.importedRowCount;
+	}
+
+	public void setImportedRowCount(@Nullable Integer importedRowCount) {
+		this.importedRowCount = importedRowCount;
+	}
+
+	@Nullable
+	public Instant getCompletedAt() {
+		return this.completedAt;
+	}
+
+	public void setCompletedAt(@Nullable Instant completedAt) {
+		this.completedAt = completedAt;
+	}
+
+	@Nullable
+	public Instant getCreated() {
+		return this.created;
+	}
+
+	public void setCreated(@Nullable Instant created) {
+		this.created = created;
+	}
+
+	@Nullable
+	public Instant getLastUpdated() {
+		return this.lastUpdated;
+	}
+
+	public void setLastUpdated(@Nullable Instant lastUpdated) {
+		this.lastUpdated = lastUpdated;
+	}
+}
@@ -153,6 +153,8 @@ public class RawPatientOrder {
 	@Nullable
 	private Instant patientDemographicsImportedAt;
 	@Nullable
+	private Instant patientDemographicsImportClaimedAt;
+	@Nullable
 	private String primaryPayorId;
 	@Nullable
 	private String primaryPayorName;
@@ -673,6 +675,15 @@ public class RawPatientOrder {
 		this.patientDemographicsImportedAt = patientDemographicsImportedAt;
 	}
 
+	@Nullable
+	public Instant getPatientDemographicsImportClaimedAt() {
+		return this.patientDemographicsImportClaimedAt;
+	}
+
+	public void setPatientDemographicsImportClaimedAt(@Nullable Instant patientDemographicsImportClaimedAt) {
+		this.patientDemographicsImportClaimedAt = patientDemographicsImportClaimedAt;
+	}
+
 	@Nullable
 	public String getPrimaryPayorId() {
 		return this.primaryPayorId;
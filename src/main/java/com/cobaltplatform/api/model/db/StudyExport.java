@@ -0,0 +1,209 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cobaltplatform.api.model.db;
+
+import com.cobaltplatform.api.model.db.StudyExportStatus.StudyExportStatusId;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@NotThreadSafe
+public class StudyExport {
+	@Nullable
+	private UUID studyExportId;
+	@Nullable
+	private UUID studyId;
+	@Nullable
+	private UUID requestedByAccountId;
+	@Nullable
+	private StudyExportStatusId studyExportStatusId;
+	@Nullable
+	private Integer totalFileCount;
+	@Nullable
+	private Integer exportedFileCount;
+	@Nullable
+	private Integer failedFileCount;
+	@Nullable
+	private Long sourceByteCount;
+	@Nullable
+	private Long exportedByteCount;
+	@Nullable
+	private String manifestStorageKey;
+	@Nullable
+	private String errorMessage;
+	@Nullable
+	private Instant startedAt;
+	@Nullable
+	private Instant heartbeatAt;
+	@Nullable
+	private Instant completedAt;
+	@Nullable
+	private Instant created;
+	@Nullable
+	private Instant lastUpdated;
+
+	@Nullable
+	public UUID getStudyExportId() {
+		return this.studyExportId;
+	}
+
+	public void setStudyExportId(@Nullable UUID studyExportId) {
+		this.studyExportId = studyExportId;
+	}
+
+	@Nullable
+	public UUID getStudyId() {
+		return this.studyId;
+	}
+
+	public void setStudyId(@Nullable UUID studyId) {
+		this.studyId = studyId;
+	}
+
+	@Nullable
+	public UUID getRequestedByAccountId() {
+		return this.requestedByAccountId;
+	}
+
+	public void setRequestedByAccountId(@Nullable UUID requestedByAccountId) {
+		this.requestedByAccountId = requestedByAccountId;
+	}
+
+	@Nullable
+	public StudyExportStatusId getStudyExportStatusId() {
+		return this.studyExportStatusId;
+	}
+
+	public void setStudyExportStatusId(@Nullable StudyExportStatusId studyExportStatusId) {
+		this.studyExportStatusId = studyExportStatusId;
+	}
+
+	@Nullable
+	public Integer getTotalFileCount() {
+		return this.totalFileCount;
+	}
+
+	public void setTotalFileCount(@Nullable Integer totalFileCount) {
+		this.totalFileCount = totalFileCount;
+	}
+
+	@Nullable
+	public Integer getExportedFileCount() {
+		return this.exportedFileCount;
+	}
+
+	public void setExportedFileCount(@Nullable Integer exportedFileCount) {
+		this.exportedFileCount = exportedFileCount;
+	}
+
+	@Nullable
+	public Integer getFailedFileCount() {
+		return this.failedFileCount;
+	}
+
+	public void setFailedFileCount(@Nullable Integer failedFileCount) {
+		this.failedFileCount = failedFileCount;
+	}
+
+	@Nullable
+	public Long getSourceByteCount() {
+		return this.sourceByteCount;
+	}
+
+	public void setSourceByteCount(@Nullable Long sourceByteCount) {
+		this.sourceByteCount = sourceByteCount;
+	}
+
+	@Nullable
+	public Long getExportedByteCount() {
+		return this.exportedByteCount;
+	}
+
+	public void setExportedByteCount(@Nullable Long exportedByteCount) {
+		this.exportedByteCount = exportedByteCount;
+	}
+
+	@Nullable
+	public String getManifestStorageKey() {
+		return this.manifestStorageKey;
+	}
+
+	public void setManifestStorageKey(@Nullable String manifestStorageKey) {
+		this.manifestStorageKey = manifestStorageKey;
+	}
+
+	@Nullable
+	public String getErrorMessage() {
+		return this.errorMessage;
+	}
+
+	public void setErrorMessage(@Nullable String errorMessage) {
+		this.errorMessage = errorMessage;
+	}
+
+	@Nullable
+	public Instant getStartedAt() {
+		return this.startedAt;
+	}
+
+	public void setStartedAt(@Nullable Instant startedAt) {
+		this.startedAt = startedAt;
+	}
+
+	@Nullable
+	public Instant getHeartbeatAt() {
+		return this.heartbeatAt;
+	}
+
+	public void setHeartbeatAt(@Nullable Instant heartbeatAt) {
+		this.heartbeatAt = heartbeatAt;
+	}
+
+	@Nullable
+	public Instant getCompletedAt() {
+		return this.completedAt;
+	}
+
+	public void setCompletedAt(@Nullable Instant completedAt) {
+		this.completedAt = completedAt;
+	}
+
+	@Nullable
+	public Instant getCreated() {
+		return this.created;
+	}
+
+	public void setCreated(@Nullable Instant created) {
+		this.created = created;
+	}
+
+	@Nullable
+	public Instant getLastUpdated() {
+		return this.lastUpdated;
+	}
+
+	public void setLastUpdated(@Nullable Instant lastUpdated) {
+		this.lastUpdated = lastUpdated;
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cobaltplatform.api.model.db;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@NotThreadSafe
+public class StudyExportFile {
+	@Nullable
+	private UUID studyExportId;
+	@Nullable
+	private UUID fileUploadId;
+	@Nullable
+	private Boolean exported;
+	@Nullable
+	private String username;
+	@Nullable
+	private Boolean passiveData;
+	@Nullable
+	private String storageKey;
+	@Nullable
+	private Long sourceByteCount;
+	@Nullable
+	private Long exportedByteCount;
+	@Nullable
+	private String errorMessage;
+	@Nullable
+	private Instant created;
+	@Nullable
+	private Instant lastUpdated;
+
+	@Nullable
+	public UUID getStudyExportId() {
+		return this.studyExportId;
+	}
+
+	public void setStudyExportId(@Nullable UUID studyExportId) {
+		this.studyExportId = studyExportId;
+	}
+
+	@Nullable
+	public UUID getFileUploadId() {
+		return this.fileUploadId;
+	}
+
+	public void setFileUploadId(@Nullable UUID fileUploadId) {
+		this.fileUploadId = fileUploadId;
+	}
+
+	@Nullable
+	public Boolean getExported() {
+		return this.exported;
+	}
+
+	public void setExported(@Nullable Boolean exported) {
+		this.exported = exported;
+	}
+
+	@Nullable
+	public String getUsername() {
+		return this.username;
+	}
+
+	public void setUsername(@Nullable String username) {
+		this.username = username;
+	}
+
+	@Nullable
+	public Boolean getPassiveData() {
+		return this.passiveData;
+	}
+
+	public void setPassiveData(@Nullable Boolean passiveData) {
+		this.passiveData = passiveData;
+	}
+
+	@Nullable
+	public String getStorageKey() {
+		return this.storageKey;
+	}
+
+	public void setStorageKey(@Nullable String storageKey) {
+		this.storageKey = storageKey;
+	}
+
+	@Nullable
+	public Long getSourceByteCount() {
+		return this.sourceByteCount;
+	}
+
+	public void setSourceByteCount(@Nullable Long sourceByteCount) {
+		this.sourceByteCount = sourceByteCount;
+	}
+
+	@Nullable
+	public Long getExportedByteCount() {
+		return this.exportedByteCount;
+	}
+
+	public void setExportedByteCount(@Nullable Long exportedByteCount) {
+		this.exportedByteCount = exportedByteCount;
+	}
+
+	@Nullable
+	public String getErrorMessage() {
+		return this.errorMessage;
+	}
+
+	public void setErrorMessage(@Nullable String errorMessage) {
+		this.errorMessage = errorMessage;
+	}
+
+	@Nullable
+	public Instant getCreated() {
+		return this.created;
+	}
+
+	public void setCreated(@Nullable Instant created) {
+		this.created = created;
+	}
+
+	@Nullable
+	public Instant getLastUpdated() {
+		return this.lastUpdated;
+	}
+
+	public void setLastUpdated(@Nullable Instant lastUpdated) {
+		this.lastUpdated = lastUpdated;
+	}
+}
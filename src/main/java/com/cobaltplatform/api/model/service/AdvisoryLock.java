@@ -34,7 +34,10 @@ public enum AdvisoryLock {
 	EPIC_FHIR_PROVIDER_AVAILABILITY_SYNC(104),
 	ANALYTICS_SYNC(105),
 	PATIENT_ORDER_IMPORT_SYNC(106),
-	DATA_SYNC(107);
+	DATA_SYNC(107),
+	ANALYTICS_ROLLUP(108),
+	ANALYTICS_MATERIALIZED_VIEW_REFRESH(109),
+	TABLE_PARTITION_MAINTENANCE(110);
 
 	@Nonnull
 	private final Integer key;
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.cobaltplatform.api.model.service;
+
+import com.cobaltplatform.api.model.db.Account;
+import com.cobaltplatform.api.model.db.Address;
+import com.cobaltplatform.api.model.db.PatientOrderCareType;
+import com.cobaltplatform.api.model.db.PatientOrderDiagnosis;
+import com.cobaltplatform.api.model.db.PatientOrderFocusType;
+import com.cobaltplatform.api.model.db.PatientOrderMedication;
+import com.cobaltplatform.api.model.db.PatientOrderNote;
+import com.cobaltplatform.api.model.db.PatientOrderOutreach;
+import com.cobaltplatform.api.model.db.PatientOrderScheduledOutreach;
+import com.cobaltplatform.api.model.db.PatientOrderTriage;
+import com.cobaltplatform.api.model.db.PatientOrderVoicemailTask;
+import com.cobaltplatform.api.model.db.ScreeningSession;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Everything a {@link com.cobaltplatform.api.model.api.response.PatientOrderApiResponse} needs beyond the order row itself,
+ * loaded once for a set of orders so response assembly does not query per-order.
+ *
+ * @author Transmogrify, LLC.
+ */
+@ThreadSafe
+public class PatientOrderRelations {
+	@Nonnull
+	private final Map<UUID, Address> addressesByAddressId;
+	@Nonnull
+	private final Map<UUID, Account> accountsByAccountId;
+	@Nonnull
+	private final Map<UUID, ScreeningSession> screeningSessionsByScreeningSessionId;
+	@Nonnull
+	private final Map<UUID, ScreeningSessionResult> screeningSessionResultsByScreeningSessionId;
+	@Nonnull
+	private final Map<UUID, List<PatientOrderDiagnosis>> patientOrderDiagnosesByPatientOrderId;
+	@Nonnull
+	private final Map<UUID, List<PatientOrderMedication>> patientOrderMedicationsByPatientOrderId;
+	@Nonnull
+	private final Map<UUID, List<PatientOrderNote>> patientOrderNotesByPatientOrderId;
+	@Nonnull
+	private final Map<UUID, List<PatientOrderOutreach>> patientOrderOutreachesByPatientOrderId;
+	@Nonnull
+	private final Map<UUID, List<PatientOrderVoicemailTask>> patientOrderVoicemailTasksByPatientOrderId;
+	@Nonnull
+	private final Map<UUID, List<PatientOrderScheduledOutreach>> patientOrderScheduledOutreachesByPatientOrderId;
+	@Nonnull
+	private final Map<UUID, List<PatientOrderTriage>> activePatientOrderTriagesByPatientOrderId;
+	@Nonnull
+	private final List<PatientOrderFocusType> patientOrderFocusTypes;
+	@Nonnull
+	private final List<PatientOrderCareType> patientOrderCareTypes;
+
+	protected PatientOrderRelations(@Nonnull Builder builder) {
+		requireNonNull(builder);
+
+		this.addressesByAddressId = Map.copyOf(builder.addressesByAddressId);
+		this.accountsByAccountId = Map.copyOf(builder.accountsByAccountId);
+		this.screeningSessionsByScreeningSessionId = Map.copyOf(builder.screeningSessionsByScreeningSessionId);
+		this.screeningSessionResultsByScreeningSessionId = Map.copyOf(builder.screeningSessionResultsByScreeningSessionId);
+		this.patientOrderDiagnosesByPatientOrderId = copyOf(builder.patientOrderDiagnosesByPatientOrderId);
+		this.patientOrderMedicationsByPatientOrderId = copyOf(builder.patientOrderMedicationsByPatientOrderId);
+		this.patientOrderNotesByPatientOrderId = copyOf(builder.patientOrderNotesByPatientOrderId);
+		this.patientOrderOutreachesByPatientOrderId = copyOf(builder.patientOrderOutreachesByPatientOrderId);
+		this.patientOrderVoicemailTasksByPatientOrderId = copyOf(builder.patientOrderVoicemailTasksByPatientOrderId);
+		this.patientOrderScheduledOutreachesByPatientOrderId = copyOf(builder.patientOrderScheduledOutreachesByPatientOrderId);
+		this.activePatientOrderTriagesByPatientOrderId = copyOf(builder.activePatientOrderTriagesByPatientOrderId);
+		this.patientOrderFocusTypes = List.copyOf(builder.patientOrderFocusTypes);
+		this.patientOrderCareTypes = List.copyOf(builder.patientOrderCareTypes);
+	}
+
+	@Nonnull
+	protected static <T> Map<UUID, List<T>> copyOf(@Nonnull Map<UUID, List<T>> valuesByKey) {
+		requireNonNull(valuesByKey);
+
+		Map<UUID, List<T>> copy = new LinkedHashMap<>(valuesByKey.size());
+
+		for (Entry<UUID, List<T>> entry : valuesByKey.entrySet())
+			copy.put(entry.getKey(), entry.getValue() == null ? List.of() : List.copyOf(entry.getValue()));
+
+		return copy;
+	}
+
+	@Nullable
+	public Address getAddressByAddressId(@Nullable UUID addressId) {
+		return addressId == null ? null : this.addressesByAddressId.get(addressId);
+	}
+
+	@Nullable
+	public Account getAccountByAccountId(@Nullable UUID accountId) {
+		return accountId == null ? null : this.accountsByAccountId.get(accountId);
+	}
+
+	@Nullable
+	public ScreeningSession getScreeningSessionByScreeningSessionId(@Nullable UUID screeningSessionId) {
+		return screeningSessionId == null ? null : this.screeningSessionsByScreeningSessionId.get(screeningSessionId);
+	}
+
+	@Nullable
+	public ScreeningSessionResult getScreeningSessionResultByScreeningSessionId(@Nullable UUID screeningSessionId) {
+		return screeningSessionId == null ? null : this.screeningSessionResultsByScreeningSessionId.get(screeningSessionId);
+	}
+
+	@Nonnull
+	public List<PatientOrderDiagnosis> getPatientOrderDiagnosesByPatientOrderId(@Nullable UUID patientOrderId) {
+		return patientOrderId == null ? List.of() : this.patientOrderDiagnosesByPatientOrderId.getOrDefault(patientOrderId, List.of());
+	}
+
+	@Nonnull
+	public List<PatientOrderMedication> getPatientOrderMedicationsByPatientOrderId(@Nullable UUID patientOrderId) {
+		return patientOrderId == null ? List.of() : this.patientOrderMedicationsByPatientOrderId.getOrDefault(patientOrderId, List.of());
+	}
+
+	@Nonnull
+	public List<PatientOrderNote> getPatientOrderNotesByPatientOrderId(@Nullable UUID patientOrderId) {
+		return patientOrderId == null ? List.of() : this.patientOrderNotesByPatientOrderId.getOrDefault(patientOrderId, List.of());
+	}
+
+	@Nonnull
+	public List<PatientOrderOutreach> getPatientOrderOutreachesByPatientOrderId(@Nullable UUID patientOrderId) {
+		return patientOrderId == null ? List.of() : this.patientOrderOutreachesByPatientOrderId.getOrDefault(patientOrderId, List.of());
+	}
+
+	@Nonnull
+	public List<PatientOrderVoicemailTask> getPatientOrderVoicemailTasksByPatientOrderId(@Nullable UUID patientOrderId) {
+		return patientOrderId == null ? List.of() : this.patientOrderVoicemailTasksByPatientOrderId.getOrDefault(patientOrderId, List.of());
+	}
+
+	@Nonnull
+	public List<PatientOrderScheduledOutreach> getPatientOrderScheduledOutreachesByPatientOrderId(@Nullable UUID patientOrderId) {
+		return patientOrderId == null ? List.of() : this.patientOrderScheduledOutreachesByPatientOrderId.getOrDefault(patientOrderId, List.of());
+	}
+
+	@Nonnull
+	public List<PatientOrderTriage> getActivePatientOrderTriagesByPatientOrderId(@Nullable UUID patientOrderId) {
+		return patientOrderId == null ? List.of() : this.activePatientOrderTriagesByPatientOrderId.getOrDefault(patientOrderId, List.of());
+	}
+
+	@Nonnull
+	public List<PatientOrderFocusType> getPatientOrderFocusTypes() {
+		return this.patientOrderFocusTypes;
+	}
+
+	@Nonnull
+	public List<PatientOrderCareType> getPatientOrderCareTypes() {
+		return this.patientOrderCareTypes;
+	}
+
+	@NotThreadSafe
+	public static class Builder {
+		@Nonnull
+		private Map<UUID, Address> addressesByAddressId;
+		@Nonnull
+		private Map<UUID, Account> accountsByAccountId;
+		@Nonnull
+		private Map<UUID, ScreeningSession> screeningSessionsByScreeningSessionId;
+		@Nonnull
+		private Map<UUID, ScreeningSessionResult> screeningSessionResultsByScreeningSessionId;
+		@Nonnull
+		private Map<UUID, List<PatientOrderDiagnosis>> patientOrderDiagnosesByPatientOrderId;
+		@Nonnull
+		private Map<UUID, List<PatientOrderMedication>> patientOrderMedicationsByPatientOrderId;
+		@Nonnull
+		private Map<UUID, List<PatientOrderNote>> patientOrderNotesByPatientOrderId;
+		@Nonnull
+		private Map<UUID, List<PatientOrderOutreach>> patientOrderOutreachesByPatientOrderId;
+		@Nonnull
+		private Map<UUID, List<PatientOrderVoicemailTask>> patientOrderVoicemailTasksByPatientOrderId;
+		@Nonnull
+		private Map<UUID, List<PatientOrderScheduledOutreach>> patientOrderScheduledOutreachesByPatientOrderId;
+		@Nonnull
+		private Map<UUID, List<PatientOrderTriage>> activePatientOrderTriagesByPatientOrderId;
+		@Nonnull
+		private List<PatientOrderFocusType> patientOrderFocusTypes;
+		@Nonnull
+		private List<PatientOrderCareType> patientOrderCareTypes;
+
+		public Builder() {
+			this.addressesByAddressId = Map.of();
+			this.accountsByAccountId = Map.of();
+			this.screeningSessionsByScreeningSessionId = Map.of();
+			this.screeningSessionResultsByScreeningSessionId = Map.of();
+			this.patientOrderDiagnosesByPatientOrderId = Map.of();
+			this.patientOrderMedicationsByPatientOrderId = Map.of();
+			this.patientOrderNotesByPatientOrderId = Map.of();
+			this.patientOrderOutreachesByPatientOrderId = Map.of();
+			this.patientOrderVoicemailTasksByPatientOrderId = Map.of();
+			this.patientOrderScheduledOutreachesByPatientOrderId = Map.of();
+			this.activePatientOrderTriagesByPatientOrderId = Map.of();
+			this.patientOrderFocusTypes = List.of();
+			this.patientOrderCareTypes = List.of();
+		}
+
+		@Nonnull
+		public Builder addressesByAddressId(@Nonnull Map<UUID, Address> addressesByAddressId) {
+			requireNonNull(addressesByAddressId);
+			this.addressesByAddressId = addressesByAddressId;
+			return this;
+		}
+
+		@Nonnull
+		public Builder accountsByAccountId(@Nonnull Map<UUID, Account> accountsByAccountId) {
+			requireNonNull(accountsByAccountId);
+			this.accountsByAccountId = accountsByAccountId;
+			return this;
+		}
+
+		@Nonnull
+		public Builder screeningSessionsByScreeningSessionId(@Nonnull Map<UUID, ScreeningSession> screeningSessionsByScreeningSessionId) {
+			requireNonNull(screeningSessionsByScreeningSessionId);
+			this.screeningSessionsByScreeningSessionId = screeningSessionsByScreeningSessionId;
+			return this;
+		}
+
+		@Nonnull
+		public Builder screeningSessionResultsByScreeningSessionId(@Nonnull Map<UUID, ScreeningSessionResult> screeningSessionResultsByScreeningSessionId) {
+			requireNonNull(screeningSessionResultsByScreeningSessionId);
+			this.screeningSessionResultsByScreeningSessionId = screeningSessionResultsByScreeningSessionId;
+			return this;
+		}
+
+		@Nonnull
+		public Builder patientOrderDiagnosesByPatientOrderId(@Nonnull Map<UUID, List<PatientOrderDiagnosis>> patientOrderDiagnosesByPatientOrderId) {
+			requireNonNull(patientOrderDiagnosesByPatientOrderId);
+			this.patientOrderDiagnosesByPatientOrderId = patientOrderDiagnosesByPatientOrderId;
+			return this;
+		}
+
+		@Nonnull
+		public Builder patientOrderMedicationsByPatientOrderId(@Nonnull Map<UUID, List<PatientOrderMedication>> patientOrderMedicationsByPatientOrderId) {
+			requireNonNull(patientOrderMedicationsByPatientOrderId);
+			this.patientOrderMedicationsByPatientOrderId = patientOrderMedicationsByPatientOrderId;
+			return this;
+		}
+
+		@Nonnull
+		public Builder patientOrderNotesByPatientOrderId(@Nonnull Map<UUID, List<PatientOrderNote>> patientOrderNotesByPatientOrderId) {
+			requireNonNull(patientOrderNotesByPatientOrderId);
+			this.patientOrderNotesByPatientOrderId = patientOrderNotesByPatientOrderId;
+			return this;
+		}
+
+		@Nonnull
+		public Builder patientOrderOutreachesByPatientOrderId(@Nonnull Map<UUID, List<PatientOrderOutreach>> patientOrderOutreachesByPatientOrderId) {
+			requireNonNull(patientOrderOutreachesByPatientOrderId);
+			this.patientOrderOutreachesByPatientOrderId = patientOrderOutreachesByPatientOrderId;
+			return this;
+		}
+
+		@Nonnull
+		public Builder patientOrderVoicemailTasksByPatientOrderId(@Nonnull Map<UUID, List<PatientOrderVoicemailTask>> patientOrderVoicemailTasksByPatientOrderId) {
+			requireNonNull(patientOrderVoicemailTasksByPatientOrderId);
+			this.patientOrderVoicemailTasksByPatientOrderId = patientOrderVoicemailTasksByPatientOrderId;
+			return this;
+		}
+
+		@Nonnull
+		public Builder patientOrderScheduledOutreachesByPatientOrderId(@Nonnull Map<UUID, List<PatientOrderScheduledOutreach>> patientOrderScheduledOutreachesByPatientOrderId) {
+			requireNonNull(patientOrderScheduledOutreachesByPatientOrderId);
+			this.patientOrderScheduledOutreachesByPatientOrderId = patientOrderScheduledOutreachesByPatientOrderId;
+			return this;
+		}
+
+		@Nonnull
+		public Builder activePatientOrderTriagesByPatientOrderId(@Nonnull Map<UUID, List<PatientOrderTriage>> activePatientOrderTriagesByPatientOrderId) {
+			requireNonNull(activePatientOrderTriagesByPatientOrderId);
+			this.activePatientOrderTriagesByPatientOrderId = activePatientOrderTriagesByPatientOrderId;
+			return this;
+		}
+
+		@Nonnull
+		public Builder patientOrderFocusTypes(@Nonnull List<PatientOrderFocusType> patientOrderFocusTypes) {
+			requireNonNull(patientOrderFocusTypes);
+			this.patientOrderFocusTypes = patientOrderFocusTypes;
+			return this;
+		}
+
+		@Nonnull
+		public Builder patientOrderCareTypes(@Nonnull List<PatientOrderCareType> patientOrderCareTypes) {
+			requireNonNull(patientOrderCareTypes);
+			this.patientOrderCareTypes = patientOrderCareTypes;
+			return this;
+		}
+
+		@Nonnull
+		public PatientOrderRelations build() {
+			return new PatientOrderRelations(this);
+		}
+	}
+}
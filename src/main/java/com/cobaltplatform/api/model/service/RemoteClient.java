@@ -143,6 +143,12 @@ public class RemoteClient {
 		this.referringCampaign = referringCampaign;
 	}
 
+	// Shared by every request so its parse cache stays warm
+	@Nonnull
+	public static UserAgentParser getUserAgentParser() {
+		return USER_AGENT_PARSER;
+	}
+
 	@Nonnull
 	public static RemoteClient fromHttpServletRequest(@Nonnull HttpServletRequest httpServletRequest) {
 		requireNonNull(httpServletRequest);
@@ -0,0 +1,601 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.model.service;
+
+import com.cobaltplatform.api.model.db.AnalyticsNativeEventType.AnalyticsNativeEventTypeId;
+import com.cobaltplatform.api.model.db.Institution.InstitutionId;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Locale;
+import java.util.UUID;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An analytics native event that has already been validated and had sensitive data removed, ready to be written.
+ *
+ * @author Transmogrify, LLC.
+ */
+@Immutable
+public class ValidatedAnalyticsNativeEvent {
+	@Nonnull
+	private final UUID analyticsNativeEventId;
+	@Nonnull
+	private final AnalyticsNativeEventTypeId analyticsNativeEventTypeId;
+	@Nonnull
+	private final InstitutionId institutionId;
+	@Nonnull
+	private final UUID sessionId;
+	@Nonnull
+	private final Instant timestamp;
+	@Nonnull
+	private final String appName;
+	@Nonnull
+	private final String appVersion;
+	@Nonnull
+	private final String dataAsJson;
+	@Nonnull
+	private final String clientDeviceSupportedLocalesAsJson;
+	@Nullable
+	private final UUID clientDeviceId;
+	@Nullable
+	private final UUID accountId;
+	@Nullable
+	private final UUID referringMessageId;
+	@Nullable
+	private final String referringCampaign;
+	@Nullable
+	private final String webappUrl;
+	@Nullable
+	private final String clientDeviceOperatingSystemName;
+	@Nullable
+	private final String clientDeviceOperatingSystemVersion;
+	@Nullable
+	private final Locale clientDeviceLocale;
+	@Nullable
+	private final ZoneId clientDeviceTimeZone;
+	@Nullable
+	private final String ipAddress;
+	@Nullable
+	private final String userAgent;
+	@Nullable
+	private final String userAgentDeviceFamily;
+	@Nullable
+	private final String userAgentBrowserFamily;
+	@Nullable
+	private final String userAgentBrowserVersion;
+	@Nullable
+	private final String userAgentOperatingSystemName;
+	@Nullable
+	private final String userAgentOperatingSystemVersion;
+	@Nullable
+	private final Integer screenColorDepth;
+	@Nullable
+	private final Integer screenPixelDepth;
+	@Nullable
+	private final Double screenWidth;
+	@Nullable
+	private final Double screenHeight;
+	@Nullable
+	private final String screenOrientation;
+	@Nullable
+	private final Double windowDevicePixelRatio;
+	@Nullable
+	private final Double windowWidth;
+	@Nullable
+	private final Double windowHeight;
+	@Nullable
+	private final Integer navigatorMaxTouchPoints;
+	@Nullable
+	private final String documentVisibilityState;
+
+	protected ValidatedAnalyticsNativeEvent(@Nonnull Builder builder) {
+		requireNonNull(builder);
+
+		this.analyticsNativeEventId = builder.analyticsNativeEventId;
+		this.analyticsNativeEventTypeId = builder.analyticsNativeEventTypeId;
+		this.institutionId = builder.institutionId;
+		this.sessionId = builder.sessionId;
+		this.timestamp = builder.timestamp;
+		this.appName = builder.appName;
+		this.appVersion = builder.appVersion;
+		this.dataAsJson = builder.dataAsJson;
+		this.clientDeviceSupportedLocalesAsJson = builder.clientDeviceSupportedLocalesAsJson;
+		this.clientDeviceId = builder.clientDeviceId;
+		this.accountId = builder.accountId;
+		this.referringMessageId = builder.referringMessageId;
+		this.referringCampaign = builder.referringCampaign;
+		this.webappUrl = builder.webappUrl;
+		this.clientDeviceOperatingSystemName = builder.clientDeviceOperatingSystemName;
+		this.clientDeviceOperatingSystemVersion = builder.clientDeviceOperatingSystemVersion;
+		this.clientDeviceLocale = builder.clientDeviceLocale;
+		this.clientDeviceTimeZone = builder.clientDeviceTimeZone;
+		this.ipAddress = builder.ipAddress;
+		this.userAgent = builder.userAgent;
+		this.userAgentDeviceFamily = builder.userAgentDeviceFamily;
+		this.userAgentBrowserFamily = builder.userAgentBrowserFamily;
+		this.userAgentBrowserVersion = builder.userAgentBrowserVersion;
+		this.userAgentOperatingSystemName = builder.userAgentOperatingSystemName;
+		this.userAgentOperatingSystemVersion = builder.userAgentOperatingSystemVersion;
+		this.screenColorDepth = builder.screenColorDepth;
+		this.screenPixelDepth = builder.screenPixelDepth;
+		this.screenWidth = builder.screenWidth;
+		this.screenHeight = builder.screenHeight;
+		this.screenOrientation = builder.screenOrientation;
+		this.windowDevicePixelRatio = builder.windowDevicePixelRatio;
+		this.windowWidth = builder.windowWidth;
+		this.windowHeight = builder.windowHeight;
+		this.navigatorMaxTouchPoints = builder.navigatorMaxTouchPoints;
+		this.documentVisibilityState = builder.documentVisibilityState;
+	}
+
+	@Override
+	public String toString() {
+		return format("%s{analyticsNativeEventId=%s, analyticsNativeEventTypeId=%s, institutionId=%s, sessionId=%s, timestamp=%s}",
+				getClass().getSimpleName(), getAnalyticsNativeEventId(), getAnalyticsNativeEventTypeId(), getInstitutionId(),
+				getSessionId(), getTimestamp());
+	}
+
+	@Nonnull
+	public UUID getAnalyticsNativeEventId() {
+		return this.analyticsNativeEventId;
+	}
+
+	@Nonnull
+	public AnalyticsNativeEventTypeId getAnalyticsNativeEventTypeId() {
+		return this.analyticsNativeEventTypeId;
+	}
+
+	@Nonnull
+	public InstitutionId getInstitutionId() {
+		return this.institutionId;
+	}
+
+	@Nonnull
+	public UUID getSessionId() {
+		return this.sessionId;
+	}
+
+	@Nonnull
+	public Instant getTimestamp() {
+		return this.timestamp;
+	}
+
+	@Nonnull
+	public String getAppName() {
+		return this.appName;
+	}
+
+	@Nonnull
+	public String getAppVersion() {
+		return this.appVersion;
+	}
+
+	@Nonnull
+	public String getDataAsJson() {
+		return this.dataAsJson;
+	}
+
+	@Nonnull
+	public String getClientDeviceSupportedLocalesAsJson() {
+		return this.clientDeviceSupportedLocalesAsJson;
+	}
+
+	@Nullable
+	public UUID getClientDeviceId() {
+		return this.clientDeviceId;
+	}
+
+	@Nullable
+	public UUID getAccountId() {
+		return this.accountId;
+	}
+
+	@Nullable
+	public UUID getReferringMessageId() {
+		return this.referringMessageId;
+	}
+
+	@Nullable
+	public String getReferringCampaign() {
+		return this.referringCampaign;
+	}
+
+	@Nullable
+	public String getWebappUrl() {
+		return this.webappUrl;
+	}
+
+	@Nullable
+	public String getClientDeviceOperatingSystemName() {
+		return this.clientDeviceOperatingSystemName;
+	}
+
+	@Nullable
+	public String getClientDeviceOperatingSystemVersion() {
+		return this.clientDeviceOperatingSystemVersion;
+	}
+
+	@Nullable
+	public Locale getClientDeviceLocale() {
+		return this.clientDeviceLocale;
+	}
+
+	@Nullable
+	public ZoneId getClientDeviceTimeZone() {
+		return this.clientDeviceTimeZone;
+	}
+
+	@Nullable
+	public String getIpAddress() {
+		return this.ipAddress;
+	}
+
+	@Nullable
+	public String getUserAgent() {
+		return this.userAgent;
+	}
+
+	@Nullable
+	public String getUserAgentDeviceFamily() {
+		return this.userAgentDeviceFamily;
+	}
+
+	@Nullable
+	public String getUserAgentBrowserFamily() {
+		return this.userAgentBrowserFamily;
+	}
+
+	@Nullable
+	public String getUserAgentBrowserVersion() {
+		return this.userAgentBrowserVersion;
+	}
+
+	@Nullable
+	public String getUserAgentOperatingSystemName() {
+		return this.userAgentOperatingSystemName;
+	}
+
+	@Nullable
+	public String getUserAgentOperatingSystemVersion() {
+		return this.userAgentOperatingSystemVersion;
+	}
+
+	@Nullable
+	public Integer getScreenColorDepth() {
+		return this.screenColorDepth;
+	}
+
+	@Nullable
+	public Integer getScreenPixelDepth() {
+		return this.screenPixelDepth;
+	}
+
+	@Nullable
+	public Double getScreenWidth() {
+		return this.screenWidth;
+	}
+
+	@Nullable
+	public Double getScreenHeight() {
+		return this.screenHeight;
+	}
+
+	@Nullable
+	public String getScreenOrientation() {
+		return this.screenOrientation;
+	}
+
+	@Nullable
+	public Double getWindowDevicePixelRatio() {
+		return this.windowDevicePixelRatio;
+	}
+
+	@Nullable
+	public Double getWindowWidth() {
+		return this.windowWidth;
+	}
+
+	@Nullable
+	public Double getWindowHeight() {
+		return this.windowHeight;
+	}
+
+	@Nullable
+	public Integer getNavigatorMaxTouchPoints() {
+		return this.navigatorMaxTouchPoints;
+	}
+
+	@Nullable
+	public String getDocumentVisibilityState() {
+		return this.documentVisibilityState;
+	}
+
+	@NotThreadSafe
+	public static class Builder {
+		@Nonnull
+		private final UUID analyticsNativeEventId;
+		@Nonnull
+		private final AnalyticsNativeEventTypeId analyticsNativeEventTypeId;
+		@Nonnull
+		private final InstitutionId institutionId;
+		@Nonnull
+		private final UUID sessionId;
+		@Nonnull
+		private final Instant timestamp;
+		@Nonnull
+		private final String appName;
+		@Nonnull
+		private final String appVersion;
+		@Nonnull
+		private final String dataAsJson;
+		@Nonnull
+		private final String clientDeviceSupportedLocalesAsJson;
+		@Nullable
+		private UUID clientDeviceId;
+		@Nullable
+		private UUID accountId;
+		@Nullable
+		private UUID referringMessageId;
+		@Nullable
+		private String referringCampaign;
+		@Nullable
+		private String webappUrl;
+		@Nullable
+		private String clientDeviceOperatingSystemName;
+		@Nullable
+		private String clientDeviceOperatingSystemVersion;
+		@Nullable
+		private Locale clientDeviceLocale;
+		@Nullable
+		private ZoneId clientDeviceTimeZone;
+		@Nullable
+		private String ipAddress;
+		@Nullable
+		private String userAgent;
+		@Nullable
+		private String userAgentDeviceFamily;
+		@Nullable
+		private String userAgentBrowserFamily;
+		@Nullable
+		private String userAgentBrowserVersion;
+		@Nullable
+		private String userAgentOperatingSystemName;
+		@Nullable
+		private String userAgentOperatingSystemVersion;
+		@Nullable
+		private Integer screenColorDepth;
+		@Nullable
+		private Integer screenPixelDepth;
+		@Nullable
+		private Double screenWidth;
+		@Nullable
+		private Double screenHeight;
+		@Nullable
+		private String screenOrientation;
+		@Nullable
+		private Double windowDevicePixelRatio;
+		@Nullable
+		private Double windowWidth;
+		@Nullable
+		private Double windowHeight;
+		@Nullable
+		private Integer navigatorMaxTouchPoints;
+		@Nullable
+		private String documentVisibilityState;
+
+		public Builder(@Nonnull UUID analyticsNativeEventId,
+									 @Nonnull AnalyticsNativeEventTypeId analyticsNativeEventTypeId,
+									 @Nonnull InstitutionId institutionId,
+									 @Nonnull UUID sessionId,
+									 @Nonnull Instant timestamp,
+									 @Nonnull String appName,
+									 @Nonnull String appVersion,
+									 @Nonnull String dataAsJson,
+									 @Nonnull String clientDeviceSupportedLocalesAsJson) {
+			requireNonNull(analyticsNativeEventId);
+			requireNonNull(analyticsNativeEventTypeId);
+			requireNonNull(institutionId);
+			requireNonNull(sessionId);
+			requireNonNull(timestamp);
+			requireNonNull(appName);
+			requireNonNull(appVersion);
+			requireNonNull(dataAsJson);
+			requireNonNull(clientDeviceSupportedLocalesAsJson);
+
+			this.analyticsNativeEventId = analyticsNativeEventId;
+			this.analyticsNativeEventTypeId = analyticsNativeEventTypeId;
+			this.institutionId = institutionId;
+			this.sessionId = sessionId;
+			this.timestamp = timestamp;
+			this.appName = appName;
+			this.appVersion = appVersion;
+			this.dataAsJson = dataAsJson;
+			this.clientDeviceSupportedLocalesAsJson = clientDeviceSupportedLocalesAsJson;
+		}
+
+		@Nonnull
+		public Builder clientDeviceId(@Nullable UUID clientDeviceId) {
+			this.clientDeviceId = clientDeviceId;
+			return this;
+		}
+
+		@Nonnull
+		public Builder accountId(@Nullable UUID accountId) {
+			this.accountId = accountId;
+			return this;
+		}
+
+		@Nonnull
+		public Builder referringMessageId(@Nullable UUID referringMessageId) {
+			this.referringMessageId = referringMessageId;
+			return this;
+		}
+
+		@Nonnull
+		public Builder referringCampaign(@Nullable String referringCampaign) {
+			this.referringCampaign = referringCampaign;
+			return this;
+		}
+
+		@Nonnull
+		public Builder webappUrl(@Nullable String webappUrl) {
+			this.webappUrl = webappUrl;
+			return this;
+		}
+
+		@Nonnull
+		public Builder clientDeviceOperatingSystemName(@Nullable String clientDeviceOperatingSystemName) {
+			this.clientDeviceOperatingSystemName = clientDeviceOperatingSystemName;
+			return this;
+		}
+
+		@Nonnull
+		public Builder clientDeviceOperatingSystemVersion(@Nullable String clientDeviceOperatingSystemVersion) {
+			this.clientDeviceOperatingSystemVersion = clientDeviceOperatingSystemVersion;
+			return this;
+		}
+
+		@Nonnull
+		public Builder clientDeviceLocale(@Nullable Locale clientDeviceLocale) {
+			this.clientDeviceLocale = clientDeviceLocale;
+			return this;
+		}
+
+		@Nonnull
+		public Builder clientDeviceTimeZone(@Nullable ZoneId clientDeviceTimeZone) {
+			this.clientDeviceTimeZone = clientDeviceTimeZone;
+			return this;
+		}
+
+		@Nonnull
+		public Builder ipAddress(@Nullable String ipAddress) {
+			this.ipAddress = ipAddress;
+			return this;
+		}
+
+		@Nonnull
+		public Builder userAgent(@Nullable String userAgent) {
+			this.userAgent = userAgent;
+			return this;
+		}
+
+		@Nonnull
+		public Builder userAgentDeviceFamily(@Nullable String userAgentDeviceFamily) {
+			this.userAgentDeviceFamily = userAgentDeviceFamily;
+			return this;
+		}
+
+		@Nonnull
+		public Builder userAgentBrowserFamily(@Nullable String userAgentBrowserFamily) {
+			this.userAgentBrowserFamily = userAgentBrowserFamily;
+			return this;
+		}
+
+		@Nonnull
+		public Builder userAgentBrowserVersion(@Nullable String userAgentBrowserVersion) {
+			this.userAgentBrowserVersion = userAgentBrowserVersion;
+			return this;
+		}
+
+		@Nonnull
+		public Builder userAgentOperatingSystemName(@Nullable String userAgentOperatingSystemName) {
+			this.userAgentOperatingSystemName = userAgentOperatingSystemName;
+			return this;
+		}
+
+		@Nonnull
+		public Builder userAgentOperatingSystemVersion(@Nullable String userAgentOperatingSystemVersion) {
+			this.userAgentOperatingSystemVersion = userAgentOperatingSystemVersion;
+			return this;
+		}
+
+		@Nonnull
+		public Builder screenColorDepth(@Nullable Integer screenColorDepth) {
+			this.screenColorDepth = screenColorDepth;
+			return this;
+		}
+
+		@Nonnull
+		public Builder screenPixelDepth(@Nullable Integer screenPixelDepth) {
+			this.screenPixelDepth = screenPixelDepth;
+			return this;
+		}
+
+		@Nonnull
+		public Builder screenWidth(@Nullable Double screenWidth) {
+			this.screenWidth = screenWidth;
+			return this;
+		}
+
+		@Nonnull
+		public Builder screenHeight(@Nullable Double screenHeight) {
+			this.screenHeight = screenHeight;
+			return this;
+		}
+
+		@Nonnull
+		public Builder screenOrientation(@Nullable String screenOrientation) {
+			this.screenOrientation = screenOrientation;
+			return this;
+		}
+
+		@Nonnull
+		public Builder windowDevicePixelRatio(@Nullable Double windowDevicePixelRatio) {
+			this.windowDevicePixelRatio = windowDevicePixelRatio;
+			return this;
+		}
+
+		@Nonnull
+		public Builder windowWidth(@Nullable Double windowWidth) {
+			this.windowWidth = windowWidth;
+			return this;
+		}
+
+		@Nonnull
+		public Builder windowHeight(@Nullable Double windowHeight) {
+			this.windowHeight = windowHeight;
+			return this;
+		}
+
+		@Nonnull
+		public Builder navigatorMaxTouchPoints(@Nullable Integer navigatorMaxTouchPoints) {
+			this.navigatorMaxTouchPoints = navigatorMaxTouchPoints;
+			return this;
+		}
+
+		@Nonnull
+		public Builder documentVisibilityState(@Nullable String documentVisibilityState) {
+			this.documentVisibilityState = documentVisibilityState;
+			return this;
+		}
+
+		@Nonnull
+		public ValidatedAnalyticsNativeEvent build() {
+			return new ValidatedAnalyticsNativeEvent(this);
+		}
+	}
+}
@@ -111,6 +111,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -241,6 +242,27 @@ public class AccountService {
 		return getDatabase().queryForObject("SELECT * FROM v_account WHERE account_id=?", Account.class, accountId);
 	}
 
+	@Nonnull
+	public Map<UUID, Account> findAccountsByIds(@Nonnull Set<UUID> accountIds) {
+		requireNonNull(accountIds);
+
+		if (accountIds.isEmpty())
+			return Map.of();
+
+		List<Account> accounts = getDatabase().queryForList("""
+				SELECT *
+				FROM v_account
+				WHERE account_id = ANY (CAST(? AS UUID[]))
+				""", Account.class, (Object) accountIds.toArray(new UUID[0]));
+
+		Map<UUID, Account> accountsById = new LinkedHashMap<>(accounts.size());
+
+		for (Account account : accounts)
+			accountsById.put(account.getAccountId(), account);
+
+		return accountsById;
+	}
+
 	@Nonnull
 	public Optional<Account> findAccountByAccessToken(@Nullable String accessToken) {
 		accessToken = trimToNull(accessToken);
@@ -0,0 +1,471 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.service;
+
+import com.cobaltplatform.api.Configuration;
+import com.cobaltplatform.api.context.CurrentContext;
+import com.cobaltplatform.api.context.CurrentContextExecutor;
+import com.cobaltplatform.api.error.ErrorReporter;
+import com.cobaltplatform.api.model.db.AnalyticsMaterializedView;
+import com.cobaltplatform.api.model.db.Institution.InstitutionId;
+import com.cobaltplatform.api.model.service.AdvisoryLock;
+import com.cobaltplatform.api.util.db.DatabaseProvider;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.pyranid.Database;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Refreshes the analytics materialized views registered in {@code analytics_materialized_view} on a schedule.
+ * <p>
+ * Each chain of dependent views is refreshed in order on its own thread, and independent chains run concurrently.
+ * A view is skipped if no {@code analytics_native_event} rows have arrived since its last successful refresh.
+ *
+ * @author Transmogrify, LLC.
+ */
+@Singleton
+@ThreadSafe
+public class AnalyticsMaterializedViewService implements AutoCloseable {
+	@Nonnull
+	private static final Long BACKGROUND_TASK_INTERVAL_IN_SECONDS;
+	@Nonnull
+	private static final Long BACKGROUND_TASK_INITIAL_DELAY_IN_SECONDS;
+	@Nonnull
+	private static final Integer REFRESH_CONCURRENCY;
+	@Nonnull
+	private static final Long REFRESH_TIMEOUT_IN_MINUTES;
+	@Nonnull
+	private static final Pattern MATERIALIZED_VIEW_NAME_PATTERN;
+	@Nonnull
+	private final Provider<BackgroundRefreshTask> backgroundRefreshTaskProvider;
+	@Nonnull
+	private final Provider<SystemService> systemServiceProvider;
+	@Nonnull
+	private final DatabaseProvider databaseProvider;
+	@Nonnull
+	private final Logger logger;
+	@Nonnull
+	private final Object backgroundTaskLock;
+	@Nonnull
+	private Boolean backgroundTaskStarted;
+	@Nullable
+	private ScheduledExecutorService backgroundTaskExecutorService;
+
+	static {
+		BACKGROUND_TASK_INTERVAL_IN_SECONDS = 60L * 15L;
+		BACKGROUND_TASK_INITIAL_DELAY_IN_SECONDS = 30L;
+		REFRESH_CONCURRENCY = 4;
+		REFRESH_TIMEOUT_IN_MINUTES = 60L;
+		MATERIALIZED_VIEW_NAME_PATTERN = Pattern.compile("^[a-z_][a-z0-9_]*$");
+	}
+
+	@Inject
+	public AnalyticsMaterializedViewService(@Nonnull Provider<BackgroundRefreshTask> backgroundRefreshTaskProvider,
+																					@Nonnull Provider<SystemService> systemServiceProvider,
+																					@Nonnull DatabaseProvider databaseProvider) {
+		requireNonNull(backgroundRefreshTaskProvider);
+		requireNonNull(systemServiceProvider);
+		requireNonNull(databaseProvider);
+
+		this.backgroundRefreshTaskProvider = backgroundRefreshTaskProvider;
+		this.systemServiceProvider = systemServiceProvider;
+		this.databaseProvider = databaseProvider;
+		this.backgroundTaskLock = new Object();
+		this.backgroundTaskStarted = false;
+		this.logger = LoggerFactory.getLogger(getClass());
+	}
+
+	@Override
+	public void close() throws Exception {
+		stopBackgroundTask();
+	}
+
+	@Nonnull
+	public Boolean startBackgroundTask() {
+		synchronized (getBackgroundTaskLock()) {
+			if (isBackgroundTaskStarted())
+				return false;
+
+			getLogger().trace("Starting analytics materialized view refresh background task...");
+
+			this.backgroundTaskExecutorService = Executors.newScheduledThreadPool(1, new ThreadFactoryBuilder().setNameFormat("analytics-materialized-view-background-task").build());
+			this.backgroundTaskStarted = true;
+
+			getBackgroundTaskExecutorService().get().scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						getBackgroundRefreshTaskProvider().get().run();
+					} catch (Exception e) {
+						getLogger().warn(format("Unable to complete analytics materialized view refresh background task - will retry in %s seconds", String.valueOf(getBackgroundTaskIntervalInSeconds())), e);
+					}
+				}
+			}, getBackgroundTaskInitialDelayInSeconds(), getBackgroundTaskIntervalInSeconds(), TimeUnit.SECONDS);
+
+			getLogger().trace("Analytics materialized view refresh background task started.");
+
+			return true;
+		}
+	}
+
+	@Nonnull
+	public Boolean stopBackgroundTask() {
+		synchronized (getBackgroundTaskLock()) {
+			if (!isBackgroundTaskStarted())
+				return false;
+
+			getLogger().trace("Stopping analytics materialized view refresh background task...");
+
+			getBackgroundTaskExecutorService().get().shutdownNow();
+			this.backgroundTaskExecutorService = null;
+			this.backgroundTaskStarted = false;
+
+			getLogger().trace("Analytics materialized view refresh background task stopped.");
+
+			return true;
+		}
+	}
+
+	@Nonnull
+	public List<AnalyticsMaterializedView> findAnalyticsMaterializedViews() {
+		return getDatabase().queryForList("""
+				SELECT *
+				FROM analytics_materialized_view
+				ORDER BY display_order
+				""", AnalyticsMaterializedView.class);
+	}
+
+	/**
+	 * Time since the data in the view was current, i.e. since the start of its last successful refresh.
+	 */
+	@Nonnull
+	public Optional<Duration> stalenessForAnalyticsMaterializedView(@Nonnull AnalyticsMaterializedView analyticsMaterializedView) {
+		requireNonNull(analyticsMaterializedView);
+
+		if (analyticsMaterializedView.getLastRefreshedAt() == null || analyticsMaterializedView.getLastRefreshDurationInMilliseconds() == null)
+			return Optional.empty();
+
+		Instant currentAsOf = analyticsMaterializedView.getLastRefreshedAt().minusMillis(analyticsMaterializedView.getLastRefreshDurationInMilliseconds());
+		return Optional.of(Duration.between(currentAsOf, Instant.now()));
+	}
+
+	/**
+	 * Refreshes all registered views, unless another node is already doing so.
+	 * <p>
+	 * The advisory lock is scoped to a coordinating transaction which stays open while the views are refreshed on
+	 * worker threads, so the lock is released automatically if this node goes away mid-refresh.
+	 *
+	 * @param force if {@code true}, refresh even if no new events have arrived
+	 * @return {@code true} if the lock was acquired and a refresh pass was performed
+	 */
+	@Nonnull
+	public Boolean refreshAnalyticsMaterializedViews(@Nonnull Boolean force) {
+		requireNonNull(force);
+
+		return getDatabase().transaction(() -> {
+			return getSystemService().performTransactionAdvisoryLockOperationIfAvailable(AdvisoryLock.ANALYTICS_MATERIALIZED_VIEW_REFRESH, () -> {
+				refreshAnalyticsMaterializedViewsWhileLocked(force);
+			});
+		});
+	}
+
+	protected void refreshAnalyticsMaterializedViewsWhileLocked(@Nonnull Boolean force) {
+		requireNonNull(force);
+
+		List<AnalyticsMaterializedView> analyticsMaterializedViews = findAnalyticsMaterializedViews();
+
+		if (analyticsMaterializedViews.size() == 0)
+			return;
+
+		Instant sourceWatermark = getDatabase().queryForObject("""
+				SELECT MAX(created)
+				FROM analytics_native_event
+				""", Instant.class).orElse(null);
+
+		List<AnalyticsMaterializedView> rootAnalyticsMaterializedViews = analyticsMaterializedViews.stream()
+				.filter(analyticsMaterializedView -> analyticsMaterializedView.getDependsOnAnalyticsMaterializedViewId() == null)
+				.collect(Collectors.toList());
+
+		Map<String, List<AnalyticsMaterializedView>> dependentAnalyticsMaterializedViewsById = analyticsMaterializedViews.stream()
+				.filter(analyticsMaterializedView -> analyticsMaterializedView.getDependsOnAnalyticsMaterializedViewId() != null)
+				.collect(Collectors.groupingBy(AnalyticsMaterializedView::getDependsOnAnalyticsMaterializedViewId));
+
+		long startTime = System.nanoTime();
+		long refreshDeadlineNanoTime = startTime + TimeUnit.MINUTES.toNanos(REFRESH_TIMEOUT_IN_MINUTES);
+
+		ExecutorService refreshExecutorService = Executors.newFixedThreadPool(Math.min(rootAnalyticsMaterializedViews.size(), REFRESH_CONCURRENCY),
+				new ThreadFactoryBuilder().setNameFormat("analytics-materialized-view-refresh-%d").build());
+
+		try {
+			List<CompletableFuture<Void>> completableFutures = new ArrayList<>(rootAnalyticsMaterializedViews.size());
+
+			for (AnalyticsMaterializedView rootAnalyticsMaterializedView : rootAnalyticsMaterializedViews)
+				completableFutures.add(CompletableFuture.runAsync(() -> {
+					refreshAnalyticsMaterializedViewAndDependents(rootAnalyticsMaterializedView, dependentAnalyticsMaterializedViewsById,
+							sourceWatermark, force, refreshDeadlineNanoTime);
+				}, refreshExecutorService));
+
+			try {
+				CompletableFuture.allOf(completableFutures.toArray(new CompletableFuture[0]))
+						.get(REFRESH_TIMEOUT_IN_MINUTES, TimeUnit.MINUTES);
+			} catch (TimeoutException e) {
+				getLogger().warn("Timed out refreshing analytics materialized views after {} minutes", REFRESH_TIMEOUT_IN_MINUTES);
+			} catch (ExecutionException e) {
+				throw new RuntimeException("Unable to refresh analytics materialized views", e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Interrupted while refreshing analytics materialized views", e);
+			}
+		} finally {
+			// Don't let the coordinating transaction commit (releasing the advisory lock) while a worker is still
+			// refreshing, or the next pass could start refreshing the same views alongside it
+			getSystemService().shutdownNowAndAwaitTermination(refreshExecutorService, "Analytics materialized view refresh workers");
+		}
+
+		getLogger().debug("Analytics materialized view refresh pass completed in {}ms",
+				Duration.ofNanos(System.nanoTime() - startTime).toMillis());
+	}
+
+	protected void refreshAnalyticsMaterializedViewAndDependents(@Nonnull AnalyticsMaterializedView analyticsMaterializedView,
+																															 @Nonnull Map<String, List<AnalyticsMaterializedView>> dependentAnalyticsMaterializedViewsById,
+																															 @Nullable Instant sourceWatermark,
+																															 @Nonnull Boolean force,
+																															 @Nonnull Long refreshDeadlineNanoTime) {
+		requireNonNull(analyticsMaterializedView);
+		requireNonNull(dependentAnalyticsMaterializedViewsById);
+		requireNonNull(force);
+		requireNonNull(refreshDeadlineNanoTime);
+
+		String analyticsMaterializedViewId = analyticsMaterializedView.getAnalyticsMaterializedViewId();
+
+		boolean upToDate = !force
+				&& analyticsMaterializedView.getLastRefreshedAt() != null
+				&& Objects.equals(analyticsMaterializedView.getSourceWatermark(), sourceWatermark);
+
+		if (upToDate) {
+			getLogger().debug("No new analytics events since last refresh of {}, skipping.", analyticsMaterializedViewId);
+
+			getDatabase().execute("""
+					UPDATE analytics_materialized_view
+					SET last_refresh_skipped_at=NOW()
+					WHERE analytics_materialized_view_id=?
+					""", analyticsMaterializedViewId);
+		} else {
+			if (!MATERIALIZED_VIEW_NAME_PATTERN.matcher(analyticsMaterializedViewId).matches())
+				throw new IllegalStateException(format("Illegal materialized view name '%s'", analyticsMaterializedViewId));
+
+			// Out of time for this pass - the chain will be picked up again next time
+			if (refreshDeadlineNanoTime - System.nanoTime() <= 0) {
+				getLogger().warn("Refresh pass deadline reached, not refreshing {} or its dependents", analyticsMaterializedViewId);
+				return;
+			}
+
+			getDatabase().execute("""
+					UPDATE analytics_materialized_view
+					SET last_refresh_started_at=NOW()
+					WHERE analytics_materialized_view_id=?
+					""", analyticsMaterializedViewId);
+
+			long startTime = System.nanoTime();
+
+			try {
+				getDatabase().transaction(() -> {
+					getSystemService().applyDeadlineToCurrentTransaction(getDatabase(), refreshDeadlineNanoTime);
+					getDatabase().execute(format("REFRESH MATERIALIZED VIEW CONCURRENTLY %s", analyticsMaterializedViewId));
+				});
+			} catch (Exception e) {
+				getLogger().error(format("Unable to refresh materialized view %s", analyticsMaterializedViewId), e);
+
+				getDatabase().execute("""
+						UPDATE analytics_materialized_view
+						SET last_refresh_error=?
+						WHERE analytics_materialized_view_id=?
+						""", String.valueOf(e.getMessage()), analyticsMaterializedViewId);
+
+				// Dependents would only be rebuilt from stale data, try the whole chain again next time
+				return;
+			}
+
+			long durationInMilliseconds = Duration.ofNanos(System.nanoTime() - startTime).toMillis();
+
+			getDatabase().execute("""
+					UPDATE analytics_materialized_view
+					SET source_watermark=?,
+					last_refreshed_at=NOW(),
+					last_refresh_duration_in_milliseconds=?,
+					last_refresh_error=NULL
+					WHERE analytics_materialized_view_id=?
+					""", sourceWatermark, durationInMilliseconds, analyticsMaterializedViewId);
+
+			getLogger().info("Refreshed materialized view {} in {}ms", analyticsMaterializedViewId, durationInMilliseconds);
+		}
+
+		// If this view was refreshed, its dependents must be too
+		Boolean forceDependents = force || !upToDate;
+
+		for (AnalyticsMaterializedView dependentAnalyticsMaterializedView : dependentAnalyticsMaterializedViewsById.getOrDefault(analyticsMaterializedViewId, List.of()))
+			refreshAnalyticsMaterializedViewAndDependents(dependentAnalyticsMaterializedView, dependentAnalyticsMaterializedViewsById,
+					sourceWatermark, forceDependents, refreshDeadlineNanoTime);
+	}
+
+	@ThreadSafe
+	protected static class BackgroundRefreshTask implements Runnable {
+		@Nonnull
+		private final Provider<AnalyticsMaterializedViewService> analyticsMaterializedViewServiceProvider;
+		@Nonnull
+		private final CurrentContextExecutor currentContextExecutor;
+		@Nonnull
+		private final ErrorReporter errorReporter;
+		@Nonnull
+		private final Configuration configuration;
+		@Nonnull
+		private final Logger logger;
+
+		@Inject
+		public BackgroundRefreshTask(@Nonnull Provider<AnalyticsMaterializedViewService> analyticsMaterializedViewServiceProvider,
+																 @Nonnull CurrentContextExecutor currentContextExecutor,
+																 @Nonnull ErrorReporter errorReporter,
+																 @Nonnull Configuration configuration) {
+			requireNonNull(analyticsMaterializedViewServiceProvider);
+			requireNonNull(currentContextExecutor);
+			requireNonNull(errorReporter);
+			requireNonNull(configuration);
+
+			this.analyticsMaterializedViewServiceProvider = analyticsMaterializedViewServiceProvider;
+			this.currentContextExecutor = currentContextExecutor;
+			this.errorReporter = errorReporter;
+			this.configuration = configuration;
+			this.logger = LoggerFactory.getLogger(getClass());
+		}
+
+		@Override
+		public void run() {
+			CurrentContext currentContext = new CurrentContext.Builder(InstitutionId.COBALT,
+					getConfiguration().getDefaultLocale(), getConfiguration().getDefaultTimeZone()).build();
+
+			getCurrentContextExecutor().execute(currentContext, () -> {
+				try {
+					getAnalyticsMaterializedViewService().refreshAnalyticsMaterializedViews(false);
+				} catch (Exception e) {
+					getLogger().error("Unable to refresh analytics materialized views", e);
+					getErrorReporter().report(e);
+				}
+			});
+		}
+
+		@Nonnull
+		protected AnalyticsMaterializedViewService getAnalyticsMaterializedViewService() {
+			return this.analyticsMaterializedViewServiceProvider.get();
+		}
+
+		@Nonnull
+		protected CurrentContextExecutor getCurrentContextExecutor() {
+			return this.currentContextExecutor;
+		}
+
+		@Nonnull
+		protected ErrorReporter getErrorReporter() {
+			return this.errorReporter;
+		}
+
+		@Nonnull
+		protected Configuration getConfiguration() {
+			return this.configuration;
+		}
+
+		@Nonnull
+		protected Logger getLogger() {
+			return this.logger;
+		}
+	}
+
+	@Nonnull
+	public Boolean isBackgroundTaskStarted() {
+		synchronized (getBackgroundTaskLock()) {
+			return this.backgroundTaskStarted;
+		}
+	}
+
+	@Nonnull
+	protected Long getBackgroundTaskIntervalInSeconds() {
+		return BACKGROUND_TASK_INTERVAL_IN_SECONDS;
+	}
+
+	@Nonnull
+	protected Long getBackgroundTaskInitialDelayInSeconds() {
+		return BACKGROUND_TASK_INITIAL_DELAY_IN_SECONDS;
+	}
+
+	@Nonnull
+	protected Provider<BackgroundRefreshTask> getBackgroundRefreshTaskProvider() {
+		return this.backgroundRefreshTaskProvider;
+	}
+
+	@Nonnull
+	protected SystemService getSystemService() {
+		return this.systemServiceProvider.get();
+	}
+
+	@Nonnull
+	protected Database getDatabase() {
+		return this.databaseProvider.get();
+	}
+
+	@Nonnull
+	protected Logger getLogger() {
+		return this.logger;
+	}
+
+	@Nonnull
+	protected Object getBackgroundTaskLock() {
+		return this.backgroundTaskLock;
+	}
+
+	@Nonnull
+	protected Optional<ScheduledExecutorService> getBackgroundTaskExecutorService() {
+		return Optional.ofNullable(this.backgroundTaskExecutorService);
+	}
+}
@@ -0,0 +1,475 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.service;
+
+import com.cobaltplatform.api.model.service.ValidatedAnalyticsNativeEvent;
+import com.cobaltplatform.api.util.ExecutorServiceUtility;
+import com.cobaltplatform.api.util.db.DatabaseProvider;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.pyranid.Database;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes analytics native events to the database in batches instead of one insert per request.
+ * <p>
+ * Events are validated and redacted by {@link AnalyticsService} before they get here, then held in a bounded
+ * in-memory buffer which is flushed on a short interval.  If the buffer is full or the background task isn't
+ * running, events are inserted synchronously on the calling thread instead - this applies backpressure to clients
+ * rather than dropping events.
+ * <p>
+ * A batch that fails for a transient reason (e.g. the database is unreachable) is held and retried on the next flush.
+ * Only a data error in a batch causes its events to be inserted one at a time, so the bad event can be discarded.
+ * <p>
+ * Stopping the background task flushes everything that is still buffered.  Events buffered at the time of a hard
+ * crash, or that still can't be written at shutdown, are lost.  Normally that's about one flush interval's worth,
+ * but if flushes are falling behind (e.g. the database is slow or unreachable) it can be a full buffer - up to
+ * {@code BUFFER_CAPACITY} events plus a held batch of up to {@code FLUSH_BATCH_SIZE} awaiting retry.
+ *
+ * @author Transmogrify, LLC.
+ */
+@Singleton
+@ThreadSafe
+public class AnalyticsNativeEventIngestionService implements AutoCloseable {
+	@Nonnull
+	private static final Integer BUFFER_CAPACITY;
+	@Nonnull
+	private static final Integer FLUSH_BATCH_SIZE;
+	@Nonnull
+	private static final Long FLUSH_INTERVAL_IN_MILLISECONDS;
+	@Nonnull
+	private static final String INSERT_ANALYTICS_NATIVE_EVENT_SQL;
+	@Nonnull
+	private final DatabaseProvider databaseProvider;
+	@Nonnull
+	private final Logger logger;
+	@Nonnull
+	private final BlockingQueue<ValidatedAnalyticsNativeEvent> bufferedAnalyticsNativeEvents;
+	@Nonnull
+	private final ReadWriteLock bufferLock;
+	@Nonnull
+	private final Object flushLock;
+	@Nonnull
+	private final Object backgroundTaskLock;
+	@Nonnull
+	private Boolean backgroundTaskStarted;
+	@Nullable
+	private ScheduledExecutorService backgroundTaskExecutorService;
+	@Nonnull
+	private List<ValidatedAnalyticsNativeEvent> retryAnalyticsNativeEvents;
+
+	static {
+		BUFFER_CAPACITY = 10_000;
+		FLUSH_BATCH_SIZE = 500;
+		FLUSH_INTERVAL_IN_MILLISECONDS = 1_000L;
+
+		// Referring message IDs come from clients and might not exist - the subselect turns those into NULL
+		// so they don't violate the foreign key and fail the whole batch.
+		// Parameters are supplied by insertParametersFor() - keep the two in sync
+		INSERT_ANALYTICS_NATIVE_EVENT_SQL = """
+				INSERT INTO analytics_native_event (
+					analytics_native_event_id,
+					analytics_native_event_type_id,
+					institution_id,
+					client_device_id,
+					account_id,
+					session_id,
+					referring_message_id,
+					referring_campaign,
+					timestamp,
+					timestamp_epoch_second,
+					timestamp_epoch_second_nano_offset,
+					webapp_url,
+					data,
+					app_name,
+					app_version,
+					client_device_operating_system_name,
+					client_device_operating_system_version,
+					client_device_supported_locales,
+					client_device_locale,
+					client_device_time_zone,
+					ip_address,
+					user_agent,
+					user_agent_device_family,
+					user_agent_browser_family,
+					user_agent_browser_version,
+					user_agent_operating_system_name,
+					user_agent_operating_system_version,
+					screen_color_depth,
+					screen_pixel_depth,
+					screen_width,
+					screen_height,
+					screen_orientation,
+					window_device_pixel_ratio,
+					window_width,
+					window_height,
+					navigator_max_touch_points,
+					document_visibility_state
+				) VALUES (?,?,?,?,?,?,(SELECT ml.message_id FROM message_log ml WHERE ml.message_id=?),?,?,?,?,?,CAST (? AS JSONB),?,?,?,?,CAST (? AS JSONB),?,?,CAST (? AS INET),?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)
+				""";
+	}
+
+	@Inject
+	public AnalyticsNativeEventIngestionService(@Nonnull DatabaseProvider databaseProvider) {
+		requireNonNull(databaseProvider);
+
+		this.databaseProvider = databaseProvider;
+		this.logger = LoggerFactory.getLogger(getClass());
+		this.bufferedAnalyticsNativeEvents = new ArrayBlockingQueue<>(BUFFER_CAPACITY);
+		this.bufferLock = new ReentrantReadWriteLock();
+		this.flushLock = new Object();
+		this.retryAnalyticsNativeEvents = Collections.emptyList();
+		this.backgroundTaskLock = new Object();
+		this.backgroundTaskStarted = false;
+	}
+
+	@Override
+	public void close() throws Exception {
+		stopBackgroundTask();
+	}
+
+	@Nonnull
+	public Boolean startBackgroundTask() {
+		synchronized (getBackgroundTaskLock()) {
+			if (isBackgroundTaskStarted())
+				return false;
+
+			getLogger().trace("Starting analytics native event ingestion background task...");
+
+			this.backgroundTaskExecutorService = Executors.newScheduledThreadPool(1, new ThreadFactoryBuilder().setNameFormat("analytics-native-event-ingestion-background-task").build());
+
+			getBufferLock().writeLock().lock();
+
+			try {
+				this.backgroundTaskStarted = true;
+			} finally {
+				getBufferLock().writeLock().unlock();
+			}
+
+			getBackgroundTaskExecutorService().get().scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						flushBufferedAnalyticsNativeEvents();
+					} catch (Exception e) {
+						getLogger().warn("Unable to flush buffered analytics native events - will retry shortly", e);
+					}
+				}
+			}, getFlushIntervalInMilliseconds(), getFlushIntervalInMilliseconds(), TimeUnit.MILLISECONDS);
+
+			getLogger().trace("Analytics native event ingestion background task started.");
+
+			return true;
+		}
+	}
+
+	@Nonnull
+	public Boolean stopBackgroundTask() {
+		synchronized (getBackgroundTaskLock()) {
+			if (!isBackgroundTaskStarted())
+				return false;
+
+			getLogger().trace("Stopping analytics native event ingestion background task...");
+
+			// Once this flips, no more events can be buffered - callers insert synchronously instead
+			getBufferLock().writeLock().lock();
+
+			try {
+				this.backgroundTaskStarted = false;
+			} finally {
+				getBufferLock().writeLock().unlock();
+			}
+
+			// Let an in-progress flush finish, then write out anything that's left
+			ExecutorServiceUtility.shutdownAndAwaitTermination(getBackgroundTaskExecutorService().get());
+			this.backgroundTaskExecutorService = null;
+
+			int flushedCount = flushBufferedAnalyticsNativeEvents();
+			int unflushedCount = getUnflushedAnalyticsNativeEventCount();
+
+			if (unflushedCount > 0)
+				getLogger().error("Unable to flush {} analytics native event[s] during shutdown, they have been lost", unflushedCount);
+
+			getLogger().trace("Analytics native event ingestion background task stopped, flushed {} remaining event[s].", flushedCount);
+
+			return true;
+		}
+	}
+
+	/**
+	 * Buffers an analytics native event for insert, or inserts it immediately if it can't be buffered.
+	 */
+	public void ingestAnalyticsNativeEvent(@Nonnull ValidatedAnalyticsNativeEvent analyticsNativeEvent) {
+		requireNonNull(analyticsNativeEvent);
+
+		getBufferLock().readLock().lock();
+
+		try {
+			if (this.backgroundTaskStarted && getBufferedAnalyticsNativeEvents().offer(analyticsNativeEvent))
+				return;
+		} finally {
+			getBufferLock().readLock().unlock();
+		}
+
+		insertAnalyticsNativeEvent(analyticsNativeEvent);
+	}
+
+	/**
+	 * Writes buffered events in batches until the buffer is empty or a batch fails for a transient reason, in which
+	 * case that batch is retried first on the next flush.
+	 *
+	 * @return the number of events flushed
+	 */
+	@Nonnull
+	protected Integer flushBufferedAnalyticsNativeEvents() {
+		synchronized (getFlushLock()) {
+			int flushedCount = 0;
+
+			while (true) {
+				List<ValidatedAnalyticsNativeEvent> analyticsNativeEvents = this.retryAnalyticsNativeEvents;
+				this.retryAnalyticsNativeEvents = Collections.emptyList();
+
+				if (analyticsNativeEvents.size() == 0) {
+					analyticsNativeEvents = new ArrayList<>(FLUSH_BATCH_SIZE);
+					getBufferedAnalyticsNativeEvents().drainTo(analyticsNativeEvents, FLUSH_BATCH_SIZE);
+				}
+
+				if (analyticsNativeEvents.size() == 0)
+					break;
+
+				List<ValidatedAnalyticsNativeEvent> unwrittenAnalyticsNativeEvents = insertAnalyticsNativeEvents(analyticsNativeEvents);
+				flushedCount += analyticsNativeEvents.size() - unwrittenAnalyticsNativeEvents.size();
+
+				if (unwrittenAnalyticsNativeEvents.size() > 0) {
+					this.retryAnalyticsNativeEvents = unwrittenAnalyticsNativeEvents;
+					break;
+				}
+			}
+
+			return flushedCount;
+		}
+	}
+
+	/**
+	 * @return events that could not be written because of a transient failure and should be retried later
+	 */
+	@Nonnull
+	protected List<ValidatedAnalyticsNativeEvent> insertAnalyticsNativeEvents(@Nonnull List<ValidatedAnalyticsNativeEvent> analyticsNativeEvents) {
+		requireNonNull(analyticsNativeEvents);
+
+		try {
+			insertAnalyticsNativeEventBatch(analyticsNativeEvents);
+			return Collections.emptyList();
+		} catch (Exception e) {
+			if (!isDataError(e)) {
+				getLogger().warn(format("Unable to batch insert %d analytics native event[s], will retry", analyticsNativeEvents.size()), e);
+				return analyticsNativeEvents;
+			}
+
+			// One bad event shouldn't cost us the rest of the batch
+			getLogger().warn(format("Unable to batch insert %d analytics native event[s] because of a data error, falling back to individual inserts",
+					analyticsNativeEvents.size()), e);
+		}
+
+		for (int i = 0; i < analyticsNativeEvents.size(); ++i) {
+			ValidatedAnalyticsNativeEvent analyticsNativeEvent = analyticsNativeEvents.get(i);
+
+			try {
+				insertAnalyticsNativeEvent(analyticsNativeEvent);
+			} catch (Exception e) {
+				if (!isDataError(e)) {
+					getLogger().warn("Unable to insert analytics native event, will retry", e);
+					return new ArrayList<>(analyticsNativeEvents.subList(i, analyticsNativeEvents.size()));
+				}
+
+				getLogger().error(format("Unable to insert analytics native event %s, discarding it", analyticsNativeEvent.getAnalyticsNativeEventId()), e);
+			}
+		}
+
+		return Collections.emptyList();
+	}
+
+	protected void insertAnalyticsNativeEventBatch(@Nonnull List<ValidatedAnalyticsNativeEvent> analyticsNativeEvents) {
+		requireNonNull(analyticsNativeEvents);
+
+		List<List<Object>> parameterGroups = new ArrayList<>(analyticsNativeEvents.size());
+
+		for (ValidatedAnalyticsNativeEvent analyticsNativeEvent : analyticsNativeEvents)
+			parameterGroups.add(insertParametersFor(analyticsNativeEvent));
+
+		getDatabase().transaction(() -> {
+			getDatabase().executeBatch(INSERT_ANALYTICS_NATIVE_EVENT_SQL, parameterGroups);
+		});
+	}
+
+	protected void insertAnalyticsNativeEvent(@Nonnull ValidatedAnalyticsNativeEvent analyticsNativeEvent) {
+		requireNonNull(analyticsNativeEvent);
+		getDatabase().execute(INSERT_ANALYTICS_NATIVE_EVENT_SQL, insertParametersFor(analyticsNativeEvent).toArray());
+	}
+
+	/**
+	 * @return values for each placeholder in {@code INSERT_ANALYTICS_NATIVE_EVENT_SQL}, in column order
+	 */
+	@Nonnull
+	protected List<Object> insertParametersFor(@Nonnull ValidatedAnalyticsNativeEvent analyticsNativeEvent) {
+		requireNonNull(analyticsNativeEvent);
+
+		// Arrays.asList() because many of these can be null
+		return Arrays.asList(
+				analyticsNativeEvent.getAnalyticsNativeEventId(),
+				analyticsNativeEvent.getAnalyticsNativeEventTypeId(),
+				analyticsNativeEvent.getInstitutionId(),
+				analyticsNativeEvent.getClientDeviceId(),
+				analyticsNativeEvent.getAccountId(),
+				analyticsNativeEvent.getSessionId(),
+				analyticsNativeEvent.getReferringMessageId(),
+				analyticsNativeEvent.getReferringCampaign(),
+				Timestamp.from(analyticsNativeEvent.getTimestamp()),
+				analyticsNativeEvent.getTimestamp().getEpochSecond(),
+				analyticsNativeEvent.getTimestamp().getNano(),
+				analyticsNativeEvent.getWebappUrl(),
+				analyticsNativeEvent.getDataAsJson(),
+				analyticsNativeEvent.getAppName(),
+				analyticsNativeEvent.getAppVersion(),
+				analyticsNativeEvent.getClientDeviceOperatingSystemName(),
+				analyticsNativeEvent.getClientDeviceOperatingSystemVersion(),
+				analyticsNativeEvent.getClientDeviceSupportedLocalesAsJson(),
+				analyticsNativeEvent.getClientDeviceLocale(),
+				analyticsNativeEvent.getClientDeviceTimeZone(),
+				analyticsNativeEvent.getIpAddress(),
+				analyticsNativeEvent.getUserAgent(),
+				analyticsNativeEvent.getUserAgentDeviceFamily(),
+				analyticsNativeEvent.getUserAgentBrowserFamily(),
+				analyticsNativeEvent.getUserAgentBrowserVersion(),
+				analyticsNativeEvent.getUserAgentOperatingSystemName(),
+				analyticsNativeEvent.getUserAgentOperatingSystemVersion(),
+				analyticsNativeEvent.getScreenColorDepth(),
+				analyticsNativeEvent.getScreenPixelDepth(),
+				analyticsNativeEvent.getScreenWidth(),
+				analyticsNativeEvent.getScreenHeight(),
+				analyticsNativeEvent.getScreenOrientation(),
+				analyticsNativeEvent.getWindowDevicePixelRatio(),
+				analyticsNativeEvent.getWindowWidth(),
+				analyticsNativeEvent.getWindowHeight(),
+				analyticsNativeEvent.getNavigatorMaxTouchPoints(),
+				analyticsNativeEvent.getDocumentVisibilityState()
+		);
+	}
+
+	/**
+	 * Data exceptions (SQLSTATE class 22) and integrity constraint violations (class 23) will fail no matter how many
+	 * times they're retried.  Anything else, e.g. a dropped connection or statement timeout, is worth retrying.
+	 */
+	@Nonnull
+	protected Boolean isDataError(@Nonnull Throwable throwable) {
+		requireNonNull(throwable);
+
+		for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+			if (cause instanceof SQLException) {
+				String sqlState = ((SQLException) cause).getSQLState();
+
+				if (sqlState != null && (sqlState.startsWith("22") || sqlState.startsWith("23")))
+					return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return the number of events that are buffered or awaiting retry
+	 */
+	@Nonnull
+	public Integer getUnflushedAnalyticsNativeEventCount() {
+		synchronized (getFlushLock()) {
+			return getBufferedAnalyticsNativeEvents().size() + this.retryAnalyticsNativeEvents.size();
+		}
+	}
+
+	@Nonnull
+	public Boolean isBackgroundTaskStarted() {
+		synchronized (getBackgroundTaskLock()) {
+			return this.backgroundTaskStarted;
+		}
+	}
+
+	@Nonnull
+	protected Long getFlushIntervalInMilliseconds() {
+		return FLUSH_INTERVAL_IN_MILLISECONDS;
+	}
+
+	@Nonnull
+	protected Database getDatabase() {
+		return this.databaseProvider.get();
+	}
+
+	@Nonnull
+	protected Logger getLogger() {
+		return this.logger;
+	}
+
+	@Nonnull
+	protected BlockingQueue<ValidatedAnalyticsNativeEvent> getBufferedAnalyticsNativeEvents() {
+		return this.bufferedAnalyticsNativeEvents;
+	}
+
+	@Nonnull
+	protected ReadWriteLock getBufferLock() {
+		return this.bufferLock;
+	}
+
+	@Nonnull
+	protected Object getFlushLock() {
+		return this.flushLock;
+	}
+
+	@Nonnull
+	protected Object getBackgroundTaskLock() {
+		return this.backgroundTaskLock;
+	}
+
+	@Nonnull
+	protected Optional<ScheduledExecutorService> getBackgroundTaskExecutorService() {
+		return Optional.ofNullable(this.backgroundTaskExecutorService);
+	}
+}
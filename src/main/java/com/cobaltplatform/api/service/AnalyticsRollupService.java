@@ -0,0 +1,484 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.service;
+
+import com.cobaltplatform.api.Configuration;
+import com.cobaltplatform.api.context.CurrentContext;
+import com.cobaltplatform.api.context.CurrentContextExecutor;
+import com.cobaltplatform.api.error.ErrorReporter;
+import com.cobaltplatform.api.model.db.AnalyticsNativeEventRollupWatermark;
+import com.cobaltplatform.api.model.db.AnalyticsNativeEventType.AnalyticsNativeEventTypeId;
+import com.cobaltplatform.api.model.db.Institution.InstitutionId;
+import com.cobaltplatform.api.model.service.AdvisoryLock;
+import com.cobaltplatform.api.util.db.DatabaseProvider;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.pyranid.Database;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Maintains per-institution, per-day rollups of {@code analytics_native_event} so analytics widgets don't need to
+ * scan raw events.
+ * <p>
+ * Events are folded in incrementally in {@code (created, id)} order from a stored watermark.  Readers combine rollup
+ * rows with raw events past the watermark, which keeps results exact and current regardless of how far behind the
+ * rollup is.
+ *
+ * @author Transmogrify, LLC.
+ */
+@Singleton
+@ThreadSafe
+public class AnalyticsRollupService implements AutoCloseable {
+	@Nonnull
+	private static final Long BACKGROUND_TASK_INTERVAL_IN_SECONDS;
+	@Nonnull
+	private static final Long BACKGROUND_TASK_INITIAL_DELAY_IN_SECONDS;
+	@Nonnull
+	private static final Integer ROLLUP_BATCH_SIZE;
+	@Nonnull
+	private static final Integer ROLLUP_MAXIMUM_BATCHES_PER_RUN;
+	@Nonnull
+	private static final Duration ROLLUP_SETTLE_DURATION;
+	@Nonnull
+	private final Provider<BackgroundRollupTask> backgroundRollupTaskProvider;
+	@Nonnull
+	private final Provider<SystemService> systemServiceProvider;
+	@Nonnull
+	private final DatabaseProvider databaseProvider;
+	@Nonnull
+	private final Logger logger;
+	@Nonnull
+	private final Object backgroundTaskLock;
+	@Nonnull
+	private Boolean backgroundTaskStarted;
+	@Nullable
+	private ScheduledExecutorService backgroundTaskExecutorService;
+
+	static {
+		BACKGROUND_TASK_INTERVAL_IN_SECONDS = 60L;
+		BACKGROUND_TASK_INITIAL_DELAY_IN_SECONDS = 20L;
+		ROLLUP_BATCH_SIZE = 5_000;
+		ROLLUP_MAXIMUM_BATCHES_PER_RUN = 20;
+		ROLLUP_SETTLE_DURATION = Duration.ofMinutes(1);
+	}
+
+	@Inject
+	public AnalyticsRollupService(@Nonnull Provider<BackgroundRollupTask> backgroundRollupTaskProvider,
+																@Nonnull Provider<SystemService> systemServiceProvider,
+																@Nonnull DatabaseProvider databaseProvider) {
+		requireNonNull(backgroundRollupTaskProvider);
+		requireNonNull(systemServiceProvider);
+		requireNonNull(databaseProvider);
+
+		this.backgroundRollupTaskProvider = backgroundRollupTaskProvider;
+		this.systemServiceProvider = systemServiceProvider;
+		this.databaseProvider = databaseProvider;
+		this.backgroundTaskLock = new Object();
+		this.backgroundTaskStarted = false;
+		this.logger = LoggerFactory.getLogger(getClass());
+	}
+
+	@Override
+	public void close() throws Exception {
+		stopBackgroundTask();
+	}
+
+	@Nonnull
+	public Boolean startBackgroundTask() {
+		synchronized (getBackgroundTaskLock()) {
+			if (isBackgroundTaskStarted())
+				return false;
+
+			getLogger().trace("Starting analytics rollup background task...");
+
+			this.backgroundTaskExecutorService = Executors.newScheduledThreadPool(1, new ThreadFactoryBuilder().setNameFormat("analytics-rollup-background-task").build());
+			this.backgroundTaskStarted = true;
+
+			getBackgroundTaskExecutorService().get().scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						getBackgroundRollupTaskProvider().get().run();
+					} catch (Exception e) {
+						getLogger().warn(format("Unable to complete analytics rollup background task - will retry in %s seconds", String.valueOf(getBackgroundTaskIntervalInSeconds())), e);
+					}
+				}
+			}, getBackgroundTaskInitialDelayInSeconds(), getBackgroundTaskIntervalInSeconds(), TimeUnit.SECONDS);
+
+			getLogger().trace("Analytics rollup background task started.");
+
+			return true;
+		}
+	}
+
+	@Nonnull
+	public Boolean stopBackgroundTask() {
+		synchronized (getBackgroundTaskLock()) {
+			if (!isBackgroundTaskStarted())
+				return false;
+
+			getLogger().trace("Stopping analytics rollup background task...");
+
+			getBackgroundTaskExecutorService().get().shutdownNow();
+			this.backgroundTaskExecutorService = null;
+			this.backgroundTaskStarted = false;
+
+			getLogger().trace("Analytics rollup background task stopped.");
+
+			return true;
+		}
+	}
+
+	@Nonnull
+	public AnalyticsNativeEventRollupWatermark findAnalyticsNativeEventRollupWatermark() {
+		return getDatabase().queryForObject("""
+				SELECT *
+				FROM analytics_native_event_rollup_watermark
+				""", AnalyticsNativeEventRollupWatermark.class).get();
+	}
+
+	/**
+	 * Folds newly-created events into the rollup tables, one short transaction per batch.
+	 * <p>
+	 * Each batch holds the rollup advisory lock for the duration of its transaction only, so two nodes can never
+	 * apply the same events twice.
+	 */
+	public void rollUpAnalyticsNativeEvents() {
+		// Don't roll up events that were inserted very recently - a transaction that started before ours but
+		// commits after could otherwise land behind the watermark and never be counted
+		Instant settledBefore = Instant.now().minus(ROLLUP_SETTLE_DURATION);
+		long startTime = System.nanoTime();
+		long rowsRolledUp = 0;
+
+		for (int i = 0; i < ROLLUP_MAXIMUM_BATCHES_PER_RUN; ++i) {
+			RollupBatchResult rollupBatchResult = rollUpBatch(settledBefore);
+
+			// Another node is rolling up, try again next time
+			if (rollupBatchResult == null) {
+				getLogger().debug("Analytics rollup lock is held elsewhere, stopping rollup.");
+				return;
+			}
+
+			rowsRolledUp += rollupBatchResult.getRowsRolledUp();
+
+			if (rollupBatchResult.getCaughtUp())
+				break;
+		}
+
+		if (rowsRolledUp > 0)
+			getLogger().info("Analytics rollup completed in {}ms, events rolled up: {}",
+					Duration.ofNanos(System.nanoTime() - startTime).toMillis(), rowsRolledUp);
+	}
+
+	/**
+	 * @return the result of the batch, or {@code null} if the rollup lock could not be acquired
+	 */
+	@Nullable
+	protected RollupBatchResult rollUpBatch(@Nonnull Instant settledBefore) {
+		requireNonNull(settledBefore);
+
+		List<RollupBatchResult> rollupBatchResults = new ArrayList<>(1);
+
+		getDatabase().transaction(() -> {
+			getSystemService().performTransactionAdvisoryLockOperationIfAvailable(AdvisoryLock.ANALYTICS_ROLLUP, () -> {
+				rollupBatchResults.add(rollUpBatchInCurrentTransaction(settledBefore));
+			});
+		});
+
+		return rollupBatchResults.size() == 0 ? null : rollupBatchResults.get(0);
+	}
+
+	/**
+	 * Rolls up one batch of events and advances the watermark.
+	 * <p>
+	 * Must be called in a transaction that holds the rollup advisory lock, so the rollup rows and watermark commit together.
+	 */
+	@Nonnull
+	protected RollupBatchResult rollUpBatchInCurrentTransaction(@Nonnull Instant settledBefore) {
+		requireNonNull(settledBefore);
+
+		AnalyticsNativeEventRollupWatermark watermark = findAnalyticsNativeEventRollupWatermark();
+
+		List<RollupBatchRow> rollupBatchRows = getDatabase().queryForList("""
+				SELECT analytics_native_event_id, created
+				FROM analytics_native_event
+				WHERE created < ?
+				AND (CAST(? AS TIMESTAMPTZ) IS NULL OR (created, analytics_native_event_id) > (CAST(? AS TIMESTAMPTZ), CAST(? AS UUID)))
+				ORDER BY created, analytics_native_event_id
+				LIMIT ?
+				""", RollupBatchRow.class, settledBefore, watermark.getCreatedWatermark(), watermark.getCreatedWatermark(),
+				watermark.getIdWatermark(), ROLLUP_BATCH_SIZE);
+
+		Boolean caughtUp = rollupBatchRows.size() < ROLLUP_BATCH_SIZE;
+
+		if (rollupBatchRows.size() > 0) {
+			String[] analyticsNativeEventIds = rollupBatchRows.stream()
+					.map(rollupBatchRow -> rollupBatchRow.getAnalyticsNativeEventId().toString())
+					.toArray(String[]::new);
+
+			// Counts are additive and session IDs are merged as a set, so a day can safely be touched by any
+			// number of batches (e.g. late-arriving events with old client timestamps)
+			getDatabase().execute("""
+					INSERT INTO analytics_native_event_account_day
+					(institution_id, day, account_id, analytics_native_event_type_id, event_count, session_ids)
+					SELECT ane.institution_id, (timezone(i.time_zone, ane."timestamp"))::date, ane.account_id,
+					ane.analytics_native_event_type_id, COUNT(*), ARRAY_AGG(DISTINCT ane.session_id)
+					FROM analytics_native_event ane, institution i
+					WHERE ane.analytics_native_event_id = ANY (CAST(? AS UUID[]))
+					AND ane.institution_id=i.institution_id
+					AND ane.account_id IS NOT NULL
+					GROUP BY 1, 2, 3, 4
+					ON CONFLICT (institution_id, day, account_id, analytics_native_event_type_id) DO UPDATE
+					SET event_count=analytics_native_event_account_day.event_count + EXCLUDED.event_count,
+					session_ids=ARRAY(SELECT DISTINCT UNNEST(analytics_native_event_account_day.session_ids || EXCLUDED.session_ids))
+					""", (Object) analyticsNativeEventIds);
+
+			getDatabase().execute("""
+					INSERT INTO analytics_native_event_referrer_day
+					(institution_id, day, account_id, referring_url, event_count)
+					SELECT ane.institution_id, (timezone(i.time_zone, ane."timestamp"))::date, ane.account_id,
+					ane.data->>'referringUrl', COUNT(*)
+					FROM analytics_native_event ane, institution i
+					WHERE ane.analytics_native_event_id = ANY (CAST(? AS UUID[]))
+					AND ane.institution_id=i.institution_id
+					AND ane.account_id IS NOT NULL
+					AND ane.analytics_native_event_type_id=?
+					AND ane.data->>'referringUrl' IS NOT NULL
+					GROUP BY 1, 2, 3, 4
+					ON CONFLICT (institution_id, day, account_id, referring_url) DO UPDATE
+					SET event_count=analytics_native_event_referrer_day.event_count + EXCLUDED.event_count
+					""", analyticsNativeEventIds, AnalyticsNativeEventTypeId.SESSION_STARTED);
+
+			RollupBatchRow lastRollupBatchRow = rollupBatchRows.get(rollupBatchRows.size() - 1);
+
+			getDatabase().execute("""
+					UPDATE analytics_native_event_rollup_watermark
+					SET created_watermark=?,
+					id_watermark=?,
+					last_rows_rolled_up=?,
+					total_rows_rolled_up=total_rows_rolled_up + ?,
+					last_rolled_up_at=NOW(),
+					caught_up_at=CASE WHEN ? THEN NOW() ELSE caught_up_at END
+					""", lastRollupBatchRow.getCreated(), lastRollupBatchRow.getAnalyticsNativeEventId(),
+					rollupBatchRows.size(), rollupBatchRows.size(), caughtUp);
+		} else {
+			getDatabase().execute("""
+					UPDATE analytics_native_event_rollup_watermark
+					SET last_rows_rolled_up=0,
+					last_rolled_up_at=NOW(),
+					caught_up_at=NOW()
+					""");
+		}
+
+		return new RollupBatchResult((long) rollupBatchRows.size(), caughtUp);
+	}
+
+	@NotThreadSafe
+	protected static class RollupBatchRow {
+		@Nullable
+		private UUID analyticsNativeEventId;
+		@Nullable
+		private Instant created;
+
+		@Nullable
+		public UUID getAnalyticsNativeEventId() {
+			return this.analyticsNativeEventId;
+		}
+
+		public void setAnalyticsNativeEventId(@Nullable UUID analyticsNativeEventId) {
+			this.analyticsNativeEventId = analyticsNativeEventId;
+		}
+
+		@Nullable
+		public Instant getCreated() {
+			return this.created;
+		}
+
+		public void setCreated(@Nullable Instant created) {
+			this.created = created;
+		}
+	}
+
+	@Immutable
+	protected static class RollupBatchResult {
+		@Nonnull
+		private final Long rowsRolledUp;
+		@Nonnull
+		private final Boolean caughtUp;
+
+		public RollupBatchResult(@Nonnull Long rowsRolledUp,
+														 @Nonnull Boolean caughtUp) {
+			requireNonNull(rowsRolledUp);
+			requireNonNull(caughtUp);
+
+			this.rowsRolledUp = rowsRolledUp;
+			this.caughtUp = caughtUp;
+		}
+
+		@Nonnull
+		public Long getRowsRolledUp() {
+			return this.rowsRolledUp;
+		}
+
+		@Nonnull
+		public Boolean getCaughtUp() {
+			return this.caughtUp;
+		}
+	}
+
+	@ThreadSafe
+	protected static class BackgroundRollupTask implements Runnable {
+		@Nonnull
+		private final Provider<AnalyticsRollupService> analyticsRollupServiceProvider;
+		@Nonnull
+		private final CurrentContextExecutor currentContextExecutor;
+		@Nonnull
+		private final ErrorReporter errorReporter;
+		@Nonnull
+		private final Configuration configuration;
+		@Nonnull
+		private final Logger logger;
+
+		@Inject
+		public BackgroundRollupTask(@Nonnull Provider<AnalyticsRollupService> analyticsRollupServiceProvider,
+																@Nonnull CurrentContextExecutor currentContextExecutor,
+																@Nonnull ErrorReporter errorReporter,
+																@Nonnull Configuration configuration) {
+			requireNonNull(analyticsRollupServiceProvider);
+			requireNonNull(currentContextExecutor);
+			requireNonNull(errorReporter);
+			requireNonNull(configuration);
+
+			this.analyticsRollupServiceProvider = analyticsRollupServiceProvider;
+			this.currentContextExecutor = currentContextExecutor;
+			this.errorReporter = errorReporter;
+			this.configuration = configuration;
+			this.logger = LoggerFactory.getLogger(getClass());
+		}
+
+		@Override
+		public void run() {
+			CurrentContext currentContext = new CurrentContext.Builder(InstitutionId.COBALT,
+					getConfiguration().getDefaultLocale(), getConfiguration().getDefaultTimeZone()).build();
+
+			getCurrentContextExecutor().execute(currentContext, () -> {
+				try {
+					getAnalyticsRollupService().rollUpAnalyticsNativeEvents();
+				} catch (Exception e) {
+					getLogger().error("Unable to roll up analytics native events", e);
+					getErrorReporter().report(e);
+				}
+			});
+		}
+
+		@Nonnull
+		protected AnalyticsRollupService getAnalyticsRollupService() {
+			return this.analyticsRollupServiceProvider.get();
+		}
+
+		@Nonnull
+		protected CurrentContextExecutor getCurrentContextExecutor() {
+			return this.currentContextExecutor;
+		}
+
+		@Nonnull
+		protected ErrorReporter getErrorReporter() {
+			return this.errorReporter;
+		}
+
+		@Nonnull
+		protected Configuration getConfiguration() {
+			return this.configuration;
+		}
+
+		@Nonnull
+		protected Logger getLogger() {
+			return this.logger;
+		}
+	}
+
+	@Nonnull
+	public Boolean isBackgroundTaskStarted() {
+		synchronized (getBackgroundTaskLock()) {
+			return this.backgroundTaskStarted;
+		}
+	}
+
+	@Nonnull
+	protected Long getBackgroundTaskIntervalInSeconds() {
+		return BACKGROUND_TASK_INTERVAL_IN_SECONDS;
+	}
+
+	@Nonnull
+	protected Long getBackgroundTaskInitialDelayInSeconds() {
+		return BACKGROUND_TASK_INITIAL_DELAY_IN_SECONDS;
+	}
+
+	@Nonnull
+	protected Provider<BackgroundRollupTask> getBackgroundRollupTaskProvider() {
+		return this.backgroundRollupTaskProvider;
+	}
+
+	@Nonnull
+	protected SystemService getSystemService() {
+		return this.systemServiceProvider.get();
+	}
+
+	@Nonnull
+	protected Database getDatabase() {
+		return this.databaseProvider.get();
+	}
+
+	@Nonnull
+	protected Logger getLogger() {
+		return this.logger;
+	}
+
+	@Nonnull
+	protected Object getBackgroundTaskLock() {
+		return this.backgroundTaskLock;
+	}
+
+	@Nonnull
+	protected Optional<ScheduledExecutorService> getBackgroundTaskExecutorService() {
+		return Optional.ofNullable(this.backgroundTaskExecutorService);
+	}
+}
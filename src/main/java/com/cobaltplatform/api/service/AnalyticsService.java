@@ -47,6 +47,7 @@ import com.cobaltplatform.api.model.db.UserExperienceType.UserExperienceTypeId;
 import com.cobaltplatform.api.model.service.AdvisoryLock;
 import com.cobaltplatform.api.model.service.ScreeningScore;
 import com.cobaltplatform.api.model.service.ScreeningSessionScreeningWithType;
+import com.cobaltplatform.api.model.service.ValidatedAnalyticsNativeEvent;
 import com.cobaltplatform.api.util.GsonUtility;
 import com.cobaltplatform.api.util.ValidationException;
 import com.cobaltplatform.api.util.ValidationException.FieldError;
@@ -134,10 +135,13 @@ public class AnalyticsService implements AutoCloseable {
 	private static final Pattern JWT_PATTERN;
 	@Nonnull
 	private static final Gson GSON_FOR_ANALYTICS_NATIVE_DATA;
+	@Nonnull
+	private static final Duration ANALYTICS_NATIVE_EVENT_MAXIMUM_CLIENT_CLOCK_SKEW;
 
 	static {
 		ANALYTICS_SYNC_INTERVAL_IN_SECONDS = 60L * 5L;
 		ANALYTICS_SYNC_INITIAL_DELAY_IN_SECONDS = 10L;
+		ANALYTICS_NATIVE_EVENT_MAXIMUM_CLIENT_CLOCK_SKEW = Duration.ofDays(7);
 
 		// Thanks to https://stackoverflow.com/a/65755789
 		JWT_PATTERN = Pattern.compile("(?:[\\w-]*\\.){2}[\\w-]*");
@@ -159,6 +163,8 @@ public class AnalyticsService implements AutoCloseable {
 	@Nonnull
 	private final Provider<AnalyticsSyncTask> analyticsSyncTaskProvider;
 	@Nonnull
+	private final Provider<AnalyticsNativeEventIngestionService> analyticsNativeEventIngestionServiceProvider;
+	@Nonnull
 	private final EnterprisePluginProvider enterprisePluginProvider;
 	@Nonnull
 	private final DatabaseProvider databaseProvider;
@@ -180,6 +186,7 @@ public class AnalyticsService implements AutoCloseable {
 													@Nonnull Provider<ScreeningService> screeningServiceProvider,
 													@Nonnull Provider<TagService> tagServiceProvider,
 													@Nonnull Provider<AnalyticsSyncTask> analyticsSyncTaskProvider,
+													@Nonnull Provider<AnalyticsNativeEventIngestionService> analyticsNativeEventIngestionServiceProvider,
 													@Nonnull EnterprisePluginProvider enterprisePluginProvider,
 													@Nonnull DatabaseProvider databaseProvider,
 													@Nonnull Strings strings) {
@@ -188,6 +195,7 @@ public class AnalyticsService implements AutoCloseable {
 		requireNonNull(screeningServiceProvider);
 		requireNonNull(tagServiceProvider);
 		requireNonNull(analyticsSyncTaskProvider);
+		requireNonNull(analyticsNativeEventIngestionServiceProvider);
 		requireNonNull(enterprisePluginProvider);
 		requireNonNull(databaseProvider);
 		requireNonNull(strings);
@@ -197,6 +205,7 @@ public class AnalyticsService implements AutoCloseable {
 		this.screeningServiceProvider = screeningServiceProvider;
 		this.tagServiceProvider = tagServiceProvider;
 		this.analyticsSyncTaskProvider = analyticsSyncTaskProvider;
+		this.analyticsNativeEventIngestionServiceProvider = analyticsNativeEventIngestionServiceProvider;
 		this.enterprisePluginProvider = enterprisePluginProvider;
 		this.databaseProvider = databaseProvider;
 		this.strings = strings;
@@ -260,6 +269,21 @@ public class AnalyticsService implements AutoCloseable {
 		}
 	}
 
+	/**
+	 * {@code analytics_native_event} is partitioned on {@code created}, but reports filter on the client-supplied
+	 * {@code "timestamp"}.  Events are always written after the client records them, so pairing a {@code "timestamp"}
+	 * lower bound with {@code created >= } this value lets Postgres skip older partitions without changing results -
+	 * unless the client's clock was running more than a week fast, in which case the event is left out.
+	 * <p>
+	 * The bound must be passed as a statement parameter: partitions are only pruned using constants and parameters,
+	 * not values joined in from a CTE.
+	 */
+	@Nonnull
+	public Instant analyticsNativeEventCreatedLowerBoundForTimestamp(@Nonnull Instant timestamp) {
+		requireNonNull(timestamp);
+		return timestamp.minus(ANALYTICS_NATIVE_EVENT_MAXIMUM_CLIENT_CLOCK_SKEW);
+	}
+
 	@Nonnull
 	public UUID createAnalyticsNativeEvent(@Nonnull CreateAnalyticsNativeEventRequest request) {
 		requireNonNull(request);
@@ -325,19 +349,6 @@ public class AnalyticsService implements AutoCloseable {
 		if (validationException.hasErrors())
 			throw validationException;
 
-		if (referringMessageId != null) {
-			Boolean referringMessageExists = getDatabase().queryForObject("""
-					SELECT COUNT(*) > 0
-					FROM message_log
-					WHERE message_id=?
-					""", Boolean.class, referringMessageId).get();
-
-			if (!referringMessageExists) {
-				getLogger().warn("Analytics: referring message ID {} does not exist, ignoring...", referringMessageId);
-				referringMessageId = null;
-			}
-		}
-
 		if (webappUrl != null) {
 			// Ensure URLs are relative and that we don't have any sensitive data in them (e.g JWTs)
 			webappUrl = toRelativeUrl(webappUrl).orElse(null);
@@ -403,85 +414,36 @@ public class AnalyticsService implements AutoCloseable {
 
 		UUID analyticsNativeEventId = UUID.randomUUID();
 
-		getDatabase().execute("""
-						INSERT INTO analytics_native_event (
-							analytics_native_event_id,
-							analytics_native_event_type_id,
-							institution_id,
-							client_device_id,
-							account_id,
-							session_id,
-							referring_message_id,
-							referring_campaign,
-							timestamp,
-							timestamp_epoch_second,
-							timestamp_epoch_second_nano_offset,
-							webapp_url,
-							data,
-							app_name,
-							app_version,
-							client_device_operating_system_name,
-							client_device_operating_system_version,
-							client_device_supported_locales,
-							client_device_locale,
-							client_device_time_zone,
-							ip_address,
-							user_agent,
-							user_agent_device_family,
-							user_agent_browser_family,
-							user_agent_browser_version,
-							user_agent_operating_system_name,
-							user_agent_operating_system_version,
-							screen_color_depth,
-							screen_pixel_depth,
-							screen_width,
-							screen_height,
-							screen_orientation,
-							window_device_pixel_ratio,
-							window_width,
-							window_height,
-							navigator_max_touch_points,
-							document_visibility_state
-						) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,CAST (? AS JSONB),?,?,?,?,CAST (? AS JSONB),?,?,CAST (? AS INET),?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)
-						""",
-				analyticsNativeEventId,
-				analyticsNativeEventTypeId,
-				institutionId,
-				clientDeviceId,
-				accountId,
-				sessionId,
-				referringMessageId,
-				referringCampaign,
-				java.sql.Timestamp.from(timestamp),
-				timestamp.getEpochSecond(),
-				timestamp.getNano(),
-				webappUrl,
-				dataAsString,
-				appName,
-				appVersion,
-				clientDeviceOperatingSystemName,
-				clientDeviceOperatingSystemVersion,
-				clientDeviceSupportedLocalesAsJson,
-				clientDeviceLocale,
-				clientDeviceTimeZone,
-				ipAddress,
-				userAgent,
-				userAgentDeviceFamily,
-				userAgentBrowserFamily,
-				userAgentBrowserVersion,
-				userAgentOperatingSystemName,
-				userAgentOperatingSystemVersion,
-				screenColorDepth,
-				screenPixelDepth,
-				screenWidth,
-				screenHeight,
-				screenOrientation,
-				windowDevicePixelRatio,
-				windowWidth,
-				windowHeight,
-				navigatorMaxTouchPoints,
-				documentVisibilityState
-		);
+		// Referring message IDs that don't exist are discarded at insert time
+		getAnalyticsNativeEventIngestionService().ingestAnalyticsNativeEvent(new ValidatedAnalyticsNativeEvent.Builder(analyticsNativeEventId,
+				analyticsNativeEventTypeId, institutionId, sessionId, timestamp, appName, appVersion, dataAsString, clientDeviceSupportedLocalesAsJson)
+				.clientDeviceId(clientDeviceId)
+				.accountId(accountId)
+				.referringMessageId(referringMessageId)
+				.referringCampaign(referringCampaign)
+				.webappUrl(webappUrl)
+				.clientDeviceOperatingSystemName(clientDeviceOperatingSystemName)
+				.clientDeviceOperatingSystemVersion(clientDeviceOperatingSystemVersion)
+				.clientDeviceLocale(clientDeviceLocale)
+				.clientDeviceTimeZone(clientDeviceTimeZone)
+				.ipAddress(ipAddress)
+				.userAgent(userAgent)
+				.userAgentDeviceFamily(userAgentDeviceFamily)
+				.userAgentBrowserFamily(userAgentBrowserFamily)
+				.userAgentBrowserVersion(userAgentBrowserVersion)
+				.userAgentOperatingSystemName(userAgentOperatingSystemName)
+				.userAgentOperatingSystemVersion(userAgentOperatingSystemVersion)
+				.screenColorDepth(screenColorDepth)
+				.screenPixelDepth(screenPixelDepth)
+				.screenWidth(screenWidth)
+				.screenHeight(screenHeight)
+				.screenOrientation(screenOrientation)
+				.windowDevicePixelRatio(windowDevicePixelRatio)
+				.windowWidth(windowWidth)
+				.windowHeight(windowHeight)
+				.navigatorMaxTouchPoints(navigatorMaxTouchPoints)
+				.documentVisibilityState(documentVisibilityState)
+				.build());
 
 		return analyticsNativeEventId;
 	}
@@ -3657,6 +3619,11 @@ public class AnalyticsService implements AutoCloseable {
 		return this.analyticsSyncTaskProvider;
 	}
 
+	@Nonnull
+	protected AnalyticsNativeEventIngestionService getAnalyticsNativeEventIngestionService() {
+		return this.analyticsNativeEventIngestionServiceProvider.get();
+	}
+
 	@Nonnull
 	protected EnterprisePluginProvider getEnterprisePluginProvider() {
 		return this.enterprisePluginProvider;
@@ -19,9 +19,17 @@
 
 package com.cobaltplatform.api.service;
 
+import com.cobaltplatform.api.Configuration;
+import com.cobaltplatform.api.context.CurrentContext;
+import com.cobaltplatform.api.context.CurrentContextExecutor;
+import com.cobaltplatform.api.context.CurrentContextExecutor.CurrentContextOperation;
+import com.cobaltplatform.api.context.DatabaseContext;
+import com.cobaltplatform.api.context.DatabaseContextExecutor;
+import com.cobaltplatform.api.context.Deadline;
 import com.cobaltplatform.api.model.analytics.AnalyticsCounterWidget;
 import com.cobaltplatform.api.model.analytics.AnalyticsMultiChartWidget;
 import com.cobaltplatform.api.model.analytics.AnalyticsTableWidget;
+import com.cobaltplatform.api.model.analytics.AnalyticsWidget;
 import com.cobaltplatform.api.model.analytics.AnalyticsWidgetTableData;
 import com.cobaltplatform.api.model.analytics.AnalyticsWidgetTableRow;
 import com.cobaltplatform.api.model.db.AnalyticsNativeEventType.AnalyticsNativeEventTypeId;
@@ -39,20 +47,25 @@ import com.cobaltplatform.api.model.db.Role.RoleId;
 import com.cobaltplatform.api.model.db.UserExperienceType.UserExperienceTypeId;
 import com.cobaltplatform.api.util.Formatter;
 import com.cobaltplatform.api.util.db.DatabaseProvider;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.lokalized.Strings;
 import com.pyranid.Database;
+import com.pyranid.StatementLog;
 import org.owasp.encoder.Encode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.NotThreadSafe;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.FormatStyle;
@@ -67,6 +80,13 @@ import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -79,7 +99,12 @@ import static org.apache.commons.lang3.StringUtils.trimToNull;
  */
 @Singleton
 @ThreadSafe
-public class AnalyticsXrayService {
+public class AnalyticsXrayService implements AutoCloseable {
+	@Nonnull
+	private static final Integer WIDGET_CONCURRENCY;
+	@Nonnull
+	private static final Long WIDGET_TIMEOUT_IN_SECONDS;
+
 	// In-memory cache of chart colors
 	@Nonnull
 	private final ConcurrentMap<InstitutionId, List<InstitutionColorValue>> chartColorsValuesByInstitutionIdCache;
@@ -89,36 +114,130 @@ public class AnalyticsXrayService {
 	@Nonnull
 	private final Provider<CourseService> courseServiceProvider;
 	@Nonnull
+	private final Provider<AnalyticsService> analyticsServiceProvider;
+	@Nonnull
+	private final Provider<SystemService> systemServiceProvider;
+	@Nonnull
 	private final DatabaseProvider databaseProvider;
 	@Nonnull
 	private final Strings strings;
 	@Nonnull
 	private final Formatter formatter;
 	@Nonnull
+	private final CurrentContextExecutor currentContextExecutor;
+	@Nonnull
+	private final DatabaseContextExecutor databaseContextExecutor;
+	@Nonnull
+	private final Configuration configuration;
+	@Nonnull
 	private final Logger logger;
 
+	@Nonnull
+	private final Object widgetExecutorServiceLock;
+	@Nonnull
+	private Boolean widgetExecutorServiceStarted;
+	@Nullable
+	private ExecutorService widgetExecutorService;
+
+	static {
+		// Upper bound on widget threads shared by all requests; also capped at half the read-replica pool
+		WIDGET_CONCURRENCY = 6;
+		WIDGET_TIMEOUT_IN_SECONDS = 30L;
+	}
+
 	@Inject
 	public AnalyticsXrayService(@Nonnull Provider<InstitutionService> institutionServiceProvider,
 															@Nonnull Provider<CourseService> courseServiceProvider,
+															@Nonnull Provider<AnalyticsService> analyticsServiceProvider,
+															@Nonnull Provider<SystemService> systemServiceProvider,
 															@Nonnull DatabaseProvider databaseProvider,
 															@Nonnull Strings strings,
-															@Nonnull Formatter formatter) {
+															@Nonnull Formatter formatter,
+															@Nonnull CurrentContextExecutor currentContextExecutor,
+															@Nonnull DatabaseContextExecutor databaseContextExecutor,
+															@Nonnull Configuration configuration) {
 		requireNonNull(institutionServiceProvider);
 		requireNonNull(courseServiceProvider);
+		requireNonNull(analyticsServiceProvider);
+		requireNonNull(systemServiceProvider);
 		requireNonNull(databaseProvider);
 		requireNonNull(strings);
 		requireNonNull(formatter);
+		requireNonNull(currentContextExecutor);
+		requireNonNull(databaseContextExecutor);
+		requireNonNull(configuration);
 
 		this.chartColorsValuesByInstitutionIdCache = new ConcurrentHashMap<>();
 
 		this.institutionServiceProvider = institutionServiceProvider;
 		this.courseServiceProvider = courseServiceProvider;
+		this.analyticsServiceProvider = analyticsServiceProvider;
+		this.systemServiceProvider = systemServiceProvider;
 		this.databaseProvider = databaseProvider;
 		this.strings = strings;
 		this.formatter = formatter;
+		this.currentContextExecutor = currentContextExecutor;
+		this.databaseContextExecutor = databaseContextExecutor;
+		this.configuration = configuration;
+		this.widgetExecutorServiceLock = new Object();
+		this.widgetExecutorServiceStarted = false;
 		this.logger = LoggerFactory.getLogger(getClass());
 	}
 
+	@Override
+	public void close() throws Exception {
+		stopWidgetExecutorService();
+	}
+
+	@Nonnull
+	public Boolean startWidgetExecutorService() {
+		synchronized (getWidgetExecutorServiceLock()) {
+			if (isWidgetExecutorServiceStarted())
+				return false;
+
+			getLogger().trace("Starting analytics xray widget executor service...");
+
+			this.widgetExecutorService = Executors.newFixedThreadPool(getWidgetConcurrency(),
+					new ThreadFactoryBuilder().setNameFormat("analytics-xray-widget-%d").build());
+			this.widgetExecutorServiceStarted = true;
+
+			getLogger().trace("Analytics xray widget executor service started.");
+
+			return true;
+		}
+	}
+
+	@Nonnull
+	public Boolean stopWidgetExecutorService() {
+		synchronized (getWidgetExecutorServiceLock()) {
+			if (!isWidgetExecutorServiceStarted())
+				return false;
+
+			getLogger().trace("Stopping analytics xray widget executor service...");
+
+			getWidgetExecutorService().get().shutdownNow();
+			this.widgetExecutorService = null;
+			this.widgetExecutorServiceStarted = false;
+
+			getLogger().trace("Analytics xray widget executor service stopped.");
+
+			return true;
+		}
+	}
+
+	/**
+	 * Lower bound on {@code analytics_native_event.created} for events in a window starting on {@code startDate},
+	 * so widget queries only scan the partitions that can hold them.
+	 */
+	@Nonnull
+	protected Instant analyticsNativeEventCreatedLowerBoundForStartDate(@Nonnull LocalDate startDate,
+																																		 @Nonnull ZoneId timeZone) {
+		requireNonNull(startDate);
+		requireNonNull(timeZone);
+
+		return getAnalyticsService().analyticsNativeEventCreatedLowerBoundForTimestamp(startDate.atStartOfDay(timeZone).toInstant());
+	}
+
 	@ThreadSafe
 	public static class AnalyticsXrayFilter {
 		@Nullable
@@ -160,20 +279,254 @@ public class AnalyticsXrayService {
 				""", AnalyticsReportGroupReport.class, analyticsReportGroupId);
 	}
 
+	/**
+	 * Creates widgets for each of the given reports, in report order.
+	 * <p>
+	 * Each widget is an independent read-replica query, so they are evaluated concurrently and the total time is roughly
+	 * that of the slowest widget.  The institution and chart colors are resolved once up front and shared.
+	 * <p>
+	 * Widgets that fail or don't finish within the timeout (30 seconds, or less if the request deadline is sooner) are
+	 * left out and their report types are returned in {@link AnalyticsWidgetsResult#getFailedReportTypeIds()}.  Each
+	 * widget's queries run with a {@code statement_timeout} sized to the time left, so abandoned widgets don't keep running
+	 * on the replica.
+	 * <p>
+	 * Widgets run on a pool shared by all requests and sized below the read-replica connection pool, so a burst of
+	 * dashboard loads queues rather than exhausting replica connections.  Each widget records its statements in its own
+	 * {@link DatabaseContext}, which is folded into the caller's once the widget finishes so the queries count against
+	 * the request's query budget.
+	 */
 	@Nonnull
-	public AnalyticsMultiChartWidget createAccountVisitsWidget(@Nonnull InstitutionId institutionId,
+	public AnalyticsWidgetsResult createWidgetsForReports(@Nonnull InstitutionId institutionId,
+																												@Nonnull List<AnalyticsReportGroupReport> reports,
+																												@Nonnull LocalDate startDate,
+																												@Nonnull LocalDate endDate,
+																												@Nonnull AnalyticsXrayFilter analyticsXrayFilter) {
+		requireNonNull(institutionId);
+		requireNonNull(reports);
+		requireNonNull(startDate);
+		requireNonNull(endDate);
+		requireNonNull(analyticsXrayFilter);
+
+		if (reports.size() == 0)
+			return new AnalyticsWidgetsResult(List.of(), List.of());
+
+		Institution institution = getInstitutionService().findInstitutionById(institutionId).get();
+
+		// Warm the color cache here so widgets don't race to populate it
+		findChartColorValuesByInstitutionId(institutionId);
+
+		// Worker threads need the caller's context for localized strings and formatting
+		CurrentContext currentContext = getCurrentContextExecutor().getCurrentContext().get();
+		Duration timeout = Duration.ofSeconds(WIDGET_TIMEOUT_IN_SECONDS);
+		Deadline deadline = currentContext.getDeadline().orElse(null);
+
+		if (deadline != null && deadline.getRemaining().compareTo(timeout) < 0)
+			timeout = deadline.getRemaining();
+
+		// Normally started at app startup, but a request may arrive first (e.g. in tests)
+		startWidgetExecutorService();
+
+		ExecutorService widgetExecutorService = getWidgetExecutorService().orElseThrow(() ->
+				new IllegalStateException("Analytics xray widget executor service has been stopped"));
+
+		// DatabaseContext isn't thread-safe, so each widget gets its own and we fold them into the caller's as they finish
+		DatabaseContext databaseContext = getDatabaseContextExecutor().getDatabaseContext().orElse(null);
+		List<DatabaseContext> widgetDatabaseContexts = new ArrayList<>(reports.size());
+		List<Future<List<AnalyticsWidget>>> futures = new ArrayList<>(reports.size());
+
+		try {
+			long timeoutAt = System.nanoTime() + timeout.toNanos();
+
+			for (AnalyticsReportGroupReport report : reports) {
+				DatabaseContext widgetDatabaseContext = databaseContext == null ? null
+						: new DatabaseContext(databaseContext.getRepeatedStatementThreshold().orElse(null));
+
+				widgetDatabaseContexts.add(widgetDatabaseContext);
+				futures.add(widgetExecutorService.submit(() -> {
+					AtomicReference<List<AnalyticsWidget>> widgets = new AtomicReference<>();
+
+					CurrentContextOperation currentContextOperation = () -> {
+						getReadReplicaDatabase().transaction(() -> {
+							// Each statement gets whatever time was left when the widget started
+							getSystemService().applyDeadlineToCurrentTransaction(getReadReplicaDatabase(), timeoutAt);
+
+							widgets.set(createWidgetsForReport(institution, report, startDate, endDate, analyticsXrayFilter));
+						});
+					};
+
+					if (widgetDatabaseContext == null)
+						getCurrentContextExecutor().execute(currentContext, currentContextOperation);
+					else
+						getDatabaseContextExecutor().execute(widgetDatabaseContext, () ->
+								getCurrentContextExecutor().execute(currentContext, currentContextOperation));
+
+					return widgets.get();
+				}));
+			}
+
+			List<AnalyticsWidget> widgets = new ArrayList<>(reports.size());
+			List<ReportTypeId> failedReportTypeIds = new ArrayList<>();
+
+			for (int i = 0; i < reports.size(); ++i) {
+				ReportTypeId reportTypeId = reports.get(i).getReportTypeId();
+				Future<List<AnalyticsWidget>> future = futures.get(i);
+
+				try {
+					widgets.addAll(future.get(Math.max(0, timeoutAt - System.nanoTime()), TimeUnit.NANOSECONDS));
+					mergeWidgetDatabaseContext(databaseContext, widgetDatabaseContexts.get(i));
+				} catch (TimeoutException e) {
+					getLogger().warn("Timed out creating widget for {} after {}, omitting it", reportTypeId.name(), timeout);
+					// Unlike CompletableFuture, this interrupts the worker (or keeps a queued widget from starting at all)
+					future.cancel(true);
+					failedReportTypeIds.add(reportTypeId);
+				} catch (ExecutionException e) {
+					// Already reported by the current context executor
+					getLogger().warn(format("Unable to create widget for %s, omitting it", reportTypeId.name()), e.getCause());
+					mergeWidgetDatabaseContext(databaseContext, widgetDatabaseContexts.get(i));
+					failedReportTypeIds.add(reportTypeId);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new RuntimeException("Interrupted while creating analytics widgets", e);
+				}
+			}
+
+			return new AnalyticsWidgetsResult(widgets, failedReportTypeIds);
+		} finally {
+			// The pool is shared, so only cancel this request's widgets - any still queued or running are abandoned
+			for (Future<List<AnalyticsWidget>> future : futures)
+				future.cancel(true);
+		}
+	}
+
+	/**
+	 * Folds a finished widget's statements into the request's context.  Must only be called once the widget's future
+	 * has completed, since that's what makes its (non-thread-safe) context safe to read from this thread.
+	 */
+	protected void mergeWidgetDatabaseContext(@Nullable DatabaseContext databaseContext,
+																						@Nullable DatabaseContext widgetDatabaseContext) {
+		if (databaseContext == null || widgetDatabaseContext == null)
+			return;
+
+		for (StatementLog statementLog : widgetDatabaseContext.getStatementLogs())
+			databaseContext.addStatementLog(statementLog);
+	}
+
+	@Nonnull
+	protected List<AnalyticsWidget> createWidgetsForReport(@Nonnull Institution institution,
+																												 @Nonnull AnalyticsReportGroupReport report,
+																												 @Nonnull LocalDate startDate,
+																												 @Nonnull LocalDate endDate,
+																												 @Nonnull AnalyticsXrayFilter analyticsXrayFilter) {
+		requireNonNull(institution);
+		requireNonNull(report);
+		requireNonNull(startDate);
+		requireNonNull(endDate);
+		requireNonNull(analyticsXrayFilter);
+
+		return switch (report.getReportTypeId()) {
+			// ** Account-related reports
+
+			// N of unique people that accessed the website
+			case ADMIN_ANALYTICS_ACCOUNT_VISITS ->
+					List.of(createAccountVisitsWidget(institution, startDate, endDate, analyticsXrayFilter));
+
+			// N of people that created an account
+			case ADMIN_ANALYTICS_ACCOUNT_CREATION ->
+					List.of(createAccountsCreatedWidget(institution, startDate, endDate, analyticsXrayFilter));
+
+			// N of repeat users (logged on more than once)
+			case ADMIN_ANALYTICS_ACCOUNT_REPEAT_VISITS ->
+					List.of(createAccountRepeatVisitsWidget(institution, startDate, endDate, analyticsXrayFilter));
+
+			// List of websites from which the user accessed the platform
+			case ADMIN_ANALYTICS_ACCOUNT_REFERRER ->
+					List.of(createAccountReferrersWidget(institution, startDate, endDate, analyticsXrayFilter));
+
+			// N of people who started the onboarding screening flow and N of people who finished
+			case ADMIN_ANALYTICS_ACCOUNT_ONBOARDING_RESULTS ->
+					List.of(createAccountOnboardingResultsWidget(institution, startDate, endDate, analyticsXrayFilter));
+
+			// Using IP address to organized by zip code
+			//	case ADMIN_ANALYTICS_ACCOUNT_LOCATION -> throw new UnsupportedOperationException("TODO");
+
+			// ** Course-related reports
+
+			// N of users per course
+			case ADMIN_ANALYTICS_COURSE_ACCOUNT_VISITS ->
+					List.of(createCourseAccountVisitsWidget(institution, startDate, endDate, analyticsXrayFilter));
+
+			// N of users doing more than one course
+			case ADMIN_ANALYTICS_COURSE_AGGREGATE_VISITS ->
+					List.of(createCourseAggregateVisitsWidget(institution, startDate, endDate, analyticsXrayFilter));
+
+			// N of people that clicked/opened a unique module
+			case ADMIN_ANALYTICS_COURSE_MODULE_ACCOUNT_VISITS ->
+					new ArrayList<>(createCourseModuleVisitWidget(institution, startDate, endDate, analyticsXrayFilter));
+
+			// N of minutes it takes for people to complete a course (mean, median, mode)
+			case ADMIN_ANALYTICS_COURSE_DWELL_TIME ->
+					List.of(createCourseDwellTimeWidget(institution, startDate, endDate, analyticsXrayFilter));
+
+			// N of minutes it takes for people to get through a unique module (mean, median, mode)
+			case ADMIN_ANALYTICS_COURSE_MODULE_DWELL_TIME ->
+					new ArrayList<>(createCourseUnitDwellTimeWidgets(institution, startDate, endDate, analyticsXrayFilter));
+
+			// N of people who complete each course
+			case ADMIN_ANALYTICS_COURSE_COMPLETION ->
+					List.of(createCourseCompletionWidget(institution, startDate, endDate, analyticsXrayFilter));
+
+			// N of people completing one or more course
+			case ADMIN_ANALYTICS_COURSE_AGGREGATE_COMPLETIONS ->
+					List.of(createCourseAggregateCompletionsWidget(institution, startDate, endDate, analyticsXrayFilter));
+
+			// N of people who complete a unique module
+			case ADMIN_ANALYTICS_COURSE_MODULE_COMPLETION ->
+					new ArrayList<>(createCourseModuleCompletionWidget(institution, startDate, endDate, analyticsXrayFilter));
+
+			default -> List.of();
+		};
+	}
+
+	@Immutable
+	public static class AnalyticsWidgetsResult {
+		@Nonnull
+		private final List<AnalyticsWidget> widgets;
+		@Nonnull
+		private final List<ReportTypeId> failedReportTypeIds;
+
+		public AnalyticsWidgetsResult(@Nonnull List<AnalyticsWidget> widgets,
+																	@Nonnull List<ReportTypeId> failedReportTypeIds) {
+			requireNonNull(widgets);
+			requireNonNull(failedReportTypeIds);
+
+			this.widgets = Collections.unmodifiableList(widgets);
+			this.failedReportTypeIds = Collections.unmodifiableList(failedReportTypeIds);
+		}
+
+		@Nonnull
+		public List<AnalyticsWidget> getWidgets() {
+			return this.widgets;
+		}
+
+		@Nonnull
+		public List<ReportTypeId> getFailedReportTypeIds() {
+			return this.failedReportTypeIds;
+		}
+	}
+
+	@Nonnull
+	public AnalyticsMultiChartWidget createAccountVisitsWidget(@Nonnull Institution institution,
 																														 @Nonnull LocalDate startDate,
 																														 @Nonnull LocalDate endDate,
 																														 @Nonnull AnalyticsXrayFilter analyticsXrayFilter) {
-		requireNonNull(institutionId);
+		requireNonNull(institution);
 		requireNonNull(startDate);
 		requireNonNull(endDate);
 		requireNonNull(analyticsXrayFilter);
 
-		Institution institution = getInstitutionService().findInstitutionById(institutionId).get();
+		InstitutionId institutionId = institution.getInstitutionId();
 		ZoneId timeZone = institution.getTimeZone();
 		Boolean behaviorBridgeProvider = analyticsXrayFilter.getBehaviorBridgeProvider();
-
 		List<AccountVisitsRow> rows = getReadReplicaDatabase().queryForList("""
 				WITH params AS (
 				  SELECT
@@ -188,16 +541,38 @@ public class AnalyticsXrayService {
 				      start_date, end_date, tz
 				  FROM params
 				),
-				daily AS (
+				watermark AS (
+				  -- Read in this statement, from the same snapshot as the rollup rows, so nothing is counted twice or missed
+				  -- if the rollup commits a batch mid-widget.  A NULL watermark means nothing has been rolled up yet
 				  SELECT
-				      (timezone(b.tz, ane."timestamp"))::date AS day,
-				      COUNT(DISTINCT ane.account_id) AS distinct_accounts
-				  FROM account a, analytics_native_event ane
+				      COALESCE(created_watermark, '-infinity'::TIMESTAMPTZ) AS created_watermark,
+				      COALESCE(id_watermark, '00000000-0000-0000-0000-000000000000'::UUID) AS id_watermark
+				  FROM analytics_native_event_rollup_watermark
+				),
+				visits AS (
+				  -- Rolled-up days, plus raw events that have not been rolled up yet
+				  SELECT anead.day, anead.account_id
+				  FROM analytics_native_event_account_day anead
+				  CROSS JOIN bounds b
+				  WHERE anead.institution_id=?
+				  AND anead.day BETWEEN b.start_date AND b.end_date
+				  UNION ALL
+				  SELECT (timezone(b.tz, ane."timestamp"))::date, ane.account_id
+				  FROM analytics_native_event ane
 				  CROSS JOIN bounds b
+				  CROSS JOIN watermark w
 				  WHERE ane."timestamp" >= b.start_utc
 				  AND ane."timestamp" <  b.end_utc
 				  AND ane.institution_id=?
-				  AND ane.account_id=a.account_id
+				  AND ane.created >= ?
+				  AND (ane.created, ane.analytics_native_event_id) > (w.created_watermark, w.id_watermark)
+				),
+				daily AS (
+				  SELECT
+				      v.day,
+				      COUNT(DISTINCT v.account_id) AS distinct_accounts
+				  FROM account a, visits v
+				  WHERE v.account_id=a.account_id
 				  AND a.role_id=?
 				  AND a.test_account=FALSE
 				  AND (?::BOOLEAN IS NULL OR a.metadata #> '{behaviorBridge,isProvider}' = to_jsonb(?::BOOLEAN))
@@ -210,7 +585,8 @@ public class AnalyticsXrayService {
 				) d
 				LEFT JOIN daily dd USING (day)
 				ORDER BY d.day
-				""", AccountVisitsRow.class, startDate, endDate, timeZone, institutionId, RoleId.PATIENT,
+				""", AccountVisitsRow.class, startDate, endDate, timeZone, institutionId, institutionId,
+				analyticsNativeEventCreatedLowerBoundForStartDate(startDate, timeZone), RoleId.PATIENT,
 				behaviorBridgeProvider, behaviorBridgeProvider);
 
 		List<InstitutionColorValue> chartColorValues = findChartColorValuesByInstitutionId(institutionId);
@@ -293,16 +669,17 @@ public class AnalyticsXrayService {
 	}
 
 	@Nonnull
-	public AnalyticsMultiChartWidget createAccountsCreatedWidget(@Nonnull InstitutionId institutionId,
+	public AnalyticsMultiChartWidget createAccountsCreatedWidget(@Nonnull Institution institution,
 																															 @Nonnull LocalDate startDate,
 																															 @Nonnull LocalDate endDate,
 																															 @Nonnull AnalyticsXrayFilter analyticsXrayFilter) {
-		requireNonNull(institutionId);
+		requireNonNull(institution);
 		requireNonNull(startDate);
 		requireNonNull(endDate);
 		requireNonNull(analyticsXrayFilter);
 
-		ZoneId timeZone = getInstitutionService().findInstitutionById(institutionId).get().getTimeZone();
+		InstitutionId institutionId = institution.getInstitutionId();
+		ZoneId timeZone = institution.getTimeZone();
 		Boolean behaviorBridgeProvider = analyticsXrayFilter.getBehaviorBridgeProvider();
 
 		List<AccountsCreatedRow> rows = getReadReplicaDatabase().queryForList("""
@@ -421,18 +798,18 @@ public class AnalyticsXrayService {
 	}
 
 	@Nonnull
-	public AnalyticsCounterWidget createAccountRepeatVisitsWidget(@Nonnull InstitutionId institutionId,
+	public AnalyticsCounterWidget createAccountRepeatVisitsWidget(@Nonnull Institution institution,
 																																@Nonnull LocalDate startDate,
 																																@Nonnull LocalDate endDate,
 																																@Nonnull AnalyticsXrayFilter analyticsXrayFilter) {
-		requireNonNull(institutionId);
+		requireNonNull(institution);
 		requireNonNull(startDate);
 		requireNonNull(endDate);
 		requireNonNull(analyticsXrayFilter);
 
-		ZoneId timeZone = getInstitutionService().findInstitutionById(institutionId).get().getTimeZone();
+		InstitutionId institutionId = institution.getInstitutionId();
+		ZoneId timeZone = institution.getTimeZone();
 		Boolean behaviorBridgeProvider = analyticsXrayFilter.getBehaviorBridgeProvider();
-
 		Long accountsWithMoreThanOneSession = getReadReplicaDatabase().queryForObject("""
 				WITH params AS (
 				  SELECT
@@ -443,30 +820,53 @@ public class AnalyticsXrayService {
 				bounds AS (
 				  SELECT
 				      (start_date::timestamp AT TIME ZONE tz) AS start_utc,
-				      ((end_date + 1)::timestamp AT TIME ZONE tz) AS end_utc
+				      ((end_date + 1)::timestamp AT TIME ZONE tz) AS end_utc,
+				      start_date, end_date
 				  FROM params
-				)
-				SELECT COUNT(*)::bigint AS accounts_with_multi_sessions
-				FROM (
-				  SELECT ane.account_id
+				),
+				watermark AS (
+				  -- Read in this statement, from the same snapshot as the rollup rows, so nothing is counted twice or missed
+				  -- if the rollup commits a batch mid-widget.  A NULL watermark means nothing has been rolled up yet
+				  SELECT
+				      COALESCE(created_watermark, '-infinity'::TIMESTAMPTZ) AS created_watermark,
+				      COALESCE(id_watermark, '00000000-0000-0000-0000-000000000000'::UUID) AS id_watermark
+				  FROM analytics_native_event_rollup_watermark
+				),
+				sessions AS (
+				  -- Rolled-up days, plus raw events that have not been rolled up yet
+				  SELECT anead.account_id, UNNEST(anead.session_ids) AS session_id
 				  FROM bounds b
+				  JOIN analytics_native_event_account_day anead
+				    ON anead.day BETWEEN b.start_date AND b.end_date
+				  WHERE anead.institution_id=?
+				  UNION ALL
+				  SELECT ane.account_id, ane.session_id
+				  FROM bounds b
+				  CROSS JOIN watermark w
 				  JOIN analytics_native_event ane
 				    ON ane."timestamp" >= b.start_utc
 				   AND ane."timestamp" <  b.end_utc
+				  WHERE ane.created >= ?
+				  AND (ane.created, ane.analytics_native_event_id) > (w.created_watermark, w.id_watermark)
+				)
+				SELECT COUNT(*)::bigint AS accounts_with_multi_sessions
+				FROM (
+				  SELECT s.account_id
+				  FROM sessions s
 				  WHERE EXISTS (
 				          SELECT 1
 				          FROM account a
-				          WHERE a.account_id = ane.account_id
+				          WHERE a.account_id = s.account_id
 				          AND a.role_id=?
 				          AND a.test_account=FALSE
 				          AND a.institution_id=?
 				          AND (?::BOOLEAN IS NULL OR a.metadata #> '{behaviorBridge,isProvider}' = to_jsonb(?::BOOLEAN))
 				        )
-				  GROUP BY ane.account_id
-				  HAVING COUNT(DISTINCT ane.session_id) > 1
+				  GROUP BY s.account_id
+				  HAVING COUNT(DISTINCT s.session_id) > 1
 				) t
-				""", Long.class, startDate, endDate, timeZone, RoleId.PATIENT, institutionId,
-				behaviorBridgeProvider, behaviorBridgeProvider).get();
+				""", Long.class, startDate, endDate, timeZone, institutionId, analyticsNativeEventCreatedLowerBoundForStartDate(startDate, timeZone),
+				RoleId.PATIENT, institutionId, behaviorBridgeProvider, behaviorBridgeProvider).get();
 
 		AnalyticsCounterWidget counterWidget = new AnalyticsCounterWidget();
 		counterWidget.setWidgetTotal(accountsWithMoreThanOneSession);
@@ -479,20 +879,19 @@ public class AnalyticsXrayService {
 	}
 
 	@Nonnull
-	public AnalyticsTableWidget createAccountReferrersWidget(@Nonnull InstitutionId institutionId,
+	public AnalyticsTableWidget createAccountReferrersWidget(@Nonnull Institution institution,
 																													 @Nonnull LocalDate startDate,
 																													 @Nonnull LocalDate endDate,
 																													 @Nonnull AnalyticsXrayFilter analyticsXrayFilter) {
-		requireNonNull(institutionId);
+		requireNonNull(institution);
 		requireNonNull(startDate);
 		requireNonNull(endDate);
 		requireNonNull(analyticsXrayFilter);
 
-		Institution institution = getInstitutionService().findInstitutionById(institutionId).get();
+		InstitutionId institutionId = institution.getInstitutionId();
 		ZoneId timeZone = institution.getTimeZone();
 		String webappBaseUrl = getInstitutionService().findWebappBaseUrlByInstitutionIdAndUserExperienceTypeId(institutionId, UserExperienceTypeId.PATIENT).get();
 		Boolean behaviorBridgeProvider = analyticsXrayFilter.getBehaviorBridgeProvider();
-
 		List<AccountReferrersRow> rows = getReadReplicaDatabase().queryForList("""
 						WITH params AS (
 						  SELECT
@@ -503,29 +902,52 @@ public class AnalyticsXrayService {
 						bounds AS (
 						  SELECT
 						      (start_date::timestamp AT TIME ZONE tz) AS start_utc,
-						      ((end_date + 1)::timestamp AT TIME ZONE tz) AS end_utc
+						      ((end_date + 1)::timestamp AT TIME ZONE tz) AS end_utc,
+						      start_date, end_date
 						  FROM params
+						),
+						watermark AS (
+						  -- Read in this statement, from the same snapshot as the rollup rows, so nothing is counted twice or missed
+						  -- if the rollup commits a batch mid-widget.  A NULL watermark means nothing has been rolled up yet
+						  SELECT
+						      COALESCE(created_watermark, '-infinity'::TIMESTAMPTZ) AS created_watermark,
+						      COALESCE(id_watermark, '00000000-0000-0000-0000-000000000000'::UUID) AS id_watermark
+						  FROM analytics_native_event_rollup_watermark
+						),
+						referrals AS (
+						  -- Rolled-up days, plus raw events that have not been rolled up yet
+						  SELECT aner.account_id, aner.referring_url, aner.event_count
+						  FROM bounds b
+						  JOIN analytics_native_event_referrer_day aner
+							  ON aner.day BETWEEN b.start_date AND b.end_date
+						  WHERE aner.institution_id=?
+						  UNION ALL
+						  SELECT ane.account_id, ane.data->>'referringUrl', 1
+						  FROM bounds b
+						  CROSS JOIN watermark w
+						  JOIN analytics_native_event ane
+							  ON ane."timestamp" >= b.start_utc
+						   AND ane."timestamp" <  b.end_utc
+						  WHERE ane.institution_id=?
+							  AND ane.analytics_native_event_type_id=?
+							  AND ane.created >= ?
+							  AND (ane.created, ane.analytics_native_event_id) > (w.created_watermark, w.id_watermark)
 						)
 						SELECT
-						  ane.data->>'referringUrl' AS referring_url,
-						  COUNT(*)::bigint          AS event_count
-						FROM bounds b
-						JOIN analytics_native_event ane
-							ON ane."timestamp" >= b.start_utc
-						 AND ane."timestamp" <  b.end_utc
+						  r.referring_url,
+						  SUM(r.event_count)::bigint AS event_count
+						FROM referrals r
 						JOIN account a
-							ON a.account_id = ane.account_id
-						WHERE ane.institution_id=?
-							AND a.role_id=?
+							ON a.account_id = r.account_id
+						WHERE a.role_id=?
 							AND a.test_account=FALSE
-							AND ane.analytics_native_event_type_id=?
-							AND ane.data->>'referringUrl' NOT LIKE CONCAT(?,'%')
+							AND r.referring_url NOT LIKE CONCAT(?,'%')
 							AND (?::BOOLEAN IS NULL OR a.metadata #> '{behaviorBridge,isProvider}' = to_jsonb(?::BOOLEAN))
-						GROUP BY referring_url
-						ORDER BY event_count DESC, referring_url
-						""", AccountReferrersRow.class, startDate, endDate, timeZone, institutionId, RoleId.PATIENT,
-				AnalyticsNativeEventTypeId.SESSION_STARTED, webappBaseUrl,
-				behaviorBridgeProvider, behaviorBridgeProvider);
+						GROUP BY r.referring_url
+						ORDER BY event_count DESC, r.referring_url
+						""", AccountReferrersRow.class, startDate, endDate, timeZone, institutionId, institutionId,
+				AnalyticsNativeEventTypeId.SESSION_STARTED, analyticsNativeEventCreatedLowerBoundForStartDate(startDate, timeZone),
+				RoleId.PATIENT, webappBaseUrl, behaviorBridgeProvider, behaviorBridgeProvider);
 
 		Long widgetTotal = rows.stream()
 				.map(AccountReferrersRow::getEventCount)
@@ -593,16 +1015,16 @@ public class AnalyticsXrayService {
 	}
 
 	@Nonnull
-	public AnalyticsMultiChartWidget createAccountOnboardingResultsWidget(@Nonnull InstitutionId institutionId,
+	public AnalyticsMultiChartWidget createAccountOnboardingResultsWidget(@Nonnull Institution institution,
 																																				@Nonnull LocalDate startDate,
 																																				@Nonnull LocalDate endDate,
 																																				@Nonnull AnalyticsXrayFilter analyticsXrayFilter) {
-		requireNonNull(institutionId);
+		requireNonNull(institution);
 		requireNonNull(startDate);
 		requireNonNull(endDate);
 		requireNonNull(analyticsXrayFilter);
 
-		Institution institution = getInstitutionService().findInstitutionById(institutionId).get();
+		InstitutionId institutionId = institution.getInstitutionId();
 		ZoneId timeZone = institution.getTimeZone();
 		Boolean behaviorBridgeProvider = analyticsXrayFilter.getBehaviorBridgeProvider();
 
@@ -822,16 +1244,17 @@ public class AnalyticsXrayService {
 	}
 
 	@Nonnull
-	public AnalyticsCounterWidget createCourseAggregateCompletionsWidget(@Nonnull InstitutionId institutionId,
+	public AnalyticsCounterWidget createCourseAggregateCompletionsWidget(@Nonnull Institution institution,
 																																			 @Nonnull LocalDate startDate,
 																																			 @Nonnull LocalDate endDate,
 																																			 @Nonnull AnalyticsXrayFilter analyticsXrayFilter) {
-		requireNonNull(institutionId);
+		requireNonNull(institution);
 		requireNonNull(startDate);
 		requireNonNull(endDate);
 		requireNonNull(analyticsXrayFilter);
 
-		ZoneId timeZone = getInstitutionService().findInstitutionById(institutionId).get().getTimeZone();
+		InstitutionId institutionId = institution.getInstitutionId();
+		ZoneId timeZone = institution.getTimeZone();
 		Boolean behaviorBridgeProvider = analyticsXrayFilter.getBehaviorBridgeProvider();
 
 		Long courseAggregateCompletions = getReadReplicaDatabase().queryForObject("""
@@ -880,16 +1303,17 @@ public class AnalyticsXrayService {
 	}
 
 	@Nonnull
-	public AnalyticsCounterWidget createCourseAggregateVisitsWidget(@Nonnull InstitutionId institutionId,
+	public AnalyticsCounterWidget createCourseAggregateVisitsWidget(@Nonnull Institution institution,
 																																	@Nonnull LocalDate startDate,
 																																	@Nonnull LocalDate endDate,
 																																	@Nonnull AnalyticsXrayFilter analyticsXrayFilter) {
-		requireNonNull(institutionId);
+		requireNonNull(institution);
 		requireNonNull(startDate);
 		requireNonNull(endDate);
 		requireNonNull(analyticsXrayFilter);
 
-		ZoneId timeZone = getInstitutionService().findInstitutionById(institutionId).get().getTimeZone();
+		InstitutionId institutionId = institution.getInstitutionId();
+		ZoneId timeZone = institution.getTimeZone();
 		Boolean behaviorBridgeProvider = analyticsXrayFilter.getBehaviorBridgeProvider();
 
 		Long courseAggregateVisits = getReadReplicaDatabase().queryForObject("""
@@ -938,16 +1362,16 @@ public class AnalyticsXrayService {
 	}
 
 	@Nonnull
-	public AnalyticsMultiChartWidget createCourseCompletionWidget(@Nonnull InstitutionId institutionId,
+	public AnalyticsMultiChartWidget createCourseCompletionWidget(@Nonnull Institution institution,
 																																@Nonnull LocalDate startDate,
 																																@Nonnull LocalDate endDate,
 																																@Nonnull AnalyticsXrayFilter analyticsXrayFilter) {
-		requireNonNull(institutionId);
+		requireNonNull(institution);
 		requireNonNull(startDate);
 		requireNonNull(endDate);
 		requireNonNull(analyticsXrayFilter);
 
-		Institution institution = getInstitutionService().findInstitutionById(institutionId).get();
+		InstitutionId institutionId = institution.getInstitutionId();
 		ZoneId timeZone = institution.getTimeZone();
 		Boolean behaviorBridgeProvider = analyticsXrayFilter.getBehaviorBridgeProvider();
 
@@ -1035,16 +1459,16 @@ public class AnalyticsXrayService {
 
 
 	@Nonnull
-	public List<AnalyticsMultiChartWidget> createCourseModuleCompletionWidget(@Nonnull InstitutionId institutionId,
+	public List<AnalyticsMultiChartWidget> createCourseModuleCompletionWidget(@Nonnull Institution institution,
 																																						@Nonnull LocalDate startDate,
 																																						@Nonnull LocalDate endDate,
 																																						@Nonnull AnalyticsXrayFilter analyticsXrayFilter) {
-		requireNonNull(institutionId);
+		requireNonNull(institution);
 		requireNonNull(startDate);
 		requireNonNull(endDate);
 		requireNonNull(analyticsXrayFilter);
 
-		Institution institution = getInstitutionService().findInstitutionById(institutionId).get();
+		InstitutionId institutionId = institution.getInstitutionId();
 		ZoneId timeZone = institution.getTimeZone();
 		Boolean behaviorBridgeProvider = analyticsXrayFilter.getBehaviorBridgeProvider();
 		List<AnalyticsMultiChartWidget> widgets = new ArrayList<>();
@@ -1184,18 +1608,19 @@ public class AnalyticsXrayService {
 	}
 
 	@Nonnull
-	public List<AnalyticsMultiChartWidget> createCourseModuleVisitWidget(@Nonnull InstitutionId institutionId,
+	public List<AnalyticsMultiChartWidget> createCourseModuleVisitWidget(@Nonnull Institution institution,
 																																			 @Nonnull LocalDate startDate,
 																																			 @Nonnull LocalDate endDate,
 																																			 @Nonnull AnalyticsXrayFilter analyticsXrayFilter) {
-		requireNonNull(institutionId);
+		requireNonNull(institution);
 		requireNonNull(startDate);
 		requireNonNull(endDate);
 		requireNonNull(analyticsXrayFilter);
 
-		Institution institution = getInstitutionService().findInstitutionById(institutionId).get();
+		InstitutionId institutionId = institution.getInstitutionId();
 		ZoneId timeZone = institution.getTimeZone();
 		Boolean behaviorBridgeProvider = analyticsXrayFilter.getBehaviorBridgeProvider();
+		Instant createdLowerBound = analyticsNativeEventCreatedLowerBoundForStartDate(startDate, timeZone);
 		List<AnalyticsMultiChartWidget> widgets = new ArrayList<>();
 
 		for (Course course : getCourseService().findCoursesByInstitutionId(institutionId)) {
@@ -1227,6 +1652,7 @@ public class AnalyticsXrayService {
 								AND ane."timestamp" <  b.end_utc
 								AND ane.institution_id = ?
 								AND ane.analytics_native_event_type_id = ?
+								AND ane.created >= ?
 							 JOIN account a
 								 ON a.account_id = ane.account_id
 								AND a.role_id = ?
@@ -1251,6 +1677,7 @@ public class AnalyticsXrayService {
 								AND ane."timestamp" <  b.end_utc
 								AND ane.institution_id = ?
 								AND ane.analytics_native_event_type_id = ?
+								AND ane.created >= ?
 							 JOIN account a
 								 ON a.account_id = ane.account_id
 								AND a.role_id = ?
@@ -1281,11 +1708,11 @@ public class AnalyticsXrayService {
 							""",
 					ModuleAccountVisitsRow.class,
 					startDate, endDate, timeZone,
-					institutionId, AnalyticsNativeEventTypeId.PAGE_VIEW_COURSE_UNIT,
+					institutionId, AnalyticsNativeEventTypeId.PAGE_VIEW_COURSE_UNIT, createdLowerBound,
 					RoleId.PATIENT,
 					behaviorBridgeProvider, behaviorBridgeProvider,
 					course.getCourseId(),
-					institutionId, AnalyticsNativeEventTypeId.PAGE_VIEW_COURSE_UNIT,
+					institutionId, AnalyticsNativeEventTypeId.PAGE_VIEW_COURSE_UNIT, createdLowerBound,
 					RoleId.PATIENT,
 					behaviorBridgeProvider, behaviorBridgeProvider,
 					course.getCourseId()
@@ -1305,16 +1732,16 @@ public class AnalyticsXrayService {
 	}
 
 	@Nonnull
-	public AnalyticsMultiChartWidget createCourseAccountVisitsWidget(@Nonnull InstitutionId institutionId,
+	public AnalyticsMultiChartWidget createCourseAccountVisitsWidget(@Nonnull Institution institution,
 																																	 @Nonnull LocalDate startDate,
 																																	 @Nonnull LocalDate endDate,
 																																	 @Nonnull AnalyticsXrayFilter analyticsXrayFilter) {
-		requireNonNull(institutionId);
+		requireNonNull(institution);
 		requireNonNull(startDate);
 		requireNonNull(endDate);
 		requireNonNull(analyticsXrayFilter);
 
-		Institution institution = getInstitutionService().findInstitutionById(institutionId).get();
+		InstitutionId institutionId = institution.getInstitutionId();
 		ZoneId timeZone = institution.getTimeZone();
 		Boolean behaviorBridgeProvider = analyticsXrayFilter.getBehaviorBridgeProvider();
 
@@ -1325,6 +1752,7 @@ public class AnalyticsXrayService {
 		// 2025-10-24 | b38f9806-3ba2-4ec7-b836-538c395621df | Managing Challenging Behaviors |                 0
 		// 2025-10-24 | 11ad19bb-3759-4610-b8f7-0fe56f647d45 | Parenting Teens                |                 1
 		// 2025-10-24 | d5cf3b37-c3a3-4d30-9d47-7f6e33ce6b68 | Understanding Trauma           |                 0
+		Instant createdLowerBound = analyticsNativeEventCreatedLowerBoundForStartDate(startDate, timeZone);
 		List<CourseAccountVisitsRow> rows = getReadReplicaDatabase().queryForList("""
 						WITH params AS (
 						  SELECT
@@ -1350,6 +1778,7 @@ public class AnalyticsXrayService {
 						   AND ane."timestamp" <  b.end_utc
 						   AND ane.institution_id = ?
 						   AND ane.analytics_native_event_type_id = ?
+						   AND ane.created >= ?
 						  JOIN account a
 						    ON a.account_id = ane.account_id
 						   AND a.role_id = ?
@@ -1375,6 +1804,7 @@ public class AnalyticsXrayService {
 						   AND ane."timestamp" <  b.end_utc
 						   AND ane.institution_id = ?
 						   AND ane.analytics_native_event_type_id = ?
+						   AND ane.created >= ?
 						  JOIN account a
 						    ON a.account_id = ane.account_id
 						   AND a.role_id = ?
@@ -1406,9 +1836,9 @@ public class AnalyticsXrayService {
 						""",
 				CourseAccountVisitsRow.class,
 				startDate, endDate, timeZone,
-				institutionId, AnalyticsNativeEventTypeId.PAGE_VIEW_COURSE_UNIT, RoleId.PATIENT,
+				institutionId, AnalyticsNativeEventTypeId.PAGE_VIEW_COURSE_UNIT, createdLowerBound, RoleId.PATIENT,
 				behaviorBridgeProvider, behaviorBridgeProvider,
-				institutionId, AnalyticsNativeEventTypeId.PAGE_VIEW_COURSE_UNIT, RoleId.PATIENT,
+				institutionId, AnalyticsNativeEventTypeId.PAGE_VIEW_COURSE_UNIT, createdLowerBound, RoleId.PATIENT,
 				behaviorBridgeProvider, behaviorBridgeProvider
 		);
 
@@ -1703,16 +2133,16 @@ public class AnalyticsXrayService {
 	}
 
 	@Nonnull
-	public AnalyticsTableWidget createCourseDwellTimeWidget(@Nonnull InstitutionId institutionId,
+	public AnalyticsTableWidget createCourseDwellTimeWidget(@Nonnull Institution institution,
 																													@Nonnull LocalDate startDate,
 																													@Nonnull LocalDate endDate,
 																													@Nonnull AnalyticsXrayFilter analyticsXrayFilter) {
-		requireNonNull(institutionId);
+		requireNonNull(institution);
 		requireNonNull(startDate);
 		requireNonNull(endDate);
 		requireNonNull(analyticsXrayFilter);
 
-		Institution institution = getInstitutionService().findInstitutionById(institutionId).get();
+		InstitutionId institutionId = institution.getInstitutionId();
 		ZoneId timeZone = institution.getTimeZone();
 		Boolean behaviorBridgeProvider = analyticsXrayFilter.getBehaviorBridgeProvider();
 
@@ -1864,16 +2294,16 @@ public class AnalyticsXrayService {
 	}
 
 	@Nonnull
-	public List<AnalyticsTableWidget> createCourseUnitDwellTimeWidgets(@Nonnull InstitutionId institutionId,
+	public List<AnalyticsTableWidget> createCourseUnitDwellTimeWidgets(@Nonnull Institution institution,
 																																		 @Nonnull LocalDate startDate,
 																																		 @Nonnull LocalDate endDate,
 																																		 @Nonnull AnalyticsXrayFilter analyticsXrayFilter) {
-		requireNonNull(institutionId);
+		requireNonNull(institution);
 		requireNonNull(startDate);
 		requireNonNull(endDate);
 		requireNonNull(analyticsXrayFilter);
 
-		Institution institution = getInstitutionService().findInstitutionById(institutionId).get();
+		InstitutionId institutionId = institution.getInstitutionId();
 		List<Course> courses = getCourseService().findCoursesByInstitutionId(institutionId);
 		ZoneId timeZone = institution.getTimeZone();
 		Boolean behaviorBridgeProvider = analyticsXrayFilter.getBehaviorBridgeProvider();
@@ -2498,6 +2928,16 @@ public class AnalyticsXrayService {
 		return this.courseServiceProvider.get();
 	}
 
+	@Nonnull
+	protected AnalyticsService getAnalyticsService() {
+		return this.analyticsServiceProvider.get();
+	}
+
+	@Nonnull
+	protected SystemService getSystemService() {
+		return this.systemServiceProvider.get();
+	}
+
 	@Nonnull
 	protected Database getReadReplicaDatabase() {
 		return this.databaseProvider.getReadReplicaDatabase();
@@ -2513,6 +2953,50 @@ public class AnalyticsXrayService {
 		return this.formatter;
 	}
 
+	@Nonnull
+	protected Integer getWidgetConcurrency() {
+		Integer readReplicaMaximumPoolSize = getConfiguration().getJdbcReadReplicaMaximumPoolSize();
+
+		if (readReplicaMaximumPoolSize == null)
+			return WIDGET_CONCURRENCY;
+
+		return Math.max(1, Math.min(WIDGET_CONCURRENCY, readReplicaMaximumPoolSize / 2));
+	}
+
+	@Nonnull
+	public Boolean isWidgetExecutorServiceStarted() {
+		synchronized (getWidgetExecutorServiceLock()) {
+			return this.widgetExecutorServiceStarted;
+		}
+	}
+
+	@Nonnull
+	protected Object getWidgetExecutorServiceLock() {
+		return this.widgetExecutorServiceLock;
+	}
+
+	@Nonnull
+	protected Optional<ExecutorService> getWidgetExecutorService() {
+		synchronized (getWidgetExecutorServiceLock()) {
+			return Optional.ofNullable(this.widgetExecutorService);
+		}
+	}
+
+	@Nonnull
+	protected DatabaseContextExecutor getDatabaseContextExecutor() {
+		return this.databaseContextExecutor;
+	}
+
+	@Nonnull
+	protected Configuration getConfiguration() {
+		return this.configuration;
+	}
+
+	@Nonnull
+	protected CurrentContextExecutor getCurrentContextExecutor() {
+		return this.currentContextExecutor;
+	}
+
 	@Nonnull
 	protected Logger getLogger() {
 		return this.logger;
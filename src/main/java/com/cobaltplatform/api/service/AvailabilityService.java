@@ -46,9 +46,11 @@ import com.cobaltplatform.api.model.service.ProviderCalendar;
 import com.cobaltplatform.api.model.service.ProviderFind;
 import com.cobaltplatform.api.model.service.ProviderFind.AvailabilityDate;
 import com.cobaltplatform.api.model.service.ProviderFind.AvailabilityStatus;
+import com.cobaltplatform.api.util.MetricsRecorder;
 import com.cobaltplatform.api.util.ValidationException;
 import com.cobaltplatform.api.util.ValidationException.FieldError;
 import com.cobaltplatform.api.util.db.DatabaseProvider;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.lokalized.Strings;
 import com.pyranid.Database;
@@ -57,22 +59,31 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 import static com.cobaltplatform.api.util.DatabaseUtility.sqlVaragsParameters;
@@ -95,6 +106,12 @@ public class AvailabilityService implements AutoCloseable {
 	private static final LocalTime HISTORY_BACKGROUND_TASK_RUN_START_TIME_WINDOW;
 	@Nonnull
 	private static final LocalTime HISTORY_BACKGROUND_TASK_RUN_END_TIME_WINDOW;
+	@Nonnull
+	private static final Integer HISTORY_CAPTURE_CONCURRENCY;
+	@Nonnull
+	private static final Long HISTORY_CAPTURE_TIMEOUT_IN_MINUTES;
+	@Nonnull
+	private static final Integer HISTORY_WRITE_BATCH_SIZE;
 
 	static {
 		DISTANT_FUTURE_DATE = LocalDate.of(9999, 1, 1);
@@ -104,6 +121,11 @@ public class AvailabilityService implements AutoCloseable {
 		// History task is runnable during this time window in each institution's time zone
 		HISTORY_BACKGROUND_TASK_RUN_START_TIME_WINDOW = LocalTime.of(22, 0);
 		HISTORY_BACKGROUND_TASK_RUN_END_TIME_WINDOW = LocalTime.of(23, 0);
+
+		// Institutions are captured independently, a few at a time
+		HISTORY_CAPTURE_CONCURRENCY = 4;
+		HISTORY_CAPTURE_TIMEOUT_IN_MINUTES = 30L;
+		HISTORY_WRITE_BATCH_SIZE = 500;
 	}
 
 	@Nonnull
@@ -711,6 +733,100 @@ public class AvailabilityService implements AutoCloseable {
 		return this.historyBackgroundTaskProvider;
 	}
 
+	@Immutable
+	protected static class ProviderAvailabilityHistorySlot {
+		@Nonnull
+		private final UUID providerId;
+		@Nonnull
+		private final SchedulingSystemId schedulingSystemId;
+		@Nonnull
+		private final String name;
+		@Nonnull
+		private final LocalDateTime slotDateTime;
+		@Nonnull
+		private final List<UUID> appointmentTypeIds;
+
+		public ProviderAvailabilityHistorySlot(@Nonnull UUID providerId,
+																					 @Nonnull SchedulingSystemId schedulingSystemId,
+																					 @Nonnull String name,
+																					 @Nonnull LocalDateTime slotDateTime,
+																					 @Nonnull List<UUID> appointmentTypeIds) {
+			requireNonNull(providerId);
+			requireNonNull(schedulingSystemId);
+			requireNonNull(name);
+			requireNonNull(slotDateTime);
+			requireNonNull(appointmentTypeIds);
+
+			this.providerId = providerId;
+			this.schedulingSystemId = schedulingSystemId;
+			this.name = name;
+			this.slotDateTime = slotDateTime;
+			this.appointmentTypeIds = List.copyOf(appointmentTypeIds);
+		}
+
+		@Nonnull
+		public UUID getProviderId() {
+			return this.providerId;
+		}
+
+		@Nonnull
+		public SchedulingSystemId getSchedulingSystemId() {
+			return this.schedulingSystemId;
+		}
+
+		@Nonnull
+		public String getName() {
+			return this.name;
+		}
+
+		@Nonnull
+		public LocalDateTime getSlotDateTime() {
+			return this.slotDateTime;
+		}
+
+		@Nonnull
+		public List<UUID> getAppointmentTypeIds() {
+			return this.appointmentTypeIds;
+		}
+	}
+
+	@NotThreadSafe
+	protected static class ProviderAvailabilityHistoryRow {
+		@Nullable
+		private UUID providerAvailabilityHistoryId;
+		@Nullable
+		private UUID providerId;
+		@Nullable
+		private LocalDateTime slotDateTime;
+
+		@Nullable
+		public UUID getProviderAvailabilityHistoryId() {
+			return this.providerAvailabilityHistoryId;
+		}
+
+		public void setProviderAvailabilityHistoryId(@Nullable UUID providerAvailabilityHistoryId) {
+			this.providerAvailabilityHistoryId = providerAvailabilityHistoryId;
+		}
+
+		@Nullable
+		public UUID getProviderId() {
+			return this.providerId;
+		}
+
+		public void setProviderId(@Nullable UUID providerId) {
+			this.providerId = providerId;
+		}
+
+		@Nullable
+		public LocalDateTime getSlotDateTime() {
+			return this.slotDateTime;
+		}
+
+		public void setSlotDateTime(@Nullable LocalDateTime slotDateTime) {
+			this.slotDateTime = slotDateTime;
+		}
+	}
+
 	@ThreadSafe
 	protected static class HistoryBackgroundTask implements Runnable {
 		@Nonnull
@@ -726,6 +842,8 @@ public class AvailabilityService implements AutoCloseable {
 		@Nonnull
 		private final ErrorReporter errorReporter;
 		@Nonnull
+		private final MetricsRecorder metricsRecorder;
+		@Nonnull
 		private final DatabaseProvider databaseProvider;
 		@Nonnull
 		private final Configuration configuration;
@@ -739,6 +857,7 @@ public class AvailabilityService implements AutoCloseable {
 																 @Nonnull AppointmentService appointmentService,
 																 @Nonnull CurrentContextExecutor currentContextExecutor,
 																 @Nonnull ErrorReporter errorReporter,
+																 @Nonnull MetricsRecorder metricsRecorder,
 																 @Nonnull DatabaseProvider databaseProvider,
 																 @Nonnull Configuration configuration) {
 			requireNonNull(systemService);
@@ -747,6 +866,7 @@ public class AvailabilityService implements AutoCloseable {
 			requireNonNull(appointmentService);
 			requireNonNull(currentContextExecutor);
 			requireNonNull(errorReporter);
+			requireNonNull(metricsRecorder);
 			requireNonNull(databaseProvider);
 			requireNonNull(configuration);
 
@@ -756,6 +876,7 @@ public class AvailabilityService implements AutoCloseable {
 			this.appointmentService = appointmentService;
 			this.currentContextExecutor = currentContextExecutor;
 			this.errorReporter = errorReporter;
+			this.metricsRecorder = metricsRecorder;
 			this.databaseProvider = databaseProvider;
 			this.configuration = configuration;
 			this.logger = LoggerFactory.getLogger(getClass());
@@ -767,8 +888,10 @@ public class AvailabilityService implements AutoCloseable {
 
 			getCurrentContextExecutor().execute(currentContext, () -> {
 				try {
+					// The coordinating transaction only holds the advisory lock - each institution is captured on a worker
+					// thread in its own short transaction, and the lock is released automatically if this node goes away
 					getDatabase().transaction(() -> {
-						getSystemService().performAdvisoryLockOperationIfAvailable(AdvisoryLock.PROVIDER_AVAILABILITY_HISTORY_STORAGE, () -> {
+						getSystemService().performTransactionAdvisoryLockOperationIfAvailable(AdvisoryLock.PROVIDER_AVAILABILITY_HISTORY_STORAGE, () -> {
 							storeProviderAvailabilityHistoryForCurrentDate();
 						});
 					});
@@ -782,93 +905,237 @@ public class AvailabilityService implements AutoCloseable {
 		protected void storeProviderAvailabilityHistoryForCurrentDate() {
 			getLogger().trace("Starting provider availability history storage task...");
 
-			for (Institution institution : getInstitutionService().findInstitutions()) {
-				Account account = new Account();
-				account.setTimeZone(institution.getTimeZone());
+			List<Institution> institutions = new ArrayList<>();
 
-				LocalDateTime currentDateTimeForInstitution = LocalDateTime.now(institution.getTimeZone());
-				LocalDateTime startOfDay = currentDateTimeForInstitution.with(LocalTime.MIN);
-				LocalDateTime endOfDay = currentDateTimeForInstitution.with(LocalTime.MAX);
+			for (Institution institution : getInstitutionService().findInstitutions()) {
+				LocalTime currentTimeForInstitution = LocalTime.now(institution.getTimeZone());
 
-				boolean withinTimeWindow = currentDateTimeForInstitution.toLocalTime().isAfter(getHistoryBackgroundTaskRunStartTimeWindow())
-						&& currentDateTimeForInstitution.toLocalTime().isBefore(getHistoryBackgroundTaskRunEndTimeWindow());
+				boolean withinTimeWindow = currentTimeForInstitution.isAfter(getHistoryBackgroundTaskRunStartTimeWindow())
+						&& currentTimeForInstitution.isBefore(getHistoryBackgroundTaskRunEndTimeWindow());
 
 				// Only do the sync within the specified time window
-				if (!withinTimeWindow)
+				if (withinTimeWindow)
+					institutions.add(institution);
+			}
+
+			if (institutions.size() == 0) {
+				getLogger().trace("No institutions are within the provider availability history time window.");
+				return;
+			}
+
+			CurrentContext currentContext = new CurrentContext.Builder(InstitutionId.COBALT, getConfiguration().getDefaultLocale(), getConfiguration().getDefaultTimeZone()).build();
+			long captureDeadlineNanoTime = System.nanoTime() + TimeUnit.MINUTES.toNanos(getHistoryCaptureTimeoutInMinutes());
+
+			ExecutorService historyExecutorService = Executors.newFixedThreadPool(Math.min(institutions.size(), getHistoryCaptureConcurrency()),
+					new ThreadFactoryBuilder().setNameFormat("availability-history-capture-%d").build());
+
+			try {
+				List<CompletableFuture<Void>> completableFutures = new ArrayList<>(institutions.size());
+
+				for (Institution institution : institutions)
+					completableFutures.add(CompletableFuture.runAsync(() -> {
+						getCurrentContextExecutor().execute(currentContext, () -> {
+							storeProviderAvailabilityHistoryForInstitution(institution, captureDeadlineNanoTime);
+						});
+					}, historyExecutorService));
+
+				try {
+					CompletableFuture.allOf(completableFutures.toArray(new CompletableFuture[0]))
+							.get(getHistoryCaptureTimeoutInMinutes(), TimeUnit.MINUTES);
+				} catch (TimeoutException e) {
+					getLogger().warn("Timed out storing provider availability history after {} minutes", getHistoryCaptureTimeoutInMinutes());
+				} catch (ExecutionException e) {
+					throw new RuntimeException("Unable to store provider availability history", e);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new RuntimeException("Interrupted while storing provider availability history", e);
+				}
+			} finally {
+				// Our caller releases the advisory lock as soon as we return, so wait for workers to stop writing
+				// or another node could start capturing the same institutions alongside them
+				getSystemService().shutdownNowAndAwaitTermination(historyExecutorService, "Provider availability history workers");
+			}
+
+			getLogger().trace("Finished provider availability history storage task.");
+		}
+
+		/**
+		 * Captures one institution's slots for today.  Availability is computed outside of any transaction; only the
+		 * writes happen in a (short) transaction.  Failures are reported here so one institution can't stop the others.
+		 * <p>
+		 * Nothing is written once {@code captureDeadlineNanoTime} has passed, and write statements are cancelled by
+		 * {@code statement_timeout} at that deadline.
+		 */
+		protected void storeProviderAvailabilityHistoryForInstitution(@Nonnull Institution institution,
+																																	@Nonnull Long captureDeadlineNanoTime) {
+			requireNonNull(institution);
+			requireNonNull(captureDeadlineNanoTime);
+
+			long startTime = System.nanoTime();
+			boolean succeeded = false;
+			int slotCount = 0;
+
+			try {
+				List<ProviderAvailabilityHistorySlot> slots = findProviderAvailabilityHistorySlotsForInstitution(institution);
+				slotCount = slots.size();
+
+				if (slots.size() > 0)
+					getDatabase().transaction(() -> {
+						storeProviderAvailabilityHistorySlots(slots, institution.getTimeZone(), captureDeadlineNanoTime);
+					});
+
+				succeeded = true;
+			} catch (Exception e) {
+				getLogger().error(format("Unable to store provider availability slots for institution %s", institution.getInstitutionId().name()), e);
+				getErrorReporter().report(e);
+			} finally {
+				long elapsedNanoseconds = System.nanoTime() - startTime;
+
+				getMetricsRecorder().recordBackgroundTaskUnit("provider-availability-history", institution.getInstitutionId().name(),
+						elapsedNanoseconds, succeeded);
+				getLogger().debug("Provider availability history for {}: {} slot[s] in {}ms", institution.getInstitutionId().name(),
+						slotCount, Duration.ofNanos(elapsedNanoseconds).toMillis());
+			}
+		}
+
+		@Nonnull
+		protected List<ProviderAvailabilityHistorySlot> findProviderAvailabilityHistorySlotsForInstitution(@Nonnull Institution institution) {
+			requireNonNull(institution);
+
+			Account account = new Account();
+			account.setTimeZone(institution.getTimeZone());
+
+			LocalDateTime currentDateTimeForInstitution = LocalDateTime.now(institution.getTimeZone());
+			LocalDateTime startOfDay = currentDateTimeForInstitution.with(LocalTime.MIN);
+			LocalDateTime endOfDay = currentDateTimeForInstitution.with(LocalTime.MAX);
+
+			List<ProviderFind> providerFinds = getProviderService().findProviders(new ProviderFindRequest() {{
+				setStartDate(startOfDay.toLocalDate());
+				setStartTime(startOfDay.toLocalTime());
+				setEndDate(endOfDay.toLocalDate());
+				setEndTime(endOfDay.toLocalTime());
+				setInstitutionId(institution.getInstitutionId());
+				setIncludePastAvailability(true);
+			}}, account);
+
+			List<ProviderAvailabilityHistorySlot> slots = new ArrayList<>();
+
+			for (ProviderFind providerFind : providerFinds) {
+				// For now - only tracking history for native scheduling.
+				// It will be additional effort to track ACUITY and EPIC slots (we will likely want to do that in
+				// AcuitySyncManager, EpicSyncManager)
+				if (providerFind.getSchedulingSystemId() != SchedulingSystemId.COBALT)
 					continue;
 
-				List<ProviderFind> providerFinds = getProviderService().findProviders(new ProviderFindRequest() {{
-					setStartDate(startOfDay.toLocalDate());
-					setStartTime(startOfDay.toLocalTime());
-					setEndDate(endOfDay.toLocalDate());
-					setEndTime(endOfDay.toLocalTime());
-					setInstitutionId(institution.getInstitutionId());
-					setIncludePastAvailability(true);
-				}}, account);
-
-				for (ProviderFind providerFind : providerFinds) {
-					// For now - only tracking history for native scheduling.
-					// It will be additional effort to track ACUITY and EPIC slots (we will likely want to do that in
-					// AcuitySyncManager, EpicSyncManager)
-					if (providerFind.getSchedulingSystemId() != SchedulingSystemId.COBALT)
-						continue;
-
-					// Don't write records if these are special "phone number required for appointment" providers
-					// because they don't have visible appointment slots
-					if (providerFind.getPhoneNumberRequiredForAppointment() != null && providerFind.getPhoneNumberRequiredForAppointment())
-						continue;
-
-					for (AvailabilityDate availabilityDate : providerFind.getDates()) {
-						for (ProviderFind.AvailabilityTime availabilityTime : availabilityDate.getTimes()) {
-							// Throw out any slots that already have appointments booked
-							if (availabilityTime.getStatus() == AvailabilityStatus.BOOKED)
-								continue;
-
-							LocalDateTime slotDateTime = LocalDateTime.of(availabilityDate.getDate(), availabilityTime.getTime());
-
-							UUID providerAvailabilityHistoryId = getDatabase().queryForObject("""
-									SELECT provider_availability_history_id
-									FROM provider_availability_history
-									WHERE provider_id=?
-									AND slot_date_time=?
-									AND time_zone=?
-									""", UUID.class, providerFind.getProviderId(), slotDateTime, institution.getTimeZone()).orElse(null);
-
-							if (providerAvailabilityHistoryId == null) {
-								providerAvailabilityHistoryId = UUID.randomUUID();
-
-								getDatabase().execute("""
-												INSERT INTO provider_availability_history (
-												  provider_availability_history_id, provider_id, scheduling_system_id, 
-												  name, slot_date_time, time_zone
-												)
-												VALUES (?,?,?,?,?,?)
-												""", providerAvailabilityHistoryId, providerFind.getProviderId(), providerFind.getSchedulingSystemId(),
-										providerFind.getName(), slotDateTime, institution.getTimeZone());
-							}
+				// Don't write records if these are special "phone number required for appointment" providers
+				// because they don't have visible appointment slots
+				if (providerFind.getPhoneNumberRequiredForAppointment() != null && providerFind.getPhoneNumberRequiredForAppointment())
+					continue;
 
-							getDatabase().execute("""
-									DELETE FROM provider_availability_appointment_type_history
-									WHERE provider_availability_history_id=?
-									""", providerAvailabilityHistoryId);
-
-							for (UUID appointmentTypeId : availabilityTime.getAppointmentTypeIds()) {
-								AppointmentType appointmentType = getAppointmentService().findAppointmentTypeByIdEvenIfDeleted(appointmentTypeId).get();
-
-								getDatabase().execute("""
-												INSERT INTO provider_availability_appointment_type_history (
-													provider_availability_history_id, appointment_type_id, visit_type_id, name, duration_in_minutes
-												)
-												VALUES (?,?,?,?,?)
-												""", providerAvailabilityHistoryId, appointmentTypeId, appointmentType.getVisitTypeId(),
-										appointmentType.getName(), appointmentType.getDurationInMinutes());
-							}
-						}
+				for (AvailabilityDate availabilityDate : providerFind.getDates()) {
+					for (ProviderFind.AvailabilityTime availabilityTime : availabilityDate.getTimes()) {
+						// Throw out any slots that already have appointments booked
+						if (availabilityTime.getStatus() == AvailabilityStatus.BOOKED)
+							continue;
+
+						slots.add(new ProviderAvailabilityHistorySlot(providerFind.getProviderId(), providerFind.getSchedulingSystemId(),
+								providerFind.getName(), LocalDateTime.of(availabilityDate.getDate(), availabilityTime.getTime()),
+								availabilityTime.getAppointmentTypeIds()));
 					}
 				}
 			}
 
-			getLogger().trace("Finished provider availability history storage task.");
+			return slots;
+		}
+
+		protected void storeProviderAvailabilityHistorySlots(@Nonnull List<ProviderAvailabilityHistorySlot> slots,
+																												 @Nonnull ZoneId timeZone,
+																												 @Nonnull Long captureDeadlineNanoTime) {
+			requireNonNull(slots);
+			requireNonNull(timeZone);
+			requireNonNull(captureDeadlineNanoTime);
+
+			Map<UUID, AppointmentType> appointmentTypesById = new HashMap<>();
+
+			for (List<ProviderAvailabilityHistorySlot> batch : Lists.partition(slots, getHistoryWriteBatchSize())) {
+				// Throwing rolls back this institution's partial writes
+				if (Thread.currentThread().isInterrupted())
+					throw new IllegalStateException("Provider availability history capture was stopped, not storing slots");
+
+				// Throws once the capture deadline has passed
+				getSystemService().applyDeadlineToCurrentTransaction(getDatabase(), captureDeadlineNanoTime);
+
+				List<List<Object>> historyParameterGroups = new ArrayList<>(batch.size());
+
+				for (ProviderAvailabilityHistorySlot slot : batch)
+					historyParameterGroups.add(List.of(slot.getProviderId(), slot.getSchedulingSystemId(), slot.getName(),
+							slot.getSlotDateTime(), timeZone));
+
+				// Slots captured by an earlier run keep their existing row
+				getDatabase().executeBatch("""
+						INSERT INTO provider_availability_history (
+						  provider_id, scheduling_system_id, name, slot_date_time, time_zone
+						)
+						VALUES (?,?,?,?,?)
+						ON CONFLICT (provider_id, slot_date_time, time_zone) DO NOTHING
+						""", historyParameterGroups);
+
+				String[] providerIds = batch.stream()
+						.map(slot -> slot.getProviderId().toString())
+						.distinct()
+						.toArray(String[]::new);
+
+				LocalDateTime minimumSlotDateTime = batch.stream().map(slot -> slot.getSlotDateTime()).min(LocalDateTime::compareTo).get();
+				LocalDateTime maximumSlotDateTime = batch.stream().map(slot -> slot.getSlotDateTime()).max(LocalDateTime::compareTo).get();
+
+				List<ProviderAvailabilityHistoryRow> providerAvailabilityHistoryRows = getDatabase().queryForList("""
+						SELECT provider_availability_history_id, provider_id, slot_date_time
+						FROM provider_availability_history
+						WHERE provider_id = ANY (CAST(? AS UUID[]))
+						AND time_zone=?
+						AND slot_date_time BETWEEN ? AND ?
+						""", ProviderAvailabilityHistoryRow.class, providerIds, timeZone, minimumSlotDateTime, maximumSlotDateTime);
+
+				Map<String, UUID> providerAvailabilityHistoryIdsBySlotKey = new HashMap<>(providerAvailabilityHistoryRows.size());
+
+				for (ProviderAvailabilityHistoryRow providerAvailabilityHistoryRow : providerAvailabilityHistoryRows)
+					providerAvailabilityHistoryIdsBySlotKey.put(format("%s:%s", providerAvailabilityHistoryRow.getProviderId(),
+							providerAvailabilityHistoryRow.getSlotDateTime()), providerAvailabilityHistoryRow.getProviderAvailabilityHistoryId());
+
+				List<String> providerAvailabilityHistoryIds = new ArrayList<>(batch.size());
+				List<List<Object>> appointmentTypeHistoryParameterGroups = new ArrayList<>();
+
+				for (ProviderAvailabilityHistorySlot slot : batch) {
+					UUID providerAvailabilityHistoryId = providerAvailabilityHistoryIdsBySlotKey.get(format("%s:%s", slot.getProviderId(), slot.getSlotDateTime()));
+
+					if (providerAvailabilityHistoryId == null)
+						throw new IllegalStateException(format("Unable to find provider availability history for provider ID %s at %s",
+								slot.getProviderId(), slot.getSlotDateTime()));
+
+					providerAvailabilityHistoryIds.add(providerAvailabilityHistoryId.toString());
+
+					for (UUID appointmentTypeId : slot.getAppointmentTypeIds()) {
+						AppointmentType appointmentType = appointmentTypesById.computeIfAbsent(appointmentTypeId,
+								(ignored) -> getAppointmentService().findAppointmentTypeByIdEvenIfDeleted(appointmentTypeId).get());
+
+						appointmentTypeHistoryParameterGroups.add(List.of(providerAvailabilityHistoryId, appointmentTypeId,
+								appointmentType.getVisitTypeId(), appointmentType.getName(), appointmentType.getDurationInMinutes()));
+					}
+				}
+
+				getDatabase().execute("""
+						DELETE FROM provider_availability_appointment_type_history
+						WHERE provider_availability_history_id = ANY (CAST(? AS UUID[]))
+						""", (Object) providerAvailabilityHistoryIds.toArray(new String[0]));
+
+				if (appointmentTypeHistoryParameterGroups.size() > 0)
+					getDatabase().executeBatch("""
+							INSERT INTO provider_availability_appointment_type_history (
+								provider_availability_history_id, appointment_type_id, visit_type_id, name, duration_in_minutes
+							)
+							VALUES (?,?,?,?,?)
+							""", appointmentTypeHistoryParameterGroups);
+			}
 		}
 
 		@Nonnull
@@ -881,6 +1148,21 @@ public class AvailabilityService implements AutoCloseable {
 			return HISTORY_BACKGROUND_TASK_RUN_END_TIME_WINDOW;
 		}
 
+		@Nonnull
+		protected Integer getHistoryCaptureConcurrency() {
+			return HISTORY_CAPTURE_CONCURRENCY;
+		}
+
+		@Nonnull
+		protected Long getHistoryCaptureTimeoutInMinutes() {
+			return HISTORY_CAPTURE_TIMEOUT_IN_MINUTES;
+		}
+
+		@Nonnull
+		protected Integer getHistoryWriteBatchSize() {
+			return HISTORY_WRITE_BATCH_SIZE;
+		}
+
 		@Nonnull
 		protected SystemService getSystemService() {
 			return this.systemService;
@@ -911,6 +1193,11 @@ public class AvailabilityService implements AutoCloseable {
 			return this.errorReporter;
 		}
 
+		@Nonnull
+		protected MetricsRecorder getMetricsRecorder() {
+			return this.metricsRecorder;
+		}
+
 		@Nonnull
 		protected Database getDatabase() {
 			return this.databaseProvider.get();
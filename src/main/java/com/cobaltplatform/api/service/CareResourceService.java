@@ -43,7 +43,6 @@ import com.cobaltplatform.api.model.db.Institution.InstitutionId;
 import com.cobaltplatform.api.model.db.PatientOrder;
 import com.cobaltplatform.api.model.db.ResourcePacket;
 import com.cobaltplatform.api.model.db.ResourcePacketCareResourceLocation;
-import com.cobaltplatform.api.model.service.CareResourceLocationWithTotalCount;
 import com.cobaltplatform.api.model.service.CareResourceWithTotalCount;
 import com.cobaltplatform.api.model.service.FindResult;
 import com.cobaltplatform.api.util.ValidationException;
@@ -343,17 +342,19 @@ public class CareResourceService {
 
 	@Nonnull
 	private void appendTagWhereClause(@Nonnull StringBuilder query, Set<String> tags) {
+		// Two independent EXISTS probes (rather than one over a UNION ALL) so each is a single lookup on the
+		// (owner, tag) indices and the location-level probe can short-circuit the resource-level one
 		query.append(format("""
-				AND EXISTS 
+				AND (EXISTS
 				(SELECT 'X'
 				FROM care_resource_location_care_resource_tag crlc
 				WHERE crlc.care_resource_location_id = vcr.care_resource_location_id
-				AND crlc.care_resource_tag_id IN %s
-				UNION ALL
-				SELECT 'X'
+				AND crlc.care_resource_tag_id IN %s)
+				OR EXISTS
+				(SELECT 'X'
 				FROM care_resource_care_resource_tag crlc
 				WHERE crlc.care_resource_id = vcr.care_resource_id
-				AND crlc.care_resource_tag_id IN %s) """, sqlInListPlaceholders(tags), sqlInListPlaceholders(tags)));
+				AND crlc.care_resource_tag_id IN %s)) """, sqlInListPlaceholders(tags), sqlInListPlaceholders(tags)));
 	}
 
 	@Nonnull
@@ -457,96 +458,118 @@ public class CareResourceService {
 		FindCareResourceLocationsRequest.OrderBy orderBy = request.getOrderBy() == null && !canSearchByDistance ?
 				FindCareResourceLocationsRequest.OrderBy.NAME_ASC : canSearchByDistance ? FindCareResourceLocationsRequest.OrderBy.DISTANCE_ASC :
 				request.getOrderBy();
-		StringBuilder query = new StringBuilder("SELECT vcr.*, COUNT(vcr.care_resource_location_id) OVER() AS total_count ");
+		StringBuilder selectClause = new StringBuilder("SELECT vcr.* ");
+		List<Object> selectParameters = new ArrayList<>();
 
 		if (canSearchByDistance) {
-			query.append(", round((ST_DistanceSphere(ST_MakePoint(?, ?), ST_MakePoint(longitude, latitude)) / 1609.344)::numeric, 2) AS distance_in_miles ");
-			parameters.add(longitude);
-			parameters.add(latitude);
+			// The stored geography column is GiST-indexed (see 264-care-resource-location-spatial-search.sql).
+			// Passing FALSE measures on a sphere, matching ST_DistanceSphere() and the <-> ordering below
+			selectClause.append(", round((ST_Distance(vcr.location, ST_SetSRID(ST_MakePoint(?, ?), 4326)::geography, FALSE) / 1609.344)::numeric, 2) AS distance_in_miles ");
+			selectParameters.add(longitude);
+			selectParameters.add(latitude);
 		}
 
-		query.append("FROM v_care_resource_location_institution vcr ");
+		// Shared by the page query and the count query below
+		StringBuilder fromClause = new StringBuilder("FROM v_care_resource_location_institution vcr ");
 
-		query.append("WHERE vcr.institution_id = ? AND vcr.accepting_new_patients = true ");
+		fromClause.append("WHERE vcr.institution_id = ? AND vcr.accepting_new_patients = true ");
 		parameters.add(institutionId);
 
 		if (search != null) {
-			query.append("AND vcr.name ILIKE CONCAT('%',?,'%') ");
+			fromClause.append("AND vcr.name ILIKE CONCAT('%',?,'%') ");
 			parameters.add(search);
 		}
 		if (payorIds.size() > 0) {
-			appendTagWhereClause(query, request.getPayorIds());
+			appendTagWhereClause(fromClause, request.getPayorIds());
 			parameters.addAll(request.getPayorIds());
 			parameters.addAll(request.getPayorIds());
 		}
 		if (specialtyIds.size() > 0) {
-			appendTagWhereClause(query, request.getSpecialtyIds());
+			appendTagWhereClause(fromClause, request.getSpecialtyIds());
 			parameters.addAll(request.getSpecialtyIds());
 			parameters.addAll(request.getSpecialtyIds());
 		}
 		if (therapyTypeIds.size() > 0) {
-			appendTagWhereClause(query, request.getTherapyTypeIds());
+			appendTagWhereClause(fromClause, request.getTherapyTypeIds());
 			parameters.addAll(request.getTherapyTypeIds());
 			parameters.addAll(request.getTherapyTypeIds());
 		}
 		if (populationServedIds.size() > 0) {
-			appendTagWhereClause(query, request.getPopulationServedIds());
+			appendTagWhereClause(fromClause, request.getPopulationServedIds());
 			parameters.addAll(request.getPopulationServedIds());
 			parameters.addAll(request.getPopulationServedIds());
 		}
 		if (genderIds.size() > 0) {
-			appendTagWhereClause(query, request.getGenderIds());
+			appendTagWhereClause(fromClause, request.getGenderIds());
 			parameters.addAll(request.getGenderIds());
 			parameters.addAll(request.getGenderIds());
 		}
 		if (ethnicityIds.size() > 0) {
-			appendTagWhereClause(query, request.getEthnicityIds());
+			appendTagWhereClause(fromClause, request.getEthnicityIds());
 			parameters.addAll(request.getEthnicityIds());
 			parameters.addAll(request.getEthnicityIds());
 		}
 		if (languageIds.size() > 0) {
-			appendTagWhereClause(query, request.getLanguageIds());
+			appendTagWhereClause(fromClause, request.getLanguageIds());
 			parameters.addAll(request.getLanguageIds());
 			parameters.addAll(request.getLanguageIds());
 		}
 		if (facilityTypes.size() > 0) {
-			appendTagWhereClause(query, request.getFacilityTypes());
+			appendTagWhereClause(fromClause, request.getFacilityTypes());
 			parameters.addAll(request.getFacilityTypes());
 			parameters.addAll(request.getFacilityTypes());
 		}
 
 		if (wheelchairAccess != null) {
-			query.append("AND wheelchair_access = ? ");
+			fromClause.append("AND wheelchair_access = ? ");
 			parameters.add(wheelchairAccess);
 		}
 
 		if (canSearchByDistance && searchRadiusMiles != null) {
-			query.append("AND ST_DistanceSphere(ST_MakePoint(?, ?),ST_MakePoint(longitude, latitude)) / 1609.344 < ? ");
+			fromClause.append("AND ST_DWithin(vcr.location, ST_SetSRID(ST_MakePoint(?, ?), 4326)::geography, ?, FALSE) ");
 			parameters.add(longitude);
 			parameters.add(latitude);
-			parameters.add(searchRadiusMiles);
+			parameters.add(searchRadiusMiles * 1609.344);
 		}
 
-		query.append(" ORDER BY ");
+		StringBuilder orderByClause = new StringBuilder("ORDER BY ");
+		List<Object> orderByParameters = new ArrayList<>();
 
 		if (orderBy == FindCareResourceLocationsRequest.OrderBy.NAME_DESC)
-			query.append("vcr.name DESC ");
+			orderByClause.append("vcr.name DESC ");
 		else if (orderBy == FindCareResourceLocationsRequest.OrderBy.NAME_ASC)
-			query.append("vcr.name ASC ");
-		else if (orderBy == FindCareResourceLocationsRequest.OrderBy.DISTANCE_ASC)
-			query.append("distance_in_miles ASC ");
+			orderByClause.append("vcr.name ASC ");
+		else if (orderBy == FindCareResourceLocationsRequest.OrderBy.DISTANCE_ASC) {
+			// KNN ordering so the GiST index returns nearest locations first instead of sorting every match.
+			// This only pays off because the page query has no window functions - COUNT(*) OVER() would have to visit
+			// every match before the LIMIT could apply, which is why the total is counted separately below
+			orderByClause.append("vcr.location <-> ST_SetSRID(ST_MakePoint(?, ?), 4326)::geography ");
+			orderByParameters.add(longitude);
+			orderByParameters.add(latitude);
+		}
 
-		query.append("LIMIT ? OFFSET ? ");
+		String query = selectClause.toString() + fromClause + orderByClause + "LIMIT ? OFFSET ? ";
 
-		parameters.add(limit);
-		parameters.add(offset);
+		List<Object> queryParameters = new ArrayList<>(selectParameters.size() + parameters.size() + orderByParameters.size() + 2);
+		queryParameters.addAll(selectParameters);
+		queryParameters.addAll(parameters);
+		queryParameters.addAll(orderByParameters);
+		queryParameters.add(limit);
+		queryParameters.add(offset);
+
+		getLogger().debug("query = " + query);
+		List<CareResourceLocation> careResourceLocations = getDatabase().queryForList(query, CareResourceLocation.class, queryParameters.toArray());
 
-		getLogger().debug("query = " + query.toString());
-		List<CareResourceLocationWithTotalCount> careResources = getDatabase().queryForList(query.toString(), CareResourceLocationWithTotalCount.class, parameters.toArray());
+		// A partial page already tells us the total, so only count when there might be more matches past this page
+		// (or when we've paged past the end and can't tell)
+		Integer totalCount;
 
-		FindResult<? extends CareResourceLocation> findResult = new FindResult<>(careResources, careResources.size() == 0 ? 0 : careResources.get(0).getTotalCount());
+		if (careResourceLocations.size() < limit && (careResourceLocations.size() > 0 || offset == 0))
+			totalCount = offset + careResourceLocations.size();
+		else
+			totalCount = getDatabase().queryForObject("SELECT COUNT(*) " + fromClause, Integer.class, parameters.toArray()).get();
 
-		return (FindResult<CareResourceLocation>) findResult;
+		return new FindResult<>(careResourceLocations, totalCount);
 	}
 
 	@Nonnull
@@ -24,6 +24,8 @@ import com.cobaltplatform.api.context.CurrentContext;
 import com.cobaltplatform.api.context.CurrentContextExecutor;
 import com.cobaltplatform.api.error.ErrorReporter;
 import com.cobaltplatform.api.model.db.Account;
+import com.cobaltplatform.api.model.db.DataSyncTable.DataSyncTableId;
+import com.cobaltplatform.api.model.db.DataSyncWatermark;
 import com.cobaltplatform.api.model.db.FootprintEventGroupType.FootprintEventGroupTypeId;
 import com.cobaltplatform.api.model.db.Institution.InstitutionId;
 import com.cobaltplatform.api.model.service.AdvisoryLock;
@@ -36,16 +38,25 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -61,6 +72,16 @@ public class DataSyncService implements AutoCloseable {
 	@Nonnull
 	private static final String FDW_SERVER_NAME;
 	@Nonnull
+	private static final String SYNCED_INSTITUTION_COLUMNS;
+	@Nonnull
+	private static final Integer INCREMENTAL_SYNC_BATCH_SIZE;
+	@Nonnull
+	private static final Integer INCREMENTAL_SYNC_MAXIMUM_BATCHES_PER_TABLE;
+	@Nonnull
+	private static final Duration INCREMENTAL_SYNC_SETTLE_DURATION;
+	@Nonnull
+	private static final Duration FULL_RESYNC_INTERVAL;
+	@Nonnull
 	private final Provider<BackgroundSyncTask> backgroundSyncTaskProvider;
 	@Nonnull
 	private final Provider<InstitutionService> institutionServiceProvider;
@@ -69,8 +90,12 @@ public class DataSyncService implements AutoCloseable {
 	@Nonnull
 	private final Provider<SystemService> systemServiceProvider;
 	@Nonnull
+	private final Provider<TagService> tagServiceProvider;
+	@Nonnull
 	private final DatabaseProvider databaseProvider;
 	@Nonnull
+	private final CurrentContextExecutor currentContextExecutor;
+	@Nonnull
 	private final ErrorReporter errorReporter;
 	@Nonnull
 	private final Configuration configuration;
@@ -88,6 +113,63 @@ public class DataSyncService implements AutoCloseable {
 	static {
 		BACKGROUND_TASK_INITIAL_DELAY_IN_SECONDS = 10L;
 		FDW_SERVER_NAME = "cobalt_remote";
+		SYNCED_INSTITUTION_COLUMNS = """
+				institution_id,
+				name,
+				created,
+				last_updated,
+				group_session_system_id,
+				time_zone,
+				locale,
+				require_consent_form,
+				support_enabled,
+				sso_enabled,
+				anonymous_enabled,
+				email_enabled,
+				access_token_expiration_in_minutes,
+				access_token_short_expiration_in_minutes,
+				anon_access_token_expiration_in_minutes,
+				anon_access_token_short_expiration_in_minutes,
+				metadata,
+				email_signup_enabled,
+				support_email_address,
+				recommend_group_session_requests,
+				immediate_access_enabled,
+				contact_us_enabled,
+				integrated_care_enabled,
+				epic_backend_service_auth_type_id,
+				user_submitted_content_enabled,
+				user_submitted_group_session_enabled,
+				user_submitted_group_session_request_enabled,
+				recommended_content_enabled,
+				group_session_requests_enabled,
+				group_session_reservation_default_followup_time_of_day,
+				group_session_reservation_default_followup_day_offset,
+				appointment_reservation_default_reminder_time_of_day,
+				appointment_reservation_default_reminder_day_offset,
+				group_session_reservation_default_reminder_minutes_offset,
+				features_enabled,
+				mychart_name,
+				anonymous_account_expiration_strategy_id,
+				epic_patient_mrn_type_name,
+				epic_fhir_appointment_find_cache_expiration_in_seconds,
+				epic_fhir_enabled,
+				faq_enabled,
+				google_bigquery_sync_enabled,
+				mixpanel_sync_enabled,
+				sharing_content,
+				microsoft_teams_enabled,
+				tableau_enabled,
+				google_fcm_push_notifications_enabled,
+				call_messages_enabled,
+				sms_messages_enabled,
+				epic_provider_slot_booking_sync_enabled,
+				appointment_feedback_survey_enabled,
+				appointment_feedback_survey_delay_in_minutes""";
+		INCREMENTAL_SYNC_BATCH_SIZE = 500;
+		INCREMENTAL_SYNC_MAXIMUM_BATCHES_PER_TABLE = 20;
+		INCREMENTAL_SYNC_SETTLE_DURATION = Duration.ofMinutes(1);
+		FULL_RESYNC_INTERVAL = Duration.ofHours(24);
 	}
 
 	@Inject
@@ -95,7 +177,9 @@ public class DataSyncService implements AutoCloseable {
 												 @Nonnull Provider<InstitutionService> institutionServiceProvider,
 												 @Nonnull Provider<AccountService> accountServiceProvider,
 												 @Nonnull Provider<SystemService> systemServiceProvider,
+												 @Nonnull Provider<TagService> tagServiceProvider,
 												 @Nonnull DatabaseProvider databaseProvider,
+												 @Nonnull CurrentContextExecutor currentContextExecutor,
 												 @Nonnull ErrorReporter errorReporter,
 												 @Nonnull Configuration configuration,
 												 @Nonnull Strings strings) {
@@ -103,7 +187,9 @@ public class DataSyncService implements AutoCloseable {
 		requireNonNull(institutionServiceProvider);
 		requireNonNull(accountServiceProvider);
 		requireNonNull(systemServiceProvider);
+		requireNonNull(tagServiceProvider);
 		requireNonNull(databaseProvider);
+		requireNonNull(currentContextExecutor);
 		requireNonNull(errorReporter);
 		requireNonNull(configuration);
 		requireNonNull(strings);
@@ -112,7 +198,9 @@ public class DataSyncService implements AutoCloseable {
 		this.institutionServiceProvider = institutionServiceProvider;
 		this.accountServiceProvider = accountServiceProvider;
 		this.systemServiceProvider = systemServiceProvider;
+		this.tagServiceProvider = tagServiceProvider;
 		this.databaseProvider = databaseProvider;
+		this.currentContextExecutor = currentContextExecutor;
 		this.errorReporter = errorReporter;
 		this.configuration = configuration;
 		this.strings = strings;
@@ -175,153 +263,508 @@ public class DataSyncService implements AutoCloseable {
 	}
 
 	@Nonnull
-	public void syncData() {
-		getSystemService().performAdvisoryLockOperationIfAvailable(AdvisoryLock.DATA_SYNC, () -> {
-			Account serviceAccount = getAccountService().findServiceAccountByInstitutionId(InstitutionId.COBALT).get();
+	public List<DataSyncWatermark> findDataSyncWatermarks() {
+		return getDatabase().queryForList("""
+				SELECT dsw.*
+				FROM data_sync_watermark dsw, data_sync_table dst
+				WHERE dsw.data_sync_table_id=dst.data_sync_table_id
+				ORDER BY dst.display_order
+				""", DataSyncWatermark.class);
+	}
 
-			//Check to see if we need to update the IP address for the database
-			InetAddress address;
-			try {
-				address = InetAddress.getByName(getConfiguration().getDataSyncRemoteDb());
-			} catch (UnknownHostException e) {
-				throw new RuntimeException(e);
+	/**
+	 * Full resync: re-copies everything over the foreign data wrapper in a single transaction.
+	 * <p>
+	 * A full resync is needed to pick up rows that became visible without their own {@code last_updated} changing
+	 * (e.g. a remote institution being flipped to {@code sync_data=TRUE}) and to reconcile association deletes
+	 * for content that has not otherwise changed.  The background task runs one via {@link #performFullResyncIfDue()};
+	 * this is for running one on demand.
+	 */
+	public void performFullResync() {
+		CurrentContext currentContext = new CurrentContext.Builder(InstitutionId.COBALT,
+				getConfiguration().getDefaultLocale(), getConfiguration().getDefaultTimeZone()).build();
+
+		getCurrentContextExecutor().execute(currentContext, () -> {
+			getDatabase().transaction(() -> {
+				getSystemService().applyFootprintEventGroupToCurrentTransaction(FootprintEventGroupTypeId.REMOTE_DATA_SYNC);
+				refreshForeignServerHostIfNecessary();
+				syncData();
+			});
+		});
+	}
+
+	/**
+	 * Performs a full resync if no node has completed one within {@link #getFullResyncInterval()}.
+	 *
+	 * @return {@code true} if a full resync was performed, {@code false} otherwise
+	 */
+	@Nonnull
+	public Boolean performFullResyncIfDue() {
+		AtomicBoolean performed = new AtomicBoolean(false);
+
+		getDatabase().transaction(() -> {
+			getSystemService().performTransactionAdvisoryLockOperationIfAvailable(AdvisoryLock.DATA_SYNC, () -> {
+				// Checked under the lock so nodes that both saw it as due don't run one back to back
+				if (!isFullResyncDue())
+					return;
+
+				getLogger().info("Performing scheduled full data resync...");
+				long startTime = System.nanoTime();
+
+				getSystemService().applyFootprintEventGroupToCurrentTransaction(FootprintEventGroupTypeId.REMOTE_DATA_SYNC);
+				refreshForeignServerHostIfNecessary();
+				syncData();
+
+				getLogger().info("Scheduled full data resync completed in {}ms.", Duration.ofNanos(System.nanoTime() - startTime).toMillis());
+				performed.set(true);
+			});
+		});
+
+		return performed.get();
+	}
+
+	@Nonnull
+	protected Boolean isFullResyncDue() {
+		return getDatabase().queryForObject("""
+				SELECT BOOL_OR(last_full_resync_at IS NULL OR last_full_resync_at < NOW() - MAKE_INTERVAL(secs => ?))
+				FROM data_sync_watermark
+				""", Boolean.class, getFullResyncInterval().toSeconds()).orElse(true);
+	}
+
+	/**
+	 * Pulls over only remote rows that changed since the last run, walking each table in {@code (last_updated, id)}
+	 * order from its stored watermark.
+	 * <p>
+	 * Each batch runs in its own short transaction which holds the data sync advisory lock for the duration of the
+	 * transaction only, so a full resync or another node's sync can never interleave with a batch.
+	 */
+	public void syncDataIncrementally() {
+		Account serviceAccount = getAccountService().findServiceAccountByInstitutionId(InstitutionId.COBALT).get();
+		AtomicBoolean lockAcquired = new AtomicBoolean(false);
+
+		getDatabase().transaction(() -> {
+			lockAcquired.set(getSystemService().performTransactionAdvisoryLockOperationIfAvailable(AdvisoryLock.DATA_SYNC, () -> {
+				refreshForeignServerHostIfNecessary();
+			}));
+		});
+
+		if (!lockAcquired.get())
+			return;
+
+		// Don't sync rows that were touched very recently - a remote transaction that started before ours but
+		// commits after could otherwise land behind the watermark and never be seen
+		Instant settledBefore = Instant.now().minus(INCREMENTAL_SYNC_SETTLE_DURATION);
+		long startTime = System.nanoTime();
+		Map<DataSyncTableId, Long> rowsSyncedByDataSyncTableId = new LinkedHashMap<>();
+
+		for (DataSyncTableId dataSyncTableId : DataSyncTableId.values()) {
+			long rowsSynced = 0;
+
+			for (int i = 0; i < INCREMENTAL_SYNC_MAXIMUM_BATCHES_PER_TABLE; ++i) {
+				IncrementalSyncBatchResult incrementalSyncBatchResult = syncIncrementalBatch(dataSyncTableId, serviceAccount, settledBefore);
+
+				// Someone else has the lock (full resync in progress, or another node), try again next time
+				if (incrementalSyncBatchResult == null) {
+					getLogger().debug("Data sync lock is held elsewhere, stopping incremental sync.");
+					return;
+				}
+
+				rowsSynced += incrementalSyncBatchResult.getRowsSynced();
+
+				// Batches commit independently and we might bail out before finishing the table, so broadcast per batch
+				if (dataSyncTableId == DataSyncTableId.TAG && incrementalSyncBatchResult.getRowsSynced() > 0)
+					getTagService().invalidateTagCaches();
+
+				if (incrementalSyncBatchResult.getCaughtUp())
+					break;
 			}
 
-			Optional<String> fdwServerAddress = getDatabase().queryForObject("""
-					SELECT SUBSTR(srvoptions[1], POSITION('=' IN srvoptions[1]) + 1, 15) 
-					FROM pg_foreign_server
-					WHERE srvname=?""", String.class, FDW_SERVER_NAME);
+			rowsSyncedByDataSyncTableId.put(dataSyncTableId, rowsSynced);
+		}
 
-			if (!fdwServerAddress.isPresent())
-				throw new RuntimeException(format("Could not find foreign server %s", FDW_SERVER_NAME));
+		getLogger().info("Incremental data sync completed in {}ms, rows synced: {}",
+				Duration.ofNanos(System.nanoTime() - startTime).toMillis(), rowsSyncedByDataSyncTableId);
+	}
 
-			if (address.getHostAddress().compareTo(fdwServerAddress.get()) != 0) {
-				getLogger().debug(format("Remote DB IP Address is %s, fdw server address is %s, updating remote server host.", address.getHostAddress(), fdwServerAddress.get()));
-				getDatabase().execute(format("ALTER SERVER %s OPTIONS (SET host '%s')", FDW_SERVER_NAME, address.getHostAddress()));
+	/**
+	 * @return the result of the batch, or {@code null} if the data sync lock could not be acquired
+	 */
+	@Nullable
+	protected IncrementalSyncBatchResult syncIncrementalBatch(@Nonnull DataSyncTableId dataSyncTableId,
+																														@Nonnull Account serviceAccount,
+																														@Nonnull Instant settledBefore) {
+		requireNonNull(dataSyncTableId);
+		requireNonNull(serviceAccount);
+		requireNonNull(settledBefore);
 
-				//Try to execute a query against the remote database to make sure it is accessible
-				try {
-					getDatabase().queryForObject("""
-							SELECT count(*) > 0
-							FROM remote_content""", Boolean.class);
-				} catch (Exception e) {
-					throw new RuntimeException(format("Remote DB IP Address has changed to %s. Please whitelist this in AWS.", address.getHostAddress()), e);
+		List<IncrementalSyncBatchResult> incrementalSyncBatchResults = new ArrayList<>(1);
+
+		getDatabase().transaction(() -> {
+			getSystemService().performTransactionAdvisoryLockOperationIfAvailable(AdvisoryLock.DATA_SYNC, () -> {
+				getSystemService().applyFootprintEventGroupToCurrentTransaction(FootprintEventGroupTypeId.REMOTE_DATA_SYNC);
+
+				DataSyncWatermark dataSyncWatermark = getDatabase().queryForObject("""
+						SELECT *
+						FROM data_sync_watermark
+						WHERE data_sync_table_id=?
+						""", DataSyncWatermark.class, dataSyncTableId).get();
+
+				String remoteViewName = remoteViewNameForDataSyncTableId(dataSyncTableId);
+				String idExpression = idExpressionForDataSyncTableId(dataSyncTableId);
+
+				List<IncrementalSyncBatchRow> incrementalSyncBatchRows = getDatabase().queryForList(format("""
+						SELECT CAST(%s AS TEXT) AS id, last_updated
+						FROM %s
+						WHERE last_updated < ?
+						AND (CAST(? AS TIMESTAMPTZ) IS NULL OR (last_updated, CAST(%s AS TEXT)) > (CAST(? AS TIMESTAMPTZ), CAST(? AS TEXT)))
+						ORDER BY last_updated, CAST(%s AS TEXT)
+						LIMIT ?
+						""", idExpression, remoteViewName, idExpression, idExpression), IncrementalSyncBatchRow.class, settledBefore,
+						dataSyncWatermark.getLastUpdatedWatermark(), dataSyncWatermark.getLastUpdatedWatermark(),
+						dataSyncWatermark.getIdWatermark(), INCREMENTAL_SYNC_BATCH_SIZE);
+
+				Boolean caughtUp = incrementalSyncBatchRows.size() < INCREMENTAL_SYNC_BATCH_SIZE;
+				long rowsSynced = 0;
+
+				if (incrementalSyncBatchRows.size() > 0) {
+					String[] ids = incrementalSyncBatchRows.stream()
+							.map(incrementalSyncBatchRow -> incrementalSyncBatchRow.getId())
+							.toArray(String[]::new);
+
+					rowsSynced = applyIncrementalBatch(dataSyncTableId, ids, serviceAccount);
+
+					IncrementalSyncBatchRow lastIncrementalSyncBatchRow = incrementalSyncBatchRows.get(incrementalSyncBatchRows.size() - 1);
+
+					getDatabase().execute("""
+							UPDATE data_sync_watermark
+							SET last_updated_watermark=?,
+							id_watermark=?,
+							last_rows_synced=?,
+							total_rows_synced=total_rows_synced + ?,
+							last_synced_at=NOW(),
+							caught_up_at=CASE WHEN ? THEN NOW() ELSE caught_up_at END
+							WHERE data_sync_table_id=?
+							""", lastIncrementalSyncBatchRow.getLastUpdated(), lastIncrementalSyncBatchRow.getId(), rowsSynced,
+							rowsSynced, caughtUp, dataSyncTableId);
+				} else {
+					getDatabase().execute("""
+							UPDATE data_sync_watermark
+							SET last_rows_synced=0,
+							last_synced_at=NOW(),
+							caught_up_at=NOW()
+							WHERE data_sync_table_id=?
+							""", dataSyncTableId);
 				}
+
+				incrementalSyncBatchResults.add(new IncrementalSyncBatchResult(rowsSynced, caughtUp));
+			});
+		});
+
+		return incrementalSyncBatchResults.size() == 0 ? null : incrementalSyncBatchResults.get(0);
+	}
+
+	@Nonnull
+	protected Long applyIncrementalBatch(@Nonnull DataSyncTableId dataSyncTableId,
+																			 @Nonnull String[] ids,
+																			 @Nonnull Account serviceAccount) {
+		requireNonNull(dataSyncTableId);
+		requireNonNull(ids);
+		requireNonNull(serviceAccount);
+
+		if (dataSyncTableId == DataSyncTableId.INSTITUTION) {
+			return getDatabase().execute(format("""
+					INSERT INTO institution
+					(%s,
+					remote_data_flag)
+					(SELECT %s,
+					        TRUE
+					        FROM v_remote_institution ri
+					        WHERE ri.institution_id = ANY (CAST(? AS TEXT[]))
+					        AND ri.institution_id NOT IN
+					        (SELECT i.institution_id
+					        FROM institution i))
+					""", SYNCED_INSTITUTION_COLUMNS, SYNCED_INSTITUTION_COLUMNS), (Object) ids);
+		} else if (dataSyncTableId == DataSyncTableId.TAG) {
+			return getDatabase().execute("""
+					INSERT INTO tag
+					(tag_id, name, url_name, description, en_search_vector, tag_group_id, remote_data_flag, deprecated)
+					(SELECT vrt.tag_id, vrt.name, vrt.url_name, vrt.description, vrt.en_search_vector, vrt.tag_group_id, TRUE, vrt.deprecated
+					FROM v_remote_tag vrt
+					WHERE vrt.tag_id = ANY (CAST(? AS TEXT[]))
+					AND vrt.tag_id NOT IN
+					(SELECT t.tag_id FROM tag t))""", (Object) ids);
+		} else if (dataSyncTableId == DataSyncTableId.CONTENT) {
+			long rowsSynced = 0;
+
+			// Pull over any file upload rows that are used by content in this batch
+			rowsSynced += getDatabase().execute("""
+					INSERT INTO file_upload
+					(file_upload_id, account_id, url, storage_key,
+					filename, content_type, file_upload_type_id, filesize, remote_data_flag)
+					(SELECT rfu.file_upload_id, ?, rfu.url, rfu.storage_key,
+					rfu.filename, rfu.content_type, rfu.file_upload_type_id, rfu.filesize, TRUE
+					FROM remote_file_upload rfu
+					WHERE rfu.file_upload_type_id IN ('GROUP_SESSION_IMAGE','CONTENT_IMAGE', 'CONTENT')
+					AND rfu.file_upload_id NOT IN
+					(SELECT fu.file_upload_id
+					FROM file_upload fu)
+					AND rfu.file_upload_id IN
+					(SELECT vrc1.file_upload_id
+					FROM v_remote_content vrc1
+					WHERE CAST(vrc1.content_id AS TEXT) = ANY (CAST(? AS TEXT[]))
+					UNION ALL
+					SELECT vrc2.image_file_upload_id
+					FROM v_remote_content vrc2
+					WHERE CAST(vrc2.content_id AS TEXT) = ANY (CAST(? AS TEXT[]))))""", serviceAccount.getAccountId(), ids, ids);
+
+			rowsSynced += getDatabase().execute("""
+					INSERT INTO content
+					(content_id, content_type_id, title, url, date_created, description, author,
+					 owner_institution_id, deleted_flag, duration_in_minutes, en_search_vector, never_embed, shared_flag,
+					 search_terms, publish_start_date, publish_end_date, publish_recurring, published, file_upload_id,
+					 image_file_upload_id, remote_data_flag, content_visibility_type_id)
+					(SELECT content_id, content_type_id, title, url, date_created, description, author,
+					 owner_institution_id, deleted_flag, duration_in_minutes, en_search_vector, never_embed, shared_flag,
+					 search_terms, publish_start_date, publish_end_date, publish_recurring, published, file_upload_id,
+					 image_file_upload_id, 'TRUE', content_visibility_type_id
+					FROM v_remote_content vrc
+					WHERE CAST(vrc.content_id AS TEXT) = ANY (CAST(? AS TEXT[]))
+					AND vrc.content_id NOT IN
+					(SELECT c.content_id
+					FROM content c))""", (Object) ids);
+
+			rowsSynced += getDatabase().execute("""
+					UPDATE content
+					SET content_type_id =rc.content_type_id,
+					    title=rc.title,
+					    url=rc.url,
+					    date_created=rc.date_created,
+					    description=rc.description,
+					    author =rc.author,
+					    deleted_flag =rc.deleted_flag,
+					    duration_in_minutes=rc.duration_in_minutes,
+					    en_search_vector=rc.en_search_vector,
+					    never_embed =rc.never_embed,
+					    shared_flag =rc.shared_flag,
+					    search_terms=rc.search_terms,
+					    publish_start_date=rc.publish_start_date,
+					    publish_end_date=rc.publish_end_date,
+					    publish_recurring =rc.publish_recurring,
+					    published =rc.published,
+					    file_upload_id =rc.file_upload_id,
+					    image_file_upload_id=rc.image_file_upload_id
+					FROM v_remote_content rc
+					WHERE CAST(rc.content_id AS TEXT) = ANY (CAST(? AS TEXT[]))
+					AND content.content_id = rc.content_id
+					AND content.last_updated < rc.last_updated
+					AND content.remote_data_flag = TRUE""", (Object) ids);
+
+			// Remove tags and audience types that are no longer associated to the content in this batch
+			rowsSynced += getDatabase().execute("""
+					DELETE FROM tag_content
+					WHERE CAST(content_id AS TEXT) = ANY (CAST(? AS TEXT[]))
+					AND tag_content_id NOT IN
+					(SELECT vrtc.tag_content_id
+					FROM v_remote_tag_content vrtc
+					WHERE CAST(vrtc.content_id AS TEXT) = ANY (CAST(? AS TEXT[])))
+					AND remote_data_flag = true""", ids, ids);
+
+			rowsSynced += getDatabase().execute("""
+					DELETE FROM content_audience
+					WHERE CAST(content_id AS TEXT) = ANY (CAST(? AS TEXT[]))
+					AND NOT EXISTS
+					(SELECT 'X'
+					FROM v_remote_content_audience vrc
+					WHERE content_audience.content_id = vrc.content_id
+					AND content_audience.content_audience_type_id = vrc.content_audience_type_id)
+					AND remote_data_flag = true""", (Object) ids);
+
+			// Re-insert associations for the content in this batch, same as the full sync does.
+			// Content that just became visible remotely can have association rows whose last_updated is already behind
+			// the association tables' watermarks, so we can't rely on those tables' own walks to pick them up
+			rowsSynced += getDatabase().execute("""
+					INSERT INTO content_audience
+					(content_id, content_audience_type_id, created_by_account_id, remote_data_flag)
+					(SELECT content_id, content_audience_type_id, ?, TRUE
+					FROM v_remote_content_audience vr
+					WHERE CAST(vr.content_id AS TEXT) = ANY (CAST(? AS TEXT[]))
+					AND NOT EXISTS
+					(SELECT 'X'
+					FROM content_audience ca
+					WHERE ca.content_id = vr.content_id
+					AND ca.content_audience_type_id = vr.content_audience_type_id))
+					""", serviceAccount.getAccountId(), ids);
+
+			rowsSynced += getDatabase().execute("""
+					INSERT INTO tag_content
+					(tag_content_id, tag_id, content_id, remote_data_flag)
+					(SELECT vrtc.tag_content_id, vrtc.tag_id, vrtc.content_id, TRUE
+					FROM v_remote_tag_content vrtc
+					WHERE CAST(vrtc.content_id AS TEXT) = ANY (CAST(? AS TEXT[]))
+					AND vrtc.tag_content_id NOT IN
+					(SELECT tc.tag_content_id
+					FROM tag_content tc)
+					AND NOT EXISTS
+					(SELECT 'X'
+					FROM tag_content tc2
+					WHERE vrtc.tag_id = tc2.tag_id
+					AND vrtc.content_id = tc2.content_id))""", (Object) ids);
+
+			rowsSynced += getDatabase().execute("""
+					INSERT INTO institution_content
+					(institution_content_id, institution_id, content_id, remote_data_flag)
+					SELECT institution_content_id, institution_id, content_id, TRUE
+					FROM v_remote_institution_content virc
+					WHERE CAST(virc.content_id AS TEXT) = ANY (CAST(? AS TEXT[]))
+					AND institution_content_id NOT IN
+					(SELECT ic.institution_content_id
+					FROM institution_content ic)
+					""", (Object) ids);
+
+			return rowsSynced;
+		} else if (dataSyncTableId == DataSyncTableId.CONTENT_AUDIENCE) {
+			return getDatabase().execute("""
+					INSERT INTO content_audience
+					(content_id, content_audience_type_id, created_by_account_id, remote_data_flag)
+					(SELECT content_id, content_audience_type_id, ?, TRUE
+					FROM v_remote_content_audience vr
+					WHERE CONCAT(vr.content_id, '|', vr.content_audience_type_id) = ANY (CAST(? AS TEXT[]))
+					AND NOT EXISTS
+					(SELECT 'X'
+					FROM content_audience ca
+					WHERE ca.content_id = vr.content_id
+					AND ca.content_audience_type_id = vr.content_audience_type_id))
+					""", serviceAccount.getAccountId(), ids);
+		} else if (dataSyncTableId == DataSyncTableId.TAG_CONTENT) {
+			return getDatabase().execute("""
+					INSERT INTO tag_content
+					(tag_content_id, tag_id, content_id, remote_data_flag)
+					(SELECT vrtc.tag_content_id, vrtc.tag_id, vrtc.content_id, TRUE
+					FROM v_remote_tag_content vrtc
+					WHERE CAST(vrtc.tag_content_id AS TEXT) = ANY (CAST(? AS TEXT[]))
+					AND vrtc.tag_content_id NOT IN
+					(SELECT tc.tag_content_id
+					FROM tag_content tc)
+					AND NOT EXISTS
+					(SELECT 'X'
+					FROM tag_content tc2
+					WHERE vrtc.tag_id = tc2.tag_id
+					AND vrtc.content_id = tc2.content_id))""", (Object) ids);
+		} else if (dataSyncTableId == DataSyncTableId.INSTITUTION_CONTENT) {
+			return getDatabase().execute("""
+					INSERT INTO institution_content
+					(institution_content_id, institution_id, content_id, remote_data_flag)
+					SELECT institution_content_id, institution_id, content_id, TRUE
+					FROM v_remote_institution_content virc
+					WHERE CAST(virc.institution_content_id AS TEXT) = ANY (CAST(? AS TEXT[]))
+					AND institution_content_id NOT IN
+					(SELECT ic.institution_content_id
+					FROM institution_content ic)
+					""", (Object) ids);
+		}
+
+		throw new UnsupportedOperationException(format("Unexpected value %s.%s",
+				DataSyncTableId.class.getSimpleName(), dataSyncTableId.name()));
+	}
+
+	@Nonnull
+	protected String remoteViewNameForDataSyncTableId(@Nonnull DataSyncTableId dataSyncTableId) {
+		requireNonNull(dataSyncTableId);
+
+		switch (dataSyncTableId) {
+			case INSTITUTION:
+				return "v_remote_institution";
+			case TAG:
+				return "v_remote_tag";
+			case CONTENT:
+				return "v_remote_content";
+			case CONTENT_AUDIENCE:
+				return "v_remote_content_audience";
+			case TAG_CONTENT:
+				return "v_remote_tag_content";
+			case INSTITUTION_CONTENT:
+				return "v_remote_institution_content";
+			default:
+				throw new UnsupportedOperationException(format("Unexpected value %s.%s",
+						DataSyncTableId.class.getSimpleName(), dataSyncTableId.name()));
+		}
+	}
+
+	@Nonnull
+	protected String idExpressionForDataSyncTableId(@Nonnull DataSyncTableId dataSyncTableId) {
+		requireNonNull(dataSyncTableId);
+
+		switch (dataSyncTableId) {
+			case INSTITUTION:
+				return "institution_id";
+			case TAG:
+				return "tag_id";
+			case CONTENT:
+				return "content_id";
+			case CONTENT_AUDIENCE:
+				// No single-column key, so the composite is used as the tiebreaker
+				return "CONCAT(content_id, '|', content_audience_type_id)";
+			case TAG_CONTENT:
+				return "tag_content_id";
+			case INSTITUTION_CONTENT:
+				return "institution_content_id";
+			default:
+				throw new UnsupportedOperationException(format("Unexpected value %s.%s",
+						DataSyncTableId.class.getSimpleName(), dataSyncTableId.name()));
+		}
+	}
+
+	protected void refreshForeignServerHostIfNecessary() {
+		//Check to see if we need to update the IP address for the database
+		InetAddress address;
+		try {
+			address = InetAddress.getByName(getConfiguration().getDataSyncRemoteDb());
+		} catch (UnknownHostException e) {
+			throw new RuntimeException(e);
+		}
+
+		Optional<String> fdwServerAddress = getDatabase().queryForObject("""
+				SELECT SUBSTR(srvoptions[1], POSITION('=' IN srvoptions[1]) + 1, 15) 
+				FROM pg_foreign_server
+				WHERE srvname=?""", String.class, FDW_SERVER_NAME);
+
+		if (!fdwServerAddress.isPresent())
+			throw new RuntimeException(format("Could not find foreign server %s", FDW_SERVER_NAME));
+
+		if (address.getHostAddress().compareTo(fdwServerAddress.get()) != 0) {
+			getLogger().debug(format("Remote DB IP Address is %s, fdw server address is %s, updating remote server host.", address.getHostAddress(), fdwServerAddress.get()));
+			getDatabase().execute(format("ALTER SERVER %s OPTIONS (SET host '%s')", FDW_SERVER_NAME, address.getHostAddress()));
+
+			//Try to execute a query against the remote database to make sure it is accessible
+			try {
+				getDatabase().queryForObject("""
+						SELECT count(*) > 0
+						FROM remote_content""", Boolean.class);
+			} catch (Exception e) {
+				throw new RuntimeException(format("Remote DB IP Address has changed to %s. Please whitelist this in AWS.", address.getHostAddress()), e);
 			}
+		}
+	}
 
-			getDatabase().execute("""
+	/**
+	 * Copies everything over the foreign data wrapper.  Callers are responsible for the transaction and for
+	 * {@link #refreshForeignServerHostIfNecessary()}, see {@link #performFullResync()}.
+	 */
+	public void syncData() {
+		getSystemService().performAdvisoryLockOperationIfAvailable(AdvisoryLock.DATA_SYNC, () -> {
+			Account serviceAccount = getAccountService().findServiceAccountByInstitutionId(InstitutionId.COBALT).get();
+
+			getDatabase().execute(format("""
 					INSERT INTO institution
-					(institution_id,
-					name,
-					created,
-					last_updated,
-					group_session_system_id,
-					time_zone,
-					locale,
-					require_consent_form,
-					support_enabled,
-					sso_enabled,
-					anonymous_enabled,
-					email_enabled,
-					access_token_expiration_in_minutes,
-					access_token_short_expiration_in_minutes,
-					anon_access_token_expiration_in_minutes,
-					anon_access_token_short_expiration_in_minutes,
-					metadata,
-					email_signup_enabled,
-					support_email_address,
-					recommend_group_session_requests,
-					immediate_access_enabled,
-					contact_us_enabled,
-					integrated_care_enabled,
-					epic_backend_service_auth_type_id,
-					user_submitted_content_enabled,
-					user_submitted_group_session_enabled,
-					user_submitted_group_session_request_enabled,
-					recommended_content_enabled,
-					group_session_requests_enabled,
-					group_session_reservation_default_followup_time_of_day,
-					group_session_reservation_default_followup_day_offset,
-					appointment_reservation_default_reminder_time_of_day,
-					appointment_reservation_default_reminder_day_offset,
-					group_session_reservation_default_reminder_minutes_offset,
-					features_enabled,
-					mychart_name,
-					anonymous_account_expiration_strategy_id,
-					epic_patient_mrn_type_name,
-					epic_fhir_appointment_find_cache_expiration_in_seconds,
-					epic_fhir_enabled,
-					faq_enabled,
-					google_bigquery_sync_enabled,
-					mixpanel_sync_enabled,
-					sharing_content,
-					microsoft_teams_enabled,
-					tableau_enabled,
-					google_fcm_push_notifications_enabled,
-					call_messages_enabled,
-					sms_messages_enabled,
-					epic_provider_slot_booking_sync_enabled,
-					appointment_feedback_survey_enabled,
-					appointment_feedback_survey_delay_in_minutes,
+					(%s,
 					remote_data_flag)
-					(SELECT institution_id,
-					        name,
-					        created,
-					        last_updated,
-					        group_session_system_id,
-					        time_zone,
-					        locale,
-					        require_consent_form,
-					        support_enabled,
-					        sso_enabled,
-					        anonymous_enabled,
-					        email_enabled,
-					        access_token_expiration_in_minutes,
-					        access_token_short_expiration_in_minutes,
-					        anon_access_token_expiration_in_minutes,
-					        anon_access_token_short_expiration_in_minutes,
-					        metadata,
-					        email_signup_enabled,
-					        support_email_address,
-					        recommend_group_session_requests,
-					        immediate_access_enabled,
-					        contact_us_enabled,
-					        integrated_care_enabled,
-					        epic_backend_service_auth_type_id,
-					        user_submitted_content_enabled,
-					        user_submitted_group_session_enabled,
-					        user_submitted_group_session_request_enabled,
-					        recommended_content_enabled,
-					        group_session_requests_enabled,
-					        group_session_reservation_default_followup_time_of_day,
-					        group_session_reservation_default_followup_day_offset,
-					        appointment_reservation_default_reminder_time_of_day,
-					        appointment_reservation_default_reminder_day_offset,
-					        group_session_reservation_default_reminder_minutes_offset,
-					        features_enabled,
-					        mychart_name,
-					        anonymous_account_expiration_strategy_id,
-					        epic_patient_mrn_type_name,
-					        epic_fhir_appointment_find_cache_expiration_in_seconds,
-					        epic_fhir_enabled,
-					        faq_enabled,
-					        google_bigquery_sync_enabled,
-					        mixpanel_sync_enabled,
-					        sharing_content,
-					        microsoft_teams_enabled,
-					        tableau_enabled,
-					        google_fcm_push_notifications_enabled,
-					        call_messages_enabled,
-					        sms_messages_enabled,
-					        epic_provider_slot_booking_sync_enabled,
-					        appointment_feedback_survey_enabled,
-					        appointment_feedback_survey_delay_in_minutes,
+					(SELECT %s,
 					        TRUE
 					        FROM v_remote_institution ri
 					        WHERE ri.institution_id NOT IN
 					        (SELECT i.institution_id
 					        FROM institution i))
-					""");
+					""", SYNCED_INSTITUTION_COLUMNS, SYNCED_INSTITUTION_COLUMNS));
 
 			//Pull over any file upload rows that are used by content that we'll be pulling over
 			getDatabase().execute("""
@@ -450,9 +893,67 @@ public class DataSyncService implements AutoCloseable {
 					WHERE content_audience.content_id = vrc.content_id
 					AND content_audience.content_audience_type_id = vrc.content_audience_type_id)
 					AND remote_data_flag = true""");
+
+			getDatabase().execute("UPDATE data_sync_watermark SET last_full_resync_at=NOW()");
+
+			// Broadcast goes out when the enclosing transaction commits
+			getTagService().invalidateTagCaches();
 		});
 	}
 
+	@NotThreadSafe
+	protected static class IncrementalSyncBatchRow {
+		@Nullable
+		private String id;
+		@Nullable
+		private Instant lastUpdated;
+
+		@Nullable
+		public String getId() {
+			return this.id;
+		}
+
+		public void setId(@Nullable String id) {
+			this.id = id;
+		}
+
+		@Nullable
+		public Instant getLastUpdated() {
+			return this.lastUpdated;
+		}
+
+		public void setLastUpdated(@Nullable Instant lastUpdated) {
+			this.lastUpdated = lastUpdated;
+		}
+	}
+
+	@Immutable
+	protected static class IncrementalSyncBatchResult {
+		@Nonnull
+		private final Long rowsSynced;
+		@Nonnull
+		private final Boolean caughtUp;
+
+		public IncrementalSyncBatchResult(@Nonnull Long rowsSynced,
+																			@Nonnull Boolean caughtUp) {
+			requireNonNull(rowsSynced);
+			requireNonNull(caughtUp);
+
+			this.rowsSynced = rowsSynced;
+			this.caughtUp = caughtUp;
+		}
+
+		@Nonnull
+		public Long getRowsSynced() {
+			return this.rowsSynced;
+		}
+
+		@Nonnull
+		public Boolean getCaughtUp() {
+			return this.caughtUp;
+		}
+	}
+
 	@ThreadSafe
 	protected static class BackgroundSyncTask implements Runnable {
 		@Nonnull
@@ -500,14 +1001,19 @@ public class DataSyncService implements AutoCloseable {
 
 			getCurrentContextExecutor().execute(currentContext, () -> {
 				try {
-					getDatabase().transaction(() -> {
-						getSystemService().applyFootprintEventGroupToCurrentTransaction(FootprintEventGroupTypeId.REMOTE_DATA_SYNC);
-						getDataSyncService().syncData();
-					});
+					getDataSyncService().syncDataIncrementally();
 				} catch (Exception e) {
 					getLogger().error("Unable to sync data", e);
 					getErrorReporter().report(e);
 				}
+
+				// Incremental sync can't see everything (see performFullResync()), so periodically reconcile in full
+				try {
+					getDataSyncService().performFullResyncIfDue();
+				} catch (Exception e) {
+					getLogger().error("Unable to perform scheduled full data resync", e);
+					getErrorReporter().report(e);
+				}
 			});
 		}
 
@@ -559,6 +1065,11 @@ public class DataSyncService implements AutoCloseable {
 		return this.institutionServiceProvider.get();
 	}
 
+	@Nonnull
+	protected TagService getTagService() {
+		return this.tagServiceProvider.get();
+	}
+
 	@Nonnull
 	protected AccountService getAccountService() {
 		return this.accountServiceProvider.get();
@@ -579,6 +1090,11 @@ public class DataSyncService implements AutoCloseable {
 		return this.databaseProvider.get();
 	}
 
+	@Nonnull
+	protected CurrentContextExecutor getCurrentContextExecutor() {
+		return this.currentContextExecutor;
+	}
+
 	@Nonnull
 	protected ErrorReporter getErrorReporter() {
 		return this.errorReporter;
@@ -599,6 +1115,11 @@ public class DataSyncService implements AutoCloseable {
 		return BACKGROUND_TASK_INITIAL_DELAY_IN_SECONDS;
 	}
 
+	@Nonnull
+	protected Duration getFullResyncInterval() {
+		return FULL_RESYNC_INTERVAL;
+	}
+
 	@Nonnull
 	protected Object getBackgroundTaskLock() {
 		return this.backgroundTaskLock;
@@ -69,16 +69,20 @@ import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -651,6 +655,11 @@ public class MessageService implements AutoCloseable {
 
 	@ThreadSafe
 	public static class SendMessageTask implements Runnable {
+		@Nonnull
+		private static final Integer EMAIL_BATCH_SIZE;
+		@Nonnull
+		private static final Duration STALE_SENDING_THRESHOLD;
+
 		@Nonnull
 		private final MessageService messageService;
 		@Nonnull
@@ -678,6 +687,15 @@ public class MessageService implements AutoCloseable {
 		@Nonnull
 		private final Logger logger;
 
+		static {
+			// Large enough to amortize template compilation and connections.  Each message is marked SENT with its
+			// vendor-assigned ID as soon as its own send returns, so batch size doesn't delay SES delivery webhook lookups
+			EMAIL_BATCH_SIZE = 16;
+			// A batch at our minimum SES rate finishes in well under a minute, so anything SENDING this long was orphaned
+			// (e.g. the node died mid-batch)
+			STALE_SENDING_THRESHOLD = Duration.ofMinutes(15);
+		}
+
 		@Inject
 		public SendMessageTask(@Nonnull MessageService messageService,
 													 @Nonnull EmailMessageSerializer emailMessageSerializer,
@@ -719,10 +737,10 @@ public class MessageService implements AutoCloseable {
 			this.logger = LoggerFactory.getLogger(getClass());
 		}
 
-		protected void forceTransitionMessageToError(@Nonnull Message message) {
-			requireNonNull(message);
+		protected void forceTransitionMessageToError(@Nonnull UUID messageId) {
+			requireNonNull(messageId);
 
-			getLogger().warn("Force-transitioning message ID {} to {}...", message.getMessageId(), MessageStatusId.ERROR.name());
+			getLogger().warn("Force-transitioning message ID {} to {}...", messageId, MessageStatusId.ERROR.name());
 
 			Transaction transaction = getDatabase().currentTransaction().orElse(null);
 
@@ -731,29 +749,29 @@ public class MessageService implements AutoCloseable {
 
 				// TODO: once Pyranid supports PostTransactionOperations, use one of them instead of splitting like this
 				transaction.addPostCommitOperation(() -> {
-					getLogger().warn("OK, we are post-commit, now force-transitioning message ID {} to {}...", message.getMessageId(), MessageStatusId.ERROR.name());
-					forceTransitionMessageToErrorInternal(message);
+					getLogger().warn("OK, we are post-commit, now force-transitioning message ID {} to {}...", messageId, MessageStatusId.ERROR.name());
+					forceTransitionMessageToErrorInternal(messageId);
 				});
 
 				transaction.addPostRollbackOperation(() -> {
-					getLogger().warn("OK, we are post-rollback, now force-transitioning message ID {} to {}...", message.getMessageId(), MessageStatusId.ERROR.name());
-					forceTransitionMessageToErrorInternal(message);
+					getLogger().warn("OK, we are post-rollback, now force-transitioning message ID {} to {}...", messageId, MessageStatusId.ERROR.name());
+					forceTransitionMessageToErrorInternal(messageId);
 				});
 			} else {
-				forceTransitionMessageToErrorInternal(message);
+				forceTransitionMessageToErrorInternal(messageId);
 			}
 		}
 
-		protected void forceTransitionMessageToErrorInternal(@Nonnull Message message) {
-			requireNonNull(message);
+		protected void forceTransitionMessageToErrorInternal(@Nonnull UUID messageId) {
+			requireNonNull(messageId);
 
 			try {
 				getDatabase().execute("UPDATE message_log SET message_status_id=?, processed=NOW() WHERE message_id=?",
-						MessageStatusId.ERROR, message.getMessageId());
+						MessageStatusId.ERROR, messageId);
 
-				getLogger().warn("Force-transitioning message ID {} to {} has completed successfully.", message.getMessageId(), MessageStatusId.ERROR.name());
+				getLogger().warn("Force-transitioning message ID {} to {} has completed successfully.", messageId, MessageStatusId.ERROR.name());
 			} catch (Throwable t) {
-				getLogger().error(format("Unable to force-transition message ID %s to %s", message.getMessageId(), MessageStatusId.ENQUEUED), t);
+				getLogger().error(format("Unable to force-transition message ID %s to %s", messageId, MessageStatusId.ENQUEUED), t);
 				getErrorReporter().report(t);
 			}
 		}
@@ -788,55 +806,156 @@ public class MessageService implements AutoCloseable {
 				// This will ensure there is no issue writing to the database prior to sending (gives confidence we can mark the message as sent after sending it).
 				// For example, suppose we are unintentionally operating on a read-replica.  This would fail-fast and the message would never be sent.
 				// If this write did not occur, the message could be sent and then fail to be marked as sent, causing repeated re-sends.
-				getDatabase().execute("UPDATE message_log SET message_status_id=? WHERE message_id=?",
+				getDatabase().execute("UPDATE message_log SET message_status_id=?, sending_started=NOW() WHERE message_id=?",
 						MessageStatusId.SENDING, deserializedMessage.getMessageId());
 
 				String vendorAssignedId = messageSender.sendMessage(deserializedMessage);
 
-				try {
-					getDatabase().execute("UPDATE message_log SET message_status_id=?, vendor_assigned_id=?, processed=NOW() WHERE message_id=?",
-							MessageStatusId.SENT, vendorAssignedId, deserializedMessage.getMessageId());
+				return markMessageAsSent(deserializedMessage.getMessageId(), vendorAssignedId);
+			} catch (Throwable t) {
+				markMessageAsError(deserializedMessage.getMessageId(), t);
+				return false;
+			}
+		}
 
-					return true;
-				} catch (Throwable t) {
-					try {
-						// Not much we can do, just bail
-						getLogger().error(format("Unable to update message log for message ID %s", deserializedMessage.getMessageId()), t);
-						getErrorReporter().report(t);
-					} finally {
-						forceTransitionMessageToError(deserializedMessage);
-					}
+		@Nonnull
+		protected List<MessageLog> claimEnqueuedEmailMessageLogs() {
+			return getDatabase().transaction(() -> {
+				List<MessageLog> emailMessageLogs = getDatabase().queryForList("""
+						SELECT *
+						FROM message_log
+						WHERE message_status_id=?
+						AND message_type_id=?
+						ORDER BY created
+						LIMIT ?
+						FOR UPDATE
+						SKIP LOCKED
+						""", MessageLog.class, MessageStatusId.ENQUEUED, MessageTypeId.EMAIL, EMAIL_BATCH_SIZE);
+
+				// Mark as "sending" before anything leaves Cobalt, same as dequeueAndSendMessage() does.
+				// We commit right away so row locks aren't held while the batch is out with the vendor - other nodes
+				// will skip these rows because they're no longer ENQUEUED
+				for (MessageLog emailMessageLog : emailMessageLogs)
+					getDatabase().execute("UPDATE message_log SET message_status_id=?, sending_started=NOW() WHERE message_id=?",
+							MessageStatusId.SENDING, emailMessageLog.getMessageId());
+
+				return emailMessageLogs;
+			});
+		}
+
+		@Nonnull
+		protected Integer sendClaimedEmailMessages(@Nonnull List<MessageLog> emailMessageLogs) {
+			requireNonNull(emailMessageLogs);
+
+			List<EmailMessage> emailMessages = new ArrayList<>(emailMessageLogs.size());
 
-					return false;
+			for (MessageLog emailMessageLog : emailMessageLogs) {
+				try {
+					emailMessages.add(getEmailMessageSerializer().deserializeMessage(emailMessageLog.getSerializedMessage()));
+				} catch (Throwable t) {
+					markMessageAsError(emailMessageLog.getMessageId(), t);
 				}
+			}
+
+			Set<UUID> handledMessageIds = ConcurrentHashMap.newKeySet();
+			AtomicInteger sentCount = new AtomicInteger(0);
+
+			try {
+				// Record each outcome as soon as it's known (possibly from sender threads) rather than after the whole batch,
+				// so SES delivery webhooks can find the vendor-assigned ID and a crash mid-batch loses at most the in-flight sends
+				getEmailMessageSender().sendMessages(emailMessages, (emailMessage, messageSendResult) -> {
+					handledMessageIds.add(emailMessage.getMessageId());
+
+					if (messageSendResult.getVendorAssignedId().isPresent()) {
+						if (markMessageAsSent(emailMessage.getMessageId(), messageSendResult.getVendorAssignedId().get()))
+							sentCount.incrementAndGet();
+					} else {
+						markMessageAsError(emailMessage.getMessageId(), messageSendResult.getException().get());
+					}
+				});
 			} catch (Throwable t) {
-				getLogger().warn(format("Unable to send message with message ID %s, going to mark as %s...",
-						deserializedMessage.getMessageId(), MessageStatusId.ERROR.name()), t);
+				// Shouldn't happen, since per-message failures are handled above - but don't leave anything stuck in SENDING
+				for (EmailMessage emailMessage : emailMessages)
+					if (!handledMessageIds.contains(emailMessage.getMessageId()))
+						markMessageAsError(emailMessage.getMessageId(), t);
+			}
+
+			return sentCount.get();
+		}
 
-				String stackTrace = null;
+		/**
+		 * Re-enqueues messages that have been SENDING for longer than any batch should take.
+		 * <p>
+		 * This can result in a duplicate send if the vendor accepted the message but we died before recording it - we
+		 * prefer that to silently never sending it.
+		 */
+		@Nonnull
+		protected Integer reenqueueStaleSendingMessages() {
+			long reenqueuedCount = getDatabase().execute("""
+					UPDATE message_log
+					SET message_status_id=?, sending_started=NULL
+					WHERE message_status_id=?
+					AND sending_started < NOW() - make_interval(secs => ?)
+					""", MessageStatusId.ENQUEUED, MessageStatusId.SENDING, STALE_SENDING_THRESHOLD.toSeconds());
+
+			if (reenqueuedCount > 0)
+				getLogger().warn("Re-enqueued {} message[s] that were stuck in {} for over {}; these may be sent twice",
+						reenqueuedCount, MessageStatusId.SENDING.name(), STALE_SENDING_THRESHOLD);
+
+			return (int) reenqueuedCount;
+		}
 
+		@Nonnull
+		protected Boolean markMessageAsSent(@Nonnull UUID messageId,
+																				@Nonnull String vendorAssignedId) {
+			requireNonNull(messageId);
+			requireNonNull(vendorAssignedId);
+
+			try {
+				getDatabase().execute("UPDATE message_log SET message_status_id=?, vendor_assigned_id=?, processed=NOW() WHERE message_id=?",
+						MessageStatusId.SENT, vendorAssignedId, messageId);
+
+				return true;
+			} catch (Throwable t) {
 				try {
-					stackTrace = getFormatter().formatStackTrace(t);
-				} catch (Throwable t2) {
-					getLogger().warn(format("Unable to extract stack trace for failed message send for message ID %s",
-							deserializedMessage.getMessageId()), t);
+					// Not much we can do, just bail
+					getLogger().error(format("Unable to update message log for message ID %s", messageId), t);
+					getErrorReporter().report(t);
+				} finally {
+					forceTransitionMessageToError(messageId);
 				}
 
-				try {
-					getDatabase().execute("UPDATE message_log SET message_status_id=?, processed=NOW(), stack_trace=? WHERE message_id=?",
-							MessageStatusId.ERROR, stackTrace, deserializedMessage.getMessageId());
+				return false;
+			}
+		}
 
-					return false;
-				} catch (Throwable t2) {
-					// Not much we can do, just bail
-					try {
-						getLogger().error(format("Unable to update message log for message ID %s", deserializedMessage.getMessageId()), t2);
-						getErrorReporter().report(t2);
-					} finally {
-						forceTransitionMessageToError(deserializedMessage);
-					}
+		protected void markMessageAsError(@Nonnull UUID messageId,
+																			@Nonnull Throwable throwable) {
+			requireNonNull(messageId);
+			requireNonNull(throwable);
+
+			getLogger().warn(format("Unable to send message with message ID %s, going to mark as %s...",
+					messageId, MessageStatusId.ERROR.name()), throwable);
 
-					return false;
+			String stackTrace = null;
+
+			try {
+				stackTrace = getFormatter().formatStackTrace(throwable);
+			} catch (Throwable t) {
+				getLogger().warn(format("Unable to extract stack trace for failed message send for message ID %s",
+						messageId), throwable);
+			}
+
+			try {
+				getDatabase().execute("UPDATE message_log SET message_status_id=?, processed=NOW(), stack_trace=? WHERE message_id=?",
+						MessageStatusId.ERROR, stackTrace, messageId);
+			} catch (Throwable t) {
+				// Not much we can do, just bail
+				try {
+					getLogger().error(format("Unable to update message log for message ID %s", messageId), t);
+					getErrorReporter().report(t);
+				} finally {
+					forceTransitionMessageToError(messageId);
 				}
 			}
 		}
@@ -853,6 +972,33 @@ public class MessageService implements AutoCloseable {
 				AtomicInteger totalMessagesSent = new AtomicInteger(0);
 				AtomicInteger totalMessagesFailed = new AtomicInteger(0);
 
+				try {
+					reenqueueStaleSendingMessages();
+				} catch (Throwable t) {
+					getLogger().error("Unable to re-enqueue stale sending messages", t);
+					getErrorReporter().report(t);
+				}
+
+				// Emails are sent in batches first so template compilation, connections and vendor concurrency are amortized.
+				// Anything left over (other message types, or emails enqueued in the meantime) is handled one at a time below
+				boolean moreEmailMessagesExist = true;
+
+				while (moreEmailMessagesExist) {
+					List<MessageLog> emailMessageLogs = claimEnqueuedEmailMessageLogs();
+
+					if (emailMessageLogs.size() == 0) {
+						moreEmailMessagesExist = false;
+					} else {
+						getLogger().info("Sending a batch of {} email message[s]...", emailMessageLogs.size());
+
+						int sentCount = sendClaimedEmailMessages(emailMessageLogs);
+
+						totalMessagesProcessed.addAndGet(emailMessageLogs.size());
+						totalMessagesSent.addAndGet(sentCount);
+						totalMessagesFailed.addAndGet(emailMessageLogs.size() - sentCount);
+					}
+				}
+
 				while (moreMessagesExist.get()) {
 					getDatabase().transaction(() -> {
 						// For now, keep batch size at 1 so we insert right away after the send, which
@@ -126,6 +126,8 @@ import com.cobaltplatform.api.model.db.PatientOrderDisposition.PatientOrderDispo
 import com.cobaltplatform.api.model.db.PatientOrderEventType.PatientOrderEventTypeId;
 import com.cobaltplatform.api.model.db.PatientOrderFocusType;
 import com.cobaltplatform.api.model.db.PatientOrderImport;
+import com.cobaltplatform.api.model.db.PatientOrderImportProgress;
+import com.cobaltplatform.api.model.db.PatientOrderImportProgressStatus.PatientOrderImportProgressStatusId;
 import com.cobaltplatform.api.model.db.PatientOrderImportType.PatientOrderImportTypeId;
 import com.cobaltplatform.api.model.db.PatientOrderIntakeInsuranceStatus.PatientOrderIntakeInsuranceStatusId;
 import com.cobaltplatform.api.model.db.PatientOrderIntakeLocationStatus.PatientOrderIntakeLocationStatusId;
@@ -185,6 +187,7 @@ import com.cobaltplatform.api.model.service.PatientOrderEncounterDocumentationSt
 import com.cobaltplatform.api.model.service.PatientOrderFilterFlagTypeId;
 import com.cobaltplatform.api.model.service.PatientOrderImportResult;
 import com.cobaltplatform.api.model.service.PatientOrderOutreachStatusId;
+import com.cobaltplatform.api.model.service.PatientOrderRelations;
 import com.cobaltplatform.api.model.service.PatientOrderResponseStatusId;
 import com.cobaltplatform.api.model.service.PatientOrderViewTypeId;
 import com.cobaltplatform.api.model.service.ReferringPractice;
@@ -195,6 +198,7 @@ import com.cobaltplatform.api.model.service.SortDirectionId;
 import com.cobaltplatform.api.model.service.SortNullsId;
 import com.cobaltplatform.api.util.Authenticator;
 import com.cobaltplatform.api.util.Formatter;
+import com.cobaltplatform.api.util.Holder;
 import com.cobaltplatform.api.util.Normalizer;
 import com.cobaltplatform.api.util.ValidationException;
 import com.cobaltplatform.api.util.ValidationException.FieldError;
@@ -222,6 +226,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.NotThreadSafe;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
@@ -246,9 +251,12 @@ import java.time.format.TextStyle;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -257,10 +265,16 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.regex.Matcher;
@@ -286,12 +300,40 @@ public class PatientOrderService implements AutoCloseable {
 	private static final Long BACKGROUND_TASK_INITIAL_DELAY_IN_SECONDS;
 	public static final int MAX_PATIENT_ORDER_IDS_PER_ASSIGN_REQUEST;
 	public static final int MAX_CURRENT_PAGE_PATIENT_ORDERS_FOR_BATCH_LOOKUPS;
+	@Nonnull
+	private static final Integer PATIENT_ORDER_IMPORT_CONCURRENCY;
+	@Nonnull
+	private static final Integer PATIENT_ORDER_IMPORT_VALIDATION_CHUNK_SIZE;
+	@Nonnull
+	private static final Long PATIENT_ORDER_IMPORT_EPIC_TIMEOUT_IN_SECONDS;
+	@Nonnull
+	private static final Long PATIENT_ORDER_IMPORT_PROGRESS_UPDATE_INTERVAL_IN_SECONDS;
+	@Nonnull
+	private static final Integer PATIENT_ORDER_IMPORT_PROGRESS_LOGGING_INTERVAL;
+	@Nonnull
+	private static final Integer BACKGROUND_TASK_DEMOGRAPHICS_IMPORT_BATCH_SIZE;
+	@Nonnull
+	private static final Duration BACKGROUND_TASK_DEMOGRAPHICS_IMPORT_CLAIM_DURATION;
+	@Nonnull
+	private static final Duration BACKGROUND_TASK_DEMOGRAPHICS_IMPORT_FETCH_TIMEOUT;
+	@Nonnull
+	private static final Integer BACKGROUND_TASK_EPIC_CONCURRENCY;
 
 	static {
 		BACKGROUND_TASK_INTERVAL_IN_SECONDS = 60L * 1L;
 		BACKGROUND_TASK_INITIAL_DELAY_IN_SECONDS = 10L;
 		MAX_PATIENT_ORDER_IDS_PER_ASSIGN_REQUEST = 100;
 		MAX_CURRENT_PAGE_PATIENT_ORDERS_FOR_BATCH_LOOKUPS = 100;
+		PATIENT_ORDER_IMPORT_CONCURRENCY = 8;
+		PATIENT_ORDER_IMPORT_VALIDATION_CHUNK_SIZE = 500;
+		PATIENT_ORDER_IMPORT_EPIC_TIMEOUT_IN_SECONDS = 60L * 5L;
+		PATIENT_ORDER_IMPORT_PROGRESS_UPDATE_INTERVAL_IN_SECONDS = 2L;
+		PATIENT_ORDER_IMPORT_PROGRESS_LOGGING_INTERVAL = 25;
+		BACKGROUND_TASK_DEMOGRAPHICS_IMPORT_BATCH_SIZE = 100;
+		BACKGROUND_TASK_DEMOGRAPHICS_IMPORT_CLAIM_DURATION = Duration.ofMinutes(5);
+		// Must be comfortably shorter than the claim so another node can't re-claim orders we're still working on
+		BACKGROUND_TASK_DEMOGRAPHICS_IMPORT_FETCH_TIMEOUT = Duration.ofMinutes(3);
+		BACKGROUND_TASK_EPIC_CONCURRENCY = 8;
 	}
 
 	@Nonnull
@@ -323,6 +365,8 @@ public class PatientOrderService implements AutoCloseable {
 	@Nonnull
 	private final DatabaseProvider databaseProvider;
 	@Nonnull
+	private final CurrentContextExecutor currentContextExecutor;
+	@Nonnull
 	private final Normalizer normalizer;
 	@Nonnull
 	private final Formatter formatter;
@@ -345,6 +389,8 @@ public class PatientOrderService implements AutoCloseable {
 	private Boolean backgroundTaskStarted;
 	@Nullable
 	private ScheduledExecutorService backgroundTaskExecutorService;
+	@Nonnull
+	private final Map<InstitutionId, BackgroundTaskStatistics> backgroundTaskStatisticsByInstitutionId;
 
 	@Inject
 	public PatientOrderService(@Nonnull Provider<AddressService> addressServiceProvider,
@@ -360,6 +406,7 @@ public class PatientOrderService implements AutoCloseable {
 														 @Nonnull EnterprisePluginProvider enterprisePluginProvider,
 														 @Nonnull PatientOrderScheduledMessageGroupApiResponseFactory patientOrderScheduledMessageGroupApiResponseFactory,
 														 @Nonnull DatabaseProvider databaseProvider,
+														 @Nonnull CurrentContextExecutor currentContextExecutor,
 														 @Nonnull Hl7Client hl7Client,
 														 @Nonnull Normalizer normalizer,
 														 @Nonnull Formatter formatter,
@@ -380,6 +427,7 @@ public class PatientOrderService implements AutoCloseable {
 		requireNonNull(enterprisePluginProvider);
 		requireNonNull(patientOrderScheduledMessageGroupApiResponseFactory);
 		requireNonNull(databaseProvider);
+		requireNonNull(currentContextExecutor);
 		requireNonNull(hl7Client);
 		requireNonNull(normalizer);
 		requireNonNull(formatter);
@@ -401,6 +449,7 @@ public class PatientOrderService implements AutoCloseable {
 		this.enterprisePluginProvider = enterprisePluginProvider;
 		this.patientOrderScheduledMessageGroupApiResponseFactory = patientOrderScheduledMessageGroupApiResponseFactory;
 		this.databaseProvider = databaseProvider;
+		this.currentContextExecutor = currentContextExecutor;
 		this.hl7Client = hl7Client;
 		this.normalizer = normalizer;
 		this.formatter = formatter;
@@ -413,6 +462,7 @@ public class PatientOrderService implements AutoCloseable {
 
 		this.backgroundTaskLock = new ReentrantLock();
 		this.backgroundTaskStarted = false;
+		this.backgroundTaskStatisticsByInstitutionId = new ConcurrentHashMap<>();
 	}
 
 	@Override
@@ -452,6 +502,18 @@ public class PatientOrderService implements AutoCloseable {
 		}
 	}
 
+	protected void recordBackgroundTaskStatistics(@Nonnull BackgroundTaskStatistics backgroundTaskStatistics) {
+		requireNonNull(backgroundTaskStatistics);
+		this.backgroundTaskStatisticsByInstitutionId.put(backgroundTaskStatistics.getInstitutionId(), backgroundTaskStatistics);
+	}
+
+	@Nonnull
+	public List<BackgroundTaskStatistics> findBackgroundTaskStatistics() {
+		return this.backgroundTaskStatisticsByInstitutionId.values().stream()
+				.sorted(Comparator.comparing(backgroundTaskStatistics -> backgroundTaskStatistics.getInstitutionId().name()))
+				.collect(Collectors.toList());
+	}
+
 	@Nonnull
 	public Boolean stopBackgroundTasks() {
 		getBackgroundTaskLock().lock();
@@ -5269,6 +5331,230 @@ public class PatientOrderService implements AutoCloseable {
 		return getAddressService().findAddressesByIds(addressIds);
 	}
 
+	@Nonnull
+	public Map<UUID, PatientOrder> findPatientOrdersByIds(@Nonnull Set<UUID> patientOrderIds) {
+		requireNonNull(patientOrderIds);
+
+		if (patientOrderIds.isEmpty())
+			return Map.of();
+
+		// Same approach as findPatientOrderById: try the faster open/closed view first, then fall back to the slower one
+		List<PatientOrder> patientOrders = new ArrayList<>(getDatabase().queryForList("""
+				SELECT *
+				FROM v_patient_order
+				WHERE patient_order_id = ANY (CAST(? AS UUID[]))
+				""", PatientOrder.class, (Object) patientOrderIds.toArray(new UUID[0])));
+
+		Set<UUID> missingPatientOrderIds = new HashSet<>(patientOrderIds);
+
+		for (PatientOrder patientOrder : patientOrders)
+			missingPatientOrderIds.remove(patientOrder.getPatientOrderId());
+
+		if (missingPatientOrderIds.size() > 0)
+			patientOrders.addAll(getDatabase().queryForList("""
+					SELECT *
+					FROM v_all_patient_order
+					WHERE patient_order_id = ANY (CAST(? AS UUID[]))
+					""", PatientOrder.class, (Object) missingPatientOrderIds.toArray(new UUID[0])));
+
+		Map<UUID, PatientOrder> patientOrdersById = new LinkedHashMap<>(patientOrders.size());
+
+		for (PatientOrder patientOrder : patientOrders)
+			patientOrdersById.put(patientOrder.getPatientOrderId(), patientOrder);
+
+		return patientOrdersById;
+	}
+
+	@Nonnull
+	public Map<UUID, List<PatientOrderDiagnosis>> findPatientOrderDiagnosesByPatientOrderIds(@Nonnull Set<UUID> patientOrderIds) {
+		requireNonNull(patientOrderIds);
+
+		if (patientOrderIds.isEmpty())
+			return Map.of();
+
+		return groupByPatientOrderId(getDatabase().queryForList("""
+				SELECT *
+				FROM patient_order_diagnosis
+				WHERE patient_order_id = ANY (CAST(? AS UUID[]))
+				ORDER BY patient_order_id, display_order
+				""", PatientOrderDiagnosis.class, (Object) patientOrderIds.toArray(new UUID[0])), PatientOrderDiagnosis::getPatientOrderId);
+	}
+
+	@Nonnull
+	public Map<UUID, List<PatientOrderMedication>> findPatientOrderMedicationsByPatientOrderIds(@Nonnull Set<UUID> patientOrderIds) {
+		requireNonNull(patientOrderIds);
+
+		if (patientOrderIds.isEmpty())
+			return Map.of();
+
+		return groupByPatientOrderId(getDatabase().queryForList("""
+				SELECT *
+				FROM patient_order_medication
+				WHERE patient_order_id = ANY (CAST(? AS UUID[]))
+				ORDER BY patient_order_id, display_order
+				""", PatientOrderMedication.class, (Object) patientOrderIds.toArray(new UUID[0])), PatientOrderMedication::getPatientOrderId);
+	}
+
+	@Nonnull
+	public Map<UUID, List<PatientOrderNote>> findPatientOrderNotesByPatientOrderIds(@Nonnull Set<UUID> patientOrderIds) {
+		requireNonNull(patientOrderIds);
+
+		if (patientOrderIds.isEmpty())
+			return Map.of();
+
+		return groupByPatientOrderId(getDatabase().queryForList("""
+				SELECT *
+				FROM patient_order_note
+				WHERE patient_order_id = ANY (CAST(? AS UUID[]))
+				AND deleted=FALSE
+				ORDER BY patient_order_id, created DESC
+				""", PatientOrderNote.class, (Object) patientOrderIds.toArray(new UUID[0])), PatientOrderNote::getPatientOrderId);
+	}
+
+	@Nonnull
+	public Map<UUID, List<PatientOrderOutreach>> findPatientOrderOutreachesByPatientOrderIds(@Nonnull Set<UUID> patientOrderIds) {
+		requireNonNull(patientOrderIds);
+
+		if (patientOrderIds.isEmpty())
+			return Map.of();
+
+		return groupByPatientOrderId(getDatabase().queryForList("""
+				SELECT *
+				FROM patient_order_outreach
+				WHERE patient_order_id = ANY (CAST(? AS UUID[]))
+				AND deleted=FALSE
+				ORDER BY patient_order_id, created DESC
+				""", PatientOrderOutreach.class, (Object) patientOrderIds.toArray(new UUID[0])), PatientOrderOutreach::getPatientOrderId);
+	}
+
+	@Nonnull
+	public Map<UUID, List<PatientOrderVoicemailTask>> findPatientOrderVoicemailTasksByPatientOrderIds(@Nonnull Set<UUID> patientOrderIds) {
+		requireNonNull(patientOrderIds);
+
+		if (patientOrderIds.isEmpty())
+			return Map.of();
+
+		return groupByPatientOrderId(getDatabase().queryForList("""
+				SELECT *
+				FROM v_patient_order_voicemail_task
+				WHERE patient_order_id = ANY (CAST(? AS UUID[]))
+				ORDER BY patient_order_id, last_updated DESC
+				""", PatientOrderVoicemailTask.class, (Object) patientOrderIds.toArray(new UUID[0])), PatientOrderVoicemailTask::getPatientOrderId);
+	}
+
+	@Nonnull
+	public Map<UUID, List<PatientOrderScheduledOutreach>> findPatientOrderScheduledOutreachesByPatientOrderIds(@Nonnull Set<UUID> patientOrderIds,
+																																																							@Nonnull PatientOrderScheduledOutreachStatusId patientOrderScheduledOutreachStatusId) {
+		requireNonNull(patientOrderIds);
+		requireNonNull(patientOrderScheduledOutreachStatusId);
+
+		if (patientOrderIds.isEmpty())
+			return Map.of();
+
+		return groupByPatientOrderId(getDatabase().queryForList("""
+				SELECT *
+				FROM v_patient_order_scheduled_outreach
+				WHERE patient_order_id = ANY (CAST(? AS UUID[]))
+				AND patient_order_scheduled_outreach_status_id = ?
+				ORDER BY patient_order_id, scheduled_at_date_time
+				""", PatientOrderScheduledOutreach.class, (Object) patientOrderIds.toArray(new UUID[0]), patientOrderScheduledOutreachStatusId), PatientOrderScheduledOutreach::getPatientOrderId);
+	}
+
+	@Nonnull
+	public Map<UUID, List<PatientOrderTriage>> findActivePatientOrderTriagesByPatientOrderIds(@Nonnull Set<UUID> patientOrderIds) {
+		requireNonNull(patientOrderIds);
+
+		if (patientOrderIds.isEmpty())
+			return Map.of();
+
+		List<PatientOrderTriageGroup> patientOrderTriageGroups = getDatabase().queryForList("""
+				SELECT *
+				FROM patient_order_triage_group
+				WHERE patient_order_id = ANY (CAST(? AS UUID[]))
+				AND active=TRUE
+				""", PatientOrderTriageGroup.class, (Object) patientOrderIds.toArray(new UUID[0]));
+
+		if (patientOrderTriageGroups.isEmpty())
+			return Map.of();
+
+		Map<UUID, UUID> patientOrderIdsByPatientOrderTriageGroupId = new HashMap<>(patientOrderTriageGroups.size());
+
+		for (PatientOrderTriageGroup patientOrderTriageGroup : patientOrderTriageGroups)
+			patientOrderIdsByPatientOrderTriageGroupId.put(patientOrderTriageGroup.getPatientOrderTriageGroupId(), patientOrderTriageGroup.getPatientOrderId());
+
+		return groupByPatientOrderId(getDatabase().queryForList("""
+				SELECT *
+				FROM patient_order_triage
+				WHERE patient_order_triage_group_id = ANY (CAST(? AS UUID[]))
+				ORDER BY patient_order_triage_group_id, display_order
+				""", PatientOrderTriage.class, (Object) patientOrderIdsByPatientOrderTriageGroupId.keySet().toArray(new UUID[0])),
+				patientOrderTriage -> patientOrderIdsByPatientOrderTriageGroupId.get(patientOrderTriage.getPatientOrderTriageGroupId()));
+	}
+
+	/**
+	 * Loads everything a patient order API response reads for the {@code EVERYTHING} supplement for all of the given
+	 * orders at once - one query per relation, regardless of how many orders there are.
+	 */
+	@Nonnull
+	public PatientOrderRelations findPatientOrderRelations(@Nonnull Collection<PatientOrder> patientOrders) {
+		requireNonNull(patientOrders);
+
+		if (patientOrders.isEmpty())
+			return new PatientOrderRelations.Builder().build();
+
+		Set<UUID> patientOrderIds = new HashSet<>(patientOrders.size());
+		Set<UUID> addressIds = new HashSet<>();
+		Set<UUID> accountIds = new HashSet<>();
+		Set<UUID> screeningSessionIds = new HashSet<>();
+
+		for (PatientOrder patientOrder : patientOrders) {
+			patientOrderIds.add(patientOrder.getPatientOrderId());
+
+			if (patientOrder.getPatientAddressId() != null)
+				addressIds.add(patientOrder.getPatientAddressId());
+			if (patientOrder.getPatientAccountId() != null)
+				accountIds.add(patientOrder.getPatientAccountId());
+			if (patientOrder.getMostRecentIntakeScreeningSessionId() != null)
+				screeningSessionIds.add(patientOrder.getMostRecentIntakeScreeningSessionId());
+			if (patientOrder.getMostRecentScreeningSessionId() != null)
+				screeningSessionIds.add(patientOrder.getMostRecentScreeningSessionId());
+		}
+
+		Map<UUID, List<PatientOrderTriage>> activePatientOrderTriagesByPatientOrderId = findActivePatientOrderTriagesByPatientOrderIds(patientOrderIds);
+		Map<UUID, ScreeningSession> screeningSessionsByScreeningSessionId = getScreeningService().findScreeningSessionsByIds(screeningSessionIds);
+
+		return new PatientOrderRelations.Builder()
+				.addressesByAddressId(findAddressesByIds(addressIds))
+				.accountsByAccountId(getAccountService().findAccountsByIds(accountIds))
+				.screeningSessionsByScreeningSessionId(screeningSessionsByScreeningSessionId)
+				.screeningSessionResultsByScreeningSessionId(getScreeningService().findScreeningSessionResultsByScreeningSessions(screeningSessionsByScreeningSessionId.values()))
+				.patientOrderDiagnosesByPatientOrderId(findPatientOrderDiagnosesByPatientOrderIds(patientOrderIds))
+				.patientOrderMedicationsByPatientOrderId(findPatientOrderMedicationsByPatientOrderIds(patientOrderIds))
+				.patientOrderNotesByPatientOrderId(findPatientOrderNotesByPatientOrderIds(patientOrderIds))
+				.patientOrderOutreachesByPatientOrderId(findPatientOrderOutreachesByPatientOrderIds(patientOrderIds))
+				.patientOrderVoicemailTasksByPatientOrderId(findPatientOrderVoicemailTasksByPatientOrderIds(patientOrderIds))
+				.patientOrderScheduledOutreachesByPatientOrderId(findPatientOrderScheduledOutreachesByPatientOrderIds(patientOrderIds, PatientOrderScheduledOutreachStatusId.SCHEDULED))
+				.activePatientOrderTriagesByPatientOrderId(activePatientOrderTriagesByPatientOrderId)
+				// Reference data is only needed if some order has triages to group
+				.patientOrderFocusTypes(activePatientOrderTriagesByPatientOrderId.isEmpty() ? List.of() : findPatientOrderFocusTypes())
+				.patientOrderCareTypes(activePatientOrderTriagesByPatientOrderId.isEmpty() ? List.of() : findPatientOrderCareTypes())
+				.build();
+	}
+
+	@Nonnull
+	protected <T> Map<UUID, List<T>> groupByPatientOrderId(@Nonnull List<T> values,
+																												 @Nonnull Function<T, UUID> patientOrderIdFunction) {
+		requireNonNull(values);
+		requireNonNull(patientOrderIdFunction);
+
+		Map<UUID, List<T>> valuesByPatientOrderId = new LinkedHashMap<>();
+
+		for (T value : values)
+			valuesByPatientOrderId.computeIfAbsent(patientOrderIdFunction.apply(value), ignored -> new ArrayList<>()).add(value);
+
+		return valuesByPatientOrderId;
+	}
+
 	@Nonnull
 	public Map<UUID, List<PatientOrderScheduledMessageGroupApiResponse>> findPatientOrderScheduledMessageGroupApiResponsesByPatientOrderIds(@Nonnull Set<UUID> patientOrderIds) {
 		requireNonNull(patientOrderIds);
@@ -6226,6 +6512,65 @@ public class PatientOrderService implements AutoCloseable {
 	@Nonnull
 	public PatientOrderImportResult createPatientOrderImport(@Nonnull CreatePatientOrderImportRequest request) {
 		requireNonNull(request);
+		return createPatientOrderImport(request, false);
+	}
+
+	/**
+	 * Imports patient orders from a CSV file, HL7 message, or self-referral.
+	 * <p>
+	 * A large CSV file can require Epic demographics for hundreds of patients.  If {@code performInOwnTransaction} is
+	 * {@code true}, the rows are streamed, validated and their Epic demographics pulled before any transaction is opened,
+	 * and only the writes happen inside one.  That way a slow Epic doesn't hold a writable connection (and the locks the
+	 * import takes) for minutes.  Progress is recorded along the way and can be polled with
+	 * {@link #findPatientOrderImportProgressById(UUID)}.
+	 *
+	 * @param request                 the import to perform
+	 * @param performInOwnTransaction should this be performed in its own transaction?  if so, the caller must not
+	 *                                already be in one
+	 * @return the result of the import
+	 */
+	@Nonnull
+	public PatientOrderImportResult createPatientOrderImport(@Nonnull CreatePatientOrderImportRequest request,
+																													 @Nonnull Boolean performInOwnTransaction) {
+		requireNonNull(request);
+		requireNonNull(performInOwnTransaction);
+
+		UUID patientOrderImportId = request.getPatientOrderImportId() == null ? UUID.randomUUID() : request.getPatientOrderImportId();
+
+		if (!performInOwnTransaction)
+			return performPatientOrderImport(request, patientOrderImportId, null);
+
+		if (getDatabase().currentTransaction().isPresent())
+			throw new IllegalStateException("Cannot perform patient order import in its own transaction, a transaction is already open");
+
+		PatientOrderImportPrefetch patientOrderImportPrefetch = prefetchPatientOrderImport(request, patientOrderImportId).orElse(null);
+		Holder<PatientOrderImportResult> patientOrderImportResultHolder = new Holder<>();
+
+		try {
+			getDatabase().transaction(() -> {
+				getSystemService().applyFootprintForCurrentContextToCurrentTransaction();
+				getSystemService().applyDeadlineForCurrentContextToCurrentTransaction();
+				getSystemService().applyFootprintEventGroupToCurrentTransaction(FootprintEventGroupTypeId.PATIENT_ORDER_IMPORT_CREATE);
+
+				patientOrderImportResultHolder.setValue(performPatientOrderImport(request, patientOrderImportId, patientOrderImportPrefetch));
+			});
+		} catch (RuntimeException e) {
+			// The progress update that marks the import complete rolled back along with everything else
+			if (patientOrderImportPrefetch != null)
+				markPatientOrderImportProgressFailed(patientOrderImportId);
+
+			throw e;
+		}
+
+		return patientOrderImportResultHolder.getValue().get();
+	}
+
+	@Nonnull
+	protected PatientOrderImportResult performPatientOrderImport(@Nonnull CreatePatientOrderImportRequest request,
+																															 @Nonnull UUID patientOrderImportId,
+																															 @Nullable PatientOrderImportPrefetch patientOrderImportPrefetch) {
+		requireNonNull(request);
+		requireNonNull(patientOrderImportId);
 
 		InstitutionId institutionId = request.getInstitutionId();
 		PatientOrderImportTypeId patientOrderImportTypeId = request.getPatientOrderImportTypeId();
@@ -6237,7 +6582,6 @@ public class PatientOrderService implements AutoCloseable {
 		String rawOrder = null;
 		String rawOrderChecksum = null;
 		String rawOrderJsonRepresentation = null;
-		UUID patientOrderImportId = UUID.randomUUID();
 		List<UUID> patientOrderIds = new ArrayList<>();
 		ValidationException validationException = new ValidationException();
 
@@ -6306,6 +6650,19 @@ public class PatientOrderService implements AutoCloseable {
 		if (institution.getEpicPatientUniqueIdType() == null)
 			throw new IllegalStateException(format("No Epic Patient Unique ID Type configured for institution ID %s", institution.getName()));
 
+		if (patientOrderImportTypeId == PatientOrderImportTypeId.CSV) {
+			if (csvContent.startsWith("Test Patient Email Address") && !getConfiguration().getShouldEnableIcDebugging())
+				throw new IllegalStateException("Cannot upload test patient data in this environment.");
+
+			// Callers performing the import in its own transaction have already prefetched outside of it.
+			// Either way this happens before the import row is inserted, since the prefetch skips files that were already imported
+			if (patientOrderImportPrefetch == null)
+				patientOrderImportPrefetch = prefetchPatientOrderImport(request, patientOrderImportId).get();
+			else if (!patientOrderImportPrefetch.getPatientOrderImportId().equals(patientOrderImportId)
+					|| !patientOrderImportPrefetch.getRawOrderChecksum().equals(rawOrderChecksum))
+				throw new IllegalArgumentException("Patient order import prefetch does not match this import");
+		}
+
 		getDatabase().execute("""
 						INSERT INTO patient_order_import (
 						patient_order_import_id,
@@ -6322,246 +6679,40 @@ public class PatientOrderService implements AutoCloseable {
 
 		if (patientOrderImportTypeId == PatientOrderImportTypeId.CSV) {
 			Map<Integer, ValidationException> validationExceptionsByRowNumber = new HashMap<>();
-			int rowNumber = 0;
 
 			// If first column header is "Test Patient Email Address", then this is a test file
 			boolean containsTestPatientData = csvContent.startsWith("Test Patient Email Address");
+			int rowCount = patientOrderImportPrefetch.getRowCount();
 
-			if (containsTestPatientData && !getConfiguration().getShouldEnableIcDebugging())
-				throw new IllegalStateException("Cannot upload test patient data in this environment.");
+			getLogger().info("Importing {} patient order[s] from CSV...", rowCount);
 
-			getLogger().info("Importing patient orders from CSV...");
-			int i = 0;
+			// Resolve everything the rows have in common up front (departments, referral reasons, existing accounts,
+			// open orders) so each row is a handful of inserts instead of a series of lookups
+			PatientOrderImportContext patientOrderImportContext = createPatientOrderImportContext(institution, patientOrderImportPrefetch);
 
-			// Pull data from the CSV
+			// Stream the rows again rather than holding on to every parsed request between the prefetch and the import
 			try (Reader reader = new StringReader(csvContent)) {
-				for (CSVRecord record : CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(reader)) {
-					getLogger().info("Importing patient order {}...", ++i);
-
-					CreatePatientOrderRequest patientOrderRequest = new CreatePatientOrderRequest();
-					patientOrderRequest.setPatientOrderImportId(patientOrderImportId);
-					patientOrderRequest.setInstitutionId(institutionId);
-					patientOrderRequest.setAccountId(accountId);
-
-					int columnOffset = 0;
-
-					if (containsTestPatientData) {
-						patientOrderRequest.setTestPatientEmailAddress(trimToNull(record.get("Test Patient Email Address")));
-						patientOrderRequest.setTestPatientPassword(trimToNull(record.get("Test Patient Password")));
-						patientOrderRequest.setTestPatientOrder(true);
-						columnOffset = 2;
-					}
-
-					String encounterDepartmentName = null;
-
-					// Support alternate names for this field
-					if (record.isMapped("Encounter Dept"))
-						encounterDepartmentName = trimToNull(record.get("Encounter Dept"));
-					else if (record.isMapped("Encounter Dept Name"))
-						encounterDepartmentName = trimToNull(record.get("Encounter Dept Name"));
-
-					patientOrderRequest.setEncounterDepartmentName(encounterDepartmentName);
-					patientOrderRequest.setEncounterDepartmentId(trimToNull(record.get("Encounter Dept ID")));
-
-					// Referring Practice has 2 fields with the same name (currently...)
-					// So we try the first one, and if it's null, we try the second
-					String rawReferringPracticeName = trimToNull(record.get(columnOffset + 2));
-
-					if (rawReferringPracticeName == null)
-						rawReferringPracticeName = trimToNull(record.get(columnOffset + 3));
-
-					if (rawReferringPracticeName != null) {
-						NameWithEmbeddedId referringPractice = new NameWithEmbeddedId(rawReferringPracticeName);
-						String referringPracticeId = referringPractice.getId().orElse(null);
-
-						if (referringPracticeId != null)
-							patientOrderRequest.setReferringPracticeId(referringPracticeId);
-
-						patientOrderRequest.setReferringPracticeName(referringPractice.getName());
-					}
-
-					CsvName orderingProviderName = new CsvName(trimToNull(record.get("Ordering Provider")));
-					patientOrderRequest.setOrderingProviderLastName(orderingProviderName.getLastName().orElse(null));
-					patientOrderRequest.setOrderingProviderFirstName(orderingProviderName.getFirstName().orElse(null));
-					patientOrderRequest.setOrderingProviderMiddleName(orderingProviderName.getMiddleName().orElse(null));
-
-					// Normalizes some names and also extracts IDs.
-					//
-					// Examples:
-					// billingProviderName="ROBINSON, LAURA E [R11853]" -> "ROBINSON, LAURA E" (name), "R11853" (id)
-					String rawBillingProviderName = trimToNull(record.get("Billing Provider"));
-
-					if (rawBillingProviderName != null) {
-						NameWithEmbeddedId billingProviderName = new NameWithEmbeddedId(rawBillingProviderName);
-						String billingProviderId = billingProviderName.getId().orElse(null);
-
-						if (billingProviderId != null)
-							patientOrderRequest.setBillingProviderId(billingProviderId);
-
-						CsvName csvBillingProviderName = new CsvName(billingProviderName.getName());
-						patientOrderRequest.setBillingProviderLastName(csvBillingProviderName.getLastName().orElse(null));
-						patientOrderRequest.setBillingProviderFirstName(csvBillingProviderName.getFirstName().orElse(null));
-						patientOrderRequest.setBillingProviderMiddleName(csvBillingProviderName.getMiddleName().orElse(null));
-					}
-
-					patientOrderRequest.setPatientLastName(trimToNull(record.get("Last Name")));
-					patientOrderRequest.setPatientFirstName(trimToNull(record.get("First Name")));
-					patientOrderRequest.setPatientMrn(trimToNull(record.get("MRN")));
-					patientOrderRequest.setPatientUniqueId(trimToNull(record.get("UID")));
-					patientOrderRequest.setPatientUniqueIdType(institution.getEpicPatientUniqueIdType());
-
-					// Might be "Sex" or "Legal Sex"
-					String patientBirthSexId = null;
-
-					try {
-						patientBirthSexId = trimToNull(record.get("Legal Sex"));
-					} catch (IllegalArgumentException e) {
-						try {
-							patientBirthSexId = trimToNull(record.get("Sex"));
-						} catch (IllegalArgumentException e2) {
-							getLogger().warn("There is no 'Legal Sex' or 'Sex' column in this order report.");
-						}
-					}
-
-					patientOrderRequest.setPatientBirthSexId(patientBirthSexId);
-
-					patientOrderRequest.setPatientBirthdate(trimToNull(record.get("DOB")));
-
-					// e.g. 128000-IBC
-					String primaryPayor = trimToNull(record.get("Primary Payor"));
-					String primaryPayorId = null;
-					String primaryPayorName = null;
-
-					if (primaryPayor != null) {
-						int primaryPayorSeparatorIndex = primaryPayor.indexOf("-");
-
-						if (primaryPayorSeparatorIndex == -1) {
-							primaryPayorName = primaryPayor;
-						} else {
-							primaryPayorId = primaryPayor.substring(0, primaryPayorSeparatorIndex);
-							primaryPayorName = primaryPayor.length() > primaryPayorId.length() + 1
-									? primaryPayor.substring(primaryPayorSeparatorIndex + 1)
-									: null;
-						}
-					}
-
-					patientOrderRequest.setPrimaryPayorId(primaryPayorId);
-					patientOrderRequest.setPrimaryPayorName(primaryPayorName);
-
-					// e.g. 128002-KEYSTONE HEALTH PLAN EAST
-					String primaryPlan = trimToNull(record.get("Primary Plan"));
-					String primaryPlanId = null;
-					String primaryPlanName = null;
-
-					if (primaryPlan != null) {
-						int primaryPlanSeparatorIndex = primaryPlan.indexOf("-");
+				int rowNumber = 0;
 
-						if (primaryPlanSeparatorIndex == -1) {
-							primaryPlanName = primaryPayor;
-						} else {
-							primaryPlanId = primaryPlan.substring(0, primaryPlanSeparatorIndex);
-							primaryPlanName = primaryPlan.length() > primaryPlanId.length() + 1
-									? primaryPlan.substring(primaryPlanSeparatorIndex + 1)
-									: null;
-						}
-					}
-
-					patientOrderRequest.setPrimaryPlanId(primaryPlanId);
-					patientOrderRequest.setPrimaryPlanName(primaryPlanName);
-					patientOrderRequest.setOrderDate(trimToNull(record.get("Order Date")));
-					patientOrderRequest.setOrderId(trimToNull(record.get("Order ID")));
-					patientOrderRequest.setOrderAge(trimToNull(record.get("Age of Order")));
-					patientOrderRequest.setRouting(trimToNull(record.get("CCBH Order Routing")));
-
-					// Comma-separated list
-					String reasonsForReferralAsString = trimToNull(record.get("Reasons for Referral"));
-					List<String> reasonsForReferral = new ArrayList<>();
-					Set<String> uniqueReasonsForReferral = new HashSet<>();
-
-					if (reasonsForReferralAsString != null) {
-						for (String reasonForReferral : reasonsForReferralAsString.split(",")) {
-							reasonForReferral = trimToNull(reasonForReferral);
-
-							if (reasonForReferral != null) {
-								// Prevent duplicates for this order
-								if (uniqueReasonsForReferral.contains(reasonsForReferral))
-									continue;
-
-								uniqueReasonsForReferral.add(reasonForReferral);
-								reasonsForReferral.add(reasonForReferral);
-							}
-						}
-					}
-
-					patientOrderRequest.setReasonsForReferral(reasonsForReferral);
-
-					// Might be encoded as names + bracketed IDs in CSV like this (a single field with newlines)
-					// "GAD (generalized anxiety disorder) [213881]
-					// Smoker [283397]
-					// Alcohol abuse [155739]"
-					String diagnosesAsString = trimToNull(record.get("DX"));
-					List<CreatePatientOrderDiagnosisRequest> diagnoses = parseNamesWithEmbeddedIds(diagnosesAsString).stream()
-							.map(nameWithEmbeddedId -> {
-								CreatePatientOrderDiagnosisRequest diagnosisRequest = new CreatePatientOrderDiagnosisRequest();
-								diagnosisRequest.setDiagnosisId(nameWithEmbeddedId.getId().orElse(null));
-								diagnosisRequest.setDiagnosisName(nameWithEmbeddedId.getName());
-								return diagnosisRequest;
-							})
-							.collect(Collectors.toList());
-
-					patientOrderRequest.setDiagnoses(diagnoses);
-
-					patientOrderRequest.setAssociatedDiagnosis(trimToNull(record.get("Order Associated Diagnosis (ICD-10)")));
-					patientOrderRequest.setPatientPhoneNumber(trimToNull(record.get("Call Back Number")));
-					patientOrderRequest.setPreferredContactHours(trimToNull(record.get("Preferred Contact Hours")));
-					patientOrderRequest.setComments(trimToNull(record.get("Order Comments")));
-					patientOrderRequest.setCcRecipients(trimToNull(record.get("IMG CC Recipients")));
-					patientOrderRequest.setPatientAddressLine1(trimToNull(record.get("Patient Address (Line 1)")));
-					patientOrderRequest.setPatientAddressLine2(trimToNull(record.get("Patient Address (Line 2)")));
-					patientOrderRequest.setPatientLocality(trimToNull(record.get("City")));
-					patientOrderRequest.setPatientRegion(trimToNull(record.get("Patient State")));
-					patientOrderRequest.setPatientPostalCode(trimToNull(record.get("ZIP Code")));
-
-					// e.g. "Take 1 tablet by mouth daily.<br>E-Prescribe, Disp-60 tablet, R-1"
-					String lastActiveMedicationOrderSummary = trimToNull(record.get("CCBH Last Active Med Order Summary"));
-
-					if (lastActiveMedicationOrderSummary != null)
-						// Replacing just <br> for now - any others?
-						lastActiveMedicationOrderSummary = lastActiveMedicationOrderSummary.replace("<br>", "\n");
-
-					patientOrderRequest.setLastActiveMedicationOrderSummary(lastActiveMedicationOrderSummary);
-
-					// e.g. "escitalopram 10 mg tablet [517587114]"
-					// Might have multiple lines...
-					String medicationsAsString = trimToNull(record.get("CCBH Medications List"));
-
-					List<CreatePatientOrderMedicationRequest> medications = parseNamesWithEmbeddedIds(medicationsAsString).stream()
-							.map(nameWithEmbeddedId -> {
-								CreatePatientOrderMedicationRequest medicationRequest = new CreatePatientOrderMedicationRequest();
-								medicationRequest.setMedicationId(nameWithEmbeddedId.getId().orElse(null));
-
-								String medicationName = nameWithEmbeddedId.getName();
-
-								// e.g. "escitalopram 10 mg tablet" -> "Escitalopram 10 mg tablet"
-								if (medicationName != null)
-									medicationName = StringUtils.capitalize(medicationName);
-
-								medicationRequest.setMedicationName(medicationName);
-								return medicationRequest;
-							})
-							.collect(Collectors.toList());
-
-					patientOrderRequest.setMedications(medications);
-					patientOrderRequest.setRecentPsychotherapeuticMedications(trimToNull(record.get("Psychotherapeutic Med Lst 2 Weeks")));
+				for (CSVRecord record : CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(reader)) {
+					CreatePatientOrderRequest patientOrderRequest = createPatientOrderRequestForCsvRecord(record, institution,
+							patientOrderImportId, accountId, containsTestPatientData);
 
 					try {
-						UUID patientOrderId = createPatientOrder(patientOrderRequest);
+						UUID patientOrderId = createPatientOrder(patientOrderRequest, patientOrderImportContext);
 						patientOrderIds.add(patientOrderId);
 					} catch (ValidationException e) {
 						validationExceptionsByRowNumber.put(rowNumber, e);
 					}
 
 					++rowNumber;
+
+					if (rowNumber % PATIENT_ORDER_IMPORT_PROGRESS_LOGGING_INTERVAL == 0 || rowNumber == rowCount) {
+						getLogger().info("Imported {} of {} patient order[s]...", rowNumber, rowCount);
+
+						// statement_timeout is fixed when set, so shrink it as the request deadline approaches
+						getSystemService().applyDeadlineForCurrentContextToCurrentTransaction();
+					}
 				}
 			} catch (IOException e) {
 				// In practice, we should never hit IOException because the Reader is operating over an in-memory String
@@ -6571,30 +6722,15 @@ public class PatientOrderService implements AutoCloseable {
 				throw new ValidationException(getStrings().get("Unable to read the CSV patient order import file. Please double-check that the format is correct."));
 			}
 
-			// If any row-level validation exceptions, group all the errors per row into a single line.
-			// Then throw back the list of lines to the client.
-			// example: "Row 1: Patient ID is required. Callback Phone Number is invalid.", "Row 3: Patient Last Name is required."
-			if (validationExceptionsByRowNumber.size() > 0) {
-				List<String> globalErrors = new ArrayList<>();
-				List<Integer> rowNumbers = validationExceptionsByRowNumber.keySet().stream().sorted().toList();
-
-				for (Integer currentRowNumber : rowNumbers) {
-					ValidationException currentValidationException = validationExceptionsByRowNumber.get(currentRowNumber);
-					List<String> rowErrors = new ArrayList<>(currentValidationException.getGlobalErrors());
-					rowErrors.addAll(currentValidationException.getFieldErrors().stream()
-							.map(fieldError -> fieldError.getError())
-							.collect(Collectors.toSet()));
-
-					String rowErrorsAsString = rowErrors.stream().collect(Collectors.joining(" "));
-
-					globalErrors.add(getStrings().get("Row {{rowNumber}}: {{rowErrors}}", new HashMap<>() {{
-						put("rowNumber", currentRowNumber + 1);
-						put("rowErrors", rowErrorsAsString);
-					}}));
-				}
+			if (validationExceptionsByRowNumber.size() > 0)
+				throw createPatientOrderImportRowsValidationException(validationExceptionsByRowNumber);
 
-				throw new ValidationException(globalErrors, List.of());
-			}
+			// Committed along with the import itself
+			getDatabase().execute("""
+					UPDATE patient_order_import_progress
+					SET patient_order_import_progress_status_id=?, imported_row_count=?, completed_at=NOW()
+					WHERE patient_order_import_id=?
+					""", PatientOrderImportProgressStatusId.COMPLETE, patientOrderIds.size(), patientOrderImportId);
 		} else if (patientOrderImportTypeId == PatientOrderImportTypeId.HL7_MESSAGE) {
 			getLogger().info("Importing patient order from HL7 message...");
 
@@ -6952,12 +7088,18 @@ public class PatientOrderService implements AutoCloseable {
 			patientOrderIds.add(patientOrderId);
 		}
 
+		// Imports can contain many orders for the same handful of departments and studies, so only look up auto-assignments once apiece
+		Map<UUID, List<Account>> epicDepartmentOrderAutoAssignedAccountsByEpicDepartmentId = new HashMap<>();
+		Map<UUID, List<Account>> studyOrderAutoAssignedAccountsByStudyId = new HashMap<>();
+
 		// See if we need to auto-assign this order to an account
 		for (UUID patientOrderId : patientOrderIds) {
 			RawPatientOrder patientOrder = findRawPatientOrderById(patientOrderId).get();
 
 			// Some departments have specific panel accounts to assign to, check for that here
-			List<Account> autoAssignedAccounts = findEpicDepartmentOrderAutoAssignedAccounts(patientOrder.getEpicDepartmentId());
+			List<Account> autoAssignedAccounts = patientOrder.getEpicDepartmentId() == null ? List.of() :
+					epicDepartmentOrderAutoAssignedAccountsByEpicDepartmentId.computeIfAbsent(patientOrder.getEpicDepartmentId(),
+							(epicDepartmentId) -> findEpicDepartmentOrderAutoAssignedAccounts(epicDepartmentId));
 
 			// If there are accounts available to assign, arbitrarily pick the first one.
 			// Later, we might add additional heuristics
@@ -7025,7 +7167,8 @@ public class PatientOrderService implements AutoCloseable {
 							""", importedPatientOrder.getPatientOrderId(), studyId, ++i);
 
 					// Some studies have specific panel accounts to assign to, check for that here
-					List<Account> autoAssignedAccounts = findStudyOrderAutoAssignedAccounts(studyId);
+					List<Account> autoAssignedAccounts = studyOrderAutoAssignedAccountsByStudyId.computeIfAbsent(studyId,
+							(ignored) -> findStudyOrderAutoAssignedAccounts(studyId));
 
 					// If there are accounts available to assign, arbitrarily pick the first one.
 					// Later, we might add additional heuristics
@@ -7041,57 +7184,998 @@ public class PatientOrderService implements AutoCloseable {
 		return new PatientOrderImportResult(patientOrderImportId, patientOrderIds);
 	}
 
-	@Nullable
-	protected Optional<PatientOrderImport> findPatientOrderImportByRawOrderChecksum(@Nullable String rawOrderChecksum,
-																																									@Nullable InstitutionId institutionId,
-																																									@Nullable PatientOrderImportTypeId patientOrderImportTypeId) {
-		rawOrderChecksum = trimToNull(rawOrderChecksum);
-
-		if (rawOrderChecksum == null | institutionId == null || patientOrderImportTypeId == null)
-			return Optional.empty();
-
-		return getDatabase().queryForObject("""
-				SELECT *
-				FROM patient_order_import
-				WHERE raw_order_checksum=?
-				AND institution_id=?
-				AND patient_order_import_type_id=?
-				""", PatientOrderImport.class, rawOrderChecksum, institutionId, patientOrderImportTypeId);
-	}
-
-	public enum CreatePatientOrderSelfReferralMode {
-		REAL_ORDER,
-		TEST_ORDER
+	@Nonnull
+	protected Map<String, PatientOrderReferralReasonId> findPatientOrderReferralReasonIdsByDescription() {
+		return getDatabase().queryForList("""
+						SELECT *
+						FROM patient_order_referral_reason
+						""", PatientOrderReferralReason.class).stream()
+				.collect(Collectors.toMap(patientOrderReferralReason -> patientOrderReferralReason.getDescription().toLowerCase(Locale.US),
+						patientOrderReferralReason -> patientOrderReferralReason.getPatientOrderReferralReasonId()));
 	}
 
-	// Shorthand to more easily create a self-referred order
 	@Nonnull
-	public UUID createPatientOrderForSelfReferral(@Nonnull UUID accountId,
-																								@Nonnull CreatePatientOrderSelfReferralMode mode) {
+	protected CreatePatientOrderRequest createPatientOrderRequestForCsvRecord(@Nonnull CSVRecord record,
+																																						@Nonnull Institution institution,
+																																						@Nonnull UUID patientOrderImportId,
+																																						@Nonnull UUID accountId,
+																																						@Nonnull Boolean containsTestPatientData) {
+		requireNonNull(record);
+		requireNonNull(institution);
+		requireNonNull(patientOrderImportId);
 		requireNonNull(accountId);
-		requireNonNull(mode);
+		requireNonNull(containsTestPatientData);
 
-		Account account = getAccountService().findAccountById(accountId).orElse(null);
+		InstitutionId institutionId = institution.getInstitutionId();
+		CreatePatientOrderRequest patientOrderRequest = new CreatePatientOrderRequest();
+		patientOrderRequest.setPatientOrderImportId(patientOrderImportId);
+		patientOrderRequest.setInstitutionId(institutionId);
+		patientOrderRequest.setAccountId(accountId);
 
-		if (account == null)
-			throw new IllegalArgumentException("Unable to find account to create self-referred order");
+		int columnOffset = 0;
 
-		Institution institution = getInstitutionService().findInstitutionById(account.getInstitutionId()).get();
+		if (containsTestPatientData) {
+			patientOrderRequest.setTestPatientEmailAddress(trimToNull(record.get("Test Patient Email Address")));
+			patientOrderRequest.setTestPatientPassword(trimToNull(record.get("Test Patient Password")));
+			patientOrderRequest.setTestPatientOrder(true);
+			columnOffset = 2;
+		}
 
-		boolean institutionSupportsSelfReferral = getInstitutionService().findPatientOrderReferralSourcesByInstitutionId(institution.getInstitutionId()).stream()
-				.filter(patientOrderReferralSource -> patientOrderReferralSource.getPatientOrderReferralSourceId() == PatientOrderReferralSourceId.SELF)
-				.collect(Collectors.toUnmodifiableList())
-				.size() > 0;
+		String encounterDepartmentName = null;
 
-		if (!institutionSupportsSelfReferral)
-			throw new IllegalStateException(format("Institution '%s' does not support self-referral orders", institution.getInstitutionId().name()));
+		// Support alternate names for this field
+		if (record.isMapped("Encounter Dept"))
+			encounterDepartmentName = trimToNull(record.get("Encounter Dept"));
+		else if (record.isMapped("Encounter Dept Name"))
+			encounterDepartmentName = trimToNull(record.get("Encounter Dept Name"));
 
-		// Arbitrarily pick the first Epic department for this institution
-		// TODO: revisit this if we have more than 1 self-referral department
-		EpicDepartment epicDepartment = findEpicDepartmentsByInstitutionId(institution.getInstitutionId()).stream().findFirst().get();
+		patientOrderRequest.setEncounterDepartmentName(encounterDepartmentName);
+		patientOrderRequest.setEncounterDepartmentId(trimToNull(record.get("Encounter Dept ID")));
 
-		PatientOrderImportResult patientOrderImportResult = createPatientOrderImport(new CreatePatientOrderImportRequest() {{
-			setInstitutionId(account.getInstitutionId());
+		// Referring Practice has 2 fields with the same name (currently...)
+		// So we try the first one, and if it's null, we try the second
+		String rawReferringPracticeName = trimToNull(record.get(columnOffset + 2));
+
+		if (rawReferringPracticeName == null)
+			rawReferringPracticeName = trimToNull(record.get(columnOffset + 3));
+
+		if (rawReferringPracticeName != null) {
+			NameWithEmbeddedId referringPractice = new NameWithEmbeddedId(rawReferringPracticeName);
+			String referringPracticeId = referringPractice.getId().orElse(null);
+
+			if (referringPracticeId != null)
+				patientOrderRequest.setReferringPracticeId(referringPracticeId);
+
+			patientOrderRequest.setReferringPracticeName(referringPractice.getName());
+		}
+
+		CsvName orderingProviderName = new CsvName(trimToNull(record.get("Ordering Provider")));
+		patientOrderRequest.setOrderingProviderLastName(orderingProviderName.getLastName().orElse(null));
+		patientOrderRequest.setOrderingProviderFirstName(orderingProviderName.getFirstName().orElse(null));
+		patientOrderRequest.setOrderingProviderMiddleName(orderingProviderName.getMiddleName().orElse(null));
+
+		// Normalizes some names and also extracts IDs.
+		//
+		// Examples:
+		// billingProviderName="ROBINSON, LAURA E [R11853]" -> "ROBINSON, LAURA E" (name), "R11853" (id)
+		String rawBillingProviderName = trimToNull(record.get("Billing Provider"));
+
+		if (rawBillingProviderName != null) {
+			NameWithEmbeddedId billingProviderName = new NameWithEmbeddedId(rawBillingProviderName);
+			String billingProviderId = billingProviderName.getId().orElse(null);
+
+			if (billingProviderId != null)
+				patientOrderRequest.setBillingProviderId(billingProviderId);
+
+			CsvName csvBillingProviderName = new CsvName(billingProviderName.getName());
+			patientOrderRequest.setBillingProviderLastName(csvBillingProviderName.getLastName().orElse(null));
+			patientOrderRequest.setBillingProviderFirstName(csvBillingProviderName.getFirstName().orElse(null));
+			patientOrderRequest.setBillingProviderMiddleName(csvBillingProviderName.getMiddleName().orElse(null));
+		}
+
+		patientOrderRequest.setPatientLastName(trimToNull(record.get("Last Name")));
+		patientOrderRequest.setPatientFirstName(trimToNull(record.get("First Name")));
+		patientOrderRequest.setPatientMrn(trimToNull(record.get("MRN")));
+		patientOrderRequest.setPatientUniqueId(trimToNull(record.get("UID")));
+		patientOrderRequest.setPatientUniqueIdType(institution.getEpicPatientUniqueIdType());
+
+		// Might be "Sex" or "Legal Sex"
+		String patientBirthSexId = null;
+
+		try {
+			patientBirthSexId = trimToNull(record.get("Legal Sex"));
+		} catch (IllegalArgumentException e) {
+			try {
+				patientBirthSexId = trimToNull(record.get("Sex"));
+			} catch (IllegalArgumentException e2) {
+				getLogger().warn("There is no 'Legal Sex' or 'Sex' column in this order report.");
+			}
+		}
+
+		patientOrderRequest.setPatientBirthSexId(patientBirthSexId);
+
+		patientOrderRequest.setPatientBirthdate(trimToNull(record.get("DOB")));
+
+		// e.g. 128000-IBC
+		String primaryPayor = trimToNull(record.get("Primary Payor"));
+		String primaryPayorId = null;
+		String primaryPayorName = null;
+
+		if (primaryPayor != null) {
+			int primaryPayorSeparatorIndex = primaryPayor.indexOf("-");
+
+			if (primaryPayorSeparatorIndex == -1) {
+				primaryPayorName = primaryPayor;
+			} else {
+				primaryPayorId = primaryPayor.substring(0, primaryPayorSeparatorIndex);
+				primaryPayorName = primaryPayor.length() > primaryPayorId.length() + 1
+						? primaryPayor.substring(primaryPayorSeparatorIndex + 1)
+						: null;
+			}
+		}
+
+		patientOrderRequest.setPrimaryPayorId(primaryPayorId);
+		patientOrderRequest.setPrimaryPayorName(primaryPayorName);
+
+		// e.g. 128002-KEYSTONE HEALTH PLAN EAST
+		String primaryPlan = trimToNull(record.get("Primary Plan"));
+		String primaryPlanId = null;
+		String primaryPlanName = null;
+
+		if (primaryPlan != null) {
+			int primaryPlanSeparatorIndex = primaryPlan.indexOf("-");
+
+			if (primaryPlanSeparatorIndex == -1) {
+				primaryPlanName = primaryPayor;
+			} else {
+				primaryPlanId = primaryPlan.substring(0, primaryPlanSeparatorIndex);
+				primaryPlanName = primaryPlan.length() > primaryPlanId.length() + 1
+						? primaryPlan.substring(primaryPlanSeparatorIndex + 1)
+						: null;
+			}
+		}
+
+		patientOrderRequest.setPrimaryPlanId(primaryPlanId);
+		patientOrderRequest.setPrimaryPlanName(primaryPlanName);
+		patientOrderRequest.setOrderDate(trimToNull(record.get("Order Date")));
+		patientOrderRequest.setOrderId(trimToNull(record.get("Order ID")));
+		patientOrderRequest.setOrderAge(trimToNull(record.get("Age of Order")));
+		patientOrderRequest.setRouting(trimToNull(record.get("CCBH Order Routing")));
+
+		// Comma-separated list
+		String reasonsForReferralAsString = trimToNull(record.get("Reasons for Referral"));
+		List<String> reasonsForReferral = new ArrayList<>();
+		Set<String> uniqueReasonsForReferral = new HashSet<>();
+
+		if (reasonsForReferralAsString != null) {
+			for (String reasonForReferral : reasonsForReferralAsString.split(",")) {
+				reasonForReferral = trimToNull(reasonForReferral);
+
+				if (reasonForReferral != null) {
+					// Prevent duplicates for this order
+					if (uniqueReasonsForReferral.contains(reasonsForReferral))
+						continue;
+
+					uniqueReasonsForReferral.add(reasonForReferral);
+					reasonsForReferral.add(reasonForReferral);
+				}
+			}
+		}
+
+		patientOrderRequest.setReasonsForReferral(reasonsForReferral);
+
+		// Might be encoded as names + bracketed IDs in CSV like this (a single field with newlines)
+		// "GAD (generalized anxiety disorder) [213881]
+		// Smoker [283397]
+		// Alcohol abuse [155739]"
+		String diagnosesAsString = trimToNull(record.get("DX"));
+		List<CreatePatientOrderDiagnosisRequest> diagnoses = parseNamesWithEmbeddedIds(diagnosesAsString).stream()
+				.map(nameWithEmbeddedId -> {
+					CreatePatientOrderDiagnosisRequest diagnosisRequest = new CreatePatientOrderDiagnosisRequest();
+					diagnosisRequest.setDiagnosisId(nameWithEmbeddedId.getId().orElse(null));
+					diagnosisRequest.setDiagnosisName(nameWithEmbeddedId.getName());
+					return diagnosisRequest;
+				})
+				.collect(Collectors.toList());
+
+		patientOrderRequest.setDiagnoses(diagnoses);
+
+		patientOrderRequest.setAssociatedDiagnosis(trimToNull(record.get("Order Associated Diagnosis (ICD-10)")));
+		patientOrderRequest.setPatientPhoneNumber(trimToNull(record.get("Call Back Number")));
+		patientOrderRequest.setPreferredContactHours(trimToNull(record.get("Preferred Contact Hours")));
+		patientOrderRequest.setComments(trimToNull(record.get("Order Comments")));
+		patientOrderRequest.setCcRecipients(trimToNull(record.get("IMG CC Recipients")));
+		patientOrderRequest.setPatientAddressLine1(trimToNull(record.get("Patient Address (Line 1)")));
+		patientOrderRequest.setPatientAddressLine2(trimToNull(record.get("Patient Address (Line 2)")));
+		patientOrderRequest.setPatientLocality(trimToNull(record.get("City")));
+		patientOrderRequest.setPatientRegion(trimToNull(record.get("Patient State")));
+		patientOrderRequest.setPatientPostalCode(trimToNull(record.get("ZIP Code")));
+
+		// e.g. "Take 1 tablet by mouth daily.<br>E-Prescribe, Disp-60 tablet, R-1"
+		String lastActiveMedicationOrderSummary = trimToNull(record.get("CCBH Last Active Med Order Summary"));
+
+		if (lastActiveMedicationOrderSummary != null)
+			// Replacing just <br> for now - any others?
+			lastActiveMedicationOrderSummary = lastActiveMedicationOrderSummary.replace("<br>", "\n");
+
+		patientOrderRequest.setLastActiveMedicationOrderSummary(lastActiveMedicationOrderSummary);
+
+		// e.g. "escitalopram 10 mg tablet [517587114]"
+		// Might have multiple lines...
+		String medicationsAsString = trimToNull(record.get("CCBH Medications List"));
+
+		List<CreatePatientOrderMedicationRequest> medications = parseNamesWithEmbeddedIds(medicationsAsString).stream()
+				.map(nameWithEmbeddedId -> {
+					CreatePatientOrderMedicationRequest medicationRequest = new CreatePatientOrderMedicationRequest();
+					medicationRequest.setMedicationId(nameWithEmbeddedId.getId().orElse(null));
+
+					String medicationName = nameWithEmbeddedId.getName();
+
+					// e.g. "escitalopram 10 mg tablet" -> "Escitalopram 10 mg tablet"
+					if (medicationName != null)
+						medicationName = StringUtils.capitalize(medicationName);
+
+					medicationRequest.setMedicationName(medicationName);
+					return medicationRequest;
+				})
+				.collect(Collectors.toList());
+
+		patientOrderRequest.setMedications(medications);
+		patientOrderRequest.setRecentPsychotherapeuticMedications(trimToNull(record.get("Psychotherapeutic Med Lst 2 Weeks")));
+
+		return patientOrderRequest;
+	}
+
+	@Nonnull
+	public Optional<PatientOrderImportProgress> findPatientOrderImportProgressById(@Nullable UUID patientOrderImportId) {
+		if (patientOrderImportId == null)
+			return Optional.empty();
+
+		return getDatabase().queryForObject("""
+				SELECT *
+				FROM patient_order_import_progress
+				WHERE patient_order_import_id=?
+				""", PatientOrderImportProgress.class, patientOrderImportId);
+	}
+
+	protected void markPatientOrderImportProgressFailed(@Nonnull UUID patientOrderImportId) {
+		requireNonNull(patientOrderImportId);
+
+		getDatabase().execute("""
+				UPDATE patient_order_import_progress
+				SET patient_order_import_progress_status_id=?, completed_at=NOW()
+				WHERE patient_order_import_id=?
+				AND patient_order_import_progress_status_id NOT IN (?,?)
+				""", PatientOrderImportProgressStatusId.FAILED, patientOrderImportId,
+				PatientOrderImportProgressStatusId.COMPLETE, PatientOrderImportProgressStatusId.FAILED);
+	}
+
+	/**
+	 * Streams and validates the rows of a CSV import, then pulls Epic demographics for the rows that will need them.
+	 * Nothing is written but progress, so this can run before the import's transaction is opened.
+	 * <p>
+	 * Returns empty if the request isn't a CSV import that can go ahead - {@link #performPatientOrderImport} reports why.
+	 */
+	@Nonnull
+	protected Optional<PatientOrderImportPrefetch> prefetchPatientOrderImport(@Nonnull CreatePatientOrderImportRequest request,
+																																						@Nonnull UUID patientOrderImportId) {
+		requireNonNull(request);
+		requireNonNull(patientOrderImportId);
+
+		InstitutionId institutionId = request.getInstitutionId();
+		UUID accountId = request.getAccountId();
+		String csvContent = trimToNull(request.getCsvContent());
+
+		if (request.getPatientOrderImportTypeId() != PatientOrderImportTypeId.CSV || institutionId == null || accountId == null || csvContent == null)
+			return Optional.empty();
+
+		String rawOrderChecksum = Hashing.sha256()
+				.hashString(csvContent, StandardCharsets.UTF_8)
+				.toString();
+
+		if (findPatientOrderImportByRawOrderChecksum(rawOrderChecksum, institutionId, PatientOrderImportTypeId.CSV).isPresent())
+			return Optional.empty();
+
+		Institution institution = getInstitutionService().findInstitutionById(institutionId).orElse(null);
+
+		if (institution == null || institution.getEpicPatientUniqueIdType() == null)
+			return Optional.empty();
+
+		if (findPatientOrderImportProgressById(patientOrderImportId).isPresent())
+			throw new ValidationException(new FieldError("patientOrderImportId", getStrings().get("This patient order import ID has already been used.")));
+
+		getDatabase().execute("""
+				INSERT INTO patient_order_import_progress (
+				patient_order_import_id,
+				institution_id,
+				account_id
+				) VALUES (?,?,?)
+				""", patientOrderImportId, institutionId, accountId);
+
+		PatientOrderImportPrefetch patientOrderImportPrefetch = new PatientOrderImportPrefetch(patientOrderImportId, rawOrderChecksum);
+
+		ExecutorService executorService = Executors.newFixedThreadPool(PATIENT_ORDER_IMPORT_CONCURRENCY,
+				new ThreadFactoryBuilder().setNameFormat("patient-order-import-%d").build());
+
+		try {
+			boolean containsTestPatientData = csvContent.startsWith("Test Patient Email Address");
+			Map<Integer, ValidationException> validationExceptionsByRowNumber = new HashMap<>();
+			Set<List<String>> epicPatientIdentifiers = new LinkedHashSet<>();
+			List<CreatePatientOrderRequest> patientOrderRequests = new ArrayList<>(PATIENT_ORDER_IMPORT_VALIDATION_CHUNK_SIZE);
+
+			getLogger().info("Validating patient orders from CSV...");
+
+			// Only one chunk of parsed rows is held at a time
+			try (Reader reader = new StringReader(csvContent)) {
+				for (CSVRecord record : CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(reader)) {
+					patientOrderRequests.add(createPatientOrderRequestForCsvRecord(record, institution, patientOrderImportId, accountId, containsTestPatientData));
+
+					if (patientOrderRequests.size() == PATIENT_ORDER_IMPORT_VALIDATION_CHUNK_SIZE) {
+						validatePatientOrderImportRows(patientOrderRequests, patientOrderImportPrefetch, validationExceptionsByRowNumber, epicPatientIdentifiers, executorService);
+						patientOrderRequests.clear();
+					}
+				}
+
+				if (patientOrderRequests.size() > 0)
+					validatePatientOrderImportRows(patientOrderRequests, patientOrderImportPrefetch, validationExceptionsByRowNumber, epicPatientIdentifiers, executorService);
+			} catch (IOException e) {
+				// In practice, we should never hit IOException because the Reader is operating over an in-memory String
+				throw new UncheckedIOException("Unable to read CSV string", e);
+			} catch (IllegalArgumentException e) {
+				getLogger().warn("Unable to read CSV order import file", e);
+				throw new ValidationException(getStrings().get("Unable to read the CSV patient order import file. Please double-check that the format is correct."));
+			}
+
+			// Fail before spending any Epic calls on an import that can't succeed
+			if (validationExceptionsByRowNumber.size() > 0)
+				throw createPatientOrderImportRowsValidationException(validationExceptionsByRowNumber);
+
+			prefetchPatientOrderImportEpicDemographics(institution, epicPatientIdentifiers, patientOrderImportPrefetch, executorService);
+
+			getDatabase().execute("""
+					UPDATE patient_order_import_progress
+					SET patient_order_import_progress_status_id=?
+					WHERE patient_order_import_id=?
+					""", PatientOrderImportProgressStatusId.IMPORTING, patientOrderImportId);
+		} catch (RuntimeException e) {
+			// Inside a caller's transaction this would be rolled back along with everything else anyway
+			if (getDatabase().currentTransaction().isEmpty())
+				markPatientOrderImportProgressFailed(patientOrderImportId);
+
+			throw e;
+		} finally {
+			// Not shutdownNow() - interrupting in-flight Epic calls would record them as failures and fail their rows,
+			// instead of leaving them to finish (or to be retried inline)
+			executorService.shutdown();
+		}
+
+		return Optional.of(patientOrderImportPrefetch);
+	}
+
+	/**
+	 * Validates a chunk of rows concurrently and records the patients they refer to.
+	 * Identifiers for rows that pass and will need Epic demographics are added to {@code epicPatientIdentifiers}
+	 * as {@code [patientUniqueIdType, patientUniqueId, patientMrn]}.
+	 */
+	protected void validatePatientOrderImportRows(@Nonnull List<CreatePatientOrderRequest> patientOrderRequests,
+																								@Nonnull PatientOrderImportPrefetch patientOrderImportPrefetch,
+																								@Nonnull Map<Integer, ValidationException> validationExceptionsByRowNumber,
+																								@Nonnull Set<List<String>> epicPatientIdentifiers,
+																								@Nonnull ExecutorService executorService) {
+		requireNonNull(patientOrderRequests);
+		requireNonNull(patientOrderImportPrefetch);
+		requireNonNull(validationExceptionsByRowNumber);
+		requireNonNull(epicPatientIdentifiers);
+		requireNonNull(executorService);
+
+		// Worker threads run with the caller's context so error messages are localized the same way
+		CurrentContext currentContext = CurrentContextExecutor.getCurrentContextForCurrentThread().orElse(null);
+		ValidationException[] validationExceptions = new ValidationException[patientOrderRequests.size()];
+		int sliceSize = (int) Math.ceil(patientOrderRequests.size() / (double) PATIENT_ORDER_IMPORT_CONCURRENCY);
+		List<CompletableFuture<Void>> completableFutures = new ArrayList<>(PATIENT_ORDER_IMPORT_CONCURRENCY);
+
+		for (int sliceStart = 0; sliceStart < patientOrderRequests.size(); sliceStart += sliceSize) {
+			int currentSliceStart = sliceStart;
+			int currentSliceEnd = Math.min(sliceStart + sliceSize, patientOrderRequests.size());
+
+			Runnable validationOperation = () -> {
+				for (int i = currentSliceStart; i < currentSliceEnd; ++i)
+					validationExceptions[i] = validatePatientOrderImportRow(patientOrderRequests.get(i));
+			};
+
+			completableFutures.add(CompletableFuture.runAsync(() -> {
+				if (currentContext == null)
+					validationOperation.run();
+				else
+					getCurrentContextExecutor().execute(currentContext, () -> validationOperation.run());
+			}, executorService));
+		}
+
+		try {
+			CompletableFuture.allOf(completableFutures.toArray(new CompletableFuture[0])).get();
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Unable to validate patient order import rows", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while validating patient order import rows", e);
+		}
+
+		int firstRowNumber = patientOrderImportPrefetch.getRowCount();
+
+		for (int i = 0; i < patientOrderRequests.size(); ++i) {
+			CreatePatientOrderRequest patientOrderRequest = patientOrderRequests.get(i);
+			ValidationException validationException = validationExceptions[i];
+
+			patientOrderImportPrefetch.addPatientOrderRequest(patientOrderRequest);
+
+			if (validationException.hasErrors()) {
+				validationExceptionsByRowNumber.put(firstRowNumber + i, validationException);
+			} else if ((patientOrderRequest.getTestPatientOrder() == null || !patientOrderRequest.getTestPatientOrder())
+					&& trimToNull(patientOrderRequest.getEncounterDepartmentId()) != null) {
+				epicPatientIdentifiers.add(List.of(trimToNull(patientOrderRequest.getPatientUniqueIdType()),
+						trimToNull(patientOrderRequest.getPatientUniqueId()), trimToNull(patientOrderRequest.getPatientMrn()).toUpperCase(Locale.US)));
+			}
+		}
+
+		getDatabase().execute("""
+				UPDATE patient_order_import_progress
+				SET row_count=?, invalid_row_count=?
+				WHERE patient_order_import_id=?
+				""", patientOrderImportPrefetch.getRowCount(), validationExceptionsByRowNumber.size(), patientOrderImportPrefetch.getPatientOrderImportId());
+	}
+
+	/**
+	 * The database-free subset of the validation in {@link #createPatientOrder(CreatePatientOrderRequest, PatientOrderImportContext)},
+	 * with the same messages, so bad rows are rejected before any Epic calls are made or a transaction is opened.
+	 * Checks that need the database (open orders, departments) still happen at import time.
+	 */
+	@Nonnull
+	protected ValidationException validatePatientOrderImportRow(@Nonnull CreatePatientOrderRequest request) {
+		requireNonNull(request);
+
+		String orderDateAsString = trimToNull(request.getOrderDate());
+		String patientBirthdateAsString = trimToNull(request.getPatientBirthdate());
+		String testPatientEmailAddress = trimToNull(request.getTestPatientEmailAddress());
+		String testPatientPassword = trimToNull(request.getTestPatientPassword());
+		ValidationException validationException = new ValidationException();
+
+		if (trimToNull(request.getPatientMrn()) == null)
+			validationException.add(new FieldError("patientMrn", getStrings().get("Patient MRN is required.")));
+
+		if (trimToNull(request.getPatientUniqueId()) == null)
+			validationException.add(new FieldError("patientUniqueId", getStrings().get("Patient Unique ID is required.")));
+
+		if (trimToNull(request.getPatientUniqueIdType()) == null)
+			validationException.add(new FieldError("patientUniqueIdType", getStrings().get("Patient Unique ID Type is required.")));
+
+		if (trimToNull(request.getOrderId()) == null)
+			validationException.add(new FieldError("orderId", getStrings().get("Order ID is required.")));
+
+		if (orderDateAsString == null) {
+			validationException.add(new FieldError("orderDate", getStrings().get("Order date is required.")));
+		} else if (parsePatientOrderImportDate(orderDateAsString, "M/d/yy") == null && parsePatientOrderImportDate(orderDateAsString, "M/d/yyyy") == null) {
+			validationException.add(new FieldError("orderDate", getStrings().get("Unrecognized order date format: {{orderDate}}",
+					Map.of("orderDate", orderDateAsString))));
+		}
+
+		if (request.getDiagnoses() != null && request.getDiagnoses().stream()
+				.anyMatch(diagnosis -> diagnosis != null && trimToNull(diagnosis.getDiagnosisName()) == null))
+			validationException.add(new FieldError("diagnoses", getStrings().get("Diagnosis name is required.")));
+
+		if (request.getMedications() != null && request.getMedications().stream()
+				.anyMatch(medication -> medication != null && trimToNull(medication.getMedicationName()) == null))
+			validationException.add(new FieldError("medications", getStrings().get("Medication name is required.")));
+
+		if (trimToNull(request.getOrderAge()) == null)
+			validationException.add(new FieldError("orderAge", getStrings().get("Order age is required.")));
+
+		if (patientBirthdateAsString != null && parsePatientOrderImportDate(patientBirthdateAsString, "M/d/yyyy") == null)
+			validationException.add(new FieldError("patientBirthdate", getStrings().get("Unrecognized patient birthdate format: {{patientBirthdate}}",
+					Map.of("patientBirthdate", patientBirthdateAsString))));
+
+		if (testPatientEmailAddress == null && testPatientPassword != null)
+			validationException.add(getStrings().get("If you specify a test patient password, you must also specify a test email address."));
+		else if (testPatientEmailAddress != null && testPatientPassword == null)
+			validationException.add(getStrings().get("If you specify a test patient email address, you must also specify a test password."));
+
+		if (trimToNull(request.getPrimaryPayorName()) == null)
+			validationException.add(new FieldError("primaryPayorName", getStrings().get("Primary payor name is required.")));
+
+		if (trimToNull(request.getPrimaryPlanName()) == null)
+			validationException.add(new FieldError("primaryPlanName", getStrings().get("Primary plan name is required.")));
+
+		return validationException;
+	}
+
+	@Nullable
+	protected LocalDate parsePatientOrderImportDate(@Nonnull String date,
+																									@Nonnull String pattern) {
+		requireNonNull(date);
+		requireNonNull(pattern);
+
+		try {
+			// TODO: revisit when we support non-US institutions
+			return LocalDate.parse(date, DateTimeFormatter.ofPattern(pattern, Locale.US));
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Pulls Epic demographics concurrently for each of the given {@code [patientUniqueIdType, patientUniqueId, patientMrn]}
+	 * identifiers, recording progress as calls complete.  Failures are recorded rather than thrown so each row can
+	 * handle them the same way a single-order import would.
+	 */
+	protected void prefetchPatientOrderImportEpicDemographics(@Nonnull Institution institution,
+																														@Nonnull Set<List<String>> epicPatientIdentifiers,
+																														@Nonnull PatientOrderImportPrefetch patientOrderImportPrefetch,
+																														@Nonnull ExecutorService executorService) {
+		requireNonNull(institution);
+		requireNonNull(epicPatientIdentifiers);
+		requireNonNull(patientOrderImportPrefetch);
+		requireNonNull(executorService);
+
+		if (epicPatientIdentifiers.size() == 0)
+			return;
+
+		InstitutionId institutionId = institution.getInstitutionId();
+		EpicClient epicClient = getEnterprisePluginProvider().enterprisePluginForInstitutionId(institutionId).epicClientForBackendService().orElse(null);
+
+		if (epicClient == null)
+			return;
+
+		// Rows for patients who already have an open order are rejected at import time, so don't spend Epic calls on them
+		Set<String> patientMrns = epicPatientIdentifiers.stream()
+				.map(epicPatientIdentifier -> epicPatientIdentifier.get(2))
+				.collect(Collectors.toSet());
+
+		Set<String> openPatientOrderMrns = new HashSet<>(getDatabase().queryForList("""
+				SELECT DISTINCT UPPER(patient_mrn)
+				FROM patient_order
+				WHERE UPPER(patient_mrn) = ANY (CAST(? AS TEXT[]))
+				AND institution_id=?
+				AND patient_order_disposition_id=?
+				""", String.class, (Object) patientMrns.toArray(new String[0]), institutionId, PatientOrderDispositionId.OPEN));
+
+		Set<List<String>> patientIdentifiers = epicPatientIdentifiers.stream()
+				.filter(epicPatientIdentifier -> !openPatientOrderMrns.contains(epicPatientIdentifier.get(2)))
+				.map(epicPatientIdentifier -> List.of(epicPatientIdentifier.get(0), epicPatientIdentifier.get(1)))
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+
+		if (patientIdentifiers.size() == 0)
+			return;
+
+		getLogger().info("Pulling Epic demographics for {} patient[s]...", patientIdentifiers.size());
+
+		getDatabase().execute("""
+				UPDATE patient_order_import_progress
+				SET patient_order_import_progress_status_id=?, epic_patient_count=?
+				WHERE patient_order_import_id=?
+				""", PatientOrderImportProgressStatusId.PULLING_EPIC_DEMOGRAPHICS, patientIdentifiers.size(), patientOrderImportPrefetch.getPatientOrderImportId());
+
+		AtomicInteger pulledCount = new AtomicInteger(0);
+		List<CompletableFuture<Void>> completableFutures = new ArrayList<>(patientIdentifiers.size());
+
+		for (List<String> patientIdentifier : patientIdentifiers) {
+			String patientUniqueIdType = patientIdentifier.get(0);
+			String patientUniqueId = patientIdentifier.get(1);
+
+			completableFutures.add(CompletableFuture.runAsync(() -> {
+				try {
+					patientOrderImportPrefetch.addPatientSearchResponse(patientUniqueIdType, patientUniqueId,
+							epicClient.patientSearchFhirR4(patientUniqueIdType, patientUniqueId));
+				} catch (Exception e) {
+					patientOrderImportPrefetch.addPatientSearchException(patientUniqueIdType, patientUniqueId, e);
+				} finally {
+					pulledCount.incrementAndGet();
+				}
+			}, executorService));
+		}
+
+		CompletableFuture<Void> allCompletableFutures = CompletableFuture.allOf(completableFutures.toArray(new CompletableFuture[0]));
+		long timeoutAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(PATIENT_ORDER_IMPORT_EPIC_TIMEOUT_IN_SECONDS);
+
+		while (true) {
+			try {
+				allCompletableFutures.get(PATIENT_ORDER_IMPORT_PROGRESS_UPDATE_INTERVAL_IN_SECONDS, TimeUnit.SECONDS);
+				break;
+			} catch (TimeoutException e) {
+				if (System.nanoTime() >= timeoutAt) {
+					// Rows without a prefetched response fall back to calling Epic inline.
+					// Cancelling a CompletableFuture never interrupts, it only keeps not-yet-started calls from running
+					getLogger().warn("Timed out pulling Epic demographics for patient order import, remaining rows will be pulled individually");
+
+					for (CompletableFuture<Void> completableFuture : completableFutures)
+						completableFuture.cancel(false);
+
+					break;
+				}
+
+				updatePatientOrderImportEpicProgress(patientOrderImportPrefetch.getPatientOrderImportId(), pulledCount.get());
+			} catch (ExecutionException e) {
+				throw new RuntimeException("Unable to pull Epic demographics for patient order import", e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Interrupted while pulling Epic demographics for patient order import", e);
+			}
+		}
+
+		updatePatientOrderImportEpicProgress(patientOrderImportPrefetch.getPatientOrderImportId(), pulledCount.get());
+	}
+
+	protected void updatePatientOrderImportEpicProgress(@Nonnull UUID patientOrderImportId,
+																											@Nonnull Integer epicPatientPulledCount) {
+		requireNonNull(patientOrderImportId);
+		requireNonNull(epicPatientPulledCount);
+
+		getDatabase().execute("""
+				UPDATE patient_order_import_progress
+				SET epic_patient_pulled_count=?
+				WHERE patient_order_import_id=?
+				""", epicPatientPulledCount, patientOrderImportId);
+	}
+
+	/**
+	 * Groups all the errors per row into a single line, so the list of lines can be thrown back to the client.
+	 * For example: "Row 1: Patient ID is required. Callback Phone Number is invalid.", "Row 3: Patient Last Name is required."
+	 */
+	@Nonnull
+	protected ValidationException createPatientOrderImportRowsValidationException(@Nonnull Map<Integer, ValidationException> validationExceptionsByRowNumber) {
+		requireNonNull(validationExceptionsByRowNumber);
+
+		List<String> globalErrors = new ArrayList<>();
+		List<Integer> rowNumbers = validationExceptionsByRowNumber.keySet().stream().sorted().toList();
+
+		for (Integer currentRowNumber : rowNumbers) {
+			ValidationException currentValidationException = validationExceptionsByRowNumber.get(currentRowNumber);
+			List<String> rowErrors = new ArrayList<>(currentValidationException.getGlobalErrors());
+			rowErrors.addAll(currentValidationException.getFieldErrors().stream()
+					.map(fieldError -> fieldError.getError())
+					.collect(Collectors.toSet()));
+
+			String rowErrorsAsString = rowErrors.stream().collect(Collectors.joining(" "));
+
+			globalErrors.add(getStrings().get("Row {{rowNumber}}: {{rowErrors}}", new HashMap<>() {{
+				put("rowNumber", currentRowNumber + 1);
+				put("rowErrors", rowErrorsAsString);
+			}}));
+		}
+
+		return new ValidationException(globalErrors, List.of());
+	}
+
+	@Nonnull
+	protected PatientOrderImportContext createPatientOrderImportContext(@Nonnull Institution institution,
+																																			@Nonnull PatientOrderImportPrefetch patientOrderImportPrefetch) {
+		requireNonNull(institution);
+		requireNonNull(patientOrderImportPrefetch);
+
+		InstitutionId institutionId = institution.getInstitutionId();
+
+		PatientOrderImportContext patientOrderImportContext = new PatientOrderImportContext(
+				findEpicDepartmentsByInstitutionId(institutionId), findPatientOrderReferralReasonIdsByDescription());
+
+		Set<String> patientMrns = patientOrderImportPrefetch.getPatientMrns();
+		Set<String> patientUniqueIds = patientOrderImportPrefetch.getPatientUniqueIds();
+
+		if (patientMrns.size() > 0) {
+			List<RawPatientOrder> openRawPatientOrders = getDatabase().queryForList("""
+					SELECT *
+					FROM patient_order
+					WHERE UPPER(patient_mrn) = ANY (CAST(? AS TEXT[]))
+					AND institution_id=?
+					AND patient_order_disposition_id=?
+					ORDER BY order_date DESC, order_age_in_minutes
+					""", RawPatientOrder.class, (Object) patientMrns.toArray(new String[0]), institutionId, PatientOrderDispositionId.OPEN);
+
+			for (RawPatientOrder openRawPatientOrder : openRawPatientOrders)
+				patientOrderImportContext.addOpenRawPatientOrder(openRawPatientOrder);
+		}
+
+		if (patientUniqueIds.size() > 0) {
+			List<Account> patientAccounts = getDatabase().queryForList("""
+					SELECT *
+					FROM v_account
+					WHERE UPPER(epic_patient_unique_id) = ANY (CAST(? AS TEXT[]))
+					AND institution_id=?
+					""", Account.class, (Object) patientUniqueIds.toArray(new String[0]), institutionId);
+
+			for (Account patientAccount : patientAccounts)
+				patientOrderImportContext.addPatientAccount(patientAccount);
+		}
+
+		// Epic demographics were pulled by the prefetch, outside of the import's transaction
+		patientOrderImportPrefetch.getPatientSearchResponsesByPatientIdentifier().forEach((patientIdentifier, patientSearchResponse) ->
+				patientOrderImportContext.addPatientSearchResponse(patientIdentifier.get(0), patientIdentifier.get(1), patientSearchResponse));
+
+		patientOrderImportPrefetch.getPatientSearchExceptionsByPatientIdentifier().forEach((patientIdentifier, patientSearchException) ->
+				patientOrderImportContext.addPatientSearchException(patientIdentifier.get(0), patientIdentifier.get(1), patientSearchException));
+
+		return patientOrderImportContext;
+	}
+
+	/**
+	 * What a CSV import can work out before its transaction is opened: how many rows it has, which patients they refer to,
+	 * and those patients' Epic demographics.
+	 */
+	@ThreadSafe
+	protected static class PatientOrderImportPrefetch {
+		@Nonnull
+		private final UUID patientOrderImportId;
+		@Nonnull
+		private final String rawOrderChecksum;
+		@Nonnull
+		private final AtomicInteger rowCount;
+		@Nonnull
+		private final Set<String> patientMrns;
+		@Nonnull
+		private final Set<String> patientUniqueIds;
+		@Nonnull
+		private final Map<List<String>, PatientSearchResponse> patientSearchResponsesByPatientIdentifier;
+		@Nonnull
+		private final Map<List<String>, Exception> patientSearchExceptionsByPatientIdentifier;
+
+		public PatientOrderImportPrefetch(@Nonnull UUID patientOrderImportId,
+																			@Nonnull String rawOrderChecksum) {
+			requireNonNull(patientOrderImportId);
+			requireNonNull(rawOrderChecksum);
+
+			this.patientOrderImportId = patientOrderImportId;
+			this.rawOrderChecksum = rawOrderChecksum;
+			this.rowCount = new AtomicInteger(0);
+			this.patientMrns = ConcurrentHashMap.newKeySet();
+			this.patientUniqueIds = ConcurrentHashMap.newKeySet();
+			this.patientSearchResponsesByPatientIdentifier = new ConcurrentHashMap<>();
+			this.patientSearchExceptionsByPatientIdentifier = new ConcurrentHashMap<>();
+		}
+
+		public void addPatientOrderRequest(@Nonnull CreatePatientOrderRequest patientOrderRequest) {
+			requireNonNull(patientOrderRequest);
+
+			String patientMrn = trimToNull(patientOrderRequest.getPatientMrn());
+			String patientUniqueId = trimToNull(patientOrderRequest.getPatientUniqueId());
+
+			if (patientMrn != null)
+				this.patientMrns.add(patientMrn.toUpperCase(Locale.US));
+
+			if (patientUniqueId != null)
+				this.patientUniqueIds.add(patientUniqueId.toUpperCase(Locale.US));
+
+			this.rowCount.incrementAndGet();
+		}
+
+		public void addPatientSearchResponse(@Nonnull String epicPatientUniqueIdType,
+																				 @Nonnull String epicPatientUniqueId,
+																				 @Nonnull PatientSearchResponse patientSearchResponse) {
+			requireNonNull(epicPatientUniqueIdType);
+			requireNonNull(epicPatientUniqueId);
+			requireNonNull(patientSearchResponse);
+
+			this.patientSearchResponsesByPatientIdentifier.put(List.of(epicPatientUniqueIdType, epicPatientUniqueId), patientSearchResponse);
+		}
+
+		public void addPatientSearchException(@Nonnull String epicPatientUniqueIdType,
+																					@Nonnull String epicPatientUniqueId,
+																					@Nonnull Exception exception) {
+			requireNonNull(epicPatientUniqueIdType);
+			requireNonNull(epicPatientUniqueId);
+			requireNonNull(exception);
+
+			this.patientSearchExceptionsByPatientIdentifier.put(List.of(epicPatientUniqueIdType, epicPatientUniqueId), exception);
+		}
+
+		@Nonnull
+		public UUID getPatientOrderImportId() {
+			return this.patientOrderImportId;
+		}
+
+		@Nonnull
+		public String getRawOrderChecksum() {
+			return this.rawOrderChecksum;
+		}
+
+		@Nonnull
+		public Integer getRowCount() {
+			return this.rowCount.get();
+		}
+
+		@Nonnull
+		public Set<String> getPatientMrns() {
+			return Collections.unmodifiableSet(this.patientMrns);
+		}
+
+		@Nonnull
+		public Set<String> getPatientUniqueIds() {
+			return Collections.unmodifiableSet(this.patientUniqueIds);
+		}
+
+		@Nonnull
+		public Map<List<String>, PatientSearchResponse> getPatientSearchResponsesByPatientIdentifier() {
+			return Collections.unmodifiableMap(this.patientSearchResponsesByPatientIdentifier);
+		}
+
+		@Nonnull
+		public Map<List<String>, Exception> getPatientSearchExceptionsByPatientIdentifier() {
+			return Collections.unmodifiableMap(this.patientSearchExceptionsByPatientIdentifier);
+		}
+	}
+
+	/**
+	 * Reference data resolved once per bulk import so individual rows don't need to repeat the same lookups.
+	 */
+	@ThreadSafe
+	protected static class PatientOrderImportContext {
+		@Nonnull
+		private final List<EpicDepartment> epicDepartments;
+		@Nonnull
+		private final Map<String, PatientOrderReferralReasonId> patientOrderReferralReasonIdsByDescription;
+		@Nonnull
+		private final Map<String, RawPatientOrder> openRawPatientOrdersByMrn;
+		@Nonnull
+		private final Map<String, UUID> patientAccountIdsByEpicPatientUniqueId;
+		@Nonnull
+		private final Map<String, PatientSearchResponse> patientSearchResponsesByEpicPatientUniqueId;
+		@Nonnull
+		private final Map<String, Exception> patientSearchExceptionsByEpicPatientUniqueId;
+
+		public PatientOrderImportContext(@Nonnull List<EpicDepartment> epicDepartments,
+																		 @Nonnull Map<String, PatientOrderReferralReasonId> patientOrderReferralReasonIdsByDescription) {
+			requireNonNull(epicDepartments);
+			requireNonNull(patientOrderReferralReasonIdsByDescription);
+
+			this.epicDepartments = List.copyOf(epicDepartments);
+			this.patientOrderReferralReasonIdsByDescription = Map.copyOf(patientOrderReferralReasonIdsByDescription);
+			this.openRawPatientOrdersByMrn = new ConcurrentHashMap<>();
+			this.patientAccountIdsByEpicPatientUniqueId = new ConcurrentHashMap<>();
+			this.patientSearchResponsesByEpicPatientUniqueId = new ConcurrentHashMap<>();
+			this.patientSearchExceptionsByEpicPatientUniqueId = new ConcurrentHashMap<>();
+		}
+
+		@Nonnull
+		public List<EpicDepartment> getEpicDepartments() {
+			return this.epicDepartments;
+		}
+
+		@Nonnull
+		public Map<String, PatientOrderReferralReasonId> getPatientOrderReferralReasonIdsByDescription() {
+			return this.patientOrderReferralReasonIdsByDescription;
+		}
+
+		public void addOpenRawPatientOrder(@Nonnull RawPatientOrder rawPatientOrder) {
+			requireNonNull(rawPatientOrder);
+
+			// Keep the first (most recent) open order per MRN, matching findOpenPatientOrderByMrnAndInstitutionId()
+			if (rawPatientOrder.getPatientMrn() != null)
+				this.openRawPatientOrdersByMrn.putIfAbsent(rawPatientOrder.getPatientMrn().toUpperCase(Locale.US), rawPatientOrder);
+		}
+
+		@Nonnull
+		public Optional<RawPatientOrder> findOpenRawPatientOrderByMrn(@Nullable String patientMrn) {
+			patientMrn = trimToNull(patientMrn);
+
+			if (patientMrn == null)
+				return Optional.empty();
+
+			return Optional.ofNullable(this.openRawPatientOrdersByMrn.get(patientMrn.toUpperCase(Locale.US)));
+		}
+
+		public void addPatientAccount(@Nonnull Account account) {
+			requireNonNull(account);
+
+			if (account.getEpicPatientUniqueId() != null && account.getEpicPatientUniqueIdType() != null)
+				this.patientAccountIdsByEpicPatientUniqueId.putIfAbsent(epicPatientUniqueIdKey(account.getEpicPatientUniqueIdType(),
+						account.getEpicPatientUniqueId()), account.getAccountId());
+		}
+
+		@Nonnull
+		public Optional<UUID> findPatientAccountIdByEpicPatientUniqueId(@Nonnull String epicPatientUniqueId,
+																																		@Nonnull String epicPatientUniqueIdType) {
+			requireNonNull(epicPatientUniqueId);
+			requireNonNull(epicPatientUniqueIdType);
+
+			return Optional.ofNullable(this.patientAccountIdsByEpicPatientUniqueId.get(epicPatientUniqueIdKey(epicPatientUniqueIdType, epicPatientUniqueId)));
+		}
+
+		public void addPatientSearchResponse(@Nonnull String epicPatientUniqueIdType,
+																				 @Nonnull String epicPatientUniqueId,
+																				 @Nonnull PatientSearchResponse patientSearchResponse) {
+			requireNonNull(epicPatientUniqueIdType);
+			requireNonNull(epicPatientUniqueId);
+			requireNonNull(patientSearchResponse);
+
+			this.patientSearchResponsesByEpicPatientUniqueId.put(epicPatientUniqueIdKey(epicPatientUniqueIdType, epicPatientUniqueId), patientSearchResponse);
+		}
+
+		@Nonnull
+		public Optional<PatientSearchResponse> findPatientSearchResponse(@Nonnull String epicPatientUniqueIdType,
+																																		 @Nonnull String epicPatientUniqueId) {
+			requireNonNull(epicPatientUniqueIdType);
+			requireNonNull(epicPatientUniqueId);
+
+			return Optional.ofNullable(this.patientSearchResponsesByEpicPatientUniqueId.get(epicPatientUniqueIdKey(epicPatientUniqueIdType, epicPatientUniqueId)));
+		}
+
+		public void addPatientSearchException(@Nonnull String epicPatientUniqueIdType,
+																					@Nonnull String epicPatientUniqueId,
+																					@Nonnull Exception exception) {
+			requireNonNull(epicPatientUniqueIdType);
+			requireNonNull(epicPatientUniqueId);
+			requireNonNull(exception);
+
+			this.patientSearchExceptionsByEpicPatientUniqueId.put(epicPatientUniqueIdKey(epicPatientUniqueIdType, epicPatientUniqueId), exception);
+		}
+
+		@Nonnull
+		public Optional<Exception> findPatientSearchException(@Nonnull String epicPatientUniqueIdType,
+																													@Nonnull String epicPatientUniqueId) {
+			requireNonNull(epicPatientUniqueIdType);
+			requireNonNull(epicPatientUniqueId);
+
+			return Optional.ofNullable(this.patientSearchExceptionsByEpicPatientUniqueId.get(epicPatientUniqueIdKey(epicPatientUniqueIdType, epicPatientUniqueId)));
+		}
+
+		@Nonnull
+		protected String epicPatientUniqueIdKey(@Nonnull String epicPatientUniqueIdType,
+																						@Nonnull String epicPatientUniqueId) {
+			requireNonNull(epicPatientUniqueIdType);
+			requireNonNull(epicPatientUniqueId);
+
+			// Epic identifiers are matched case-insensitively elsewhere (see AccountService)
+			return format("%s|%s", epicPatientUniqueIdType.toUpperCase(Locale.US), epicPatientUniqueId.toUpperCase(Locale.US));
+		}
+	}
+
+	@Nullable
+	protected Optional<PatientOrderImport> findPatientOrderImportByRawOrderChecksum(@Nullable String rawOrderChecksum,
+																																									@Nullable InstitutionId institutionId,
+																																									@Nullable PatientOrderImportTypeId patientOrderImportTypeId) {
+		rawOrderChecksum = trimToNull(rawOrderChecksum);
+
+		if (rawOrderChecksum == null | institutionId == null || patientOrderImportTypeId == null)
+			return Optional.empty();
+
+		return getDatabase().queryForObject("""
+				SELECT *
+				FROM patient_order_import
+				WHERE raw_order_checksum=?
+				AND institution_id=?
+				AND patient_order_import_type_id=?
+				""", PatientOrderImport.class, rawOrderChecksum, institutionId, patientOrderImportTypeId);
+	}
+
+	public enum CreatePatientOrderSelfReferralMode {
+		REAL_ORDER,
+		TEST_ORDER
+	}
+
+	// Shorthand to more easily create a self-referred order
+	@Nonnull
+	public UUID createPatientOrderForSelfReferral(@Nonnull UUID accountId,
+																								@Nonnull CreatePatientOrderSelfReferralMode mode) {
+		requireNonNull(accountId);
+		requireNonNull(mode);
+
+		Account account = getAccountService().findAccountById(accountId).orElse(null);
+
+		if (account == null)
+			throw new IllegalArgumentException("Unable to find account to create self-referred order");
+
+		Institution institution = getInstitutionService().findInstitutionById(account.getInstitutionId()).get();
+
+		boolean institutionSupportsSelfReferral = getInstitutionService().findPatientOrderReferralSourcesByInstitutionId(institution.getInstitutionId()).stream()
+				.filter(patientOrderReferralSource -> patientOrderReferralSource.getPatientOrderReferralSourceId() == PatientOrderReferralSourceId.SELF)
+				.collect(Collectors.toUnmodifiableList())
+				.size() > 0;
+
+		if (!institutionSupportsSelfReferral)
+			throw new IllegalStateException(format("Institution '%s' does not support self-referral orders", institution.getInstitutionId().name()));
+
+		// Arbitrarily pick the first Epic department for this institution
+		// TODO: revisit this if we have more than 1 self-referral department
+		EpicDepartment epicDepartment = findEpicDepartmentsByInstitutionId(institution.getInstitutionId()).stream().findFirst().get();
+
+		PatientOrderImportResult patientOrderImportResult = createPatientOrderImport(new CreatePatientOrderImportRequest() {{
+			setInstitutionId(account.getInstitutionId());
 			setPatientOrderImportTypeId(PatientOrderImportTypeId.SELF);
 			setAccountId(account.getAccountId());
 		}});
@@ -7199,6 +8283,13 @@ public class PatientOrderService implements AutoCloseable {
 	@Nonnull
 	public UUID createPatientOrder(@Nonnull CreatePatientOrderRequest request) {
 		requireNonNull(request);
+		return createPatientOrder(request, null);
+	}
+
+	@Nonnull
+	protected UUID createPatientOrder(@Nonnull CreatePatientOrderRequest request,
+																		@Nullable PatientOrderImportContext patientOrderImportContext) {
+		requireNonNull(request);
 
 		PatientOrderDispositionId patientOrderDispositionId = PatientOrderDispositionId.OPEN;
 		UUID patientOrderImportId = request.getPatientOrderImportId();
@@ -7445,7 +8536,9 @@ public class PatientOrderService implements AutoCloseable {
 				validationException.add(new FieldError("testPatientEmailAddress", getStrings().get("Test patient email address is invalid.")));
 		}
 
-		PatientOrder openPatientOrder = findOpenPatientOrderByMrnAndInstitutionId(patientMrn, institutionId).orElse(null);
+		RawPatientOrder openPatientOrder = patientOrderImportContext == null
+				? findOpenPatientOrderByMrnAndInstitutionId(patientMrn, institutionId).orElse(null)
+				: patientOrderImportContext.findOpenRawPatientOrderByMrn(patientMrn).orElse(null);
 
 		if (openPatientOrder != null)
 			validationException.add(getStrings().get("Patient {{firstName}} {{lastName}} with MRN {{mrn}} already has an open order.", Map.of(
@@ -7463,7 +8556,9 @@ public class PatientOrderService implements AutoCloseable {
 		if (encounterDepartmentId == null) {
 			throw new EpicDepartmentPatientOrderImportDisabledException(getStrings().get("Encounter department ID is required."));
 		} else {
-			List<EpicDepartment> epicDepartments = findEpicDepartmentsByInstitutionId(institutionId);
+			List<EpicDepartment> epicDepartments = patientOrderImportContext == null
+					? findEpicDepartmentsByInstitutionId(institutionId)
+					: patientOrderImportContext.getEpicDepartments();
 
 			for (EpicDepartment epicDepartment : epicDepartments) {
 				if (epicDepartment.getDepartmentId().equals(encounterDepartmentId)) {
@@ -7483,11 +8578,18 @@ public class PatientOrderService implements AutoCloseable {
 		UUID patientAccountId = null;
 
 		if (patientUniqueId != null && patientUniqueIdType != null) {
-			Account existingPatientAccount = getAccountService().findAccountByEpicPatientUniqueIdAndInstitutionId(patientUniqueId, patientUniqueIdType, institutionId).orElse(null);
+			UUID existingPatientAccountId = null;
+
+			if (patientOrderImportContext == null) {
+				Account existingPatientAccount = getAccountService().findAccountByEpicPatientUniqueIdAndInstitutionId(patientUniqueId, patientUniqueIdType, institutionId).orElse(null);
+				existingPatientAccountId = existingPatientAccount == null ? null : existingPatientAccount.getAccountId();
+			} else {
+				existingPatientAccountId = patientOrderImportContext.findPatientAccountIdByEpicPatientUniqueId(patientUniqueId, patientUniqueIdType).orElse(null);
+			}
 
-			if (existingPatientAccount != null) {
+			if (existingPatientAccountId != null) {
 				getLogger().info("There is already an account with Epic {} {}, associating it with this order...", patientUniqueIdType, patientUniqueId);
-				patientAccountId = existingPatientAccount.getAccountId();
+				patientAccountId = existingPatientAccountId;
 			}
 		}
 
@@ -7507,12 +8609,26 @@ public class PatientOrderService implements AutoCloseable {
 			getLogger().info("Detected that patient order ID {} for patient {} {} needs demographic information, attemping to pull from Epic...", patientOrderId, patientUniqueIdType, patientUniqueId);
 
 			try {
-				EnterprisePlugin enterprisePlugin = getEnterprisePluginProvider().enterprisePluginForInstitutionId(institutionId);
-				EpicClient epicClient = enterprisePlugin.epicClientForBackendService().get();
+				PatientSearchResponse patientSearchResponse = null;
+
+				// Bulk imports pull demographics for all rows concurrently ahead of time
+				if (patientOrderImportContext != null) {
+					Exception prefetchException = patientOrderImportContext.findPatientSearchException(patientUniqueIdType, patientUniqueId).orElse(null);
+
+					if (prefetchException != null)
+						throw prefetchException;
 
-				// Per https://fhir.epic.com/Specifications?api=30
-				// identifiers are of the format <OID>|<value>
-				PatientSearchResponse patientSearchResponse = epicClient.patientSearchFhirR4(patientUniqueIdType, patientUniqueId);
+					patientSearchResponse = patientOrderImportContext.findPatientSearchResponse(patientUniqueIdType, patientUniqueId).orElse(null);
+				}
+
+				if (patientSearchResponse == null) {
+					EnterprisePlugin enterprisePlugin = getEnterprisePluginProvider().enterprisePluginForInstitutionId(institutionId);
+					EpicClient epicClient = enterprisePlugin.epicClientForBackendService().get();
+
+					// Per https://fhir.epic.com/Specifications?api=30
+					// identifiers are of the format <OID>|<value>
+					patientSearchResponse = epicClient.patientSearchFhirR4(patientUniqueIdType, patientUniqueId);
+				}
 
 				if (patientSearchResponse.getTotal() == null || patientSearchResponse.getTotal().equals(0))
 					throw new IllegalStateException(format("Unable to find %s patient record for patient %s %s",
@@ -7628,14 +8744,23 @@ public class PatientOrderService implements AutoCloseable {
 				patientPreferredPronounId, patientClinicalSexId, patientLegalSexId, patientAdministrativeGenderId, patientDemographicsImportedAt,
 				patientOrderReferralSourceId);
 
+		// Child rows are written as batches rather than one statement apiece
 		int diagnosisDisplayOrder = 0;
+		List<List<Object>> diagnosisParameterGroups = new ArrayList<>(diagnoses.size());
 
 		for (CreatePatientOrderDiagnosisRequest diagnosis : diagnoses) {
 			String diagnosisId = trimToNull(diagnosis.getDiagnosisId());
 			String diagnosisIdType = trimToNull(diagnosis.getDiagnosisIdType());
 			String diagnosisName = trimToNull(diagnosis.getDiagnosisName());
 
-			getDatabase().execute("""
+			// Arrays.asList() instead of List.of() because IDs are nullable
+			diagnosisParameterGroups.add(Arrays.asList(patientOrderId, diagnosisId, diagnosisIdType, diagnosisName, diagnosisDisplayOrder));
+
+			++diagnosisDisplayOrder;
+		}
+
+		if (diagnosisParameterGroups.size() > 0)
+			getDatabase().executeBatch("""
 					INSERT INTO patient_order_diagnosis (
 					patient_order_id,
 					diagnosis_id,
@@ -7643,19 +8768,14 @@ public class PatientOrderService implements AutoCloseable {
 					diagnosis_name,
 					display_order
 					) VALUES (?,?,?,?,?)
-					""", patientOrderId, diagnosisId, diagnosisIdType, diagnosisName, diagnosisDisplayOrder);
-
-			++diagnosisDisplayOrder;
-		}
+					""", diagnosisParameterGroups);
 
 		int reasonForReferralDisplayOrder = 0;
+		List<List<Object>> referralParameterGroups = new ArrayList<>(reasonsForReferral.size());
 
-		Map<String, PatientOrderReferralReasonId> patientOrderReferralReasonIdsByDescription = getDatabase().queryForList("""
-						SELECT *
-						FROM patient_order_referral_reason
-						""", PatientOrderReferralReason.class).stream()
-				.collect(Collectors.toMap(patientOrderReferralReason -> patientOrderReferralReason.getDescription().toLowerCase(Locale.US),
-						patientOrderReferralReason -> patientOrderReferralReason.getPatientOrderReferralReasonId()));
+		Map<String, PatientOrderReferralReasonId> patientOrderReferralReasonIdsByDescription = patientOrderImportContext == null
+				? findPatientOrderReferralReasonIdsByDescription()
+				: patientOrderImportContext.getPatientOrderReferralReasonIdsByDescription();
 
 		for (String reasonForReferral : reasonsForReferral) {
 			PatientOrderReferralReasonId patientOrderReferralReasonId = patientOrderReferralReasonIdsByDescription.get(reasonForReferral.toLowerCase(Locale.US));
@@ -7665,25 +8785,35 @@ public class PatientOrderService implements AutoCloseable {
 				patientOrderReferralReasonId = PatientOrderReferralReasonId.UNKNOWN;
 			}
 
-			getDatabase().execute("""
+			referralParameterGroups.add(List.of(patientOrderId, patientOrderReferralReasonId, reasonForReferralDisplayOrder));
+
+			++reasonForReferralDisplayOrder;
+		}
+
+		if (referralParameterGroups.size() > 0)
+			getDatabase().executeBatch("""
 					INSERT INTO patient_order_referral (
 					patient_order_id,
 					patient_order_referral_reason_id,
 					display_order
 					) VALUES (?,?,?)
-					""", patientOrderId, patientOrderReferralReasonId, reasonForReferralDisplayOrder);
-
-			++reasonForReferralDisplayOrder;
-		}
+					""", referralParameterGroups);
 
 		int medicationDisplayOrder = 0;
+		List<List<Object>> medicationParameterGroups = new ArrayList<>(medications.size());
 
 		for (CreatePatientOrderMedicationRequest medication : medications) {
 			String medicationId = trimToNull(medication.getMedicationId());
 			String medicationIdType = trimToNull(medication.getMedicationIdType());
 			String medicationName = trimToNull(medication.getMedicationName());
 
-			getDatabase().execute("""
+			medicationParameterGroups.add(Arrays.asList(patientOrderId, medicationId, medicationIdType, medicationName, medicationDisplayOrder));
+
+			++medicationDisplayOrder;
+		}
+
+		if (medicationParameterGroups.size() > 0)
+			getDatabase().executeBatch("""
 					INSERT INTO patient_order_medication (
 					patient_order_id,
 					medication_id,
@@ -7691,9 +8821,18 @@ public class PatientOrderService implements AutoCloseable {
 					medication_name,
 					display_order
 					) VALUES (?,?,?,?,?)
-					""", patientOrderId, medicationId, medicationIdType, medicationName, medicationDisplayOrder);
+					""", medicationParameterGroups);
 
-			++medicationDisplayOrder;
+		// Later rows in the same import should see this order as open for its MRN
+		if (patientOrderImportContext != null) {
+			RawPatientOrder createdPatientOrder = new RawPatientOrder();
+			createdPatientOrder.setPatientOrderId(patientOrderId);
+			createdPatientOrder.setPatientOrderDispositionId(patientOrderDispositionId);
+			createdPatientOrder.setPatientFirstName(patientFirstName);
+			createdPatientOrder.setPatientLastName(patientLastName);
+			createdPatientOrder.setPatientMrn(patientMrn);
+
+			patientOrderImportContext.addOpenRawPatientOrder(createdPatientOrder);
 		}
 
 		createPatientOrderEvent(new CreatePatientOrderEventRequest() {{
@@ -8128,11 +9267,7 @@ public class PatientOrderService implements AutoCloseable {
 
 				getCurrentContextExecutor().execute(currentContext, () -> {
 					try {
-						getDatabase().transaction(() -> {
-							getSystemService().performAdvisoryLockOperationIfAvailable(AdvisoryLock.PATIENT_ORDER_BACKGROUND_TASK, () -> {
-								performBackgroundProcessingForInstitution(institution);
-							});
-						});
+						performBackgroundProcessingForInstitution(institution);
 					} catch (Exception e) {
 						getLogger().error(format("An error occurred while performing patient order background task for institution ID %s", institution.getInstitutionId()), e);
 						getErrorReporter().report(e);
@@ -8141,9 +9276,72 @@ public class PatientOrderService implements AutoCloseable {
 			}
 		}
 
+		/**
+		 * Runs in three stages so no connection or row lock is held while we wait on Epic:
+		 * <ol>
+		 *   <li>Claim: in a short transaction under the advisory lock, archive old closed orders and claim a batch of orders that need demographics</li>
+		 *   <li>Fetch: call Epic concurrently for the claimed orders, outside of any transaction</li>
+		 *   <li>Apply: write all results back in a short batched transaction</li>
+		 * </ol>
+		 */
 		protected void performBackgroundProcessingForInstitution(@Nonnull Institution institution) {
 			requireNonNull(institution);
 
+			List<RawPatientOrder> claimedPatientOrders = new ArrayList<>();
+			List<Integer> queueDepthHolder = new ArrayList<>(1);
+
+			long claimStartTime = System.nanoTime();
+
+			getDatabase().transaction(() -> {
+				getSystemService().performAdvisoryLockOperationIfAvailable(AdvisoryLock.PATIENT_ORDER_BACKGROUND_TASK, () -> {
+					archiveClosedPatientOrdersForInstitution(institution);
+					queueDepthHolder.add(findDemographicsImportNeededPatientOrderCount(institution));
+					claimedPatientOrders.addAll(claimDemographicsImportNeededPatientOrders(institution));
+				});
+			});
+
+			Duration claimDuration = Duration.ofNanos(System.nanoTime() - claimStartTime);
+
+			// Another node holds the lock, nothing for us to do this time around
+			if (queueDepthHolder.size() == 0)
+				return;
+
+			Map<UUID, PatientSearchResponse> patientSearchResponsesByPatientOrderId = new ConcurrentHashMap<>();
+			Map<UUID, Exception> exceptionsByPatientOrderId = new ConcurrentHashMap<>();
+
+			long fetchStartTime = System.nanoTime();
+
+			if (claimedPatientOrders.size() > 0)
+				fetchPatientDemographics(institution, claimedPatientOrders, patientSearchResponsesByPatientOrderId, exceptionsByPatientOrderId);
+
+			Duration fetchDuration = Duration.ofNanos(System.nanoTime() - fetchStartTime);
+
+			long applyStartTime = System.nanoTime();
+
+			if (claimedPatientOrders.size() > 0)
+				getDatabase().transaction(() -> {
+					// Snapshot results, abandoned tasks may still be winding down
+					applyPatientDemographics(claimedPatientOrders, new HashMap<>(patientSearchResponsesByPatientOrderId), new HashMap<>(exceptionsByPatientOrderId));
+				});
+
+			Duration applyDuration = Duration.ofNanos(System.nanoTime() - applyStartTime);
+
+			BackgroundTaskStatistics backgroundTaskStatistics = new BackgroundTaskStatistics(institution.getInstitutionId(), queueDepthHolder.get(0),
+					claimedPatientOrders.size(), patientSearchResponsesByPatientOrderId.size(), exceptionsByPatientOrderId.size(),
+					claimDuration, fetchDuration, applyDuration, Instant.now());
+
+			getPatientOrderService().recordBackgroundTaskStatistics(backgroundTaskStatistics);
+
+			if (claimedPatientOrders.size() > 0)
+				getLogger().info("Patient order background task for {}: queue depth {}, claimed {}, imported {}, failed {} (claim {}ms, fetch {}ms, apply {}ms)",
+						institution.getInstitutionId().name(), backgroundTaskStatistics.getQueueDepth(), backgroundTaskStatistics.getClaimedCount(),
+						backgroundTaskStatistics.getImportedCount(), backgroundTaskStatistics.getFailedCount(), claimDuration.toMillis(),
+						fetchDuration.toMillis(), applyDuration.toMillis());
+		}
+
+		protected void archiveClosedPatientOrdersForInstitution(@Nonnull Institution institution) {
+			requireNonNull(institution);
+
 			LocalDateTime now = LocalDateTime.now(institution.getTimeZone());
 
 			// Transition from "closed" -> "archived": if episode_closed_at >= 45 days ago, it's moved to ARCHIVED disposition
@@ -8171,78 +9369,209 @@ public class PatientOrderService implements AutoCloseable {
 					}});
 				}
 			}
+		}
 
-			// If any non-test orders haven't had their demographic info pulled in from Epic yet
-			// AND a patient/MHIC hasn't confirmed the demographic information manually -
-			// make a list of orders to pull demographic info from Epic
-			List<RawPatientOrder> demographicsImportNeededPatientOrders = getDatabase().queryForList("""
-					SELECT *
+		@Nonnull
+		protected Integer findDemographicsImportNeededPatientOrderCount(@Nonnull Institution institution) {
+			requireNonNull(institution);
+
+			return getDatabase().queryForObject("""
+					SELECT COUNT(*)
 					FROM patient_order
 					WHERE institution_id=?
 					AND patient_order_demographics_import_status_id=?
 					AND patient_demographics_confirmed_at IS NULL
 					AND patient_order_disposition_id=?
 					AND test_patient_order = FALSE
-					""", RawPatientOrder.class, institution.getInstitutionId(), PatientOrderDemographicsImportStatusId.PENDING, PatientOrderDispositionId.OPEN);
+					""", Integer.class, institution.getInstitutionId(), PatientOrderDemographicsImportStatusId.PENDING, PatientOrderDispositionId.OPEN).get();
+		}
 
-			if (demographicsImportNeededPatientOrders.size() > 0) {
-				EnterprisePlugin enterprisePlugin = getEnterprisePluginProvider().enterprisePluginForInstitutionId(institution.getInstitutionId());
-				EpicClient epicClient = enterprisePlugin.epicClientForBackendService().get();
+		// If any non-test orders haven't had their demographic info pulled in from Epic yet
+		// AND a patient/MHIC hasn't confirmed the demographic information manually -
+		// claim a batch of orders to pull demographic info from Epic.
+		// Claims expire so orders are retried if a node dies before applying results
+		@Nonnull
+		protected List<RawPatientOrder> claimDemographicsImportNeededPatientOrders(@Nonnull Institution institution) {
+			requireNonNull(institution);
 
-				for (RawPatientOrder demographicsImportNeededPatientOrder : demographicsImportNeededPatientOrders) {
-					getLogger().info("Detected that patient order ID {} needs demographic information, attemping to pull from Epic...",
-							demographicsImportNeededPatientOrder.getPatientOrderId());
+			Instant claimExpiration = Instant.now().minus(BACKGROUND_TASK_DEMOGRAPHICS_IMPORT_CLAIM_DURATION);
 
-					try {
-						if (institution.getEpicPatientUniqueIdType() == null)
-							throw new IllegalStateException(format("Institution %s does not have an Epic Patient Unique ID type configured", institution.getInstitutionId().name()));
-
-						// Per https://fhir.epic.com/Specifications?api=30
-						// identifiers are of the format <OID>|<value>
-						PatientSearchResponse patientSearchResponse = epicClient.patientSearchFhirR4(institution.getEpicPatientUniqueIdType(), demographicsImportNeededPatientOrder.getPatientUniqueId());
-
-						if (patientSearchResponse.getTotal() == null || patientSearchResponse.getTotal().equals(0))
-							throw new IllegalStateException(format("Unable to find %s patient record for patient %s %s",
-									institution.getInstitutionId().name(), institution.getEpicPatientUniqueIdType(), demographicsImportNeededPatientOrder.getPatientUniqueId()));
-
-						EthnicityId ethnicityId = patientSearchResponse.extractEthnicityId().orElse(EthnicityId.NOT_ASKED);
-						RaceId raceId = patientSearchResponse.extractRaceId().orElse(RaceId.NOT_ASKED);
-						BirthSexId birthSexId = patientSearchResponse.extractBirthSexId().orElse(BirthSexId.NOT_ASKED);
-						GenderIdentityId genderIdentityId = patientSearchResponse.extractGenderIdentityId().orElse(GenderIdentityId.NOT_ASKED);
-						PreferredPronounId preferredPronounId = patientSearchResponse.extractPreferredPronounId().orElse(PreferredPronounId.NOT_ASKED);
-						ClinicalSexId clinicalSexId = patientSearchResponse.extractClinicalSexId().orElse(ClinicalSexId.NOT_ASKED);
-						LegalSexId legalSexId = patientSearchResponse.extractLegalSexId().orElse(LegalSexId.NOT_ASKED);
-						AdministrativeGenderId administrativeGenderId = patientSearchResponse.extractAdministrativeGenderId().orElse(AdministrativeGenderId.NOT_ASKED);
-
-						getDatabase().execute("""
-										UPDATE patient_order
-										SET patient_order_demographics_import_status_id=?,
-										patient_ethnicity_id=?,
-										patient_race_id=?,
-										patient_birth_sex_id=?,
-										patient_gender_identity_id=?,
-										patient_preferred_pronoun_id=?,
-										patient_clinical_sex_id=?,
-										patient_legal_sex_id=?,
-										patient_administrative_gender_id=?,
-										patient_demographics_imported_at=NOW()
-										WHERE patient_order_id=?
-										""", PatientOrderDemographicsImportStatusId.IMPORTED,
-								ethnicityId, raceId, birthSexId, genderIdentityId, preferredPronounId, clinicalSexId, legalSexId,
-								administrativeGenderId, demographicsImportNeededPatientOrder.getPatientOrderId());
-					} catch (Exception e) {
-						getLogger().error(format("Unable to import patient demographics information for patient order ID %s",
-								demographicsImportNeededPatientOrder.getPatientOrderId()), e);
-						getErrorReporter().report(e);
+			return getDatabase().queryForList("""
+					WITH claimed AS (
+						SELECT patient_order_id
+						FROM patient_order
+						WHERE institution_id=?
+						AND patient_order_demographics_import_status_id=?
+						AND patient_demographics_confirmed_at IS NULL
+						AND patient_order_disposition_id=?
+						AND test_patient_order = FALSE
+						AND (patient_demographics_import_claimed_at IS NULL OR patient_demographics_import_claimed_at < ?)
+						ORDER BY order_date, patient_order_id
+						FOR UPDATE SKIP LOCKED
+						LIMIT ?
+					)
+					UPDATE patient_order po
+					SET patient_demographics_import_claimed_at=NOW()
+					FROM claimed
+					WHERE po.patient_order_id=claimed.patient_order_id
+					RETURNING po.*
+					""", RawPatientOrder.class, institution.getInstitutionId(), PatientOrderDemographicsImportStatusId.PENDING,
+					PatientOrderDispositionId.OPEN, claimExpiration, BACKGROUND_TASK_DEMOGRAPHICS_IMPORT_BATCH_SIZE);
+		}
+
+		protected void fetchPatientDemographics(@Nonnull Institution institution,
+																						@Nonnull List<RawPatientOrder> patientOrders,
+																						@Nonnull Map<UUID, PatientSearchResponse> patientSearchResponsesByPatientOrderId,
+																						@Nonnull Map<UUID, Exception> exceptionsByPatientOrderId) {
+			requireNonNull(institution);
+			requireNonNull(patientOrders);
+			requireNonNull(patientSearchResponsesByPatientOrderId);
+			requireNonNull(exceptionsByPatientOrderId);
 
-						getDatabase().execute("""
-								UPDATE patient_order
-								SET patient_order_demographics_import_status_id=?
-								WHERE patient_order_id=?
-								""", PatientOrderDemographicsImportStatusId.IMPORT_FAILED, demographicsImportNeededPatientOrder.getPatientOrderId());
-					}
+			EnterprisePlugin enterprisePlugin = getEnterprisePluginProvider().enterprisePluginForInstitutionId(institution.getInstitutionId());
+			EpicClient epicClient = enterprisePlugin.epicClientForBackendService().get();
+
+			// Set once we stop waiting so tasks interrupted by shutdown aren't recorded as failed imports
+			AtomicBoolean fetchAbandoned = new AtomicBoolean(false);
+
+			ExecutorService epicExecutorService = Executors.newFixedThreadPool(Math.min(patientOrders.size(), BACKGROUND_TASK_EPIC_CONCURRENCY),
+					new ThreadFactoryBuilder().setNameFormat("patient-order-background-task-epic-%d").build());
+
+			try {
+				List<CompletableFuture<Void>> completableFutures = new ArrayList<>(patientOrders.size());
+
+				for (RawPatientOrder patientOrder : patientOrders) {
+					completableFutures.add(CompletableFuture.runAsync(() -> {
+						getLogger().info("Detected that patient order ID {} needs demographic information, attemping to pull from Epic...",
+								patientOrder.getPatientOrderId());
+
+						try {
+							if (institution.getEpicPatientUniqueIdType() == null)
+								throw new IllegalStateException(format("Institution %s does not have an Epic Patient Unique ID type configured", institution.getInstitutionId().name()));
+
+							// Per https://fhir.epic.com/Specifications?api=30
+							// identifiers are of the format <OID>|<value>
+							PatientSearchResponse patientSearchResponse = epicClient.patientSearchFhirR4(institution.getEpicPatientUniqueIdType(), patientOrder.getPatientUniqueId());
+
+							if (patientSearchResponse.getTotal() == null || patientSearchResponse.getTotal().equals(0))
+								throw new IllegalStateException(format("Unable to find %s patient record for patient %s %s",
+										institution.getInstitutionId().name(), institution.getEpicPatientUniqueIdType(), patientOrder.getPatientUniqueId()));
+
+							patientSearchResponsesByPatientOrderId.put(patientOrder.getPatientOrderId(), patientSearchResponse);
+						} catch (Exception e) {
+							if (fetchAbandoned.get() || Thread.currentThread().isInterrupted()) {
+								getLogger().info("Abandoned demographics import for patient order ID {}, its claim will be released",
+										patientOrder.getPatientOrderId());
+								return;
+							}
+
+							getLogger().error(format("Unable to import patient demographics information for patient order ID %s",
+									patientOrder.getPatientOrderId()), e);
+							getErrorReporter().report(e);
+
+							exceptionsByPatientOrderId.put(patientOrder.getPatientOrderId(), e);
+						}
+					}, epicExecutorService));
+				}
+
+				try {
+					CompletableFuture.allOf(completableFutures.toArray(new CompletableFuture[0]))
+							.get(BACKGROUND_TASK_DEMOGRAPHICS_IMPORT_FETCH_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+				} catch (TimeoutException e) {
+					// Whatever finished gets applied; unfinished orders have their claims released so they're retried next run
+					getLogger().warn("Timed out pulling patient demographics from Epic for {}", institution.getInstitutionId().name());
+				} catch (ExecutionException e) {
+					throw new RuntimeException("Unable to pull patient demographics from Epic", e);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new RuntimeException("Interrupted while pulling patient demographics from Epic", e);
 				}
+			} finally {
+				fetchAbandoned.set(true);
+
+				epicExecutorService.shutdownNow();
+			}
+		}
+
+		protected void applyPatientDemographics(@Nonnull List<RawPatientOrder> claimedPatientOrders,
+																						@Nonnull Map<UUID, PatientSearchResponse> patientSearchResponsesByPatientOrderId,
+																						@Nonnull Map<UUID, Exception> exceptionsByPatientOrderId) {
+			requireNonNull(claimedPatientOrders);
+			requireNonNull(patientSearchResponsesByPatientOrderId);
+			requireNonNull(exceptionsByPatientOrderId);
+
+			List<List<Object>> importedParameterGroups = new ArrayList<>(patientSearchResponsesByPatientOrderId.size());
+
+			for (Entry<UUID, PatientSearchResponse> entry : patientSearchResponsesByPatientOrderId.entrySet()) {
+				PatientSearchResponse patientSearchResponse = entry.getValue();
+
+				importedParameterGroups.add(List.of(
+						PatientOrderDemographicsImportStatusId.IMPORTED,
+						patientSearchResponse.extractEthnicityId().orElse(EthnicityId.NOT_ASKED),
+						patientSearchResponse.extractRaceId().orElse(RaceId.NOT_ASKED),
+						patientSearchResponse.extractBirthSexId().orElse(BirthSexId.NOT_ASKED),
+						patientSearchResponse.extractGenderIdentityId().orElse(GenderIdentityId.NOT_ASKED),
+						patientSearchResponse.extractPreferredPronounId().orElse(PreferredPronounId.NOT_ASKED),
+						patientSearchResponse.extractClinicalSexId().orElse(ClinicalSexId.NOT_ASKED),
+						patientSearchResponse.extractLegalSexId().orElse(LegalSexId.NOT_ASKED),
+						patientSearchResponse.extractAdministrativeGenderId().orElse(AdministrativeGenderId.NOT_ASKED),
+						entry.getKey(),
+						PatientOrderDemographicsImportStatusId.PENDING
+				));
 			}
+
+			// Only touch orders that are still pending - an MHIC might have confirmed demographics while we were waiting on Epic
+			if (importedParameterGroups.size() > 0)
+				getDatabase().executeBatch("""
+						UPDATE patient_order
+						SET patient_order_demographics_import_status_id=?,
+						patient_ethnicity_id=?,
+						patient_race_id=?,
+						patient_birth_sex_id=?,
+						patient_gender_identity_id=?,
+						patient_preferred_pronoun_id=?,
+						patient_clinical_sex_id=?,
+						patient_legal_sex_id=?,
+						patient_administrative_gender_id=?,
+						patient_demographics_imported_at=NOW(),
+						patient_demographics_import_claimed_at=NULL
+						WHERE patient_order_id=?
+						AND patient_order_demographics_import_status_id=?
+						AND patient_demographics_confirmed_at IS NULL
+						""", importedParameterGroups);
+
+			List<List<Object>> failedParameterGroups = new ArrayList<>(exceptionsByPatientOrderId.size());
+
+			for (UUID patientOrderId : exceptionsByPatientOrderId.keySet())
+				failedParameterGroups.add(List.of(PatientOrderDemographicsImportStatusId.IMPORT_FAILED, patientOrderId,
+						PatientOrderDemographicsImportStatusId.PENDING));
+
+			if (failedParameterGroups.size() > 0)
+				getDatabase().executeBatch("""
+						UPDATE patient_order
+						SET patient_order_demographics_import_status_id=?,
+						patient_demographics_import_claimed_at=NULL
+						WHERE patient_order_id=?
+						AND patient_order_demographics_import_status_id=?
+						AND patient_demographics_confirmed_at IS NULL
+						""", failedParameterGroups);
+
+			// Orders we timed out on or abandoned have no result either way - release their claims so they're retried on the next run
+			// instead of waiting out the claim duration
+			List<List<Object>> releasedParameterGroups = new ArrayList<>();
+
+			for (RawPatientOrder claimedPatientOrder : claimedPatientOrders)
+				if (!patientSearchResponsesByPatientOrderId.containsKey(claimedPatientOrder.getPatientOrderId())
+						&& !exceptionsByPatientOrderId.containsKey(claimedPatientOrder.getPatientOrderId()))
+					releasedParameterGroups.add(List.of(claimedPatientOrder.getPatientOrderId(), PatientOrderDemographicsImportStatusId.PENDING));
+
+			if (releasedParameterGroups.size() > 0)
+				getDatabase().executeBatch("""
+						UPDATE patient_order
+						SET patient_demographics_import_claimed_at=NULL
+						WHERE patient_order_id=?
+						AND patient_order_demographics_import_status_id=?
+						""", releasedParameterGroups);
 		}
 
 		@Nonnull
@@ -8291,6 +9620,103 @@ public class PatientOrderService implements AutoCloseable {
 		}
 	}
 
+	@Immutable
+	public static class BackgroundTaskStatistics {
+		@Nonnull
+		private final InstitutionId institutionId;
+		@Nonnull
+		private final Integer queueDepth;
+		@Nonnull
+		private final Integer claimedCount;
+		@Nonnull
+		private final Integer importedCount;
+		@Nonnull
+		private final Integer failedCount;
+		@Nonnull
+		private final Duration claimDuration;
+		@Nonnull
+		private final Duration fetchDuration;
+		@Nonnull
+		private final Duration applyDuration;
+		@Nonnull
+		private final Instant completedAt;
+
+		public BackgroundTaskStatistics(@Nonnull InstitutionId institutionId,
+																		@Nonnull Integer queueDepth,
+																		@Nonnull Integer claimedCount,
+																		@Nonnull Integer importedCount,
+																		@Nonnull Integer failedCount,
+																		@Nonnull Duration claimDuration,
+																		@Nonnull Duration fetchDuration,
+																		@Nonnull Duration applyDuration,
+																		@Nonnull Instant completedAt) {
+			requireNonNull(institutionId);
+			requireNonNull(queueDepth);
+			requireNonNull(claimedCount);
+			requireNonNull(importedCount);
+			requireNonNull(failedCount);
+			requireNonNull(claimDuration);
+			requireNonNull(fetchDuration);
+			requireNonNull(applyDuration);
+			requireNonNull(completedAt);
+
+			this.institutionId = institutionId;
+			this.queueDepth = queueDepth;
+			this.claimedCount = claimedCount;
+			this.importedCount = importedCount;
+			this.failedCount = failedCount;
+			this.claimDuration = claimDuration;
+			this.fetchDuration = fetchDuration;
+			this.applyDuration = applyDuration;
+			this.completedAt = completedAt;
+		}
+
+		@Nonnull
+		public InstitutionId getInstitutionId() {
+			return this.institutionId;
+		}
+
+		@Nonnull
+		public Integer getQueueDepth() {
+			return this.queueDepth;
+		}
+
+		@Nonnull
+		public Integer getClaimedCount() {
+			return this.claimedCount;
+		}
+
+		@Nonnull
+		public Integer getImportedCount() {
+			return this.importedCount;
+		}
+
+		@Nonnull
+		public Integer getFailedCount() {
+			return this.failedCount;
+		}
+
+		@Nonnull
+		public Duration getClaimDuration() {
+			return this.claimDuration;
+		}
+
+		@Nonnull
+		public Duration getFetchDuration() {
+			return this.fetchDuration;
+		}
+
+		@Nonnull
+		public Duration getApplyDuration() {
+			return this.applyDuration;
+		}
+
+		@Nonnull
+		public Instant getCompletedAt() {
+			return this.completedAt;
+		}
+	}
+
 	@NotThreadSafe
 	protected static class FindPatientOrdersQueryContext {
 		@Nonnull
@@ -8607,6 +10033,11 @@ public class PatientOrderService implements AutoCloseable {
 		return this.databaseProvider.get();
 	}
 
+	@Nonnull
+	protected CurrentContextExecutor getCurrentContextExecutor() {
+		return this.currentContextExecutor;
+	}
+
 	@Nonnull
 	protected Hl7Client getHl7Client() {
 		return this.hl7Client;
@@ -26,6 +26,9 @@ import com.cobaltplatform.api.integration.google.GoogleGeoClient;
 import com.cobaltplatform.api.model.db.Address;
 import com.cobaltplatform.api.model.places.PlacePrediction;
 import com.cobaltplatform.api.util.db.DatabaseProvider;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.google.maps.places.v1.AutocompletePlacesRequest;
 import com.google.maps.places.v1.AutocompletePlacesResponse;
 import com.google.maps.places.v1.GetPlaceRequest;
@@ -42,9 +45,13 @@ import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import static java.lang.String.format;
@@ -57,6 +64,16 @@ import static org.apache.commons.lang3.StringUtils.trimToNull;
 @Singleton
 @ThreadSafe
 public class PlaceService {
+	@Nonnull
+	private static final String DEFAULT_LANGUAGE_CODE;
+	@Nonnull
+	private static final String DEFAULT_REGION_CODE;
+
+	static {
+		DEFAULT_LANGUAGE_CODE = "en";
+		DEFAULT_REGION_CODE = "US";
+	}
+
 	@Nonnull
 	private final DatabaseProvider databaseProvider;
 	@Nonnull
@@ -67,6 +84,12 @@ public class PlaceService {
 	private final Logger logger;
 	@Nonnull
 	private final Configuration configuration;
+	@Nonnull
+	private final Cache<AutocompleteCacheKey, List<CachedPlacePrediction>> autocompleteCache;
+	@Nonnull
+	private final Cache<PlaceCacheKey, Place> placeByPlaceIdCache;
+	@Nonnull
+	private final Cache<PlaceCacheKey, Place> placeBySearchTextCache;
 
 	@Inject
 	public PlaceService(@Nonnull DatabaseProvider databaseProvider,
@@ -85,28 +108,73 @@ public class PlaceService {
 		this.errorReporter = errorReporter;
 		this.logger = LoggerFactory.getLogger(getClass());
 		this.configuration = configuration;
+
+		// Autocomplete results are short-lived since the underlying data can shift, but the same few prefixes
+		// are typed over and over.  Place details change rarely, so they can live much longer
+		this.autocompleteCache = Caffeine.newBuilder()
+				.maximumSize(10_000)
+				.expireAfterWrite(Duration.ofHours(1))
+				.recordStats()
+				.build();
+		this.placeByPlaceIdCache = Caffeine.newBuilder()
+				.maximumSize(10_000)
+				.expireAfterWrite(Duration.ofHours(24))
+				.recordStats()
+				.build();
+		this.placeBySearchTextCache = Caffeine.newBuilder()
+				.maximumSize(10_000)
+				.expireAfterWrite(Duration.ofHours(24))
+				.recordStats()
+				.build();
 	}
 
 	@Nonnull
 	public List<PlacePrediction> autocompletePlace(@Nullable String searchTerm) {
+		return autocompletePlace(searchTerm, null);
+	}
+
+	@Nonnull
+	public List<PlacePrediction> autocompletePlace(@Nullable String searchTerm,
+																								 @Nullable String sessionToken) {
 		searchTerm = trimToNull(searchTerm);
+		sessionToken = trimToNull(sessionToken);
 
 		if (searchTerm == null)
 			return Collections.emptyList();
 
-		List<PlacePrediction> placePredictions = new ArrayList<>();
+		AutocompleteCacheKey cacheKey = new AutocompleteCacheKey(searchTerm, DEFAULT_LANGUAGE_CODE, DEFAULT_REGION_CODE);
+		// Only exact (normalized) inputs are reused - Google's matching isn't simple substring narrowing,
+		// so a shorter input's predictions can't safely answer a longer one
+		List<CachedPlacePrediction> cachedPlacePredictions = getAutocompleteCache().getIfPresent(cacheKey);
 
-		AutocompletePlacesResponse response = getGoogleGeoClient().autocompletePlaces(AutocompletePlacesRequest.newBuilder()
-				.setInput(searchTerm)
-				.setLanguageCode("en")
-				.setRegionCode("US")
-				.build());
+		if (cachedPlacePredictions == null) {
+			AutocompletePlacesRequest.Builder requestBuilder = AutocompletePlacesRequest.newBuilder()
+					.setInput(searchTerm)
+					.setLanguageCode(cacheKey.getLanguageCode())
+					.setRegionCode(cacheKey.getRegionCode());
 
-		for (AutocompletePlacesResponse.Suggestion suggestion : response.getSuggestionsList()) {
-			PlacePrediction placePrediction = new PlacePrediction();
+			// Session tokens group keystrokes and the eventual place details lookup into a single billable session
+			if (sessionToken != null)
+				requestBuilder.setSessionToken(sessionToken);
+
+			AutocompletePlacesResponse response = getGoogleGeoClient().autocompletePlaces(requestBuilder.build());
+
+			cachedPlacePredictions = new ArrayList<>(response.getSuggestionsCount());
+
+			for (AutocompletePlacesResponse.Suggestion suggestion : response.getSuggestionsList())
+				cachedPlacePredictions.add(new CachedPlacePrediction(suggestion.getPlacePrediction().getPlaceId(),
+						suggestion.getPlacePrediction().getText().getText()));
+
+			cachedPlacePredictions = Collections.unmodifiableList(cachedPlacePredictions);
+			getAutocompleteCache().put(cacheKey, cachedPlacePredictions);
+		}
+
+		List<PlacePrediction> placePredictions = new ArrayList<>(cachedPlacePredictions.size());
 
-			placePrediction.setPlaceId(suggestion.getPlacePrediction().getPlaceId());
-			placePrediction.setText(suggestion.getPlacePrediction().getText().getText());
+		for (CachedPlacePrediction cachedPlacePrediction : cachedPlacePredictions) {
+			PlacePrediction placePrediction = new PlacePrediction();
+			placePrediction.setPlaceId(cachedPlacePrediction.getPlaceId());
+			placePrediction.setText(cachedPlacePrediction.getText());
 			placePredictions.add(placePrediction);
 		}
 
@@ -115,39 +183,210 @@ public class PlaceService {
 
 	@Nonnull
 	public Optional<Place> findPlaceByPlaceId(@Nullable String placeIdRequest) {
+		return findPlaceByPlaceId(placeIdRequest, null);
+	}
+
+	@Nonnull
+	public Optional<Place> findPlaceByPlaceId(@Nullable String placeIdRequest,
+																						@Nullable String sessionToken) {
 		placeIdRequest = trimToNull(placeIdRequest);
+		sessionToken = trimToNull(sessionToken);
 
 		if (placeIdRequest == null)
 			return Optional.empty();
 
 		String placeId = format("places/%s", placeIdRequest);
+		String pinnedSessionToken = sessionToken;
 
-		GetPlaceRequest request = GetPlaceRequest.newBuilder()
-				.setName(placeId)
-				.setLanguageCode("en")
-				.setRegionCode("US")
-				.build();
+		// Caffeine does not store null values, so places that Google can't find are not cached
+		Place place = getPlaceByPlaceIdCache().get(new PlaceCacheKey(placeId, DEFAULT_LANGUAGE_CODE, DEFAULT_REGION_CODE), (cacheKey) -> {
+			GetPlaceRequest.Builder requestBuilder = GetPlaceRequest.newBuilder()
+					.setName(cacheKey.getValue())
+					.setLanguageCode(cacheKey.getLanguageCode())
+					.setRegionCode(cacheKey.getRegionCode());
+
+			// A details request with the session token terminates the autocomplete session
+			if (pinnedSessionToken != null)
+				requestBuilder.setSessionToken(pinnedSessionToken);
 
-		return getGoogleGeoClient().getPlace(request);
+			return getGoogleGeoClient().getPlace(requestBuilder.build()).orElse(null);
+		});
+
+		return Optional.ofNullable(place);
 	}
 
 	@Nonnull
 	public Optional<Place> findPlaceByPlaceAddress(@Nullable Address address) {
 		if (address == null)
 			return Optional.empty();
-		getLogger().debug(format("Looking for %s, %s, %s, %s", address.getStreetAddress1(), address.getLocality(), address.getRegion(), address.getPostalCode()));
-		SearchTextRequest searchTextRequest = SearchTextRequest.newBuilder()
-				.setTextQuery(format("%s, %s, %s, %s", address.getStreetAddress1(), address.getLocality(), address.getRegion(), address.getPostalCode()))
-				.setLanguageCode("en")
-				.setRegionCode("US")
-				.build();
 
-		SearchTextResponse response = getGoogleGeoClient().findPlacesBySearchText(searchTextRequest);
+		String textQuery = format("%s, %s, %s, %s", address.getStreetAddress1(), address.getLocality(), address.getRegion(), address.getPostalCode());
+
+		Place place = getPlaceBySearchTextCache().get(new PlaceCacheKey(textQuery, DEFAULT_LANGUAGE_CODE, DEFAULT_REGION_CODE), (cacheKey) -> {
+			getLogger().debug(format("Looking for %s", cacheKey.getValue()));
+
+			SearchTextRequest searchTextRequest = SearchTextRequest.newBuilder()
+					.setTextQuery(cacheKey.getValue())
+					.setLanguageCode(cacheKey.getLanguageCode())
+					.setRegionCode(cacheKey.getRegionCode())
+					.build();
+
+			SearchTextResponse response = getGoogleGeoClient().findPlacesBySearchText(searchTextRequest);
 
-		if (response.getPlacesList().size() > 0)
-			return Optional.of(response.getPlacesList().get(0));
+			if (response.getPlacesList().size() > 0)
+				return response.getPlacesList().get(0);
 
-		return Optional.empty();
+			return null;
+		});
+
+		return Optional.ofNullable(place);
+	}
+
+	@Nonnull
+	public Map<String, CacheStats> getCacheStatsByCacheName() {
+		return Map.of(
+				"autocomplete", getAutocompleteCache().stats(),
+				"placeByPlaceId", getPlaceByPlaceIdCache().stats(),
+				"placeBySearchText", getPlaceBySearchTextCache().stats()
+		);
+	}
+
+	public void invalidateCaches() {
+		getAutocompleteCache().invalidateAll();
+		getPlaceByPlaceIdCache().invalidateAll();
+		getPlaceBySearchTextCache().invalidateAll();
+	}
+
+	@ThreadSafe
+	protected static final class AutocompleteCacheKey {
+		@Nonnull
+		private final String normalizedInput;
+		@Nonnull
+		private final String languageCode;
+		@Nonnull
+		private final String regionCode;
+
+		public AutocompleteCacheKey(@Nonnull String input,
+																@Nonnull String languageCode,
+																@Nonnull String regionCode) {
+			requireNonNull(input);
+			requireNonNull(languageCode);
+			requireNonNull(regionCode);
+
+			// Collapse whitespace and case so "3400 spruce" and "3400  Spruce" share an entry
+			this.normalizedInput = input.trim().replaceAll("\\s+", " ").toLowerCase(Locale.US);
+			this.languageCode = languageCode;
+			this.regionCode = regionCode;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			AutocompleteCacheKey that = (AutocompleteCacheKey) o;
+			return getNormalizedInput().equals(that.getNormalizedInput())
+					&& getLanguageCode().equals(that.getLanguageCode())
+					&& getRegionCode().equals(that.getRegionCode());
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(getNormalizedInput(), getLanguageCode(), getRegionCode());
+		}
+
+		@Nonnull
+		public String getNormalizedInput() {
+			return this.normalizedInput;
+		}
+
+		@Nonnull
+		public String getLanguageCode() {
+			return this.languageCode;
+		}
+
+		@Nonnull
+		public String getRegionCode() {
+			return this.regionCode;
+		}
+	}
+
+	@ThreadSafe
+	protected static final class PlaceCacheKey {
+		@Nonnull
+		private final String value;
+		@Nonnull
+		private final String languageCode;
+		@Nonnull
+		private final String regionCode;
+
+		public PlaceCacheKey(@Nonnull String value,
+												 @Nonnull String languageCode,
+												 @Nonnull String regionCode) {
+			requireNonNull(value);
+			requireNonNull(languageCode);
+			requireNonNull(regionCode);
+
+			this.value = value;
+			this.languageCode = languageCode;
+			this.regionCode = regionCode;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			PlaceCacheKey that = (PlaceCacheKey) o;
+			return getValue().equals(that.getValue())
+					&& getLanguageCode().equals(that.getLanguageCode())
+					&& getRegionCode().equals(that.getRegionCode());
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(getValue(), getLanguageCode(), getRegionCode());
+		}
+
+		@Nonnull
+		public String getValue() {
+			return this.value;
+		}
+
+		@Nonnull
+		public String getLanguageCode() {
+			return this.languageCode;
+		}
+
+		@Nonnull
+		public String getRegionCode() {
+			return this.regionCode;
+		}
+	}
+
+	@ThreadSafe
+	protected static final class CachedPlacePrediction {
+		@Nonnull
+		private final String placeId;
+		@Nonnull
+		private final String text;
+
+		public CachedPlacePrediction(@Nonnull String placeId,
+																 @Nonnull String text) {
+			requireNonNull(placeId);
+			requireNonNull(text);
+
+			this.placeId = placeId;
+			this.text = text;
+		}
+
+		@Nonnull
+		public String getPlaceId() {
+			return this.placeId;
+		}
+
+		@Nonnull
+		public String getText() {
+			return this.text;
+		}
 	}
 
 	@Nonnull
@@ -160,6 +399,21 @@ public class PlaceService {
 		return this.enterprisePluginProvider.enterprisePluginForCurrentInstitution().googleGeoClient();
 	}
 
+	@Nonnull
+	protected Cache<AutocompleteCacheKey, List<CachedPlacePrediction>> getAutocompleteCache() {
+		return this.autocompleteCache;
+	}
+
+	@Nonnull
+	protected Cache<PlaceCacheKey, Place> getPlaceByPlaceIdCache() {
+		return this.placeByPlaceIdCache;
+	}
+
+	@Nonnull
+	protected Cache<PlaceCacheKey, Place> getPlaceBySearchTextCache() {
+		return this.placeBySearchTextCache;
+	}
+
 	@Nonnull
 	protected ErrorReporter getErrorReporter() {
 		return this.errorReporter;
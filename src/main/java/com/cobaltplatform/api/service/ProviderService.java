@@ -127,6 +127,11 @@ import static org.apache.commons.lang3.StringUtils.trimToNull;
 @Singleton
 @ThreadSafe
 public class ProviderService {
+	@Nonnull
+	private static final Integer AUTOCOMPLETE_RESULT_LIMIT;
+	@Nonnull
+	private static final Double AUTOCOMPLETE_WORD_SIMILARITY_THRESHOLD;
+
 	@Nonnull
 	private final javax.inject.Provider<AccountService> accountServiceProvider;
 	@Nonnull
@@ -162,6 +167,11 @@ public class ProviderService {
 	@Nonnull
 	private final Logger logger;
 
+	static {
+		AUTOCOMPLETE_RESULT_LIMIT = 25;
+		AUTOCOMPLETE_WORD_SIMILARITY_THRESHOLD = 0.4;
+	}
+
 	@Inject
 	public ProviderService(@Nonnull javax.inject.Provider<AccountService> accountServiceProvider,
 												 @Nonnull javax.inject.Provider<InstitutionService> institutionServiceProvider,
@@ -303,11 +313,94 @@ public class ProviderService {
 		query = trimToNull(query);
 
 		if (query == null)
-			return findProvidersByInstitutionId(institutionId);
-
-		// TODO: fuzzy search, include other fields too
-		return getDatabase().queryForList("SELECT * FROM provider " +
-				"WHERE institution_id=? AND UPPER(name) LIKE UPPER(?) AND active=TRUE ORDER BY name", Provider.class, institutionId, "%" + query + "%");
+			return getDatabase().queryForList("SELECT * FROM provider WHERE institution_id=? AND active=TRUE ORDER BY name LIMIT ?",
+					Provider.class, institutionId, getAutocompleteResultLimit());
+
+		// Lower than pg_trgm's default of 0.6 so single-character typos (e.g. "jonh" for "john") still match.
+		// Transaction-scoped, same as SET LOCAL
+		getDatabase().queryForObject("SELECT set_config('pg_trgm.word_similarity_threshold', CAST(? AS TEXT), TRUE)", String.class,
+				String.valueOf(getAutocompleteWordSimilarityThreshold()));
+
+		// Each candidate branch can be answered by a trigram index (see 263-provider-autocomplete-search.sql and
+		// 269-provider-autocomplete-support-role.sql), and is restricted to the institution up front.
+		// Each search term is then scored as exact match > prefix > word prefix > substring > word similarity (which
+		// is what catches typos) and weighted by field: name, then title, then specialties/support roles, then license
+		return getDatabase().queryForList("""
+				WITH candidate AS (
+				  SELECT p.provider_id
+				  FROM provider p
+				  WHERE p.institution_id=?
+				  AND p.active=TRUE
+				  AND (p.name ILIKE CONCAT('%',?,'%')
+				  OR ? <% p.name
+				  OR p.title ILIKE CONCAT('%',?,'%')
+				  OR ? <% p.title
+				  OR p.specialty ILIKE CONCAT('%',?,'%')
+				  OR ? <% p.specialty
+				  OR p.license ILIKE CONCAT('%',?,'%'))
+				  UNION
+				  SELECT p.provider_id
+				  FROM provider p, provider_specialty ps, specialty s
+				  WHERE p.provider_id=ps.provider_id
+				  AND ps.specialty_id=s.specialty_id
+				  AND p.institution_id=?
+				  AND p.active=TRUE
+				  AND (s.description ILIKE CONCAT('%',?,'%') OR ? <% s.description)
+				  UNION
+				  SELECT p.provider_id
+				  FROM provider p, provider_support_role psr, support_role sr
+				  WHERE p.provider_id=psr.provider_id
+				  AND psr.support_role_id=sr.support_role_id
+				  AND p.institution_id=?
+				  AND p.active=TRUE
+				  AND (sr.description ILIKE CONCAT('%',?,'%') OR ? <% sr.description)
+				), search_term AS (
+				  SELECT p.provider_id, p.name AS term, 1.0 AS weight
+				  FROM provider p, candidate c
+				  WHERE p.provider_id=c.provider_id
+				  UNION ALL
+				  SELECT p.provider_id, p.title, 0.8
+				  FROM provider p, candidate c
+				  WHERE p.provider_id=c.provider_id
+				  UNION ALL
+				  SELECT p.provider_id, p.specialty, 0.7
+				  FROM provider p, candidate c
+				  WHERE p.provider_id=c.provider_id
+				  UNION ALL
+				  SELECT ps.provider_id, s.description, 0.7
+				  FROM provider_specialty ps, specialty s, candidate c
+				  WHERE ps.specialty_id=s.specialty_id
+				  AND ps.provider_id=c.provider_id
+				  UNION ALL
+				  SELECT psr.provider_id, sr.description, 0.7
+				  FROM provider_support_role psr, support_role sr, candidate c
+				  WHERE psr.support_role_id=sr.support_role_id
+				  AND psr.provider_id=c.provider_id
+				  UNION ALL
+				  SELECT p.provider_id, p.license, 0.6
+				  FROM provider p, candidate c
+				  WHERE p.provider_id=c.provider_id
+				), autocomplete_query AS (
+				  SELECT CAST(? AS TEXT) AS query
+				), provider_score AS (
+				  SELECT st.provider_id, MAX(st.weight * CASE
+				    WHEN LOWER(st.term)=LOWER(aq.query) THEN 1.0
+				    WHEN st.term ILIKE CONCAT(aq.query, '%') THEN 0.9
+				    WHEN st.term ILIKE CONCAT('% ', aq.query, '%') THEN 0.8
+				    WHEN st.term ILIKE CONCAT('%', aq.query, '%') THEN 0.6
+				    ELSE 0.5 * word_similarity(aq.query, st.term)
+				  END) AS score
+				  FROM search_term st, autocomplete_query aq
+				  WHERE st.term IS NOT NULL
+				  GROUP BY st.provider_id
+				)
+				SELECT p.*
+				FROM provider p, provider_score ps
+				WHERE p.provider_id=ps.provider_id
+				ORDER BY ps.score DESC, p.name
+				LIMIT ?
+				""", Provider.class, institutionId, query, query, query, query, query, query, query,
+				institutionId, query, query, institutionId, query, query, query, getAutocompleteResultLimit());
 	}
 
 	@Nonnull
@@ -1512,9 +1605,6 @@ public class ProviderService {
 				appointmentTypesByLogicalAvailabilityId, allActiveAppointmentTypesByProviderId, activeAppointmentsByProviderId);
 	}
 
-	/**
-	 * This performs the actual "slot" work, turning logical availabilities into bookable appointment slots.
-	 */
 	@Nonnull
 	protected List<AvailabilityDate> availabilityDatesForNativeScheduling(@Nonnull AvailabilityDatesCommand command,
 																																				@Nonnull LocalDateTime startDateTime,
@@ -1525,6 +1615,26 @@ public class ProviderService {
 		requireNonNull(endDateTime);
 		requireNonNull(nativeSchedulingAvailabilityData);
 
+		return calculateAvailabilityDatesForNativeScheduling(command, startDateTime, endDateTime, nativeSchedulingAvailabilityData, getLogger());
+	}
+
+	/**
+	 * This performs the actual "slot" work, turning logical availabilities into bookable appointment slots.
+	 * <p>
+	 * Pure in-memory math with no database or service access (static so it can be benchmarked in isolation).
+	 */
+	@Nonnull
+	protected static List<AvailabilityDate> calculateAvailabilityDatesForNativeScheduling(@Nonnull AvailabilityDatesCommand command,
+																																												@Nonnull LocalDateTime startDateTime,
+																																												@Nonnull LocalDateTime endDateTime,
+																																												@Nonnull NativeSchedulingAvailabilityData nativeSchedulingAvailabilityData,
+																																												@Nonnull Logger logger) {
+		requireNonNull(command);
+		requireNonNull(startDateTime);
+		requireNonNull(endDateTime);
+		requireNonNull(nativeSchedulingAvailabilityData);
+		requireNonNull(logger);
+
 		LocalDate startDate = startDateTime.toLocalDate();
 		LocalDate endDate = endDateTime.toLocalDate();
 
@@ -1729,7 +1839,7 @@ public class ProviderService {
 				List<AppointmentType> appointmentTypes = availabilityRange.getValue().getAppointmentTypes();
 
 				if (appointmentTypes.size() == 0) {
-					getLogger().warn("No appointment types available for range with logical availability ID {}; we should not see this scenario",
+					logger.warn("No appointment types available for range with logical availability ID {}; we should not see this scenario",
 							availabilityRange.getValue().getLogicalAvailabilityId());
 					continue;
 				}
@@ -1920,8 +2030,8 @@ public class ProviderService {
 	}
 
 	@Nonnull
-	protected <K, V> List<V> requiredValues(@Nonnull Map<K, List<V>> valuesByKey,
-																					@Nonnull K key) {
+	protected static <K, V> List<V> requiredValues(@Nonnull Map<K, List<V>> valuesByKey,
+																								 @Nonnull K key) {
 		requireNonNull(valuesByKey);
 		requireNonNull(key);
 
@@ -1929,9 +2039,9 @@ public class ProviderService {
 		return values == null ? new ArrayList<>() : values;
 	}
 
-	protected <K, V> void addToValues(@Nonnull Map<K, List<V>> valuesByKey,
-																		@Nonnull K key,
-																		@Nonnull V value) {
+	protected static <K, V> void addToValues(@Nonnull Map<K, List<V>> valuesByKey,
+																					 @Nonnull K key,
+																					 @Nonnull V value) {
 		requireNonNull(valuesByKey);
 		requireNonNull(key);
 		requireNonNull(value);
@@ -2816,6 +2926,16 @@ public class ProviderService {
 		return acuitySchedulingClient;
 	}
 
+	@Nonnull
+	protected Integer getAutocompleteResultLimit() {
+		return AUTOCOMPLETE_RESULT_LIMIT;
+	}
+
+	@Nonnull
+	protected Double getAutocompleteWordSimilarityThreshold() {
+		return AUTOCOMPLETE_WORD_SIMILARITY_THRESHOLD;
+	}
+
 	@Nonnull
 	protected AcuitySchedulingCache getAcuitySchedulingCache() {
 		return acuitySchedulingCache;
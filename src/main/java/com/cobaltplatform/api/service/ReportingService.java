@@ -118,6 +118,8 @@ public class ReportingService {
 	@Nonnull
 	private final Provider<AuthorizationService> authorizationServiceProvider;
 	@Nonnull
+	private final Provider<AnalyticsService> analyticsServiceProvider;
+	@Nonnull
 	private final DatabaseProvider databaseProvider;
 	@Nonnull
 	private final Strings strings;
@@ -133,6 +135,7 @@ public class ReportingService {
 													@Nonnull Provider<AccountService> accountServiceProvider,
 													@Nonnull Provider<GroupSessionService> groupSessionServiceProvider,
 													@Nonnull Provider<AuthorizationService> authorizationServiceProvider,
+													@Nonnull Provider<AnalyticsService> analyticsServiceProvider,
 													@Nonnull DatabaseProvider databaseProvider,
 													@Nonnull Strings strings,
 													@Nonnull Formatter formatter,
@@ -141,6 +144,7 @@ public class ReportingService {
 		requireNonNull(accountServiceProvider);
 		requireNonNull(groupSessionServiceProvider);
 		requireNonNull(authorizationServiceProvider);
+		requireNonNull(analyticsServiceProvider);
 		requireNonNull(databaseProvider);
 		requireNonNull(strings);
 		requireNonNull(formatter);
@@ -150,6 +154,7 @@ public class ReportingService {
 		this.accountServiceProvider = accountServiceProvider;
 		this.groupSessionServiceProvider = groupSessionServiceProvider;
 		this.authorizationServiceProvider = authorizationServiceProvider;
+		this.analyticsServiceProvider = analyticsServiceProvider;
 		this.databaseProvider = databaseProvider;
 		this.strings = strings;
 		this.logger = LoggerFactory.getLogger(getClass());
@@ -1544,6 +1549,7 @@ public class ReportingService {
 						WHERE ane.institution_id = ?
 							AND ane.timestamp >= ?
 							AND ane.timestamp <= ?
+							AND ane.created >= ?
 							AND ane.analytics_native_event_type_id IN (?, ?)
 							AND ane.analytics_native_event_type_id <> ?
 							AND ane.account_id IS NULL
@@ -1558,7 +1564,7 @@ public class ReportingService {
 							)
 						ORDER BY ane.timestamp
 						""", AdminAnalyticsSignInPageviewNoAccountReportRecord.class, institutionId, startInstant, endInstant,
-				AnalyticsNativeEventTypeId.PAGE_VIEW_SIGN_IN, AnalyticsNativeEventTypeId.PAGE_VIEW_SIGN_IN_EMAIL,
+				getAnalyticsService().analyticsNativeEventCreatedLowerBoundForTimestamp(startInstant), AnalyticsNativeEventTypeId.PAGE_VIEW_SIGN_IN, AnalyticsNativeEventTypeId.PAGE_VIEW_SIGN_IN_EMAIL,
 				AnalyticsNativeEventTypeId.HEARTBEAT);
 
 		DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM, FormatStyle.SHORT)
@@ -2081,6 +2087,7 @@ public class ReportingService {
 							WHERE ane.institution_id = ?
 								AND ane.timestamp >= ?
 								AND ane.timestamp <= ?
+								AND ane.created >= ?
 								AND ane.account_id IS NOT NULL
 								AND ane.ip_address IS NOT NULL
 							GROUP BY ane.account_id, ane.ip_address
@@ -2132,7 +2139,8 @@ public class ReportingService {
 						LEFT JOIN ip_geolocation ipg
 							ON ipg.ip_address = eia.ip_address_inet
 						ORDER BY eia.last_analytics_event_at DESC, a.created DESC, a.account_id, eia.ip_address
-						""", AccountGeolocationReportRecord.class, institutionId, startInstant, endInstant, institutionId);
+						""", AccountGeolocationReportRecord.class, institutionId, startInstant, endInstant,
+				getAnalyticsService().analyticsNativeEventCreatedLowerBoundForTimestamp(startInstant), institutionId);
 
 		DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM, FormatStyle.SHORT)
 				.withZone(institutionTimeZone)
@@ -6532,6 +6540,11 @@ public class ReportingService {
 		return this.institutionServiceProvider.get();
 	}
 
+	@Nonnull
+	protected AnalyticsService getAnalyticsService() {
+		return this.analyticsServiceProvider.get();
+	}
+
 	@Nonnull
 	protected AccountService getAccountService() {
 		return this.accountServiceProvider.get();
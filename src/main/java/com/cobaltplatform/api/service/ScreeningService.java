@@ -145,10 +145,12 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -156,6 +158,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -296,6 +299,27 @@ public class ScreeningService {
 				ScreeningSession.class, screeningSessionId);
 	}
 
+	@Nonnull
+	public Map<UUID, ScreeningSession> findScreeningSessionsByIds(@Nonnull Set<UUID> screeningSessionIds) {
+		requireNonNull(screeningSessionIds);
+
+		if (screeningSessionIds.isEmpty())
+			return Map.of();
+
+		List<ScreeningSession> screeningSessions = getDatabase().queryForList("""
+				SELECT *
+				FROM screening_session
+				WHERE screening_session_id = ANY (CAST(? AS UUID[]))
+				""", ScreeningSession.class, (Object) screeningSessionIds.toArray(new UUID[0]));
+
+		Map<UUID, ScreeningSession> screeningSessionsById = new LinkedHashMap<>(screeningSessions.size());
+
+		for (ScreeningSession screeningSession : screeningSessions)
+			screeningSessionsById.put(screeningSession.getScreeningSessionId(), screeningSession);
+
+		return screeningSessionsById;
+	}
+
 	@Nonnull
 	public Optional<ScreeningSessionScreening> findScreeningSessionScreeningById(@Nullable UUID screeningSessionScreeningId) {
 		if (screeningSessionScreeningId == null)
@@ -2874,30 +2898,157 @@ public class ScreeningService {
 		if (screeningSession == null)
 			return Optional.empty();
 
-		ScreeningFlowVersion screeningFlowVersion = findScreeningFlowVersionById(screeningSession.getScreeningFlowVersionId()).get();
-		ScreeningFlow screeningFlow = findScreeningFlowById(screeningFlowVersion.getScreeningFlowId()).get();
-		List<ScreeningSessionScreening> screeningSessionScreenings = findCurrentScreeningSessionScreeningsByScreeningSessionId(screeningSession.getScreeningSessionId());
-		List<ScreeningSessionScreeningResult> screeningSessionScreeningResults = new ArrayList<>();
+		return Optional.ofNullable(findScreeningSessionResultsByScreeningSessions(List.of(screeningSession))
+				.get(screeningSession.getScreeningSessionId()));
+	}
 
-		for (ScreeningSessionScreening screeningSessionScreening : screeningSessionScreenings) {
-			ScreeningVersion screeningVersion = findScreeningVersionById(screeningSessionScreening.getScreeningVersionId()).get();
-			Screening screening = findScreeningById(screeningVersion.getScreeningId()).get();
-			ScreeningScore screeningScore = screeningSessionScreening.getScoreAsObject().get();
-			List<ScreeningQuestionWithAnswerOptions> screeningQuestionsWithAnswerOptions = findScreeningQuestionsWithAnswerOptionsByScreeningSessionScreeningId(screeningSessionScreening.getScreeningSessionScreeningId());
-			List<ScreeningSessionAnsweredScreeningQuestion> screeningSessionAnsweredScreeningQuestions = findScreeningSessionAnsweredScreeningQuestionsByScreeningSessionScreeningId(screeningSessionScreening.getScreeningSessionScreeningId());
-			List<ScreeningQuestionResult> screeningQuestionResults = new ArrayList<>();
+	/**
+	 * Builds results for all of the given sessions with a fixed number of queries, regardless of how many sessions,
+	 * screenings, questions or answers are involved.
+	 *
+	 * @return results keyed by screening session ID
+	 */
+	@Nonnull
+	public Map<UUID, ScreeningSessionResult> findScreeningSessionResultsByScreeningSessions(@Nonnull Collection<ScreeningSession> screeningSessions) {
+		requireNonNull(screeningSessions);
 
-			for (ScreeningSessionAnsweredScreeningQuestion screeningSessionAnsweredScreeningQuestion : screeningSessionAnsweredScreeningQuestions) {
-				for (ScreeningQuestionWithAnswerOptions screeningQuestionWithAnswerOptions : screeningQuestionsWithAnswerOptions) {
-					ScreeningQuestion screeningQuestion = screeningQuestionWithAnswerOptions.getScreeningQuestion();
-					List<ScreeningAnswerOption> screeningAnswerOptions = screeningQuestionWithAnswerOptions.getScreeningAnswerOptions();
-					List<ScreeningAnswerResult> screeningAnswerResults = new ArrayList<>();
+		if (screeningSessions.isEmpty())
+			return Map.of();
 
-					if (screeningQuestion.getScreeningQuestionId().equals(screeningSessionAnsweredScreeningQuestion.getScreeningQuestionId())) {
-						List<ScreeningAnswer> screeningAnswers = findScreeningAnswersByScreeningQuestionContextId(
-								new ScreeningQuestionContextId(screeningSessionScreening.getScreeningSessionScreeningId(), screeningQuestionWithAnswerOptions.getScreeningQuestion().getScreeningQuestionId()));
+		Set<UUID> screeningSessionIds = screeningSessions.stream()
+				.map(ScreeningSession::getScreeningSessionId)
+				.collect(Collectors.toSet());
+		Set<UUID> screeningFlowVersionIds = screeningSessions.stream()
+				.map(ScreeningSession::getScreeningFlowVersionId)
+				.collect(Collectors.toSet());
 
-						for (ScreeningAnswerOption potentialScreeningAnswerOption : screeningAnswerOptions) {
+		Map<UUID, ScreeningFlowVersion> screeningFlowVersionsById = getDatabase().queryForList("""
+				SELECT *
+				FROM screening_flow_version
+				WHERE screening_flow_version_id = ANY (CAST(? AS UUID[]))
+				""", ScreeningFlowVersion.class, (Object) screeningFlowVersionIds.toArray(new UUID[0])).stream()
+				.collect(Collectors.toMap(ScreeningFlowVersion::getScreeningFlowVersionId, Function.identity()));
+
+		Map<UUID, ScreeningFlow> screeningFlowsById = getDatabase().queryForList("""
+				SELECT *
+				FROM screening_flow
+				WHERE screening_flow_id = ANY (CAST(? AS UUID[]))
+				""", ScreeningFlow.class, (Object) screeningFlowVersionsById.values().stream()
+				.map(ScreeningFlowVersion::getScreeningFlowId)
+				.distinct()
+				.toArray(UUID[]::new)).stream()
+				.collect(Collectors.toMap(ScreeningFlow::getScreeningFlowId, Function.identity()));
+
+		List<ScreeningSessionScreening> screeningSessionScreenings = getDatabase().queryForList("""
+				SELECT *
+				FROM v_screening_session_screening
+				WHERE screening_session_id = ANY (CAST(? AS UUID[]))
+				ORDER BY screening_order
+				""", ScreeningSessionScreening.class, (Object) screeningSessionIds.toArray(new UUID[0]));
+
+		UUID[] screeningSessionScreeningIds = screeningSessionScreenings.stream()
+				.map(ScreeningSessionScreening::getScreeningSessionScreeningId)
+				.toArray(UUID[]::new);
+		UUID[] screeningVersionIds = screeningSessionScreenings.stream()
+				.map(ScreeningSessionScreening::getScreeningVersionId)
+				.distinct()
+				.toArray(UUID[]::new);
+
+		Map<UUID, ScreeningVersion> screeningVersionsById = new HashMap<>();
+		Map<UUID, Screening> screeningsById = new HashMap<>();
+		Map<UUID, List<ScreeningQuestion>> screeningQuestionsByScreeningVersionId = new HashMap<>();
+		Map<UUID, List<ScreeningAnswerOption>> screeningAnswerOptionsByScreeningQuestionId = new HashMap<>();
+		Map<UUID, List<ScreeningSessionAnsweredScreeningQuestion>> answeredScreeningQuestionsByScreeningSessionScreeningId = new HashMap<>();
+		Map<UUID, List<ScreeningAnswer>> screeningAnswersByScreeningSessionAnsweredScreeningQuestionId = new HashMap<>();
+
+		if (screeningSessionScreenings.size() > 0) {
+			for (ScreeningVersion screeningVersion : getDatabase().queryForList("""
+					SELECT *
+					FROM screening_version
+					WHERE screening_version_id = ANY (CAST(? AS UUID[]))
+					""", ScreeningVersion.class, (Object) screeningVersionIds))
+				screeningVersionsById.put(screeningVersion.getScreeningVersionId(), screeningVersion);
+
+			for (Screening screening : getDatabase().queryForList("""
+					SELECT *
+					FROM screening
+					WHERE screening_id = ANY (CAST(? AS UUID[]))
+					""", Screening.class, (Object) screeningVersionsById.values().stream()
+					.map(ScreeningVersion::getScreeningId)
+					.distinct()
+					.toArray(UUID[]::new)))
+				screeningsById.put(screening.getScreeningId(), screening);
+
+			for (ScreeningQuestion screeningQuestion : getDatabase().queryForList("""
+					SELECT *
+					FROM screening_question
+					WHERE screening_version_id = ANY (CAST(? AS UUID[]))
+					ORDER BY display_order
+					""", ScreeningQuestion.class, (Object) screeningVersionIds))
+				screeningQuestionsByScreeningVersionId.computeIfAbsent(screeningQuestion.getScreeningVersionId(), ignored -> new ArrayList<>()).add(screeningQuestion);
+
+			for (ScreeningAnswerOption screeningAnswerOption : getDatabase().queryForList("""
+					SELECT sao.*
+					FROM screening_answer_option sao, screening_question sq
+					WHERE sao.screening_question_id=sq.screening_question_id
+					AND sq.screening_version_id = ANY (CAST(? AS UUID[]))
+					ORDER BY sao.display_order
+					""", ScreeningAnswerOption.class, (Object) screeningVersionIds))
+				screeningAnswerOptionsByScreeningQuestionId.computeIfAbsent(screeningAnswerOption.getScreeningQuestionId(), ignored -> new ArrayList<>()).add(screeningAnswerOption);
+
+			for (ScreeningSessionAnsweredScreeningQuestion screeningSessionAnsweredScreeningQuestion : getDatabase().queryForList("""
+					SELECT ssasq.*
+					FROM v_screening_session_answered_screening_question ssasq, screening_question sq
+					WHERE ssasq.screening_session_screening_id = ANY (CAST(? AS UUID[]))
+					AND ssasq.screening_question_id=sq.screening_question_id
+					ORDER BY sq.display_order
+					""", ScreeningSessionAnsweredScreeningQuestion.class, (Object) screeningSessionScreeningIds))
+				answeredScreeningQuestionsByScreeningSessionScreeningId.computeIfAbsent(screeningSessionAnsweredScreeningQuestion.getScreeningSessionScreeningId(), ignored -> new ArrayList<>()).add(screeningSessionAnsweredScreeningQuestion);
+
+			for (ScreeningAnswer screeningAnswer : getDatabase().queryForList("""
+					SELECT sa.*
+					FROM v_screening_session_answered_screening_question ssasq, screening_answer_option sao, v_screening_answer sa
+					WHERE ssasq.screening_session_screening_id = ANY (CAST(? AS UUID[]))
+					AND sao.screening_question_id=ssasq.screening_question_id
+					AND sa.screening_answer_option_id=sao.screening_answer_option_id
+					AND sa.screening_session_answered_screening_question_id=ssasq.screening_session_answered_screening_question_id
+					ORDER BY sa.created, sa.screening_answer_id
+					""", ScreeningAnswer.class, (Object) screeningSessionScreeningIds))
+				screeningAnswersByScreeningSessionAnsweredScreeningQuestionId.computeIfAbsent(screeningAnswer.getScreeningSessionAnsweredScreeningQuestionId(), ignored -> new ArrayList<>()).add(screeningAnswer);
+		}
+
+		Map<UUID, List<ScreeningSessionScreening>> screeningSessionScreeningsByScreeningSessionId = new HashMap<>();
+
+		for (ScreeningSessionScreening screeningSessionScreening : screeningSessionScreenings)
+			screeningSessionScreeningsByScreeningSessionId.computeIfAbsent(screeningSessionScreening.getScreeningSessionId(), ignored -> new ArrayList<>()).add(screeningSessionScreening);
+
+		Map<UUID, ScreeningSessionResult> screeningSessionResultsByScreeningSessionId = new LinkedHashMap<>(screeningSessions.size());
+
+		for (ScreeningSession screeningSession : screeningSessions) {
+			ScreeningFlowVersion screeningFlowVersion = screeningFlowVersionsById.get(screeningSession.getScreeningFlowVersionId());
+			ScreeningFlow screeningFlow = screeningFlowsById.get(screeningFlowVersion.getScreeningFlowId());
+			List<ScreeningSessionScreeningResult> screeningSessionScreeningResults = new ArrayList<>();
+
+			for (ScreeningSessionScreening screeningSessionScreening : screeningSessionScreeningsByScreeningSessionId.getOrDefault(screeningSession.getScreeningSessionId(), List.of())) {
+				ScreeningVersion screeningVersion = screeningVersionsById.get(screeningSessionScreening.getScreeningVersionId());
+				Screening screening = screeningsById.get(screeningVersion.getScreeningId());
+				ScreeningScore screeningScore = screeningSessionScreening.getScoreAsObject().get();
+				List<ScreeningQuestionResult> screeningQuestionResults = new ArrayList<>();
+
+				for (ScreeningSessionAnsweredScreeningQuestion screeningSessionAnsweredScreeningQuestion : answeredScreeningQuestionsByScreeningSessionScreeningId.getOrDefault(screeningSessionScreening.getScreeningSessionScreeningId(), List.of())) {
+					for (ScreeningQuestion screeningQuestion : screeningQuestionsByScreeningVersionId.getOrDefault(screeningVersion.getScreeningVersionId(), List.of())) {
+						if (!screeningQuestion.getScreeningQuestionId().equals(screeningSessionAnsweredScreeningQuestion.getScreeningQuestionId()))
+							continue;
+
+						// Answers to this question in this screening, across however many times it was answered
+						List<ScreeningAnswer> screeningAnswers = answeredScreeningQuestionsByScreeningSessionScreeningId.get(screeningSessionScreening.getScreeningSessionScreeningId()).stream()
+								.filter(answeredScreeningQuestion -> answeredScreeningQuestion.getScreeningQuestionId().equals(screeningQuestion.getScreeningQuestionId()))
+								.flatMap(answeredScreeningQuestion -> screeningAnswersByScreeningSessionAnsweredScreeningQuestionId.getOrDefault(answeredScreeningQuestion.getScreeningSessionAnsweredScreeningQuestionId(), List.of()).stream())
+								.sorted(Comparator.comparing(ScreeningAnswer::getCreated).thenComparing(ScreeningAnswer::getScreeningAnswerId))
+								.collect(Collectors.toList());
+						List<ScreeningAnswerResult> screeningAnswerResults = new ArrayList<>();
+
+						for (ScreeningAnswerOption potentialScreeningAnswerOption : screeningAnswerOptionsByScreeningQuestionId.getOrDefault(screeningQuestion.getScreeningQuestionId(), List.of())) {
 							for (ScreeningAnswer screeningAnswer : screeningAnswers) {
 								if (screeningAnswer.getScreeningAnswerOptionId().equals(potentialScreeningAnswerOption.getScreeningAnswerOptionId())) {
 									ScreeningAnswerResult screeningAnswerResult = new ScreeningAnswerResult();
@@ -2921,29 +3072,31 @@ public class ScreeningService {
 						screeningQuestionResults.add(screeningQuestionResult);
 					}
 				}
+
+				ScreeningSessionScreeningResult screeningSessionScreeningResult = new ScreeningSessionScreeningResult();
+				screeningSessionScreeningResult.setScreeningId(screening.getScreeningId());
+				screeningSessionScreeningResult.setScreeningName(screening.getName());
+				screeningSessionScreeningResult.setScreeningScore(screeningScore);
+				screeningSessionScreeningResult.setScreeningVersionNumber(screeningVersion.getVersionNumber());
+				screeningSessionScreeningResult.setScreeningTypeId(screeningVersion.getScreeningTypeId());
+				screeningSessionScreeningResult.setScreeningVersionId(screeningVersion.getScreeningVersionId());
+				screeningSessionScreeningResult.setBelowScoringThreshold(screeningSessionScreening.getBelowScoringThreshold());
+				screeningSessionScreeningResult.setScreeningQuestionResults(screeningQuestionResults);
+
+				screeningSessionScreeningResults.add(screeningSessionScreeningResult);
 			}
 
-			ScreeningSessionScreeningResult screeningSessionScreeningResult = new ScreeningSessionScreeningResult();
-			screeningSessionScreeningResult.setScreeningId(screening.getScreeningId());
-			screeningSessionScreeningResult.setScreeningName(screening.getName());
-			screeningSessionScreeningResult.setScreeningScore(screeningScore);
-			screeningSessionScreeningResult.setScreeningVersionNumber(screeningVersion.getVersionNumber());
-			screeningSessionScreeningResult.setScreeningTypeId(screeningVersion.getScreeningTypeId());
-			screeningSessionScreeningResult.setScreeningVersionId(screeningVersion.getScreeningVersionId());
-			screeningSessionScreeningResult.setBelowScoringThreshold(screeningSessionScreening.getBelowScoringThreshold());
-			screeningSessionScreeningResult.setScreeningQuestionResults(screeningQuestionResults);
+			ScreeningSessionResult screeningSessionResult = new ScreeningSessionResult();
+			screeningSessionResult.setScreeningFlowId(screeningFlow.getScreeningFlowId());
+			screeningSessionResult.setScreeningFlowName(screeningFlow.getName());
+			screeningSessionResult.setScreeningFlowVersionId(screeningFlowVersion.getScreeningFlowVersionId());
+			screeningSessionResult.setScreeningFlowVersionNumber(screeningFlowVersion.getVersionNumber());
+			screeningSessionResult.setScreeningSessionScreeningResults(screeningSessionScreeningResults);
 
-			screeningSessionScreeningResults.add(screeningSessionScreeningResult);
+			screeningSessionResultsByScreeningSessionId.put(screeningSession.getScreeningSessionId(), screeningSessionResult);
 		}
 
-		ScreeningSessionResult screeningSessionResult = new ScreeningSessionResult();
-		screeningSessionResult.setScreeningFlowId(screeningFlow.getScreeningFlowId());
-		screeningSessionResult.setScreeningFlowName(screeningFlow.getName());
-		screeningSessionResult.setScreeningFlowVersionId(screeningFlowVersion.getScreeningFlowVersionId());
-		screeningSessionResult.setScreeningFlowVersionNumber(screeningFlowVersion.getVersionNumber());
-		screeningSessionResult.setScreeningSessionScreeningResults(screeningSessionScreeningResults);
-
-		return Optional.of(screeningSessionResult);
+		return screeningSessionResultsByScreeningSessionId;
 	}
 
 	@Nonnull
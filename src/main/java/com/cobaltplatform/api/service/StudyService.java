@@ -24,6 +24,7 @@ import com.cobaltplatform.api.Configuration;
 import com.cobaltplatform.api.context.CurrentContext;
 import com.cobaltplatform.api.context.CurrentContextExecutor;
 import com.cobaltplatform.api.error.ErrorReporter;
+import com.cobaltplatform.api.integration.beiwe.BeiweCryptoManager;
 import com.cobaltplatform.api.messaging.push.PushMessage;
 import com.cobaltplatform.api.messaging.push.PushMessageTemplate;
 import com.cobaltplatform.api.model.api.request.CreateAccountCheckInActionFileUploadRequest;
@@ -31,6 +32,7 @@ import com.cobaltplatform.api.model.api.request.CreateAccountRequest;
 import com.cobaltplatform.api.model.api.request.CreateFileUploadRequest;
 import com.cobaltplatform.api.model.api.request.CreateScheduledMessageRequest;
 import com.cobaltplatform.api.model.api.request.CreateStudyAccountRequest;
+import com.cobaltplatform.api.model.api.request.CreateStudyExportRequest;
 import com.cobaltplatform.api.model.api.request.CreateStudyFileUploadRequest;
 import com.cobaltplatform.api.model.api.request.UpdateAccountStudyPreferences;
 import com.cobaltplatform.api.model.api.request.UpdateCheckInAction;
@@ -53,16 +55,27 @@ import com.cobaltplatform.api.model.db.StudyBeiweConfig;
 import com.cobaltplatform.api.model.db.StudyCheckIn;
 import com.cobaltplatform.api.model.db.StudyCheckInAction;
 import com.cobaltplatform.api.model.db.StudyCheckInReminder;
+import com.cobaltplatform.api.model.db.StudyExport;
+import com.cobaltplatform.api.model.db.StudyExportFile;
+import com.cobaltplatform.api.model.db.StudyExportStatus.StudyExportStatusId;
 import com.cobaltplatform.api.model.db.StudyFileUpload;
 import com.cobaltplatform.api.model.service.FileUploadResult;
 import com.cobaltplatform.api.model.service.StudyAccount;
+import com.cobaltplatform.api.model.service.StudyExportSourceFile;
 import com.cobaltplatform.api.util.Authenticator;
+import com.cobaltplatform.api.util.CryptoUtility;
+import com.cobaltplatform.api.util.UploadManager;
 import com.cobaltplatform.api.util.ValidationException;
 import com.cobaltplatform.api.util.ValidationException.FieldError;
 import com.cobaltplatform.api.util.db.DatabaseProvider;
+import com.google.common.io.CountingInputStream;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.lokalized.Strings;
 import com.pyranid.Database;
+import com.pyranid.DatabaseException;
+import com.pyranid.Transaction;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -72,6 +85,17 @@ import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.PrivateKey;
+import java.sql.Savepoint;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -88,10 +112,17 @@ import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import static com.cobaltplatform.api.util.ValidationUtility.isValidUUID;
 import static java.lang.String.format;
@@ -132,12 +163,32 @@ public class StudyService implements AutoCloseable {
 	@Nonnull
 	private static final Long BACKGROUND_TASK_INITIAL_DELAY_IN_SECONDS;
 	@Nonnull
+	private static final Long STUDY_EXPORT_TASK_INTERVAL_IN_SECONDS;
+	@Nonnull
+	private static final Long STUDY_EXPORT_HEARTBEAT_INTERVAL_IN_SECONDS;
+	@Nonnull
+	private static final Long STUDY_EXPORT_STALE_HEARTBEAT_IN_SECONDS;
+	@Nonnull
+	private static final Integer STUDY_EXPORT_PARALLELISM;
+	@Nonnull
+	private static final Integer STUDY_EXPORT_BUFFER_SIZE_IN_BYTES;
+	@Nonnull
 	private final Provider<MessageService> messageServiceProvider;
+	@Nonnull
+	private final UploadManager uploadManager;
+	@Nonnull
+	private final BeiweCryptoManager beiweCryptoManager;
 
 	static {
 		STUDY_FILE_UPLOAD_TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss", Locale.US).withZone(ZoneId.of("UTC"));
 		BACKGROUND_TASK_INTERVAL_IN_SECONDS = 60L;
 		BACKGROUND_TASK_INITIAL_DELAY_IN_SECONDS = 10L;
+		STUDY_EXPORT_TASK_INTERVAL_IN_SECONDS = 30L;
+		STUDY_EXPORT_HEARTBEAT_INTERVAL_IN_SECONDS = 60L;
+		STUDY_EXPORT_STALE_HEARTBEAT_IN_SECONDS = 60L * 10L;
+		// Work is a mix of S3 I/O and RSA/AES decryption, so roughly one worker per core, capped to be a good neighbor
+		STUDY_EXPORT_PARALLELISM = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+		STUDY_EXPORT_BUFFER_SIZE_IN_BYTES = 64 * 1024;
 	}
 
 	@Inject
@@ -147,13 +198,17 @@ public class StudyService implements AutoCloseable {
 											@Nonnull Provider<AccountService> accountServiceProvider,
 											@Nonnull Provider<SystemService> systemServiceProvider,
 											@Nonnull Provider<StudyServiceNotificationTask> studyServiceNotificationTaskProvider,
-											@Nonnull Provider<MessageService> messageServiceProvider) {
+											@Nonnull Provider<MessageService> messageServiceProvider,
+											@Nonnull UploadManager uploadManager,
+											@Nonnull BeiweCryptoManager beiweCryptoManager) {
 		requireNonNull(databaseProvider);
 		requireNonNull(strings);
 		requireNonNull(authenticator);
 		requireNonNull(accountServiceProvider);
 		requireNonNull(systemServiceProvider);
 		requireNonNull(messageServiceProvider);
+		requireNonNull(uploadManager);
+		requireNonNull(beiweCryptoManager);
 
 		this.databaseProvider = databaseProvider;
 		this.strings = strings;
@@ -165,6 +220,8 @@ public class StudyService implements AutoCloseable {
 		this.backgroundTaskLock = new Object();
 		this.backgroundTaskStarted = false;
 		this.messageServiceProvider = messageServiceProvider;
+		this.uploadManager = uploadManager;
+		this.beiweCryptoManager = beiweCryptoManager;
 	}
 
 	@Nonnull
@@ -1063,6 +1120,412 @@ public class StudyService implements AutoCloseable {
 
 	}
 
+	@Nonnull
+	public UUID createStudyExport(@Nonnull CreateStudyExportRequest request) {
+		requireNonNull(request);
+
+		UUID studyId = request.getStudyId();
+		UUID requestedByAccountId = request.getRequestedByAccountId();
+		UUID studyExportId = UUID.randomUUID();
+		ValidationException validationException = new ValidationException();
+
+		if (studyId == null)
+			validationException.add(new FieldError("studyId", getStrings().get("Study ID is required.")));
+		else if (findStudyById(studyId).isEmpty())
+			validationException.add(new FieldError("studyId", getStrings().get("Study ID is invalid.")));
+
+		if (requestedByAccountId == null)
+			validationException.add(new FieldError("requestedByAccountId", getStrings().get("Requested-by account ID is required.")));
+
+		if (validationException.hasErrors())
+			throw validationException;
+
+		// A second export of the same study while one is pending would only duplicate the work.
+		// The partial unique index enforces this even if two requests race, so no count-then-insert check
+		Transaction transaction = getDatabase().currentTransaction().get();
+		Savepoint savepoint = transaction.createSavepoint();
+
+		try {
+			getDatabase().execute("""
+					INSERT INTO study_export (
+					  study_export_id,
+					  study_id,
+					  requested_by_account_id
+					) VALUES (?,?,?)
+					""", studyExportId, studyId, requestedByAccountId);
+		} catch (DatabaseException e) {
+			if ("study_export_pending_study_id_idx".equals(e.constraint().orElse(null))) {
+				transaction.rollback(savepoint);
+				throw new ValidationException(getStrings().get("An export is already in progress for this study."));
+			}
+
+			throw e;
+		}
+
+		return studyExportId;
+	}
+
+	@Nonnull
+	public Optional<StudyExport> findStudyExportById(@Nullable UUID studyExportId) {
+		if (studyExportId == null)
+			return Optional.empty();
+
+		return getDatabase().queryForObject("""
+				SELECT *
+				FROM study_export
+				WHERE study_export_id=?
+				""", StudyExport.class, studyExportId);
+	}
+
+	@Nonnull
+	public List<StudyExport> findStudyExportsByStudyId(@Nullable UUID studyId) {
+		if (studyId == null)
+			return List.of();
+
+		return getDatabase().queryForList("""
+				SELECT *
+				FROM study_export
+				WHERE study_id=?
+				ORDER BY created DESC
+				""", StudyExport.class, studyId);
+	}
+
+	@Nonnull
+	public List<StudyExportFile> findStudyExportFilesByStudyExportId(@Nullable UUID studyExportId) {
+		if (studyExportId == null)
+			return List.of();
+
+		return getDatabase().queryForList("""
+				SELECT *
+				FROM study_export_file
+				WHERE study_export_id=?
+				ORDER BY username, passive_data DESC, storage_key
+				""", StudyExportFile.class, studyExportId);
+	}
+
+	@Nonnull
+	public Optional<String> createStudyExportManifestUrl(@Nullable StudyExport studyExport) {
+		if (studyExport == null || studyExport.getManifestStorageKey() == null)
+			return Optional.empty();
+
+		return Optional.of(getUploadManager().createPresignedViewUrl(studyExport.getManifestStorageKey()));
+	}
+
+	/**
+	 * Claims the oldest queued export (or an in-progress export whose node stopped heartbeating) and runs it to completion.
+	 *
+	 * @return {@code true} if an export was claimed, {@code false} if there was nothing to do
+	 */
+	@Nonnull
+	public Boolean performNextStudyExport() throws InterruptedException {
+		// SKIP LOCKED means concurrent nodes never claim the same export
+		StudyExport studyExport = getDatabase().queryForObject("""
+				UPDATE study_export
+				SET study_export_status_id=?, started_at=COALESCE(started_at, NOW()), heartbeat_at=NOW(),
+				failed_file_count=0, error_message=NULL
+				WHERE study_export_id=(
+				  SELECT study_export_id
+				  FROM study_export
+				  WHERE study_export_status_id=?
+				  OR (study_export_status_id=? AND heartbeat_at < NOW() - make_interval(secs => ?))
+				  ORDER BY created
+				  LIMIT 1
+				  FOR UPDATE SKIP LOCKED
+				)
+				RETURNING *
+				""", StudyExport.class, StudyExportStatusId.IN_PROGRESS, StudyExportStatusId.QUEUED,
+				StudyExportStatusId.IN_PROGRESS, getStudyExportStaleHeartbeatInSeconds()).orElse(null);
+
+		if (studyExport == null)
+			return false;
+
+		try {
+			performStudyExport(studyExport);
+		} catch (InterruptedException e) {
+			// Leave the export IN_PROGRESS - its heartbeat will go stale and it will resume from its checkpoints
+			getLogger().info("Study export ID {} was interrupted and will be resumed later", studyExport.getStudyExportId());
+			throw e;
+		} catch (Exception e) {
+			getLogger().error(format("Study export ID %s failed", studyExport.getStudyExportId()), e);
+
+			getDatabase().execute("""
+					UPDATE study_export
+					SET study_export_status_id=?, error_message=?, completed_at=NOW()
+					WHERE study_export_id=?
+					""", StudyExportStatusId.FAILED, e.getMessage(), studyExport.getStudyExportId());
+		}
+
+		return true;
+	}
+
+	protected void performStudyExport(@Nonnull StudyExport studyExport) throws InterruptedException {
+		requireNonNull(studyExport);
+
+		UUID studyExportId = studyExport.getStudyExportId();
+
+		// Files already checkpointed by an earlier, interrupted run of this export are excluded here
+		List<StudyExportSourceFile> studyExportSourceFiles = findPendingStudyExportSourceFiles(studyExportId, studyExport.getStudyId());
+
+		getDatabase().execute("""
+				UPDATE study_export
+				SET total_file_count=? + (SELECT COUNT(*) FROM study_export_file WHERE study_export_id=? AND exported=TRUE)
+				WHERE study_export_id=?
+				""", studyExportSourceFiles.size(), studyExportId, studyExportId);
+
+		getLogger().info("Starting study export ID {} with {} file[s] remaining...", studyExportId, studyExportSourceFiles.size());
+
+		// Lines within a Beiwe file must be decrypted in order (each file's AES key is in its first line),
+		// so we parallelize across files.  Each worker streams from storage and writes gzipped output to a temporary file,
+		// so memory use is bounded by buffer size regardless of file size
+		Map<UUID, PrivateKey> privateKeysByEncryptionKeypairId = new ConcurrentHashMap<>();
+		ExecutorService studyExportExecutorService = Executors.newFixedThreadPool(getStudyExportParallelism(),
+				new ThreadFactoryBuilder().setNameFormat("study-export-%d").build());
+
+		try {
+			CompletionService<Boolean> completionService = new ExecutorCompletionService<>(studyExportExecutorService);
+
+			for (StudyExportSourceFile studyExportSourceFile : studyExportSourceFiles)
+				completionService.submit(() -> exportStudyExportSourceFile(studyExportId, studyExportSourceFile, privateKeysByEncryptionKeypairId));
+
+			int remainingFileCount = studyExportSourceFiles.size();
+
+			while (remainingFileCount > 0) {
+				Future<Boolean> future = completionService.poll(getStudyExportHeartbeatIntervalInSeconds(), TimeUnit.SECONDS);
+
+				// Large files can take a while - keep heartbeating so the export isn't mistaken for abandoned
+				if (future == null) {
+					getDatabase().execute("UPDATE study_export SET heartbeat_at=NOW() WHERE study_export_id=?", studyExportId);
+					continue;
+				}
+
+				--remainingFileCount;
+
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					// Per-file failures are recorded by the worker; this would be a bug
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+		} finally {
+			studyExportExecutorService.shutdownNow();
+		}
+
+		String manifestStorageKey = writeStudyExportManifest(studyExportId);
+
+		// Counts are recomputed from checkpoints so they're accurate across resumed runs
+		StudyExport completedStudyExport = getDatabase().queryForObject("""
+				UPDATE study_export
+				SET manifest_storage_key=?,
+				exported_file_count=(SELECT COUNT(*) FROM study_export_file WHERE study_export_id=? AND exported=TRUE),
+				failed_file_count=(SELECT COUNT(*) FROM study_export_file WHERE study_export_id=? AND exported=FALSE),
+				source_byte_count=(SELECT COALESCE(SUM(source_byte_count), 0) FROM study_export_file WHERE study_export_id=? AND exported=TRUE),
+				exported_byte_count=(SELECT COALESCE(SUM(exported_byte_count), 0) FROM study_export_file WHERE study_export_id=? AND exported=TRUE),
+				heartbeat_at=NOW(), completed_at=NOW()
+				WHERE study_export_id=?
+				RETURNING *
+				""", StudyExport.class, manifestStorageKey, studyExportId, studyExportId, studyExportId, studyExportId, studyExportId).get();
+
+		// Partial exports are still useful - the manifest says which files failed - so only fail if nothing made it
+		boolean failed = completedStudyExport.getFailedFileCount() > 0 && completedStudyExport.getExportedFileCount() == 0;
+
+		getDatabase().execute("""
+				UPDATE study_export
+				SET study_export_status_id=?
+				WHERE study_export_id=?
+				""", failed ? StudyExportStatusId.FAILED : StudyExportStatusId.COMPLETE, studyExportId);
+
+		getLogger().info("Study export ID {} finished: {} file[s] exported, {} failed, {} source byte[s] written as {} byte[s]", studyExportId,
+				completedStudyExport.getExportedFileCount(), completedStudyExport.getFailedFileCount(),
+				completedStudyExport.getSourceByteCount(), completedStudyExport.getExportedByteCount());
+	}
+
+	@Nonnull
+	protected List<StudyExportSourceFile> findPendingStudyExportSourceFiles(@Nonnull UUID studyExportId,
+																																				 @Nonnull UUID studyId) {
+		requireNonNull(studyExportId);
+		requireNonNull(studyId);
+
+		return getDatabase().queryForList("""
+				SELECT sf.*, ast.encryption_keypair_id
+				FROM (
+				  SELECT file_upload_id, account_study_id, account_username, file_upload_storage_key, file_upload_filename,
+				  file_upload_content_type, file_upload_filesize, file_upload_created, TRUE AS passive_data
+				  FROM v_study_file_upload
+				  WHERE study_id=?
+				  UNION ALL
+				  SELECT file_upload_id, account_study_id, account_username, file_upload_storage_key, file_upload_filename,
+				  file_upload_content_type, file_upload_filesize, file_upload_created, FALSE AS passive_data
+				  FROM v_account_check_in_action_file_upload
+				  WHERE study_id=?
+				) sf, account_study ast
+				WHERE sf.account_study_id=ast.account_study_id
+				AND NOT EXISTS (
+				  SELECT 1
+				  FROM study_export_file sef
+				  WHERE sef.study_export_id=?
+				  AND sef.file_upload_id=sf.file_upload_id
+				  AND sef.exported=TRUE
+				)
+				ORDER BY sf.file_upload_filesize DESC NULLS LAST
+				""", StudyExportSourceFile.class, studyId, studyId, studyExportId);
+	}
+
+	/**
+	 * Exports a single file and checkpoints the result.  Never throws for per-file problems; they are recorded instead.
+	 *
+	 * @return {@code true} if the file was exported, {@code false} if it failed
+	 */
+	@Nonnull
+	protected Boolean exportStudyExportSourceFile(@Nonnull UUID studyExportId,
+																								@Nonnull StudyExportSourceFile studyExportSourceFile,
+																								@Nonnull Map<UUID, PrivateKey> privateKeysByEncryptionKeypairId) {
+		requireNonNull(studyExportId);
+		requireNonNull(studyExportSourceFile);
+		requireNonNull(privateKeysByEncryptionKeypairId);
+
+		boolean passiveData = studyExportSourceFile.getPassiveData();
+		String storageKey = format("study-exports/%s/%s/%s/%s-%s.gz", studyExportId, studyExportSourceFile.getAccountUsername(),
+				passiveData ? "passive" : "active", STUDY_FILE_UPLOAD_TIMESTAMP_FORMATTER.format(studyExportSourceFile.getFileUploadCreated()),
+				studyExportSourceFile.getFileUploadFilename());
+		Path temporaryFile = null;
+
+		try {
+			temporaryFile = Files.createTempFile("study-export-", ".gz");
+			long sourceByteCount;
+
+			try (CountingInputStream sourceInputStream = new CountingInputStream(openStudyExportSourceFile(studyExportSourceFile));
+					 OutputStream exportedOutputStream = new GZIPOutputStream(Files.newOutputStream(temporaryFile), getStudyExportBufferSizeInBytes())) {
+				// Passive sensor data is encrypted on-device; active check-in uploads are stored as-is
+				if (passiveData) {
+					PrivateKey privateKey = privateKeysByEncryptionKeypairId.computeIfAbsent(studyExportSourceFile.getEncryptionKeypairId(),
+							(encryptionKeypairId) -> CryptoUtility.toPrivateKey(getSystemService().findEncryptionKeypairById(encryptionKeypairId).get().getPrivateKeyAsString()));
+
+					getBeiweCryptoManager().decryptBeiweTextFile(sourceInputStream, exportedOutputStream, privateKey);
+				} else {
+					sourceInputStream.transferTo(exportedOutputStream);
+				}
+
+				sourceByteCount = sourceInputStream.getCount();
+			}
+
+			long exportedByteCount = Files.size(temporaryFile);
+
+			uploadStudyExportObject(temporaryFile, storageKey);
+
+			getDatabase().execute("""
+					INSERT INTO study_export_file (
+					  study_export_id,
+					  file_upload_id,
+					  exported,
+					  username,
+					  passive_data,
+					  storage_key,
+					  source_byte_count,
+					  exported_byte_count
+					) VALUES (?,?,TRUE,?,?,?,?,?)
+					ON CONFLICT (study_export_id, file_upload_id) DO UPDATE SET
+					exported=TRUE, storage_key=EXCLUDED.storage_key, source_byte_count=EXCLUDED.source_byte_count,
+					exported_byte_count=EXCLUDED.exported_byte_count, error_message=NULL
+					""", studyExportId, studyExportSourceFile.getFileUploadId(), studyExportSourceFile.getAccountUsername(),
+					passiveData, storageKey, sourceByteCount, exportedByteCount);
+
+			getDatabase().execute("""
+					UPDATE study_export
+					SET exported_file_count=exported_file_count + 1, source_byte_count=source_byte_count + ?,
+					exported_byte_count=exported_byte_count + ?, heartbeat_at=NOW()
+					WHERE study_export_id=?
+					""", sourceByteCount, exportedByteCount, studyExportId);
+
+			return true;
+		} catch (Exception e) {
+			getLogger().warn(format("Unable to export file upload ID %s for study export ID %s",
+					studyExportSourceFile.getFileUploadId(), studyExportId), e);
+
+			getDatabase().execute("""
+					INSERT INTO study_export_file (
+					  study_export_id,
+					  file_upload_id,
+					  exported,
+					  username,
+					  passive_data,
+					  error_message
+					) VALUES (?,?,FALSE,?,?,?)
+					ON CONFLICT (study_export_id, file_upload_id) DO UPDATE SET
+					exported=FALSE, error_message=EXCLUDED.error_message
+					""", studyExportId, studyExportSourceFile.getFileUploadId(), studyExportSourceFile.getAccountUsername(),
+					passiveData, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+
+			getDatabase().execute("""
+					UPDATE study_export
+					SET failed_file_count=failed_file_count + 1, heartbeat_at=NOW()
+					WHERE study_export_id=?
+					""", studyExportId);
+
+			return false;
+		} finally {
+			if (temporaryFile != null) {
+				try {
+					Files.deleteIfExists(temporaryFile);
+				} catch (IOException e) {
+					getLogger().warn(format("Unable to delete temporary file %s", temporaryFile), e);
+				}
+			}
+		}
+	}
+
+	@Nonnull
+	protected String writeStudyExportManifest(@Nonnull UUID studyExportId) {
+		requireNonNull(studyExportId);
+
+		String manifestStorageKey = format("study-exports/%s/manifest.csv.gz", studyExportId);
+		Path temporaryFile = null;
+
+		try {
+			temporaryFile = Files.createTempFile("study-export-manifest-", ".csv.gz");
+
+			CSVFormat csvFormat = CSVFormat.DEFAULT.withHeader("Username", "Data Type", "File Upload ID", "Status",
+					"Storage Key", "Source Bytes", "Exported Bytes", "Error");
+
+			try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(temporaryFile)), StandardCharsets.UTF_8);
+					 CSVPrinter csvPrinter = new CSVPrinter(writer, csvFormat)) {
+				for (StudyExportFile studyExportFile : findStudyExportFilesByStudyExportId(studyExportId))
+					csvPrinter.printRecord(studyExportFile.getUsername(), studyExportFile.getPassiveData() ? "Passive" : "Active",
+							studyExportFile.getFileUploadId(), studyExportFile.getExported() ? "Exported" : "Failed",
+							studyExportFile.getStorageKey(), studyExportFile.getSourceByteCount(),
+							studyExportFile.getExportedByteCount(), studyExportFile.getErrorMessage());
+			}
+
+			uploadStudyExportObject(temporaryFile, manifestStorageKey);
+
+			return manifestStorageKey;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			if (temporaryFile != null) {
+				try {
+					Files.deleteIfExists(temporaryFile);
+				} catch (IOException e) {
+					getLogger().warn(format("Unable to delete temporary file %s", temporaryFile), e);
+				}
+			}
+		}
+	}
+
+	@Nonnull
+	protected InputStream openStudyExportSourceFile(@Nonnull StudyExportSourceFile studyExportSourceFile) {
+		requireNonNull(studyExportSourceFile);
+		return getSystemService().openFileUpload(studyExportSourceFile.getFileUploadId(), null);
+	}
+
+	protected void uploadStudyExportObject(@Nonnull Path file,
+																				 @Nonnull String storageKey) {
+		requireNonNull(file);
+		requireNonNull(storageKey);
+
+		getUploadManager().uploadFileToStorageKey(file, storageKey, "application/gzip");
+	}
+
 	@Override
 	public void close() throws Exception {
 		stopBackgroundTask();
@@ -1076,7 +1539,8 @@ public class StudyService implements AutoCloseable {
 
 			getLogger().trace("Starting Study Service background task...");
 
-			this.backgroundTaskExecutorService = Executors.newScheduledThreadPool(1, new ThreadFactoryBuilder().setNameFormat("study-service-background-task").build());
+			// Separate threads so a long-running export does not hold up check-in notifications
+			this.backgroundTaskExecutorService = Executors.newScheduledThreadPool(2, new ThreadFactoryBuilder().setNameFormat("study-service-background-task-%d").build());
 			this.backgroundTaskStarted = true;
 			getBackgroundTaskExecutorService().get().scheduleWithFixedDelay(new Runnable() {
 				@Override
@@ -1089,6 +1553,21 @@ public class StudyService implements AutoCloseable {
 				}
 			}, getBackgroundTaskInitialDelayInSeconds(), getBackgroundTaskIntervalInSeconds(), TimeUnit.SECONDS);
 
+			getBackgroundTaskExecutorService().get().scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						// Drain the queue, one export at a time
+						while (performNextStudyExport())
+							;
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					} catch (Exception e) {
+						getLogger().warn(format("Unable to complete study export task - will retry in %s seconds", String.valueOf(getStudyExportTaskIntervalInSeconds())), e);
+					}
+				}
+			}, getBackgroundTaskInitialDelayInSeconds(), getStudyExportTaskIntervalInSeconds(), TimeUnit.SECONDS);
+
 			getLogger().trace("Study Service background task started.");
 
 			return true;
@@ -1323,4 +1802,39 @@ public class StudyService implements AutoCloseable {
 	protected MessageService getMessageService() {
 		return this.messageServiceProvider.get();
 	}
+
+	@Nonnull
+	protected UploadManager getUploadManager() {
+		return this.uploadManager;
+	}
+
+	@Nonnull
+	protected BeiweCryptoManager getBeiweCryptoManager() {
+		return this.beiweCryptoManager;
+	}
+
+	@Nonnull
+	protected Long getStudyExportTaskIntervalInSeconds() {
+		return STUDY_EXPORT_TASK_INTERVAL_IN_SECONDS;
+	}
+
+	@Nonnull
+	protected Long getStudyExportHeartbeatIntervalInSeconds() {
+		return STUDY_EXPORT_HEARTBEAT_INTERVAL_IN_SECONDS;
+	}
+
+	@Nonnull
+	protected Long getStudyExportStaleHeartbeatInSeconds() {
+		return STUDY_EXPORT_STALE_HEARTBEAT_IN_SECONDS;
+	}
+
+	@Nonnull
+	protected Integer getStudyExportParallelism() {
+		return STUDY_EXPORT_PARALLELISM;
+	}
+
+	@Nonnull
+	protected Integer getStudyExportBufferSizeInBytes() {
+		return STUDY_EXPORT_BUFFER_SIZE_IN_BYTES;
+	}
 }
@@ -21,6 +21,9 @@ package com.cobaltplatform.api.service;
 
 import com.cobaltplatform.api.Configuration;
 import com.cobaltplatform.api.context.CurrentContext;
+import com.cobaltplatform.api.context.CurrentContextExecutor;
+import com.cobaltplatform.api.context.Deadline;
+import com.cobaltplatform.api.context.DeadlineExceededException;
 import com.cobaltplatform.api.integration.acuity.AcuitySyncManager;
 import com.cobaltplatform.api.integration.common.ProviderAvailabilitySyncManager;
 import com.cobaltplatform.api.integration.enterprise.EnterprisePlugin;
@@ -53,6 +56,7 @@ import com.cobaltplatform.api.model.service.FileUploadResult;
 import com.cobaltplatform.api.model.service.PresignedUpload;
 import com.cobaltplatform.api.util.CryptoUtility;
 import com.cobaltplatform.api.util.UploadManager;
+import com.cobaltplatform.api.util.UploadManager.StoredFileInputStream;
 import com.cobaltplatform.api.util.ValidationException;
 import com.cobaltplatform.api.util.ValidationException.FieldError;
 import com.cobaltplatform.api.util.ValidationUtility;
@@ -81,6 +85,7 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.UncheckedIOException;
 import java.security.KeyPair;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -97,6 +102,8 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -110,6 +117,9 @@ import static org.apache.commons.lang3.StringUtils.trimToNull;
 @Singleton
 @ThreadSafe
 public class SystemService {
+	@Nonnull
+	private static final Duration WORKER_TERMINATION_TIMEOUT;
+
 	@Nonnull
 	private final DatabaseProvider databaseProvider;
 	@Nonnull
@@ -137,6 +147,11 @@ public class SystemService {
 	@Nonnull
 	private final Logger logger;
 
+	static {
+		// Workers' statements are bounded by their deadline's statement_timeout, so they stop soon after shutdown
+		WORKER_TERMINATION_TIMEOUT = Duration.ofSeconds(60L);
+	}
+
 	@Inject
 	public SystemService(@Nonnull DatabaseProvider databaseProvider,
 											 @Nonnull javax.inject.Provider<CurrentContext> currentContextProvider,
@@ -209,6 +224,115 @@ public class SystemService {
 		return true;
 	}
 
+	/**
+	 * Sets the current transaction's {@code statement_timeout} to whatever time is left on the current context's deadline.
+	 * <p>
+	 * Postgres applies {@code statement_timeout} to each statement independently and the value is not recomputed as time
+	 * passes, so a transaction that runs many statements can overrun its deadline by up to the remaining time captured
+	 * here.  This is safe to call again mid-transaction - long-running loops (e.g. CSV imports) should do so periodically
+	 * to shrink the timeout as the deadline approaches.
+	 *
+	 * @return {@code true} if a statement timeout was applied, {@code false} if there is no transaction, context, or deadline
+	 * @throws DeadlineExceededException if the deadline has already passed
+	 */
+	@Nonnull
+	public Boolean applyDeadlineForCurrentContextToCurrentTransaction() {
+		if (!getDatabase().currentTransaction().isPresent()) {
+			getLogger().warn("There is no open transaction; not applying current deadline as statement timeout");
+			return false;
+		}
+
+		// Background work may run without a current context at all
+		Deadline deadline = CurrentContextExecutor.getCurrentContextForCurrentThread()
+				.flatMap(currentContext -> currentContext.getDeadline())
+				.orElse(null);
+
+		if (deadline == null)
+			return false;
+
+		Duration remaining = deadline.getRemaining();
+
+		if (remaining.isZero())
+			throw new DeadlineExceededException(format("Deadline of %s was exceeded before its statement timeout could be applied", deadline.getTimeout()));
+
+		applyStatementTimeoutToCurrentTransaction(getDatabase(), remaining);
+
+		return true;
+	}
+
+	/**
+	 * Sets {@code database}'s current transaction's {@code statement_timeout} so statements are cancelled once
+	 * {@code deadlineNanoTime} (a {@link System#nanoTime()} value) passes.
+	 * <p>
+	 * For background work with its own deadline rather than the current context's.  Interrupting a worker thread doesn't
+	 * stop a statement Postgres is already running, so this is what actually bounds the worker.  As with
+	 * {@link #applyDeadlineForCurrentContextToCurrentTransaction()}, the timeout is fixed when set, so transactions that
+	 * run many statements should call this again before each batch.
+	 *
+	 * @return {@code true} if a statement timeout was applied, {@code false} if there is no transaction
+	 * @throws DeadlineExceededException if the deadline has already passed
+	 */
+	@Nonnull
+	public Boolean applyDeadlineToCurrentTransaction(@Nonnull Database database,
+																									 @Nonnull Long deadlineNanoTime) {
+		requireNonNull(database);
+		requireNonNull(deadlineNanoTime);
+
+		if (!database.currentTransaction().isPresent()) {
+			getLogger().warn("There is no open transaction; not applying deadline as statement timeout");
+			return false;
+		}
+
+		long remainingNanos = deadlineNanoTime - System.nanoTime();
+
+		if (remainingNanos <= 0)
+			throw new DeadlineExceededException("Deadline was exceeded before its statement timeout could be applied");
+
+		applyStatementTimeoutToCurrentTransaction(database, Duration.ofNanos(remainingNanos));
+
+		return true;
+	}
+
+	protected void applyStatementTimeoutToCurrentTransaction(@Nonnull Database database,
+																													 @Nonnull Duration timeout) {
+		requireNonNull(database);
+		requireNonNull(timeout);
+
+		// Transaction-scoped, same as SET LOCAL, so the pooled connection goes back with its normal timeout
+		database.queryForObject("SELECT set_config('statement_timeout', CAST(? AS TEXT), TRUE)", String.class,
+				String.valueOf(Math.max(1L, timeout.toMillis())));
+	}
+
+	/**
+	 * Interrupts {@code executorService}'s workers and waits for them to stop, for callers that must not carry on
+	 * (e.g. release an advisory lock) while a worker could still be writing.
+	 * <p>
+	 * Call from a {@code finally} block in place of try-with-resources, since {@code ExecutorService} is only
+	 * {@code AutoCloseable} in Java 19+.  Workers blocked on a running statement don't see the interrupt, so their
+	 * transactions should be bounded with {@link #applyDeadlineToCurrentTransaction(Database, Long)}.
+	 *
+	 * @return {@code true} if every worker stopped, {@code false} if some were still running when we gave up waiting
+	 */
+	@Nonnull
+	public Boolean shutdownNowAndAwaitTermination(@Nonnull ExecutorService executorService,
+																								@Nonnull String workerDescription) {
+		requireNonNull(executorService);
+		requireNonNull(workerDescription);
+
+		executorService.shutdownNow();
+
+		try {
+			if (executorService.awaitTermination(WORKER_TERMINATION_TIMEOUT.toSeconds(), TimeUnit.SECONDS))
+				return true;
+
+			getLogger().error("{} did not stop within {} seconds of shutdown", workerDescription, WORKER_TERMINATION_TIMEOUT.toSeconds());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		return false;
+	}
+
 	@Nonnull
 	public Boolean applyFootprintEventGroupToCurrentTransaction(@Nonnull FootprintEventGroupTypeId footprintEventGroupTypeId) {
 		requireNonNull(footprintEventGroupTypeId);
@@ -433,6 +557,36 @@ public class SystemService {
 		return true;
 	}
 
+	/**
+	 * Like {@link #performAdvisoryLockOperationIfAvailable(AdvisoryLock, Runnable)}, but the lock is scoped to the current
+	 * transaction and released automatically on commit/rollback.  Must be called from inside a transaction.
+	 * <p>
+	 * Useful for work that is split across many short transactions, where holding a session-level lock would mean
+	 * holding a single connection open for the duration.
+	 */
+	@Nonnull
+	public Boolean performTransactionAdvisoryLockOperationIfAvailable(@Nonnull AdvisoryLock advisoryLock,
+																																		@Nonnull Runnable runnable) {
+		requireNonNull(advisoryLock);
+		requireNonNull(runnable);
+
+		getLogger().trace("Attempting to acquire transaction advisory lock {} (key {})",
+				advisoryLock.name(), advisoryLock.getKey());
+
+		Boolean lockAcquired = getDatabase().queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+				Boolean.class, advisoryLock.getKey()).get();
+
+		if (!lockAcquired) {
+			getLogger().trace("Advisory lock {} (key {}) has already been acquired, not performing operation.",
+					advisoryLock.name(), advisoryLock.getKey());
+			return false;
+		}
+
+		runnable.run();
+
+		return true;
+	}
+
 	public void syncPastProviderAvailability(@Nonnull InstitutionId institutionId) {
 		requireNonNull(institutionId);
 		syncPastProviderAvailability(institutionId, null);
@@ -767,6 +921,20 @@ public class SystemService {
 		getUploadManager().downloadFileLocatedByStorageKey(fileUpload.getStorageKey(), bufferedOutputStream);
 	}
 
+	// Streaming alternative to the above for large files - the caller must close the returned stream
+	@Nonnull
+	public StoredFileInputStream openFileUpload(@Nonnull UUID fileUploadId,
+																							@Nullable String range) {
+		requireNonNull(fileUploadId);
+
+		FileUpload fileUpload = findFileUploadById(fileUploadId).orElse(null);
+
+		if (fileUpload == null)
+			throw new ValidationException(getStrings().get("File Upload ID is invalid."));
+
+		return getUploadManager().openFileLocatedByStorageKey(fileUpload.getStorageKey(), range);
+	}
+
 	// Convenience method for the above if we need to download the file in-memory
 	@Nonnull
 	public byte[] downloadFileUploadToByteArray(@Nonnull UUID fileUploadId) {
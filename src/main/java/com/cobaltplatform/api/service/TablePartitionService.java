@@ -0,0 +1,466 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.service;
+
+import com.cobaltplatform.api.Configuration;
+import com.cobaltplatform.api.context.CurrentContext;
+import com.cobaltplatform.api.context.CurrentContextExecutor;
+import com.cobaltplatform.api.error.ErrorReporter;
+import com.cobaltplatform.api.model.db.Institution.InstitutionId;
+import com.cobaltplatform.api.model.db.PartitionedTable;
+import com.cobaltplatform.api.model.db.TablePartition;
+import com.cobaltplatform.api.model.service.AdvisoryLock;
+import com.cobaltplatform.api.util.db.DatabaseProvider;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.pyranid.Database;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Maintains monthly range partitions (on {@code created}) for the tables registered in {@code partitioned_table}.
+ * <p>
+ * Partitions are created {@code premade_partition_months} ahead of the current month, and partitions whose range
+ * ended more than {@code retention_in_months} ago are detached and moved to the {@code archive} schema.
+ * Archived partitions are never dropped here.
+ * <p>
+ * Months are aligned to UTC.
+ * <p>
+ * Queries only skip partitions when they constrain {@code created} with constants or statement parameters.  Readers that
+ * filter on some other time column, e.g. {@code analytics_native_event."timestamp"}, need to add a {@code created}
+ * bound as well - see {@link AnalyticsService#analyticsNativeEventCreatedLowerBoundForTimestamp(Instant)}.
+ *
+ * @author Transmogrify, LLC.
+ */
+@Singleton
+@ThreadSafe
+public class TablePartitionService implements AutoCloseable {
+	@Nonnull
+	private static final Long BACKGROUND_TASK_INTERVAL_IN_SECONDS;
+	@Nonnull
+	private static final Long BACKGROUND_TASK_INITIAL_DELAY_IN_SECONDS;
+	@Nonnull
+	private static final String ARCHIVE_SCHEMA_NAME;
+	@Nonnull
+	private static final String DEFAULT_PARTITION_NAME_SUFFIX;
+	@Nonnull
+	private static final String DDL_LOCK_TIMEOUT;
+	@Nonnull
+	private static final Pattern TABLE_NAME_PATTERN;
+	@Nonnull
+	private final Provider<BackgroundMaintenanceTask> backgroundMaintenanceTaskProvider;
+	@Nonnull
+	private final DatabaseProvider databaseProvider;
+	@Nonnull
+	private final Logger logger;
+	@Nonnull
+	private final Object backgroundTaskLock;
+	@Nonnull
+	private Boolean backgroundTaskStarted;
+	@Nullable
+	private ScheduledExecutorService backgroundTaskExecutorService;
+
+	static {
+		BACKGROUND_TASK_INTERVAL_IN_SECONDS = 60L * 60L;
+		BACKGROUND_TASK_INITIAL_DELAY_IN_SECONDS = 60L;
+		ARCHIVE_SCHEMA_NAME = "archive";
+		DEFAULT_PARTITION_NAME_SUFFIX = "_default";
+		// Partition DDL needs a brief exclusive lock on the parent table - give up rather than queue behind
+		// a long-running query and block every insert in the meantime
+		DDL_LOCK_TIMEOUT = "5s";
+		TABLE_NAME_PATTERN = Pattern.compile("^[a-z_][a-z0-9_]*$");
+	}
+
+	@Inject
+	public TablePartitionService(@Nonnull Provider<BackgroundMaintenanceTask> backgroundMaintenanceTaskProvider,
+															 @Nonnull DatabaseProvider databaseProvider) {
+		requireNonNull(backgroundMaintenanceTaskProvider);
+		requireNonNull(databaseProvider);
+
+		this.backgroundMaintenanceTaskProvider = backgroundMaintenanceTaskProvider;
+		this.databaseProvider = databaseProvider;
+		this.backgroundTaskLock = new Object();
+		this.backgroundTaskStarted = false;
+		this.logger = LoggerFactory.getLogger(getClass());
+	}
+
+	@Override
+	public void close() throws Exception {
+		stopBackgroundTask();
+	}
+
+	@Nonnull
+	public Boolean startBackgroundTask() {
+		synchronized (getBackgroundTaskLock()) {
+			if (isBackgroundTaskStarted())
+				return false;
+
+			getLogger().trace("Starting table partition background task...");
+
+			this.backgroundTaskExecutorService = Executors.newScheduledThreadPool(1, new ThreadFactoryBuilder().setNameFormat("table-partition-background-task").build());
+			this.backgroundTaskStarted = true;
+
+			getBackgroundTaskExecutorService().get().scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						getBackgroundMaintenanceTaskProvider().get().run();
+					} catch (Exception e) {
+						getLogger().warn(format("Unable to complete table partition background task - will retry in %s seconds", String.valueOf(getBackgroundTaskIntervalInSeconds())), e);
+					}
+				}
+			}, getBackgroundTaskInitialDelayInSeconds(), getBackgroundTaskIntervalInSeconds(), TimeUnit.SECONDS);
+
+			getLogger().trace("Table partition background task started.");
+
+			return true;
+		}
+	}
+
+	@Nonnull
+	public Boolean stopBackgroundTask() {
+		synchronized (getBackgroundTaskLock()) {
+			if (!isBackgroundTaskStarted())
+				return false;
+
+			getLogger().trace("Stopping table partition background task...");
+
+			getBackgroundTaskExecutorService().get().shutdownNow();
+			this.backgroundTaskExecutorService = null;
+			this.backgroundTaskStarted = false;
+
+			getLogger().trace("Table partition background task stopped.");
+
+			return true;
+		}
+	}
+
+	@Nonnull
+	public List<PartitionedTable> findPartitionedTables() {
+		return getDatabase().queryForList("""
+				SELECT *
+				FROM partitioned_table
+				ORDER BY partitioned_table_id
+				""", PartitionedTable.class);
+	}
+
+	@Nonnull
+	public List<TablePartition> findTablePartitionsByPartitionedTableId(@Nullable String partitionedTableId) {
+		if (partitionedTableId == null)
+			return List.of();
+
+		return getDatabase().queryForList("""
+				SELECT *
+				FROM table_partition
+				WHERE partitioned_table_id=?
+				ORDER BY range_end
+				""", TablePartition.class, partitionedTableId);
+	}
+
+	public void performPartitionMaintenance() {
+		for (PartitionedTable partitionedTable : findPartitionedTables()) {
+			try {
+				createUpcomingPartitions(partitionedTable);
+				detachExpiredPartitions(partitionedTable);
+			} catch (Exception e) {
+				// Keep going so one table's problem doesn't hold up the others
+				getLogger().error(format("Unable to perform partition maintenance for %s", partitionedTable.getPartitionedTableId()), e);
+			}
+		}
+	}
+
+	protected void createUpcomingPartitions(@Nonnull PartitionedTable partitionedTable) {
+		requireNonNull(partitionedTable);
+
+		String partitionedTableId = validatedTableName(partitionedTable.getPartitionedTableId());
+		YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+		YearMonth lastMonth = currentMonth.plusMonths(partitionedTable.getPremadePartitionMonths());
+
+		Instant latestRangeEnd = getDatabase().queryForObject("""
+				SELECT MAX(range_end)
+				FROM table_partition
+				WHERE partitioned_table_id=?
+				""", Instant.class, partitionedTableId).orElse(null);
+
+		YearMonth month = latestRangeEnd == null ? currentMonth : YearMonth.from(latestRangeEnd.atZone(ZoneOffset.UTC));
+
+		while (!month.isAfter(lastMonth)) {
+			createPartition(partitionedTableId, month);
+			month = month.plusMonths(1);
+		}
+	}
+
+	/**
+	 * Creates the partition for {@code month}.
+	 * <p>
+	 * If partitions weren't created in time, rows for the month may already be in the default partition, and
+	 * {@code CREATE TABLE ... PARTITION OF} would fail.  So the partition is built as a standalone table, any such rows
+	 * are moved into it, and it is then attached.
+	 */
+	protected void createPartition(@Nonnull String partitionedTableId,
+																 @Nonnull YearMonth month) {
+		requireNonNull(partitionedTableId);
+		requireNonNull(month);
+
+		String tablePartitionId = format("%s_p%d_%02d", partitionedTableId, month.getYear(), month.getMonthValue());
+		String defaultTablePartitionId = validatedTableName(partitionedTableId + DEFAULT_PARTITION_NAME_SUFFIX);
+		String rangeCheckConstraintName = tablePartitionId + "_created_check";
+		Instant rangeStart = startOfMonth(month);
+		Instant rangeEnd = startOfMonth(month.plusMonths(1));
+
+		getDatabase().transaction(() -> {
+			applyDdlLockTimeoutToCurrentTransaction();
+
+			getDatabase().execute(format("CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS INCLUDING CONSTRAINTS)",
+					tablePartitionId, partitionedTableId));
+
+			// Matches the partition bound, so ATTACH doesn't need to scan the new table to validate it
+			getDatabase().execute(format("ALTER TABLE %s ADD CONSTRAINT %s CHECK (created >= '%s' AND created < '%s')",
+					tablePartitionId, rangeCheckConstraintName, rangeStart, rangeEnd));
+
+			long movedRowCount = getDatabase().execute(format("""
+					WITH moved AS (
+					  DELETE FROM %s
+					  WHERE created >= ?
+					  AND created < ?
+					  RETURNING *
+					)
+					INSERT INTO %s
+					SELECT * FROM moved
+					""", defaultTablePartitionId, tablePartitionId), rangeStart, rangeEnd);
+
+			// Also verifies that no rows in this range are left in the default partition
+			getDatabase().execute(format("ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+					partitionedTableId, tablePartitionId, rangeStart, rangeEnd));
+
+			getDatabase().execute(format("ALTER TABLE %s DROP CONSTRAINT %s", tablePartitionId, rangeCheckConstraintName));
+
+			getDatabase().execute("""
+					INSERT INTO table_partition (table_partition_id, partitioned_table_id, range_start, range_end)
+					VALUES (?,?,?,?)
+					""", tablePartitionId, partitionedTableId, rangeStart, rangeEnd);
+
+			if (movedRowCount > 0)
+				getLogger().warn("Moved {} row[s] from {} into new partition {}", movedRowCount, defaultTablePartitionId, tablePartitionId);
+		});
+
+		getLogger().info("Created partition {} for {} ({} to {})", tablePartitionId, partitionedTableId, rangeStart, rangeEnd);
+	}
+
+	protected void detachExpiredPartitions(@Nonnull PartitionedTable partitionedTable) {
+		requireNonNull(partitionedTable);
+
+		String partitionedTableId = validatedTableName(partitionedTable.getPartitionedTableId());
+		Instant retainedSince = startOfMonth(YearMonth.now(ZoneOffset.UTC).minusMonths(partitionedTable.getRetentionInMonths()));
+
+		List<TablePartition> expiredTablePartitions = getDatabase().queryForList("""
+				SELECT *
+				FROM table_partition
+				WHERE partitioned_table_id=?
+				AND detached_at IS NULL
+				AND range_end <= ?
+				ORDER BY range_end
+				""", TablePartition.class, partitionedTableId, retainedSince);
+
+		for (TablePartition expiredTablePartition : expiredTablePartitions) {
+			String tablePartitionId = validatedTableName(expiredTablePartition.getTablePartitionId());
+
+			getDatabase().transaction(() -> {
+				applyDdlLockTimeoutToCurrentTransaction();
+
+				getDatabase().execute(format("ALTER TABLE %s DETACH PARTITION %s", partitionedTableId, tablePartitionId));
+				getDatabase().execute(format("ALTER TABLE %s SET SCHEMA %s", tablePartitionId, ARCHIVE_SCHEMA_NAME));
+
+				getDatabase().execute("""
+						UPDATE table_partition
+						SET detached_at=NOW()
+						WHERE table_partition_id=?
+						""", tablePartitionId);
+			});
+
+			getLogger().info("Detached partition {} from {} and moved it to the {} schema", tablePartitionId,
+					partitionedTableId, ARCHIVE_SCHEMA_NAME);
+		}
+	}
+
+	protected void applyDdlLockTimeoutToCurrentTransaction() {
+		getDatabase().queryForObject("SELECT set_config('lock_timeout', ?, TRUE)", String.class, DDL_LOCK_TIMEOUT);
+	}
+
+	@Nonnull
+	protected Instant startOfMonth(@Nonnull YearMonth month) {
+		requireNonNull(month);
+		return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+	}
+
+	@Nonnull
+	protected String validatedTableName(@Nonnull String tableName) {
+		requireNonNull(tableName);
+
+		// Table names are interpolated into DDL, which can't use bind parameters
+		if (!TABLE_NAME_PATTERN.matcher(tableName).matches())
+			throw new IllegalStateException(format("Illegal table name '%s'", tableName));
+
+		return tableName;
+	}
+
+	@ThreadSafe
+	protected static class BackgroundMaintenanceTask implements Runnable {
+		@Nonnull
+		private final Provider<TablePartitionService> tablePartitionServiceProvider;
+		@Nonnull
+		private final Provider<SystemService> systemServiceProvider;
+		@Nonnull
+		private final CurrentContextExecutor currentContextExecutor;
+		@Nonnull
+		private final ErrorReporter errorReporter;
+		@Nonnull
+		private final Configuration configuration;
+		@Nonnull
+		private final Logger logger;
+
+		@Inject
+		public BackgroundMaintenanceTask(@Nonnull Provider<TablePartitionService> tablePartitionServiceProvider,
+																		 @Nonnull Provider<SystemService> systemServiceProvider,
+																		 @Nonnull CurrentContextExecutor currentContextExecutor,
+																		 @Nonnull ErrorReporter errorReporter,
+																		 @Nonnull Configuration configuration) {
+			requireNonNull(tablePartitionServiceProvider);
+			requireNonNull(systemServiceProvider);
+			requireNonNull(currentContextExecutor);
+			requireNonNull(errorReporter);
+			requireNonNull(configuration);
+
+			this.tablePartitionServiceProvider = tablePartitionServiceProvider;
+			this.systemServiceProvider = systemServiceProvider;
+			this.currentContextExecutor = currentContextExecutor;
+			this.errorReporter = errorReporter;
+			this.configuration = configuration;
+			this.logger = LoggerFactory.getLogger(getClass());
+		}
+
+		@Override
+		public void run() {
+			CurrentContext currentContext = new CurrentContext.Builder(InstitutionId.COBALT,
+					getConfiguration().getDefaultLocale(), getConfiguration().getDefaultTimeZone()).build();
+
+			getCurrentContextExecutor().execute(currentContext, () -> {
+				try {
+					getSystemService().performAdvisoryLockOperationIfAvailable(AdvisoryLock.TABLE_PARTITION_MAINTENANCE, () -> {
+						getTablePartitionService().performPartitionMaintenance();
+					});
+				} catch (Exception e) {
+					getLogger().error("Unable to perform table partition maintenance", e);
+					getErrorReporter().report(e);
+				}
+			});
+		}
+
+		@Nonnull
+		protected TablePartitionService getTablePartitionService() {
+			return this.tablePartitionServiceProvider.get();
+		}
+
+		@Nonnull
+		protected SystemService getSystemService() {
+			return this.systemServiceProvider.get();
+		}
+
+		@Nonnull
+		protected CurrentContextExecutor getCurrentContextExecutor() {
+			return this.currentContextExecutor;
+		}
+
+		@Nonnull
+		protected ErrorReporter getErrorReporter() {
+			return this.errorReporter;
+		}
+
+		@Nonnull
+		protected Configuration getConfiguration() {
+			return this.configuration;
+		}
+
+		@Nonnull
+		protected Logger getLogger() {
+			return this.logger;
+		}
+	}
+
+	@Nonnull
+	public Boolean isBackgroundTaskStarted() {
+		synchronized (getBackgroundTaskLock()) {
+			return this.backgroundTaskStarted;
+		}
+	}
+
+	@Nonnull
+	protected Long getBackgroundTaskIntervalInSeconds() {
+		return BACKGROUND_TASK_INTERVAL_IN_SECONDS;
+	}
+
+	@Nonnull
+	protected Long getBackgroundTaskInitialDelayInSeconds() {
+		return BACKGROUND_TASK_INITIAL_DELAY_IN_SECONDS;
+	}
+
+	@Nonnull
+	protected Provider<BackgroundMaintenanceTask> getBackgroundMaintenanceTaskProvider() {
+		return this.backgroundMaintenanceTaskProvider;
+	}
+
+	@Nonnull
+	protected Database getDatabase() {
+		return this.databaseProvider.get();
+	}
+
+	@Nonnull
+	protected Logger getLogger() {
+		return this.logger;
+	}
+
+	@Nonnull
+	protected Object getBackgroundTaskLock() {
+		return this.backgroundTaskLock;
+	}
+
+	@Nonnull
+	protected Optional<ScheduledExecutorService> getBackgroundTaskExecutorService() {
+		return Optional.ofNullable(this.backgroundTaskExecutorService);
+	}
+}
@@ -20,6 +20,7 @@
 package com.cobaltplatform.api.service;
 
 import com.cobaltplatform.api.Configuration;
+import com.cobaltplatform.api.cache.CacheInvalidationBus;
 import com.cobaltplatform.api.context.CurrentContext;
 import com.cobaltplatform.api.integration.enterprise.EnterprisePlugin;
 import com.cobaltplatform.api.integration.enterprise.EnterprisePluginProvider;
@@ -62,6 +63,11 @@ import static java.util.Objects.requireNonNull;
 @Singleton
 @ThreadSafe
 public class TagService {
+	@Nonnull
+	private static final String TAGS_BY_INSTITUTION_ID_CACHE_NAME;
+	@Nonnull
+	private static final String TAG_GROUPS_BY_INSTITUTION_ID_CACHE_NAME;
+
 	@Nonnull
 	private final Provider<CurrentContext> currentContextProvider;
 	@Nonnull
@@ -77,38 +83,65 @@ public class TagService {
 	@Nonnull
 	private final LoadingCache<InstitutionId, List<TagGroup>> tagGroupsByInstitutionIdCache;
 	@Nonnull
+	private final CacheInvalidationBus cacheInvalidationBus;
+	@Nonnull
 	private final Logger logger;
 
+	static {
+		TAGS_BY_INSTITUTION_ID_CACHE_NAME = "tags-by-institution-id";
+		TAG_GROUPS_BY_INSTITUTION_ID_CACHE_NAME = "tag-groups-by-institution-id";
+	}
+
 	@Inject
 	public TagService(@Nonnull Provider<CurrentContext> currentContextProvider,
 										@Nonnull EnterprisePluginProvider enterprisePluginProvider,
 										@Nonnull DatabaseProvider databaseProvider,
 										@Nonnull Configuration configuration,
-										@Nonnull Strings strings) {
+										@Nonnull Strings strings,
+										@Nonnull CacheInvalidationBus cacheInvalidationBus) {
 		requireNonNull(currentContextProvider);
 		requireNonNull(enterprisePluginProvider);
 		requireNonNull(databaseProvider);
 		requireNonNull(configuration);
 		requireNonNull(strings);
+		requireNonNull(cacheInvalidationBus);
 
 		this.currentContextProvider = currentContextProvider;
 		this.enterprisePluginProvider = enterprisePluginProvider;
 		this.databaseProvider = databaseProvider;
 		this.configuration = configuration;
 		this.strings = strings;
+		this.cacheInvalidationBus = cacheInvalidationBus;
 		this.logger = LoggerFactory.getLogger(getClass());
 
+		// Tag changes are pushed to every node via the invalidation bus, so expiry is only a backstop
 		this.tagsByInstitutionIdCache = Caffeine.newBuilder()
 				.maximumSize(100)
-				.expireAfterWrite(Duration.ofMinutes(5))
-				.refreshAfterWrite(Duration.ofMinutes(1))
+				.expireAfterWrite(Duration.ofHours(1))
+				.refreshAfterWrite(Duration.ofMinutes(15))
+				.recordStats()
 				.build(institutionId -> findUncachedTagsByInstitutionId(institutionId));
 
 		this.tagGroupsByInstitutionIdCache = Caffeine.newBuilder()
 				.maximumSize(100)
-				.expireAfterWrite(Duration.ofMinutes(5))
-				.refreshAfterWrite(Duration.ofMinutes(1))
+				.expireAfterWrite(Duration.ofHours(1))
+				.refreshAfterWrite(Duration.ofMinutes(15))
+				.recordStats()
 				.build(institutionId -> findUncachedTagGroupsByInstitutionId(institutionId));
+
+		getCacheInvalidationBus().registerCache(TAGS_BY_INSTITUTION_ID_CACHE_NAME, getTagsByInstitutionIdCache(),
+				(key) -> getTagsByInstitutionIdCache().invalidate(InstitutionId.valueOf(key)));
+		getCacheInvalidationBus().registerCache(TAG_GROUPS_BY_INSTITUTION_ID_CACHE_NAME, getTagGroupsByInstitutionIdCache(),
+				(key) -> getTagGroupsByInstitutionIdCache().invalidate(InstitutionId.valueOf(key)));
+	}
+
+	/**
+	 * Evicts cached tags and tag groups on all nodes, e.g. after tag rows are synced or changed.
+	 * Tags aren't institution-specific today, so everything goes.
+	 */
+	public void invalidateTagCaches() {
+		getCacheInvalidationBus().invalidateAll(TAGS_BY_INSTITUTION_ID_CACHE_NAME);
+		getCacheInvalidationBus().invalidateAll(TAG_GROUPS_BY_INSTITUTION_ID_CACHE_NAME);
 	}
 
 	@Nonnull
@@ -340,6 +373,11 @@ public class TagService {
 		return this.tagGroupsByInstitutionIdCache;
 	}
 
+	@Nonnull
+	protected CacheInvalidationBus getCacheInvalidationBus() {
+		return this.cacheInvalidationBus;
+	}
+
 	@Nonnull
 	protected Logger getLogger() {
 		return logger;
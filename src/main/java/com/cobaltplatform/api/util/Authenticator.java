@@ -28,10 +28,15 @@ import com.cobaltplatform.api.model.security.AccessTokenClaims;
 import com.cobaltplatform.api.model.security.AccessTokenStatus;
 import com.cobaltplatform.api.model.security.SigningTokenClaims;
 import com.cobaltplatform.api.service.AccountService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.common.hash.Hashing;
 import com.google.gson.Gson;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.UnsupportedJwtException;
@@ -50,12 +55,15 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.NotThreadSafe;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Base64;
 import java.util.Collections;
@@ -65,6 +73,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static java.lang.String.format;
 import static java.time.temporal.ChronoUnit.MINUTES;
@@ -84,6 +93,8 @@ public class Authenticator {
 	private static final String ROLE_ID_CLAIM_NAME;
 	@Nonnull
 	private static final String MY_CHART_ACCESS_TOKEN_CLAIM_NAME;
+	@Nonnull
+	private static final Long VERIFIED_ACCESS_TOKEN_CACHE_MAXIMUM_SIZE;
 
 	@Nonnull
 	private final Configuration configuration;
@@ -95,11 +106,16 @@ public class Authenticator {
 	private final Logger logger;
 	@Nonnull
 	private final Provider<AccountService> accountServiceProvider;
+	@Nonnull
+	private final AtomicReference<TokenParser> tokenParserReference;
+	@Nonnull
+	private final Cache<String, AccessTokenClaims> verifiedAccessTokenClaimsByDigestCache;
 
 	static {
 		DEFAULT_SIGNING_TOKEN_SUBJECT = "COBALT_SYSTEM";
 		ROLE_ID_CLAIM_NAME = "roleId";
 		MY_CHART_ACCESS_TOKEN_CLAIM_NAME = "myChartAccessToken";
+		VERIFIED_ACCESS_TOKEN_CACHE_MAXIMUM_SIZE = 10_000L;
 	}
 
 	@Inject
@@ -112,6 +128,35 @@ public class Authenticator {
 		this.missingIssuedAtOffsetInMinutes = 10080L;  // Arbitrary; supports legacy access tokens
 		this.logger = LoggerFactory.getLogger(getClass());
 		this.accountServiceProvider = accountServiceProvider;
+		this.tokenParserReference = new AtomicReference<>();
+		// Entries live until their token expires, so a cache hit never outlives what signature verification would allow
+		this.verifiedAccessTokenClaimsByDigestCache = Caffeine.newBuilder()
+				.maximumSize(VERIFIED_ACCESS_TOKEN_CACHE_MAXIMUM_SIZE)
+				.expireAfter(new Expiry<String, AccessTokenClaims>() {
+					@Override
+					public long expireAfterCreate(@Nonnull String accessTokenDigest,
+																				@Nonnull AccessTokenClaims accessTokenClaims,
+																				long currentTime) {
+						return Math.max(0L, Duration.between(Instant.now(), accessTokenClaims.getExpiration()).toNanos());
+					}
+
+					@Override
+					public long expireAfterUpdate(@Nonnull String accessTokenDigest,
+																				@Nonnull AccessTokenClaims accessTokenClaims,
+																				long currentTime,
+																				long currentDuration) {
+						return currentDuration;
+					}
+
+					@Override
+					public long expireAfterRead(@Nonnull String accessTokenDigest,
+																			@Nonnull AccessTokenClaims accessTokenClaims,
+																			long currentTime,
+																			long currentDuration) {
+						return currentDuration;
+					}
+				})
+				.build();
 	}
 
 	@Nonnull
@@ -240,7 +285,7 @@ public class Authenticator {
 		requireNonNull(signingToken);
 
 		try {
-			Jws<Claims> claims = Jwts.parserBuilder().setSigningKey(getConfiguration().getSigningCredentials().getX509Certificate().getPublicKey()).build().parseClaimsJws(signingToken);
+			Jws<Claims> claims = getTokenParser().parseClaimsJws(signingToken);
 			Map<String, Object> claimsAsMap = claims.getBody();
 			Instant expiration = claims.getBody().getExpiration().toInstant();
 
@@ -319,11 +364,20 @@ public class Authenticator {
 		if (accessToken == null)
 			return Optional.empty();
 
+		// Clients poll with the same token, so skip RSA verification if we've already verified this one.
+		// Keyed by digest so raw tokens aren't held in memory
+		JwtParser tokenParser = getTokenParser();
+		String accessTokenDigest = Hashing.sha256().hashString(accessToken, StandardCharsets.UTF_8).toString();
+		AccessTokenClaims cachedAccessTokenClaims = getVerifiedAccessTokenClaimsByDigestCache().getIfPresent(accessTokenDigest);
+
+		if (cachedAccessTokenClaims != null && cachedAccessTokenClaims.getExpiration().isAfter(Instant.now()))
+			return Optional.of(cachedAccessTokenClaims);
+
 		Jws<Claims> claims = null;
 
 		// Use public key of keypair to validate claims
 		try {
-			claims = Jwts.parserBuilder().setSigningKey(getConfiguration().getSigningCredentials().getX509Certificate().getPublicKey()).build().parseClaimsJws(accessToken);
+			claims = tokenParser.parseClaimsJws(accessToken);
 		} catch (UnsupportedJwtException e) {
 			getLogger().trace("Very likely this access token is a legacy token, continuing on...", e);
 		} catch (ExpiredJwtException e) {
@@ -341,7 +395,10 @@ public class Authenticator {
 			UUID accountId = UUID.fromString(claims.getBody().getSubject());
 			Instant issuedAt = claims.getBody().getIssuedAt() == null ? null : claims.getBody().getIssuedAt().toInstant();
 
-			// For this special case, we don't know issued time, so we fudge it
+			// For this special case, we don't know issued time, so we fudge it.
+			// The fudged value is relative to now, so these (legacy) tokens are not cached
+			boolean cacheable = issuedAt != null;
+
 			if (issuedAt == null)
 				issuedAt = Instant.now().minus(getMissingIssuedAtOffsetInMinutes(), MINUTES);
 
@@ -352,13 +409,81 @@ public class Authenticator {
 			if (serializedMyChartAccessToken != null)
 				myChartAccessToken = MyChartAccessToken.deserialize(serializedMyChartAccessToken);
 
-			return Optional.of(new AccessTokenClaims(accountId, issuedAt, claims.getBody().getExpiration().toInstant(), myChartAccessToken));
+			AccessTokenClaims accessTokenClaims = new AccessTokenClaims(accountId, issuedAt, claims.getBody().getExpiration().toInstant(), myChartAccessToken);
+
+			if (cacheable)
+				getVerifiedAccessTokenClaimsByDigestCache().put(accessTokenDigest, accessTokenClaims);
+
+			return Optional.of(accessTokenClaims);
 		} catch (Exception e) {
 			getLogger().debug("Access token claims extraction failed.", e);
 			return Optional.empty();
 		}
 	}
 
+	/**
+	 * Discards all cached access token verifications, e.g. if a token must stop working before it expires.
+	 * This happens automatically when signing credentials change.
+	 */
+	public void invalidateVerifiedAccessTokens() {
+		getVerifiedAccessTokenClaimsByDigestCache().invalidateAll();
+	}
+
+	/**
+	 * A parser for tokens signed with our current signing credentials.
+	 * <p>
+	 * Parsers are immutable and safe to share, so one is reused across requests.  If the signing credentials change,
+	 * a new parser is built and any cached verifications made with the old key are discarded.
+	 */
+	@Nonnull
+	protected JwtParser getTokenParser() {
+		PublicKey publicKey = getConfiguration().getSigningCredentials().getX509Certificate().getPublicKey();
+		TokenParser tokenParser = getTokenParserReference().get();
+
+		if (tokenParser != null && tokenParser.getPublicKey().equals(publicKey))
+			return tokenParser.getJwtParser();
+
+		TokenParser updatedTokenParser = new TokenParser(publicKey, Jwts.parserBuilder().setSigningKey(publicKey).build());
+
+		// Only the thread that wins the swap clears the cache; losers use whichever parser won
+		if (getTokenParserReference().compareAndSet(tokenParser, updatedTokenParser)) {
+			if (tokenParser != null)
+				getLogger().info("Signing credentials have changed, discarding cached access token verifications.");
+
+			invalidateVerifiedAccessTokens();
+			return updatedTokenParser.getJwtParser();
+		}
+
+		return getTokenParser();
+	}
+
+	@Immutable
+	protected static class TokenParser {
+		@Nonnull
+		private final PublicKey publicKey;
+		@Nonnull
+		private final JwtParser jwtParser;
+
+		public TokenParser(@Nonnull PublicKey publicKey,
+											 @Nonnull JwtParser jwtParser) {
+			requireNonNull(publicKey);
+			requireNonNull(jwtParser);
+
+			this.publicKey = publicKey;
+			this.jwtParser = jwtParser;
+		}
+
+		@Nonnull
+		public PublicKey getPublicKey() {
+			return this.publicKey;
+		}
+
+		@Nonnull
+		public JwtParser getJwtParser() {
+			return this.jwtParser;
+		}
+	}
+
 	@Nonnull
 	public Boolean validatePasswordRules(@Nullable String password) {
 		List<Rule> rules = List.of(
@@ -412,4 +537,14 @@ public class Authenticator {
 	protected AccountService getAccountService() {
 		return accountServiceProvider.get();
 	}
+
+	@Nonnull
+	protected AtomicReference<TokenParser> getTokenParserReference() {
+		return this.tokenParserReference;
+	}
+
+	@Nonnull
+	protected Cache<String, AccessTokenClaims> getVerifiedAccessTokenClaimsByDigestCache() {
+		return this.verifiedAccessTokenClaimsByDigestCache;
+	}
 }
\ No newline at end of file
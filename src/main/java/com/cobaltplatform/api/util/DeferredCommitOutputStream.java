@@ -0,0 +1,142 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Holds back the first bytes written so a failure early in a stream can still be reported as a normal error response.
+ * <p>
+ * Nothing reaches the destination until either the deferred byte count is reached or {@link #finish()} is called.
+ * Intermediate calls to {@link #flush()} are ignored until then, since flushing would commit the response.
+ *
+ * @author Transmogrify, LLC.
+ */
+@NotThreadSafe
+public class DeferredCommitOutputStream extends OutputStream {
+	@Nonnull
+	private final DestinationOutputStreamProvider destinationOutputStreamProvider;
+	@Nonnull
+	private final Integer deferredByteCount;
+	@Nullable
+	private ByteArrayOutputStream deferredOutputStream;
+	@Nullable
+	private OutputStream destinationOutputStream;
+
+	public DeferredCommitOutputStream(@Nonnull DestinationOutputStreamProvider destinationOutputStreamProvider,
+																		@Nonnull Integer deferredByteCount) {
+		requireNonNull(destinationOutputStreamProvider);
+		requireNonNull(deferredByteCount);
+
+		this.destinationOutputStreamProvider = destinationOutputStreamProvider;
+		this.deferredByteCount = deferredByteCount;
+		this.deferredOutputStream = new ByteArrayOutputStream(deferredByteCount);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[]{(byte) b}, 0, 1);
+	}
+
+	@Override
+	public void write(@Nonnull byte[] b,
+										int off,
+										int len) throws IOException {
+		requireNonNull(b);
+
+		if (isCommitted()) {
+			getDestinationOutputStream().write(b, off, len);
+			return;
+		}
+
+		getDeferredOutputStream().write(b, off, len);
+
+		if (getDeferredOutputStream().size() >= getDeferredByteCount())
+			commit();
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (isCommitted())
+			getDestinationOutputStream().flush();
+	}
+
+	/**
+	 * Writes anything still held back and flushes.  Call once all data has been written successfully.
+	 */
+	public void finish() throws IOException {
+		if (!isCommitted())
+			commit();
+
+		getDestinationOutputStream().flush();
+	}
+
+	// Intentionally does not close the destination - callers decide how to end the response
+	@Override
+	public void close() throws IOException {
+		// Nothing to do
+	}
+
+	@Nonnull
+	public Boolean isCommitted() {
+		return this.destinationOutputStream != null;
+	}
+
+	protected void commit() throws IOException {
+		OutputStream destinationOutputStream = getDestinationOutputStreamProvider().provide();
+		getDeferredOutputStream().writeTo(destinationOutputStream);
+
+		this.destinationOutputStream = destinationOutputStream;
+		this.deferredOutputStream = null;
+	}
+
+	@FunctionalInterface
+	public interface DestinationOutputStreamProvider {
+		@Nonnull
+		OutputStream provide() throws IOException;
+	}
+
+	@Nonnull
+	protected DestinationOutputStreamProvider getDestinationOutputStreamProvider() {
+		return this.destinationOutputStreamProvider;
+	}
+
+	@Nonnull
+	protected Integer getDeferredByteCount() {
+		return this.deferredByteCount;
+	}
+
+	@Nullable
+	protected ByteArrayOutputStream getDeferredOutputStream() {
+		return this.deferredOutputStream;
+	}
+
+	@Nullable
+	protected OutputStream getDestinationOutputStream() {
+		return this.destinationOutputStream;
+	}
+}
@@ -132,6 +132,33 @@ public class HandlebarsTemplater {
 		requireNonNull(locale);
 		requireNonNull(context);
 
+		Template template = compileTemplate(templateParentName, templateChildName, locale).orElse(null);
+
+		if (template == null)
+			return Optional.empty();
+
+		return Optional.of(applyTemplate(template, context));
+	}
+
+	/**
+	 * Resolves and compiles a Handlebars template in a locale-aware way, without merging any data into it.
+	 * <p>
+	 * Useful for callers that merge the same template many times, e.g. a batch of emails - compile once via this method
+	 * and then call {@link #applyTemplate(Template, Map)} per recipient, which avoids repeated filesystem checks.
+	 *
+	 * @param templateParentName e.g. @{code "EXAMPLE_STATUS_CHANGE"}
+	 * @param templateChildName  e.g. @{code "body"}
+	 * @param locale             used to resolve localized template
+	 * @return the compiled template, or an empty result if no template was found
+	 */
+	@Nonnull
+	public Optional<Template> compileTemplate(@Nonnull String templateParentName,
+																						@Nonnull String templateChildName,
+																						@Nonnull Locale locale) {
+		requireNonNull(templateParentName);
+		requireNonNull(templateChildName);
+		requireNonNull(locale);
+
 		if (!getShouldCacheTemplates())
 			getTemplateCache().clear();
 
@@ -142,13 +169,31 @@ public class HandlebarsTemplater {
 
 		try {
 			// Should be templateParentName/locale/templateChildName
-			Template template = getHandlebars().compile(templateName);
+			return Optional.of(getHandlebars().compile(templateName));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
 
-			Context handlebarsContext = Context.newBuilder(context).resolver(MapValueResolver.INSTANCE, JavaBeanValueResolver.INSTANCE,
-							MethodValueResolver.INSTANCE, FieldValueResolver.INSTANCE)
-					.build();
+	/**
+	 * Merges data into a template previously acquired via {@link #compileTemplate(String, String, Locale)}.
+	 *
+	 * @param template the compiled template
+	 * @param context  data to merge into the template
+	 * @return the merged template
+	 */
+	@Nonnull
+	public String applyTemplate(@Nonnull Template template,
+															@Nonnull Map<String, Object> context) {
+		requireNonNull(template);
+		requireNonNull(context);
+
+		Context handlebarsContext = Context.newBuilder(context).resolver(MapValueResolver.INSTANCE, JavaBeanValueResolver.INSTANCE,
+						MethodValueResolver.INSTANCE, FieldValueResolver.INSTANCE)
+				.build();
 
-			return Optional.of(template.apply(handlebarsContext));
+		try {
+			return template.apply(handlebarsContext);
 		} catch (IOException e) {
 			throw new UncheckedIOException(e);
 		}
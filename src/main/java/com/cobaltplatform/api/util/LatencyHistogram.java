@@ -0,0 +1,274 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Fixed-bucket latency histogram that is cheap enough to record into on every request.
+ * <p>
+ * Percentiles are approximated by interpolating within the bucket that contains the requested rank.
+ *
+ * @author Transmogrify, LLC.
+ */
+@ThreadSafe
+public class LatencyHistogram {
+	@Nonnull
+	private static final List<Duration> DEFAULT_BUCKET_UPPER_BOUNDS;
+
+	@Nonnull
+	private final List<Duration> bucketUpperBounds;
+	@Nonnull
+	private final long[] bucketUpperBoundsInNanoseconds;
+	@Nonnull
+	private final LongAdder[] bucketCounts;
+	@Nonnull
+	private final LongAdder count;
+	@Nonnull
+	private final LongAdder sumInNanoseconds;
+	@Nonnull
+	private final LongAccumulator maximumInNanoseconds;
+
+	static {
+		// 100 microseconds (fast indexed lookups) through 30 seconds (pathological requests)
+		DEFAULT_BUCKET_UPPER_BOUNDS = List.of(
+				Duration.ofNanos(100_000L),
+				Duration.ofNanos(250_000L),
+				Duration.ofNanos(500_000L),
+				Duration.ofMillis(1L),
+				Duration.ofNanos(2_500_000L),
+				Duration.ofMillis(5L),
+				Duration.ofMillis(10L),
+				Duration.ofMillis(25L),
+				Duration.ofMillis(50L),
+				Duration.ofMillis(100L),
+				Duration.ofMillis(250L),
+				Duration.ofMillis(500L),
+				Duration.ofSeconds(1L),
+				Duration.ofMillis(2_500L),
+				Duration.ofSeconds(5L),
+				Duration.ofSeconds(10L),
+				Duration.ofSeconds(30L)
+		);
+	}
+
+	public LatencyHistogram() {
+		this(getDefaultBucketUpperBounds());
+	}
+
+	public LatencyHistogram(@Nonnull List<Duration> bucketUpperBounds) {
+		requireNonNull(bucketUpperBounds);
+
+		if (bucketUpperBounds.size() == 0)
+			throw new IllegalArgumentException("At least one bucket upper bound is required");
+
+		List<Duration> sortedBucketUpperBounds = new ArrayList<>(bucketUpperBounds);
+		Collections.sort(sortedBucketUpperBounds);
+
+		this.bucketUpperBounds = Collections.unmodifiableList(sortedBucketUpperBounds);
+		this.bucketUpperBoundsInNanoseconds = sortedBucketUpperBounds.stream().mapToLong(Duration::toNanos).toArray();
+
+		// One extra bucket to catch anything above the largest upper bound
+		this.bucketCounts = new LongAdder[sortedBucketUpperBounds.size() + 1];
+
+		for (int i = 0; i < this.bucketCounts.length; ++i)
+			this.bucketCounts[i] = new LongAdder();
+
+		this.count = new LongAdder();
+		this.sumInNanoseconds = new LongAdder();
+		this.maximumInNanoseconds = new LongAccumulator(Math::max, 0L);
+	}
+
+	public void record(long elapsedNanoseconds) {
+		if (elapsedNanoseconds < 0L)
+			elapsedNanoseconds = 0L;
+
+		int bucketIndex = Arrays.binarySearch(getBucketUpperBoundsInNanoseconds(), elapsedNanoseconds);
+
+		// Not an exact match on an upper bound, so binarySearch hands back (-(insertion point) - 1)
+		if (bucketIndex < 0)
+			bucketIndex = -bucketIndex - 1;
+
+		getBucketCounts()[bucketIndex].increment();
+		getCount().increment();
+		getSumInNanoseconds().add(elapsedNanoseconds);
+		getMaximumInNanoseconds().accumulate(elapsedNanoseconds);
+	}
+
+	@Nonnull
+	public Snapshot snapshot() {
+		long[] bucketCounts = new long[getBucketCounts().length];
+
+		for (int i = 0; i < bucketCounts.length; ++i)
+			bucketCounts[i] = getBucketCounts()[i].sum();
+
+		return new Snapshot(getBucketUpperBounds(), bucketCounts, getSumInNanoseconds().sum(), getMaximumInNanoseconds().get());
+	}
+
+	@Nonnull
+	public static List<Duration> getDefaultBucketUpperBounds() {
+		return DEFAULT_BUCKET_UPPER_BOUNDS;
+	}
+
+	@Nonnull
+	public List<Duration> getBucketUpperBounds() {
+		return this.bucketUpperBounds;
+	}
+
+	@Nonnull
+	protected long[] getBucketUpperBoundsInNanoseconds() {
+		return this.bucketUpperBoundsInNanoseconds;
+	}
+
+	@Nonnull
+	protected LongAdder[] getBucketCounts() {
+		return this.bucketCounts;
+	}
+
+	@Nonnull
+	protected LongAdder getCount() {
+		return this.count;
+	}
+
+	@Nonnull
+	protected LongAdder getSumInNanoseconds() {
+		return this.sumInNanoseconds;
+	}
+
+	@Nonnull
+	protected LongAccumulator getMaximumInNanoseconds() {
+		return this.maximumInNanoseconds;
+	}
+
+	/**
+	 * Point-in-time view of a histogram.  Recording is not paused while a snapshot is taken, so under load the
+	 * counts may be off by the handful of values recorded mid-read, which is fine for monitoring purposes.
+	 */
+	@ThreadSafe
+	public static class Snapshot {
+		@Nonnull
+		private final List<Duration> bucketUpperBounds;
+		@Nonnull
+		private final long[] bucketCounts;
+		@Nonnull
+		private final Long count;
+		@Nonnull
+		private final Long sumInNanoseconds;
+		@Nonnull
+		private final Long maximumInNanoseconds;
+
+		protected Snapshot(@Nonnull List<Duration> bucketUpperBounds,
+											 @Nonnull long[] bucketCounts,
+											 @Nonnull Long sumInNanoseconds,
+											 @Nonnull Long maximumInNanoseconds) {
+			requireNonNull(bucketUpperBounds);
+			requireNonNull(bucketCounts);
+			requireNonNull(sumInNanoseconds);
+			requireNonNull(maximumInNanoseconds);
+
+			this.bucketUpperBounds = bucketUpperBounds;
+			this.bucketCounts = bucketCounts;
+			this.count = Arrays.stream(bucketCounts).sum();
+			this.sumInNanoseconds = sumInNanoseconds;
+			this.maximumInNanoseconds = maximumInNanoseconds;
+		}
+
+		/**
+		 * Approximates the given percentile (e.g. {@code 0.99}) by linear interpolation within its bucket.
+		 */
+		@Nonnull
+		public Duration getPercentile(@Nonnull Double percentile) {
+			requireNonNull(percentile);
+
+			if (percentile < 0D || percentile > 1D)
+				throw new IllegalArgumentException("Percentile must be between 0 and 1");
+
+			if (getCount() == 0L)
+				return Duration.ZERO;
+
+			double rank = percentile * getCount();
+			long cumulativeCount = 0L;
+
+			for (int i = 0; i < this.bucketCounts.length; ++i) {
+				long bucketCount = this.bucketCounts[i];
+
+				if (bucketCount == 0L || cumulativeCount + bucketCount < rank) {
+					cumulativeCount += bucketCount;
+					continue;
+				}
+
+				long lowerBoundInNanoseconds = i == 0 ? 0L : getBucketUpperBounds().get(i - 1).toNanos();
+				// The overflow bucket has no upper bound, so the largest value we've seen stands in for it
+				long upperBoundInNanoseconds = i < getBucketUpperBounds().size() ? getBucketUpperBounds().get(i).toNanos() : getMaximumInNanoseconds();
+				upperBoundInNanoseconds = Math.max(lowerBoundInNanoseconds, Math.min(upperBoundInNanoseconds, getMaximumInNanoseconds()));
+
+				double fractionOfBucket = (rank - cumulativeCount) / bucketCount;
+				return Duration.ofNanos(lowerBoundInNanoseconds + (long) (fractionOfBucket * (upperBoundInNanoseconds - lowerBoundInNanoseconds)));
+			}
+
+			return Duration.ofNanos(getMaximumInNanoseconds());
+		}
+
+		/**
+		 * Number of recorded values less than or equal to the upper bound at the given index (Prometheus-style {@code le} buckets).
+		 */
+		@Nonnull
+		public Long getCumulativeCount(@Nonnull Integer bucketUpperBoundIndex) {
+			requireNonNull(bucketUpperBoundIndex);
+
+			long cumulativeCount = 0L;
+
+			for (int i = 0; i <= bucketUpperBoundIndex; ++i)
+				cumulativeCount += this.bucketCounts[i];
+
+			return cumulativeCount;
+		}
+
+		@Nonnull
+		public List<Duration> getBucketUpperBounds() {
+			return this.bucketUpperBounds;
+		}
+
+		@Nonnull
+		public Long getCount() {
+			return this.count;
+		}
+
+		@Nonnull
+		public Long getSumInNanoseconds() {
+			return this.sumInNanoseconds;
+		}
+
+		@Nonnull
+		public Long getMaximumInNanoseconds() {
+			return this.maximumInNanoseconds;
+		}
+	}
+}
@@ -0,0 +1,594 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.util;
+
+import com.cobaltplatform.api.context.Deadline;
+import com.cobaltplatform.api.context.Deadline.ExpirationType;
+import com.cobaltplatform.api.util.LatencyHistogram.Snapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.pyranid.StatementLog;
+import com.soklet.web.routing.Route;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Always-on, in-process metrics: per-route request latency, per-SQL-fingerprint statement timing, and
+ * HikariCP connection pool wait/usage, and registered cache statistics.
+ * <p>
+ * Everything here is on the hot path of every request and statement, so recording is limited to a map lookup
+ * and a few {@link LongAdder} increments.  Formatting only happens when metrics are scraped.
+ *
+ * @author Transmogrify, LLC.
+ */
+@Singleton
+@ThreadSafe
+public class MetricsRecorder {
+	@Nonnull
+	private static final String UNMATCHED_ROUTE_NAME;
+	@Nonnull
+	private static final String OVERFLOW_SQL_FINGERPRINT;
+	@Nonnull
+	private static final Integer MAXIMUM_SQL_FINGERPRINT_COUNT;
+	@Nonnull
+	private static final Long MAXIMUM_MEMOIZED_SQL_COUNT;
+	@Nonnull
+	private static final Double REPORTED_PERCENTILE;
+	@Nonnull
+	private static final Pattern SQL_COMMENT_PATTERN;
+	@Nonnull
+	private static final Pattern SQL_STRING_LITERAL_PATTERN;
+	@Nonnull
+	private static final Pattern SQL_NUMERIC_LITERAL_PATTERN;
+	@Nonnull
+	private static final Pattern SQL_PLACEHOLDER_LIST_PATTERN;
+	@Nonnull
+	private static final Pattern WHITESPACE_PATTERN;
+	@Nonnull
+	private static final List<Duration> BACKGROUND_TASK_BUCKET_UPPER_BOUNDS;
+
+	@Nonnull
+	private final ConcurrentHashMap<String, LatencyHistogram> requestLatencyHistogramsByRouteName;
+	@Nonnull
+	private final ConcurrentHashMap<Method, String> routeNamesByResourceMethod;
+	@Nonnull
+	private final ConcurrentHashMap<SqlStatementKey, LatencyHistogram> statementLatencyHistogramsBySqlStatementKey;
+	@Nonnull
+	private final Cache<String, String> sqlFingerprintsBySql;
+	@Nonnull
+	private final ConcurrentHashMap<String, ConnectionPoolMetrics> connectionPoolMetricsByPoolName;
+	@Nonnull
+	private final ConcurrentHashMap<String, LatencyHistogram> backgroundTaskUnitLatencyHistogramsByLabels;
+	@Nonnull
+	private final ConcurrentHashMap<String, LongAdder> backgroundTaskUnitFailureCountsByLabels;
+	@Nonnull
+	private final ConcurrentHashMap<String, Cache<?, ?>> cachesByCacheName;
+	@Nonnull
+	private final ConcurrentHashMap<String, LongAdder> cacheInvalidationCountsByLabels;
+
+	static {
+		UNMATCHED_ROUTE_NAME = "(unmatched)";
+		OVERFLOW_SQL_FINGERPRINT = "(other)";
+		// Fingerprints are label values; cap them so a pathological query generator can't make the scrape unbounded
+		MAXIMUM_SQL_FINGERPRINT_COUNT = 2_000;
+		MAXIMUM_MEMOIZED_SQL_COUNT = 10_000L;
+		REPORTED_PERCENTILE = 0.99D;
+
+		SQL_COMMENT_PATTERN = Pattern.compile("--[^\\n]*|/\\*.*?\\*/", Pattern.DOTALL);
+		SQL_STRING_LITERAL_PATTERN = Pattern.compile("'(?:[^']|'')*'");
+		SQL_NUMERIC_LITERAL_PATTERN = Pattern.compile("(?<![\\w$.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+		SQL_PLACEHOLDER_LIST_PATTERN = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+		WHITESPACE_PATTERN = Pattern.compile("\\s+");
+
+		// Background work units take seconds to many minutes, well past the request-oriented default buckets
+		BACKGROUND_TASK_BUCKET_UPPER_BOUNDS = List.of(
+				Duration.ofMillis(100L),
+				Duration.ofMillis(500L),
+				Duration.ofSeconds(1L),
+				Duration.ofSeconds(5L),
+				Duration.ofSeconds(15L),
+				Duration.ofSeconds(30L),
+				Duration.ofMinutes(1L),
+				Duration.ofMinutes(5L),
+				Duration.ofMinutes(15L),
+				Duration.ofMinutes(30L)
+		);
+	}
+
+	@Inject
+	public MetricsRecorder() {
+		this.requestLatencyHistogramsByRouteName = new ConcurrentHashMap<>();
+		this.routeNamesByResourceMethod = new ConcurrentHashMap<>();
+		this.statementLatencyHistogramsBySqlStatementKey = new ConcurrentHashMap<>();
+		// Pyranid hands us the same SQL strings over and over, so don't pay for regex normalization every time
+		this.sqlFingerprintsBySql = Caffeine.newBuilder()
+				.maximumSize(MAXIMUM_MEMOIZED_SQL_COUNT)
+				.build();
+		this.connectionPoolMetricsByPoolName = new ConcurrentHashMap<>();
+		this.backgroundTaskUnitLatencyHistogramsByLabels = new ConcurrentHashMap<>();
+		this.backgroundTaskUnitFailureCountsByLabels = new ConcurrentHashMap<>();
+		this.cachesByCacheName = new ConcurrentHashMap<>();
+		this.cacheInvalidationCountsByLabels = new ConcurrentHashMap<>();
+	}
+
+	public void recordRequest(@Nullable Route route,
+														long elapsedNanoseconds) {
+		String routeName = route == null || route.resourceMethod() == null ? UNMATCHED_ROUTE_NAME
+				: getRouteNamesByResourceMethod().computeIfAbsent(route.resourceMethod(), this::routeNameForResourceMethod);
+
+		getRequestLatencyHistogramsByRouteName().computeIfAbsent(routeName, (ignored) -> new LatencyHistogram()).record(elapsedNanoseconds);
+	}
+
+	public void recordStatement(@Nonnull String databaseName,
+															@Nonnull StatementLog statementLog) {
+		requireNonNull(databaseName);
+		requireNonNull(statementLog);
+
+		if (statementLog.sql() == null || statementLog.totalTime() == null)
+			return;
+
+		String fingerprint = getSqlFingerprintsBySql().get(statementLog.sql(), this::normalizeSql);
+		SqlStatementKey sqlStatementKey = new SqlStatementKey(databaseName, fingerprint);
+		LatencyHistogram latencyHistogram = getStatementLatencyHistogramsBySqlStatementKey().get(sqlStatementKey);
+
+		if (latencyHistogram == null) {
+			if (getStatementLatencyHistogramsBySqlStatementKey().size() >= MAXIMUM_SQL_FINGERPRINT_COUNT)
+				sqlStatementKey = new SqlStatementKey(databaseName, OVERFLOW_SQL_FINGERPRINT);
+
+			latencyHistogram = getStatementLatencyHistogramsBySqlStatementKey().computeIfAbsent(sqlStatementKey, (ignored) -> new LatencyHistogram());
+		}
+
+		latencyHistogram.record(statementLog.totalTime());
+	}
+
+	/**
+	 * Records one independently-executed unit of a background task, e.g. one institution's share of a nightly job.
+	 * Unit names are label values, so they should come from a small fixed set (institution IDs, not account IDs).
+	 */
+	public void recordBackgroundTaskUnit(@Nonnull String taskName,
+																			 @Nonnull String unitName,
+																			 long elapsedNanoseconds,
+																			 @Nonnull Boolean succeeded) {
+		requireNonNull(taskName);
+		requireNonNull(unitName);
+		requireNonNull(succeeded);
+
+		String labels = format("task=\"%s\",unit=\"%s\"", escapeLabelValue(taskName), escapeLabelValue(unitName));
+
+		getBackgroundTaskUnitLatencyHistogramsByLabels().computeIfAbsent(labels, (ignored) -> new LatencyHistogram(BACKGROUND_TASK_BUCKET_UPPER_BOUNDS))
+				.record(elapsedNanoseconds);
+
+		LongAdder failureCount = getBackgroundTaskUnitFailureCountsByLabels().computeIfAbsent(labels, (ignored) -> new LongAdder());
+
+		if (!succeeded)
+			failureCount.increment();
+	}
+
+	/**
+	 * Exposes a Caffeine cache's size and statistics.  Statistics are read at scrape time, so this costs nothing
+	 * per cache access beyond what {@code recordStats()} already does.  Registering a new cache under an existing
+	 * name replaces the old one.
+	 */
+	public void registerCache(@Nonnull String cacheName,
+														@Nonnull Cache<?, ?> cache) {
+		requireNonNull(cacheName);
+		requireNonNull(cache);
+
+		getCachesByCacheName().put(cacheName, cache);
+	}
+
+	public void recordCacheInvalidation(@Nonnull String cacheName,
+																			@Nonnull Boolean remote) {
+		requireNonNull(cacheName);
+		requireNonNull(remote);
+
+		String labels = format("cache=\"%s\",source=\"%s\"", escapeLabelValue(cacheName), remote ? "remote" : "local");
+		getCacheInvalidationCountsByLabels().computeIfAbsent(labels, (ignored) -> new LongAdder()).increment();
+	}
+
+	/**
+	 * Suitable for {@code HikariConfig.setMetricsTrackerFactory(...)}.  Pool names should be set explicitly
+	 * so they're stable label values.
+	 */
+	@Nonnull
+	public IMetricsTracker createConnectionPoolMetricsTracker(@Nonnull String poolName,
+																														@Nonnull PoolStats poolStats) {
+		requireNonNull(poolName);
+		requireNonNull(poolStats);
+
+		ConnectionPoolMetrics connectionPoolMetrics = new ConnectionPoolMetrics(poolStats);
+		getConnectionPoolMetricsByPoolName().put(poolName, connectionPoolMetrics);
+
+		return connectionPoolMetrics;
+	}
+
+	/**
+	 * Renders all metrics in the Prometheus text exposition format (version 0.0.4).
+	 */
+	@Nonnull
+	public String generatePrometheusText() {
+		StringBuilder stringBuilder = new StringBuilder(64 * 1024);
+
+		SortedMap<String, LatencyHistogram> requestLatencyHistogramsByRouteName = new TreeMap<>(getRequestLatencyHistogramsByRouteName());
+
+		stringBuilder.append("# HELP cobalt_http_request_duration_seconds Time spent handling HTTP requests, by resource method.\n");
+		stringBuilder.append("# TYPE cobalt_http_request_duration_seconds histogram\n");
+
+		for (Map.Entry<String, LatencyHistogram> entry : requestLatencyHistogramsByRouteName.entrySet())
+			appendHistogram(stringBuilder, "cobalt_http_request_duration_seconds", format("route=\"%s\"", escapeLabelValue(entry.getKey())), entry.getValue().snapshot());
+
+		appendPercentileGauges(stringBuilder, "cobalt_http_request_duration_p99_seconds",
+				"Approximate 99th percentile HTTP request duration, by resource method.", requestLatencyHistogramsByRouteName, (routeName) -> format("route=\"%s\"", escapeLabelValue(routeName)));
+
+		SortedMap<String, LatencyHistogram> statementLatencyHistogramsByLabels = new TreeMap<>();
+
+		for (Map.Entry<SqlStatementKey, LatencyHistogram> entry : getStatementLatencyHistogramsBySqlStatementKey().entrySet())
+			statementLatencyHistogramsByLabels.put(format("database=\"%s\",fingerprint=\"%s\"",
+					escapeLabelValue(entry.getKey().getDatabaseName()), escapeLabelValue(entry.getKey().getFingerprint())), entry.getValue());
+
+		// Statement timings are summaries rather than full histograms to keep the scrape size reasonable across hundreds of fingerprints
+		stringBuilder.append("# HELP cobalt_sql_statement_duration_seconds Time spent executing SQL statements, by normalized statement fingerprint.\n");
+		stringBuilder.append("# TYPE cobalt_sql_statement_duration_seconds summary\n");
+
+		for (Map.Entry<String, LatencyHistogram> entry : statementLatencyHistogramsByLabels.entrySet()) {
+			Snapshot snapshot = entry.getValue().snapshot();
+			stringBuilder.append(format("cobalt_sql_statement_duration_seconds{%s,quantile=\"%s\"} %s\n", entry.getKey(), REPORTED_PERCENTILE, seconds(snapshot.getPercentile(REPORTED_PERCENTILE))));
+			stringBuilder.append(format("cobalt_sql_statement_duration_seconds_sum{%s} %s\n", entry.getKey(), seconds(snapshot.getSumInNanoseconds())));
+			stringBuilder.append(format("cobalt_sql_statement_duration_seconds_count{%s} %d\n", entry.getKey(), snapshot.getCount()));
+		}
+
+		SortedMap<String, ConnectionPoolMetrics> connectionPoolMetricsByPoolName = new TreeMap<>(getConnectionPoolMetricsByPoolName());
+
+		stringBuilder.append("# HELP cobalt_db_pool_connections Current database connection pool state.\n");
+		stringBuilder.append("# TYPE cobalt_db_pool_connections gauge\n");
+
+		for (Map.Entry<String, ConnectionPoolMetrics> entry : connectionPoolMetricsByPoolName.entrySet()) {
+			String pool = escapeLabelValue(entry.getKey());
+			PoolStats poolStats = entry.getValue().getPoolStats();
+
+			stringBuilder.append(format("cobalt_db_pool_connections{pool=\"%s\",state=\"active\"} %d\n", pool, poolStats.getActiveConnections()));
+			stringBuilder.append(format("cobalt_db_pool_connections{pool=\"%s\",state=\"idle\"} %d\n", pool, poolStats.getIdleConnections()));
+			stringBuilder.append(format("cobalt_db_pool_connections{pool=\"%s\",state=\"total\"} %d\n", pool, poolStats.getTotalConnections()));
+			stringBuilder.append(format("cobalt_db_pool_connections{pool=\"%s\",state=\"max\"} %d\n", pool, poolStats.getMaxConnections()));
+		}
+
+		stringBuilder.append("# HELP cobalt_db_pool_pending_threads Threads currently waiting for a database connection.\n");
+		stringBuilder.append("# TYPE cobalt_db_pool_pending_threads gauge\n");
+
+		for (Map.Entry<String, ConnectionPoolMetrics> entry : connectionPoolMetricsByPoolName.entrySet())
+			stringBuilder.append(format("cobalt_db_pool_pending_threads{pool=\"%s\"} %d\n", escapeLabelValue(entry.getKey()), entry.getValue().getPoolStats().getPendingThreads()));
+
+		stringBuilder.append("# HELP cobalt_db_pool_acquire_duration_seconds Time spent waiting to acquire a database connection.\n");
+		stringBuilder.append("# TYPE cobalt_db_pool_acquire_duration_seconds histogram\n");
+
+		for (Map.Entry<String, ConnectionPoolMetrics> entry : connectionPoolMetricsByPoolName.entrySet())
+			appendHistogram(stringBuilder, "cobalt_db_pool_acquire_duration_seconds", format("pool=\"%s\"", escapeLabelValue(entry.getKey())), entry.getValue().getAcquireLatencyHistogram().snapshot());
+
+		stringBuilder.append("# HELP cobalt_db_pool_usage_duration_seconds Time database connections are held before being returned to the pool.\n");
+		stringBuilder.append("# TYPE cobalt_db_pool_usage_duration_seconds histogram\n");
+
+		for (Map.Entry<String, ConnectionPoolMetrics> entry : connectionPoolMetricsByPoolName.entrySet())
+			appendHistogram(stringBuilder, "cobalt_db_pool_usage_duration_seconds", format("pool=\"%s\"", escapeLabelValue(entry.getKey())), entry.getValue().getUsageLatencyHistogram().snapshot());
+
+		stringBuilder.append("# HELP cobalt_db_pool_connection_timeouts_total Connection requests that timed out waiting on the pool.\n");
+		stringBuilder.append("# TYPE cobalt_db_pool_connection_timeouts_total counter\n");
+
+		for (Map.Entry<String, ConnectionPoolMetrics> entry : connectionPoolMetricsByPoolName.entrySet())
+			stringBuilder.append(format("cobalt_db_pool_connection_timeouts_total{pool=\"%s\"} %d\n", escapeLabelValue(entry.getKey()), entry.getValue().getTimeoutCount().sum()));
+
+		stringBuilder.append("# HELP cobalt_deadline_exceeded_total Request deadlines that ran out, by where they ran out.\n");
+		stringBuilder.append("# TYPE cobalt_deadline_exceeded_total counter\n");
+
+		for (ExpirationType expirationType : ExpirationType.values())
+			stringBuilder.append(format("cobalt_deadline_exceeded_total{type=\"%s\"} %d\n", expirationType.name().toLowerCase(Locale.US), Deadline.getExpirationCount(expirationType)));
+
+		SortedMap<String, LatencyHistogram> backgroundTaskUnitLatencyHistogramsByLabels = new TreeMap<>(getBackgroundTaskUnitLatencyHistogramsByLabels());
+
+		stringBuilder.append("# HELP cobalt_background_task_unit_duration_seconds Time spent on each independently-executed unit of a background task.\n");
+		stringBuilder.append("# TYPE cobalt_background_task_unit_duration_seconds histogram\n");
+
+		for (Map.Entry<String, LatencyHistogram> entry : backgroundTaskUnitLatencyHistogramsByLabels.entrySet())
+			appendHistogram(stringBuilder, "cobalt_background_task_unit_duration_seconds", entry.getKey(), entry.getValue().snapshot());
+
+		stringBuilder.append("# HELP cobalt_background_task_unit_failures_total Background task units that failed.\n");
+		stringBuilder.append("# TYPE cobalt_background_task_unit_failures_total counter\n");
+
+		for (Map.Entry<String, LongAdder> entry : new TreeMap<>(getBackgroundTaskUnitFailureCountsByLabels()).entrySet())
+			stringBuilder.append(format("cobalt_background_task_unit_failures_total{%s} %d\n", entry.getKey(), entry.getValue().sum()));
+
+		SortedMap<String, Cache<?, ?>> cachesByCacheName = new TreeMap<>(getCachesByCacheName());
+
+		stringBuilder.append("# HELP cobalt_cache_requests_total Cache lookups, by cache and result.\n");
+		stringBuilder.append("# TYPE cobalt_cache_requests_total counter\n");
+
+		for (Map.Entry<String, Cache<?, ?>> entry : cachesByCacheName.entrySet()) {
+			String cache = escapeLabelValue(entry.getKey());
+			CacheStats cacheStats = entry.getValue().stats();
+
+			stringBuilder.append(format("cobalt_cache_requests_total{cache=\"%s\",result=\"hit\"} %d\n", cache, cacheStats.hitCount()));
+			stringBuilder.append(format("cobalt_cache_requests_total{cache=\"%s\",result=\"miss\"} %d\n", cache, cacheStats.missCount()));
+		}
+
+		stringBuilder.append("# HELP cobalt_cache_evictions_total Entries evicted for size or expiry (not explicit invalidations), by cache.\n");
+		stringBuilder.append("# TYPE cobalt_cache_evictions_total counter\n");
+
+		for (Map.Entry<String, Cache<?, ?>> entry : cachesByCacheName.entrySet())
+			stringBuilder.append(format("cobalt_cache_evictions_total{cache=\"%s\"} %d\n", escapeLabelValue(entry.getKey()), entry.getValue().stats().evictionCount()));
+
+		stringBuilder.append("# HELP cobalt_cache_size Approximate number of entries, by cache.\n");
+		stringBuilder.append("# TYPE cobalt_cache_size gauge\n");
+
+		for (Map.Entry<String, Cache<?, ?>> entry : cachesByCacheName.entrySet())
+			stringBuilder.append(format("cobalt_cache_size{cache=\"%s\"} %d\n", escapeLabelValue(entry.getKey()), entry.getValue().estimatedSize()));
+
+		stringBuilder.append("# HELP cobalt_cache_invalidations_total Explicit cache invalidations, by cache and whether they originated on another node.\n");
+		stringBuilder.append("# TYPE cobalt_cache_invalidations_total counter\n");
+
+		for (Map.Entry<String, LongAdder> entry : new TreeMap<>(getCacheInvalidationCountsByLabels()).entrySet())
+			stringBuilder.append(format("cobalt_cache_invalidations_total{%s} %d\n", entry.getKey(), entry.getValue().sum()));
+
+		return stringBuilder.toString();
+	}
+
+	/**
+	 * Collapses a SQL statement to a fingerprint: comments and literals removed, whitespace squashed, and
+	 * variable-length placeholder lists (e.g. {@code IN (?, ?, ?)}) folded so they don't each become a distinct entry.
+	 */
+	@Nonnull
+	protected String normalizeSql(@Nonnull String sql) {
+		requireNonNull(sql);
+
+		String normalizedSql = SQL_COMMENT_PATTERN.matcher(sql).replaceAll(" ");
+		normalizedSql = SQL_STRING_LITERAL_PATTERN.matcher(normalizedSql).replaceAll("?");
+		normalizedSql = SQL_NUMERIC_LITERAL_PATTERN.matcher(normalizedSql).replaceAll("?");
+		normalizedSql = SQL_PLACEHOLDER_LIST_PATTERN.matcher(normalizedSql).replaceAll("?, ...");
+		normalizedSql = WHITESPACE_PATTERN.matcher(normalizedSql).replaceAll(" ");
+
+		return normalizedSql.trim();
+	}
+
+	@Nonnull
+	protected String routeNameForResourceMethod(@Nonnull Method resourceMethod) {
+		requireNonNull(resourceMethod);
+		return format("%s.%s", resourceMethod.getDeclaringClass().getSimpleName(), resourceMethod.getName());
+	}
+
+	protected void appendHistogram(@Nonnull StringBuilder stringBuilder,
+																 @Nonnull String metricName,
+																 @Nonnull String labels,
+																 @Nonnull Snapshot snapshot) {
+		requireNonNull(stringBuilder);
+		requireNonNull(metricName);
+		requireNonNull(labels);
+		requireNonNull(snapshot);
+
+		for (int i = 0; i < snapshot.getBucketUpperBounds().size(); ++i)
+			stringBuilder.append(format("%s_bucket{%s,le=\"%s\"} %d\n", metricName, labels, seconds(snapshot.getBucketUpperBounds().get(i)), snapshot.getCumulativeCount(i)));
+
+		stringBuilder.append(format("%s_bucket{%s,le=\"+Inf\"} %d\n", metricName, labels, snapshot.getCount()));
+		stringBuilder.append(format("%s_sum{%s} %s\n", metricName, labels, seconds(snapshot.getSumInNanoseconds())));
+		stringBuilder.append(format("%s_count{%s} %d\n", metricName, labels, snapshot.getCount()));
+	}
+
+	protected void appendPercentileGauges(@Nonnull StringBuilder stringBuilder,
+																				@Nonnull String metricName,
+																				@Nonnull String help,
+																				@Nonnull SortedMap<String, LatencyHistogram> latencyHistogramsByName,
+																				@Nonnull Function<String, String> labelsFunction) {
+		requireNonNull(stringBuilder);
+		requireNonNull(metricName);
+		requireNonNull(help);
+		requireNonNull(latencyHistogramsByName);
+		requireNonNull(labelsFunction);
+
+		stringBuilder.append(format("# HELP %s %s\n", metricName, help));
+		stringBuilder.append(format("# TYPE %s gauge\n", metricName));
+
+		for (Map.Entry<String, LatencyHistogram> entry : latencyHistogramsByName.entrySet())
+			stringBuilder.append(format("%s{%s} %s\n", metricName, labelsFunction.apply(entry.getKey()), seconds(entry.getValue().snapshot().getPercentile(REPORTED_PERCENTILE))));
+	}
+
+	@Nonnull
+	protected String escapeLabelValue(@Nonnull String labelValue) {
+		requireNonNull(labelValue);
+		return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	@Nonnull
+	protected String seconds(@Nonnull Duration duration) {
+		requireNonNull(duration);
+		return seconds(duration.toNanos());
+	}
+
+	@Nonnull
+	protected String seconds(@Nonnull Long nanoseconds) {
+		requireNonNull(nanoseconds);
+		return Double.toString(nanoseconds / 1_000_000_000D);
+	}
+
+	@Nonnull
+	protected ConcurrentHashMap<String, LatencyHistogram> getRequestLatencyHistogramsByRouteName() {
+		return this.requestLatencyHistogramsByRouteName;
+	}
+
+	@Nonnull
+	protected ConcurrentHashMap<Method, String> getRouteNamesByResourceMethod() {
+		return this.routeNamesByResourceMethod;
+	}
+
+	@Nonnull
+	protected ConcurrentHashMap<SqlStatementKey, LatencyHistogram> getStatementLatencyHistogramsBySqlStatementKey() {
+		return this.statementLatencyHistogramsBySqlStatementKey;
+	}
+
+	@Nonnull
+	protected Cache<String, String> getSqlFingerprintsBySql() {
+		return this.sqlFingerprintsBySql;
+	}
+
+	@Nonnull
+	protected ConcurrentHashMap<String, ConnectionPoolMetrics> getConnectionPoolMetricsByPoolName() {
+		return this.connectionPoolMetricsByPoolName;
+	}
+
+	@Nonnull
+	protected ConcurrentHashMap<String, LatencyHistogram> getBackgroundTaskUnitLatencyHistogramsByLabels() {
+		return this.backgroundTaskUnitLatencyHistogramsByLabels;
+	}
+
+	@Nonnull
+	protected ConcurrentHashMap<String, LongAdder> getBackgroundTaskUnitFailureCountsByLabels() {
+		return this.backgroundTaskUnitFailureCountsByLabels;
+	}
+
+	@Nonnull
+	protected ConcurrentHashMap<String, Cache<?, ?>> getCachesByCacheName() {
+		return this.cachesByCacheName;
+	}
+
+	@Nonnull
+	protected ConcurrentHashMap<String, LongAdder> getCacheInvalidationCountsByLabels() {
+		return this.cacheInvalidationCountsByLabels;
+	}
+
+	@ThreadSafe
+	protected static class SqlStatementKey {
+		@Nonnull
+		private final String databaseName;
+		@Nonnull
+		private final String fingerprint;
+
+		public SqlStatementKey(@Nonnull String databaseName,
+													 @Nonnull String fingerprint) {
+			requireNonNull(databaseName);
+			requireNonNull(fingerprint);
+
+			this.databaseName = databaseName;
+			this.fingerprint = fingerprint;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (this == other)
+				return true;
+
+			if (other == null || getClass() != other.getClass())
+				return false;
+
+			SqlStatementKey sqlStatementKey = (SqlStatementKey) other;
+			return Objects.equals(getDatabaseName(), sqlStatementKey.getDatabaseName())
+					&& Objects.equals(getFingerprint(), sqlStatementKey.getFingerprint());
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(getDatabaseName(), getFingerprint());
+		}
+
+		@Nonnull
+		public String getDatabaseName() {
+			return this.databaseName;
+		}
+
+		@Nonnull
+		public String getFingerprint() {
+			return this.fingerprint;
+		}
+	}
+
+	@ThreadSafe
+	protected static class ConnectionPoolMetrics implements IMetricsTracker {
+		@Nonnull
+		private final PoolStats poolStats;
+		@Nonnull
+		private final LatencyHistogram acquireLatencyHistogram;
+		@Nonnull
+		private final LatencyHistogram usageLatencyHistogram;
+		@Nonnull
+		private final LongAdder timeoutCount;
+
+		public ConnectionPoolMetrics(@Nonnull PoolStats poolStats) {
+			requireNonNull(poolStats);
+
+			this.poolStats = poolStats;
+			this.acquireLatencyHistogram = new LatencyHistogram();
+			this.usageLatencyHistogram = new LatencyHistogram();
+			this.timeoutCount = new LongAdder();
+		}
+
+		@Override
+		public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+			getAcquireLatencyHistogram().record(elapsedAcquiredNanos);
+		}
+
+		@Override
+		public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+			getUsageLatencyHistogram().record(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+		}
+
+		@Override
+		public void recordConnectionTimeout() {
+			getTimeoutCount().increment();
+		}
+
+		@Nonnull
+		public PoolStats getPoolStats() {
+			return this.poolStats;
+		}
+
+		@Nonnull
+		public LatencyHistogram getAcquireLatencyHistogram() {
+			return this.acquireLatencyHistogram;
+		}
+
+		@Nonnull
+		public LatencyHistogram getUsageLatencyHistogram() {
+			return this.usageLatencyHistogram;
+		}
+
+		@Nonnull
+		public LongAdder getTimeoutCount() {
+			return this.timeoutCount;
+		}
+	}
+}
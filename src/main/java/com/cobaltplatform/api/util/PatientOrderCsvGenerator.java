@@ -307,7 +307,16 @@ public class PatientOrderCsvGenerator {
 	}
 
 	public PatientOrderCsvGenerator() {
-		this.random = new Random();
+		this(new Random());
+	}
+
+	/**
+	 * Supply a seeded {@link Random} to generate the same CSV every time (useful for benchmarks and tests).
+	 */
+	public PatientOrderCsvGenerator(@Nonnull Random random) {
+		requireNonNull(random);
+
+		this.random = random;
 
 		try {
 			List<String> names = Files.readAllLines(Paths.get("resources/mock/ic/fake-names"), StandardCharsets.UTF_8);
@@ -27,13 +27,16 @@ import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3ClientBuilder;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.ObjectCannedACL;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
@@ -46,13 +49,16 @@ import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -186,6 +192,118 @@ public class UploadManager {
 		}
 	}
 
+	/**
+	 * Opens a stream over the stored file instead of copying it anywhere, so callers can pipe arbitrarily large files
+	 * with bounded memory.  The caller is responsible for closing the returned stream.
+	 * <p>
+	 * {@code range} is an optional single HTTP byte range, e.g. {@code bytes=0-1023}, which S3 applies for us.
+	 */
+	@Nonnull
+	public StoredFileInputStream openFileLocatedByStorageKey(@Nonnull String storageKey,
+																													 @Nullable String range) {
+		requireNonNull(storageKey);
+
+		GetObjectRequest.Builder objectRequestBuilder = GetObjectRequest.builder()
+				.bucket(getConfiguration().getAmazonS3BucketName())
+				.key(storageKey);
+
+		if (range != null)
+			objectRequestBuilder.range(range);
+
+		try {
+			return new StoredFileInputStream(getS3Client().getObject(objectRequestBuilder.build()));
+		} catch (NoSuchKeyException e) {
+			throw new ValidationException(getStrings().get("No file exists for storage key '{{storageKey}}'.",
+					Map.of("storageKey", storageKey)));
+		} catch (S3Exception e) {
+			if (range != null && e.statusCode() == 416) {
+				// Callers need the full size for the "Content-Range: bytes */<size>" header a 416 response must carry
+				Long completeLength = getS3Client().headObject(HeadObjectRequest.builder()
+						.bucket(getConfiguration().getAmazonS3BucketName())
+						.key(storageKey)
+						.build()).contentLength();
+
+				throw new RangeNotSatisfiableException(format("Range '%s' cannot be satisfied for storage key '%s'", range, storageKey),
+						completeLength, e);
+			}
+
+			throw e;
+		}
+	}
+
+	public void uploadFileToStorageKey(@Nonnull Path file,
+																		 @Nonnull String storageKey,
+																		 @Nonnull String contentType) {
+		requireNonNull(file);
+		requireNonNull(storageKey);
+		requireNonNull(contentType);
+
+		PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+				.bucket(getConfiguration().getAmazonS3BucketName())
+				.key(storageKey)
+				.contentType(contentType)
+				.build();
+
+		getS3Client().putObject(putObjectRequest, RequestBody.fromFile(file));
+	}
+
+	@Nonnull
+	public String createPresignedViewUrl(@Nonnull String storageKey) {
+		requireNonNull(storageKey);
+		return createPresignedViewUrl(getConfiguration().getAmazonS3BucketName(), storageKey);
+	}
+
+	/**
+	 * A stored file's bytes along with the length and range metadata reported by storage.
+	 */
+	@ThreadSafe
+	public static class StoredFileInputStream extends FilterInputStream {
+		@Nullable
+		private final Long contentLength;
+		@Nullable
+		private final String contentRange;
+
+		protected StoredFileInputStream(@Nonnull ResponseInputStream<GetObjectResponse> responseInputStream) {
+			super(requireNonNull(responseInputStream));
+
+			GetObjectResponse getObjectResponse = responseInputStream.response();
+
+			this.contentLength = getObjectResponse.contentLength();
+			this.contentRange = getObjectResponse.contentRange();
+		}
+
+		// Number of bytes this stream will produce, which is the size of the range if one was requested
+		@Nonnull
+		public Optional<Long> getContentLength() {
+			return Optional.ofNullable(this.contentLength);
+		}
+
+		// Only present for range requests, e.g. "bytes 0-1023/146515"
+		@Nonnull
+		public Optional<String> getContentRange() {
+			return Optional.ofNullable(this.contentRange);
+		}
+	}
+
+	@ThreadSafe
+	public static class RangeNotSatisfiableException extends RuntimeException {
+		@Nullable
+		private final Long completeLength;
+
+		public RangeNotSatisfiableException(@Nonnull String message,
+																				@Nullable Long completeLength,
+																				@Nonnull Throwable cause) {
+			super(requireNonNull(message), requireNonNull(cause));
+			this.completeLength = completeLength;
+		}
+
+		// Size of the whole stored file
+		@Nonnull
+		public Optional<Long> getCompleteLength() {
+			return Optional.ofNullable(this.completeLength);
+		}
+	}
+
 	@Nonnull
 	protected S3Client createS3Client() {
 		S3ClientBuilder s3ClientBuilder = S3Client.builder().region(getConfiguration().getAmazonS3Region());
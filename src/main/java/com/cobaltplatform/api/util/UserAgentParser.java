@@ -19,6 +19,9 @@
 
 package com.cobaltplatform.api.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import ua_parser.Client;
 import ua_parser.Parser;
 
@@ -39,14 +42,38 @@ import static org.apache.commons.lang3.StringUtils.trimToNull;
  */
 @ThreadSafe
 public class UserAgentParser {
+	@Nonnull
+	private static final Long DEFAULT_MAXIMUM_CACHE_SIZE;
+	@Nonnull
+	private static final Integer MAXIMUM_CACHEABLE_USER_AGENT_LENGTH;
+
 	@Nonnull
 	private final Parser parser;
 	@Nonnull
 	private final Set<String> searchBotUserAgentIds;
+	@Nonnull
+	private final Cache<String, UserAgent> userAgentsByRawUserAgentCache;
+
+	static {
+		DEFAULT_MAXIMUM_CACHE_SIZE = 10_000L;
+		// Real user agents are a few hundred characters; anything much longer is junk we shouldn't hold on to
+		MAXIMUM_CACHEABLE_USER_AGENT_LENGTH = 1_024;
+	}
 
 	public UserAgentParser() {
+		this(DEFAULT_MAXIMUM_CACHE_SIZE);
+	}
+
+	public UserAgentParser(@Nonnull Long maximumCacheSize) {
+		requireNonNull(maximumCacheSize);
+
 		this.parser = new Parser();
 		this.searchBotUserAgentIds = unmodifiableSet(provideSearchBotUserAgentIds());
+		// A handful of user agents account for nearly all traffic, and parsing runs hundreds of regexes, so memoize
+		this.userAgentsByRawUserAgentCache = Caffeine.newBuilder()
+				.maximumSize(maximumCacheSize)
+				.recordStats()
+				.build();
 	}
 
 	@Nonnull
@@ -62,6 +89,26 @@ public class UserAgentParser {
 		if (userAgent == null)
 			return new UserAgent.Builder(UserAgentType.UNKNOWN).build();
 
+		if (userAgent.length() > MAXIMUM_CACHEABLE_USER_AGENT_LENGTH)
+			return parseUncached(userAgent);
+
+		return getUserAgentsByRawUserAgentCache().get(userAgent, this::parseUncached);
+	}
+
+	@Nonnull
+	public CacheStats getCacheStats() {
+		return getUserAgentsByRawUserAgentCache().stats();
+	}
+
+	@Nonnull
+	public Long getCacheSize() {
+		return getUserAgentsByRawUserAgentCache().estimatedSize();
+	}
+
+	@Nonnull
+	protected UserAgent parseUncached(@Nonnull String userAgent) {
+		requireNonNull(userAgent);
+
 		// "By hand" search engine bot detection
 		Optional<UserAgent> searchBotUserAgent = parseForSearchBot(userAgent);
 
@@ -113,6 +160,11 @@ public class UserAgentParser {
 		return Optional.empty();
 	}
 
+	@Nonnull
+	protected Cache<String, UserAgent> getUserAgentsByRawUserAgentCache() {
+		return this.userAgentsByRawUserAgentCache;
+	}
+
 	@Nonnull
 	protected Set<String> getSearchBotUserAgentIds() {
 		return this.searchBotUserAgentIds;
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.util.db;
+
+import com.cobaltplatform.api.Configuration;
+import com.cobaltplatform.api.context.DatabaseContext;
+import com.cobaltplatform.api.context.DatabaseContextExecutor;
+import com.cobaltplatform.api.context.DatabaseContextExecutor.DatabaseContextOperation;
+import com.cobaltplatform.api.error.ErrorReporter;
+import com.pyranid.StatementLog;
+import com.soklet.web.routing.Route;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Looks at the statements a unit of work (normally an HTTP request) executed and flags N+1 patterns - the same
+ * SQL issued over and over - as well as {@link QueryBudget} overruns.
+ * <p>
+ * In production, a sample of violations is logged at {@code WARN} and sent to the {@link ErrorReporter}, and the rest
+ * are logged at {@code DEBUG} - a busy route that's over budget would otherwise log on every request.  When
+ * enforcement is on (or we are running integration tests) they throw {@link QueryBudgetExceededException} instead,
+ * but only while the response can still be replaced - see {@link #checkRequest(DatabaseContext, Method, Boolean)}.
+ *
+ * @author Transmogrify, LLC.
+ */
+@Singleton
+@ThreadSafe
+public class QueryBudgetDetector {
+	@Nonnull
+	private static final Integer MAXIMUM_REPORTED_REPEATED_STATEMENT_COUNT;
+
+	@Nonnull
+	private final Configuration configuration;
+	@Nonnull
+	private final Provider<ErrorReporter> errorReporterProvider;
+	@Nonnull
+	private final DatabaseContextExecutor databaseContextExecutor;
+	@Nonnull
+	private final Logger logger;
+
+	static {
+		MAXIMUM_REPORTED_REPEATED_STATEMENT_COUNT = 5;
+	}
+
+	@Inject
+	public QueryBudgetDetector(@Nonnull Configuration configuration,
+														 @Nonnull Provider<ErrorReporter> errorReporterProvider,
+														 @Nonnull DatabaseContextExecutor databaseContextExecutor) {
+		requireNonNull(configuration);
+		requireNonNull(errorReporterProvider);
+		requireNonNull(databaseContextExecutor);
+
+		this.configuration = configuration;
+		this.errorReporterProvider = errorReporterProvider;
+		this.databaseContextExecutor = databaseContextExecutor;
+		this.logger = LoggerFactory.getLogger(getClass());
+	}
+
+	@Nonnull
+	public Budget budgetForRoute(@Nullable Route route) {
+		return budgetForResourceMethod(route == null ? null : route.resourceMethod());
+	}
+
+	@Nonnull
+	public Budget budgetForResourceMethod(@Nullable Method resourceMethod) {
+		QueryBudget queryBudget = resourceMethod == null ? null : resourceMethod.getAnnotation(QueryBudget.class);
+		Integer defaultRepeatedStatementThreshold = getConfiguration().getQueryBudgetRepeatedStatementThreshold();
+
+		if (queryBudget == null)
+			return new Budget(null, null, defaultRepeatedStatementThreshold);
+
+		return new Budget(
+				queryBudget.maximumStatementCount() < 0 ? null : queryBudget.maximumStatementCount(),
+				queryBudget.maximumDatabaseTimeInMilliseconds() < 0 ? null : queryBudget.maximumDatabaseTimeInMilliseconds(),
+				queryBudget.maximumRepeatedStatementCount() < 0 ? defaultRepeatedStatementThreshold : queryBudget.maximumRepeatedStatementCount());
+	}
+
+	@Nonnull
+	public DatabaseContext createDatabaseContext(@Nonnull Budget budget) {
+		requireNonNull(budget);
+		return new DatabaseContext(budget.getMaximumRepeatedStatementCount().orElse(null));
+	}
+
+	/**
+	 * Checks a completed HTTP request's statements against its Resource Method's budget.
+	 * <p>
+	 * This necessarily runs after the Resource Method has written its response.  Enforcement only throws if
+	 * {@code responseCommitted} is false, i.e. the response is still sitting in the servlet buffer, so the container
+	 * can discard it and send an error instead - and for transactional requests, the work is rolled back.
+	 * Once any bytes have gone to the client (large or streamed responses), the violation is logged and reported
+	 * like it is in production, since throwing then would roll back work the client was already told succeeded.
+	 */
+	public void checkRequest(@Nonnull DatabaseContext databaseContext,
+													 @Nullable Method resourceMethod,
+													 @Nonnull Boolean responseCommitted) {
+		requireNonNull(databaseContext);
+		requireNonNull(responseCommitted);
+
+		Budget budget = budgetForResourceMethod(resourceMethod);
+		List<String> violations = detectViolations(databaseContext, budget);
+
+		if (violations.size() == 0)
+			return;
+
+		String message = format("Query budget exceeded for %s:\n%s", routeDescription(resourceMethod), violations.stream().collect(Collectors.joining("\n")));
+
+		if (shouldEnforce() && !responseCommitted)
+			throw new QueryBudgetExceededException(message);
+
+		if (ThreadLocalRandom.current().nextDouble() < getConfiguration().getQueryBudgetReportingSampleRate()) {
+			getLogger().warn(message);
+			getErrorReporter().report(message);
+		} else {
+			getLogger().debug(message);
+		}
+	}
+
+	/**
+	 * Runs the operation and throws {@link QueryBudgetExceededException} if it goes over budget, regardless of
+	 * configuration.  Intended for tests that want to lock in the query profile of a code path.
+	 */
+	public void executeWithinBudget(@Nonnull Budget budget,
+																	@Nonnull DatabaseContextOperation databaseContextOperation) throws Exception {
+		requireNonNull(budget);
+		requireNonNull(databaseContextOperation);
+
+		DatabaseContext databaseContext = createDatabaseContext(budget);
+		getDatabaseContextExecutor().execute(databaseContext, databaseContextOperation);
+
+		List<String> violations = detectViolations(databaseContext, budget);
+
+		if (violations.size() > 0)
+			throw new QueryBudgetExceededException(format("Query budget exceeded:\n%s", violations.stream().collect(Collectors.joining("\n"))));
+	}
+
+	@Nonnull
+	public List<String> detectViolations(@Nonnull DatabaseContext databaseContext,
+																			 @Nonnull Budget budget) {
+		requireNonNull(databaseContext);
+		requireNonNull(budget);
+
+		List<String> violations = new ArrayList<>();
+		List<StatementLog> statementLogs = databaseContext.getStatementLogs();
+
+		Integer maximumStatementCount = budget.getMaximumStatementCount().orElse(null);
+
+		if (maximumStatementCount != null && statementLogs.size() > maximumStatementCount)
+			violations.add(format("Executed %d statements, budget is %d", statementLogs.size(), maximumStatementCount));
+
+		Long maximumDatabaseTimeInMilliseconds = budget.getMaximumDatabaseTimeInMilliseconds().orElse(null);
+
+		if (maximumDatabaseTimeInMilliseconds != null) {
+			long databaseTimeInNanoseconds = statementLogs.stream()
+					.mapToLong(statementLog -> statementLog.totalTime() == null ? 0L : statementLog.totalTime())
+					.sum();
+
+			if (databaseTimeInNanoseconds > maximumDatabaseTimeInMilliseconds * 1_000_000L)
+				violations.add(format("Spent %.1fms in the database, budget is %dms", databaseTimeInNanoseconds / 1_000_000D, maximumDatabaseTimeInMilliseconds));
+		}
+
+		Integer maximumRepeatedStatementCount = budget.getMaximumRepeatedStatementCount().orElse(null);
+
+		if (maximumRepeatedStatementCount != null) {
+			List<Map.Entry<String, Integer>> repeatedStatements = databaseContext.getStatementCountsBySql().entrySet().stream()
+					.filter(entry -> entry.getValue() > maximumRepeatedStatementCount)
+					.sorted((entry1, entry2) -> entry2.getValue().compareTo(entry1.getValue()))
+					.collect(Collectors.toList());
+
+			// Worst offenders first; past a handful the rest are just noise
+			for (Map.Entry<String, Integer> repeatedStatement : repeatedStatements.stream().limit(MAXIMUM_REPORTED_REPEATED_STATEMENT_COUNT).collect(Collectors.toList()))
+				violations.add(format("Executed the same statement %d times (possible N+1), origin %s: %s", repeatedStatement.getValue(),
+						databaseContext.getStatementOrigin(repeatedStatement.getKey()).orElse("(unknown)"),
+						repeatedStatement.getKey().replaceAll("\\s+", " ").trim()));
+
+			if (repeatedStatements.size() > MAXIMUM_REPORTED_REPEATED_STATEMENT_COUNT)
+				violations.add(format("...and %d more repeated statements", repeatedStatements.size() - MAXIMUM_REPORTED_REPEATED_STATEMENT_COUNT));
+		}
+
+		return Collections.unmodifiableList(violations);
+	}
+
+	@Nonnull
+	protected Boolean shouldEnforce() {
+		return getConfiguration().getShouldEnforceQueryBudgets() || getConfiguration().isRunningInIntegrationTestMode();
+	}
+
+	@Nonnull
+	protected String routeDescription(@Nullable Method resourceMethod) {
+		if (resourceMethod == null)
+			return "(unknown route)";
+
+		return format("%s.%s", resourceMethod.getDeclaringClass().getSimpleName(), resourceMethod.getName());
+	}
+
+	@Nonnull
+	protected Configuration getConfiguration() {
+		return this.configuration;
+	}
+
+	@Nonnull
+	protected ErrorReporter getErrorReporter() {
+		return this.errorReporterProvider.get();
+	}
+
+	@Nonnull
+	protected DatabaseContextExecutor getDatabaseContextExecutor() {
+		return this.databaseContextExecutor;
+	}
+
+	@Nonnull
+	protected Logger getLogger() {
+		return this.logger;
+	}
+
+	@Immutable
+	public static class Budget {
+		@Nullable
+		private final Integer maximumStatementCount;
+		@Nullable
+		private final Long maximumDatabaseTimeInMilliseconds;
+		@Nullable
+		private final Integer maximumRepeatedStatementCount;
+
+		public Budget(@Nullable Integer maximumStatementCount,
+									@Nullable Long maximumDatabaseTimeInMilliseconds,
+									@Nullable Integer maximumRepeatedStatementCount) {
+			this.maximumStatementCount = maximumStatementCount;
+			this.maximumDatabaseTimeInMilliseconds = maximumDatabaseTimeInMilliseconds;
+			this.maximumRepeatedStatementCount = maximumRepeatedStatementCount;
+		}
+
+		@Nonnull
+		public Optional<Integer> getMaximumStatementCount() {
+			return Optional.ofNullable(this.maximumStatementCount);
+		}
+
+		@Nonnull
+		public Optional<Long> getMaximumDatabaseTimeInMilliseconds() {
+			return Optional.ofNullable(this.maximumDatabaseTimeInMilliseconds);
+		}
+
+		@Nonnull
+		public Optional<Integer> getMaximumRepeatedStatementCount() {
+			return Optional.ofNullable(this.maximumRepeatedStatementCount);
+		}
+	}
+}
@@ -21,8 +21,11 @@ package com.cobaltplatform.api.web.filter;
 
 import com.cobaltplatform.api.context.DatabaseContext;
 import com.cobaltplatform.api.context.DatabaseContextExecutor;
+import com.cobaltplatform.api.context.Deadline;
+import com.cobaltplatform.api.context.Deadline.ExpirationType;
 import com.cobaltplatform.api.service.SystemService;
 import com.cobaltplatform.api.util.db.DatabaseProvider;
+import com.cobaltplatform.api.util.db.QueryBudgetDetector;
 import com.cobaltplatform.api.util.db.ReadReplica;
 import com.cobaltplatform.api.util.db.RequiresManualTransactionManagement;
 import com.pyranid.Database;
@@ -46,10 +49,12 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
 import java.lang.reflect.Method;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -68,19 +73,24 @@ public class DatabaseFilter implements Filter {
 	@Nonnull
 	private final DatabaseContextExecutor databaseContextExecutor;
 	@Nonnull
+	private final QueryBudgetDetector queryBudgetDetector;
+	@Nonnull
 	private final Logger logger;
 
 	@Inject
 	public DatabaseFilter(@Nonnull Provider<SystemService> systemServiceProvider,
 												@Nonnull DatabaseProvider databaseProvider,
-												@Nonnull DatabaseContextExecutor databaseContextExecutor) {
+												@Nonnull DatabaseContextExecutor databaseContextExecutor,
+												@Nonnull QueryBudgetDetector queryBudgetDetector) {
 		requireNonNull(systemServiceProvider);
 		requireNonNull(databaseProvider);
 		requireNonNull(databaseContextExecutor);
+		requireNonNull(queryBudgetDetector);
 
 		this.systemServiceProvider = systemServiceProvider;
 		this.databaseProvider = databaseProvider;
 		this.databaseContextExecutor = databaseContextExecutor;
+		this.queryBudgetDetector = queryBudgetDetector;
 		this.logger = LoggerFactory.getLogger("com.cobaltplatform.api.sql.REQUEST_SQL");
 	}
 
@@ -109,43 +119,51 @@ public class DatabaseFilter implements Filter {
 			return;
 		}
 
-		RequestContext requestContext = null;
-
-		try {
-			requestContext = RequestContext.get();
-		} catch (Throwable ignored) {
-			// Nothing to do, continue on
-		}
+		Method resourceMethod = resourceMethodForCurrentRequest().orElse(null);
+		DatabaseContext databaseContext = getQueryBudgetDetector().createDatabaseContext(getQueryBudgetDetector().budgetForResourceMethod(resourceMethod));
 
 		// If a Resource Method has either @ReadReplica or @RequiresManualTransactionManagement applied, don't wrap this request in a transaction
-		if (requestContext != null) {
-			Route route = requestContext.route().orElse(null);
-			Method resourceMethod = route != null && route.resourceMethod() != null ? route.resourceMethod() : null;
+		boolean readReplica = resourceMethod != null && resourceMethod.getAnnotation(ReadReplica.class) != null;
+		boolean requiresManualTransactionManagement = resourceMethod != null && resourceMethod.getAnnotation(RequiresManualTransactionManagement.class) != null;
 
-			if (resourceMethod != null) {
-				boolean readReplica = resourceMethod.getAnnotation(ReadReplica.class) != null;
-				boolean requiresManualTransactionManagement = resourceMethod.getAnnotation(RequiresManualTransactionManagement.class) != null;
-
-				if (readReplica || requiresManualTransactionManagement) {
-					filterChain.doFilter(servletRequest, servletResponse);
-					return;
+		try {
+			if (readReplica || requiresManualTransactionManagement) {
+				// Still track statements so these requests are covered by query budget checks
+				try {
+					getDatabaseContextExecutor().execute(databaseContext, () -> {
+						filterChain.doFilter(servletRequest, servletResponse);
+					});
+				} catch (IOException | ServletException | RuntimeException e) {
+					throw e;
+				} catch (Exception e) {
+					throw new ServletException(e);
 				}
-			}
-		}
 
-		DatabaseContext databaseContext = new DatabaseContext();
+				getQueryBudgetDetector().checkRequest(databaseContext, resourceMethod, servletResponse.isCommitted());
+			} else {
+				getDatabase().transaction(() -> {
+					// This transaction wraps our HTTP resource methods (those annotated with @GET, @POST, etc.)
+					// We already know the current account (if one has been authenticated) at this point.
+					// Apply the current context (account, resource method, etc.) to the current transaction for automated DB footprint capture
+					getSystemService().applyFootprintForCurrentContextToCurrentTransaction();
 
-		try {
-			getDatabase().transaction(() -> {
-				// This transaction wraps our HTTP resource methods (those annotated with @GET, @POST, etc.)
-				// We already know the current account (if one has been authenticated) at this point.
-				// Apply the current context (account, resource method, etc.) to the current transaction for automated DB footprint capture
-				getSystemService().applyFootprintForCurrentContextToCurrentTransaction();
-
-				getDatabaseContextExecutor().execute(databaseContext, () -> {
-					filterChain.doFilter(servletRequest, servletResponse);
+					// Don't let a runaway query outlive the request that issued it
+					getSystemService().applyDeadlineForCurrentContextToCurrentTransaction();
+
+					getDatabaseContextExecutor().execute(databaseContext, () -> {
+						filterChain.doFilter(servletRequest, servletResponse);
+					});
+
+					// Check before the transaction commits so an enforced budget violation rolls back the request's work.
+					// The response has been rendered by now, so this can only be enforced if none of it has reached the client yet
+					getQueryBudgetDetector().checkRequest(databaseContext, resourceMethod, servletResponse.isCommitted());
 				});
-			});
+			}
+		} catch (RuntimeException e) {
+			if (isStatementTimeout(e))
+				Deadline.recordExpiration(ExpirationType.DATABASE);
+
+			throw e;
 		} finally {
 			Long totalTime = 0L;
 			List<StatementLog> originalStatementLogs = databaseContext.getStatementLogs();
@@ -174,6 +192,32 @@ public class DatabaseFilter implements Filter {
 		}
 	}
 
+	@Nonnull
+	protected Optional<Method> resourceMethodForCurrentRequest() {
+		RequestContext requestContext = null;
+
+		try {
+			requestContext = RequestContext.get();
+		} catch (Throwable ignored) {
+			// Nothing to do, continue on
+		}
+
+		Route route = requestContext == null ? null : requestContext.route().orElse(null);
+		return Optional.ofNullable(route == null ? null : route.resourceMethod());
+	}
+
+	@Nonnull
+	protected Boolean isStatementTimeout(@Nonnull Throwable throwable) {
+		requireNonNull(throwable);
+
+		// Postgres reports statement_timeout cancellations as "query_canceled"
+		for (Throwable cause = throwable; cause != null; cause = cause.getCause())
+			if (cause instanceof SQLException && Objects.equals(((SQLException) cause).getSQLState(), "57014"))
+				return true;
+
+		return false;
+	}
+
 	@Override
 	public void destroy() {
 		// Nothing for now
@@ -194,6 +238,11 @@ public class DatabaseFilter implements Filter {
 		return this.databaseContextExecutor;
 	}
 
+	@Nonnull
+	protected QueryBudgetDetector getQueryBudgetDetector() {
+		return this.queryBudgetDetector;
+	}
+
 	@Nonnull
 	public Logger getLogger() {
 		return this.logger;
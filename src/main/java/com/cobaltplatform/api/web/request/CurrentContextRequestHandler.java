@@ -23,6 +23,8 @@ import com.cobaltplatform.api.Configuration;
 import com.cobaltplatform.api.context.CurrentContext;
 import com.cobaltplatform.api.context.CurrentContextExecutor;
 import com.cobaltplatform.api.context.CurrentContextExecutor.CurrentContextOperation;
+import com.cobaltplatform.api.context.Deadline;
+import com.cobaltplatform.api.context.Deadline.ExpirationType;
 import com.cobaltplatform.api.error.ErrorReporter;
 import com.cobaltplatform.api.integration.epic.MyChartAccessToken;
 import com.cobaltplatform.api.model.api.request.UpsertClientDeviceRequest;
@@ -47,6 +49,8 @@ import com.cobaltplatform.api.util.UserAgent;
 import com.cobaltplatform.api.util.db.DatabaseProvider;
 import com.pyranid.Database;
 import com.soklet.util.FormatUtils;
+import com.soklet.web.request.RequestContext;
+import com.soklet.web.routing.Route;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -57,6 +61,7 @@ import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
@@ -337,6 +342,7 @@ public class CurrentContextRequestHandler {
 					.accountSource(accountSource)
 					.fingerprintId(fingerprintIdValue)
 					.myChartAccessToken(myChartAccessToken)
+					.deadline(determineDeadline().orElse(null))
 					.build();
 
 			currentContextComponents = new ArrayList<>(5);
@@ -369,12 +375,41 @@ public class CurrentContextRequestHandler {
 			if (accountIdentifier != null && !analytics && !performingAutoRefresh)
 				getLogger().debug(format("Authenticated %s for this request.", accountIdentifier));
 
-			getCurrentContextExecutor().execute(currentContext, currentContextOperation);
+			try {
+				getCurrentContextExecutor().execute(currentContext, currentContextOperation);
+			} finally {
+				Deadline deadline = currentContext.getDeadline().orElse(null);
+
+				if (deadline != null && deadline.isExpired()) {
+					Deadline.recordExpiration(ExpirationType.REQUEST);
+					getLogger().warn("Request exceeded its deadline of {}", deadline.getTimeout());
+				}
+			}
 		} finally {
 			getErrorReporter().endScope();
 		}
 	}
 
+	/**
+	 * The resource method's {@link RequestDeadline} if it has one, otherwise the configured default.
+	 */
+	@Nonnull
+	protected Optional<Deadline> determineDeadline() {
+		Duration timeout = getConfiguration().getRequestDeadline();
+
+		try {
+			Route route = RequestContext.get().route().orElse(null);
+			RequestDeadline requestDeadline = route == null || route.resourceMethod() == null ? null : route.resourceMethod().getAnnotation(RequestDeadline.class);
+
+			if (requestDeadline != null)
+				timeout = Duration.ofSeconds(requestDeadline.timeoutInSeconds());
+		} catch (IllegalStateException ignored) {
+			// No request context available, use the default
+		}
+
+		return timeout.isZero() || timeout.isNegative() ? Optional.empty() : Optional.of(Deadline.after(timeout));
+	}
+
 	@Nonnull
 	protected Boolean persistClientDeviceIfNecessary(@Nonnull RemoteClient remoteClient,
 																									 @Nonnull Institution institution,
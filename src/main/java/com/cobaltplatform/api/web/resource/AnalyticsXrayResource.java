@@ -20,8 +20,6 @@
 package com.cobaltplatform.api.web.resource;
 
 import com.cobaltplatform.api.context.CurrentContext;
-import com.cobaltplatform.api.model.analytics.AnalyticsMultiChartWidget;
-import com.cobaltplatform.api.model.analytics.AnalyticsWidget;
 import com.cobaltplatform.api.model.api.response.AnalyticsReportGroupApiResponse.AnalyticsReportGroupApiResponseFactory;
 import com.cobaltplatform.api.model.db.Account;
 import com.cobaltplatform.api.model.db.AnalyticsReportGroup;
@@ -29,6 +27,7 @@ import com.cobaltplatform.api.model.db.AnalyticsReportGroupReport;
 import com.cobaltplatform.api.model.db.Institution.InstitutionId;
 import com.cobaltplatform.api.model.security.AuthenticationRequired;
 import com.cobaltplatform.api.service.AnalyticsXrayService;
+import com.cobaltplatform.api.service.AnalyticsXrayService.AnalyticsWidgetsResult;
 import com.cobaltplatform.api.service.AnalyticsXrayService.AnalyticsXrayFilter;
 import com.cobaltplatform.api.service.AuthorizationService;
 import com.cobaltplatform.api.util.db.ReadReplica;
@@ -47,7 +46,6 @@ import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -131,91 +129,19 @@ public class AnalyticsXrayResource {
 			throw new AuthorizationException();
 
 		List<AnalyticsReportGroupReport> reports = getAnalyticsXrayService().findAnalyticsReportGroupReportsByAnalyticsReportGroupId(analyticsReportGroupId);
-		List<AnalyticsWidget> widgets = new ArrayList<>(reports.size());
 
 		// TODO: temporary hack, remove
 		endDate = endDate.plusDays(1);
 		AnalyticsXrayFilter analyticsXrayFilter = new AnalyticsXrayFilter(behaviorBridgeProvider.orElse(null));
 
-		// Based on report type, pull data for it
-		for (AnalyticsReportGroupReport report : reports) {
-			switch (report.getReportTypeId()) {
-				// ** Account-related reports
-
-				// N of unique people that accessed the website
-				case ADMIN_ANALYTICS_ACCOUNT_VISITS ->
-						widgets.add(getAnalyticsXrayService().createAccountVisitsWidget(institutionId, startDate, endDate, analyticsXrayFilter));
-
-				// N of people that created an account
-				case ADMIN_ANALYTICS_ACCOUNT_CREATION ->
-						widgets.add(getAnalyticsXrayService().createAccountsCreatedWidget(institutionId, startDate, endDate, analyticsXrayFilter));
-
-				// N of repeat users (logged on more than once)
-				case ADMIN_ANALYTICS_ACCOUNT_REPEAT_VISITS ->
-						widgets.add(getAnalyticsXrayService().createAccountRepeatVisitsWidget(institutionId, startDate, endDate, analyticsXrayFilter));
-
-				// List of websites from which the user accessed the platform
-				case ADMIN_ANALYTICS_ACCOUNT_REFERRER ->
-						widgets.add(getAnalyticsXrayService().createAccountReferrersWidget(institutionId, startDate, endDate, analyticsXrayFilter));
-
-				// N of people who started the onboarding screening flow and N of people who finished
-				case ADMIN_ANALYTICS_ACCOUNT_ONBOARDING_RESULTS ->
-						widgets.add(getAnalyticsXrayService().createAccountOnboardingResultsWidget(institutionId, startDate, endDate, analyticsXrayFilter));
-
-				// Using IP address to organized by zip code
-				//	case ADMIN_ANALYTICS_ACCOUNT_LOCATION -> throw new UnsupportedOperationException("TODO");
-
-				// ** Course-related reports
-
-				// N of users per course
-				case ADMIN_ANALYTICS_COURSE_ACCOUNT_VISITS ->
-						widgets.add(getAnalyticsXrayService().createCourseAccountVisitsWidget(institutionId, startDate, endDate, analyticsXrayFilter));
-
-				// N of users doing more than one course
-				case ADMIN_ANALYTICS_COURSE_AGGREGATE_VISITS ->
-						widgets.add(getAnalyticsXrayService().createCourseAggregateVisitsWidget(institutionId, startDate, endDate, analyticsXrayFilter));
-
-				// N of people that clicked/opened a unique module
-				case ADMIN_ANALYTICS_COURSE_MODULE_ACCOUNT_VISITS -> {
-					List<AnalyticsMultiChartWidget> widgetList =
-							getAnalyticsXrayService().createCourseModuleVisitWidget(
-									institutionId, startDate, endDate, analyticsXrayFilter);
-					widgets.addAll(widgetList);
-				}
-
-				// N of minutes it takes for people to complete a course (mean, median, mode)
-				case ADMIN_ANALYTICS_COURSE_DWELL_TIME ->
-						widgets.add(getAnalyticsXrayService().createCourseDwellTimeWidget(institutionId, startDate, endDate, analyticsXrayFilter));
-
-				// N of minutes it takes for people to get through a unique module (mean, median, mode)
-				case ADMIN_ANALYTICS_COURSE_MODULE_DWELL_TIME ->
-						widgets.addAll(getAnalyticsXrayService().createCourseUnitDwellTimeWidgets(institutionId, startDate, endDate, analyticsXrayFilter));
-
-				// N of people who complete each course
-				case ADMIN_ANALYTICS_COURSE_COMPLETION ->
-						widgets.add(getAnalyticsXrayService().createCourseCompletionWidget(institutionId, startDate, endDate, analyticsXrayFilter));
-
-				// N of people completing one or more course
-				case ADMIN_ANALYTICS_COURSE_AGGREGATE_COMPLETIONS ->
-						widgets.add(getAnalyticsXrayService().createCourseAggregateCompletionsWidget(institutionId, startDate, endDate, analyticsXrayFilter));
-
-				// N of people who complete a unique module
-				case ADMIN_ANALYTICS_COURSE_MODULE_COMPLETION -> {
-					List<AnalyticsMultiChartWidget> widgetList =
-							getAnalyticsXrayService().createCourseModuleCompletionWidget(
-									institutionId, startDate, endDate, analyticsXrayFilter);
-					widgets.addAll(widgetList);
-				}
-
-				// default ->
-				// 	throw new UnsupportedOperationException(format("Unsupported %s value '%s' for analytics_report_group_id %s",
-				// 		ReportTypeId.class.getSimpleName(), report.getReportTypeId().name(), analyticsReportGroupId));
-			}
-		}
-
-		return new ApiResponse(
-				Map.of("widgets", widgets)
-		);
+		// Widgets are evaluated concurrently; any that fail or time out are omitted and listed in failedReportTypeIds
+		AnalyticsWidgetsResult analyticsWidgetsResult = getAnalyticsXrayService().createWidgetsForReports(institutionId,
+				reports, startDate, endDate, analyticsXrayFilter);
+
+		return new ApiResponse(Map.of(
+				"widgets", analyticsWidgetsResult.getWidgets(),
+				"failedReportTypeIds", analyticsWidgetsResult.getFailedReportTypeIds()
+		));
 	}
 
 	@Nonnull
@@ -85,6 +85,7 @@ import com.cobaltplatform.api.service.PageService;
 import com.cobaltplatform.api.util.Formatter;
 import com.cobaltplatform.api.util.db.ReadReplica;
 import com.cobaltplatform.api.web.request.RequestBodyParser;
+import com.cobaltplatform.api.web.request.RequestDeadline;
 import com.lokalized.Strings;
 import com.soklet.web.annotation.DELETE;
 import com.soklet.web.annotation.GET;
@@ -484,6 +485,7 @@ public class PageResource {
 	@ReadReplica
 	@GET("/page-row-mailing-lists/csv")
 	@AuthenticationRequired
+	@RequestDeadline(timeoutInSeconds = 300) // Mailing lists can be large and are streamed synchronously
 	public CustomResponse pageRowMailingListsCsv(@Nonnull @QueryParameter("pageId") String pageIdentifier,
 																							 @Nonnull HttpServletResponse httpServletResponse) throws IOException {
 		requireNonNull(pageIdentifier);
@@ -71,6 +71,7 @@ import com.cobaltplatform.api.model.api.response.PatientOrderApiResponse.Patient
 import com.cobaltplatform.api.model.api.response.PatientOrderApiResponse.PatientOrderApiResponseFormat;
 import com.cobaltplatform.api.model.api.response.PatientOrderApiResponse.PatientOrderApiResponseSupplement;
 import com.cobaltplatform.api.model.api.response.PatientOrderAutocompleteResultApiResponse.PatientOrderAutocompleteResultApiResponseFactory;
+import com.cobaltplatform.api.model.api.response.PatientOrderImportProgressApiResponse.PatientOrderImportProgressApiResponseFactory;
 import com.cobaltplatform.api.model.api.response.PatientOrderNoteApiResponse.PatientOrderNoteApiResponseFactory;
 import com.cobaltplatform.api.model.api.response.PatientOrderOutreachApiResponse.PatientOrderOutreachApiResponseFactory;
 import com.cobaltplatform.api.model.api.response.ResourcePacketApiResponse.ResourcePacketApiResponseBatchContext;
@@ -96,6 +97,7 @@ import com.cobaltplatform.api.model.db.PatientOrder;
 import com.cobaltplatform.api.model.db.PatientOrderClosureReason;
 import com.cobaltplatform.api.model.db.PatientOrderConsentStatus.PatientOrderConsentStatusId;
 import com.cobaltplatform.api.model.db.PatientOrderDisposition.PatientOrderDispositionId;
+import com.cobaltplatform.api.model.db.PatientOrderImportProgress;
 import com.cobaltplatform.api.model.db.PatientOrderIntakeScreeningStatus.PatientOrderIntakeScreeningStatusId;
 import com.cobaltplatform.api.model.db.PatientOrderImportType.PatientOrderImportTypeId;
 import com.cobaltplatform.api.model.db.PatientOrderNote;
@@ -140,8 +142,11 @@ import com.cobaltplatform.api.service.SystemService;
 import com.cobaltplatform.api.util.Formatter;
 import com.cobaltplatform.api.util.JsonMapper;
 import com.cobaltplatform.api.util.PatientOrderCsvGenerator;
+import com.cobaltplatform.api.util.db.QueryBudget;
 import com.cobaltplatform.api.util.db.ReadReplica;
+import com.cobaltplatform.api.util.db.RequiresManualTransactionManagement;
 import com.cobaltplatform.api.web.request.RequestBodyParser;
+import com.cobaltplatform.api.web.request.RequestDeadline;
 import com.lokalized.Strings;
 import com.soklet.web.annotation.DELETE;
 import com.soklet.web.annotation.GET;
@@ -241,6 +246,8 @@ public class PatientOrderResource {
 	@Nonnull
 	private final PatientOrderScheduledOutreachApiResponseFactory patientOrderScheduledOutreachApiResponseFactory;
 	@Nonnull
+	private final PatientOrderImportProgressApiResponseFactory patientOrderImportProgressApiResponseFactory;
+	@Nonnull
 	private final PatientOrderCsvGenerator patientOrderCsvGenerator;
 	@Nonnull
 	private final RequestBodyParser requestBodyParser;
@@ -279,6 +286,7 @@ public class PatientOrderResource {
 															@Nonnull ScreeningTypeApiResponseFactory screeningTypeApiResponseFactory,
 															@Nonnull PatientOrderVoicemailTaskApiResponseFactory patientOrderVoicemailTaskApiResponseFactory,
 															@Nonnull PatientOrderScheduledOutreachApiResponseFactory patientOrderScheduledOutreachApiResponseFactory,
+															@Nonnull PatientOrderImportProgressApiResponseFactory patientOrderImportProgressApiResponseFactory,
 															@Nonnull PatientOrderCsvGenerator patientOrderCsvGenerator,
 															@Nonnull RequestBodyParser requestBodyParser,
 															@Nonnull JsonMapper jsonMapper,
@@ -307,6 +315,7 @@ public class PatientOrderResource {
 		requireNonNull(screeningTypeApiResponseFactory);
 		requireNonNull(patientOrderVoicemailTaskApiResponseFactory);
 		requireNonNull(patientOrderScheduledOutreachApiResponseFactory);
+		requireNonNull(patientOrderImportProgressApiResponseFactory);
 		requireNonNull(patientOrderCsvGenerator);
 		requireNonNull(requestBodyParser);
 		requireNonNull(jsonMapper);
@@ -336,6 +345,7 @@ public class PatientOrderResource {
 		this.screeningTypeApiResponseFactory = screeningTypeApiResponseFactory;
 		this.patientOrderVoicemailTaskApiResponseFactory = patientOrderVoicemailTaskApiResponseFactory;
 		this.patientOrderScheduledOutreachApiResponseFactory = patientOrderScheduledOutreachApiResponseFactory;
+		this.patientOrderImportProgressApiResponseFactory = patientOrderImportProgressApiResponseFactory;
 		this.patientOrderCsvGenerator = patientOrderCsvGenerator;
 		this.requestBodyParser = requestBodyParser;
 		this.jsonMapper = jsonMapper;
@@ -374,17 +384,29 @@ public class PatientOrderResource {
 					.sorted((patientOrder1, patientOrder2) -> patientOrder2.getOrderDate().compareTo(patientOrder1.getOrderDate()))
 					.collect(Collectors.toList());
 
-			for (RawPatientOrder rawAssociatedPatientOrder : rawAssociatedPatientOrders)
-				associatedPatientOrders.add(getPatientOrderService().findPatientOrderById(rawAssociatedPatientOrder.getPatientOrderId()).get());
+			Map<UUID, PatientOrder> associatedPatientOrdersById = getPatientOrderService().findPatientOrdersByIds(rawAssociatedPatientOrders.stream()
+					.map(RawPatientOrder::getPatientOrderId)
+					.collect(Collectors.toSet()));
+
+			// Preserve the ordering of the raw orders
+			for (RawPatientOrder rawAssociatedPatientOrder : rawAssociatedPatientOrders) {
+				PatientOrder associatedPatientOrder = associatedPatientOrdersById.get(rawAssociatedPatientOrder.getPatientOrderId());
+
+				if (associatedPatientOrder != null)
+					associatedPatientOrders.add(associatedPatientOrder);
+			}
 		}
 
 		PatientOrderApiResponseFormat responseFormat = PatientOrderApiResponseFormat.fromRoleId(account.getRoleId());
+		PatientOrderApiResponseBatchContext batchContext = patientOrderApiResponseBatchContextFor(List.of(patientOrder), finalResponseSupplements);
+		PatientOrderApiResponseBatchContext associatedBatchContext = patientOrderApiResponseBatchContextFor(associatedPatientOrders,
+				Set.of(PatientOrderApiResponseSupplement.PANEL));
 
 		return new ApiResponse(new HashMap<String, Object>() {{
-			put("patientOrder", getPatientOrderApiResponseFactory().create(patientOrder, responseFormat, finalResponseSupplements));
+			put("patientOrder", getPatientOrderApiResponseFactory().create(patientOrder, responseFormat, finalResponseSupplements, batchContext));
 			put("associatedPatientOrders", associatedPatientOrders.stream()
 					.map(associatedPatientOrder -> getPatientOrderApiResponseFactory().create(associatedPatientOrder,
-							responseFormat, Set.of(PatientOrderApiResponseSupplement.PANEL)))
+							responseFormat, Set.of(PatientOrderApiResponseSupplement.PANEL), associatedBatchContext))
 					.collect(Collectors.toList()));
 		}});
 	}
@@ -764,6 +786,8 @@ public class PatientOrderResource {
 	@GET("/patient-orders")
 	@AuthenticationRequired
 	@ReadReplica
+	// Responses are batched per page, so any statement repeating more than a few times is an N+1 regression
+	@QueryBudget(maximumRepeatedStatementCount = 3)
 	public ApiResponse findPatientOrders(@Nonnull @QueryParameter Optional<PatientOrderViewTypeId> patientOrderViewTypeId,
 																			 @Nonnull @QueryParameter("patientOrderDispositionId") Optional<List<PatientOrderDispositionId>> patientOrderDispositionIds,
 																			 @Nonnull @QueryParameter Optional<PatientOrderConsentStatusId> patientOrderConsentStatusId,
@@ -1001,13 +1025,19 @@ public class PatientOrderResource {
 		}};
 	}
 
+	/**
+	 * Preloads everything the given supplements will read for a list of orders, so building each response doesn't query.
+	 * <p>
+	 * Panel and minimal responses are built entirely from the {@code v_patient_order} row, so there's nothing to preload
+	 * for them - only "everything" responses read related rows.
+	 */
 	@Nonnull
 	protected PatientOrderApiResponseBatchContext patientOrderApiResponseBatchContextFor(@Nonnull Collection<PatientOrder> patientOrders,
 																												 @Nonnull Set<PatientOrderApiResponseSupplement> supplements) {
 		requireNonNull(patientOrders);
 		requireNonNull(supplements);
 
-		if (!supplements.contains(PatientOrderApiResponseSupplement.EVERYTHING))
+		if (patientOrders.size() == 0 || !supplements.contains(PatientOrderApiResponseSupplement.EVERYTHING))
 			return PatientOrderApiResponseBatchContext.empty();
 
 		Set<UUID> patientOrderIds = patientOrders.stream()
@@ -1037,7 +1067,8 @@ public class PatientOrderResource {
 				true,
 				getPatientOrderService().findPatientOrderScheduledMessageGroupApiResponsesByPatientOrderIds(patientOrderIds),
 				true,
-				resourcePacketApiResponseBatchContext
+				resourcePacketApiResponseBatchContext,
+				getPatientOrderService().findPatientOrderRelations(patientOrders)
 		);
 	}
 
@@ -1102,6 +1133,8 @@ public class PatientOrderResource {
 	@Nonnull
 	@POST("/patient-order-imports")
 	@AuthenticationRequired
+	@RequestDeadline(timeoutInSeconds = 300) // Large CSV files are imported synchronously
+	@RequiresManualTransactionManagement // Epic demographics are pulled before the import's transaction is opened
 	public ApiResponse createPatientOrderImport(@Nonnull @RequestBody String requestBody) {
 		requireNonNull(requestBody);
 
@@ -1110,18 +1143,38 @@ public class PatientOrderResource {
 		if (!getAuthorizationService().canImportPatientOrders(account.getInstitutionId(), account))
 			throw new AuthorizationException();
 
-		getSystemService().applyFootprintEventGroupToCurrentTransaction(FootprintEventGroupTypeId.PATIENT_ORDER_IMPORT_CREATE);
-
+		// Clients may supply their own patientOrderImportId in order to poll the import's progress while it runs
 		CreatePatientOrderImportRequest request = getRequestBodyParser().parse(requestBody, CreatePatientOrderImportRequest.class);
 		request.setInstitutionId(account.getInstitutionId());
 		request.setAccountId(account.getAccountId());
 		request.setPatientOrderImportTypeId(PatientOrderImportTypeId.CSV);
 
-		PatientOrderImportResult patientOrderImportResult = getPatientOrderService().createPatientOrderImport(request);
+		PatientOrderImportResult patientOrderImportResult = getPatientOrderService().createPatientOrderImport(request, true);
 
 		return new ApiResponse(patientOrderImportResult);
 	}
 
+	@Nonnull
+	@GET("/patient-order-imports/{patientOrderImportId}/progress")
+	@AuthenticationRequired
+	public ApiResponse patientOrderImportProgress(@Nonnull @PathParameter UUID patientOrderImportId) {
+		requireNonNull(patientOrderImportId);
+
+		Account account = getCurrentContext().getAccount().get();
+
+		if (!getAuthorizationService().canImportPatientOrders(account.getInstitutionId(), account))
+			throw new AuthorizationException();
+
+		PatientOrderImportProgress patientOrderImportProgress = getPatientOrderService().findPatientOrderImportProgressById(patientOrderImportId).orElse(null);
+
+		if (patientOrderImportProgress == null || patientOrderImportProgress.getInstitutionId() != account.getInstitutionId())
+			throw new NotFoundException();
+
+		return new ApiResponse(Map.of(
+				"patientOrderImportProgress", getPatientOrderImportProgressApiResponseFactory().create(patientOrderImportProgress)
+		));
+	}
+
 	@Nonnull
 	@GET("/patient-order-notes")
 	@AuthenticationRequired
@@ -2756,6 +2809,11 @@ public class PatientOrderResource {
 		return this.patientOrderScheduledOutreachApiResponseFactory;
 	}
 
+	@Nonnull
+	protected PatientOrderImportProgressApiResponseFactory getPatientOrderImportProgressApiResponseFactory() {
+		return this.patientOrderImportProgressApiResponseFactory;
+	}
+
 	@Nonnull
 	protected PatientOrderCsvGenerator getPatientOrderCsvGenerator() {
 		return this.patientOrderCsvGenerator;
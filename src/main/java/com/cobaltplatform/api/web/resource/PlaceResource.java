@@ -40,6 +40,7 @@ import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Optional;
 
 import static java.util.Objects.requireNonNull;
 
@@ -74,11 +75,14 @@ public class PlaceResource {
 	@Nonnull
 	@GET("/places/autocomplete")
 	@AuthenticationRequired
-	public ApiResponse autocomplete(@Nonnull @QueryParameter String searchText) {
+	public ApiResponse autocomplete(@Nonnull @QueryParameter String searchText,
+																	@Nonnull @QueryParameter Optional<String> sessionToken) {
 		requireNonNull(searchText);
+		requireNonNull(sessionToken);
+
 		List<PlacePrediction> placePredictions = new ArrayList<>();
 
-		placePredictions = placeService.autocompletePlace(searchText);
+		placePredictions = placeService.autocompletePlace(searchText, sessionToken.orElse(null));
 
 		final List<PlacePrediction> placePredictionsFinal = placePredictions;
 		return new ApiResponse(new HashMap<String, Object>() {{
@@ -88,10 +92,12 @@ public class PlaceResource {
 	@Nonnull
 	@GET("/places")
 	@AuthenticationRequired
-	public ApiResponse findPlace(@Nonnull @QueryParameter String googlePlaceId) {
+	public ApiResponse findPlace(@Nonnull @QueryParameter String googlePlaceId,
+															 @Nonnull @QueryParameter Optional<String> sessionToken) {
 		requireNonNull(googlePlaceId);
+		requireNonNull(sessionToken);
 
-		Place place = placeService.findPlaceByPlaceId(googlePlaceId).orElse(null);
+		Place place = placeService.findPlaceByPlaceId(googlePlaceId, sessionToken.orElse(null)).orElse(null);
 
 		if(place == null)
 			throw new NotFoundException();
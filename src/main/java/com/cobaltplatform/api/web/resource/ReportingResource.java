@@ -32,6 +32,7 @@ import com.cobaltplatform.api.service.AuthorizationService;
 import com.cobaltplatform.api.service.InstitutionService;
 import com.cobaltplatform.api.service.ReportingService;
 import com.cobaltplatform.api.util.db.ReadReplica;
+import com.cobaltplatform.api.web.request.RequestDeadline;
 import com.lokalized.Strings;
 import com.soklet.web.annotation.GET;
 import com.soklet.web.annotation.QueryParameter;
@@ -129,6 +130,7 @@ public class ReportingResource {
 	@GET("/reporting/run-report")
 	@ReadReplica
 	@AuthenticationRequired
+	@RequestDeadline(timeoutInSeconds = 300) // Large date ranges legitimately take a while
 	public Object runReport(@Nonnull @QueryParameter ReportTypeId reportTypeId,
 													@Nonnull @QueryParameter("startDateTime") Optional<LocalDateTime> suppliedStartDateTime, // inclusive
 													@Nonnull @QueryParameter("endDateTime") Optional<LocalDateTime> suppliedEndDateTime, // inclusive
@@ -24,6 +24,7 @@ import com.cobaltplatform.api.context.CurrentContext;
 import com.cobaltplatform.api.integration.beiwe.BeiweCryptoManager;
 import com.cobaltplatform.api.model.api.request.CreateAccountCheckInActionFileUploadRequest;
 import com.cobaltplatform.api.model.api.request.CreateStudyAccountRequest;
+import com.cobaltplatform.api.model.api.request.CreateStudyExportRequest;
 import com.cobaltplatform.api.model.api.request.CreateStudyFileUploadRequest;
 import com.cobaltplatform.api.model.api.request.UpdateAccountStudyPreferences;
 import com.cobaltplatform.api.model.api.request.UpdateCheckInAction;
@@ -34,6 +35,7 @@ import com.cobaltplatform.api.model.api.response.ClientDeviceApiResponse.ClientD
 import com.cobaltplatform.api.model.api.response.FileUploadResultApiResponse.FileUploadResultApiResponseFactory;
 import com.cobaltplatform.api.model.api.response.StudyAccountApiResponse.StudyAccountApiResponseFactory;
 import com.cobaltplatform.api.model.api.response.StudyApiResponse.StudyApiResponseFactory;
+import com.cobaltplatform.api.model.api.response.StudyExportApiResponse.StudyExportApiResponseFactory;
 import com.cobaltplatform.api.model.db.Account;
 import com.cobaltplatform.api.model.db.AccountCheckInAction;
 import com.cobaltplatform.api.model.db.AccountCheckInActionFileUpload;
@@ -45,6 +47,7 @@ import com.cobaltplatform.api.model.db.EncryptionKeypair;
 import com.cobaltplatform.api.model.db.Role.RoleId;
 import com.cobaltplatform.api.model.db.Study;
 import com.cobaltplatform.api.model.db.StudyBeiweConfig;
+import com.cobaltplatform.api.model.db.StudyExport;
 import com.cobaltplatform.api.model.db.StudyFileUpload;
 import com.cobaltplatform.api.model.security.AuthenticationRequired;
 import com.cobaltplatform.api.model.service.FileUploadResult;
@@ -53,7 +56,10 @@ import com.cobaltplatform.api.service.ClientDeviceService;
 import com.cobaltplatform.api.service.StudyService;
 import com.cobaltplatform.api.service.SystemService;
 import com.cobaltplatform.api.util.CryptoUtility;
+import com.cobaltplatform.api.util.DeferredCommitOutputStream;
 import com.cobaltplatform.api.util.Formatter;
+import com.cobaltplatform.api.util.UploadManager.RangeNotSatisfiableException;
+import com.cobaltplatform.api.util.UploadManager.StoredFileInputStream;
 import com.cobaltplatform.api.util.ValidationException;
 import com.cobaltplatform.api.web.request.RequestBodyParser;
 import com.lokalized.Strings;
@@ -63,6 +69,7 @@ import com.soklet.web.annotation.PUT;
 import com.soklet.web.annotation.PathParameter;
 import com.soklet.web.annotation.QueryParameter;
 import com.soklet.web.annotation.RequestBody;
+import com.soklet.web.annotation.RequestHeader;
 import com.soklet.web.annotation.Resource;
 import com.soklet.web.exception.AuthorizationException;
 import com.soklet.web.exception.NotFoundException;
@@ -72,18 +79,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 import javax.servlet.http.HttpServletResponse;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.security.PrivateKey;
 import java.time.format.FormatStyle;
@@ -95,11 +98,14 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static com.soklet.util.IoUtils.copyStreamCloseAfterwards;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
+import static org.apache.commons.lang3.StringUtils.trimToNull;
 
 /**
  * @author Transmogrify, LLC.
@@ -108,6 +114,16 @@ import static java.util.Objects.requireNonNull;
 @Singleton
 @ThreadSafe
 public class StudyResource {
+	@Nonnull
+	private static final Pattern SINGLE_BYTE_RANGE_PATTERN;
+	@Nonnull
+	private static final Integer DECRYPTED_FILE_DEFERRED_COMMIT_BYTE_COUNT;
+
+	static {
+		SINGLE_BYTE_RANGE_PATTERN = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+		DECRYPTED_FILE_DEFERRED_COMMIT_BYTE_COUNT = 64 * 1024;
+	}
+
 	@Nonnull
 	private final AccountService accountService;
 	@Nonnull
@@ -137,6 +153,8 @@ public class StudyResource {
 	@Nonnull
 	private final AccountStudyApiResponseFactory accountStudyApiResponseFactory;
 	@Nonnull
+	private final StudyExportApiResponseFactory studyExportApiResponseFactory;
+	@Nonnull
 	private final Strings strings;
 	@Nonnull
 	private final Formatter formatter;
@@ -156,6 +174,7 @@ public class StudyResource {
 											 @Nonnull StudyApiResponseFactory studyApiResponseFactory,
 											 @Nonnull ClientDeviceApiResponseFactory clientDeviceApiResponseFactory,
 											 @Nonnull AccountStudyApiResponseFactory accountStudyApiResponseFactory,
+											 @Nonnull StudyExportApiResponseFactory studyExportApiResponseFactory,
 											 @Nonnull RequestBodyParser requestBodyParser,
 											 @Nonnull Strings strings,
 											 @Nonnull Formatter formatter,
@@ -173,6 +192,7 @@ public class StudyResource {
 		requireNonNull(studyApiResponseFactory);
 		requireNonNull(clientDeviceApiResponseFactory);
 		requireNonNull(accountStudyApiResponseFactory);
+		requireNonNull(studyExportApiResponseFactory);
 		requireNonNull(strings);
 		requireNonNull(formatter);
 		requireNonNull(beiweCryptoManager);
@@ -191,6 +211,7 @@ public class StudyResource {
 		this.studyApiResponseFactory = studyApiResponseFactory;
 		this.clientDeviceApiResponseFactory = clientDeviceApiResponseFactory;
 		this.accountStudyApiResponseFactory = accountStudyApiResponseFactory;
+		this.studyExportApiResponseFactory = studyExportApiResponseFactory;
 		this.strings = strings;
 		this.formatter = formatter;
 		this.beiweCryptoManager = beiweCryptoManager;
@@ -570,16 +591,96 @@ public class StudyResource {
 		));
 	}
 
+	@Nonnull
+	@POST("/studies/{studyIdentifier}/exports")
+	@AuthenticationRequired
+	public ApiResponse createStudyExport(@Nonnull @PathParameter String studyIdentifier) {
+		requireNonNull(studyIdentifier);
+
+		Account currentAccount = getCurrentContext().getAccount().get();
+		Study study = findStudyForExport(studyIdentifier, currentAccount);
+
+		CreateStudyExportRequest request = new CreateStudyExportRequest();
+		request.setStudyId(study.getStudyId());
+		request.setRequestedByAccountId(currentAccount.getAccountId());
+
+		UUID studyExportId = getStudyService().createStudyExport(request);
+		StudyExport studyExport = getStudyService().findStudyExportById(studyExportId).get();
+
+		return new ApiResponse(Map.of(
+				"studyExport", getStudyExportApiResponseFactory().create(studyExport)
+		));
+	}
+
+	@Nonnull
+	@GET("/studies/{studyIdentifier}/exports")
+	@AuthenticationRequired
+	public ApiResponse studyExports(@Nonnull @PathParameter String studyIdentifier) {
+		requireNonNull(studyIdentifier);
+
+		Account currentAccount = getCurrentContext().getAccount().get();
+		Study study = findStudyForExport(studyIdentifier, currentAccount);
+
+		return new ApiResponse(Map.of(
+				"studyExports", getStudyService().findStudyExportsByStudyId(study.getStudyId()).stream()
+						.map(studyExport -> getStudyExportApiResponseFactory().create(studyExport))
+						.collect(Collectors.toList())
+		));
+	}
+
+	@Nonnull
+	@GET("/studies/{studyIdentifier}/exports/{studyExportId}")
+	@AuthenticationRequired
+	public ApiResponse studyExport(@Nonnull @PathParameter String studyIdentifier,
+																 @Nonnull @PathParameter UUID studyExportId) {
+		requireNonNull(studyIdentifier);
+		requireNonNull(studyExportId);
+
+		Account currentAccount = getCurrentContext().getAccount().get();
+		Study study = findStudyForExport(studyIdentifier, currentAccount);
+		StudyExport studyExport = getStudyService().findStudyExportById(studyExportId).orElse(null);
+
+		if (studyExport == null || !studyExport.getStudyId().equals(study.getStudyId()))
+			throw new NotFoundException();
+
+		return new ApiResponse(Map.of(
+				"studyExport", getStudyExportApiResponseFactory().create(studyExport)
+		));
+	}
+
+	// Study-wide exports contain every participant's data, so only administrators of the study's institution may touch them
+	@Nonnull
+	protected Study findStudyForExport(@Nonnull String studyIdentifier,
+																		 @Nonnull Account currentAccount) {
+		requireNonNull(studyIdentifier);
+		requireNonNull(currentAccount);
+
+		if (currentAccount.getRoleId() != RoleId.ADMINISTRATOR)
+			throw new AuthorizationException();
+
+		Study study = getStudyService().findStudyByIdentifier(studyIdentifier).orElse(null);
+
+		if (study == null)
+			throw new NotFoundException();
+
+		if (!study.getInstitutionId().equals(currentAccount.getInstitutionId()))
+			throw new AuthorizationException();
+
+		return study;
+	}
+
 	@Nonnull
 	@GET("/studies/{studyIdentifier}/file-uploads/{fileUploadId}/download")
 	@AuthenticationRequired
 	public CustomResponse studyFileDownload(@Nonnull @PathParameter String studyIdentifier,
 																					@Nonnull @PathParameter UUID fileUploadId,
 																					@Nonnull @QueryParameter Optional<Boolean> decrypt,
+																					@Nonnull @RequestHeader("Range") Optional<String> range,
 																					@Nonnull HttpServletResponse httpServletResponse) {
 		requireNonNull(studyIdentifier);
 		requireNonNull(fileUploadId);
 		requireNonNull(decrypt);
+		requireNonNull(range);
 		requireNonNull(httpServletResponse);
 
 		Account currentAccount = getCurrentContext().getAccount().get();
@@ -598,36 +699,47 @@ public class StudyResource {
 		if (studyFileUpload == null)
 			throw new NotFoundException();
 
-		byte[] studyFile = getSystemService().downloadFileUploadToByteArray(studyFileUpload.getFileUploadId());
-
-		// If we should decrypt, pull the account-study keypair's private key and apply it to the raw bytes of the downloaded file
+		// If we should decrypt, pull the account-study keypair's private key and apply it line-by-line as the file streams
+		// from storage to the response.  Decrypted length isn't known up-front, so this is a chunked response with no range support
 		if (decrypt.isPresent() && decrypt.get()) {
 			AccountStudy accountStudy = getStudyService().findAccountStudyById(studyFileUpload.getAccountStudyId()).get();
 			EncryptionKeypair encryptionKeypair = getSystemService().findEncryptionKeypairById(accountStudy.getEncryptionKeypairId()).get();
 			PrivateKey privateKey = CryptoUtility.toPrivateKey(encryptionKeypair.getPrivateKeyAsString());
 
-			try (ByteArrayOutputStream decryptedByteArrayOutputStream = new ByteArrayOutputStream();
-					 BufferedReader encryptedInputBufferedReader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(studyFile)));
-					 BufferedWriter decryptedOutputBufferedWriter = new BufferedWriter(new OutputStreamWriter(decryptedByteArrayOutputStream))) {
-				getBeiweCryptoManager().decryptBeiweTextFile(encryptedInputBufferedReader, decryptedOutputBufferedWriter, privateKey);
-				decryptedOutputBufferedWriter.flush();
-				// Replace the encrypted file bytes with decrypted ones
-				studyFile = decryptedByteArrayOutputStream.toByteArray();
+			httpServletResponse.setHeader("Content-Disposition", format("attachment; filename=\"%s\"", studyFileUpload.getFileUploadFilename()));
+			httpServletResponse.setContentType(studyFileUpload.getFileUploadContentType());
+
+			// Hold back the start of the decrypted output so a bad key or corrupt header line - the usual failures -
+			// surfaces as a normal error response instead of a 200 with a truncated body
+			DeferredCommitOutputStream outputStream = new DeferredCommitOutputStream(() -> httpServletResponse.getOutputStream(),
+					DECRYPTED_FILE_DEFERRED_COMMIT_BYTE_COUNT);
+
+			try (StoredFileInputStream studyFileInputStream = getSystemService().openFileUpload(studyFileUpload.getFileUploadId(), null)) {
+				getBeiweCryptoManager().decryptBeiweTextFile(studyFileInputStream, outputStream, privateKey);
+				outputStream.finish();
 			} catch (IOException e) {
 				throw new UncheckedIOException(e);
+			} catch (RuntimeException e) {
+				if (!outputStream.isCommitted())
+					httpServletResponse.reset();
+
+				// If we've already committed, deliberately leave the servlet output stream open: the exception makes the
+				// container abort the chunked response, so the client sees a failed transfer rather than a complete file
+				throw e;
 			}
-		}
 
-		httpServletResponse.setHeader("Content-Disposition", format("attachment; filename=\"%s\"", studyFileUpload.getFileUploadFilename()));
-		httpServletResponse.setContentType(studyFileUpload.getFileUploadContentType());
-		httpServletResponse.setContentLength(studyFile.length);
+			try {
+				httpServletResponse.getOutputStream().close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
 
-		try (ByteArrayInputStream studyFileInputStream = new ByteArrayInputStream(studyFile)) {
-			copyStreamCloseAfterwards(studyFileInputStream, httpServletResponse.getOutputStream());
-		} catch (IOException e) {
-			throw new UncheckedIOException(e);
+			return CustomResponse.instance();
 		}
 
+		writeFileUploadToResponse(studyFileUpload.getFileUploadId(), studyFileUpload.getFileUploadFilename(),
+				studyFileUpload.getFileUploadContentType(), range.orElse(null), httpServletResponse);
+
 		return CustomResponse.instance();
 	}
 
@@ -637,10 +749,12 @@ public class StudyResource {
 	public CustomResponse accountCheckInActionFileDownload(@Nonnull @PathParameter UUID accountCheckInActionId,
 																												 @Nonnull @PathParameter UUID fileUploadId,
 																												 @Nonnull @QueryParameter Optional<Boolean> decrypt,
+																												 @Nonnull @RequestHeader("Range") Optional<String> range,
 																												 @Nonnull HttpServletResponse httpServletResponse) {
 		requireNonNull(accountCheckInActionId);
 		requireNonNull(fileUploadId);
 		requireNonNull(decrypt);
+		requireNonNull(range);
 		requireNonNull(httpServletResponse);
 
 		Account currentAccount = getCurrentContext().getAccount().get();
@@ -675,19 +789,95 @@ public class StudyResource {
 		if (accountCheckInActionFileUpload == null)
 			throw new NotFoundException();
 
-		byte[] accountCheckInActionFile = getSystemService().downloadFileUploadToByteArray(accountCheckInActionFileUpload.getFileUploadId());
+		writeFileUploadToResponse(accountCheckInActionFileUpload.getFileUploadId(), accountCheckInActionFileUpload.getFileUploadFilename(),
+				accountCheckInActionFileUpload.getFileUploadContentType(), range.orElse(null), httpServletResponse);
+
+		return CustomResponse.instance();
+	}
+
+	// Streams the file from storage straight to the response, never holding more than a copy buffer in memory.
+	// Supports a single-range "Range" header so clients can resume or fetch part of a large file
+	protected void writeFileUploadToResponse(@Nonnull UUID fileUploadId,
+																					 @Nonnull String filename,
+																					 @Nonnull String contentType,
+																					 @Nullable String rangeHeader,
+																					 @Nonnull HttpServletResponse httpServletResponse) {
+		requireNonNull(fileUploadId);
+		requireNonNull(filename);
+		requireNonNull(contentType);
+		requireNonNull(httpServletResponse);
+
+		String range = normalizeRangeHeader(rangeHeader).orElse(null);
+		StoredFileInputStream fileInputStream;
+
+		try {
+			fileInputStream = getSystemService().openFileUpload(fileUploadId, range);
+		} catch (RangeNotSatisfiableException e) {
+			httpServletResponse.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+			httpServletResponse.setHeader("Accept-Ranges", "bytes");
 
-		httpServletResponse.setHeader("Content-Disposition", format("attachment; filename=\"%s\"", accountCheckInActionFileUpload.getFileUploadFilename()));
-		httpServletResponse.setContentType(accountCheckInActionFileUpload.getFileUploadContentType());
-		httpServletResponse.setContentLength(accountCheckInActionFile.length);
+			// RFC 9110 section 15.5.17: tell the client how big the file actually is
+			if (e.getCompleteLength().isPresent())
+				httpServletResponse.setHeader("Content-Range", unsatisfiedContentRangeHeader(e.getCompleteLength().get()));
 
-		try (ByteArrayInputStream studyFileInputStream = new ByteArrayInputStream(accountCheckInActionFile)) {
-			copyStreamCloseAfterwards(studyFileInputStream, httpServletResponse.getOutputStream());
+			return;
+		}
+
+		httpServletResponse.setHeader("Accept-Ranges", "bytes");
+		httpServletResponse.setHeader("Content-Disposition", format("attachment; filename=\"%s\"", filename));
+		httpServletResponse.setContentType(contentType);
+
+		if (range != null && fileInputStream.getContentRange().isPresent()) {
+			httpServletResponse.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			httpServletResponse.setHeader("Content-Range", fileInputStream.getContentRange().get());
+		}
+
+		if (fileInputStream.getContentLength().isPresent())
+			httpServletResponse.setContentLengthLong(fileInputStream.getContentLength().get());
+
+		try (InputStream inputStream = fileInputStream) {
+			copyStreamCloseAfterwards(inputStream, httpServletResponse.getOutputStream());
 		} catch (IOException e) {
 			throw new UncheckedIOException(e);
 		}
+	}
 
-		return CustomResponse.instance();
+	@Nonnull
+	protected String unsatisfiedContentRangeHeader(@Nonnull Long completeLength) {
+		requireNonNull(completeLength);
+		return format("bytes */%d", completeLength);
+	}
+
+	// We support only a single byte range, e.g. "bytes=0-499", "bytes=500-" or "bytes=-500".
+	// Anything else (multiple ranges, other units, garbage) is ignored and the whole file is returned, which RFC 9110 permits
+	@Nonnull
+	protected Optional<String> normalizeRangeHeader(@Nullable String rangeHeader) {
+		rangeHeader = trimToNull(rangeHeader);
+
+		if (rangeHeader == null)
+			return Optional.empty();
+
+		Matcher matcher = SINGLE_BYTE_RANGE_PATTERN.matcher(rangeHeader);
+
+		if (!matcher.matches())
+			return Optional.empty();
+
+		String start = matcher.group(1);
+		String end = matcher.group(2);
+
+		if (start.length() == 0 && end.length() == 0)
+			return Optional.empty();
+
+		if (start.length() > 0 && end.length() > 0) {
+			try {
+				if (Long.parseLong(start) > Long.parseLong(end))
+					return Optional.empty();
+			} catch (NumberFormatException e) {
+				return Optional.empty();
+			}
+		}
+
+		return Optional.of(format("bytes=%s-%s", start, end));
 	}
 
 	@Nonnull
@@ -819,4 +1009,9 @@ public class StudyResource {
 	protected BeiweCryptoManager getBeiweCryptoManager() {
 		return this.beiweCryptoManager;
 	}
+
+	@Nonnull
+	protected StudyExportApiResponseFactory getStudyExportApiResponseFactory() {
+		return this.studyExportApiResponseFactory;
+	}
 }
@@ -21,6 +21,7 @@ package com.cobaltplatform.api.web.resource;
 
 import com.cobaltplatform.api.Configuration;
 import com.cobaltplatform.api.cache.Cache;
+import com.cobaltplatform.api.cache.CacheInvalidationBus;
 import com.cobaltplatform.api.cache.DistributedCache;
 import com.cobaltplatform.api.cache.LocalCache;
 import com.cobaltplatform.api.context.CurrentContext;
@@ -33,25 +34,37 @@ import com.cobaltplatform.api.integration.tableau.request.AccessTokenRequest;
 import com.cobaltplatform.api.model.api.request.CreateCommunitySubscriberNotificationRequest;
 import com.cobaltplatform.api.model.api.request.CreateMarketingSiteOutreachRequest;
 import com.cobaltplatform.api.model.db.Account;
+import com.cobaltplatform.api.model.db.AnalyticsMaterializedView;
+import com.cobaltplatform.api.model.db.DataSyncWatermark;
 import com.cobaltplatform.api.model.db.Institution;
 import com.cobaltplatform.api.model.db.Institution.InstitutionId;
 import com.cobaltplatform.api.model.db.Role.RoleId;
 import com.cobaltplatform.api.model.security.AuthenticationRequired;
+import com.cobaltplatform.api.model.service.RemoteClient;
+import com.cobaltplatform.api.service.AnalyticsMaterializedViewService;
 import com.cobaltplatform.api.service.AuthorizationService;
 import com.cobaltplatform.api.service.CommunityService;
+import com.cobaltplatform.api.service.DataSyncService;
 import com.cobaltplatform.api.service.IpGeolocationService;
 import com.cobaltplatform.api.service.InstitutionService;
+import com.cobaltplatform.api.service.PatientOrderService;
+import com.cobaltplatform.api.service.PatientOrderService.BackgroundTaskStatistics;
+import com.cobaltplatform.api.service.PlaceService;
 import com.cobaltplatform.api.service.SystemService;
 import com.cobaltplatform.api.service.Way2HealthService;
 import com.cobaltplatform.api.util.Authenticator;
 import com.cobaltplatform.api.util.CryptoUtility;
 import com.cobaltplatform.api.util.Formatter;
+import com.cobaltplatform.api.util.MetricsRecorder;
+import com.cobaltplatform.api.util.UserAgentParser;
 import com.cobaltplatform.api.web.request.RequestBodyParser;
 import com.cobaltplatform.api.web.response.ResponseGenerator;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.lokalized.Strings;
 import com.soklet.web.annotation.GET;
 import com.soklet.web.annotation.POST;
 import com.soklet.web.annotation.PUT;
+import com.soklet.web.annotation.PathParameter;
 import com.soklet.web.annotation.QueryParameter;
 import com.soklet.web.annotation.RequestBody;
 import com.soklet.web.annotation.Resource;
@@ -80,6 +93,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.SortedMap;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.UUID;
 
@@ -123,6 +137,18 @@ public class SystemResource {
 	@Nonnull
 	private final InstitutionService institutionService;
 	@Nonnull
+	private final PlaceService placeService;
+	@Nonnull
+	private final PatientOrderService patientOrderService;
+	@Nonnull
+	private final DataSyncService dataSyncService;
+	@Nonnull
+	private final AnalyticsMaterializedViewService analyticsMaterializedViewService;
+	@Nonnull
+	private final MetricsRecorder metricsRecorder;
+	@Nonnull
+	private final CacheInvalidationBus cacheInvalidationBus;
+	@Nonnull
 	private final Provider<CurrentContext> currentContextProvider;
 	@Nonnull
 	private final Formatter formatter;
@@ -145,6 +171,12 @@ public class SystemResource {
 												@Nonnull EnterprisePluginProvider enterprisePluginProvider,
 												@Nonnull AuthorizationService authorizationService,
 												@Nonnull InstitutionService institutionService,
+												@Nonnull PlaceService placeService,
+												@Nonnull PatientOrderService patientOrderService,
+												@Nonnull DataSyncService dataSyncService,
+												@Nonnull AnalyticsMaterializedViewService analyticsMaterializedViewService,
+												@Nonnull MetricsRecorder metricsRecorder,
+												@Nonnull CacheInvalidationBus cacheInvalidationBus,
 												@Nonnull Provider<CurrentContext> currentContextProvider,
 												@Nonnull Formatter formatter,
 												@Nonnull Strings strings) {
@@ -163,6 +195,12 @@ public class SystemResource {
 		requireNonNull(enterprisePluginProvider);
 		requireNonNull(authorizationService);
 		requireNonNull(institutionService);
+		requireNonNull(placeService);
+		requireNonNull(patientOrderService);
+		requireNonNull(dataSyncService);
+		requireNonNull(analyticsMaterializedViewService);
+		requireNonNull(metricsRecorder);
+		requireNonNull(cacheInvalidationBus);
 		requireNonNull(requestBodyParser);
 		requireNonNull(currentContextProvider);
 		requireNonNull(formatter);
@@ -183,6 +221,12 @@ public class SystemResource {
 		this.enterprisePluginProvider = enterprisePluginProvider;
 		this.authorizationService = authorizationService;
 		this.institutionService = institutionService;
+		this.placeService = placeService;
+		this.patientOrderService = patientOrderService;
+		this.dataSyncService = dataSyncService;
+		this.analyticsMaterializedViewService = analyticsMaterializedViewService;
+		this.metricsRecorder = metricsRecorder;
+		this.cacheInvalidationBus = cacheInvalidationBus;
 		this.currentContextProvider = currentContextProvider;
 		this.formatter = formatter;
 		this.strings = strings;
@@ -271,6 +315,16 @@ public class SystemResource {
 		return new ApiResponse(204);
 	}
 
+	@Nonnull
+	@PUT("/system/caches/{cacheName}/invalidate")
+	public ApiResponse invalidateCache(@Nonnull @PathParameter String cacheName) {
+		requireNonNull(cacheName);
+
+		// Clears the named cache on every node, e.g. after hand-editing the rows behind it
+		getCacheInvalidationBus().invalidateAll(cacheName);
+		return new ApiResponse(204);
+	}
+
 	@Nonnull
 	@GET("/system/acuity-scheduling-cache/availability-classes")
 	public ApiResponse acuitySchedulingCacheAvailabilityClasses() {
@@ -305,6 +359,163 @@ public class SystemResource {
 		return new ApiResponse(204);
 	}
 
+	@Nonnull
+	@GET("/system/place-cache/statistics")
+	public ApiResponse placeCacheStatistics() {
+		SortedMap<String, Object> cacheStatistics = new TreeMap<>();
+
+		for (Map.Entry<String, CacheStats> entry : getPlaceService().getCacheStatsByCacheName().entrySet()) {
+			CacheStats cacheStats = entry.getValue();
+
+			cacheStatistics.put(entry.getKey(), Map.of(
+					"hitCount", cacheStats.hitCount(),
+					"missCount", cacheStats.missCount(),
+					"hitRate", cacheStats.hitRate(),
+					"evictionCount", cacheStats.evictionCount()
+			));
+		}
+
+		return new ApiResponse(new HashMap<String, Object>() {{
+			put("cacheStatistics", cacheStatistics);
+		}});
+	}
+
+	@Nonnull
+	@PUT("/system/place-cache/invalidate")
+	public ApiResponse invalidatePlaceCache() {
+		getPlaceService().invalidateCaches();
+		return new ApiResponse(204);
+	}
+
+	@Nonnull
+	@GET("/system/user-agent-cache/statistics")
+	public ApiResponse userAgentCacheStatistics() {
+		UserAgentParser userAgentParser = RemoteClient.getUserAgentParser();
+		CacheStats cacheStats = userAgentParser.getCacheStats();
+
+		return new ApiResponse(new HashMap<String, Object>() {{
+			put("size", userAgentParser.getCacheSize());
+			put("hitCount", cacheStats.hitCount());
+			put("missCount", cacheStats.missCount());
+			put("hitRate", cacheStats.hitRate());
+			put("evictionCount", cacheStats.evictionCount());
+		}});
+	}
+
+	@Nonnull
+	@GET("/system/metrics")
+	public BinaryResponse metrics() {
+		// Prometheus text exposition format, so this can be scraped directly
+		return ResponseGenerator.utf8Response(getMetricsRecorder().generatePrometheusText(), "text/plain; version=0.0.4");
+	}
+
+	@Nonnull
+	@GET("/system/patient-order-background-task/statistics")
+	public ApiResponse patientOrderBackgroundTaskStatistics() {
+		List<Map<String, Object>> backgroundTaskStatistics = new ArrayList<>();
+
+		for (BackgroundTaskStatistics statistics : getPatientOrderService().findBackgroundTaskStatistics()) {
+			backgroundTaskStatistics.add(Map.of(
+					"institutionId", statistics.getInstitutionId(),
+					"queueDepth", statistics.getQueueDepth(),
+					"claimedCount", statistics.getClaimedCount(),
+					"importedCount", statistics.getImportedCount(),
+					"failedCount", statistics.getFailedCount(),
+					"claimDurationInMilliseconds", statistics.getClaimDuration().toMillis(),
+					"fetchDurationInMilliseconds", statistics.getFetchDuration().toMillis(),
+					"applyDurationInMilliseconds", statistics.getApplyDuration().toMillis(),
+					"completedAt", statistics.getCompletedAt()
+			));
+		}
+
+		return new ApiResponse(new HashMap<String, Object>() {{
+			put("backgroundTaskStatistics", backgroundTaskStatistics);
+		}});
+	}
+
+	@Nonnull
+	@GET("/system/data-sync/status")
+	@AuthenticationRequired
+	public ApiResponse dataSyncStatus() {
+		if (getCurrentContext().getAccount().get().getRoleId() != RoleId.ADMINISTRATOR)
+			throw new AuthorizationException();
+
+		Instant now = Instant.now();
+		List<Map<String, Object>> dataSyncWatermarks = new ArrayList<>();
+
+		for (DataSyncWatermark dataSyncWatermark : getDataSyncService().findDataSyncWatermarks()) {
+			Map<String, Object> dataSyncWatermarkJson = new HashMap<>();
+			dataSyncWatermarkJson.put("dataSyncTableId", dataSyncWatermark.getDataSyncTableId());
+			dataSyncWatermarkJson.put("lastUpdatedWatermark", dataSyncWatermark.getLastUpdatedWatermark());
+			dataSyncWatermarkJson.put("lastRowsSynced", dataSyncWatermark.getLastRowsSynced());
+			dataSyncWatermarkJson.put("totalRowsSynced", dataSyncWatermark.getTotalRowsSynced());
+			dataSyncWatermarkJson.put("lastSyncedAt", dataSyncWatermark.getLastSyncedAt());
+			dataSyncWatermarkJson.put("caughtUpAt", dataSyncWatermark.getCaughtUpAt());
+			dataSyncWatermarkJson.put("lastFullResyncAt", dataSyncWatermark.getLastFullResyncAt());
+			// How long it has been since we last confirmed there was nothing left to pull for this table
+			dataSyncWatermarkJson.put("lagInSeconds", dataSyncWatermark.getCaughtUpAt() == null ? null
+					: Duration.between(dataSyncWatermark.getCaughtUpAt(), now).toSeconds());
+
+			dataSyncWatermarks.add(dataSyncWatermarkJson);
+		}
+
+		return new ApiResponse(new HashMap<String, Object>() {{
+			put("dataSyncWatermarks", dataSyncWatermarks);
+		}});
+	}
+
+	@Nonnull
+	@GET("/system/analytics-materialized-views/status")
+	@AuthenticationRequired
+	public ApiResponse analyticsMaterializedViewStatus() {
+		if (getCurrentContext().getAccount().get().getRoleId() != RoleId.ADMINISTRATOR)
+			throw new AuthorizationException();
+
+		List<Map<String, Object>> analyticsMaterializedViews = new ArrayList<>();
+
+		for (AnalyticsMaterializedView analyticsMaterializedView : getAnalyticsMaterializedViewService().findAnalyticsMaterializedViews()) {
+			Duration staleness = getAnalyticsMaterializedViewService().stalenessForAnalyticsMaterializedView(analyticsMaterializedView).orElse(null);
+
+			Map<String, Object> analyticsMaterializedViewJson = new HashMap<>();
+			analyticsMaterializedViewJson.put("analyticsMaterializedViewId", analyticsMaterializedView.getAnalyticsMaterializedViewId());
+			analyticsMaterializedViewJson.put("dependsOnAnalyticsMaterializedViewId", analyticsMaterializedView.getDependsOnAnalyticsMaterializedViewId());
+			analyticsMaterializedViewJson.put("sourceWatermark", analyticsMaterializedView.getSourceWatermark());
+			analyticsMaterializedViewJson.put("lastRefreshStartedAt", analyticsMaterializedView.getLastRefreshStartedAt());
+			analyticsMaterializedViewJson.put("lastRefreshedAt", analyticsMaterializedView.getLastRefreshedAt());
+			analyticsMaterializedViewJson.put("lastRefreshDurationInMilliseconds", analyticsMaterializedView.getLastRefreshDurationInMilliseconds());
+			analyticsMaterializedViewJson.put("lastRefreshSkippedAt", analyticsMaterializedView.getLastRefreshSkippedAt());
+			analyticsMaterializedViewJson.put("lastRefreshError", analyticsMaterializedView.getLastRefreshError());
+			analyticsMaterializedViewJson.put("stalenessInSeconds", staleness == null ? null : staleness.toSeconds());
+
+			analyticsMaterializedViews.add(analyticsMaterializedViewJson);
+		}
+
+		return new ApiResponse(new HashMap<String, Object>() {{
+			put("analyticsMaterializedViews", analyticsMaterializedViews);
+		}});
+	}
+
+	/**
+	 * Re-copies all remote data in one pass, for cases incremental sync can't detect (see DataSyncService).
+	 */
+	@Nonnull
+	@POST("/system/data-sync/full-resync")
+	@AuthenticationRequired
+	public ApiResponse performDataSyncFullResync() {
+		if (getCurrentContext().getAccount().get().getRoleId() != RoleId.ADMINISTRATOR)
+			throw new AuthorizationException();
+
+		// This is slow, do it on a background thread
+		new Thread() {
+			@Override
+			public void run() {
+				getDataSyncService().performFullResync();
+			}
+		}.start();
+
+		return new ApiResponse();
+	}
+
 	@Nonnull
 	@GET("/system/acuity-scheduling/call-frequency-histogram")
 	public ApiResponse acuityCallFrequencyHistogram() {
@@ -588,4 +799,34 @@ public class SystemResource {
 	protected IpGeolocationService getIpGeolocationService() {
 		return this.ipGeolocationService;
 	}
+
+	@Nonnull
+	protected PlaceService getPlaceService() {
+		return this.placeService;
+	}
+
+	@Nonnull
+	protected PatientOrderService getPatientOrderService() {
+		return this.patientOrderService;
+	}
+
+	@Nonnull
+	protected DataSyncService getDataSyncService() {
+		return this.dataSyncService;
+	}
+
+	@Nonnull
+	protected AnalyticsMaterializedViewService getAnalyticsMaterializedViewService() {
+		return this.analyticsMaterializedViewService;
+	}
+
+	@Nonnull
+	protected MetricsRecorder getMetricsRecorder() {
+		return this.metricsRecorder;
+	}
+
+	@Nonnull
+	protected CacheInvalidationBus getCacheInvalidationBus() {
+		return this.cacheInvalidationBus;
+	}
 }
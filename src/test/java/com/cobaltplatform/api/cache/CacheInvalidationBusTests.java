@@ -0,0 +1,168 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.cache;
+
+import com.cobaltplatform.api.App;
+import com.cobaltplatform.api.Configuration;
+import com.cobaltplatform.api.IntegrationTestExecutor;
+import com.cobaltplatform.api.util.JsonMapper;
+import com.cobaltplatform.api.util.MetricsRecorder;
+import com.cobaltplatform.api.util.db.DatabaseProvider;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@ThreadSafe
+public class CacheInvalidationBusTests {
+	@Test
+	public void remoteNotificationInvalidatesOnlyItsKey() {
+		IntegrationTestExecutor.run((app) -> {
+			MetricsRecorder metricsRecorder = new MetricsRecorder();
+			CacheInvalidationBus cacheInvalidationBus = createCacheInvalidationBus(app, metricsRecorder);
+			Cache<String, String> firstCache = createCache(cacheInvalidationBus, "first");
+			Cache<String, String> secondCache = createCache(cacheInvalidationBus, "second");
+
+			cacheInvalidationBus.handleNotification(createPayload(cacheInvalidationBus, UUID.randomUUID().toString(), "first", "one"));
+
+			Assert.assertNull("Key should have been invalidated", firstCache.getIfPresent("one"));
+			Assert.assertEquals("Other keys in the cache should be untouched", "2", firstCache.getIfPresent("two"));
+			Assert.assertEquals("Other caches should be untouched", Long.valueOf(2L), Long.valueOf(secondCache.estimatedSize()));
+			Assert.assertTrue("Invalidation should count as remote", metricsRecorder.generatePrometheusText().contains(
+					"cobalt_cache_invalidations_total{cache=\"first\",source=\"remote\"} 1\n"));
+		});
+	}
+
+	@Test
+	public void notificationWithoutKeyClearsCache() {
+		IntegrationTestExecutor.run((app) -> {
+			CacheInvalidationBus cacheInvalidationBus = createCacheInvalidationBus(app, new MetricsRecorder());
+			Cache<String, String> firstCache = createCache(cacheInvalidationBus, "first");
+			Cache<String, String> secondCache = createCache(cacheInvalidationBus, "second");
+
+			cacheInvalidationBus.handleNotification(createPayload(cacheInvalidationBus, UUID.randomUUID().toString(), "first", null));
+
+			Assert.assertEquals("Cache should have been cleared", Long.valueOf(0L), Long.valueOf(firstCache.estimatedSize()));
+			Assert.assertEquals("Other caches should be untouched", Long.valueOf(2L), Long.valueOf(secondCache.estimatedSize()));
+		});
+	}
+
+	@Test
+	public void ownNotificationInvalidatesAndCountsAsLocal() {
+		IntegrationTestExecutor.run((app) -> {
+			MetricsRecorder metricsRecorder = new MetricsRecorder();
+			CacheInvalidationBus cacheInvalidationBus = createCacheInvalidationBus(app, metricsRecorder);
+			Cache<String, String> firstCache = createCache(cacheInvalidationBus, "first");
+
+			cacheInvalidationBus.handleNotification(createPayload(cacheInvalidationBus, cacheInvalidationBus.getNodeId(), "first", "one"));
+
+			Assert.assertNull("Our own broadcast should still invalidate", firstCache.getIfPresent("one"));
+
+			String prometheusText = metricsRecorder.generatePrometheusText();
+
+			Assert.assertTrue("Invalidation should count as local", prometheusText.contains(
+					"cobalt_cache_invalidations_total{cache=\"first\",source=\"local\"} 1\n"));
+			Assert.assertFalse("Invalidation should not count as remote", prometheusText.contains("source=\"remote\""));
+		});
+	}
+
+	@Test
+	public void invalidateLocallyRunsEveryHandlerForCache() {
+		IntegrationTestExecutor.run((app) -> {
+			CacheInvalidationBus cacheInvalidationBus = createCacheInvalidationBus(app, new MetricsRecorder());
+			Cache<String, String> firstCache = createCache(cacheInvalidationBus, "shared");
+			Cache<String, String> secondCache = createCache(cacheInvalidationBus, "shared");
+
+			cacheInvalidationBus.invalidateLocally("shared", "two", false);
+
+			Assert.assertNull("Key should have been invalidated in the first cache", firstCache.getIfPresent("two"));
+			Assert.assertNull("Key should have been invalidated in the second cache", secondCache.getIfPresent("two"));
+			Assert.assertEquals("Other keys should be untouched", "1", firstCache.getIfPresent("one"));
+
+			// Not every node has every cache, so this is not an error
+			cacheInvalidationBus.invalidateLocally("unregistered", "one", false);
+
+			Assert.assertEquals("Unrelated caches should be untouched", "1", secondCache.getIfPresent("one"));
+		});
+	}
+
+	@Test
+	public void unusableNotificationsAreIgnored() {
+		IntegrationTestExecutor.run((app) -> {
+			CacheInvalidationBus cacheInvalidationBus = createCacheInvalidationBus(app, new MetricsRecorder());
+			Cache<String, String> firstCache = createCache(cacheInvalidationBus, "first");
+
+			cacheInvalidationBus.handleNotification(null);
+			cacheInvalidationBus.handleNotification("not json");
+			cacheInvalidationBus.handleNotification(createPayload(cacheInvalidationBus, UUID.randomUUID().toString(), null, "one"));
+			cacheInvalidationBus.handleNotification(createPayload(cacheInvalidationBus, UUID.randomUUID().toString(), "unregistered", "one"));
+
+			Assert.assertEquals("Cache should be untouched", Long.valueOf(2L), Long.valueOf(firstCache.estimatedSize()));
+		});
+	}
+
+	@Nonnull
+	protected CacheInvalidationBus createCacheInvalidationBus(@Nonnull App app,
+																														@Nonnull MetricsRecorder metricsRecorder) {
+		requireNonNull(app);
+		requireNonNull(metricsRecorder);
+
+		// A fresh instance (rather than the app's singleton) so registrations don't leak between tests.
+		// Nothing here starts the listener, so notifications are only what the tests hand it
+		return new CacheInvalidationBus(app.getInjector().getInstance(Configuration.class),
+				app.getInjector().getInstance(DatabaseProvider.class), new JsonMapper(), metricsRecorder);
+	}
+
+	@Nonnull
+	protected Cache<String, String> createCache(@Nonnull CacheInvalidationBus cacheInvalidationBus,
+																							@Nonnull String cacheName) {
+		requireNonNull(cacheInvalidationBus);
+		requireNonNull(cacheName);
+
+		Cache<String, String> cache = Caffeine.newBuilder().recordStats().build();
+		cache.put("one", "1");
+		cache.put("two", "2");
+
+		Consumer<String> keyInvalidator = (key) -> cache.invalidate(key);
+		cacheInvalidationBus.registerCache(cacheName, cache, keyInvalidator);
+
+		return cache;
+	}
+
+	@Nonnull
+	protected String createPayload(@Nonnull CacheInvalidationBus cacheInvalidationBus,
+																 @Nullable String nodeId,
+																 @Nullable String cacheName,
+																 @Nullable String key) {
+		requireNonNull(cacheInvalidationBus);
+		return cacheInvalidationBus.getJsonMapper().toJson(new CacheInvalidationBus.CacheInvalidationMessage(nodeId, cacheName, key));
+	}
+}
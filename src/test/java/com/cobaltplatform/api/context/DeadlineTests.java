@@ -0,0 +1,162 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.context;
+
+import com.cobaltplatform.api.IntegrationTestExecutor;
+import com.cobaltplatform.api.context.Deadline.ExpirationType;
+import com.cobaltplatform.api.http.DefaultHttpClient;
+import com.cobaltplatform.api.http.HttpMethod;
+import com.cobaltplatform.api.http.HttpRequest;
+import com.cobaltplatform.api.model.db.Institution.InstitutionId;
+import com.cobaltplatform.api.service.SystemService;
+import com.cobaltplatform.api.util.db.DatabaseProvider;
+import com.pyranid.Database;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.Locale;
+
+import static java.lang.String.format;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@ThreadSafe
+public class DeadlineTests {
+	@Test
+	public void deadlineShrinksStatementTimeout() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			SystemService systemService = app.getInjector().getInstance(SystemService.class);
+			CurrentContextExecutor currentContextExecutor = app.getInjector().getInstance(CurrentContextExecutor.class);
+			Database database = app.getInjector().getInstance(DatabaseProvider.class).getWritableMasterDatabase();
+
+			Duration timeout = Duration.ofSeconds(30);
+
+			currentContextExecutor.execute(currentContextWithDeadline(Deadline.after(timeout)), () -> {
+				Assert.assertTrue("Deadline was not applied", systemService.applyDeadlineForCurrentContextToCurrentTransaction());
+
+				Long initialStatementTimeout = statementTimeoutInMilliseconds(database);
+
+				Assert.assertTrue("Statement timeout should be bounded by the deadline",
+						initialStatementTimeout > 0 && initialStatementTimeout <= timeout.toMillis());
+
+				try {
+					Thread.sleep(25);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException(e);
+				}
+
+				// Re-applying mid-transaction picks up the time that has since elapsed
+				systemService.applyDeadlineForCurrentContextToCurrentTransaction();
+
+				Assert.assertTrue("Statement timeout did not shrink when re-applied",
+						statementTimeoutInMilliseconds(database) < initialStatementTimeout);
+			});
+		});
+	}
+
+	@Test
+	public void expiredDeadlineFailsBeforeDatabase() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			SystemService systemService = app.getInjector().getInstance(SystemService.class);
+			CurrentContextExecutor currentContextExecutor = app.getInjector().getInstance(CurrentContextExecutor.class);
+
+			currentContextExecutor.execute(currentContextWithDeadline(expiredDeadline()), () -> {
+				try {
+					systemService.applyDeadlineForCurrentContextToCurrentTransaction();
+					Assert.fail("Expired deadline should not have been applied");
+				} catch (DeadlineExceededException expected) {
+					// Expected
+				}
+			});
+		});
+	}
+
+	@Test
+	public void missingDeadlineLeavesStatementTimeoutAlone() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			SystemService systemService = app.getInjector().getInstance(SystemService.class);
+			CurrentContextExecutor currentContextExecutor = app.getInjector().getInstance(CurrentContextExecutor.class);
+			Database database = app.getInjector().getInstance(DatabaseProvider.class).getWritableMasterDatabase();
+
+			Long statementTimeout = statementTimeoutInMilliseconds(database);
+
+			currentContextExecutor.execute(currentContextWithDeadline(null), () -> {
+				Assert.assertFalse("No deadline should mean no statement timeout", systemService.applyDeadlineForCurrentContextToCurrentTransaction());
+				Assert.assertEquals(statementTimeout, statementTimeoutInMilliseconds(database));
+			});
+		});
+	}
+
+	@Test
+	public void expiredDeadlineFailsBeforeHttpCall() {
+		IntegrationTestExecutor.run((app) -> {
+			CurrentContextExecutor currentContextExecutor = app.getInjector().getInstance(CurrentContextExecutor.class);
+			DefaultHttpClient httpClient = new DefaultHttpClient("deadline-test");
+			long httpExpirationCount = Deadline.getExpirationCount(ExpirationType.HTTP);
+
+			currentContextExecutor.execute(currentContextWithDeadline(expiredDeadline()), () -> {
+				try {
+					// Unroutable address - if the deadline check didn't short-circuit, this would hang or fail differently
+					httpClient.execute(new HttpRequest.Builder(HttpMethod.GET, "http://10.255.255.1/").build());
+					Assert.fail("Expired deadline should have prevented the HTTP call");
+				} catch (InterruptedIOException expected) {
+					Assert.assertTrue(expected.getMessage().startsWith("Deadline of"));
+				} catch (IOException e) {
+					Assert.fail(format("Unexpected HTTP failure: %s", e.getMessage()));
+				}
+			});
+
+			Assert.assertTrue("HTTP deadline expiration was not recorded",
+					Deadline.getExpirationCount(ExpirationType.HTTP) > httpExpirationCount);
+		});
+	}
+
+	@Nonnull
+	protected CurrentContext currentContextWithDeadline(@Nullable Deadline deadline) {
+		return new CurrentContext.Builder(InstitutionId.COBALT, Locale.US, ZoneId.of("America/New_York"))
+				.deadline(deadline)
+				.build();
+	}
+
+	@Nonnull
+	protected Deadline expiredDeadline() {
+		Deadline deadline = Deadline.after(Duration.ofMillis(1));
+
+		while (!deadline.isExpired())
+			Thread.onSpinWait();
+
+		return deadline;
+	}
+
+	@Nonnull
+	protected Long statementTimeoutInMilliseconds(@Nonnull Database database) {
+		// pg_settings reports statement_timeout in milliseconds regardless of how it was set
+		return database.queryForObject("SELECT CAST(setting AS BIGINT) FROM pg_settings WHERE name='statement_timeout'", Long.class).get();
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.integration.acuity;
+
+import com.cobaltplatform.api.App;
+import com.cobaltplatform.api.Configuration;
+import com.cobaltplatform.api.IntegrationTestExecutor;
+import com.cobaltplatform.api.cache.CacheInvalidationBus;
+import com.cobaltplatform.api.integration.acuity.AcuitySchedulingCache.AvailabilityTimesKey;
+import com.cobaltplatform.api.util.JsonMapper;
+import com.cobaltplatform.api.util.MetricsRecorder;
+import com.cobaltplatform.api.util.db.DatabaseProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@ThreadSafe
+public class AcuitySchedulingCacheTests {
+	@Test
+	public void invalidationEvictsOverlappingDatesInOtherTimeZones() {
+		IntegrationTestExecutor.run((app) -> {
+			AcuitySchedulingCache acuitySchedulingCache = createAcuitySchedulingCache(app);
+			ZoneId easternTimeZone = ZoneId.of("America/New_York");
+			ZoneId pacificTimeZone = ZoneId.of("America/Los_Angeles");
+			LocalDate date = LocalDate.of(2026, 1, 15);
+
+			for (LocalDate pacificDate = date.minusDays(2); !pacificDate.isAfter(date.plusDays(2)); pacificDate = pacificDate.plusDays(1))
+				acuitySchedulingCache.findAvailabilityTimes(1L, 1L, pacificDate, pacificTimeZone);
+
+			acuitySchedulingCache.findAvailabilityTimes(1L, 1L, date.plusDays(1), easternTimeZone);
+
+			// Eastern midnight-to-midnight on the 15th runs from 9pm on the 14th to 9pm on the 15th Pacific time
+			acuitySchedulingCache.invalidateAvailability(date, easternTimeZone);
+
+			Assert.assertFalse("Pacific day before should have been evicted",
+					isCached(acuitySchedulingCache, date.minusDays(1), pacificTimeZone));
+			Assert.assertFalse("Pacific same day should have been evicted",
+					isCached(acuitySchedulingCache, date, pacificTimeZone));
+			Assert.assertTrue("Pacific day two days before should be untouched",
+					isCached(acuitySchedulingCache, date.minusDays(2), pacificTimeZone));
+			Assert.assertTrue("Pacific day after should be untouched",
+					isCached(acuitySchedulingCache, date.plusDays(1), pacificTimeZone));
+			Assert.assertTrue("Pacific day two days after should be untouched",
+					isCached(acuitySchedulingCache, date.plusDays(2), pacificTimeZone));
+			Assert.assertTrue("Eastern day after should be untouched",
+					isCached(acuitySchedulingCache, date.plusDays(1), easternTimeZone));
+		});
+	}
+
+	@Test
+	public void dateIndexIsEmptyAfterExpiry() {
+		IntegrationTestExecutor.run((app) -> {
+			AcuitySchedulingCache acuitySchedulingCache = createAcuitySchedulingCache(app);
+			LocalDate date = LocalDate.of(2026, 1, 15);
+			ZoneId timeZone = ZoneId.of("America/New_York");
+
+			for (int i = 0; i < 3; ++i)
+				acuitySchedulingCache.findAvailabilityTimes(1L, 1L, date.plusDays(i), timeZone);
+
+			Assert.assertEquals("Every cached date should be indexed", 3, acuitySchedulingCache.getAvailabilityTimesKeysByDate().size());
+
+			acuitySchedulingCache.getAvailabilityTimesCache().policy().expireAfterWrite().get().setExpiresAfter(0, TimeUnit.SECONDS);
+
+			awaitEmptyDateIndex(acuitySchedulingCache);
+		});
+	}
+
+	@Test
+	public void dateIndexIsEmptyAfterInvalidateAll() {
+		IntegrationTestExecutor.run((app) -> {
+			AcuitySchedulingCache acuitySchedulingCache = createAcuitySchedulingCache(app);
+			LocalDate date = LocalDate.of(2026, 1, 15);
+			ZoneId timeZone = ZoneId.of("America/New_York");
+
+			for (int i = 0; i < 3; ++i)
+				acuitySchedulingCache.findAvailabilityTimes(1L, 1L, date.plusDays(i), timeZone);
+
+			acuitySchedulingCache.invalidateAvailabilityTimesCache();
+
+			Assert.assertEquals("Cache should have been cleared", 0L, acuitySchedulingCache.getAvailabilityTimesCache().estimatedSize());
+
+			awaitEmptyDateIndex(acuitySchedulingCache);
+		});
+	}
+
+	@Nonnull
+	protected AcuitySchedulingCache createAcuitySchedulingCache(@Nonnull App app) {
+		requireNonNull(app);
+
+		// A fresh bus (rather than the app's singleton) so registrations don't leak between tests
+		CacheInvalidationBus cacheInvalidationBus = new CacheInvalidationBus(app.getInjector().getInstance(Configuration.class),
+				app.getInjector().getInstance(DatabaseProvider.class), new JsonMapper(), new MetricsRecorder());
+
+		return new AcuitySchedulingCache(new MockAcuitySchedulingClient(), app.getInjector().getInstance(Configuration.class), cacheInvalidationBus);
+	}
+
+	@Nonnull
+	protected Boolean isCached(@Nonnull AcuitySchedulingCache acuitySchedulingCache,
+														 @Nonnull LocalDate date,
+														 @Nonnull ZoneId timeZone) {
+		requireNonNull(acuitySchedulingCache);
+		requireNonNull(date);
+		requireNonNull(timeZone);
+
+		return acuitySchedulingCache.getAvailabilityTimesCache().getIfPresent(new AvailabilityTimesKey(1L, 1L, date, timeZone)) != null;
+	}
+
+	protected void awaitEmptyDateIndex(@Nonnull AcuitySchedulingCache acuitySchedulingCache) throws InterruptedException {
+		requireNonNull(acuitySchedulingCache);
+
+		// Removal listeners run asynchronously, so give the index a moment to catch up
+		Instant deadline = Instant.now().plus(Duration.ofSeconds(5L));
+
+		while (acuitySchedulingCache.getAvailabilityTimesKeysByDate().size() > 0 && Instant.now().isBefore(deadline)) {
+			acuitySchedulingCache.getAvailabilityTimesCache().cleanUp();
+			Thread.sleep(50L);
+		}
+
+		Assert.assertEquals("Date index should be empty", 0, acuitySchedulingCache.getAvailabilityTimesKeysByDate().size());
+	}
+}
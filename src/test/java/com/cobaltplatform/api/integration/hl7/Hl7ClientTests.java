@@ -19,16 +19,25 @@
 
 package com.cobaltplatform.api.integration.hl7;
 
+import com.cobaltplatform.api.integration.hl7.Hl7Client.GeneralOrderParseResult;
 import com.cobaltplatform.api.integration.hl7.model.event.Hl7GeneralOrderTriggerEvent;
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.soklet.util.LoggingUtils.initializeLogback;
+import static java.lang.String.format;
 
 /**
  * @author Transmogrify, LLC.
@@ -51,4 +60,103 @@ public class Hl7ClientTests {
 		System.out.println(generalOrderHl7AsString);
 		System.out.println(generalOrder);
 	}
+
+	@Test
+	public void testBatchParsingIsolatesInvalidMessages() {
+		Hl7Client hl7Client = new Hl7Client(2, 4);
+
+		List<String> generalOrderHl7AsStrings = List.of(
+				createGeneralOrderHl7(1),
+				"This is not an HL7 message",
+				createGeneralOrderHl7(2),
+				// Unsupported version
+				createGeneralOrderHl7(3).replace("|2.5.1", "|2.3"),
+				// Not a general order
+				createGeneralOrderHl7(4).replace("ORM^O01", "ADT^A01"),
+				"",
+				// Guarantor before insurance is rewritten rather than rejected
+				createGeneralOrderHl7(5).replace("ORC|", "GT1|1||Guarantor^Test\rIN1|1|PLAN5\rORC|"),
+				createGeneralOrderHl7(6)
+		);
+
+		List<GeneralOrderParseResult> generalOrderParseResults = hl7Client.parseGeneralOrders(generalOrderHl7AsStrings);
+
+		Assert.assertEquals("Wrong number of results", generalOrderHl7AsStrings.size(), generalOrderParseResults.size());
+
+		assertParsedGeneralOrder(generalOrderParseResults.get(0), 1);
+		assertParsingFailed(generalOrderParseResults.get(1), "non-HL7 text");
+		assertParsedGeneralOrder(generalOrderParseResults.get(2), 2);
+		assertParsingFailed(generalOrderParseResults.get(3), "unsupported version");
+		assertParsingFailed(generalOrderParseResults.get(4), "non-ORM message");
+		assertParsingFailed(generalOrderParseResults.get(5), "empty message");
+		assertParsedGeneralOrder(generalOrderParseResults.get(6), 5);
+		assertParsedGeneralOrder(generalOrderParseResults.get(7), 6);
+	}
+
+	@Test
+	public void testConcurrentParsingWithPooledParsers() throws Exception {
+		// Fewer idle parsers than workers, so parsers are both reused and discarded while messages are in flight
+		Hl7Client hl7Client = new Hl7Client(2, 8);
+		int messageCount = 200;
+		List<String> generalOrderHl7AsStrings = new ArrayList<>(messageCount);
+
+		for (int i = 0; i < messageCount; ++i)
+			generalOrderHl7AsStrings.add(createGeneralOrderHl7(i));
+
+		List<GeneralOrderParseResult> generalOrderParseResults = hl7Client.parseGeneralOrders(generalOrderHl7AsStrings);
+
+		for (int i = 0; i < messageCount; ++i)
+			assertParsedGeneralOrder(generalOrderParseResults.get(i), i);
+
+		// Single-message parsing from many threads at once shares the same pool
+		ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+		try {
+			List<Future<Hl7GeneralOrderTriggerEvent>> futures = new ArrayList<>(messageCount);
+
+			for (String generalOrderHl7AsString : generalOrderHl7AsStrings)
+				futures.add(executorService.submit(() -> hl7Client.parseGeneralOrder(generalOrderHl7AsString)));
+
+			for (int i = 0; i < messageCount; ++i)
+				assertGeneralOrder(futures.get(i).get(), i);
+		} finally {
+			executorService.shutdownNow();
+		}
+
+		Assert.assertTrue("Idle parser pool grew past its maximum", hl7Client.getIdleParsers().size() <= 2);
+	}
+
+	@Nonnull
+	protected String createGeneralOrderHl7(int messageNumber) {
+		return String.join("\r",
+				format("MSH|^~\\&|EPIC|PENN|COBALT|PENN|20240206120000||ORM^O01|CONTROL%d|P|2.5.1", messageNumber),
+				format("PID|1||MRN%d^^^PENN^MR||Patient%d^Test||19800101|F", messageNumber, messageNumber),
+				format("ORC|NW|ORDER%d", messageNumber),
+				format("OBR|1|ORDER%d", messageNumber));
+	}
+
+	protected void assertParsedGeneralOrder(@Nonnull GeneralOrderParseResult generalOrderParseResult,
+																					int messageNumber) {
+		Assert.assertTrue(format("Message %d should have parsed but failed with %s", messageNumber,
+				generalOrderParseResult.getParsingException().orElse(null)), generalOrderParseResult.getGeneralOrder().isPresent());
+		Assert.assertFalse("Parsed message should not have an exception", generalOrderParseResult.getParsingException().isPresent());
+
+		assertGeneralOrder(generalOrderParseResult.getGeneralOrder().get(), messageNumber);
+	}
+
+	protected void assertGeneralOrder(@Nonnull Hl7GeneralOrderTriggerEvent generalOrder,
+																		int messageNumber) {
+		Assert.assertEquals("Wrong message control ID", format("CONTROL%d", messageNumber),
+				generalOrder.getMessageHeader().getMessageControlId());
+		Assert.assertEquals("Wrong patient identifier", format("MRN%d", messageNumber),
+				generalOrder.getPatient().getPatientIdentification().getPatientIdentifierList().get(0).getIdNumber());
+		Assert.assertEquals("Wrong patient name", format("Patient%d", messageNumber),
+				generalOrder.getPatient().getPatientIdentification().getPatientName().get(0).getFamilyName().getSurname());
+	}
+
+	protected void assertParsingFailed(@Nonnull GeneralOrderParseResult generalOrderParseResult,
+																		 @Nonnull String description) {
+		Assert.assertFalse(format("Parsing should have failed for %s", description), generalOrderParseResult.getGeneralOrder().isPresent());
+		Assert.assertTrue(format("Missing parsing exception for %s", description), generalOrderParseResult.getParsingException().isPresent());
+	}
 }
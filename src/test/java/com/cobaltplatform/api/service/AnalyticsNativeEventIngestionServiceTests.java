@@ -0,0 +1,252 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.service;
+
+import com.cobaltplatform.api.IntegrationTestExecutor;
+import com.cobaltplatform.api.model.db.AnalyticsNativeEventType.AnalyticsNativeEventTypeId;
+import com.cobaltplatform.api.model.db.Institution.InstitutionId;
+import com.cobaltplatform.api.model.service.ValidatedAnalyticsNativeEvent;
+import com.cobaltplatform.api.util.db.DatabaseProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@ThreadSafe
+public class AnalyticsNativeEventIngestionServiceTests {
+	@Test
+	public void eventsAreInsertedSynchronouslyWhenNotStarted() {
+		IntegrationTestExecutor.run((app) -> {
+			RecordingAnalyticsNativeEventIngestionService ingestionService = new RecordingAnalyticsNativeEventIngestionService(
+					app.getInjector().getInstance(DatabaseProvider.class));
+
+			ValidatedAnalyticsNativeEvent analyticsNativeEvent = createAnalyticsNativeEvent();
+			ingestionService.ingestAnalyticsNativeEvent(analyticsNativeEvent);
+
+			Assert.assertEquals("Event should have been inserted immediately",
+					List.of(analyticsNativeEvent.getAnalyticsNativeEventId()), ingestionService.getIndividuallyInsertedIds());
+			Assert.assertEquals("Nothing should have been buffered", Integer.valueOf(0), ingestionService.getUnflushedAnalyticsNativeEventCount());
+		});
+	}
+
+	@Test
+	public void stoppingDrainsBufferedEventsInBatches() {
+		IntegrationTestExecutor.run((app) -> {
+			RecordingAnalyticsNativeEventIngestionService ingestionService = new RecordingAnalyticsNativeEventIngestionService(
+					app.getInjector().getInstance(DatabaseProvider.class));
+
+			ingestionService.startBackgroundTask();
+
+			List<UUID> analyticsNativeEventIds = new ArrayList<>();
+
+			for (int i = 0; i < 1_200; ++i) {
+				ValidatedAnalyticsNativeEvent analyticsNativeEvent = createAnalyticsNativeEvent();
+				analyticsNativeEventIds.add(analyticsNativeEvent.getAnalyticsNativeEventId());
+				ingestionService.ingestAnalyticsNativeEvent(analyticsNativeEvent);
+			}
+
+			Assert.assertEquals("Events should have been buffered, not flushed", Integer.valueOf(1_200),
+					ingestionService.getUnflushedAnalyticsNativeEventCount());
+
+			ingestionService.stopBackgroundTask();
+
+			Assert.assertEquals("Wrong batch sizes", List.of(500, 500, 200), ingestionService.getBatchSizes());
+			Assert.assertEquals("Buffered events were not all written, in order", analyticsNativeEventIds, ingestionService.getBatchInsertedIds());
+			Assert.assertEquals("Nothing should have been inserted individually", List.of(), ingestionService.getIndividuallyInsertedIds());
+			Assert.assertEquals("Buffer should be empty after stopping", Integer.valueOf(0), ingestionService.getUnflushedAnalyticsNativeEventCount());
+
+			// Once stopped, events go straight to the database again
+			ValidatedAnalyticsNativeEvent analyticsNativeEvent = createAnalyticsNativeEvent();
+			ingestionService.ingestAnalyticsNativeEvent(analyticsNativeEvent);
+
+			Assert.assertEquals("Event should have been inserted immediately after stopping",
+					List.of(analyticsNativeEvent.getAnalyticsNativeEventId()), ingestionService.getIndividuallyInsertedIds());
+		});
+	}
+
+	@Test
+	public void transientBatchFailureIsRetried() {
+		IntegrationTestExecutor.run((app) -> {
+			RecordingAnalyticsNativeEventIngestionService ingestionService = new RecordingAnalyticsNativeEventIngestionService(
+					app.getInjector().getInstance(DatabaseProvider.class));
+
+			ingestionService.startBackgroundTask();
+
+			List<UUID> analyticsNativeEventIds = new ArrayList<>();
+
+			for (int i = 0; i < 3; ++i) {
+				ValidatedAnalyticsNativeEvent analyticsNativeEvent = createAnalyticsNativeEvent();
+				analyticsNativeEventIds.add(analyticsNativeEvent.getAnalyticsNativeEventId());
+				ingestionService.ingestAnalyticsNativeEvent(analyticsNativeEvent);
+			}
+
+			// 08006 is connection_failure
+			ingestionService.setBatchFailureSqlState("08006");
+
+			Assert.assertEquals("Nothing should have been flushed", Integer.valueOf(0), ingestionService.flushBufferedAnalyticsNativeEvents());
+			Assert.assertEquals("Events should be held for retry", Integer.valueOf(3), ingestionService.getUnflushedAnalyticsNativeEventCount());
+			Assert.assertEquals("Transient failures should not fall back to individual inserts", List.of(),
+					ingestionService.getIndividuallyInsertedIds());
+
+			ingestionService.setBatchFailureSqlState(null);
+			ingestionService.stopBackgroundTask();
+
+			Assert.assertEquals("Retried events were not written", analyticsNativeEventIds, ingestionService.getBatchInsertedIds());
+			Assert.assertEquals("Nothing should be left after retrying", Integer.valueOf(0), ingestionService.getUnflushedAnalyticsNativeEventCount());
+		});
+	}
+
+	@Test
+	public void dataErrorFallsBackToIndividualInserts() {
+		IntegrationTestExecutor.run((app) -> {
+			RecordingAnalyticsNativeEventIngestionService ingestionService = new RecordingAnalyticsNativeEventIngestionService(
+					app.getInjector().getInstance(DatabaseProvider.class));
+
+			ingestionService.startBackgroundTask();
+
+			List<UUID> analyticsNativeEventIds = new ArrayList<>();
+
+			for (int i = 0; i < 3; ++i) {
+				ValidatedAnalyticsNativeEvent analyticsNativeEvent = createAnalyticsNativeEvent();
+				analyticsNativeEventIds.add(analyticsNativeEvent.getAnalyticsNativeEventId());
+				ingestionService.ingestAnalyticsNativeEvent(analyticsNativeEvent);
+			}
+
+			UUID badAnalyticsNativeEventId = analyticsNativeEventIds.get(1);
+
+			// 22P02 is invalid_text_representation
+			ingestionService.setBatchFailureSqlState("22P02");
+			ingestionService.getBadAnalyticsNativeEventIds().add(badAnalyticsNativeEventId);
+
+			ingestionService.stopBackgroundTask();
+
+			Assert.assertEquals("Only the good events should have been written",
+					List.of(analyticsNativeEventIds.get(0), analyticsNativeEventIds.get(2)), ingestionService.getIndividuallyInsertedIds());
+			Assert.assertEquals("Bad event should have been discarded, not retried", Integer.valueOf(0),
+					ingestionService.getUnflushedAnalyticsNativeEventCount());
+		});
+	}
+
+	@Nonnull
+	protected ValidatedAnalyticsNativeEvent createAnalyticsNativeEvent() {
+		return new ValidatedAnalyticsNativeEvent.Builder(UUID.randomUUID(), AnalyticsNativeEventTypeId.SESSION_STARTED,
+				InstitutionId.COBALT, UUID.randomUUID(), Instant.now(), "Test", "1.0", "{}", "[]")
+				.clientDeviceId(UUID.randomUUID())
+				.build();
+	}
+
+	/**
+	 * Records writes instead of performing them, and can be told to fail like the database would.
+	 */
+	@ThreadSafe
+	protected static class RecordingAnalyticsNativeEventIngestionService extends AnalyticsNativeEventIngestionService {
+		@Nonnull
+		private final List<Integer> batchSizes;
+		@Nonnull
+		private final List<UUID> batchInsertedIds;
+		@Nonnull
+		private final List<UUID> individuallyInsertedIds;
+		@Nonnull
+		private final Set<UUID> badAnalyticsNativeEventIds;
+		@Nullable
+		private volatile String batchFailureSqlState;
+
+		public RecordingAnalyticsNativeEventIngestionService(@Nonnull DatabaseProvider databaseProvider) {
+			super(databaseProvider);
+			this.batchSizes = Collections.synchronizedList(new ArrayList<>());
+			this.batchInsertedIds = Collections.synchronizedList(new ArrayList<>());
+			this.individuallyInsertedIds = Collections.synchronizedList(new ArrayList<>());
+			this.badAnalyticsNativeEventIds = Collections.synchronizedSet(new HashSet<>());
+		}
+
+		@Override
+		protected void insertAnalyticsNativeEventBatch(@Nonnull List<ValidatedAnalyticsNativeEvent> analyticsNativeEvents) {
+			requireNonNull(analyticsNativeEvents);
+
+			String sqlState = this.batchFailureSqlState;
+
+			if (sqlState != null)
+				throw new RuntimeException(new SQLException("Simulated batch failure", sqlState));
+
+			getBatchSizes().add(analyticsNativeEvents.size());
+			getBatchInsertedIds().addAll(analyticsNativeEvents.stream()
+					.map(analyticsNativeEvent -> analyticsNativeEvent.getAnalyticsNativeEventId())
+					.collect(Collectors.toList()));
+		}
+
+		@Override
+		protected void insertAnalyticsNativeEvent(@Nonnull ValidatedAnalyticsNativeEvent analyticsNativeEvent) {
+			requireNonNull(analyticsNativeEvent);
+
+			// 23503 is foreign_key_violation
+			if (getBadAnalyticsNativeEventIds().contains(analyticsNativeEvent.getAnalyticsNativeEventId()))
+				throw new RuntimeException(new SQLException("Simulated bad event", "23503"));
+
+			getIndividuallyInsertedIds().add(analyticsNativeEvent.getAnalyticsNativeEventId());
+		}
+
+		@Nonnull
+		@Override
+		protected Long getFlushIntervalInMilliseconds() {
+			// Only flush when a test asks for it
+			return 60L * 60L * 1_000L;
+		}
+
+		public void setBatchFailureSqlState(@Nullable String batchFailureSqlState) {
+			this.batchFailureSqlState = batchFailureSqlState;
+		}
+
+		@Nonnull
+		public List<Integer> getBatchSizes() {
+			return this.batchSizes;
+		}
+
+		@Nonnull
+		public List<UUID> getBatchInsertedIds() {
+			return this.batchInsertedIds;
+		}
+
+		@Nonnull
+		public List<UUID> getIndividuallyInsertedIds() {
+			return this.individuallyInsertedIds;
+		}
+
+		@Nonnull
+		public Set<UUID> getBadAnalyticsNativeEventIds() {
+			return this.badAnalyticsNativeEventIds;
+		}
+	}
+}
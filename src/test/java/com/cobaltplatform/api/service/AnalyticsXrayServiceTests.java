@@ -0,0 +1,165 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.service;
+
+import com.cobaltplatform.api.Configuration;
+import com.cobaltplatform.api.IntegrationTestExecutor;
+import com.cobaltplatform.api.context.CurrentContextExecutor;
+import com.cobaltplatform.api.context.DatabaseContextExecutor;
+import com.cobaltplatform.api.model.db.AnalyticsNativeEventType.AnalyticsNativeEventTypeId;
+import com.cobaltplatform.api.model.db.Institution;
+import com.cobaltplatform.api.model.db.Institution.InstitutionId;
+import com.cobaltplatform.api.model.db.Role.RoleId;
+import com.cobaltplatform.api.service.AnalyticsXrayService.AnalyticsXrayFilter;
+import com.cobaltplatform.api.util.Formatter;
+import com.cobaltplatform.api.util.db.DatabaseProvider;
+import com.lokalized.Strings;
+import com.pyranid.Database;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@ThreadSafe
+public class AnalyticsXrayServiceTests {
+	@Test
+	public void rollupPlusTailMatchesRawEvents() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			InstitutionService institutionService = app.getInjector().getInstance(InstitutionService.class);
+			AnalyticsRollupService analyticsRollupService = app.getInjector().getInstance(AnalyticsRollupService.class);
+			Database database = app.getInjector().getInstance(DatabaseProvider.class).getWritableMasterDatabase();
+
+			// Read "replica" queries through the test transaction so the widgets can see uncommitted test data
+			AnalyticsXrayService analyticsXrayService = new AnalyticsXrayService(
+					app.getInjector().getProvider(InstitutionService.class),
+					app.getInjector().getProvider(CourseService.class),
+					app.getInjector().getProvider(AnalyticsService.class),
+					app.getInjector().getProvider(SystemService.class),
+					app.getInjector().getInstance(DatabaseProvider.class),
+					app.getInjector().getInstance(Strings.class),
+					app.getInjector().getInstance(Formatter.class),
+					app.getInjector().getInstance(CurrentContextExecutor.class),
+					app.getInjector().getInstance(DatabaseContextExecutor.class),
+					app.getInjector().getInstance(Configuration.class)) {
+				@Nonnull
+				@Override
+				protected Database getReadReplicaDatabase() {
+					return database;
+				}
+			};
+
+			Institution institution = institutionService.findInstitutionById(InstitutionId.COBALT).get();
+			AnalyticsXrayFilter analyticsXrayFilter = new AnalyticsXrayFilter(null);
+			Instant now = Instant.now();
+
+			// Everything created in the last few hours will be read raw until it's rolled up
+			database.execute("""
+					UPDATE analytics_native_event_rollup_watermark
+					SET created_watermark=?, id_watermark=?
+					""", now.minus(Duration.ofHours(3)), new UUID(0L, 0L));
+
+			UUID accountId = UUID.randomUUID();
+			UUID clientDeviceId = UUID.randomUUID();
+			UUID firstSessionId = UUID.randomUUID();
+			UUID secondSessionId = UUID.randomUUID();
+
+			database.execute("""
+					INSERT INTO account (account_id, role_id, institution_id, account_source_id, test_account)
+					VALUES (?,?,?,'ANONYMOUS',FALSE)
+					""", accountId, RoleId.PATIENT, InstitutionId.COBALT);
+
+			database.execute("""
+					INSERT INTO client_device (client_device_id, client_device_type_id, fingerprint, last_updated)
+					VALUES (?,'WEB_BROWSER',?,NOW())
+					""", clientDeviceId, clientDeviceId.toString());
+
+			// Widgets are queried over a range in the past so only these events fall inside it.
+			// Older events will be rolled up, newer ones stay in the raw tail - January 3 has both
+			Instant olderCreated = now.minus(Duration.ofHours(2));
+			Instant newerCreated = now.minus(Duration.ofMinutes(30));
+
+			createSessionStartedEvent(database, accountId, clientDeviceId, firstSessionId, Instant.parse("2001-01-02T17:00:00Z"), olderCreated);
+			createSessionStartedEvent(database, accountId, clientDeviceId, firstSessionId, Instant.parse("2001-01-03T17:00:00Z"), olderCreated);
+			createSessionStartedEvent(database, accountId, clientDeviceId, firstSessionId, Instant.parse("2001-01-03T18:00:00Z"), newerCreated);
+			createSessionStartedEvent(database, accountId, clientDeviceId, secondSessionId, Instant.parse("2001-01-04T17:00:00Z"), newerCreated);
+
+			LocalDate startDate = LocalDate.of(2001, 1, 1);
+			LocalDate endDate = LocalDate.of(2001, 1, 5);
+
+			List<Number> rawWidgetTotals = widgetTotals(analyticsXrayService, institution, startDate, endDate, analyticsXrayFilter);
+
+			Assert.assertEquals("Unexpected raw widget totals", List.of(3L, 1L, 4L), rawWidgetTotals.stream().map(Number::longValue).collect(Collectors.toList()));
+
+			// Roll up only the older events
+			Instant settledBefore = now.minus(Duration.ofHours(1));
+
+			boolean caughtUp = false;
+
+			while (!caughtUp)
+				caughtUp = analyticsRollupService.rollUpBatchInCurrentTransaction(settledBefore).getCaughtUp();
+
+			Long rolledUpDayCount = database.queryForObject("SELECT COUNT(*) FROM analytics_native_event_account_day WHERE account_id=?",
+					Long.class, accountId).get();
+
+			Assert.assertEquals("Older events should have been rolled up", Long.valueOf(2L), rolledUpDayCount);
+			Assert.assertEquals("Rollup plus raw tail should match raw events", rawWidgetTotals,
+					widgetTotals(analyticsXrayService, institution, startDate, endDate, analyticsXrayFilter));
+		});
+	}
+
+	@Nonnull
+	protected List<Number> widgetTotals(@Nonnull AnalyticsXrayService analyticsXrayService,
+																			@Nonnull Institution institution,
+																			@Nonnull LocalDate startDate,
+																			@Nonnull LocalDate endDate,
+																			@Nonnull AnalyticsXrayFilter analyticsXrayFilter) {
+		return List.of(
+				analyticsXrayService.createAccountVisitsWidget(institution, startDate, endDate, analyticsXrayFilter).getWidgetTotal(),
+				analyticsXrayService.createAccountRepeatVisitsWidget(institution, startDate, endDate, analyticsXrayFilter).getWidgetTotal(),
+				analyticsXrayService.createAccountReferrersWidget(institution, startDate, endDate, analyticsXrayFilter).getWidgetTotal()
+		);
+	}
+
+	protected void createSessionStartedEvent(@Nonnull Database database,
+																					 @Nonnull UUID accountId,
+																					 @Nonnull UUID clientDeviceId,
+																					 @Nonnull UUID sessionId,
+																					 @Nonnull Instant timestamp,
+																					 @Nonnull Instant created) {
+		database.execute("""
+						INSERT INTO analytics_native_event (
+						analytics_native_event_type_id, institution_id, client_device_id, account_id, session_id, "timestamp",
+						timestamp_epoch_second, timestamp_epoch_second_nano_offset, data, app_name, app_version, created
+						)
+						VALUES (?,?,?,?,?,?,?,0,CAST(? AS JSONB),'Cobalt Webapp','test',?)
+						""", AnalyticsNativeEventTypeId.SESSION_STARTED, InstitutionId.COBALT, clientDeviceId, accountId, sessionId,
+				timestamp, timestamp.getEpochSecond(), "{\"referringUrl\": \"https://www.example.com/referrer\"}", created);
+	}
+}
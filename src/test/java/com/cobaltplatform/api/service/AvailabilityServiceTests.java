@@ -47,9 +47,11 @@ import javax.annotation.concurrent.ThreadSafe;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static java.lang.String.format;
@@ -180,6 +182,89 @@ public class AvailabilityServiceTests {
 		});
 	}
 
+	@Test
+	public void testStoreProviderAvailabilityHistorySlotsReusesRowsAndReplacesAppointmentTypes() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			Database database = app.getInjector().getInstance(DatabaseProvider.class).getWritableMasterDatabase();
+			AvailabilityService.HistoryBackgroundTask historyBackgroundTask = app.getInjector().getInstance(AvailabilityService.HistoryBackgroundTask.class);
+
+			TestProvider testProvider = createTestProvider(app.getInjector());
+			ZoneId timeZone = ZoneId.of("America/New_York");
+			LocalDateTime firstSlotDateTime = LocalDateTime.of(LocalDate.of(2026, 3, 3), LocalTime.of(10, 0));
+			LocalDateTime secondSlotDateTime = LocalDateTime.of(LocalDate.of(2026, 3, 3), LocalTime.of(10, 30));
+			long captureDeadlineNanoTime = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+
+			historyBackgroundTask.storeProviderAvailabilityHistorySlots(List.of(
+					createProviderAvailabilityHistorySlot(testProvider, firstSlotDateTime, List.of(testProvider.getNpvAppointmentTypeId())),
+					createProviderAvailabilityHistorySlot(testProvider, secondSlotDateTime,
+							List.of(testProvider.getNpvAppointmentTypeId(), testProvider.getRpvAppointmentTypeId()))
+			), timeZone, captureDeadlineNanoTime);
+
+			UUID firstProviderAvailabilityHistoryId = findProviderAvailabilityHistoryId(database, testProvider, firstSlotDateTime, timeZone);
+			UUID secondProviderAvailabilityHistoryId = findProviderAvailabilityHistoryId(database, testProvider, secondSlotDateTime, timeZone);
+
+			Assert.assertEquals("Wrong appointment types for first slot", List.of(testProvider.getNpvAppointmentTypeId()),
+					findHistoryAppointmentTypeIds(database, firstProviderAvailabilityHistoryId));
+			Assert.assertEquals("Wrong appointment type count for second slot", 2,
+					findHistoryAppointmentTypeIds(database, secondProviderAvailabilityHistoryId).size());
+
+			// Capture the same slots again with different appointment types, as a later run on the same day would
+			historyBackgroundTask.storeProviderAvailabilityHistorySlots(List.of(
+					createProviderAvailabilityHistorySlot(testProvider, firstSlotDateTime, List.of(testProvider.getRpvAppointmentTypeId())),
+					createProviderAvailabilityHistorySlot(testProvider, secondSlotDateTime, List.of())
+			), timeZone, captureDeadlineNanoTime);
+
+			Long providerAvailabilityHistoryCount = database.queryForObject("""
+					SELECT COUNT(*)
+					FROM provider_availability_history
+					WHERE provider_id=?
+					""", Long.class, testProvider.getProviderId()).get();
+
+			Assert.assertEquals("Slots should not have been duplicated", 2L, (long) providerAvailabilityHistoryCount);
+			Assert.assertEquals("First slot should keep its existing row", firstProviderAvailabilityHistoryId,
+					findProviderAvailabilityHistoryId(database, testProvider, firstSlotDateTime, timeZone));
+			Assert.assertEquals("Second slot should keep its existing row", secondProviderAvailabilityHistoryId,
+					findProviderAvailabilityHistoryId(database, testProvider, secondSlotDateTime, timeZone));
+			Assert.assertEquals("First slot's appointment types should have been replaced", List.of(testProvider.getRpvAppointmentTypeId()),
+					findHistoryAppointmentTypeIds(database, firstProviderAvailabilityHistoryId));
+			Assert.assertTrue("Second slot's appointment types should have been removed",
+					findHistoryAppointmentTypeIds(database, secondProviderAvailabilityHistoryId).isEmpty());
+		});
+	}
+
+	@Nonnull
+	protected AvailabilityService.ProviderAvailabilityHistorySlot createProviderAvailabilityHistorySlot(@Nonnull TestProvider testProvider,
+																																																			@Nonnull LocalDateTime slotDateTime,
+																																																			@Nonnull List<UUID> appointmentTypeIds) {
+		return new AvailabilityService.ProviderAvailabilityHistorySlot(testProvider.getProviderId(), SchedulingSystemId.COBALT,
+				"Test Provider", slotDateTime, appointmentTypeIds);
+	}
+
+	@Nonnull
+	protected UUID findProviderAvailabilityHistoryId(@Nonnull Database database,
+																									 @Nonnull TestProvider testProvider,
+																									 @Nonnull LocalDateTime slotDateTime,
+																									 @Nonnull ZoneId timeZone) {
+		return database.queryForObject("""
+				SELECT provider_availability_history_id
+				FROM provider_availability_history
+				WHERE provider_id=?
+				AND slot_date_time=?
+				AND time_zone=?
+				""", UUID.class, testProvider.getProviderId(), slotDateTime, timeZone).get();
+	}
+
+	@Nonnull
+	protected List<UUID> findHistoryAppointmentTypeIds(@Nonnull Database database,
+																										 @Nonnull UUID providerAvailabilityHistoryId) {
+		return database.queryForList("""
+				SELECT appointment_type_id
+				FROM provider_availability_appointment_type_history
+				WHERE provider_availability_history_id=?
+				ORDER BY appointment_type_id
+				""", UUID.class, providerAvailabilityHistoryId);
+	}
+
 	@Nonnull
 	protected TestProvider createTestProvider(@Nonnull Injector injector) {
 		Database database = injector.getInstance(DatabaseProvider.class).getWritableMasterDatabase();
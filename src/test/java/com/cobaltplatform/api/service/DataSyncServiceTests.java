@@ -0,0 +1,146 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.service;
+
+import com.cobaltplatform.api.IntegrationTestExecutor;
+import com.cobaltplatform.api.model.db.Account;
+import com.cobaltplatform.api.model.db.ContentType.ContentTypeId;
+import com.cobaltplatform.api.model.db.DataSyncTable.DataSyncTableId;
+import com.cobaltplatform.api.model.db.Institution.InstitutionId;
+import com.cobaltplatform.api.util.db.DatabaseProvider;
+import com.pyranid.Database;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@ThreadSafe
+public class DataSyncServiceTests {
+	@Test
+	public void incrementalContentSyncKeepsTags() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			DataSyncService dataSyncService = app.getInjector().getInstance(DataSyncService.class);
+			AccountService accountService = app.getInjector().getInstance(AccountService.class);
+			Database database = app.getInjector().getInstance(DatabaseProvider.class).getWritableMasterDatabase();
+
+			Account serviceAccount = accountService.findServiceAccountByInstitutionId(InstitutionId.COBALT).get();
+
+			createRemoteTables(database);
+
+			UUID contentId = UUID.randomUUID();
+			String tagId = createRemoteTaggedContent(database, contentId);
+			String[] ids = new String[]{contentId.toString()};
+
+			// First sync makes the content visible locally and must bring its tags along
+			dataSyncService.applyIncrementalBatch(DataSyncTableId.CONTENT, ids, serviceAccount);
+
+			Assert.assertEquals("Tags were not synced with newly visible content", List.of(tagId), findTagIdsForContentId(database, contentId));
+
+			// Second sync of the same row after a remote change must not drop its tags
+			database.execute("UPDATE v_remote_content SET title='Data Sync Test Updated', last_updated=NOW() + INTERVAL '1 minute' WHERE content_id=?", contentId);
+
+			dataSyncService.applyIncrementalBatch(DataSyncTableId.CONTENT, ids, serviceAccount);
+
+			Assert.assertEquals("Tags did not survive a second sync", List.of(tagId), findTagIdsForContentId(database, contentId));
+		});
+	}
+
+	@Test
+	public void scheduledFullResyncAppliesRemoteTagDelete() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			DataSyncService dataSyncService = app.getInjector().getInstance(DataSyncService.class);
+			AccountService accountService = app.getInjector().getInstance(AccountService.class);
+			Database database = app.getInjector().getInstance(DatabaseProvider.class).getWritableMasterDatabase();
+
+			Account serviceAccount = accountService.findServiceAccountByInstitutionId(InstitutionId.COBALT).get();
+
+			createRemoteTables(database);
+
+			UUID contentId = UUID.randomUUID();
+			String tagId = createRemoteTaggedContent(database, contentId);
+
+			dataSyncService.applyIncrementalBatch(DataSyncTableId.CONTENT, new String[]{contentId.toString()}, serviceAccount);
+
+			Assert.assertEquals("Tags were not synced with newly visible content", List.of(tagId), findTagIdsForContentId(database, contentId));
+
+			// The tag is removed remotely without touching the content, so the incremental walk never revisits it
+			database.execute("DELETE FROM v_remote_tag_content WHERE content_id=?", contentId);
+			database.execute("UPDATE data_sync_watermark SET last_full_resync_at=NOW() - INTERVAL '2 days'");
+
+			Assert.assertTrue("Full resync should be due", dataSyncService.isFullResyncDue());
+
+			// What the background task's performFullResyncIfDue() runs once the lock is held and a resync is due
+			dataSyncService.syncData();
+
+			Assert.assertEquals("Remote tag delete was not applied", List.of(), findTagIdsForContentId(database, contentId));
+			Assert.assertFalse("Full resync should no longer be due", dataSyncService.isFullResyncDue());
+		});
+	}
+
+	protected void createRemoteTables(@Nonnull Database database) {
+		// Temporary tables shadow the remote views for the rest of this (rolled-back) transaction
+		database.execute("CREATE TEMPORARY TABLE v_remote_institution (LIKE institution INCLUDING DEFAULTS) ON COMMIT DROP");
+		database.execute("CREATE TEMPORARY TABLE v_remote_tag (LIKE tag INCLUDING DEFAULTS) ON COMMIT DROP");
+		database.execute("CREATE TEMPORARY TABLE v_remote_content (LIKE content INCLUDING DEFAULTS) ON COMMIT DROP");
+		database.execute("CREATE TEMPORARY TABLE v_remote_tag_content (LIKE tag_content INCLUDING DEFAULTS) ON COMMIT DROP");
+		database.execute("CREATE TEMPORARY TABLE v_remote_content_audience (LIKE content_audience INCLUDING DEFAULTS) ON COMMIT DROP");
+		database.execute("CREATE TEMPORARY TABLE v_remote_institution_content (LIKE institution_content INCLUDING DEFAULTS) ON COMMIT DROP");
+		database.execute("CREATE TEMPORARY TABLE remote_file_upload (LIKE file_upload INCLUDING DEFAULTS) ON COMMIT DROP");
+	}
+
+	@Nonnull
+	protected String createRemoteTaggedContent(@Nonnull Database database,
+											   @Nonnull UUID contentId) {
+		String tagId = "DATA_SYNC_TEST_" + contentId.toString().replace("-", "").toUpperCase();
+
+		database.execute("""
+				INSERT INTO tag (tag_id, name, url_name, description, tag_group_id)
+				SELECT ?, 'Data Sync Test', 'data-sync-test', 'Data Sync Test', tag_group_id
+				FROM tag_group
+				LIMIT 1
+				""", tagId);
+
+		database.execute("""
+				INSERT INTO v_remote_content (content_id, content_type_id, title, url, date_created, description, author,
+				owner_institution_id, en_search_vector, shared_flag, publish_start_date, published, last_updated)
+				VALUES (?, ?, 'Data Sync Test', 'https://www.cobaltplatform.com', NOW(), 'Description', 'Author',
+				?, to_tsvector('english', 'Data Sync Test'), TRUE, NOW(), TRUE, NOW() - INTERVAL '1 hour')
+				""", contentId, ContentTypeId.WEBSITE, InstitutionId.COBALT);
+
+		database.execute("""
+				INSERT INTO v_remote_tag_content (tag_content_id, tag_id, content_id)
+				VALUES (?, ?, ?)
+				""", UUID.randomUUID(), tagId, contentId);
+
+		return tagId;
+	}
+
+	@Nonnull
+	protected List<String> findTagIdsForContentId(@Nonnull Database database,
+												  @Nonnull UUID contentId) {
+		return database.queryForList("SELECT tag_id FROM tag_content WHERE content_id=? ORDER BY tag_id", String.class, contentId);
+	}
+}
@@ -25,6 +25,8 @@ import com.cobaltplatform.api.messaging.email.EmailMessage;
 import com.cobaltplatform.api.messaging.email.EmailMessageTemplate;
 import com.cobaltplatform.api.model.api.request.CreateScheduledMessageRequest;
 import com.cobaltplatform.api.model.db.Institution.InstitutionId;
+import com.cobaltplatform.api.model.db.MessageLog;
+import com.cobaltplatform.api.model.db.MessageStatus.MessageStatusId;
 import com.cobaltplatform.api.model.db.ScheduledMessage;
 import com.cobaltplatform.api.model.db.ScheduledMessageStatus.ScheduledMessageStatusId;
 import com.cobaltplatform.api.util.db.DatabaseProvider;
@@ -37,11 +39,14 @@ import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * @author Transmogrify, LLC.
@@ -216,6 +221,73 @@ public class MessageServiceTests {
 		});
 	}
 
+	@Test
+	public void batchedEmailSendRecordsEachMessage() {
+		// Exercises the batch path end-to-end against a local Mailpit instance (see MailpitEmailMessageSender)
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			MessageService messageService = app.getInjector().getInstance(MessageService.class);
+			MessageService.SendMessageTask sendMessageTask = app.getInjector().getInstance(MessageService.SendMessageTask.class);
+			Database database = app.getInjector().getInstance(DatabaseProvider.class).getWritableMasterDatabase();
+
+			List<UUID> messageIds = new ArrayList<>();
+
+			for (int i = 0; i < 3; ++i) {
+				Message message = createMessage();
+				messageService.enqueueMessage(message);
+				messageIds.add(message.getMessageId());
+			}
+
+			// Force a commit here so the send message task will be able to see them
+			database.execute("COMMIT");
+
+			sendMessageTask.run();
+
+			List<MessageLog> messageLogs = database.queryForList("SELECT * FROM message_log WHERE message_id=ANY(?)",
+					MessageLog.class, (Object) messageIds.toArray(new UUID[0]));
+
+			Assert.assertEquals(messageIds.size(), messageLogs.size());
+
+			for (MessageLog messageLog : messageLogs) {
+				Assert.assertEquals("Message was not marked as sent", MessageStatusId.SENT, messageLog.getMessageStatusId());
+				Assert.assertNotNull("Message is missing its vendor-assigned ID", messageLog.getVendorAssignedId());
+				Assert.assertNotNull("Message is missing its sending timestamp", messageLog.getSendingStarted());
+			}
+
+			Set<String> vendorAssignedIds = messageLogs.stream()
+					.map(messageLog -> messageLog.getVendorAssignedId())
+					.collect(Collectors.toSet());
+
+			Assert.assertEquals("Each message should have its own vendor-assigned ID", messageLogs.size(), vendorAssignedIds.size());
+		});
+	}
+
+	@Test
+	public void staleSendingMessagesAreReenqueued() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			MessageService messageService = app.getInjector().getInstance(MessageService.class);
+			MessageService.SendMessageTask sendMessageTask = app.getInjector().getInstance(MessageService.SendMessageTask.class);
+			Database database = app.getInjector().getInstance(DatabaseProvider.class).getWritableMasterDatabase();
+
+			Message staleMessage = createMessage();
+			Message inFlightMessage = createMessage();
+
+			messageService.enqueueMessage(staleMessage);
+			messageService.enqueueMessage(inFlightMessage);
+
+			database.execute("UPDATE message_log SET message_status_id=?, sending_started=NOW() - INTERVAL '1 hour' WHERE message_id=?",
+					MessageStatusId.SENDING, staleMessage.getMessageId());
+			database.execute("UPDATE message_log SET message_status_id=?, sending_started=NOW() WHERE message_id=?",
+					MessageStatusId.SENDING, inFlightMessage.getMessageId());
+
+			sendMessageTask.reenqueueStaleSendingMessages();
+
+			Assert.assertEquals("Stale message should have been re-enqueued", MessageStatusId.ENQUEUED,
+					database.queryForObject("SELECT * FROM message_log WHERE message_id=?", MessageLog.class, staleMessage.getMessageId()).get().getMessageStatusId());
+			Assert.assertEquals("In-flight message should have been left alone", MessageStatusId.SENDING,
+					database.queryForObject("SELECT * FROM message_log WHERE message_id=?", MessageLog.class, inFlightMessage.getMessageId()).get().getMessageStatusId());
+		});
+	}
+
 	@Nonnull
 	protected Message createMessage() {
 		return new EmailMessage.Builder(InstitutionId.COBALT, EmailMessageTemplate.ACCOUNT_VERIFICATION, Locale.US)
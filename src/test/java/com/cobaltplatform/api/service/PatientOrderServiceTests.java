@@ -19,41 +19,83 @@
 
 package com.cobaltplatform.api.service;
 
+import com.cobaltplatform.api.App;
 import com.cobaltplatform.api.IntegrationTestExecutor;
+import com.cobaltplatform.api.context.CurrentContext;
+import com.cobaltplatform.api.context.CurrentContextExecutor;
+import com.cobaltplatform.api.context.DatabaseContext;
+import com.cobaltplatform.api.context.DatabaseContextExecutor;
 import com.cobaltplatform.api.model.api.request.CreateAccountRequest;
 import com.cobaltplatform.api.model.api.request.CreatePatientOrderImportRequest;
 import com.cobaltplatform.api.model.api.request.CreatePatientOrderNoteRequest;
+import com.cobaltplatform.api.model.api.request.CreateScreeningSessionRequest;
 import com.cobaltplatform.api.model.api.request.DeletePatientOrderNoteRequest;
 import com.cobaltplatform.api.model.api.request.FindPatientOrdersRequest;
 import com.cobaltplatform.api.model.api.request.UpdatePatientOrderNoteRequest;
+import com.cobaltplatform.api.model.api.response.PatientOrderApiResponse.PatientOrderApiResponseBatchContext;
+import com.cobaltplatform.api.model.api.response.PatientOrderApiResponse.PatientOrderApiResponseFactory;
+import com.cobaltplatform.api.model.api.response.PatientOrderApiResponse.PatientOrderApiResponseFormat;
+import com.cobaltplatform.api.model.api.response.PatientOrderApiResponse.PatientOrderApiResponseSupplement;
+import com.cobaltplatform.api.model.api.response.ResourcePacketApiResponse.ResourcePacketApiResponseBatchContext;
+import com.cobaltplatform.api.model.api.response.ResourcePacketCareResourceLocationApiResponse.ResourcePacketCareResourceLocationApiResponseBatchContext;
 import com.cobaltplatform.api.model.db.Account;
 import com.cobaltplatform.api.model.db.AccountSource.AccountSourceId;
+import com.cobaltplatform.api.model.db.Institution;
 import com.cobaltplatform.api.model.db.Institution.InstitutionId;
 import com.cobaltplatform.api.model.db.PatientOrder;
 import com.cobaltplatform.api.model.db.PatientOrderDiagnosis;
 import com.cobaltplatform.api.model.db.PatientOrderImport;
+import com.cobaltplatform.api.model.db.PatientOrderImportProgress;
+import com.cobaltplatform.api.model.db.PatientOrderImportProgressStatus.PatientOrderImportProgressStatusId;
 import com.cobaltplatform.api.model.db.PatientOrderImportType.PatientOrderImportTypeId;
 import com.cobaltplatform.api.model.db.PatientOrderNote;
 import com.cobaltplatform.api.model.db.Role.RoleId;
 import com.cobaltplatform.api.model.service.FindResult;
 import com.cobaltplatform.api.model.service.PatientOrderImportResult;
+import com.cobaltplatform.api.util.ValidationException;
+import com.cobaltplatform.api.web.resource.PatientOrderResource;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
 import org.junit.Assert;
 import org.junit.Test;
 
+import javax.annotation.Nonnull;
 import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 
 /**
  * @author Transmogrify, LLC.
  */
 @ThreadSafe
 public class PatientOrderServiceTests {
+	// Statements allowed to build "everything" responses for the 8 orders in the test import.
+	// Per-order lookups would need well over 100
+	private static final int PATIENT_ORDER_LIST_STATEMENT_BUDGET = 20;
+	// Statements allowed for the same 8 orders once each has an intake and a clinical screening session.
+	// Per-session result lookups would need at least 7 more per session
+	private static final int PATIENT_ORDER_LIST_WITH_SCREENING_SESSIONS_STATEMENT_BUDGET = 30;
+	// Statements allowed for GET /patient-orders/{patientOrderId} with "everything" plus its associated orders
+	private static final int PATIENT_ORDER_DETAIL_STATEMENT_BUDGET = 30;
+
 	@Test
 	public void patientOrderImport() {
 		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
@@ -171,4 +213,288 @@ public class PatientOrderServiceTests {
 			Assert.assertEquals("Patient order panel account assignment failed", panelAccount.getAccountId(), patientOrder.getPanelAccountId());
 		});
 	}
+
+	@Test
+	public void patientOrderImportRecordsProgress() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			InstitutionId institutionId = InstitutionId.COBALT_IC;
+			PatientOrderService patientOrderService = app.getInjector().getInstance(PatientOrderService.class);
+			AccountService accountService = app.getInjector().getInstance(AccountService.class);
+			Account adminAccount = accountService.findAdminAccountsForInstitution(InstitutionId.COBALT).get(0);
+			UUID patientOrderImportId = UUID.randomUUID();
+
+			String csvContent = Files.readString(Path.of("resources/test/ic-order-report.csv"), StandardCharsets.UTF_8);
+
+			PatientOrderImportResult patientOrderImportResult = patientOrderService.createPatientOrderImport(new CreatePatientOrderImportRequest() {{
+				setPatientOrderImportId(patientOrderImportId);
+				setCsvContent(csvContent);
+				setInstitutionId(institutionId);
+				setPatientOrderImportTypeId(PatientOrderImportTypeId.CSV);
+				setAccountId(adminAccount.getAccountId());
+			}});
+
+			Assert.assertEquals("Caller-supplied import ID was not used", patientOrderImportId, patientOrderImportResult.getPatientOrderImportId());
+
+			PatientOrderImportProgress patientOrderImportProgress = patientOrderService.findPatientOrderImportProgressById(patientOrderImportId).orElse(null);
+
+			Assert.assertNotNull("No progress was recorded for import", patientOrderImportProgress);
+			Assert.assertEquals("Import progress was not marked complete", PatientOrderImportProgressStatusId.COMPLETE, patientOrderImportProgress.getPatientOrderImportProgressStatusId());
+			Assert.assertEquals("Unexpected row count in import progress", Integer.valueOf(8), patientOrderImportProgress.getRowCount());
+			Assert.assertEquals("Unexpected invalid row count in import progress", Integer.valueOf(0), patientOrderImportProgress.getInvalidRowCount());
+			Assert.assertEquals("Unexpected imported row count in import progress", Integer.valueOf(8), patientOrderImportProgress.getImportedRowCount());
+		});
+	}
+
+	@Test
+	public void patientOrderImportRejectsInvalidRowsBeforeImporting() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			InstitutionId institutionId = InstitutionId.COBALT_IC;
+			PatientOrderService patientOrderService = app.getInjector().getInstance(PatientOrderService.class);
+			AccountService accountService = app.getInjector().getInstance(AccountService.class);
+			Account adminAccount = accountService.findAdminAccountsForInstitution(InstitutionId.COBALT).get(0);
+			UUID patientOrderImportId = UUID.randomUUID();
+
+			// Rows are validated concurrently, so make sure errors are still reported against the right row
+			String csvContent = csvContentWithBlankColumnValue(Files.readString(Path.of("resources/test/ic-order-report.csv"), StandardCharsets.UTF_8), "MRN", 1);
+
+			try {
+				patientOrderService.createPatientOrderImport(new CreatePatientOrderImportRequest() {{
+					setPatientOrderImportId(patientOrderImportId);
+					setCsvContent(csvContent);
+					setInstitutionId(institutionId);
+					setPatientOrderImportTypeId(PatientOrderImportTypeId.CSV);
+					setAccountId(adminAccount.getAccountId());
+				}});
+
+				Assert.fail("Import with a missing MRN should have been rejected");
+			} catch (ValidationException e) {
+				Assert.assertEquals("Unexpected number of row errors", 1, e.getGlobalErrors().size());
+				Assert.assertTrue(format("Unexpected row error: %s", e.getGlobalErrors().get(0)), e.getGlobalErrors().get(0).startsWith("Row 2:"));
+				Assert.assertTrue(format("Unexpected row error: %s", e.getGlobalErrors().get(0)), e.getGlobalErrors().get(0).contains("Patient MRN is required."));
+			}
+
+			Assert.assertEquals("Orders were created for an import with invalid rows", 0, patientOrderService.findPatientOrdersByPatientOrderImportId(patientOrderImportId).size());
+
+			PatientOrderImportProgress patientOrderImportProgress = patientOrderService.findPatientOrderImportProgressById(patientOrderImportId).get();
+
+			Assert.assertEquals("Unexpected row count in import progress", Integer.valueOf(8), patientOrderImportProgress.getRowCount());
+			Assert.assertEquals("Unexpected invalid row count in import progress", Integer.valueOf(1), patientOrderImportProgress.getInvalidRowCount());
+			Assert.assertEquals("No Epic demographics should be pulled for an import with invalid rows", Integer.valueOf(0), patientOrderImportProgress.getEpicPatientCount());
+		});
+	}
+
+	@Test
+	public void patientOrderApiResponseQueryBudget() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			InstitutionId institutionId = InstitutionId.COBALT_IC;
+			PatientOrderService patientOrderService = app.getInjector().getInstance(PatientOrderService.class);
+			AccountService accountService = app.getInjector().getInstance(AccountService.class);
+			Account adminAccount = accountService.findAdminAccountsForInstitution(InstitutionId.COBALT).get(0);
+
+			String csvContent = Files.readString(Path.of("resources/test/ic-order-report.csv"), StandardCharsets.UTF_8);
+
+			PatientOrderImportResult patientOrderImportResult = patientOrderService.createPatientOrderImport(new CreatePatientOrderImportRequest() {{
+				setCsvContent(csvContent);
+				setInstitutionId(institutionId);
+				setPatientOrderImportTypeId(PatientOrderImportTypeId.CSV);
+				setAccountId(adminAccount.getAccountId());
+			}});
+
+			List<PatientOrder> patientOrders = patientOrderService.findPatientOrdersByPatientOrderImportId(patientOrderImportResult.getPatientOrderImportId());
+
+			Assert.assertEquals("Unexpected number of patient orders created for import", 8, patientOrders.size());
+
+			// Every relation a list of "everything" responses needs should be fetched once for the whole list, not once per order.
+			// If this starts failing, something in response assembly is querying per-order again
+			int statementCount = countPatientOrderApiResponseStatements(app, patientOrders);
+
+			Assert.assertTrue(format("Building %d patient order responses took %d statements, over the budget of %d",
+							patientOrders.size(), statementCount, PATIENT_ORDER_LIST_STATEMENT_BUDGET),
+					statementCount <= PATIENT_ORDER_LIST_STATEMENT_BUDGET);
+		});
+	}
+
+	@Test
+	public void patientOrderApiResponseWithScreeningSessionsQueryBudget() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			InstitutionId institutionId = InstitutionId.COBALT_IC;
+			PatientOrderService patientOrderService = app.getInjector().getInstance(PatientOrderService.class);
+			ScreeningService screeningService = app.getInjector().getInstance(ScreeningService.class);
+			InstitutionService institutionService = app.getInjector().getInstance(InstitutionService.class);
+			AccountService accountService = app.getInjector().getInstance(AccountService.class);
+			Account adminAccount = accountService.findAdminAccountsForInstitution(InstitutionId.COBALT).get(0);
+			Institution institution = institutionService.findInstitutionById(institutionId).get();
+
+			String csvContent = Files.readString(Path.of("resources/test/ic-order-report.csv"), StandardCharsets.UTF_8);
+
+			PatientOrderImportResult patientOrderImportResult = patientOrderService.createPatientOrderImport(new CreatePatientOrderImportRequest() {{
+				setCsvContent(csvContent);
+				setInstitutionId(institutionId);
+				setPatientOrderImportTypeId(PatientOrderImportTypeId.CSV);
+				setAccountId(adminAccount.getAccountId());
+			}});
+
+			UUID patientOrderImportId = patientOrderImportResult.getPatientOrderImportId();
+
+			// IC screening sessions only count toward an order if they're started by someone at the order's institution
+			Account panelAccount = patientOrderService.findPanelAccountsByInstitutionId(institutionId).get(0);
+
+			for (PatientOrder patientOrder : patientOrderService.findPatientOrdersByPatientOrderImportId(patientOrderImportId)) {
+				for (UUID screeningFlowId : List.of(institution.getIntegratedCareIntakeScreeningFlowId(), institution.getIntegratedCareScreeningFlowId())) {
+					screeningService.createScreeningSession(new CreateScreeningSessionRequest() {{
+						setScreeningFlowId(screeningFlowId);
+						setPatientOrderId(patientOrder.getPatientOrderId());
+						setCreatedByAccountId(panelAccount.getAccountId());
+					}});
+				}
+			}
+
+			// Re-read so the orders pick up their most recent screening sessions
+			List<PatientOrder> patientOrders = patientOrderService.findPatientOrdersByPatientOrderImportId(patientOrderImportId);
+
+			for (PatientOrder patientOrder : patientOrders) {
+				Assert.assertNotNull("Order is missing its intake screening session", patientOrder.getMostRecentIntakeScreeningSessionId());
+				Assert.assertNotNull("Order is missing its clinical screening session", patientOrder.getMostRecentScreeningSessionId());
+			}
+
+			// Screening session results are assembled from several tables; those lookups must be batched across orders too
+			int statementCount = countPatientOrderApiResponseStatements(app, patientOrders);
+
+			Assert.assertTrue(format("Building %d patient order responses with screening sessions took %d statements, over the budget of %d",
+							patientOrders.size(), statementCount, PATIENT_ORDER_LIST_WITH_SCREENING_SESSIONS_STATEMENT_BUDGET),
+					statementCount <= PATIENT_ORDER_LIST_WITH_SCREENING_SESSIONS_STATEMENT_BUDGET);
+		});
+	}
+
+	@Test
+	public void patientOrderEndpointQueryBudget() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			InstitutionId institutionId = InstitutionId.COBALT_IC;
+			PatientOrderService patientOrderService = app.getInjector().getInstance(PatientOrderService.class);
+			AccountService accountService = app.getInjector().getInstance(AccountService.class);
+			PatientOrderResource patientOrderResource = app.getInjector().getInstance(PatientOrderResource.class);
+			CurrentContextExecutor currentContextExecutor = app.getInjector().getInstance(CurrentContextExecutor.class);
+			DatabaseContextExecutor databaseContextExecutor = app.getInjector().getInstance(DatabaseContextExecutor.class);
+			Account adminAccount = accountService.findAdminAccountsForInstitution(InstitutionId.COBALT).get(0);
+
+			String csvContent = Files.readString(Path.of("resources/test/ic-order-report.csv"), StandardCharsets.UTF_8);
+
+			PatientOrderImportResult patientOrderImportResult = patientOrderService.createPatientOrderImport(new CreatePatientOrderImportRequest() {{
+				setCsvContent(csvContent);
+				setInstitutionId(institutionId);
+				setPatientOrderImportTypeId(PatientOrderImportTypeId.CSV);
+				setAccountId(adminAccount.getAccountId());
+			}});
+
+			List<PatientOrder> patientOrders = patientOrderService.findPatientOrdersByPatientOrderImportId(patientOrderImportResult.getPatientOrderImportId());
+			Account panelAccount = patientOrderService.findPanelAccountsByInstitutionId(institutionId).get(0);
+			CurrentContext currentContext = new CurrentContext.Builder(panelAccount, Locale.US, ZoneId.of("America/New_York")).build();
+
+			// Detail endpoint, with "everything" for the order itself
+			DatabaseContext detailDatabaseContext = new DatabaseContext();
+
+			databaseContextExecutor.execute(detailDatabaseContext, () -> {
+				currentContextExecutor.execute(currentContext, () -> {
+					patientOrderResource.patientOrder(patientOrders.get(0).getPatientOrderId(), Optional.empty());
+				});
+			});
+
+			int detailStatementCount = detailDatabaseContext.getStatementLogs().size();
+
+			Assert.assertTrue(format("GET /patient-orders/{patientOrderId} took %d statements, over the budget of %d",
+							detailStatementCount, PATIENT_ORDER_DETAIL_STATEMENT_BUDGET),
+					detailStatementCount <= PATIENT_ORDER_DETAIL_STATEMENT_BUDGET);
+
+			// Panel "today" view - statement count must not grow with the number of orders on the panel
+			patientOrderService.assignPatientOrderToPanelAccount(patientOrders.get(0).getPatientOrderId(),
+					panelAccount.getAccountId(), adminAccount.getAccountId());
+
+			DatabaseContext singleOrderDatabaseContext = new DatabaseContext();
+
+			databaseContextExecutor.execute(singleOrderDatabaseContext, () -> {
+				currentContextExecutor.execute(currentContext, () -> {
+					patientOrderResource.panelToday(Optional.of(panelAccount.getAccountId()), Optional.empty());
+				});
+			});
+
+			for (PatientOrder patientOrder : patientOrders.subList(1, patientOrders.size()))
+				patientOrderService.assignPatientOrderToPanelAccount(patientOrder.getPatientOrderId(),
+						panelAccount.getAccountId(), adminAccount.getAccountId());
+
+			DatabaseContext allOrdersDatabaseContext = new DatabaseContext();
+
+			databaseContextExecutor.execute(allOrdersDatabaseContext, () -> {
+				currentContextExecutor.execute(currentContext, () -> {
+					patientOrderResource.panelToday(Optional.of(panelAccount.getAccountId()), Optional.empty());
+				});
+			});
+
+			Assert.assertEquals(format("GET /integrated-care/panel-today issued more statements for %d orders than for 1", patientOrders.size()),
+					singleOrderDatabaseContext.getStatementLogs().size(), allOrdersDatabaseContext.getStatementLogs().size());
+		});
+	}
+
+	/**
+	 * Builds "everything" responses for the given orders the way the list endpoints do and returns how many statements it took.
+	 */
+	protected int countPatientOrderApiResponseStatements(@Nonnull App app,
+																											 @Nonnull List<PatientOrder> patientOrders) throws Exception {
+		requireNonNull(app);
+		requireNonNull(patientOrders);
+
+		PatientOrderService patientOrderService = app.getInjector().getInstance(PatientOrderService.class);
+		PatientOrderApiResponseFactory patientOrderApiResponseFactory = app.getInjector().getInstance(PatientOrderApiResponseFactory.class);
+		DatabaseContextExecutor databaseContextExecutor = app.getInjector().getInstance(DatabaseContextExecutor.class);
+		DatabaseContext databaseContext = new DatabaseContext();
+
+		databaseContextExecutor.execute(databaseContext, () -> {
+			Set<UUID> patientOrderIds = patientOrders.stream()
+					.map(PatientOrder::getPatientOrderId)
+					.collect(Collectors.toSet());
+
+			PatientOrderApiResponseBatchContext batchContext = new PatientOrderApiResponseBatchContext(
+					patientOrderService.findCurrentResourcePacketsByPatientOrderIds(patientOrderIds),
+					true,
+					patientOrderService.findPatientOrderScheduledMessageGroupApiResponsesByPatientOrderIds(patientOrderIds),
+					true,
+					new ResourcePacketApiResponseBatchContext(Map.of(), true, ResourcePacketCareResourceLocationApiResponseBatchContext.empty()),
+					patientOrderService.findPatientOrderRelations(patientOrders));
+
+			for (PatientOrder patientOrder : patientOrders)
+				patientOrderApiResponseFactory.create(patientOrder, PatientOrderApiResponseFormat.MHIC,
+						Set.of(PatientOrderApiResponseSupplement.EVERYTHING), batchContext);
+		});
+
+		return databaseContext.getStatementLogs().size();
+	}
+
+	@Nonnull
+	protected String csvContentWithBlankColumnValue(@Nonnull String csvContent,
+																									@Nonnull String columnName,
+																									int rowIndex) throws IOException {
+		requireNonNull(csvContent);
+		requireNonNull(columnName);
+
+		CSVParser csvParser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(new StringReader(csvContent));
+		int columnIndex = csvParser.getHeaderNames().indexOf(columnName);
+		StringWriter stringWriter = new StringWriter();
+
+		try (CSVPrinter csvPrinter = new CSVPrinter(stringWriter, CSVFormat.DEFAULT)) {
+			csvPrinter.printRecord(csvParser.getHeaderNames());
+
+			int currentRowIndex = 0;
+
+			for (CSVRecord record : csvParser) {
+				List<String> values = new ArrayList<>(record.toList());
+
+				if (currentRowIndex == rowIndex)
+					values.set(columnIndex, "");
+
+				csvPrinter.printRecord(values);
+				++currentRowIndex;
+			}
+		}
+
+		return stringWriter.toString();
+	}
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.service;
+
+import com.cobaltplatform.api.IntegrationTestExecutor;
+import com.cobaltplatform.api.model.db.Institution.InstitutionId;
+import com.cobaltplatform.api.model.db.SchedulingSystem.SchedulingSystemId;
+import com.cobaltplatform.api.util.db.DatabaseProvider;
+import com.google.inject.Injector;
+import com.pyranid.Database;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@ThreadSafe
+public class ProviderServiceTests {
+	@Test
+	public void autocompleteMatchesTypos() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			ProviderService providerService = app.getInjector().getInstance(ProviderService.class);
+			UUID providerId = createTestProvider(app.getInjector(), InstitutionId.COBALT, "Zebulon Quartermaine");
+
+			List<UUID> providerIds = findProviderIdsForAutocomplete(providerService, "Zebulonn");
+
+			Assert.assertTrue("Misspelled name should still match", providerIds.contains(providerId));
+		});
+	}
+
+	@Test
+	public void autocompleteRanksNamePrefixAboveSpecialtyMatch() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			ProviderService providerService = app.getInjector().getInstance(ProviderService.class);
+			Database database = app.getInjector().getInstance(DatabaseProvider.class).getWritableMasterDatabase();
+
+			UUID specialtyProviderId = createTestProvider(app.getInjector(), InstitutionId.COBALT, "Zebediah Fairweather");
+			UUID nameProviderId = createTestProvider(app.getInjector(), InstitutionId.COBALT, "Xylon Ashgrove");
+			UUID specialtyId = UUID.randomUUID();
+
+			database.execute("INSERT INTO specialty (specialty_id, institution_id, description, display_order) VALUES (?,?,?,?)",
+					specialtyId, InstitutionId.COBALT, "Xylophone Therapy", 1);
+			database.execute("INSERT INTO provider_specialty (provider_id, specialty_id) VALUES (?,?)", specialtyProviderId, specialtyId);
+
+			List<UUID> providerIds = findProviderIdsForAutocomplete(providerService, "Xylo");
+
+			Assert.assertTrue("Name prefix match should be returned", providerIds.contains(nameProviderId));
+			Assert.assertTrue("Specialty match should be returned", providerIds.contains(specialtyProviderId));
+			Assert.assertTrue("Name prefix match should rank above specialty match",
+					providerIds.indexOf(nameProviderId) < providerIds.indexOf(specialtyProviderId));
+		});
+	}
+
+	@Test
+	public void autocompleteOnlyMatchesInstitutionProviders() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			ProviderService providerService = app.getInjector().getInstance(ProviderService.class);
+			UUID otherInstitutionProviderId = createTestProvider(app.getInjector(), InstitutionId.COBALT_IC, "Zebulon Quartermaine");
+
+			List<UUID> providerIds = findProviderIdsForAutocomplete(providerService, "Zebulon");
+
+			Assert.assertFalse("Providers in other institutions should not match", providerIds.contains(otherInstitutionProviderId));
+		});
+	}
+
+	@Nonnull
+	protected List<UUID> findProviderIdsForAutocomplete(@Nonnull ProviderService providerService,
+																											@Nonnull String query) {
+		requireNonNull(providerService);
+		requireNonNull(query);
+
+		return providerService.findProvidersForAutocomplete(query, InstitutionId.COBALT).stream()
+				.map(provider -> provider.getProviderId())
+				.collect(Collectors.toList());
+	}
+
+	@Nonnull
+	protected UUID createTestProvider(@Nonnull Injector injector,
+																		@Nonnull InstitutionId institutionId,
+																		@Nonnull String name) {
+		requireNonNull(injector);
+		requireNonNull(institutionId);
+		requireNonNull(name);
+
+		Database database = injector.getInstance(DatabaseProvider.class).getWritableMasterDatabase();
+		UUID providerId = UUID.randomUUID();
+
+		database.execute("INSERT INTO provider (provider_id, institution_id, name, url_name, email_address, scheduling_system_id) VALUES (?,?,?,?,?,?)",
+				providerId, institutionId, name, format("test-provider-%s", providerId), format("testprovider-%s@cobaltinnovations.org", providerId),
+				SchedulingSystemId.COBALT);
+
+		return providerId;
+	}
+}
@@ -0,0 +1,428 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.service;
+
+import com.cobaltplatform.api.IntegrationTestExecutor;
+import com.cobaltplatform.api.integration.beiwe.BeiweCryptoManager;
+import com.cobaltplatform.api.model.api.request.CreateStudyExportRequest;
+import com.cobaltplatform.api.model.db.Institution.InstitutionId;
+import com.cobaltplatform.api.model.db.Role.RoleId;
+import com.cobaltplatform.api.model.db.StudyExport;
+import com.cobaltplatform.api.model.db.StudyExportStatus.StudyExportStatusId;
+import com.cobaltplatform.api.model.service.StudyExportSourceFile;
+import com.cobaltplatform.api.util.Authenticator;
+import com.cobaltplatform.api.util.UploadManager;
+import com.cobaltplatform.api.util.ValidationException;
+import com.cobaltplatform.api.util.db.DatabaseProvider;
+import com.lokalized.Strings;
+import com.pyranid.Database;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@ThreadSafe
+public class StudyServiceTests {
+	@Test
+	public void studyExportResumesFromCheckpoints() {
+		runStudyExportTest((fixture) -> {
+			UUID checkpointedFileUploadId = fixture.getFileUploadIds().get(0);
+
+			// Simulate an earlier run that was interrupted after exporting the first file
+			fixture.getDatabase().execute("""
+					INSERT INTO study_export_file (study_export_id, file_upload_id, exported, username, passive_data, storage_key, source_byte_count, exported_byte_count)
+					VALUES (?,?,TRUE,?,FALSE,?,10,5)
+					""", fixture.getStudyExportId(), checkpointedFileUploadId, fixture.getUsername(), "study-exports/checkpointed.gz");
+
+			StudyExport studyExport = fixture.performStudyExport();
+
+			Assert.assertFalse("Checkpointed file was exported again", fixture.getStudyService().getOpenedFileUploadIds().contains(checkpointedFileUploadId));
+			Assert.assertEquals("Remaining files were not exported", new HashSet<>(fixture.getFileUploadIds().subList(1, 3)),
+					fixture.getStudyService().getOpenedFileUploadIds());
+			Assert.assertEquals(StudyExportStatusId.COMPLETE, studyExport.getStudyExportStatusId());
+			Assert.assertEquals(3, studyExport.getTotalFileCount().intValue());
+			Assert.assertEquals(3, studyExport.getExportedFileCount().intValue());
+			Assert.assertEquals(0, studyExport.getFailedFileCount().intValue());
+		});
+	}
+
+	@Test
+	public void studyExportCountsPerFileFailures() {
+		runStudyExportTest((fixture) -> {
+			fixture.getStudyService().getFailingFileUploadIds().add(fixture.getFileUploadIds().get(1));
+
+			StudyExport studyExport = fixture.performStudyExport();
+
+			// One bad file shouldn't sink the whole export
+			Assert.assertEquals(StudyExportStatusId.COMPLETE, studyExport.getStudyExportStatusId());
+			Assert.assertEquals(2, studyExport.getExportedFileCount().intValue());
+			Assert.assertEquals(1, studyExport.getFailedFileCount().intValue());
+		});
+	}
+
+	@Test
+	public void studyExportWritesManifest() {
+		runStudyExportTest((fixture) -> {
+			UUID failingFileUploadId = fixture.getFileUploadIds().get(2);
+			fixture.getStudyService().getFailingFileUploadIds().add(failingFileUploadId);
+
+			StudyExport studyExport = fixture.performStudyExport();
+			Map<String, byte[]> uploadedObjects = fixture.getStudyService().getUploadedObjects();
+
+			Assert.assertEquals(format("study-exports/%s/manifest.csv.gz", fixture.getStudyExportId()), studyExport.getManifestStorageKey());
+
+			Map<UUID, CSVRecord> manifestRecordsByFileUploadId = new HashMap<>();
+
+			try (CSVParser csvParser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(new InputStreamReader(
+					new GZIPInputStream(new ByteArrayInputStream(uploadedObjects.get(studyExport.getManifestStorageKey()))), StandardCharsets.UTF_8))) {
+				for (CSVRecord csvRecord : csvParser)
+					manifestRecordsByFileUploadId.put(UUID.fromString(csvRecord.get("File Upload ID")), csvRecord);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			Assert.assertEquals("Manifest should list every file", new HashSet<>(fixture.getFileUploadIds()), manifestRecordsByFileUploadId.keySet());
+
+			for (UUID fileUploadId : fixture.getFileUploadIds()) {
+				CSVRecord csvRecord = manifestRecordsByFileUploadId.get(fileUploadId);
+
+				Assert.assertEquals(fixture.getUsername(), csvRecord.get("Username"));
+				Assert.assertEquals("Active", csvRecord.get("Data Type"));
+
+				if (fileUploadId.equals(failingFileUploadId)) {
+					Assert.assertEquals("Failed", csvRecord.get("Status"));
+					Assert.assertEquals("", csvRecord.get("Storage Key"));
+					Assert.assertEquals(RecordingStudyService.SIMULATED_FAILURE_MESSAGE, csvRecord.get("Error"));
+				} else {
+					String storageKey = csvRecord.get("Storage Key");
+					byte[] sourceBytes = RecordingStudyService.sourceBytesFor(fileUploadId);
+
+					Assert.assertEquals("Exported", csvRecord.get("Status"));
+					Assert.assertEquals(String.valueOf(sourceBytes.length), csvRecord.get("Source Bytes"));
+					Assert.assertEquals(String.valueOf(uploadedObjects.get(storageKey).length), csvRecord.get("Exported Bytes"));
+					Assert.assertArrayEquals("Exported object does not round-trip", sourceBytes, gunzip(uploadedObjects.get(storageKey)));
+				}
+			}
+		});
+	}
+
+	@Test
+	public void createStudyExportRejectsSecondPendingExport() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			StudyService studyService = app.getInjector().getInstance(StudyService.class);
+			Database database = app.getInjector().getInstance(DatabaseProvider.class).getWritableMasterDatabase();
+
+			UUID studyId = UUID.randomUUID();
+			UUID accountId = UUID.randomUUID();
+
+			createStudyAndAccount(database, studyId, accountId, "study-export-duplicate-test");
+
+			CreateStudyExportRequest request = new CreateStudyExportRequest();
+			request.setStudyId(studyId);
+			request.setRequestedByAccountId(accountId);
+
+			studyService.createStudyExport(request);
+
+			try {
+				studyService.createStudyExport(request);
+				Assert.fail("A second pending export was created for the same study");
+			} catch (ValidationException expected) {
+				// Expected
+			}
+
+			Assert.assertEquals("Rejected export should not have been inserted", 1, studyService.findStudyExportsByStudyId(studyId).size());
+		});
+	}
+
+	protected void runStudyExportTest(@Nonnull Consumer<StudyExportTestFixture> test) {
+		requireNonNull(test);
+
+		// Export workers run on their own threads and connections, so fixture data has to be committed (and cleaned up)
+		IntegrationTestExecutor.run((app) -> {
+			RecordingStudyService studyService = app.getInjector().getInstance(RecordingStudyService.class);
+			Database database = app.getInjector().getInstance(DatabaseProvider.class).getWritableMasterDatabase();
+
+			UUID studyId = UUID.randomUUID();
+			UUID accountId = UUID.randomUUID();
+			String username = format("study-export-test-%s", accountId);
+			List<UUID> fileUploadIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+			AtomicReference<UUID> studyExportId = new AtomicReference<>();
+
+			try {
+				database.transaction(() -> {
+					createStudyAndAccount(database, studyId, accountId, username);
+
+					for (UUID fileUploadId : fileUploadIds) {
+						database.execute("""
+								INSERT INTO file_upload (file_upload_id, account_id, url, storage_key, filename, content_type, filesize)
+								VALUES (?,?,?,?,?,'text/csv',?)
+								""", fileUploadId, accountId, format("https://example.com/%s", fileUploadId), fileUploadId.toString(),
+								format("%s.csv", fileUploadId), RecordingStudyService.sourceBytesFor(fileUploadId).length);
+
+						database.execute("INSERT INTO study_file_upload (study_id, file_upload_id) VALUES (?,?)", studyId, fileUploadId);
+					}
+
+					CreateStudyExportRequest request = new CreateStudyExportRequest();
+					request.setStudyId(studyId);
+					request.setRequestedByAccountId(accountId);
+
+					studyExportId.set(studyService.createStudyExport(request));
+				});
+
+				test.accept(new StudyExportTestFixture(studyService, database, studyExportId.get(), username, fileUploadIds));
+			} finally {
+				database.transaction(() -> {
+					database.execute("DELETE FROM study_export_file WHERE file_upload_id IN (SELECT file_upload_id FROM file_upload WHERE account_id=?)", accountId);
+					database.execute("DELETE FROM study_export WHERE study_id=?", studyId);
+					database.execute("DELETE FROM study_file_upload WHERE study_id=?", studyId);
+					database.execute("DELETE FROM file_upload WHERE account_id=?", accountId);
+					database.execute("DELETE FROM account_study WHERE study_id=?", studyId);
+					database.execute("DELETE FROM account WHERE account_id=?", accountId);
+					database.execute("DELETE FROM study WHERE study_id=?", studyId);
+				});
+			}
+		});
+	}
+
+	protected void createStudyAndAccount(@Nonnull Database database,
+																			 @Nonnull UUID studyId,
+																			 @Nonnull UUID accountId,
+																			 @Nonnull String username) {
+		requireNonNull(database);
+		requireNonNull(studyId);
+		requireNonNull(accountId);
+		requireNonNull(username);
+
+		database.execute("""
+				INSERT INTO study (study_id, institution_id, name, minutes_between_check_ins, grace_period_in_minutes)
+				VALUES (?,?,'Study Export Test',10080,0)
+				""", studyId, InstitutionId.COBALT);
+
+		database.execute("""
+				INSERT INTO account (account_id, role_id, institution_id, account_source_id, username, test_account)
+				VALUES (?,?,?,'ANONYMOUS',?,TRUE)
+				""", accountId, RoleId.PATIENT, InstitutionId.COBALT, username);
+
+		database.execute("INSERT INTO account_study (account_study_id, account_id, study_id) VALUES (?,?,?)",
+				UUID.randomUUID(), accountId, studyId);
+	}
+
+	@Nonnull
+	protected static byte[] gunzip(@Nonnull byte[] bytes) {
+		requireNonNull(bytes);
+
+		try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+			return inputStream.readAllBytes();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@ThreadSafe
+	protected static class StudyExportTestFixture {
+		@Nonnull
+		private final RecordingStudyService studyService;
+		@Nonnull
+		private final Database database;
+		@Nonnull
+		private final UUID studyExportId;
+		@Nonnull
+		private final String username;
+		@Nonnull
+		private final List<UUID> fileUploadIds;
+
+		public StudyExportTestFixture(@Nonnull RecordingStudyService studyService,
+																	@Nonnull Database database,
+																	@Nonnull UUID studyExportId,
+																	@Nonnull String username,
+																	@Nonnull List<UUID> fileUploadIds) {
+			requireNonNull(studyService);
+			requireNonNull(database);
+			requireNonNull(studyExportId);
+			requireNonNull(username);
+			requireNonNull(fileUploadIds);
+
+			this.studyService = studyService;
+			this.database = database;
+			this.studyExportId = studyExportId;
+			this.username = username;
+			this.fileUploadIds = fileUploadIds;
+		}
+
+		@Nonnull
+		public StudyExport performStudyExport() {
+			try {
+				getStudyService().performStudyExport(getStudyService().findStudyExportById(getStudyExportId()).get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+
+			return getStudyService().findStudyExportById(getStudyExportId()).get();
+		}
+
+		@Nonnull
+		public RecordingStudyService getStudyService() {
+			return this.studyService;
+		}
+
+		@Nonnull
+		public Database getDatabase() {
+			return this.database;
+		}
+
+		@Nonnull
+		public UUID getStudyExportId() {
+			return this.studyExportId;
+		}
+
+		@Nonnull
+		public String getUsername() {
+			return this.username;
+		}
+
+		@Nonnull
+		public List<UUID> getFileUploadIds() {
+			return this.fileUploadIds;
+		}
+	}
+
+	@ThreadSafe
+	protected static class RecordingStudyService extends StudyService {
+		@Nonnull
+		public static final String SIMULATED_FAILURE_MESSAGE = "Simulated storage failure";
+
+		@Nonnull
+		private final Set<UUID> openedFileUploadIds;
+		@Nonnull
+		private final Set<UUID> failingFileUploadIds;
+		@Nonnull
+		private final Map<String, byte[]> uploadedObjects;
+
+		@Inject
+		public RecordingStudyService(@Nonnull DatabaseProvider databaseProvider,
+																 @Nonnull Strings strings,
+																 @Nonnull Authenticator authenticator,
+																 @Nonnull Provider<AccountService> accountServiceProvider,
+																 @Nonnull Provider<SystemService> systemServiceProvider,
+																 @Nonnull Provider<StudyServiceNotificationTask> studyServiceNotificationTaskProvider,
+																 @Nonnull Provider<MessageService> messageServiceProvider,
+																 @Nonnull UploadManager uploadManager,
+																 @Nonnull BeiweCryptoManager beiweCryptoManager) {
+			super(databaseProvider, strings, authenticator, accountServiceProvider, systemServiceProvider,
+					studyServiceNotificationTaskProvider, messageServiceProvider, uploadManager, beiweCryptoManager);
+			this.openedFileUploadIds = Collections.synchronizedSet(new HashSet<>());
+			this.failingFileUploadIds = Collections.synchronizedSet(new HashSet<>());
+			this.uploadedObjects = new ConcurrentHashMap<>();
+		}
+
+		@Nonnull
+		public static byte[] sourceBytesFor(@Nonnull UUID fileUploadId) {
+			requireNonNull(fileUploadId);
+			return format("timestamp,value\n1700000000000,%s\n", fileUploadId).getBytes(StandardCharsets.UTF_8);
+		}
+
+		@Nonnull
+		@Override
+		protected List<StudyExportSourceFile> findPendingStudyExportSourceFiles(@Nonnull UUID studyExportId,
+																																					 @Nonnull UUID studyId) {
+			List<StudyExportSourceFile> studyExportSourceFiles = super.findPendingStudyExportSourceFiles(studyExportId, studyId);
+
+			// Test files are plaintext, so treat them like active check-in uploads and skip Beiwe decryption
+			for (StudyExportSourceFile studyExportSourceFile : studyExportSourceFiles)
+				studyExportSourceFile.setPassiveData(false);
+
+			return studyExportSourceFiles;
+		}
+
+		@Nonnull
+		@Override
+		protected InputStream openStudyExportSourceFile(@Nonnull StudyExportSourceFile studyExportSourceFile) {
+			requireNonNull(studyExportSourceFile);
+
+			UUID fileUploadId = studyExportSourceFile.getFileUploadId();
+			getOpenedFileUploadIds().add(fileUploadId);
+
+			if (getFailingFileUploadIds().contains(fileUploadId))
+				throw new IllegalStateException(SIMULATED_FAILURE_MESSAGE);
+
+			return new ByteArrayInputStream(sourceBytesFor(fileUploadId));
+		}
+
+		@Override
+		protected void uploadStudyExportObject(@Nonnull Path file,
+																					 @Nonnull String storageKey) {
+			requireNonNull(file);
+			requireNonNull(storageKey);
+
+			try {
+				getUploadedObjects().put(storageKey, Files.readAllBytes(file));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Nonnull
+		public Set<UUID> getOpenedFileUploadIds() {
+			return this.openedFileUploadIds;
+		}
+
+		@Nonnull
+		public Set<UUID> getFailingFileUploadIds() {
+			return this.failingFileUploadIds;
+		}
+
+		@Nonnull
+		public Map<String, byte[]> getUploadedObjects() {
+			return this.uploadedObjects;
+		}
+	}
+}
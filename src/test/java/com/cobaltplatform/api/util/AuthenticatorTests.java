@@ -80,6 +80,30 @@ public class AuthenticatorTests {
 		});
 	}
 
+	@Test
+	public void testVerifiedAccessTokenCache() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			final UUID ACCOUNT_ID = UUID.fromString("6e54bdb9-b19c-4ca3-9cd0-52cae0c9d2a0");
+			final RoleId ROLE_ID = RoleId.ADMINISTRATOR;
+
+			Configuration configuration = new Configuration();
+			Authenticator authenticator = new Authenticator(configuration, app.getInjector().getProvider(AccountService.class));
+			String accessToken = authenticator.generateAccessToken(ACCOUNT_ID, ROLE_ID);
+
+			AccessTokenClaims accessTokenClaims = authenticator.validateAccessToken(accessToken).get();
+			AccessTokenClaims cachedAccessTokenClaims = authenticator.validateAccessToken(accessToken).get();
+
+			Assert.assertEquals("Cached access token claims did not match verified claims", accessTokenClaims, cachedAccessTokenClaims);
+
+			// A tampered signature must still be rejected even though the original token is cached
+			String tamperedAccessToken = accessToken.substring(0, accessToken.length() - 4) + "AAAA";
+			Assert.assertFalse("Tampered access token was accepted", authenticator.validateAccessToken(tamperedAccessToken).isPresent());
+
+			authenticator.invalidateVerifiedAccessTokens();
+			Assert.assertEquals("Access token claims changed after cache invalidation", accessTokenClaims, authenticator.validateAccessToken(accessToken).get());
+		});
+	}
+
 	@Test
 	public void testSigningToken() throws SigningTokenValidationException {
 		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@ThreadSafe
+public class DeferredCommitOutputStreamTests {
+	@Test
+	public void testWritesAreHeldBackUntilFinish() throws IOException {
+		ByteArrayOutputStream destinationOutputStream = new ByteArrayOutputStream();
+		DeferredCommitOutputStream deferredCommitOutputStream = new DeferredCommitOutputStream(() -> destinationOutputStream, 16);
+
+		deferredCommitOutputStream.write("header".getBytes(StandardCharsets.UTF_8));
+		deferredCommitOutputStream.flush();
+
+		Assert.assertFalse("Stream committed before reaching the deferred byte count", deferredCommitOutputStream.isCommitted());
+		Assert.assertEquals("Bytes reached the destination before commit", 0, destinationOutputStream.size());
+
+		deferredCommitOutputStream.finish();
+
+		Assert.assertTrue("Stream was not committed by finish()", deferredCommitOutputStream.isCommitted());
+		Assert.assertEquals("Held back bytes were not written on finish()", "header", destinationOutputStream.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testCommitsOnceDeferredByteCountIsReached() throws IOException {
+		ByteArrayOutputStream destinationOutputStream = new ByteArrayOutputStream();
+		DeferredCommitOutputStream deferredCommitOutputStream = new DeferredCommitOutputStream(() -> destinationOutputStream, 4);
+
+		deferredCommitOutputStream.write("abc".getBytes(StandardCharsets.UTF_8));
+
+		Assert.assertFalse("Stream committed too early", deferredCommitOutputStream.isCommitted());
+
+		deferredCommitOutputStream.write("defgh".getBytes(StandardCharsets.UTF_8));
+
+		Assert.assertTrue("Stream did not commit after reaching the deferred byte count", deferredCommitOutputStream.isCommitted());
+		Assert.assertEquals("Unexpected bytes after commit", "abcdefgh", destinationOutputStream.toString(StandardCharsets.UTF_8));
+
+		// Once committed, writes pass straight through
+		deferredCommitOutputStream.write('i');
+
+		Assert.assertEquals("Write after commit did not pass through", "abcdefghi", destinationOutputStream.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testNothingIsWrittenIfNeverFinished() throws IOException {
+		ByteArrayOutputStream destinationOutputStream = new ByteArrayOutputStream();
+		DeferredCommitOutputStream deferredCommitOutputStream = new DeferredCommitOutputStream(() -> destinationOutputStream, 1024);
+
+		// Simulates a failure partway through: data was written, then the writer gave up and closed
+		deferredCommitOutputStream.write("partial".getBytes(StandardCharsets.UTF_8));
+		deferredCommitOutputStream.close();
+
+		Assert.assertFalse("Stream should not have committed", deferredCommitOutputStream.isCommitted());
+		Assert.assertEquals("Partial output reached the destination", 0, destinationOutputStream.size());
+	}
+}
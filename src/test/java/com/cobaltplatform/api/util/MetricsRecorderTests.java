@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@ThreadSafe
+public class MetricsRecorderTests {
+	@Test
+	public void testSqlNormalization() {
+		MetricsRecorder metricsRecorder = new MetricsRecorder();
+
+		String normalizedSql = metricsRecorder.normalizeSql("""
+				SELECT *
+				FROM account -- comment
+				WHERE account_id IN (?, ?, ?)
+				AND email_address='someone@example.com'
+				LIMIT 10
+				""");
+
+		Assert.assertEquals("SQL was not normalized correctly",
+				"SELECT * FROM account WHERE account_id IN (?, ...) AND email_address=? LIMIT ?", normalizedSql);
+	}
+
+	@Test
+	public void testLatencyHistogramPercentiles() {
+		LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+		// 1ms through 1000ms, evenly spread
+		for (long i = 1; i <= 1_000; ++i)
+			latencyHistogram.record(Duration.ofMillis(i).toNanos());
+
+		LatencyHistogram.Snapshot snapshot = latencyHistogram.snapshot();
+		Duration p99 = snapshot.getPercentile(0.99D);
+
+		Assert.assertEquals("Wrong count", Long.valueOf(1_000L), snapshot.getCount());
+		Assert.assertTrue("p99 is not in the right bucket", p99.compareTo(Duration.ofMillis(500)) > 0 && p99.compareTo(Duration.ofSeconds(1)) <= 0);
+	}
+
+	@Test
+	public void testBackgroundTaskUnitMetrics() {
+		MetricsRecorder metricsRecorder = new MetricsRecorder();
+
+		metricsRecorder.recordBackgroundTaskUnit("provider-availability-history", "COBALT", Duration.ofSeconds(3).toNanos(), true);
+		metricsRecorder.recordBackgroundTaskUnit("provider-availability-history", "COBALT", Duration.ofSeconds(7).toNanos(), false);
+
+		String prometheusText = metricsRecorder.generatePrometheusText();
+
+		Assert.assertTrue("Missing background task unit count", prometheusText.contains(
+				"cobalt_background_task_unit_duration_seconds_count{task=\"provider-availability-history\",unit=\"COBALT\"} 2\n"));
+		Assert.assertTrue("Missing background task unit failure count", prometheusText.contains(
+				"cobalt_background_task_unit_failures_total{task=\"provider-availability-history\",unit=\"COBALT\"} 1\n"));
+	}
+
+	@Test
+	public void testCacheMetrics() {
+		MetricsRecorder metricsRecorder = new MetricsRecorder();
+		Cache<String, String> cache = Caffeine.newBuilder().recordStats().build();
+
+		metricsRecorder.registerCache("test-cache", cache);
+
+		cache.put("key", "value");
+		cache.getIfPresent("key");
+		cache.getIfPresent("missing");
+
+		metricsRecorder.recordCacheInvalidation("test-cache", true);
+
+		String prometheusText = metricsRecorder.generatePrometheusText();
+
+		Assert.assertTrue("Missing cache hit count", prometheusText.contains("cobalt_cache_requests_total{cache=\"test-cache\",result=\"hit\"} 1\n"));
+		Assert.assertTrue("Missing cache miss count", prometheusText.contains("cobalt_cache_requests_total{cache=\"test-cache\",result=\"miss\"} 1\n"));
+		Assert.assertTrue("Missing cache size", prometheusText.contains("cobalt_cache_size{cache=\"test-cache\"} 1\n"));
+		Assert.assertTrue("Missing cache invalidation count", prometheusText.contains(
+				"cobalt_cache_invalidations_total{cache=\"test-cache\",source=\"remote\"} 1\n"));
+	}
+}
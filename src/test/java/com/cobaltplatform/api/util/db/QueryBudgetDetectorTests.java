@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.util.db;
+
+import com.cobaltplatform.api.IntegrationTestExecutor;
+import com.cobaltplatform.api.util.db.QueryBudgetDetector.Budget;
+import com.pyranid.Database;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@ThreadSafe
+public class QueryBudgetDetectorTests {
+	@Test
+	public void testRepeatedStatementDetection() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			QueryBudgetDetector queryBudgetDetector = app.getInjector().getInstance(QueryBudgetDetector.class);
+			Database database = app.getInjector().getInstance(DatabaseProvider.class).getWritableMasterDatabase();
+
+			// Up to and including the threshold is fine
+			queryBudgetDetector.executeWithinBudget(new Budget(null, null, 5), () -> {
+				for (int i = 0; i < 5; ++i)
+					database.queryForObject("SELECT 1", Integer.class);
+			});
+
+			try {
+				queryBudgetDetector.executeWithinBudget(new Budget(null, null, 5), () -> {
+					for (int i = 0; i < 6; ++i)
+						database.queryForObject("SELECT 1", Integer.class);
+				});
+
+				Assert.fail("Repeated statement was not detected");
+			} catch (QueryBudgetExceededException e) {
+				Assert.assertTrue("Statement origin was not captured", e.getMessage().contains(QueryBudgetDetectorTests.class.getName()));
+			}
+		});
+	}
+
+	@Test
+	public void testStatementCountBudget() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			QueryBudgetDetector queryBudgetDetector = app.getInjector().getInstance(QueryBudgetDetector.class);
+			Database database = app.getInjector().getInstance(DatabaseProvider.class).getWritableMasterDatabase();
+
+			try {
+				queryBudgetDetector.executeWithinBudget(new Budget(2, null, null), () -> {
+					database.queryForObject("SELECT 1", Integer.class);
+					database.queryForObject("SELECT 2", Integer.class);
+					database.queryForObject("SELECT 3", Integer.class);
+				});
+
+				Assert.fail("Statement count budget was not enforced");
+			} catch (QueryBudgetExceededException ignored) {
+				// Expected
+			}
+		});
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.web.filter;
+
+import com.cobaltplatform.api.IntegrationTestExecutor;
+import com.cobaltplatform.api.context.DatabaseContextExecutor;
+import com.cobaltplatform.api.service.SystemService;
+import com.cobaltplatform.api.util.db.DatabaseProvider;
+import com.cobaltplatform.api.util.db.QueryBudgetDetector;
+import com.cobaltplatform.api.util.db.QueryBudgetExceededException;
+import com.cobaltplatform.api.web.resource.PatientOrderResource;
+import com.pyranid.Database;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@ThreadSafe
+public class DatabaseFilterTests {
+	@Test
+	public void testQueryBudgetEnforcedThroughFilter() {
+		IntegrationTestExecutor.runTransactionallyAndForceRollback((app) -> {
+			// GET /patient-orders allows any one statement to run at most 3 times
+			RouteDatabaseFilter databaseFilter = app.getInjector().getInstance(RouteDatabaseFilter.class);
+			Database database = app.getInjector().getInstance(DatabaseProvider.class).getWritableMasterDatabase();
+			HttpServletRequest httpServletRequest = createHttpServletRequest("GET", "/patient-orders");
+
+			// At the budget is fine
+			databaseFilter.doFilter(httpServletRequest, createHttpServletResponse(false), (servletRequest, servletResponse) -> {
+				for (int i = 0; i < 3; ++i)
+					database.queryForObject("SELECT 1", Integer.class);
+			});
+
+			// Over the budget, with the response still buffered, is rejected
+			try {
+				databaseFilter.doFilter(httpServletRequest, createHttpServletResponse(false), (servletRequest, servletResponse) -> {
+					for (int i = 0; i < 4; ++i)
+						database.queryForObject("SELECT 1", Integer.class);
+				});
+
+				Assert.fail("Query budget for GET /patient-orders was not enforced");
+			} catch (QueryBudgetExceededException e) {
+				Assert.assertTrue("Violation did not name the route", e.getMessage().contains("PatientOrderResource.findPatientOrders"));
+			}
+
+			// Over the budget after the response was committed is only reported - the client already has its response
+			databaseFilter.doFilter(httpServletRequest, createHttpServletResponse(true), (servletRequest, servletResponse) -> {
+				for (int i = 0; i < 4; ++i)
+					database.queryForObject("SELECT 1", Integer.class);
+			});
+		});
+	}
+
+	@Nonnull
+	protected HttpServletRequest createHttpServletRequest(@Nonnull String method,
+																												@Nonnull String requestUri) {
+		requireNonNull(method);
+		requireNonNull(requestUri);
+
+		return (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{HttpServletRequest.class}, (proxy, proxyMethod, args) -> {
+			if (proxyMethod.getName().equals("getMethod"))
+				return method;
+			if (proxyMethod.getName().equals("getRequestURI"))
+				return requestUri;
+
+			return null;
+		});
+	}
+
+	@Nonnull
+	protected HttpServletResponse createHttpServletResponse(boolean committed) {
+		return (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{HttpServletResponse.class}, (proxy, proxyMethod, args) -> {
+			if (proxyMethod.getName().equals("isCommitted"))
+				return committed;
+
+			return null;
+		});
+	}
+
+	// Pretends every request was routed to GET /patient-orders, since there's no Soklet request context in tests
+	public static class RouteDatabaseFilter extends DatabaseFilter {
+		@Inject
+		public RouteDatabaseFilter(@Nonnull Provider<SystemService> systemServiceProvider,
+															 @Nonnull DatabaseProvider databaseProvider,
+															 @Nonnull DatabaseContextExecutor databaseContextExecutor,
+															 @Nonnull QueryBudgetDetector queryBudgetDetector) {
+			super(systemServiceProvider, databaseProvider, databaseContextExecutor, queryBudgetDetector);
+		}
+
+		@Nonnull
+		@Override
+		protected Optional<Method> resourceMethodForCurrentRequest() {
+			return Arrays.stream(PatientOrderResource.class.getMethods())
+					.filter(method -> method.getName().equals("findPatientOrders"))
+					.findFirst();
+		}
+	}
+}
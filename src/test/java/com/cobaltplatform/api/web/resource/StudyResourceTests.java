@@ -0,0 +1,61 @@
+/*
+ * Copyright 2021 The University of Pennsylvania and Penn Medicine
+ *
+ * Originally created at the University of Pennsylvania and Penn Medicine by:
+ * Dr. David Asch; Dr. Lisa Bellini; Dr. Cecilia Livesey; Kelley Kugler; and Dr. Matthew Press.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.cobaltplatform.api.web.resource;
+
+import com.cobaltplatform.api.IntegrationTestExecutor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Optional;
+
+/**
+ * @author Transmogrify, LLC.
+ */
+@ThreadSafe
+public class StudyResourceTests {
+	@Test
+	public void testRangeHeaderNormalization() {
+		IntegrationTestExecutor.run((app) -> {
+			StudyResource studyResource = app.getInjector().getInstance(StudyResource.class);
+
+			Assert.assertEquals("Bounded range was not accepted", Optional.of("bytes=0-499"), studyResource.normalizeRangeHeader("bytes=0-499"));
+			Assert.assertEquals("Open-ended range was not accepted", Optional.of("bytes=500-"), studyResource.normalizeRangeHeader(" bytes=500- "));
+			Assert.assertEquals("Suffix range was not accepted", Optional.of("bytes=-500"), studyResource.normalizeRangeHeader("bytes=-500"));
+
+			// Anything we don't support falls back to returning the whole file
+			Assert.assertEquals("Missing header should be ignored", Optional.empty(), studyResource.normalizeRangeHeader(null));
+			Assert.assertEquals("Empty range should be ignored", Optional.empty(), studyResource.normalizeRangeHeader("bytes=-"));
+			Assert.assertEquals("Reversed range should be ignored", Optional.empty(), studyResource.normalizeRangeHeader("bytes=500-0"));
+			Assert.assertEquals("Multiple ranges should be ignored", Optional.empty(), studyResource.normalizeRangeHeader("bytes=0-1,5-10"));
+			Assert.assertEquals("Other units should be ignored", Optional.empty(), studyResource.normalizeRangeHeader("items=0-1"));
+			Assert.assertEquals("Overflowing range should be ignored", Optional.empty(), studyResource.normalizeRangeHeader("bytes=0-99999999999999999999"));
+		});
+	}
+
+	@Test
+	public void testUnsatisfiedContentRangeHeader() {
+		IntegrationTestExecutor.run((app) -> {
+			StudyResource studyResource = app.getInjector().getInstance(StudyResource.class);
+
+			Assert.assertEquals("416 Content-Range header is malformed", "bytes */146515", studyResource.unsatisfiedContentRangeHeader(146515L));
+		});
+	}
+}